@@ -419,6 +419,19 @@ public class AlertManager {
   public Response postAlerts(List<PostableAlert> postableAlerts, Project project)
       throws AlertManagerClientCreateException, AlertManagerResponseException, AlertManagerUnreachableException,
       AlertManagerAccessControlException {
+    labelAlerts(postableAlerts, project);
+    return postAlerts(postableAlerts);
+  }
+
+  /**
+   * Check that the alerts belong to the project and set the project and type labels they are missing, so that they
+   * can be posted later, or together with the alerts of other projects, with postAlerts(List).
+   * @param postableAlerts
+   * @param project
+   * @throws AlertManagerAccessControlException
+   */
+  public void labelAlerts(List<PostableAlert> postableAlerts, Project project)
+      throws AlertManagerAccessControlException {
     for (PostableAlert postableAlert : postableAlerts) {
       if (postableAlert.getLabels() == null) {
         throw new IllegalArgumentException("Labels can not be empty.");
@@ -446,7 +459,6 @@ public class AlertManager {
         postableAlert.getLabels().put(Constants.ALERT_TYPE_LABEL, AlertType.PROJECT_ALERT.getValue());
       }
     }
-    return postAlerts(postableAlerts);
   }
 
   public Response postAlerts(List<PostableAlert> postableAlerts)
@@ -0,0 +1,74 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2021, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.alert.dao;
+
+import io.hops.hopsworks.persistence.entity.alertmanager.PendingAlert;
+
+import javax.ejb.Stateless;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+@Stateless
+public class PendingAlertFacade {
+  @PersistenceContext(unitName = "kthfsPU")
+  private EntityManager em;
+
+  public void save(PendingAlert entity) {
+    em.persist(entity);
+  }
+
+  /**
+   * @param expired claims older than this have expired
+   * @param limit
+   * @return the oldest alerts that are not claimed, or whose claim expired
+   */
+  public List<PendingAlert> findClaimable(Date expired, int limit) {
+    TypedQuery<PendingAlert> query = em.createNamedQuery("PendingAlert.findClaimable", PendingAlert.class);
+    query.setParameter("expired", expired);
+    query.setMaxResults(limit);
+    return query.getResultList();
+  }
+
+  public long countClaimable(Date expired) {
+    TypedQuery<Long> query = em.createNamedQuery("PendingAlert.countClaimable", Long.class);
+    query.setParameter("expired", expired);
+    return query.getSingleResult();
+  }
+
+  /**
+   * @return true if the alert was claimed, false if it is gone or another instance claimed it first
+   */
+  public boolean claim(Integer id, Date claimedAt, Date expired) {
+    return em.createNamedQuery("PendingAlert.claim")
+      .setParameter("id", id)
+      .setParameter("claimedAt", claimedAt)
+      .setParameter("expired", expired)
+      .executeUpdate() == 1;
+  }
+
+  public void remove(Collection<Integer> ids) {
+    if (ids.isEmpty()) {
+      return;
+    }
+    em.createNamedQuery("PendingAlert.deleteByIds")
+      .setParameter("ids", ids)
+      .executeUpdate();
+  }
+}
@@ -38,15 +38,19 @@
  */
 package io.hops.hopsworks.api.admin;
 
+import io.hops.hopsworks.api.admin.dto.PermissionsReconciliationDTO;
 import io.hops.hopsworks.api.admin.dto.ProjectAdminInfoDTO;
 import io.hops.hopsworks.api.admin.dto.ProjectDeletionLog;
+import io.hops.hopsworks.api.admin.projects.ProjectsBeanParam;
 import io.hops.hopsworks.api.filter.Audience;
 import io.hops.hopsworks.api.filter.NoCacheResponse;
 import io.hops.hopsworks.api.filter.apiKey.ApiKeyRequired;
 import io.hops.hopsworks.api.jwt.JWTHelper;
 import io.hops.hopsworks.api.project.ProjectRestDTO;
+import io.hops.hopsworks.api.util.Pagination;
 import io.hops.hopsworks.api.util.RESTApiJsonResponse;
 import io.hops.hopsworks.common.constants.message.ResponseMessages;
+import io.hops.hopsworks.common.dao.AbstractFacade;
 import io.hops.hopsworks.common.dao.project.ProjectFacade;
 import io.hops.hopsworks.common.dao.user.UserFacade;
 import io.hops.hopsworks.common.dataset.acl.PermissionsCleaner;
@@ -76,6 +80,7 @@ import javax.ejb.Stateless;
 import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
 import javax.servlet.http.HttpServletRequest;
+import javax.ws.rs.BeanParam;
 import javax.ws.rs.Consumes;
 import javax.ws.rs.DELETE;
 import javax.ws.rs.GET;
@@ -93,6 +98,7 @@ import javax.ws.rs.core.UriInfo;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -173,20 +179,22 @@ public class ProjectsAdmin {
   }
 
   /**
-   * Returns admin information about all the projects
+   * Returns admin information about a page of the projects, all the projects if no limit is given
    *
    * @return
    */
   @GET
   @Produces(MediaType.APPLICATION_JSON)
   @Path("/projects")
-  public Response getProjectsAdminInfo(@Context SecurityContext sc) {
-
-    List<Project> projects = projectFacade.findAll();
+  public Response getProjectsAdminInfo(@BeanParam Pagination pagination, @BeanParam ProjectsBeanParam projectsBeanParam,
+    @Context SecurityContext sc) {
+    AbstractFacade.CollectionInfo collectionInfo = projectFacade.findAll(pagination.getOffset(),
+      pagination.getLimit(), projectsBeanParam.getFilter(), projectsBeanParam.getSortBySet());
+    List<Project> projects = (List<Project>) collectionInfo.getItems();
+    Map<Integer, QuotasDTO> quotas = projectController.getQuotasInternal(projects);
     List<ProjectAdminInfoDTO> projectAdminInfoDTOList = new ArrayList<>();
     for (Project project : projects) {
-      projectAdminInfoDTOList.add(new ProjectAdminInfoDTO(project,
-          projectController.getQuotasInternal(project)));
+      projectAdminInfoDTOList.add(new ProjectAdminInfoDTO(project, quotas.get(project.getId())));
     }
 
     GenericEntity<List<ProjectAdminInfoDTO>> projectsEntity = new GenericEntity<List<ProjectAdminInfoDTO>>(
@@ -279,6 +287,16 @@ public class ProjectsAdmin {
     permissionsCleaner.fixPermissions();
     return Response.accepted().build();
   }
+
+  @GET
+  @Path("/projects/fix-permission")
+  @Produces(MediaType.APPLICATION_JSON)
+  public Response getPermissionFixStatus(@Context SecurityContext sc) {
+    PermissionsReconciliationDTO status = new PermissionsReconciliationDTO(permissionsCleaner.getQueueDepth(),
+      permissionsCleaner.getReconciledCount(), permissionsCleaner.getFailedCount(),
+      permissionsCleaner.getAverageLatency(), permissionsCleaner.getMaxLatency(), permissionsCleaner.getLastSweep());
+    return Response.ok().entity(status).build();
+  }
   
   @GET
   @Produces(MediaType.APPLICATION_JSON)
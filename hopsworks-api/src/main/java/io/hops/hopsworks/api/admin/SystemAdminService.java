@@ -40,6 +40,8 @@
 package io.hops.hopsworks.api.admin;
 
 import com.google.common.base.Strings;
+import io.hops.hopsworks.api.admin.dto.AuthorizationCacheStatsDTO;
+import io.hops.hopsworks.api.admin.dto.QueryProfileDTO;
 import io.hops.hopsworks.api.admin.dto.VariablesRequest;
 import io.hops.hopsworks.api.filter.Audience;
 import io.hops.hopsworks.api.filter.NoCacheResponse;
@@ -48,8 +50,11 @@ import io.hops.hopsworks.api.jwt.JWTHelper;
 import io.hops.hopsworks.api.util.RESTApiJsonResponse;
 import io.hops.hopsworks.common.agent.AgentLivenessMonitor;
 import io.hops.hopsworks.common.dao.kafka.TopicDefaultValueDTO;
+import io.hops.hopsworks.common.dao.util.QueryProfileFacade;
 import io.hops.hopsworks.common.hosts.HostsController;
 import io.hops.hopsworks.common.kafka.KafkaController;
+import io.hops.hopsworks.common.kafka.KafkaLagCollector;
+import io.hops.hopsworks.common.security.AuthorizationCache;
 import io.hops.hopsworks.common.security.CertificatesMgmService;
 import io.hops.hopsworks.common.security.ServiceJWTKeepAlive;
 import io.hops.hopsworks.common.util.RemoteCommandResult;
@@ -74,6 +79,7 @@ import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
 import javax.ws.rs.Consumes;
 import javax.ws.rs.DELETE;
+import javax.ws.rs.DefaultValue;
 import javax.ws.rs.FormParam;
 import javax.ws.rs.GET;
 import javax.ws.rs.POST;
@@ -81,6 +87,7 @@ import javax.ws.rs.PUT;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
@@ -116,6 +123,12 @@ public class SystemAdminService {
   private ServiceJWTKeepAlive serviceJWTKeepAlive;
   @EJB
   private KafkaController kafkaController;
+  @EJB
+  private KafkaLagCollector kafkaLagCollector;
+  @EJB
+  private AuthorizationCache authorizationCache;
+  @EJB
+  private QueryProfileFacade queryProfileFacade;
   
   /**
    * Admin endpoint that changes the master encryption password used to encrypt the certificates' password
@@ -194,6 +207,36 @@ public class SystemAdminService {
     return noCacheResponse.getNoCacheResponseBuilder(Response.Status.OK).entity(response).build();
   }
   
+  @ApiOperation(value = "Get the hit ratio of the request authorization cache of this instance")
+  @GET
+  @Path("/authorization-cache")
+  public Response getAuthorizationCacheStats(@Context SecurityContext sc) {
+    AuthorizationCacheStatsDTO stats = new AuthorizationCacheStatsDTO(
+      new AuthorizationCacheStatsDTO.CacheStatsDTO(authorizationCache.getProjectRoleCacheSize(),
+        authorizationCache.getProjectRoleStats()),
+      new AuthorizationCacheStatsDTO.CacheStatsDTO(authorizationCache.getApiKeyCacheSize(),
+        authorizationCache.getApiKeyStats()));
+    return Response.ok().entity(stats).build();
+  }
+  
+  @ApiOperation(value = "Get the number of executions and the time spent in the database queries of "
+    + "this instance, and the shared cache hits and misses of every entity")
+  @GET
+  @Path("/query-profile")
+  public Response getQueryProfile(@QueryParam("limit") @DefaultValue("50") Integer limit,
+    @Context SecurityContext sc) {
+    return Response.ok().entity(new QueryProfileDTO(queryProfileFacade.getStatistics(limit),
+      queryProfileFacade.getCacheStatistics())).build();
+  }
+  
+  @ApiOperation(value = "Reset the query statistics of this instance")
+  @DELETE
+  @Path("/query-profile")
+  public Response resetQueryProfile(@Context SecurityContext sc) {
+    queryProfileFacade.reset();
+    return Response.noContent().build();
+  }
+  
   @POST
   @Path("/rotate")
   public Response serviceKeyRotate(@Context SecurityContext sc) {
@@ -274,6 +317,14 @@ public class SystemAdminService {
     return Response.ok().entity(values).build();
   }
   
+  @ApiOperation(value = "Get consumer lag and throughput of all project topics in the Prometheus text format")
+  @GET
+  @Path("/kafka/metrics")
+  @Produces(MediaType.TEXT_PLAIN)
+  public Response getKafkaMetrics(@Context SecurityContext sc) {
+    return Response.ok().entity(kafkaLagCollector.toPrometheus()).build();
+  }
+  
   @GET
   @Path("/elastic/admintoken")
   public Response getElasticAdminToken(@Context SecurityContext sc) throws ElasticException {
@@ -40,16 +40,10 @@ package io.hops.hopsworks.api.admin;
 
 import com.logicalclocks.servicediscoverclient.service.Service;
 import io.hops.hopsworks.api.kibana.ProxyServlet;
-import io.hops.hopsworks.common.dao.jobhistory.YarnApplicationstateFacade;
-import io.hops.hopsworks.common.dao.project.ProjectFacade;
-import io.hops.hopsworks.common.dao.project.team.ProjectTeamFacade;
-import io.hops.hopsworks.common.dao.user.UserFacade;
-import io.hops.hopsworks.common.hdfs.HdfsUsersController;
 import io.hops.hopsworks.common.hosts.ServiceDiscoveryController;
+import io.hops.hopsworks.common.security.AuthorizationCache;
+import io.hops.hopsworks.common.security.ProxyAuthorizationController;
 import io.hops.hopsworks.common.util.Settings;
-import io.hops.hopsworks.persistence.entity.jobs.history.YarnApplicationstate;
-import io.hops.hopsworks.persistence.entity.project.Project;
-import io.hops.hopsworks.persistence.entity.user.Users;
 import org.apache.commons.httpclient.HostConfiguration;
 import org.apache.commons.httpclient.HttpClient;
 import org.apache.commons.httpclient.HttpMethod;
@@ -99,18 +93,15 @@ public class YarnUIProxyServlet extends ProxyServlet {
           "accept-language",
           "Accept-Charset", "accept-charset"));
 
+  private static final Pattern APPLICATION_PATTERN = Pattern.compile("(application_.*?_.\\d*)");
+  private static final Pattern APP_ATTEMPT_PATTERN = Pattern.compile("(appattempt_.*?_.\\d*)");
+  private static final Pattern CONTAINER_PATTERN = Pattern.compile("(container_e.*?_.*?_.\\d*)");
+  private static final Pattern CONTAINER_EPOCH_PATTERN = Pattern.compile("container_e.*?_");
+
   @EJB
   private Settings settings;
   @EJB
-  private UserFacade userFacade;
-  @EJB
-  private YarnApplicationstateFacade yarnApplicationstateFacade;
-  @EJB
-  private HdfsUsersController hdfsUsersBean;
-  @EJB
-  private ProjectFacade projectFacade;
-  @EJB
-  private ProjectTeamFacade projectTeamFacade;
+  private ProxyAuthorizationController proxyAuthorizationController;
   @EJB
   private ServiceDiscoveryController serviceDiscoveryController;
 
@@ -150,40 +141,26 @@ public class YarnUIProxyServlet extends ProxyServlet {
         || servletRequest.getRequestURI().contains("applications/application")) {
         
         String email = servletRequest.getUserPrincipal().getName();
-        Pattern pattern = Pattern.compile("(application_.*?_.\\d*)");
+        Pattern pattern = APPLICATION_PATTERN;
         Type type = Type.application;
         if (servletRequest.getRequestURI().contains("appattempt/appattempt")) {
-          pattern = Pattern.compile("(appattempt_.*?_.\\d*)");
+          pattern = APP_ATTEMPT_PATTERN;
           type = Type.appAttempt;
         } else if (servletRequest.getRequestURI().contains("container/container") || servletRequest.getRequestURI().
           contains("containerlogs/container")) {
-          pattern = Pattern.compile("(container_e.*?_.*?_.\\d*)");
+          pattern = CONTAINER_PATTERN;
           type = Type.container;
         }
-        Users user = userFacade.findByEmail(email);
         Matcher matcher = pattern.matcher(servletRequest.getRequestURI());
         if (matcher.find()) {
           String appId = matcher.group(1);
           if (type.equals(Type.appAttempt)) {
             appId = appId.replace("appattempt_", "application_");
           } else if (type.equals(Type.container)) {
-            appId = appId.replaceAll("container_e.*?_", "application_");
+            appId = CONTAINER_EPOCH_PATTERN.matcher(appId).replaceAll("application_");
           }
-          YarnApplicationstate appState = yarnApplicationstateFacade.findByAppId(
-            appId);
-          if (appState == null) {
-            servletResponse.sendError(Response.Status.BAD_REQUEST.getStatusCode(),
-              "You don't have the access right for this application");
-            return;
-          }
-          String projectName = hdfsUsersBean.getProjectName(appState.getAppuser());
-          Project project = projectFacade.findByName(projectName);
-          if (project == null) {
-            servletResponse.sendError(Response.Status.BAD_REQUEST.getStatusCode(), "Project does not exists");
-            return;
-          }
-
-          if (!projectTeamFacade.isUserMemberOfProject(project, user)) {
+          AuthorizationCache.ApplicationAccess access = proxyAuthorizationController.authorizeByEmail(email, appId);
+          if (access == null || !access.isMember()) {
             servletResponse.sendError(Response.Status.BAD_REQUEST.getStatusCode(),
                 "You don't have the access right for this application");
             return;
@@ -25,6 +25,7 @@ import io.hops.hopsworks.api.admin.alert.management.ManagementResource;
 import io.hops.hopsworks.api.admin.alert.receiver.AdminReceiverResource;
 import io.hops.hopsworks.api.admin.alert.route.AdminRouteResource;
 import io.hops.hopsworks.api.admin.alert.silence.AdminSilenceResource;
+import io.hops.hopsworks.api.admin.dto.AlertDispatchStatusDTO;
 import io.hops.hopsworks.api.alert.AlertBeanParam;
 import io.hops.hopsworks.api.alert.AlertBuilder;
 import io.hops.hopsworks.api.alert.AlertDTO;
@@ -33,6 +34,7 @@ import io.hops.hopsworks.api.alert.AlertGroupDTO;
 import io.hops.hopsworks.api.alert.PostableAlertDTOs;
 import io.hops.hopsworks.api.filter.Audience;
 import io.hops.hopsworks.api.util.Pagination;
+import io.hops.hopsworks.common.alert.AlertDispatcher;
 import io.hops.hopsworks.common.api.ResourceRequest;
 import io.hops.hopsworks.exceptions.AlertException;
 import io.hops.hopsworks.jwt.annotation.JWTRequired;
@@ -74,6 +76,8 @@ public class AdminAlertResource {
   private AlertBuilder alertBuilder;
   @EJB
   private AlertManager alertManager;
+  @EJB
+  private AlertDispatcher alertDispatcher;
   @Inject
   private ManagementResource managementResource;
   @Inject
@@ -134,6 +138,19 @@ public class AdminAlertResource {
     }
   }
 
+  @GET
+  @Path("dispatch")
+  @Produces(MediaType.APPLICATION_JSON)
+  @ApiOperation(value = "Get the state of the queue of alerts waiting to be sent to Alertmanager.",
+      response = AlertDispatchStatusDTO.class)
+  public Response getDispatchStatus(@Context SecurityContext sc) {
+    AlertDispatchStatusDTO status = new AlertDispatchStatusDTO(alertDispatcher.getQueueDepth(),
+        alertDispatcher.getDispatchedCount(), alertDispatcher.getFailedCount(), alertDispatcher.getDroppedCount(),
+        alertDispatcher.getDeduplicatedCount(), alertDispatcher.getRequestCount(), alertDispatcher.getAverageLatency(),
+        alertDispatcher.getMaxLatency());
+    return Response.ok().entity(status).build();
+  }
+
   @Path("management")
   public ManagementResource management() {
     return managementResource;
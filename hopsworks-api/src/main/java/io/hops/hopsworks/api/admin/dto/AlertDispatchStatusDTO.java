@@ -0,0 +1,110 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2021, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.api.admin.dto;
+
+import javax.xml.bind.annotation.XmlRootElement;
+
+@XmlRootElement
+public class AlertDispatchStatusDTO {
+  
+  private Integer queueDepth;
+  private Long dispatched;
+  private Long failed;
+  private Long dropped;
+  private Long deduplicated;
+  private Long requests;
+  private Long averageLatency;
+  private Long maxLatency;
+  
+  public AlertDispatchStatusDTO() {
+  }
+  
+  public AlertDispatchStatusDTO(int queueDepth, long dispatched, long failed, long dropped, long deduplicated,
+    long requests, long averageLatency, long maxLatency) {
+    this.queueDepth = queueDepth;
+    this.dispatched = dispatched;
+    this.failed = failed;
+    this.dropped = dropped;
+    this.deduplicated = deduplicated;
+    this.requests = requests;
+    this.averageLatency = averageLatency;
+    this.maxLatency = maxLatency;
+  }
+  
+  public Integer getQueueDepth() {
+    return queueDepth;
+  }
+  
+  public void setQueueDepth(Integer queueDepth) {
+    this.queueDepth = queueDepth;
+  }
+  
+  public Long getDispatched() {
+    return dispatched;
+  }
+  
+  public void setDispatched(Long dispatched) {
+    this.dispatched = dispatched;
+  }
+  
+  public Long getFailed() {
+    return failed;
+  }
+  
+  public void setFailed(Long failed) {
+    this.failed = failed;
+  }
+  
+  public Long getDropped() {
+    return dropped;
+  }
+  
+  public void setDropped(Long dropped) {
+    this.dropped = dropped;
+  }
+  
+  public Long getDeduplicated() {
+    return deduplicated;
+  }
+  
+  public void setDeduplicated(Long deduplicated) {
+    this.deduplicated = deduplicated;
+  }
+  
+  public Long getRequests() {
+    return requests;
+  }
+  
+  public void setRequests(Long requests) {
+    this.requests = requests;
+  }
+  
+  public Long getAverageLatency() {
+    return averageLatency;
+  }
+  
+  public void setAverageLatency(Long averageLatency) {
+    this.averageLatency = averageLatency;
+  }
+  
+  public Long getMaxLatency() {
+    return maxLatency;
+  }
+  
+  public void setMaxLatency(Long maxLatency) {
+    this.maxLatency = maxLatency;
+  }
+}
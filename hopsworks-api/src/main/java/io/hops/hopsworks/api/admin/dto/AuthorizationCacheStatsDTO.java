@@ -0,0 +1,110 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2021, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.api.admin.dto;
+
+import com.google.common.cache.CacheStats;
+
+import javax.xml.bind.annotation.XmlRootElement;
+
+@XmlRootElement
+public class AuthorizationCacheStatsDTO {
+  
+  private CacheStatsDTO projectRoles;
+  private CacheStatsDTO apiKeys;
+  
+  public AuthorizationCacheStatsDTO() {
+  }
+  
+  public AuthorizationCacheStatsDTO(CacheStatsDTO projectRoles, CacheStatsDTO apiKeys) {
+    this.projectRoles = projectRoles;
+    this.apiKeys = apiKeys;
+  }
+  
+  public CacheStatsDTO getProjectRoles() {
+    return projectRoles;
+  }
+  
+  public void setProjectRoles(CacheStatsDTO projectRoles) {
+    this.projectRoles = projectRoles;
+  }
+  
+  public CacheStatsDTO getApiKeys() {
+    return apiKeys;
+  }
+  
+  public void setApiKeys(CacheStatsDTO apiKeys) {
+    this.apiKeys = apiKeys;
+  }
+  
+  public static class CacheStatsDTO {
+    private Long size;
+    private Long hits;
+    private Long misses;
+    private Long evictions;
+    private Double hitRatio;
+    
+    public CacheStatsDTO() {
+    }
+    
+    public CacheStatsDTO(long size, CacheStats stats) {
+      this.size = size;
+      this.hits = stats.hitCount();
+      this.misses = stats.missCount();
+      this.evictions = stats.evictionCount();
+      this.hitRatio = stats.hitRate();
+    }
+    
+    public Long getSize() {
+      return size;
+    }
+    
+    public void setSize(Long size) {
+      this.size = size;
+    }
+    
+    public Long getHits() {
+      return hits;
+    }
+    
+    public void setHits(Long hits) {
+      this.hits = hits;
+    }
+    
+    public Long getMisses() {
+      return misses;
+    }
+    
+    public void setMisses(Long misses) {
+      this.misses = misses;
+    }
+    
+    public Long getEvictions() {
+      return evictions;
+    }
+    
+    public void setEvictions(Long evictions) {
+      this.evictions = evictions;
+    }
+    
+    public Double getHitRatio() {
+      return hitRatio;
+    }
+    
+    public void setHitRatio(Double hitRatio) {
+      this.hitRatio = hitRatio;
+    }
+  }
+}
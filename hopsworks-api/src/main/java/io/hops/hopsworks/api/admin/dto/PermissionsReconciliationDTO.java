@@ -0,0 +1,91 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2021, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.api.admin.dto;
+
+import javax.xml.bind.annotation.XmlRootElement;
+import java.util.Date;
+
+@XmlRootElement
+public class PermissionsReconciliationDTO {
+  
+  private Integer queueDepth;
+  private Long reconciled;
+  private Long failed;
+  private Long averageLatency;
+  private Long maxLatency;
+  private Date lastSweep;
+  
+  public PermissionsReconciliationDTO() {
+  }
+  
+  public PermissionsReconciliationDTO(int queueDepth, long reconciled, long failed, long averageLatency,
+    long maxLatency, long lastSweep) {
+    this.queueDepth = queueDepth;
+    this.reconciled = reconciled;
+    this.failed = failed;
+    this.averageLatency = averageLatency;
+    this.maxLatency = maxLatency;
+    this.lastSweep = lastSweep > 0 ? new Date(lastSweep) : null;
+  }
+  
+  public Integer getQueueDepth() {
+    return queueDepth;
+  }
+  
+  public void setQueueDepth(Integer queueDepth) {
+    this.queueDepth = queueDepth;
+  }
+  
+  public Long getReconciled() {
+    return reconciled;
+  }
+  
+  public void setReconciled(Long reconciled) {
+    this.reconciled = reconciled;
+  }
+  
+  public Long getFailed() {
+    return failed;
+  }
+  
+  public void setFailed(Long failed) {
+    this.failed = failed;
+  }
+  
+  public Long getAverageLatency() {
+    return averageLatency;
+  }
+  
+  public void setAverageLatency(Long averageLatency) {
+    this.averageLatency = averageLatency;
+  }
+  
+  public Long getMaxLatency() {
+    return maxLatency;
+  }
+  
+  public void setMaxLatency(Long maxLatency) {
+    this.maxLatency = maxLatency;
+  }
+  
+  public Date getLastSweep() {
+    return lastSweep;
+  }
+  
+  public void setLastSweep(Date lastSweep) {
+    this.lastSweep = lastSweep;
+  }
+}
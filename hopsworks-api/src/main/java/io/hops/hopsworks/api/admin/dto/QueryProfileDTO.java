@@ -0,0 +1,158 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2021, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.api.admin.dto;
+
+import io.hops.hopsworks.persistence.profiler.QueryProfiler;
+
+import javax.xml.bind.annotation.XmlRootElement;
+import java.util.ArrayList;
+import java.util.List;
+
+@XmlRootElement
+public class QueryProfileDTO {
+  
+  private List<QueryStatsDTO> queries;
+  private List<CacheStatsDTO> cache;
+  
+  public QueryProfileDTO() {
+  }
+  
+  public QueryProfileDTO(List<QueryProfiler.QueryStatistics> statistics,
+    List<QueryProfiler.CacheStatistics> cacheStatistics) {
+    this.queries = new ArrayList<>();
+    for (QueryProfiler.QueryStatistics queryStatistics : statistics) {
+      this.queries.add(new QueryStatsDTO(queryStatistics));
+    }
+    this.cache = new ArrayList<>();
+    for (QueryProfiler.CacheStatistics entityStatistics : cacheStatistics) {
+      this.cache.add(new CacheStatsDTO(entityStatistics));
+    }
+  }
+  
+  public List<QueryStatsDTO> getQueries() {
+    return queries;
+  }
+  
+  public void setQueries(List<QueryStatsDTO> queries) {
+    this.queries = queries;
+  }
+  
+  public List<CacheStatsDTO> getCache() {
+    return cache;
+  }
+  
+  public void setCache(List<CacheStatsDTO> cache) {
+    this.cache = cache;
+  }
+  
+  public static class QueryStatsDTO {
+    private String query;
+    private Long count;
+    private Double totalTimeMs;
+    private Double averageTimeMs;
+    private Double maxTimeMs;
+    
+    public QueryStatsDTO() {
+    }
+    
+    public QueryStatsDTO(QueryProfiler.QueryStatistics statistics) {
+      this.query = statistics.getQuery();
+      this.count = statistics.getCount();
+      this.totalTimeMs = statistics.getTotalTime() / 1e6;
+      this.averageTimeMs = count == 0 ? 0 : totalTimeMs / count;
+      this.maxTimeMs = statistics.getMaxTime() / 1e6;
+    }
+    
+    public String getQuery() {
+      return query;
+    }
+    
+    public void setQuery(String query) {
+      this.query = query;
+    }
+    
+    public Long getCount() {
+      return count;
+    }
+    
+    public void setCount(Long count) {
+      this.count = count;
+    }
+    
+    public Double getTotalTimeMs() {
+      return totalTimeMs;
+    }
+    
+    public void setTotalTimeMs(Double totalTimeMs) {
+      this.totalTimeMs = totalTimeMs;
+    }
+    
+    public Double getAverageTimeMs() {
+      return averageTimeMs;
+    }
+    
+    public void setAverageTimeMs(Double averageTimeMs) {
+      this.averageTimeMs = averageTimeMs;
+    }
+    
+    public Double getMaxTimeMs() {
+      return maxTimeMs;
+    }
+    
+    public void setMaxTimeMs(Double maxTimeMs) {
+      this.maxTimeMs = maxTimeMs;
+    }
+  }
+  
+  public static class CacheStatsDTO {
+    private String entity;
+    private Long hits;
+    private Long misses;
+    
+    public CacheStatsDTO() {
+    }
+    
+    public CacheStatsDTO(QueryProfiler.CacheStatistics statistics) {
+      this.entity = statistics.getEntity();
+      this.hits = statistics.getHits();
+      this.misses = statistics.getMisses();
+    }
+    
+    public String getEntity() {
+      return entity;
+    }
+    
+    public void setEntity(String entity) {
+      this.entity = entity;
+    }
+    
+    public Long getHits() {
+      return hits;
+    }
+    
+    public void setHits(Long hits) {
+      this.hits = hits;
+    }
+    
+    public Long getMisses() {
+      return misses;
+    }
+    
+    public void setMisses(Long misses) {
+      this.misses = misses;
+    }
+  }
+}
@@ -58,7 +58,8 @@ public class DatasetActions {
   
   public enum Delete {
     CORRUPTED(),
-    UNSHARE(); // unshare will delete the shared reference
+    UNSHARE(), // unshare will delete the shared reference
+    COMPRESSION(); // cancels the running zip/unzip of the path
   
     public static Delete fromString(String param) {
       return valueOf(param.toUpperCase());
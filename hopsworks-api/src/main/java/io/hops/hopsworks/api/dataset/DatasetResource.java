@@ -417,6 +417,9 @@ public class DatasetResource {
           datasetController
             .deleteCorrupted(project, user, datasetPath.getFullPath(), datasetPath.getDataset());
           break;
+        case COMPRESSION:
+          datasetController.cancelCompression(datasetPath.getFullPath());
+          break;
         default:
           throw new WebApplicationException("Action not valid.", Response.Status.NOT_FOUND);
       }
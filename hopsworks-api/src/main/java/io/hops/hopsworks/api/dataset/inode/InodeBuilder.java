@@ -25,6 +25,7 @@ import io.hops.hopsworks.common.api.ResourceRequest;
 import io.hops.hopsworks.common.dao.AbstractFacade;
 import io.hops.hopsworks.common.dao.hdfs.inode.InodeFacade;
 import io.hops.hopsworks.common.dao.user.UserFacade;
+import io.hops.hopsworks.common.dataset.CompressionTracker;
 import io.hops.hopsworks.common.dataset.DatasetController;
 import io.hops.hopsworks.common.dataset.FilePreviewMode;
 import io.hops.hopsworks.common.util.Settings;
@@ -67,6 +68,8 @@ public class InodeBuilder {
   @EJB
   private Settings settings;
   @EJB
+  private CompressionTracker compressionTracker;
+  @EJB
   private DatasetTagsBuilder tagsBuilder;
   
   private InodeDTO uri(InodeDTO dto, UriInfo uriInfo) {
@@ -130,6 +133,7 @@ public class InodeBuilder {
     if (dto.isExpand()) {
       dto.setAttributes(inodeAttributeBuilder.build(new InodeAttributeDTO(), resourceRequest, inode, null, null));
       dto.setZipState(settings.getZipState(dto.getAttributes().getPath()));
+      dto.setZipProgress(compressionTracker.getProgress(dto.getAttributes().getPath()));
       dto.setTags(tagsBuilder.build(uriInfo, resourceRequest, user, datasetPath));
     }
     return dto;
@@ -28,6 +28,7 @@ public class InodeDTO extends RestDTO<InodeDTO> {
   private InodeAttributeDTO attributes;
   private FilePreviewDTO preview;
   private String zipState = "NONE";
+  private Float zipProgress;
   private TagsDTO tags;
   
   public InodeDTO() {
@@ -57,6 +58,14 @@ public class InodeDTO extends RestDTO<InodeDTO> {
     this.zipState = zipState;
   }
   
+  public Float getZipProgress() {
+    return zipProgress;
+  }
+  
+  public void setZipProgress(Float zipProgress) {
+    this.zipProgress = zipProgress;
+  }
+  
   public TagsDTO getTags() {
     return tags;
   }
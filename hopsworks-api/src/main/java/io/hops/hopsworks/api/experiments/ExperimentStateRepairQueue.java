@@ -0,0 +1,87 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2021, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.api.experiments;
+
+import io.hops.hopsworks.persistence.entity.project.Project;
+
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.EJB;
+import javax.ejb.Schedule;
+import javax.ejb.Singleton;
+import javax.ejb.Timer;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Experiments whose application reached a final state without the experiment summary being updated are found while
+ * listing experiments. Instead of fixing them on the GET path, they are queued here and repaired in the background.
+ */
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+@TransactionAttribute(TransactionAttributeType.NEVER)
+public class ExperimentStateRepairQueue {
+
+  private static final Logger LOGGER = Logger.getLogger(ExperimentStateRepairQueue.class.getName());
+  private static final int MAX_PENDING = 10000;
+
+  @EJB
+  private ExperimentsController experimentsController;
+
+  private final Map<String, Repair> pending = new ConcurrentHashMap<>();
+
+  public void enqueue(Project project, String mlId, String state, Long finished) {
+    if (pending.size() >= MAX_PENDING) {
+      //the experiment will be found again by the next listing
+      return;
+    }
+    pending.putIfAbsent(project.getId() + "/" + mlId, new Repair(project, mlId, state, finished));
+  }
+
+  @Schedule(persistent = false, second = "*/30", minute = "*", hour = "*")
+  public void repair(Timer timer) {
+    Iterator<Map.Entry<String, Repair>> it = pending.entrySet().iterator();
+    while (it.hasNext()) {
+      Repair repair = it.next().getValue();
+      it.remove();
+      try {
+        experimentsController.repairExperimentState(repair.project, repair.mlId, repair.state, repair.finished);
+      } catch (Exception e) {
+        LOGGER.log(Level.INFO, "Failed to repair state of experiment " + repair.mlId + " in project "
+          + repair.project.getName(), e);
+      }
+    }
+  }
+
+  private static class Repair {
+    private final Project project;
+    private final String mlId;
+    private final String state;
+    private final Long finished;
+
+    Repair(Project project, String mlId, String state, Long finished) {
+      this.project = project;
+      this.mlId = mlId;
+      this.state = state;
+      this.finished = finished;
+    }
+  }
+}
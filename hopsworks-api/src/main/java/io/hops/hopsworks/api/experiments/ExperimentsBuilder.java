@@ -34,6 +34,7 @@ import io.hops.hopsworks.common.provenance.state.ProvStateController;
 import io.hops.hopsworks.common.provenance.state.dto.ProvStateDTO;
 import io.hops.hopsworks.common.provenance.util.ProvHelper;
 import io.hops.hopsworks.common.util.AccessController;
+import io.hops.hopsworks.common.util.BoundedParallelism;
 import io.hops.hopsworks.common.util.Settings;
 import io.hops.hopsworks.exceptions.DatasetException;
 import io.hops.hopsworks.exceptions.ExperimentsException;
@@ -47,15 +48,17 @@ import io.hops.hopsworks.persistence.entity.project.Project;
 import io.hops.hopsworks.persistence.entity.project.team.ProjectTeam;
 import io.hops.hopsworks.persistence.entity.user.Users;
 import io.hops.hopsworks.restutils.RESTCodes;
+import io.hops.hopsworks.restutils.RESTException;
 import org.apache.logging.log4j.core.util.Integers;
 import org.elasticsearch.search.sort.SortOrder;
 import org.javatuples.Pair;
-import org.json.JSONObject;
 
+import javax.annotation.Resource;
 import javax.ejb.EJB;
 import javax.ejb.Stateless;
 import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
+import javax.enterprise.concurrent.ManagedExecutorService;
 import javax.ws.rs.core.UriBuilder;
 import javax.ws.rs.core.UriInfo;
 import java.text.ParseException;
@@ -105,6 +108,10 @@ public class ExperimentsBuilder {
   private AccessController accessCtrl;
   @EJB
   private DatasetController datasetCtrl;
+  @EJB
+  private ExperimentStateRepairQueue experimentStateRepairQueue;
+  @Resource(lookup = "concurrent/hopsExecutorService")
+  private ManagedExecutorService executorService;
 
   public ExperimentDTO uri(ExperimentDTO dto, UriInfo uriInfo, Project project) {
     dto.setHref(uriInfo.getBaseUriBuilder().path(ResourceRequest.Name.PROJECT.toString().toLowerCase())
@@ -164,16 +171,18 @@ public class ExperimentsBuilder {
           List<ProvStateDTO> experiments = fileState.getItems();
           dto.setCount(fileState.getCount());
           if (experiments != null && !experiments.isEmpty()) {
-            for (ProvStateDTO fileProvStateHit : experiments) {
-              ExperimentDTO experimentDTO = build(uriInfo, resourceRequest, project, user,
-                provFilesParamBuilder.getValue1(), fileProvStateHit);
+            List<ExperimentDTO> items = BoundedParallelism.map(executorService, experiments,
+              settings.getMLListingParallelism(),
+              fileProvStateHit -> build(uriInfo, resourceRequest, project, user, provFilesParamBuilder.getValue1(),
+                fileProvStateHit));
+            for (ExperimentDTO experimentDTO : items) {
               if (experimentDTO != null) {
                 dto.addItem(experimentDTO);
               }
             }
           }
         }
-      } catch (ExperimentsException | DatasetException | ProvenanceException | MetadataException | GenericException e) {
+      } catch (RESTException e) {
         if (e instanceof ProvenanceException && ProvHelper.missingMappingForField((ProvenanceException) e)) {
           LOGGER.log(Level.WARNING, "Could not find elastic mapping for experiments query", e);
           return dto;
@@ -219,30 +228,23 @@ public class ExperimentsBuilder {
     if (expand(experimentDTO, resourceRequest).isExpand()) {
       if(fileProvenanceHit.getXattrs() != null
           && fileProvenanceHit.getXattrs().containsKey(EXPERIMENT_SUMMARY_XATTR_NAME)) {
-        JSONObject summary = new JSONObject(fileProvenanceHit.getXattrs().get(EXPERIMENT_SUMMARY_XATTR_NAME));
-
-        ExperimentDTO experimentSummary =
-            experimentConverter.unmarshalDescription(summary.toString());
+        ExperimentDTO experimentSummary = experimentConverter.unmarshalDescription(
+          fileProvenanceHit.getXattrs().get(EXPERIMENT_SUMMARY_XATTR_NAME));
 
         experimentDTO.setStarted(fileProvenanceHit.getCreateTime());
 
-        boolean updateNeeded = false;
-
-        // update experiment that failed to set experiment status
-        if((experimentSummary.getState() == null || runningState(experimentSummary))
+        // experiment that failed to set experiment status - the stored summary is repaired in the background
+        if((experimentSummary.getState() == null || ExperimentsController.isRunningState(experimentSummary.getState()))
           && Provenance.AppState.valueOf(fileProvenanceHit.getAppState().getCurrentState().name()).isFinalState()) {
-          updateNeeded = true;
           experimentSummary.setState(fileProvenanceHit.getAppState().getCurrentState().name());
           experimentSummary.setFinished(fileProvenanceHit.getAppState().getFinishTime());
+          experimentStateRepairQueue.enqueue(endpoint.getParentProject(), fileProvenanceHit.getMlId(),
+            experimentSummary.getState(), experimentSummary.getFinished());
         }
         
         experimentDTO.setState(experimentSummary.getState());
         experimentDTO.setFinished(experimentSummary.getFinished());
 
-        if(updateNeeded) {
-          experimentsController.attachExperiment(user, project, fileProvenanceHit.getMlId(), experimentSummary);
-        }
-
         if(fileProvenanceHit.getXattrs().containsKey(EXPERIMENT_MODEL_XATTR_NAME)) {
           ModelXAttr model = experimentConverter.unmarshal(
             fileProvenanceHit.getXattrs().get(EXPERIMENT_MODEL_XATTR_NAME), ModelXAttr.class);
@@ -267,7 +269,8 @@ public class ExperimentsBuilder {
         experimentDTO.setTensorboard(tensorBoardBuilder.build(uriInfo,
             resourceRequest.get(ResourceRequest.Name.TENSORBOARD), project, fileProvenanceHit.getMlId()));
         experimentDTO.setResults(experimentResultsBuilder.build(uriInfo,
-            resourceRequest.get(ResourceRequest.Name.RESULTS), project, fileProvenanceHit.getMlId()));
+            resourceRequest.get(ResourceRequest.Name.RESULTS), project, fileProvenanceHit.getMlId(),
+            experimentSummary.getTrials()));
       } else {
         return null;
       }
@@ -275,12 +278,6 @@ public class ExperimentsBuilder {
     return experimentDTO;
   }
   
-  private boolean runningState(ExperimentDTO experimentSummary) {
-    return experimentSummary.getState().equals(Provenance.AppState.SUBMITTED.name())
-      || experimentSummary.getState().equals(Provenance.AppState.RUNNING.name())
-      || experimentSummary.getState().equals(Provenance.AppState.UNKNOWN.name());
-  }
-  
   private ExperimentsEndpointDTO verifyExperimentsEndpoint(Project userProject, String sEndpointId)
     throws GenericException, DatasetException {
     Integer endpointId;
@@ -18,6 +18,8 @@ package io.hops.hopsworks.api.experiments;
 
 import io.hops.hopsworks.api.experiments.dto.ExperimentDTO;
 import io.hops.hopsworks.api.experiments.dto.ExperimentsEndpointDTO;
+import io.hops.hopsworks.api.experiments.dto.results.ExperimentResultsDTO;
+import io.hops.hopsworks.api.experiments.results.ExperimentResultsBuilder;
 import io.hops.hopsworks.common.dataset.DatasetController;
 import io.hops.hopsworks.common.dataset.util.DatasetHelper;
 import io.hops.hopsworks.common.dataset.util.DatasetPath;
@@ -52,9 +54,11 @@ import javax.ejb.EJB;
 import javax.ejb.Stateless;
 import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
+import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 
@@ -113,6 +117,9 @@ public class ExperimentsController {
         storedExp = experimentConverter.unmarshal(new String(storedExpB, StandardCharsets.UTF_8), ExperimentDTO.class);
       }
       ExperimentDTO experiment = ExperimentDTO.mergeExperiment(experimentSummary, storedExp);
+      if(experiment.getTrials() == null && experiment.getFinished() != null) {
+        experiment.setTrials(countTrials(udfso, experimentPath));
+      }
       byte[] experimentB = experimentConverter.marshal(experiment);
       xattrCtrl.upsertProvXAttr(udfso, experimentPath, ExperimentsBuilder.EXPERIMENT_SUMMARY_XATTR_NAME, experimentB);
     } finally {
@@ -122,6 +129,62 @@ public class ExperimentsController {
     }
   }
   
+  /**
+   * Used to fix the state of experiments whose application finished without the experiment being updated.
+   * The experiment xattr is updated as superuser, as the owner of the experiment might no longer be a member of the
+   * project.
+   */
+  public void repairExperimentState(Project project, String mlId, String state, Long finished)
+    throws DatasetException, MetadataException, ExperimentsException {
+    String experimentPath = Utils.getProjectPath(project.getName()) + Settings.HOPS_EXPERIMENTS_DATASET + "/" + mlId;
+    DistributedFileSystemOps dfso = dfs.getDfsOps();
+    try {
+      byte[] storedExpB = xattrCtrl.getProvXAttr(dfso, experimentPath,
+        ExperimentsBuilder.EXPERIMENT_SUMMARY_XATTR_NAME);
+      if(storedExpB == null) {
+        return;
+      }
+      ExperimentDTO storedExp = experimentConverter.unmarshal(new String(storedExpB, StandardCharsets.UTF_8),
+        ExperimentDTO.class);
+      if(storedExp.getState() != null && !isRunningState(storedExp.getState())) {
+        //already repaired
+        return;
+      }
+      storedExp.setState(state);
+      storedExp.setFinished(finished);
+      if(storedExp.getTrials() == null) {
+        storedExp.setTrials(countTrials(dfso, experimentPath));
+      }
+      xattrCtrl.upsertProvXAttr(dfso, experimentPath, ExperimentsBuilder.EXPERIMENT_SUMMARY_XATTR_NAME,
+        experimentConverter.marshal(storedExp));
+    } finally {
+      dfs.closeDfsClient(dfso);
+    }
+  }
+  
+  public static boolean isRunningState(String state) {
+    return state.equals(Provenance.AppState.SUBMITTED.name())
+      || state.equals(Provenance.AppState.RUNNING.name())
+      || state.equals(Provenance.AppState.UNKNOWN.name());
+  }
+  
+  private Integer countTrials(DistributedFileSystemOps dfso, String experimentPath) {
+    String summaryPath = experimentPath + "/" + ExperimentResultsBuilder.RESULTS_SUMMARY_FILE;
+    try {
+      if (dfso.exists(summaryPath)) {
+        String summaryJson = dfso.cat(new Path(summaryPath));
+        if (!Strings.isNullOrEmpty(summaryJson)) {
+          ExperimentResultsDTO[] results = experimentConverter.unmarshalResults(summaryJson).getCombinations();
+          return results == null ? 0 : results.length;
+        }
+      }
+      return 0;
+    } catch (IOException | ExperimentsException e) {
+      LOGGER.log(Level.INFO, "Could not read results of experiment " + experimentPath, e);
+      return null;
+    }
+  }
+  
   public void attachModel(Users user, Project experimentProject, String experimentId, Project modelProject,
     String modelId)
     throws DatasetException, MetadataException, ExperimentsException {
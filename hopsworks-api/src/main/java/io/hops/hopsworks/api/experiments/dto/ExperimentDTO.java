@@ -76,6 +76,8 @@ public class ExperimentDTO extends RestDTO<ExperimentDTO> {
 
   private String kernelId;
 
+  private Integer trials;
+
   private ExperimentResultSummaryDTO results;
 
   private TensorBoardDTO tensorboard;
@@ -272,6 +274,14 @@ public class ExperimentDTO extends RestDTO<ExperimentDTO> {
     this.duration = duration;
   }
 
+  public Integer getTrials() {
+    return trials;
+  }
+
+  public void setTrials(Integer trials) {
+    this.trials = trials;
+  }
+
   public static ExperimentDTO mergeExperiment(ExperimentDTO e1, ExperimentDTO e2) {
     ExperimentDTO experiment = new ExperimentDTO();
     if(e2 == null) {
@@ -299,6 +309,7 @@ public class ExperimentDTO extends RestDTO<ExperimentDTO> {
     experiment.setEnvironment(mergeValues(e1.getEnvironment(), e2.getEnvironment()));
     experiment.setProgram(mergeValues(e1.getProgram(), e2.getProgram()));
     experiment.setKernelId(mergeValues(e1.getKernelId(), e2.getKernelId()));
+    experiment.setTrials(mergeValues(e1.getTrials(), e2.getTrials()));
     experiment.setResults(mergeValues(e1.getResults(), e2.getResults()));
     experiment.setTensorboard(mergeValues(e1.getTensorboard(), e2.getTensorboard()));
     return experiment;
@@ -50,6 +50,8 @@ public class ExperimentResultsBuilder {
 
   private static final Logger LOGGER = Logger.getLogger(ExperimentResultsBuilder.class.getName());
 
+  public static final String RESULTS_SUMMARY_FILE = ".summary.json";
+
   private static final int MAX_LIMIT = 1000;
 
   @EJB
@@ -77,16 +79,26 @@ public class ExperimentResultsBuilder {
   public ExperimentResultSummaryDTO build(UriInfo uriInfo, ResourceRequest resourceRequest, Project project,
                                           String mlId)
       throws ExperimentsException {
+    return build(uriInfo, resourceRequest, project, mlId, null);
+  }
+
+  /**
+   * @param trials number of trials as stored in the experiment summary xattr. If the results are not expanded this
+   *               is used as count so no HopsFS read is needed.
+   */
+  public ExperimentResultSummaryDTO build(UriInfo uriInfo, ResourceRequest resourceRequest, Project project,
+                                          String mlId, Integer trials)
+      throws ExperimentsException {
     ExperimentResultSummaryDTO dto = new ExperimentResultSummaryDTO();
     uri(dto, uriInfo, project, mlId);
     expand(dto, resourceRequest);
-    dto.setCount(0l);
+    dto.setCount(trials == null ? 0l : trials.longValue());
     if (dto.isExpand()) {
       DistributedFileSystemOps dfso = null;
       try {
         dfso = dfs.getDfsOps();
         String summaryPath = Utils.getProjectPath(project.getName()) + Settings.HOPS_EXPERIMENTS_DATASET + "/"
-            + mlId + "/.summary.json";
+            + mlId + "/" + RESULTS_SUMMARY_FILE;
         if (dfso.exists(summaryPath)) {
           String summaryJson = dfso.cat(new Path(summaryPath));
           if(!Strings.isNullOrEmpty(summaryJson)) {
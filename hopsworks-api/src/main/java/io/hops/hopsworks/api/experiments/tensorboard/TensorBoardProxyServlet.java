@@ -41,16 +41,10 @@ package io.hops.hopsworks.api.experiments.tensorboard;
 
 import com.google.common.base.Strings;
 import io.hops.hopsworks.api.kibana.ProxyServlet;
-import io.hops.hopsworks.common.dao.jobhistory.YarnApplicationstateFacade;
-import io.hops.hopsworks.common.dao.project.ProjectFacade;
-import io.hops.hopsworks.common.dao.project.team.ProjectTeamFacade;
 import io.hops.hopsworks.common.dao.tensorflow.TensorBoardFacade;
-import io.hops.hopsworks.common.dao.user.UserFacade;
-import io.hops.hopsworks.common.hdfs.HdfsUsersController;
-import io.hops.hopsworks.persistence.entity.jobs.history.YarnApplicationstate;
-import io.hops.hopsworks.persistence.entity.project.Project;
+import io.hops.hopsworks.common.security.AuthorizationCache;
+import io.hops.hopsworks.common.security.ProxyAuthorizationController;
 import io.hops.hopsworks.persistence.entity.tensorflow.TensorBoard;
-import io.hops.hopsworks.persistence.entity.user.Users;
 import org.apache.hadoop.yarn.api.records.YarnApplicationState;
 import org.apache.http.client.utils.URIUtils;
 
@@ -70,20 +64,17 @@ import java.util.regex.Pattern;
 public class TensorBoardProxyServlet extends ProxyServlet {
 
   @EJB
-  private YarnApplicationstateFacade yarnApplicationstateFacade;
-  @EJB
-  private UserFacade userFacade;
-  @EJB
-  private HdfsUsersController hdfsUsersBean;
-  @EJB
-  private ProjectFacade projectFacade;
-  @EJB
-  private ProjectTeamFacade projectTeamFacade;
+  private ProxyAuthorizationController proxyAuthorizationController;
   @EJB
   private TensorBoardFacade tensorBoardFacade;
  
   private final static Logger LOGGER = Logger.getLogger(TensorBoardProxyServlet.class.getName());
 
+  // valid hostname regex:
+  // https://stackoverflow.com/questions/106179/regular-expression-to-match-dns-hostname-or-ip-address
+  private static final Pattern URL_PATTERN = Pattern.compile("([a-zA-Z0-9\\-\\.]{2,255}:[0-9]{4,6})(/.*$)");
+  private static final Pattern ELASTIC_PATTERN = Pattern.compile("(experiments)");
+
   // A request will come in with the format: 
   // http://127.0.0.1:8080/hopsworks-api/tensorboard/application_1507065031551_0005/hopsworks0:59460/#graphs
   // 
@@ -101,10 +92,7 @@ public class TensorBoardProxyServlet extends ProxyServlet {
     LOGGER.log(Level.FINE, "Request URL: {0}", servletRequest.getRequestURL());
 
     String uri = servletRequest.getRequestURI();
-    // valid hostname regex:
-    // https://stackoverflow.com/questions/106179/regular-expression-to-match-dns-hostname-or-ip-address
-    Pattern urlPattern = Pattern.compile("([a-zA-Z0-9\\-\\.]{2,255}:[0-9]{4,6})(/.*$)");
-    Matcher urlMatcher = urlPattern.matcher(uri);
+    Matcher urlMatcher = URL_PATTERN.matcher(uri);
     String hostPortPair = "";
     String uriToFinish = "/";
     if (urlMatcher.find()) {
@@ -117,12 +105,8 @@ public class TensorBoardProxyServlet extends ProxyServlet {
       return;
     }
 
-    Pattern appPattern = Pattern.compile("(application_.*?_\\d*)");
-    Matcher appMatcher = appPattern.matcher(servletRequest.getRequestURI());
-
-    Pattern elasticPattern = Pattern.compile("(experiments)");
-    Matcher elasticMatcher = elasticPattern.matcher(servletRequest.getRequestURI());
-    if (elasticMatcher.find()) {
+    String appId = ProxyAuthorizationController.findApplicationId(uri);
+    if (ELASTIC_PATTERN.matcher(uri).find()) {
 
       List<TensorBoard> TBList = tensorBoardFacade.findByUserEmail(email);
       if(TBList == null) {
@@ -169,30 +153,22 @@ public class TensorBoardProxyServlet extends ProxyServlet {
                 "try refreshing the page");
         return;
       }
-    } else if(appMatcher.find()) {
-      String appId = appMatcher.group(1);
-      YarnApplicationstate appState = yarnApplicationstateFacade.findByAppId(appId);
-      if (appState == null) {
+    } else if(appId != null) {
+      AuthorizationCache.ApplicationAccess access = proxyAuthorizationController.authorizeByEmail(email, appId);
+      if (access == null) {
         servletResponse.sendError(Response.Status.FORBIDDEN.getStatusCode(),
                 "You don't have the access right for this application");
         return;
       }
-      Users user = userFacade.findByEmail(email);
-      String projectName = hdfsUsersBean.getProjectName(appState.getAppuser());
-      Project project = projectFacade.findByName(projectName);
-      if (project == null) {
-        servletResponse.sendError(Response.Status.BAD_REQUEST.getStatusCode(), "Project does not exists");
-        return;
-      }
 
-      if (!projectTeamFacade.isUserMemberOfProject(project, user)) {
+      if (!access.isMember()) {
         servletResponse.sendError(Response.Status.BAD_REQUEST.getStatusCode(),
             "You don't have the access right for this application");
         return;
       }
 
-      if (appState.getAppsmstate() != null && (appState.getAppsmstate().equalsIgnoreCase(YarnApplicationState.FINISHED.
-              toString()) || appState.getAppsmstate().equalsIgnoreCase(YarnApplicationState.KILLED.toString()))) {
+      if (access.getState() != null && (access.getState().equalsIgnoreCase(YarnApplicationState.FINISHED.
+              toString()) || access.getState().equalsIgnoreCase(YarnApplicationState.KILLED.toString()))) {
         servletResponse.sendError(Response.Status.NOT_FOUND.getStatusCode(),
             "This TensorBoard has finished running.");
         return;
@@ -25,6 +25,7 @@ import io.hops.hopsworks.api.featurestore.statistics.StatisticsResource;
 import io.hops.hopsworks.api.featurestore.tag.FeaturestoreTagsBuilder;
 import io.hops.hopsworks.api.tags.TagsDTO;
 import io.hops.hopsworks.api.tags.TagsExpansionBeanParam;
+import io.hops.hopsworks.api.util.Pagination;
 import io.hops.hopsworks.api.featurestore.transformationFunction.TransformationFunctionBuilder;
 import io.hops.hopsworks.api.filter.AllowedProjectRoles;
 import io.hops.hopsworks.api.filter.Audience;
@@ -178,7 +179,8 @@ public class TrainingDatasetService {
   }
 
   /**
-   * Endpoint for getting a list of all training datasets in the feature store.
+   * Endpoint for getting a list of the training datasets in the feature store, ordered by id. All of them are
+   * returned unless a limit is given.
    *
    * @return a JSON representation of the training datasets in the features store
    */
@@ -189,10 +191,11 @@ public class TrainingDatasetService {
   @ApiKeyRequired( acceptedScopes = {ApiScope.FEATURESTORE}, allowedUserRoles = {"HOPS_ADMIN", "HOPS_USER"})
   @ApiOperation(value = "Get the list of training datasets for a featurestore",
       response = TrainingDatasetDTO.class, responseContainer = "List")
-  public Response getAll(@Context SecurityContext sc) throws ServiceException, FeaturestoreException {
+  public Response getAll(@BeanParam Pagination pagination, @Context SecurityContext sc)
+      throws ServiceException, FeaturestoreException {
     Users user = jWTHelper.getUserPrincipal(sc);
-    List<TrainingDatasetDTO> trainingDatasetDTOs =
-        trainingDatasetController.getTrainingDatasetsForFeaturestore(user, project, featurestore);
+    List<TrainingDatasetDTO> trainingDatasetDTOs = trainingDatasetController.getTrainingDatasetsForFeaturestore(user,
+        project, featurestore, pagination.getOffset(), pagination.getLimit());
     GenericEntity<List<TrainingDatasetDTO>> trainingDatasetsGeneric =
         new GenericEntity<List<TrainingDatasetDTO>>(trainingDatasetDTOs) {};
     return noCacheResponse.getNoCacheResponseBuilder(Response.Status.OK).entity(trainingDatasetsGeneric).build();
@@ -19,6 +19,7 @@ import io.hops.hopsworks.api.util.RESTApiJsonResponse;
 import io.hops.hopsworks.common.dao.project.ProjectFacade;
 import io.hops.hopsworks.common.dao.project.team.ProjectTeamFacade;
 import io.hops.hopsworks.common.dao.user.UserFacade;
+import io.hops.hopsworks.common.security.AuthorizationCache;
 import io.hops.hopsworks.persistence.entity.project.Project;
 import io.hops.hopsworks.persistence.entity.user.Users;
 import io.hops.hopsworks.restutils.JsonResponse;
@@ -60,6 +61,9 @@ public class ProjectAuthFilter implements ContainerRequestFilter {
   @EJB
   private UserFacade userFacade;
 
+  @EJB
+  private AuthorizationCache authorizationCache;
+
   @Context
   private ResourceInfo resourceInfo;
 
@@ -88,15 +92,6 @@ public class ProjectAuthFilter implements ContainerRequestFilter {
       //
     }
 
-    Project project = id != null ? projectBean.find(id) : projectBean.findByName(projectName);
-    if (project == null) {
-      jsonResponse.setErrorCode(RESTCodes.ProjectErrorCode.PROJECT_NOT_FOUND.getCode());
-      jsonResponse.setErrorMsg(RESTCodes.ProjectErrorCode.PROJECT_NOT_FOUND.getMessage());
-      requestContext.abortWith(Response.status(Response.Status.NOT_FOUND).entity(jsonResponse).build());
-      return;
-    }
-    LOGGER.log(Level.FINEST, "Filtering project request path: {0}", project.getName());
-
     AllowedProjectRoles methodProjectRolesAnnotation = method.getAnnotation(AllowedProjectRoles.class);
     AllowedProjectRoles classProjectRolesAnnotation = resourceClass.getAnnotation(AllowedProjectRoles.class);
 
@@ -105,25 +100,18 @@ public class ProjectAuthFilter implements ContainerRequestFilter {
     Set<String> rolesSet;
     rolesSet = new HashSet<>(Arrays.asList(rolesAnnotation.value()));
 
-    if (requestContext.getSecurityContext().getUserPrincipal() == null) {
-      LOGGER.log(Level.WARNING, "Authentication not done. No user found.");
-      jsonResponse.setErrorCode(RESTCodes.SecurityErrorCode.EJB_ACCESS_LOCAL.getCode());
-      jsonResponse.setErrorMsg(RESTCodes.SecurityErrorCode.EJB_ACCESS_LOCAL.getMessage());
-      requestContext.abortWith(Response.status(Response.Status.UNAUTHORIZED).entity(jsonResponse).build());
-      return;
+    AuthorizationCache.ProjectRole projectRole = null;
+    if (requestContext.getSecurityContext().getUserPrincipal() != null) {
+      projectRole = authorizationCache.getProjectRole(requestContext.getSecurityContext().getUserPrincipal()
+          .getName(), id, projectName);
     }
-    String username = requestContext.getSecurityContext().getUserPrincipal().getName();
-    Users user = userFacade.findByUsername(username);
-    
-    if (user == null) {
-      LOGGER.log(Level.WARNING, "User not found.");
-      jsonResponse.setErrorCode(RESTCodes.SecurityErrorCode.EJB_ACCESS_LOCAL.getCode());
-      jsonResponse.setErrorMsg(RESTCodes.SecurityErrorCode.EJB_ACCESS_LOCAL.getMessage());
-      requestContext.abortWith(Response.status(Response.Status.UNAUTHORIZED).entity(jsonResponse).build());
-      return;
+    if (projectRole == null) {
+      projectRole = findProjectRole(requestContext, jsonResponse, id, projectName);
+      if (projectRole == null) {
+        return;
+      }
     }
-    
-    userRole = projectTeamBean.findCurrentRole(project, user);
+    userRole = projectRole.getRole();
 
     //If the resource is allowed for all roles check if user is a member of the project. 
     if (userRole != null && !userRole.isEmpty() && rolesSet.contains(AllowedProjectRoles.ANYONE)) {
@@ -145,4 +133,42 @@ public class ProjectAuthFilter implements ContainerRequestFilter {
       requestContext.abortWith(Response.status(Response.Status.FORBIDDEN).entity(jsonResponse).build());
     }
   }
+
+  /**
+   * Looks up the role of the user in the project and caches it. Returns null if the request was aborted.
+   */
+  private AuthorizationCache.ProjectRole findProjectRole(ContainerRequestContext requestContext,
+      JsonResponse jsonResponse, Integer id, String projectName) {
+    Project project = id != null ? projectBean.find(id) : projectBean.findByName(projectName);
+    if (project == null) {
+      jsonResponse.setErrorCode(RESTCodes.ProjectErrorCode.PROJECT_NOT_FOUND.getCode());
+      jsonResponse.setErrorMsg(RESTCodes.ProjectErrorCode.PROJECT_NOT_FOUND.getMessage());
+      requestContext.abortWith(Response.status(Response.Status.NOT_FOUND).entity(jsonResponse).build());
+      return null;
+    }
+    LOGGER.log(Level.FINEST, "Filtering project request path: {0}", project.getName());
+
+    if (requestContext.getSecurityContext().getUserPrincipal() == null) {
+      LOGGER.log(Level.WARNING, "Authentication not done. No user found.");
+      jsonResponse.setErrorCode(RESTCodes.SecurityErrorCode.EJB_ACCESS_LOCAL.getCode());
+      jsonResponse.setErrorMsg(RESTCodes.SecurityErrorCode.EJB_ACCESS_LOCAL.getMessage());
+      requestContext.abortWith(Response.status(Response.Status.UNAUTHORIZED).entity(jsonResponse).build());
+      return null;
+    }
+    String username = requestContext.getSecurityContext().getUserPrincipal().getName();
+    Users user = userFacade.findByUsername(username);
+    
+    if (user == null) {
+      LOGGER.log(Level.WARNING, "User not found.");
+      jsonResponse.setErrorCode(RESTCodes.SecurityErrorCode.EJB_ACCESS_LOCAL.getCode());
+      jsonResponse.setErrorMsg(RESTCodes.SecurityErrorCode.EJB_ACCESS_LOCAL.getMessage());
+      requestContext.abortWith(Response.status(Response.Status.UNAUTHORIZED).entity(jsonResponse).build());
+      return null;
+    }
+    
+    AuthorizationCache.ProjectRole projectRole = new AuthorizationCache.ProjectRole(project.getId(),
+        project.getName(), username, projectTeamBean.findCurrentRole(project, user));
+    authorizationCache.putProjectRole(username, id, projectName, projectRole);
+    return projectRole;
+  }
 }
@@ -18,13 +18,11 @@ package io.hops.hopsworks.api.filter.apiKey;
 import io.hops.hopsworks.api.filter.util.HopsworksSecurityContext;
 import io.hops.hopsworks.api.filter.util.Subject;
 import io.hops.hopsworks.api.util.RESTApiJsonResponse;
-import io.hops.hopsworks.common.user.UsersController;
+import io.hops.hopsworks.common.security.AuthorizationCache;
 import io.hops.hopsworks.common.user.security.apiKey.ApiKeyController;
 import io.hops.hopsworks.common.util.Settings;
 import io.hops.hopsworks.exceptions.ApiKeyException;
 import io.hops.hopsworks.jwt.annotation.JWTRequired;
-import io.hops.hopsworks.persistence.entity.user.Users;
-import io.hops.hopsworks.persistence.entity.user.security.apiKey.ApiKey;
 import io.hops.hopsworks.persistence.entity.user.security.apiKey.ApiScope;
 import io.hops.hopsworks.restutils.JsonResponse;
 import io.hops.hopsworks.restutils.RESTCodes;
@@ -63,8 +61,6 @@ public class ApiKeyFilter implements ContainerRequestFilter {
   @EJB
   private ApiKeyController apiKeyController;
   @EJB
-  private UsersController usersController;
-  @EJB
   private Settings settings;
   
   @Context
@@ -103,13 +99,11 @@ public class ApiKeyFilter implements ContainerRequestFilter {
     
     String key = authorizationHeader.substring(API_KEY.length()).trim();
     try {
-      ApiKey apiKey = apiKeyController.getApiKey(key);
-      Users user = apiKey.getUser();
-      List<String> roles = usersController.getUserRoles(user);
-      Set<ApiScope> scopes = apiKeyController.getScopes(apiKey);
+      AuthorizationCache.ApiKeyAuthorization authorization = apiKeyController.getAuthorization(key);
+      List<String> roles = authorization.getRoles();
       checkRole(roles);
-      checkScope(scopes);
-      Subject subject = new Subject(user.getUsername(), roles);
+      checkScope(authorization.getScopes());
+      Subject subject = new Subject(authorization.getUsername(), roles);
       String scheme = requestContext.getUriInfo().getRequestUri().getScheme();
       requestContext.setSecurityContext(new HopsworksSecurityContext(subject, scheme));
     } catch (ApiKeyException e) {
@@ -81,6 +81,7 @@ public class FlinkHistoryServerProxyServlet extends ProxyServlet {
       String job = servletRequest.getPathInfo().split("/")[2];
       if (!Strings.isNullOrEmpty(job) && !cache.hasAccessToFlinkJob(job, email)) {
         servletResponse.sendError(403, "You are not authorized to access this Flink job");
+        return;
       }
     }
     //Remove all jobs from JSON the user is not authorized to view
@@ -17,19 +17,11 @@ package io.hops.hopsworks.api.jobs;
 
 import io.hops.hopsworks.api.filter.apiKey.ApiKeyFilter;
 import io.hops.hopsworks.api.kibana.ProxyServlet;
-import io.hops.hopsworks.common.dao.hdfsUser.HdfsUsersFacade;
-import io.hops.hopsworks.common.dao.jobhistory.YarnApplicationstateFacade;
-import io.hops.hopsworks.common.dao.project.ProjectFacade;
-import io.hops.hopsworks.common.dao.project.team.ProjectTeamFacade;
-import io.hops.hopsworks.common.dao.user.UserFacade;
 import io.hops.hopsworks.common.jobs.flink.FlinkMasterAddrCache;
+import io.hops.hopsworks.common.security.AuthorizationCache;
+import io.hops.hopsworks.common.security.ProxyAuthorizationController;
 import io.hops.hopsworks.common.user.security.apiKey.ApiKeyController;
 import io.hops.hopsworks.exceptions.ApiKeyException;
-import io.hops.hopsworks.persistence.entity.hdfs.user.HdfsUsers;
-import io.hops.hopsworks.persistence.entity.jobs.history.YarnApplicationstate;
-import io.hops.hopsworks.persistence.entity.user.Users;
-import io.hops.hopsworks.persistence.entity.user.security.apiKey.ApiKey;
-import org.apache.hadoop.yarn.api.records.YarnApplicationState;
 import org.apache.http.client.utils.URIUtils;
 import org.apache.parquet.Strings;
 
@@ -42,8 +34,6 @@ import java.io.IOException;
 import java.net.URI;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 @Stateless
 public class FlinkProxyServlet extends ProxyServlet {
@@ -51,15 +41,7 @@ public class FlinkProxyServlet extends ProxyServlet {
   @EJB
   private FlinkMasterAddrCache flinkMasterAddrCache;
   @EJB
-  private YarnApplicationstateFacade yarnApplicationstateFacade;
-  @EJB
-  private HdfsUsersFacade hdfsUsersFacade;
-  @EJB
-  private ProjectTeamFacade projectTeamFacade;
-  @EJB
-  private ProjectFacade projectFacade;
-  @EJB
-  private UserFacade userFacade;
+  private ProxyAuthorizationController proxyAuthorizationController;
   @EJB
   private ApiKeyController apiKeyController;
   
@@ -70,7 +52,7 @@ public class FlinkProxyServlet extends ProxyServlet {
   @Override
   protected void service(HttpServletRequest servletRequest, HttpServletResponse servletResponse)
     throws ServletException, IOException {
-    Users user;
+    String username = null;
     if (servletRequest.getUserPrincipal() == null) {
       // Check if API key is provided
       String authorizationHeader = servletRequest.getHeader("Authorization");
@@ -80,43 +62,34 @@ public class FlinkProxyServlet extends ProxyServlet {
       } else {
         try {
           String key = authorizationHeader.substring(ApiKeyFilter.API_KEY.length()).trim();
-          ApiKey apiKey = apiKeyController.getApiKey(key);
-          user = apiKey.getUser();
+          username = apiKeyController.getAuthorization(key).getUsername();
         } catch (ApiKeyException e) {
           servletResponse.sendError(401, "Could not validate API key");
           return;
         }
       }
-    } else {
-      user = userFacade.findByEmail(servletRequest.getUserPrincipal().getName());
     }
   
-    String uri = servletRequest.getRequestURI();
-    Pattern appPattern = Pattern.compile("(application_.*?_\\d*)");
-    Matcher appMatcher = appPattern.matcher(uri);
-    String appId;
+    String appId = ProxyAuthorizationController.findApplicationId(servletRequest.getRequestURI());
     String flinkMasterURL;
-    if (appMatcher.find()) {
-      appId = appMatcher.group(1);
-      
+    if (appId != null) {
       // Validate user is authorized to access to this yarn app
-      YarnApplicationstate appState = yarnApplicationstateFacade.findByAppId(appId);
+      AuthorizationCache.ApplicationAccess access = username == null
+        ? proxyAuthorizationController.authorizeByEmail(servletRequest.getUserPrincipal().getName(), appId)
+        : proxyAuthorizationController.authorizeByUsername(username, appId);
       // If job is not running, show relevant message
-      if (!Strings.isNullOrEmpty(appState.getAppsmstate()) && (
-        YarnApplicationState.valueOf(appState.getAppsmstate()) == YarnApplicationState.FAILED
-          || YarnApplicationState.valueOf(appState.getAppsmstate()) == YarnApplicationState.FINISHED
-          || YarnApplicationState.valueOf(appState.getAppsmstate()) == YarnApplicationState.KILLED)) {
+      if (access == null || ProxyAuthorizationController.isStopped(access)) {
         servletResponse.sendError(404,
           "This Flink cluster is not running. You can navigate to YARN and Logs for historical information on this " +
             "Flink cluster.");
         return;
       }
-      HdfsUsers hdfsUser = hdfsUsersFacade.findByName(appState.getAppuser());
-      if (!projectTeamFacade.isUserMemberOfProject(projectFacade.findByName(hdfsUser.getProject()), user)) {
+      //Is this user member of the project?
+      if (!access.isMember()) {
         servletResponse.sendError(403, "You are not authorized to access this Flink cluster");
+        return;
       }
       
-      //Is this user member of the project?
       flinkMasterURL = flinkMasterAddrCache.get(appId);
       if (Strings.isNullOrEmpty(flinkMasterURL)) {
         servletResponse.sendError(404,
@@ -157,12 +130,10 @@ public class FlinkProxyServlet extends ProxyServlet {
     
     // Handle the path given to the servlet
     if (servletRequest.getPathInfo() != null) {//ex: /my/path.html
-      Pattern appPattern = Pattern.compile("(application_.*?_\\d*)");
-      Matcher appMatcher = appPattern.matcher(servletRequest.getPathInfo().replaceFirst("/", ""));
-      if (!appMatcher.find()) {
+      String appId = ProxyAuthorizationController.findApplicationId(servletRequest.getPathInfo().replaceFirst("/", ""));
+      if (appId == null) {
         uri.append(encodeUriQuery(servletRequest.getPathInfo()));
       } else {
-        String appId = appMatcher.group(1);
         uri.append(encodeUriQuery(servletRequest.getPathInfo().replaceFirst("/", "").replace(appId, "")));
       }
     }
@@ -55,6 +55,7 @@ import io.hops.hopsworks.common.dao.kafka.SharedProjectDTO;
 import io.hops.hopsworks.common.dao.kafka.SharedTopicsDTO;
 import io.hops.hopsworks.common.dao.kafka.SharedTopicsFacade;
 import io.hops.hopsworks.common.dao.kafka.TopicDTO;
+import io.hops.hopsworks.common.dao.kafka.TopicLagDTO;
 import io.hops.hopsworks.common.dao.kafka.schemas.Compatibility;
 import io.hops.hopsworks.common.dao.kafka.schemas.CompatibilityCheck;
 import io.hops.hopsworks.common.dao.kafka.schemas.CompatibilityLevel;
@@ -219,6 +220,19 @@ public class KafkaResource {
     return Response.ok().entity(dto).build();
   }
   
+  @ApiOperation(value = "Get the lag of the consumer groups of a Kafka topic.")
+  @GET
+  @Path("/topics/{topic}/lag")
+  @Produces(MediaType.APPLICATION_JSON)
+  @AllowedProjectRoles({AllowedProjectRoles.DATA_OWNER, AllowedProjectRoles.DATA_SCIENTIST})
+  @JWTRequired(acceptedTokens={Audience.API, Audience.JOB}, allowedUserRoles={"HOPS_ADMIN", "HOPS_USER"})
+  @ApiKeyRequired(acceptedScopes = {ApiScope.KAFKA}, allowedUserRoles = {"HOPS_ADMIN", "HOPS_USER"})
+  public Response getTopicLag(@PathParam("topic") String topicName, @Context SecurityContext sc)
+    throws KafkaException {
+    TopicLagDTO dto = kafkaController.getTopicLag(project, topicName);
+    return Response.ok().entity(dto).build();
+  }
+  
   @ApiOperation(value = "Share a Kafka topic with a project.")
   @PUT
   @Path("/topics/{topic}/shared/{destProjectName}")
@@ -39,14 +39,8 @@
 
 package io.hops.hopsworks.api.kibana;
 
-import io.hops.hopsworks.common.dao.jobhistory.YarnApplicationstateFacade;
-import io.hops.hopsworks.common.dao.project.ProjectFacade;
-import io.hops.hopsworks.common.dao.project.team.ProjectTeamFacade;
-import io.hops.hopsworks.common.dao.user.UserFacade;
-import io.hops.hopsworks.common.hdfs.HdfsUsersController;
-import io.hops.hopsworks.persistence.entity.jobs.history.YarnApplicationstate;
-import io.hops.hopsworks.persistence.entity.project.Project;
-import io.hops.hopsworks.persistence.entity.user.Users;
+import io.hops.hopsworks.common.security.AuthorizationCache;
+import io.hops.hopsworks.common.security.ProxyAuthorizationController;
 
 import javax.ejb.EJB;
 import javax.ejb.Stateless;
@@ -62,17 +56,9 @@ import java.util.regex.Pattern;
 public class GrafanaProxyServlet extends ProxyServlet {
 
   @EJB
-  private YarnApplicationstateFacade yarnApplicationstateFacade;
-  @EJB
-  private UserFacade userFacade;
-  @EJB
-  private HdfsUsersController hdfsUsersBean;
-  @EJB
-  private ProjectFacade projectFacade;
-  @EJB
-  private ProjectTeamFacade projectTeamFacade;
+  private ProxyAuthorizationController proxyAuthorizationController;
 
-  private Pattern pattern = Pattern.compile("(application_.*?_.\\d*)");
+  private static final Pattern APPLICATION_PATTERN = Pattern.compile("(application_.*?_.\\d*)");
 
   @Override
   protected void service(HttpServletRequest servletRequest, HttpServletResponse servletResponse) 
@@ -85,25 +71,11 @@ public class GrafanaProxyServlet extends ProxyServlet {
 
     if (servletRequest.getRequestURI().contains("query")) {
       String email = servletRequest.getUserPrincipal().getName();
-      Users user = userFacade.findByEmail(email);
-      Matcher matcher = pattern.matcher(servletRequest.getQueryString());
+      Matcher matcher = APPLICATION_PATTERN.matcher(servletRequest.getQueryString());
       if (matcher.find()) {
         String appId = matcher.group(1);
-        YarnApplicationstate appState = yarnApplicationstateFacade.findByAppId(appId);
-        if (appState == null) {
-          servletResponse.sendError(Response.Status.BAD_REQUEST.getStatusCode(),
-                  "You don't have the access right for this application");
-          return;
-        }
-
-        String projectName = hdfsUsersBean.getProjectName(appState.getAppuser());
-        Project project = projectFacade.findByName(projectName);
-        if (project == null) {
-          servletResponse.sendError(Response.Status.BAD_REQUEST.getStatusCode(), "Project does not exists");
-          return;
-        }
-
-        if (!projectTeamFacade.isUserMemberOfProject(project, user)) {
+        AuthorizationCache.ApplicationAccess access = proxyAuthorizationController.authorizeByEmail(email, appId);
+        if (access == null || !access.isMember()) {
           servletResponse.sendError(Response.Status.BAD_REQUEST.getStatusCode(),
               "You don't have the access right for this application");
           return;
@@ -44,12 +44,9 @@ import org.apache.http.HttpStatus;
 import org.apache.http.client.CircularRedirectException;
 import org.apache.http.client.ClientProtocolException;
 import org.apache.http.client.HttpClient;
-import org.apache.http.client.config.CookieSpecs;
-import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.utils.URIUtils;
 import org.apache.http.conn.ssl.NoopHostnameVerifier;
-import org.apache.http.impl.client.HttpClientBuilder;
-import org.apache.http.impl.client.HttpClients;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
 import org.apache.http.params.HttpParams;
 import org.apache.http.ssl.SSLContexts;
 
@@ -93,7 +90,7 @@ public class KibanaProxyServlet extends ProxyServlet {
   
   @Override
   protected HttpClient createHttpClient(HttpParams hcParams) {
-    SSLContext sslCtx = null;
+    SSLContext sslCtx = SSLContexts.createDefault();
     if (settings.isElasticOpenDistroSecurityEnabled()) {
       Path trustStore = Paths
           .get(clientsService.getSuperTrustStorePath());
@@ -108,17 +105,7 @@ public class KibanaProxyServlet extends ProxyServlet {
       }
     }
   
-    HttpClientBuilder clientBuilder = HttpClients.custom();
-    if(sslCtx != null){
-      clientBuilder.setSSLContext(sslCtx);
-    }
-  
-    RequestConfig config =
-        RequestConfig.custom().setCookieSpec(
-            CookieSpecs.IGNORE_COOKIES).build();
-    
-    return clientBuilder.setDefaultRequestConfig(config)
-        .setSSLHostnameVerifier(NoopHostnameVerifier.INSTANCE).build();
+    return createHttpClient(hcParams, new SSLConnectionSocketFactory(sslCtx, NoopHostnameVerifier.INSTANCE));
   }
   
   @Override
@@ -0,0 +1,231 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2021, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.api.kibana;
+
+import org.apache.http.HttpHost;
+import org.apache.http.client.config.CookieSpecs;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Connections of a proxy servlet to its targets. Connections are pooled per target, with a bound on each target and
+ * on the whole pool, and the time a request waits for a connection is bounded too. A slow or saturated target fails
+ * its own requests fast instead of holding the servlet threads that the other UIs and the REST API need.
+ *
+ * The proxies stay on the blocking client, each proxied request holds its servlet thread until the response is
+ * copied. Moving them to servlet async I/O with a non-blocking client would free those threads, but every proxy
+ * servlet overrides the blocking service method to authorize and rewrite the exchange, so it is left out here.
+ * Instead the exchanges a servlet serves at once are bounded below the servlet threads, the ones over the bound
+ * fail fast, so a single proxied UI can not take all the threads.
+ */
+public class ProxyConnectionPool implements Closeable {
+
+  //TensorBoard and Flink targets come and go with the applications, keep only the recent ones
+  private static final int MAX_ROUTES = 1000;
+
+  private final PoolingHttpClientConnectionManager connectionManager;
+  private final CloseableHttpClient httpClient;
+  private final Map<HttpHost, RouteMetrics> routes = new ConcurrentHashMap<>();
+  private final int maxExchanges;
+  private final Semaphore exchanges;
+
+  /**
+   * @param maxExchanges requests served at once
+   * @param maxConnections connections open to all the targets
+   * @param maxConnectionsPerTarget connections open to a single target
+   * @param connectionRequestTimeoutMs time a request waits for a connection of the pool
+   * @param handleRedirects follow the redirects of the targets instead of returning them to the client
+   * @param sslSocketFactory used for https targets
+   */
+  public ProxyConnectionPool(int maxExchanges, int maxConnections, int maxConnectionsPerTarget,
+    int connectionRequestTimeoutMs, boolean handleRedirects, SSLConnectionSocketFactory sslSocketFactory) {
+    this.maxExchanges = maxExchanges;
+    exchanges = new Semaphore(maxExchanges);
+    Registry<ConnectionSocketFactory> socketFactories = RegistryBuilder.<ConnectionSocketFactory>create()
+      .register("http", PlainConnectionSocketFactory.getSocketFactory())
+      .register("https", sslSocketFactory)
+      .build();
+    connectionManager = new PoolingHttpClientConnectionManager(socketFactories);
+    connectionManager.setMaxTotal(maxConnections);
+    connectionManager.setDefaultMaxPerRoute(maxConnectionsPerTarget);
+    //Targets such as TensorBoard and Flink are restarted on new ports, drop connections they closed while idle
+    connectionManager.setValidateAfterInactivity(2000);
+    RequestConfig requestConfig = RequestConfig.custom()
+      .setCookieSpec(CookieSpecs.IGNORE_COOKIES)
+      .setConnectionRequestTimeout(connectionRequestTimeoutMs)
+      .setRedirectsEnabled(handleRedirects)
+      .build();
+    httpClient = HttpClients.custom()
+      .useSystemProperties()
+      .setConnectionManager(connectionManager)
+      .setDefaultRequestConfig(requestConfig)
+      .evictIdleConnections(60, TimeUnit.SECONDS)
+      .build();
+  }
+
+  public CloseableHttpClient getHttpClient() {
+    return httpClient;
+  }
+
+  /**
+   * Start serving a request, every successful call must be followed by {@link #endExchange()}
+   * @return false if the servlet already serves the maximum number of requests
+   */
+  public boolean tryStartExchange() {
+    return exchanges.tryAcquire();
+  }
+
+  public void endExchange() {
+    exchanges.release();
+  }
+
+  public int getActiveExchanges() {
+    return maxExchanges - exchanges.availablePermits();
+  }
+
+  public int getMaxExchanges() {
+    return maxExchanges;
+  }
+
+  public RouteMetrics getMetrics(HttpHost target) {
+    RouteMetrics metrics = routes.get(target);
+    if (metrics == null) {
+      if (routes.size() >= MAX_ROUTES) {
+        routes.values().removeIf(m -> m.getActive() == 0);
+      }
+      metrics = routes.computeIfAbsent(target, RouteMetrics::new);
+    }
+    return metrics;
+  }
+
+  public Map<HttpHost, RouteMetrics> getMetrics() {
+    return routes;
+  }
+
+  public PoolStats getPoolStats() {
+    return connectionManager.getTotalStats();
+  }
+
+  @Override
+  public void close() throws IOException {
+    httpClient.close();
+  }
+
+  /**
+   * Requests proxied to a target.
+   */
+  public static class RouteMetrics {
+    private final HttpHost target;
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger peakActive = new AtomicInteger();
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong bytes = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+
+    RouteMetrics(HttpHost target) {
+      this.target = target;
+    }
+
+    /**
+     * @return the start time of the request, to be passed to {@link #end(long)}
+     */
+    public long start() {
+      int current = active.incrementAndGet();
+      peakActive.accumulateAndGet(current, Math::max);
+      requests.incrementAndGet();
+      return System.nanoTime();
+    }
+
+    public void end(long start) {
+      totalNanos.addAndGet(System.nanoTime() - start);
+      active.decrementAndGet();
+    }
+
+    public void failed() {
+      failures.incrementAndGet();
+    }
+
+    /**
+     * The request did not get a connection to the target in time.
+     */
+    public void rejected() {
+      rejected.incrementAndGet();
+    }
+
+    public void transferred(long count) {
+      bytes.addAndGet(count);
+    }
+
+    public HttpHost getTarget() {
+      return target;
+    }
+
+    public int getActive() {
+      return active.get();
+    }
+
+    public int getPeakActive() {
+      return peakActive.get();
+    }
+
+    public long getRequests() {
+      return requests.get();
+    }
+
+    public long getFailures() {
+      return failures.get();
+    }
+
+    public long getRejected() {
+      return rejected.get();
+    }
+
+    public long getBytes() {
+      return bytes.get();
+    }
+
+    public double getMeanLatencyMs() {
+      long finished = requests.get() - active.get();
+      return finished <= 0 ? 0 : totalNanos.get() / 1e6 / finished;
+    }
+
+    @Override
+    public String toString() {
+      return String.format("%s: %d requests, %d active (peak %d), %d failed, %d rejected, %d bytes, mean %.1f ms",
+        target, getRequests(), getActive(), getPeakActive(), getFailures(), getRejected(), getBytes(),
+        getMeanLatencyMs());
+    }
+  }
+}
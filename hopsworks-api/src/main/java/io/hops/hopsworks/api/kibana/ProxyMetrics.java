@@ -0,0 +1,70 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2021, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.api.kibana;
+
+import org.apache.http.pool.PoolStats;
+
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.Schedule;
+import javax.ejb.Singleton;
+import javax.ejb.Timer;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Connection pools of the proxy servlets, by servlet name, so that the traffic of every proxied UI can be followed
+ * from the logs.
+ */
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+@TransactionAttribute(TransactionAttributeType.NEVER)
+public class ProxyMetrics {
+
+  private static final Logger LOGGER = Logger.getLogger(ProxyMetrics.class.getName());
+
+  private final Map<String, ProxyConnectionPool> pools = new ConcurrentHashMap<>();
+
+  public void register(String servletName, ProxyConnectionPool pool) {
+    pools.put(servletName, pool);
+  }
+
+  public void unregister(String servletName) {
+    pools.remove(servletName);
+  }
+
+  public Map<String, ProxyConnectionPool> getPools() {
+    return Collections.unmodifiableMap(pools);
+  }
+
+  @Schedule(persistent = false, minute = "*/10", hour = "*")
+  public void logStats(Timer timer) {
+    for (Map.Entry<String, ProxyConnectionPool> pool : pools.entrySet()) {
+      PoolStats stats = pool.getValue().getPoolStats();
+      LOGGER.log(Level.INFO, "{0} connections: {1} leased, {2} idle, {3} waiting, max {4}; exchanges: {5}, max {6}",
+        new Object[]{pool.getKey(), stats.getLeased(), stats.getAvailable(), stats.getPending(), stats.getMax(),
+          pool.getValue().getActiveExchanges(), pool.getValue().getMaxExchanges()});
+      for (ProxyConnectionPool.RouteMetrics route : pool.getValue().getMetrics().values()) {
+        LOGGER.log(Level.INFO, "{0} {1}", new Object[]{pool.getKey(), route});
+      }
+    }
+  }
+}
@@ -16,6 +16,7 @@
 
 package io.hops.hopsworks.api.kibana;
 
+import io.hops.hopsworks.common.util.Settings;
 import org.apache.http.Header;
 import org.apache.http.HttpEntity;
 import org.apache.http.HttpEntityEnclosingRequest;
@@ -28,9 +29,9 @@ import org.apache.http.client.methods.AbortableHttpRequest;
 import org.apache.http.client.params.ClientPNames;
 import org.apache.http.client.params.CookiePolicy;
 import org.apache.http.client.utils.URIUtils;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
 import org.apache.http.entity.InputStreamEntity;
-import org.apache.http.impl.client.DefaultHttpClient;
-import org.apache.http.impl.conn.tsccm.ThreadSafeClientConnManager;
 import org.apache.http.message.BasicHeader;
 import org.apache.http.message.BasicHttpEntityEnclosingRequest;
 import org.apache.http.message.BasicHttpRequest;
@@ -39,6 +40,7 @@ import org.apache.http.params.BasicHttpParams;
 import org.apache.http.params.HttpParams;
 import org.apache.http.util.EntityUtils;
 
+import javax.ejb.EJB;
 import javax.servlet.ServletException;
 import javax.servlet.http.Cookie;
 import javax.servlet.http.HttpServlet;
@@ -46,8 +48,8 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.Closeable;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
-import java.lang.reflect.Constructor;
 import java.net.HttpCookie;
 import java.net.URI;
 import java.util.BitSet;
@@ -124,6 +126,12 @@ public class ProxyServlet extends HttpServlet {
   protected HttpHost targetHost;//URIUtils.extractHost(targetUriObj);
 
   protected HttpClient proxyClient;
+  protected ProxyConnectionPool connectionPool;
+
+  @EJB
+  private Settings settings;
+  @EJB
+  private ProxyMetrics proxyMetrics;
 
   @Override
   public String getServletInfo() {
@@ -185,34 +193,23 @@ public class ProxyServlet extends HttpServlet {
   }
 
   /**
-   * Called from {@link #init(javax.servlet.ServletConfig)}. HttpClient offers
-   * many opportunities
-   * for customization. By default,
-   * <a href="http://hc.apache.org/httpcomponents-client-ga/httpclient/apidocs/
-   * org/apache/http/impl/client/SystemDefaultHttpClient.html">
-   * SystemDefaultHttpClient</a> is used if available, otherwise it falls
-   * back to:
-   * <pre>new DefaultHttpClient(new ThreadSafeClientConnManager(),hcParams)</pre>
-   * SystemDefaultHttpClient uses PoolingClientConnectionManager. In any case,
-   * it should be thread-safe.
+   * Called from {@link #init(javax.servlet.ServletConfig)}. The client uses
+   * a {@link ProxyConnectionPool} sized by the proxy settings, subclasses
+   * that need their own SSL configuration should call
+   * {@link #createHttpClient(HttpParams, SSLConnectionSocketFactory)}.
    */
-  @SuppressWarnings({"unchecked", "deprecation"})
   protected HttpClient createHttpClient(HttpParams hcParams) {
-    try {
-      //as of HttpComponents v4.2, this class is better since it uses System
-      // Properties:
-      Class clientClazz = Class.forName(
-          "org.apache.http.impl.client.SystemDefaultHttpClient");
-      Constructor constructor = clientClazz.getConstructor(HttpParams.class);
-      return (HttpClient) constructor.newInstance(hcParams);
-    } catch (ClassNotFoundException e) {
-      //no problem; use v4.1 below
-    } catch (Exception e) {
-      throw new RuntimeException(e);
-    }
+    return createHttpClient(hcParams, SSLConnectionSocketFactory.getSystemSocketFactory());
+  }
 
-    //Fallback on using older client:
-    return new DefaultHttpClient(new ThreadSafeClientConnManager(), hcParams);
+  protected HttpClient createHttpClient(HttpParams hcParams,
+      SSLConnectionSocketFactory sslSocketFactory) {
+    Object handleRedirects = hcParams.getParameter(ClientPNames.HANDLE_REDIRECTS);
+    connectionPool = new ProxyConnectionPool(settings.getProxyMaxExchanges(), settings.getProxyMaxConnections(),
+        settings.getProxyMaxConnectionsPerTarget(), settings.getProxyConnectionRequestTimeout(),
+        handleRedirects == null || (Boolean) handleRedirects, sslSocketFactory);
+    proxyMetrics.register(getServletName(), connectionPool);
+    return connectionPool.getHttpClient();
   }
 
   /**
@@ -256,18 +253,13 @@ public class ProxyServlet extends HttpServlet {
 
   @Override
   public void destroy() {
-    //As of HttpComponents v4.3, clients implement closeable
-    if (proxyClient instanceof Closeable) {//TODO AutoCloseable in Java 1.6
+    if (connectionPool != null) {
+      proxyMetrics.unregister(getServletName());
       try {
-        ((Closeable) proxyClient).close();
+        connectionPool.close();
       } catch (IOException e) {
         log("While destroying servlet, shutting down HttpClient: " + e, e);
       }
-    } else {
-      //Older releases require we do this:
-      if (proxyClient != null) {
-        proxyClient.getConnectionManager().shutdown();
-      }
     }
     super.destroy();
   }
@@ -311,14 +303,31 @@ public class ProxyServlet extends HttpServlet {
     setXForwardedForHeader(servletRequest, proxyRequest);
 
     HttpResponse proxyResponse = null;
+    HttpHost httpHost = getTargetHost(servletRequest);
+    ProxyConnectionPool.RouteMetrics metrics = connectionPool.getMetrics(httpHost);
+    if (!connectionPool.tryStartExchange()) {
+      //this servlet already holds its share of the http threads
+      metrics.rejected();
+      servletResponse.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE,
+          "The service is busy, try again later");
+      return;
+    }
+    long start = metrics.start();
     try {
       // Execute the request
       if (doLog) {
         log("proxy " + method + " uri: " + servletRequest.getRequestURI()
             + " -- " + proxyRequest.getRequestLine().getUri());
       }
-      HttpHost httpHost = getTargetHost(servletRequest);
-      proxyResponse = proxyClient.execute(httpHost, proxyRequest);
+      try {
+        proxyResponse = proxyClient.execute(httpHost, proxyRequest);
+      } catch (ConnectionPoolTimeoutException e) {
+        //all the connections to this target are busy, fail fast instead of queueing more servlet threads
+        metrics.rejected();
+        servletResponse.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE,
+            "The service is busy, try again later");
+        return;
+      }
 
       // Process the response
       int statusCode = proxyResponse.getStatusLine().getStatusCode();
@@ -339,9 +348,10 @@ public class ProxyServlet extends HttpServlet {
       copyResponseHeaders(proxyResponse, servletRequest, servletResponse);
 
       // Send the content to the client
-      copyResponseEntity(proxyResponse, servletResponse);
+      metrics.transferred(copyResponseEntity(proxyResponse, servletResponse));
 
     } catch (Exception e) {
+      metrics.failed();
       //abort request, according to best practice with HttpClient
       if (proxyRequest instanceof AbortableHttpRequest) {
         AbortableHttpRequest abortableHttpRequest
@@ -361,6 +371,8 @@ public class ProxyServlet extends HttpServlet {
       throw new RuntimeException(e);
 
     } finally {
+      metrics.end(start);
+      connectionPool.endExchange();
       // make sure the entire entity was consumed, so the connection is released
       if (proxyResponse != null) {
         consumeQuietly(proxyResponse.getEntity());
@@ -439,6 +451,8 @@ public class ProxyServlet extends HttpServlet {
    */
   protected static HeaderGroup hopByHopHeaders;
 
+  private static final int STREAM_BUFFER_SIZE = 8192;
+
   static {
     hopByHopHeaders = new HeaderGroup();
     String[] headers = new String[]{
@@ -585,14 +599,31 @@ public class ProxyServlet extends HttpServlet {
 
   /**
    * Copy response body data (the entity) from the proxy to the servlet client.
+   * The body is streamed: whatever the target has sent so far is flushed to
+   * the client before blocking on the target again, and a slow client slows
+   * down the reads from the target instead of being buffered in memory.
+   *
+   * @return the number of bytes copied
    */
-  protected void copyResponseEntity(HttpResponse proxyResponse,
+  protected long copyResponseEntity(HttpResponse proxyResponse,
       HttpServletResponse servletResponse) throws IOException {
     HttpEntity entity = proxyResponse.getEntity();
-    if (entity != null) {
-      OutputStream servletOutputStream = servletResponse.getOutputStream();
-      entity.writeTo(servletOutputStream);
+    if (entity == null) {
+      return 0;
+    }
+    long count = 0;
+    InputStream in = entity.getContent();
+    OutputStream servletOutputStream = servletResponse.getOutputStream();
+    byte[] buffer = new byte[STREAM_BUFFER_SIZE];
+    int read;
+    while ((read = in.read(buffer)) != -1) {
+      servletOutputStream.write(buffer, 0, read);
+      count += read;
+      if (in.available() == 0) {
+        servletOutputStream.flush();
+      }
     }
+    return count;
   }
 
   /**
@@ -24,6 +24,7 @@ import io.hops.hopsworks.common.dao.project.ProjectFacade;
 import io.hops.hopsworks.common.dao.project.team.ProjectTeamFacade;
 import io.hops.hopsworks.common.dao.user.UserFacade;
 import io.hops.hopsworks.common.util.AccessController;
+import io.hops.hopsworks.common.util.BoundedParallelism;
 import io.hops.hopsworks.common.dataset.DatasetController;
 import io.hops.hopsworks.common.hdfs.HdfsUsersController;
 import io.hops.hopsworks.common.provenance.core.Provenance;
@@ -43,15 +44,17 @@ import io.hops.hopsworks.persistence.entity.project.Project;
 import io.hops.hopsworks.persistence.entity.project.team.ProjectTeam;
 import io.hops.hopsworks.persistence.entity.user.Users;
 import io.hops.hopsworks.restutils.RESTCodes;
+import io.hops.hopsworks.restutils.RESTException;
 import org.apache.logging.log4j.core.util.Integers;
 import org.elasticsearch.search.sort.SortOrder;
 import org.javatuples.Pair;
-import org.json.JSONObject;
 
+import javax.annotation.Resource;
 import javax.ejb.EJB;
 import javax.ejb.Stateless;
 import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
+import javax.enterprise.concurrent.ManagedExecutorService;
 import javax.ws.rs.core.UriBuilder;
 import javax.ws.rs.core.UriInfo;
 import java.util.EnumSet;
@@ -91,6 +94,8 @@ public class ModelsBuilder {
   private DatasetController datasetCtrl;
   @EJB
   private ModelsController modelsController;
+  @Resource(lookup = "concurrent/hopsExecutorService")
+  private ManagedExecutorService executorService;
   
   public ModelDTO uri(ModelDTO dto, UriInfo uriInfo, Project project) {
     dto.setHref(uriInfo.getBaseUriBuilder().path(ResourceRequest.Name.PROJECT.toString().toLowerCase())
@@ -148,9 +153,10 @@ public class ModelsBuilder {
         fileState = provenanceController.provFileStateList(project, provFilesParamBuilder.getValue0());
         List<ProvStateDTO> models = fileState.getItems();
         dto.setCount(fileState.getCount());
-        for(ProvStateDTO fileProvStateHit: models) {
-          ModelDTO modelDTO
-            = build(uriInfo, resourceRequest, project, provFilesParamBuilder.getValue1(), fileProvStateHit);
+        List<ModelDTO> items = BoundedParallelism.map(executorService, models, settings.getMLListingParallelism(),
+          fileProvStateHit -> build(uriInfo, resourceRequest, project, provFilesParamBuilder.getValue1(),
+            fileProvStateHit));
+        for(ModelDTO modelDTO: items) {
           if(modelDTO != null) {
             dto.addItem(modelDTO);
           }
@@ -163,7 +169,9 @@ public class ModelsBuilder {
           throw new ModelsException(RESTCodes.ModelsErrorCode.MODEL_LIST_FAILED, Level.FINE,
             "Unable to list models for project " + project.getName(), e.getMessage(), e);
         }
-      } catch(DatasetException e) {
+      } catch(ModelsException | GenericException e) {
+        throw e;
+      } catch(RESTException e) {
         throw new ModelsException(RESTCodes.ModelsErrorCode.MODEL_LIST_FAILED, Level.FINE,
           "Unable to list models for project " + project.getName(), e.getMessage(), e);
       }
@@ -186,8 +194,8 @@ public class ModelsBuilder {
     if (expand(modelDTO, resourceRequest).isExpand()) {
       if (fileProvenanceHit.getXattrs() != null
         && fileProvenanceHit.getXattrs().containsKey(MODEL_SUMMARY_XATTR_NAME)) {
-        JSONObject summary = new JSONObject(fileProvenanceHit.getXattrs().get(MODEL_SUMMARY_XATTR_NAME));
-        ModelDTO modelSummary = modelConverter.unmarshalDescription(summary.toString());
+        ModelDTO modelSummary = modelConverter.unmarshalDescription(
+          fileProvenanceHit.getXattrs().get(MODEL_SUMMARY_XATTR_NAME));
         modelDTO.setId(fileProvenanceHit.getMlId());
         modelDTO.setName(modelSummary.getName());
         modelDTO.setVersion(modelSummary.getVersion());
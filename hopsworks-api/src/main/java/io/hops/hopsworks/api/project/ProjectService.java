@@ -79,6 +79,8 @@ import io.hops.hopsworks.common.hdfs.inode.InodeController;
 import io.hops.hopsworks.common.project.AccessCredentialsDTO;
 import io.hops.hopsworks.common.project.MoreInfoDTO;
 import io.hops.hopsworks.common.project.ProjectController;
+import io.hops.hopsworks.common.project.ProjectCreationStatusDTO;
+import io.hops.hopsworks.common.project.ProjectCreationTracker;
 import io.hops.hopsworks.common.project.ProjectDTO;
 import io.hops.hopsworks.common.project.QuotasDTO;
 import io.hops.hopsworks.common.project.TourProjectType;
@@ -121,6 +123,7 @@ import javax.ejb.TransactionAttributeType;
 import javax.inject.Inject;
 import javax.servlet.http.HttpServletRequest;
 import javax.ws.rs.Consumes;
+import javax.ws.rs.DefaultValue;
 import javax.ws.rs.FormParam;
 import javax.ws.rs.GET;
 import javax.ws.rs.POST;
@@ -128,6 +131,7 @@ import javax.ws.rs.PUT;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.GenericEntity;
 import javax.ws.rs.core.MediaType;
@@ -159,6 +163,8 @@ public class ProjectService {
   @EJB
   private ProjectController projectController;
   @EJB
+  private ProjectCreationTracker projectCreationTracker;
+  @EJB
   private NoCacheResponse noCacheResponse;
   @Inject
   private ProjectMembersService projectMembers;
@@ -632,11 +638,18 @@ public class ProjectService {
   @POST
   @Produces(MediaType.APPLICATION_JSON)
   @Consumes(MediaType.APPLICATION_JSON)
-  public Response createProject(ProjectDTO projectDTO, @Context HttpServletRequest req, @Context SecurityContext sc)
+  public Response createProject(ProjectDTO projectDTO, @QueryParam("async") @DefaultValue("false") Boolean async,
+    @Context HttpServletRequest req, @Context SecurityContext sc)
     throws DatasetException, GenericException, KafkaException, ProjectException, UserException, ServiceException,
     HopsSecurityException, FeaturestoreException, ElasticException, SchemaException, IOException {
 
     Users user = jWTHelper.getUserPrincipal(sc);
+    if (async) {
+      ProjectCreationTracker.Progress progress =
+        projectCreationTracker.start(projectDTO.getProjectName(), user.getUsername());
+      projectController.createProjectAsync(projectDTO, user, req.getSession().getId(), progress);
+      return noCacheResponse.getNoCacheResponseBuilder(Response.Status.ACCEPTED).entity(progress.toDTO()).build();
+    }
     projectController.createProject(projectDTO, user, req.getSession().getId());
 
     RESTApiJsonResponse json = new RESTApiJsonResponse();
@@ -650,6 +663,20 @@ public class ProjectService {
         entity(json).build();
   }
 
+  @GET
+  @Path("creation/{projectName}")
+  @Produces(MediaType.APPLICATION_JSON)
+  public Response getProjectCreationStatus(@PathParam("projectName") String projectName,
+    @Context SecurityContext sc) throws ProjectException {
+    Users user = jWTHelper.getUserPrincipal(sc);
+    ProjectCreationStatusDTO status = projectCreationTracker.getStatus(projectName, user.getUsername());
+    if (status == null) {
+      throw new ProjectException(RESTCodes.ProjectErrorCode.PROJECT_NOT_FOUND, Level.FINE,
+        "projectName: " + projectName);
+    }
+    return noCacheResponse.getNoCacheResponseBuilder(Response.Status.OK).entity(status).build();
+  }
+
   @POST
   @Path("{projectId}/delete")
   @Produces(MediaType.APPLICATION_JSON)
@@ -22,6 +22,7 @@ import io.hops.hopsworks.api.filter.Audience;
 import io.hops.hopsworks.api.filter.apiKey.ApiKeyRequired;
 import io.hops.hopsworks.common.dao.project.ProjectFacade;
 import io.hops.hopsworks.common.serving.inference.InferenceController;
+import io.hops.hopsworks.common.serving.inference.InferenceExecutor;
 import io.hops.hopsworks.exceptions.InferenceException;
 import io.hops.hopsworks.jwt.annotation.JWTRequired;
 import io.hops.hopsworks.persistence.entity.project.Project;
@@ -39,6 +40,8 @@ import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.Suspended;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
@@ -58,6 +61,8 @@ public class InferenceResource {
   private InferenceController inferenceController;
   @EJB
   private ProjectFacade projectFacade;
+  @EJB
+  private InferenceExecutor inferenceExecutor;
   
   private Project project;
 
@@ -75,17 +80,28 @@ public class InferenceResource {
   @AllowedProjectRoles({AllowedProjectRoles.DATA_OWNER, AllowedProjectRoles.DATA_SCIENTIST})
   @JWTRequired(acceptedTokens={Audience.API, Audience.JOB}, allowedUserRoles={"HOPS_ADMIN", "HOPS_USER"})
   @ApiKeyRequired( acceptedScopes = {ApiScope.INFERENCE}, allowedUserRoles = {"HOPS_ADMIN", "HOPS_USER"})
-  public Response infer(
+  public void infer(
       @ApiParam(value = "Name of the model to query", required = true) @PathParam("modelName") String modelName,
       @ApiParam(value = "Version of the model to query") @PathParam("version") String modelVersion,
       @ApiParam(value = "Type of query") @PathParam("verb") String verb, @Context SecurityContext sc,
-      String inferenceRequestJson) throws InferenceException {
+      String inferenceRequestJson, @Suspended AsyncResponse asyncResponse) throws InferenceException {
     Integer version = null;
     if (!Strings.isNullOrEmpty(modelVersion)) {
       version = Integer.valueOf(modelVersion.split("/")[2]);
     }
 
-    String inferenceResult = inferenceController.infer(project, modelName, version, verb, inferenceRequestJson);
-    return Response.ok().entity(inferenceResult).build();
+    // The request thread is released while waiting for the model server, requests beyond the bounded queue of the
+    // inference threads are rejected
+    Project requestProject = project;
+    Integer requestVersion = version;
+    inferenceExecutor.submit(() -> {
+      try {
+        String inferenceResult = inferenceController.infer(requestProject, modelName, requestVersion, verb,
+          inferenceRequestJson);
+        asyncResponse.resume(Response.ok().entity(inferenceResult).build());
+      } catch (Exception e) {
+        asyncResponse.resume(e);
+      }
+    });
   }
 }
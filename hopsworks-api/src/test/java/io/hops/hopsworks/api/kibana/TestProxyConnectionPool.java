@@ -0,0 +1,233 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2021, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.hops.hopsworks.api.kibana;
+
+import com.sun.net.httpserver.HttpServer;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.util.EntityUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TestProxyConnectionPool {
+
+  private static final int CLIENTS = 64;
+  private static final int REQUESTS_PER_CLIENT = 20;
+
+  private StubUpstream grafana;
+  private StubUpstream kibana;
+
+  @Before
+  public void setup() throws Exception {
+    grafana = new StubUpstream(20);
+    kibana = new StubUpstream(20);
+  }
+
+  @After
+  public void tearDown() {
+    grafana.stop();
+    kibana.stop();
+  }
+
+  @Test
+  public void testConnectionsAreBoundedPerTarget() throws Exception {
+    try (ProxyConnectionPool pool = newPool(8, 4, 5000)) {
+      run(pool.getHttpClient(), 16, 10, grafana, kibana);
+      Assert.assertTrue(grafana.peakConcurrency.get() <= 4);
+      Assert.assertTrue(kibana.peakConcurrency.get() <= 4);
+      Assert.assertTrue(grafana.peakConcurrency.get() > 1);
+      Assert.assertTrue(grafana.peakConcurrency.get() + kibana.peakConcurrency.get() <= 8);
+    }
+  }
+
+  @Test
+  public void testSaturatedTargetFailsFast() throws Exception {
+    StubUpstream slow = new StubUpstream(2000);
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try (ProxyConnectionPool pool = newPool(8, 1, 100)) {
+      Future<?> inFlight = executor.submit(() -> {
+        get(pool.getHttpClient(), slow.host);
+        return null;
+      });
+      while (slow.concurrency.get() == 0) {
+        Thread.sleep(5);
+      }
+      long start = System.nanoTime();
+      try {
+        get(pool.getHttpClient(), slow.host);
+        Assert.fail("The second request should not get a connection");
+      } catch (ConnectionPoolTimeoutException e) {
+        Assert.assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+      }
+      //Other targets are not affected
+      get(pool.getHttpClient(), grafana.host);
+      inFlight.get(1, TimeUnit.MINUTES);
+    } finally {
+      executor.shutdownNow();
+      slow.stop();
+    }
+  }
+
+  @Test
+  public void testExchangesAreBounded() throws Exception {
+    try (ProxyConnectionPool pool = new ProxyConnectionPool(2, 8, 4, 5000, true,
+      SSLConnectionSocketFactory.getSocketFactory())) {
+      Assert.assertTrue(pool.tryStartExchange());
+      Assert.assertTrue(pool.tryStartExchange());
+      Assert.assertFalse(pool.tryStartExchange());
+      Assert.assertEquals(2, pool.getActiveExchanges());
+      pool.endExchange();
+      Assert.assertTrue(pool.tryStartExchange());
+      pool.endExchange();
+      pool.endExchange();
+      Assert.assertEquals(0, pool.getActiveExchanges());
+    }
+  }
+
+  @Test
+  public void testMetrics() throws Exception {
+    try (ProxyConnectionPool pool = newPool(8, 4, 5000)) {
+      ProxyConnectionPool.RouteMetrics metrics = pool.getMetrics(grafana.host);
+      Assert.assertSame(metrics, pool.getMetrics(grafana.host));
+      long start = metrics.start();
+      Assert.assertEquals(1, metrics.getActive());
+      metrics.transferred(1024);
+      metrics.end(start);
+      metrics.start();
+      metrics.failed();
+      Assert.assertEquals(2, metrics.getRequests());
+      Assert.assertEquals(1, metrics.getActive());
+      Assert.assertEquals(1, metrics.getPeakActive());
+      Assert.assertEquals(1, metrics.getFailures());
+      Assert.assertEquals(1024, metrics.getBytes());
+    }
+  }
+
+  @Test
+  public void testLoad() throws Exception {
+    //The client the proxies used before, with the default limits of the system properties
+    try (CloseableHttpClient client = HttpClients.createSystem()) {
+      run(client, CLIENTS, REQUESTS_PER_CLIENT, grafana, kibana);
+    }
+    int grafanaPeak = grafana.peakConcurrency.getAndSet(0);
+    int kibanaPeak = kibana.peakConcurrency.getAndSet(0);
+    //By default the system client keeps at most 5 connections per target, the other threads wait for them
+    Assert.assertTrue(grafanaPeak <= 5);
+    Assert.assertTrue(kibanaPeak <= 5);
+
+    try (ProxyConnectionPool pool = newPool(200, 50, 5000)) {
+      run(pool.getHttpClient(), CLIENTS, REQUESTS_PER_CLIENT, grafana, kibana);
+    }
+    //Half of the client threads go to each upstream, the pool lets more of them through at once
+    Assert.assertTrue(grafana.peakConcurrency.get() > grafanaPeak);
+    Assert.assertTrue(kibana.peakConcurrency.get() > kibanaPeak);
+    Assert.assertTrue(grafana.peakConcurrency.get() <= CLIENTS / 2);
+    Assert.assertTrue(kibana.peakConcurrency.get() <= CLIENTS / 2);
+  }
+
+  private ProxyConnectionPool newPool(int maxConnections, int maxConnectionsPerTarget, int requestTimeoutMs) {
+    return new ProxyConnectionPool(maxConnections, maxConnections, maxConnectionsPerTarget, requestTimeoutMs, true,
+      SSLConnectionSocketFactory.getSocketFactory());
+  }
+
+  /**
+   * Each client thread stands for a servlet thread proxying a dashboard of one of the upstreams.
+   */
+  private void run(HttpClient client, int clients, int requestsPerClient, StubUpstream... upstreams)
+    throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(clients);
+    try {
+      List<Future<?>> results = new ArrayList<>();
+      for (int c = 0; c < clients; c++) {
+        StubUpstream upstream = upstreams[c % upstreams.length];
+        results.add(executor.submit(() -> {
+          for (int i = 0; i < requestsPerClient; i++) {
+            get(client, upstream.host);
+          }
+          return null;
+        }));
+      }
+      for (Future<?> result : results) {
+        result.get(5, TimeUnit.MINUTES);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private static void get(HttpClient client, HttpHost host) throws IOException {
+    HttpResponse response = client.execute(host, new HttpGet("/asset.js"));
+    Assert.assertEquals(200, response.getStatusLine().getStatusCode());
+    Assert.assertEquals(16 * 1024, EntityUtils.toByteArray(response.getEntity()).length);
+  }
+
+  /**
+   * Upstream answering every request with 16KB after a fixed delay, recording how many requests it serves at once.
+   */
+  private static class StubUpstream {
+    private final HttpServer server;
+    private final HttpHost host;
+    private final AtomicInteger concurrency = new AtomicInteger();
+    private final AtomicInteger peakConcurrency = new AtomicInteger();
+
+    StubUpstream(int delayMs) throws IOException {
+      server = HttpServer.create(new InetSocketAddress("localhost", 0), 256);
+      server.setExecutor(Executors.newCachedThreadPool());
+      byte[] body = new byte[16 * 1024];
+      server.createContext("/", exchange -> {
+        peakConcurrency.accumulateAndGet(concurrency.incrementAndGet(), Math::max);
+        try {
+          Thread.sleep(delayMs);
+          exchange.sendResponseHeaders(200, body.length);
+          try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+          }
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        } finally {
+          concurrency.decrementAndGet();
+          exchange.close();
+        }
+      });
+      server.start();
+      host = new HttpHost("localhost", server.getAddress().getPort());
+    }
+
+    void stop() {
+      server.stop(0);
+    }
+  }
+}
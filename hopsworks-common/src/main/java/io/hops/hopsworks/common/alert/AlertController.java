@@ -78,6 +78,8 @@ public class AlertController {
   private FeaturestoreFacade featurestoreFacade;
   @EJB
   private AlertReceiverFacade alertReceiverFacade;
+  @EJB
+  private AlertDispatcher alertDispatcher;
 
   /**
    * send feature group alert
@@ -163,7 +165,7 @@ public class AlertController {
 
   private void sendFgAlert(List<PostableAlert> postableAlerts, Project project, String name) {
     try {
-      sendAlert(postableAlerts, project);
+      alertDispatcher.dispatch(postableAlerts, project);
     } catch (Exception e) {
       LOGGER.log(java.util.logging.Level.WARNING, "Failed to send alert. Featuregroup={0}. Exception: {1}",
           new Object[] {name, e.getMessage()});
@@ -172,7 +174,7 @@ public class AlertController {
 
   private void sendJobAlert(List<PostableAlert> postableAlerts, Project project, String name, Integer id) {
     try {
-      sendAlert(postableAlerts, project);
+      alertDispatcher.dispatch(postableAlerts, project);
     } catch (Exception e) {
       LOGGER.log(Level.WARNING,
           "Failed to send alert. Job={0} executionId={1}. Exception: {2}", new Object[] {name, id, e.getMessage()});
@@ -0,0 +1,325 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2021, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.common.alert;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.hops.hopsworks.alert.AlertManager;
+import io.hops.hopsworks.alert.dao.PendingAlertFacade;
+import io.hops.hopsworks.alert.exception.AlertManagerAccessControlException;
+import io.hops.hopsworks.alerting.api.alert.dto.PostableAlert;
+import io.hops.hopsworks.common.util.Settings;
+import io.hops.hopsworks.persistence.entity.alertmanager.PendingAlert;
+import io.hops.hopsworks.persistence.entity.project.Project;
+
+import javax.annotation.Resource;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.EJB;
+import javax.ejb.Schedule;
+import javax.ejb.Singleton;
+import javax.ejb.Timer;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import javax.enterprise.concurrent.ManagedExecutorService;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static javax.ejb.ConcurrencyManagementType.BEAN;
+
+/**
+ * Sends the alerts raised by jobs and feature group validations to Alertmanager in the background, so that a slow or
+ * unreachable Alertmanager does not hold up the caller. Alerts are queued in the pending_alert table, so that they
+ * survive a restart, and sent in batches by a single drain task per instance. A failed batch is retried with
+ * exponential backoff, and an alert identical to one queued within the deduplication window is not queued again.
+ */
+@ConcurrencyManagement(BEAN)
+@Singleton
+@TransactionAttribute(TransactionAttributeType.NEVER)
+public class AlertDispatcher {
+
+  private static final Logger LOGGER = Logger.getLogger(AlertDispatcher.class.getName());
+  private static final long MAX_BACKOFF_MS = 30000;
+  //Longer than sending a batch takes with all its retries. The claim of an instance that stopped while sending
+  //expires after it, and the alerts are sent by another instance.
+  private static final long CLAIM_TIMEOUT_MS = 10 * 60 * 1000;
+
+  @EJB
+  private AlertManager alertManager;
+  @EJB
+  private PendingAlertFacade pendingAlertFacade;
+  @EJB
+  private Settings settings;
+  @Resource(lookup = "concurrent/hopsExecutorService")
+  private ManagedExecutorService executorService;
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  //Key of an alert -> when it was last queued
+  private final ConcurrentHashMap<String, Long> recent = new ConcurrentHashMap<>();
+  private final AtomicBoolean draining = new AtomicBoolean(false);
+
+  private final AtomicLong dispatched = new AtomicLong();
+  private final AtomicLong failed = new AtomicLong();
+  private final AtomicLong dropped = new AtomicLong();
+  private final AtomicLong deduplicated = new AtomicLong();
+  private final AtomicLong requests = new AtomicLong();
+  private final AtomicLong totalLatency = new AtomicLong();
+  private final AtomicLong maxLatency = new AtomicLong();
+
+  /**
+   * Queue the alerts of a project to be sent to Alertmanager. Returns without waiting for Alertmanager.
+   * @param postableAlerts
+   * @param project
+   * @throws AlertManagerAccessControlException if an alert does not belong to the project
+   */
+  public void dispatch(List<PostableAlert> postableAlerts, Project project)
+    throws AlertManagerAccessControlException {
+    if (postableAlerts.isEmpty()) {
+      return;
+    }
+    alertManager.labelAlerts(postableAlerts, project);
+    long now = System.currentTimeMillis();
+    long window = settings.getAlertDedupWindowMs();
+    int capacity = settings.getAlertDispatchQueueSize();
+    long queueDepth = pendingAlertFacade.countClaimable(expired(now));
+    for (PostableAlert postableAlert : postableAlerts) {
+      String key = key(postableAlert);
+      boolean[] duplicate = new boolean[1];
+      recent.compute(key, (k, queuedAt) -> {
+        if (queuedAt != null && now - queuedAt < window) {
+          duplicate[0] = true;
+          return queuedAt;
+        }
+        return now;
+      });
+      if (duplicate[0]) {
+        deduplicated.incrementAndGet();
+        continue;
+      }
+      if (queueDepth >= capacity) {
+        recent.remove(key, now);
+        dropped.incrementAndGet();
+        LOGGER.log(Level.WARNING, "Alert queue is full, dropping alert {0}", postableAlert.getLabels());
+        continue;
+      }
+      try {
+        pendingAlertFacade.save(new PendingAlert(objectMapper.writeValueAsString(postableAlert), new Date(now)));
+        queueDepth++;
+      } catch (JsonProcessingException e) {
+        recent.remove(key, now);
+        dropped.incrementAndGet();
+        LOGGER.log(Level.WARNING, "Could not queue alert " + postableAlert.getLabels(), e);
+      }
+    }
+    startDraining();
+  }
+
+  /**
+   * Send the alerts left in the queue by a restart, or by another instance that stopped while sending them.
+   */
+  @Schedule(persistent = false, minute = "*", hour = "*")
+  public void resume(Timer timer) {
+    startDraining();
+  }
+
+  private void startDraining() {
+    if (draining.compareAndSet(false, true)) {
+      try {
+        executorService.submit(this::drain);
+      } catch (RejectedExecutionException e) {
+        draining.set(false);
+        LOGGER.log(Level.WARNING, "Could not start sending alerts, will retry on the next alert", e);
+      }
+    }
+  }
+
+  private void drain() {
+    boolean drained = false;
+    try {
+      List<PendingAlert> claimable;
+      while (!(claimable = pendingAlertFacade.findClaimable(expired(System.currentTimeMillis()),
+        settings.getAlertDispatchBatchSize())).isEmpty()) {
+        List<Pending> batch = claim(claimable);
+        if (batch.isEmpty()) {
+          //Claimed by another instance
+          continue;
+        }
+        if (!send(batch)) {
+          //Interrupted, the alerts are sent once the claim expires
+          return;
+        }
+        List<Integer> ids = new ArrayList<>(batch.size());
+        for (Pending pending : batch) {
+          ids.add(pending.id);
+        }
+        pendingAlertFacade.remove(ids);
+        long now = System.currentTimeMillis();
+        long window = settings.getAlertDedupWindowMs();
+        recent.values().removeIf(queuedAt -> now - queuedAt >= window);
+      }
+      drained = true;
+    } catch (RuntimeException e) {
+      LOGGER.log(Level.WARNING, "Could not send the queued alerts, will retry in a minute", e);
+    } finally {
+      draining.set(false);
+    }
+    if (drained) {
+      //Alerts queued after the last poll, while this task was still marked as draining
+      startDraining();
+    }
+  }
+
+  private List<Pending> claim(List<PendingAlert> claimable) {
+    long now = System.currentTimeMillis();
+    Date claimedAt = new Date(now);
+    Date expired = expired(now);
+    List<Pending> batch = new ArrayList<>(claimable.size());
+    List<Integer> unreadable = new ArrayList<>();
+    for (PendingAlert pendingAlert : claimable) {
+      if (!pendingAlertFacade.claim(pendingAlert.getId(), claimedAt, expired)) {
+        continue;
+      }
+      try {
+        batch.add(new Pending(pendingAlert.getId(), objectMapper.readValue(pendingAlert.getContent(),
+          PostableAlert.class), pendingAlert.getQueuedAt().getTime()));
+      } catch (IOException e) {
+        LOGGER.log(Level.WARNING, "Dropping unreadable alert " + pendingAlert.getId(), e);
+        unreadable.add(pendingAlert.getId());
+      }
+    }
+    pendingAlertFacade.remove(unreadable);
+    return batch;
+  }
+
+  /**
+   * @return false if interrupted before the batch was sent or given up on
+   */
+  private boolean send(List<Pending> batch) {
+    List<PostableAlert> postableAlerts = new ArrayList<>(batch.size());
+    for (Pending pending : batch) {
+      postableAlerts.add(pending.postableAlert);
+    }
+    int maxRetries = settings.getAlertDispatchMaxRetries();
+    long backoff = settings.getAlertDispatchBackoffMs();
+    for (int attempt = 0; ; attempt++) {
+      try {
+        requests.incrementAndGet();
+        alertManager.postAlerts(postableAlerts);
+        long now = System.currentTimeMillis();
+        for (Pending pending : batch) {
+          long latency = now - pending.queuedAt;
+          totalLatency.addAndGet(latency);
+          maxLatency.accumulateAndGet(latency, Math::max);
+        }
+        dispatched.addAndGet(batch.size());
+        return true;
+      } catch (Exception e) {
+        if (attempt >= maxRetries) {
+          failed.addAndGet(batch.size());
+          //The alerts were not delivered, the next identical alert must not be taken for a duplicate
+          for (Pending pending : batch) {
+            recent.remove(key(pending.postableAlert));
+          }
+          LOGGER.log(Level.WARNING, "Failed to send {0} alerts after {1} attempts. Exception: {2}",
+            new Object[]{batch.size(), attempt + 1, e.getMessage()});
+          return true;
+        }
+        LOGGER.log(Level.FINE, "Failed to send alerts, will retry in {0} ms. Exception: {1}",
+          new Object[]{backoff, e.getMessage()});
+      }
+      try {
+        Thread.sleep(backoff);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return false;
+      }
+      backoff = Math.min(backoff * 2, MAX_BACKOFF_MS);
+    }
+  }
+
+  private Date expired(long now) {
+    return new Date(now - CLAIM_TIMEOUT_MS);
+  }
+
+  private String key(PostableAlert postableAlert) {
+    Map<String, String> labels = postableAlert.getLabels() == null ? Collections.emptyMap() :
+      postableAlert.getLabels();
+    Map<String, String> annotations = postableAlert.getAnnotations() == null ? Collections.emptyMap() :
+      postableAlert.getAnnotations();
+    return new TreeMap<>(labels).toString() + new TreeMap<>(annotations).toString();
+  }
+
+  /**
+   * @return alerts waiting to be sent, not counting the ones being sent
+   */
+  public int getQueueDepth() {
+    return (int) pendingAlertFacade.countClaimable(expired(System.currentTimeMillis()));
+  }
+
+  public long getDispatchedCount() {
+    return dispatched.get();
+  }
+
+  public long getFailedCount() {
+    return failed.get();
+  }
+
+  public long getDroppedCount() {
+    return dropped.get();
+  }
+
+  public long getDeduplicatedCount() {
+    return deduplicated.get();
+  }
+
+  public long getRequestCount() {
+    return requests.get();
+  }
+
+  /**
+   * @return average time in ms from queueing an alert to Alertmanager accepting it
+   */
+  public long getAverageLatency() {
+    long count = dispatched.get();
+    return count == 0 ? 0 : totalLatency.get() / count;
+  }
+
+  public long getMaxLatency() {
+    return maxLatency.get();
+  }
+
+  private static class Pending {
+    private final Integer id;
+    private final PostableAlert postableAlert;
+    private final long queuedAt;
+
+    private Pending(Integer id, PostableAlert postableAlert, long queuedAt) {
+      this.id = id;
+      this.postableAlert = postableAlert;
+      this.queuedAt = queuedAt;
+    }
+  }
+}
@@ -144,6 +144,16 @@ public class CertsFacade {
   public void update(UserCerts uc) {
     em.merge(uc);
   }
+  
+  /**
+   * Update many certificates in one transaction
+   * @param ucs
+   */
+  public void updateAll(List<UserCerts> ucs) {
+    for (UserCerts uc : ucs) {
+      em.merge(uc);
+    }
+  }
 
   public <T> void remove(T uc) {
     if (uc != null) {
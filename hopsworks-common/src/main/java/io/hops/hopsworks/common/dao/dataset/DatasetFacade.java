@@ -55,6 +55,7 @@ import javax.persistence.PersistenceContext;
 import javax.persistence.Query;
 import javax.persistence.TypedQuery;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
@@ -63,6 +64,8 @@ import java.util.Set;
 @Stateless
 public class DatasetFacade extends AbstractFacade<Dataset> {
 
+  private static final int IN_CLAUSE_BATCH_SIZE = 1000;
+
   @PersistenceContext(unitName = "kthfsPU")
   private EntityManager em;
   
@@ -170,6 +173,23 @@ public class DatasetFacade extends AbstractFacade<Dataset> {
     return query.getResultList();
   }
 
+  /**
+   * @param projects
+   * @param types
+   * @return the datasets of the given types owned by any of the given projects
+   */
+  public List<Dataset> findByProjectsAndTypes(Collection<Project> projects, Collection<DatasetType> types) {
+    List<Dataset> result = new ArrayList<>();
+    List<Project> projectList = new ArrayList<>(projects);
+    for (int i = 0; i < projectList.size(); i += IN_CLAUSE_BATCH_SIZE) {
+      result.addAll(em.createNamedQuery("Dataset.findByProjectsAndDstypes", Dataset.class)
+        .setParameter("projects", projectList.subList(i, Math.min(i + IN_CLAUSE_BATCH_SIZE, projectList.size())))
+        .setParameter("dstypes", types)
+        .getResultList());
+    }
+    return result;
+  }
+
   public List<DataSetDTO> findPublicDatasets() {
     TypedQuery<Dataset> query = em.createNamedQuery("Dataset.findAllPublic", Dataset.class);
     List<Dataset> datasets = query.getResultList();
@@ -46,11 +46,16 @@ import javax.ejb.Stateless;
 import javax.persistence.EntityManager;
 import javax.persistence.NoResultException;
 import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Stateless
 public class HdfsDirectoryWithQuotaFeatureFacade extends AbstractFacade<HdfsDirectoryWithQuotaFeature> {
 
+  private static final int IN_CLAUSE_BATCH_SIZE = 1000;
+
   @PersistenceContext(unitName = "kthfsPU")
   private EntityManager em;
 
@@ -72,4 +77,20 @@ public class HdfsDirectoryWithQuotaFeatureFacade extends AbstractFacade<HdfsDire
     }
   }
 
+  /**
+   * @param inodeIds
+   * @return the quota features of the given directories, directories without a quota are left out
+   */
+  public List<HdfsDirectoryWithQuotaFeature> getByInodeIds(Collection<Long> inodeIds) {
+    List<HdfsDirectoryWithQuotaFeature> result = new ArrayList<>();
+    List<Long> ids = new ArrayList<>(inodeIds);
+    for (int i = 0; i < ids.size(); i += IN_CLAUSE_BATCH_SIZE) {
+      result.addAll(em.createNamedQuery("HdfsDirectoryWithQuotaFeature.findByInodeIds",
+          HdfsDirectoryWithQuotaFeature.class)
+          .setParameter("inodeIds", ids.subList(i, Math.min(i + IN_CLAUSE_BATCH_SIZE, ids.size())))
+          .getResultList());
+    }
+    return result;
+  }
+
 }
@@ -57,6 +57,8 @@ import javax.persistence.NoResultException;
 import javax.persistence.PersistenceContext;
 import javax.persistence.Query;
 import javax.persistence.TypedQuery;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
 import java.util.HashSet;
 import java.util.List;
@@ -119,6 +121,21 @@ public class JobFacade extends AbstractFacade<Jobs> {
   }
   
   
+  /**
+   * Get all the given jobs in one query.
+   *
+   * @param ids
+   * @return the jobs that still exist
+   */
+  public List<Jobs> findByIds(Collection<Integer> ids) {
+    if (ids.isEmpty()) {
+      return new ArrayList<>();
+    }
+    TypedQuery<Jobs> q = em.createNamedQuery("Jobs.findByIds", Jobs.class);
+    q.setParameter("ids", ids);
+    return q.getResultList();
+  }
+
   /**
    * Checks if a job with the given name exists in this project.
    *
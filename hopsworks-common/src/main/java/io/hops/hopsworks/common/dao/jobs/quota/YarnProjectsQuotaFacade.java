@@ -48,12 +48,15 @@ import javax.persistence.NoResultException;
 import javax.persistence.PersistenceContext;
 import javax.persistence.TypedQuery;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 @Stateless
 public class YarnProjectsQuotaFacade extends
         AbstractFacade<YarnProjectsQuota> {
 
+  private static final int IN_CLAUSE_BATCH_SIZE = 1000;
+
   @PersistenceContext(unitName = "kthfsPU")
   private EntityManager em;
 
@@ -82,6 +85,21 @@ public class YarnProjectsQuotaFacade extends
     }
   }
 
+  /**
+   * @param projectnames
+   * @return the YARN quotas of the given projects, projects without a quota are left out
+   */
+  public List<YarnProjectsQuota> findByProjectNames(Collection<String> projectnames) {
+    List<YarnProjectsQuota> result = new ArrayList<>();
+    List<String> names = new ArrayList<>(projectnames);
+    for (int i = 0; i < names.size(); i += IN_CLAUSE_BATCH_SIZE) {
+      result.addAll(em.createNamedQuery("YarnProjectsQuota.findByProjectnames", YarnProjectsQuota.class)
+        .setParameter("projectnames", names.subList(i, Math.min(i + IN_CLAUSE_BATCH_SIZE, names.size())))
+        .getResultList());
+    }
+    return result;
+  }
+
   public void flushEm() {
     em.flush();
   }
@@ -0,0 +1,88 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2021, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.common.dao.jobs.scheduler;
+
+import io.hops.hopsworks.persistence.entity.jobs.scheduler.JobSchedule;
+
+import javax.ejb.Stateless;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+@Stateless
+public class JobScheduleFacade {
+  @PersistenceContext(unitName = "kthfsPU")
+  private EntityManager em;
+
+  public JobSchedule find(Integer jobId) {
+    return em.find(JobSchedule.class, jobId);
+  }
+
+  /**
+   * Add the schedule of a job, or replace it if the job is already scheduled.
+   */
+  public void save(JobSchedule entity) {
+    em.merge(entity);
+  }
+
+  /**
+   * @return true if the job was scheduled
+   */
+  public boolean remove(Integer jobId) {
+    return remove(Collections.singletonList(jobId)) > 0;
+  }
+
+  /**
+   * @return the number of schedules removed
+   */
+  public int remove(Collection<Integer> jobIds) {
+    if (jobIds.isEmpty()) {
+      return 0;
+    }
+    return em.createNamedQuery("JobSchedule.deleteByJobIds")
+      .setParameter("jobIds", jobIds)
+      .executeUpdate();
+  }
+
+  /**
+   * @param now
+   * @param limit
+   * @return the schedules whose next fire time is at or before now, the earliest first
+   */
+  public List<JobSchedule> findDue(long now, int limit) {
+    TypedQuery<JobSchedule> query = em.createNamedQuery("JobSchedule.findDue", JobSchedule.class);
+    query.setParameter("now", now);
+    query.setMaxResults(limit);
+    return query.getResultList();
+  }
+
+  /**
+   * Move the next fire time of a job from expected to next.
+   *
+   * @return true if the fire time was claimed, false if the job was unscheduled, rescheduled or another instance
+   * claimed it first
+   */
+  public boolean claim(Integer jobId, long expected, long next) {
+    return em.createNamedQuery("JobSchedule.claim")
+      .setParameter("jobId", jobId)
+      .setParameter("expected", expected)
+      .setParameter("next", next)
+      .executeUpdate() == 1;
+  }
+}
@@ -0,0 +1,69 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2021, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.common.dao.kafka;
+
+import javax.xml.bind.annotation.XmlRootElement;
+import java.util.ArrayList;
+import java.util.List;
+
+@XmlRootElement
+public class ConsumerGroupLagDTO {
+
+  private String group;
+  private Long lag;
+  //Messages per second consumed by the group since the previous collection
+  private Double consumeRate;
+  private List<PartitionLagDTO> partitions = new ArrayList<>();
+
+  public ConsumerGroupLagDTO() {
+  }
+
+  public ConsumerGroupLagDTO(String group) {
+    this.group = group;
+  }
+
+  public String getGroup() {
+    return group;
+  }
+
+  public void setGroup(String group) {
+    this.group = group;
+  }
+
+  public Long getLag() {
+    return lag;
+  }
+
+  public void setLag(Long lag) {
+    this.lag = lag;
+  }
+
+  public Double getConsumeRate() {
+    return consumeRate;
+  }
+
+  public void setConsumeRate(Double consumeRate) {
+    this.consumeRate = consumeRate;
+  }
+
+  public List<PartitionLagDTO> getPartitions() {
+    return partitions;
+  }
+
+  public void setPartitions(List<PartitionLagDTO> partitions) {
+    this.partitions = partitions;
+  }
+}
@@ -22,22 +22,32 @@ import org.apache.kafka.clients.admin.AdminClient;
 import org.apache.kafka.clients.admin.CreateTopicsResult;
 import org.apache.kafka.clients.admin.DeleteTopicsResult;
 import org.apache.kafka.clients.admin.DescribeTopicsResult;
+import org.apache.kafka.clients.admin.ListConsumerGroupOffsetsResult;
+import org.apache.kafka.clients.admin.ListConsumerGroupsResult;
 import org.apache.kafka.clients.admin.ListTopicsResult;
 import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.TopicPartition;
 import org.apache.kafka.common.config.SslConfigs;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.ejb.AccessTimeout;
 import javax.ejb.ConcurrencyManagement;
 import javax.ejb.ConcurrencyManagementType;
 import javax.ejb.DependsOn;
 import javax.ejb.EJB;
+import javax.ejb.Lock;
+import javax.ejb.LockType;
 import javax.ejb.Singleton;
 import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
 import java.time.Duration;
 import java.util.Collection;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 import java.util.logging.Level;
@@ -55,7 +65,13 @@ public class HopsKafkaAdminClient {
   @EJB
   private KafkaBrokers kafkaBrokers;
   
-  private AdminClient adminClient;
+  private volatile AdminClient adminClient;
+  //Serializes the re-initializations of the client by the methods holding a read lock
+  private final Object clientLock = new Object();
+  //Only used to fetch end offsets, the admin client of this Kafka version can not list offsets
+  private KafkaConsumer<byte[], byte[]> endOffsetsConsumer;
+  //The consumer is not thread safe
+  private final Object endOffsetsLock = new Object();
   
   @PostConstruct
   private void init() {
@@ -67,6 +83,30 @@ public class HopsKafkaAdminClient {
     }
   }
   
+  @PreDestroy
+  private void close() {
+    synchronized (endOffsetsLock) {
+      if (endOffsetsConsumer != null) {
+        try {
+          endOffsetsConsumer.close(Duration.ofSeconds(3));
+        } catch (Exception e) {
+          LOG.log(Level.WARNING, "Could not close the end offsets consumer", e);
+        }
+        endOffsetsConsumer = null;
+      }
+    }
+    synchronized (clientLock) {
+      if (adminClient != null) {
+        try {
+          adminClient.close(Duration.ofSeconds(3));
+        } catch (Exception e) {
+          LOG.log(Level.WARNING, "Could not close adminClient", e);
+        }
+        adminClient = null;
+      }
+    }
+  }
+  
   @AccessTimeout(value = 5000)
   @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
   private void initClient() {
@@ -78,6 +118,23 @@ public class HopsKafkaAdminClient {
         LOG.log(Level.WARNING, "Could not close adminClient, will continue with initialization", e);
       }
     }
+    LOG.log(Level.FINE, "Will attempt to initialize current kafka client");
+    adminClient = AdminClient.create(clientProperties());
+  }
+  
+  /**
+   * Re-initialize the client from a method holding a read lock, unless a concurrent call already replaced the
+   * client that failed.
+   */
+  private void reinitClient(AdminClient failed) {
+    synchronized (clientLock) {
+      if (adminClient == failed) {
+        initClient();
+      }
+    }
+  }
+  
+  private Properties clientProperties() {
     Properties props = new Properties();
     Set<String> brokers = kafkaBrokers.getKafkaBrokers();
     //Keep only INTERNAL protocol brokers
@@ -93,8 +150,7 @@ public class HopsKafkaAdminClient {
     props.setProperty(SslConfigs.SSL_KEY_PASSWORD_CONFIG, baseHadoopService.getSuperKeystorePassword());
     props.setProperty(SslConfigs.SSL_ENDPOINT_IDENTIFICATION_ALGORITHM_CONFIG,
       KafkaConst.KAFKA_ENDPOINT_IDENTIFICATION_ALGORITHM);
-    LOG.log(Level.FINE, "Will attempt to initialize current kafka client");
-    adminClient = AdminClient.create(props);
+    return props;
   }
   
   public ListTopicsResult listTopics() {
@@ -137,4 +193,62 @@ public class HopsKafkaAdminClient {
     }
   }
   
+  @Lock(LockType.READ)
+  public ListConsumerGroupsResult listConsumerGroups() {
+    AdminClient client = adminClient;
+    try {
+      return client.listConsumerGroups();
+    } catch (Exception e) {
+      LOG.log(Level.WARNING, "Kafka cluster is unavailable", e);
+      reinitClient(client);
+      return adminClient.listConsumerGroups();
+    }
+  }
+  
+  @Lock(LockType.READ)
+  public ListConsumerGroupOffsetsResult listConsumerGroupOffsets(String groupId) {
+    AdminClient client = adminClient;
+    try {
+      return client.listConsumerGroupOffsets(groupId);
+    } catch (Exception e) {
+      LOG.log(Level.WARNING, "Kafka cluster is unavailable", e);
+      reinitClient(client);
+      return adminClient.listConsumerGroupOffsets(groupId);
+    }
+  }
+  
+  /**
+   * Fetch the end offsets of partitions, one request per partition leader. The fetch can block up to the timeout,
+   * so it only holds a read lock and does not delay the other operations of the client.
+   *
+   * @param partitions
+   * @param timeout
+   * @return end offset of every partition
+   */
+  @Lock(LockType.READ)
+  @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+  public Map<TopicPartition, Long> endOffsets(Collection<TopicPartition> partitions, Duration timeout) {
+    synchronized (endOffsetsLock) {
+      if (endOffsetsConsumer == null) {
+        Properties props = clientProperties();
+        props.setProperty(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class.getName());
+        props.setProperty(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class.getName());
+        props.setProperty(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, "false");
+        endOffsetsConsumer = new KafkaConsumer<>(props);
+      }
+      try {
+        return endOffsetsConsumer.endOffsets(partitions, timeout);
+      } catch (RuntimeException e) {
+        LOG.log(Level.WARNING, "Could not fetch end offsets", e);
+        try {
+          endOffsetsConsumer.close(Duration.ofSeconds(3));
+        } catch (Exception ex) {
+          LOG.log(Level.WARNING, "Could not close the end offsets consumer", ex);
+        }
+        endOffsetsConsumer = null;
+        throw e;
+      }
+    }
+  }
+  
 }
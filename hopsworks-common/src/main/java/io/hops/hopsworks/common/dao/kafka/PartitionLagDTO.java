@@ -0,0 +1,69 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2021, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.common.dao.kafka;
+
+import javax.xml.bind.annotation.XmlRootElement;
+
+@XmlRootElement
+public class PartitionLagDTO {
+
+  private Integer partition;
+  private Long endOffset;
+  private Long committedOffset;
+  private Long lag;
+
+  public PartitionLagDTO() {
+  }
+
+  public PartitionLagDTO(Integer partition, Long endOffset, Long committedOffset) {
+    this.partition = partition;
+    this.endOffset = endOffset;
+    this.committedOffset = committedOffset;
+    this.lag = Math.max(0, endOffset - committedOffset);
+  }
+
+  public Integer getPartition() {
+    return partition;
+  }
+
+  public void setPartition(Integer partition) {
+    this.partition = partition;
+  }
+
+  public Long getEndOffset() {
+    return endOffset;
+  }
+
+  public void setEndOffset(Long endOffset) {
+    this.endOffset = endOffset;
+  }
+
+  public Long getCommittedOffset() {
+    return committedOffset;
+  }
+
+  public void setCommittedOffset(Long committedOffset) {
+    this.committedOffset = committedOffset;
+  }
+
+  public Long getLag() {
+    return lag;
+  }
+
+  public void setLag(Long lag) {
+    this.lag = lag;
+  }
+}
@@ -0,0 +1,82 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2021, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.common.dao.kafka;
+
+import javax.xml.bind.annotation.XmlRootElement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * End offsets of a topic and how far behind them every consumer group of the topic is, as of the last collection.
+ */
+@XmlRootElement
+public class TopicLagDTO {
+
+  private String topic;
+  private Long collectedAt;
+  private Long endOffset;
+  //Messages per second produced to the topic since the previous collection
+  private Double produceRate;
+  private List<ConsumerGroupLagDTO> consumerGroups = new ArrayList<>();
+
+  public TopicLagDTO() {
+  }
+
+  public TopicLagDTO(String topic, Long collectedAt) {
+    this.topic = topic;
+    this.collectedAt = collectedAt;
+  }
+
+  public String getTopic() {
+    return topic;
+  }
+
+  public void setTopic(String topic) {
+    this.topic = topic;
+  }
+
+  public Long getCollectedAt() {
+    return collectedAt;
+  }
+
+  public void setCollectedAt(Long collectedAt) {
+    this.collectedAt = collectedAt;
+  }
+
+  public Long getEndOffset() {
+    return endOffset;
+  }
+
+  public void setEndOffset(Long endOffset) {
+    this.endOffset = endOffset;
+  }
+
+  public Double getProduceRate() {
+    return produceRate;
+  }
+
+  public void setProduceRate(Double produceRate) {
+    this.produceRate = produceRate;
+  }
+
+  public List<ConsumerGroupLagDTO> getConsumerGroups() {
+    return consumerGroups;
+  }
+
+  public void setConsumerGroups(List<ConsumerGroupLagDTO> consumerGroups) {
+    this.consumerGroups = consumerGroups;
+  }
+}
@@ -87,6 +87,16 @@ public class SubjectsFacade extends AbstractFacade<Subjects> {
       .getResultList();
   }
   
+  /**
+   * All the versions of a subject, with their schema fetched in the same query.
+   */
+  public List<Subjects> findSubjectByNameWithSchema(Project project, String subject) {
+    return em.createNamedQuery("Subjects.findBySubjectWithSchema", Subjects.class)
+      .setParameter("project", project)
+      .setParameter("subject", subject)
+      .getResultList();
+  }
+  
   public Integer insertNewSubject(Project project, String subjectName, Schemas schema, Integer version) {
     Subjects subject = new Subjects(subjectName, version, schema, project);
     save(subject);
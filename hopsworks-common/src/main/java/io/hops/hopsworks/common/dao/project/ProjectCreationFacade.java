@@ -0,0 +1,87 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2021, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.common.dao.project;
+
+import io.hops.hopsworks.persistence.entity.project.ProjectCreation;
+
+import javax.ejb.Stateless;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * The progress is written in its own transaction, so that it is visible while the project is being created and kept
+ * when the creation fails.
+ */
+@Stateless
+@TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+public class ProjectCreationFacade {
+  @PersistenceContext(unitName = "kthfsPU")
+  private EntityManager em;
+
+  public void save(ProjectCreation entity) {
+    em.persist(entity);
+    em.flush();
+  }
+
+  public ProjectCreation update(ProjectCreation entity) {
+    return em.merge(entity);
+  }
+
+  /**
+   * @return the last creation of a project with this name by this user, or null if there is none
+   */
+  @TransactionAttribute(TransactionAttributeType.SUPPORTS)
+  public ProjectCreation findLatest(String projectName, String owner) {
+    TypedQuery<ProjectCreation> query = em.createNamedQuery("ProjectCreation.findByProjectNameAndOwner",
+      ProjectCreation.class);
+    query.setParameter("projectName", projectName);
+    query.setParameter("owner", owner);
+    query.setMaxResults(1);
+    List<ProjectCreation> creations = query.getResultList();
+    return creations.isEmpty() ? null : creations.get(0);
+  }
+
+  /**
+   * Fail the creations that are running but have not been updated since staleBefore, the instance creating them
+   * stopped.
+   *
+   * @return the number of creations failed
+   */
+  public int failStale(String running, String failed, String error, Date staleBefore) {
+    return em.createNamedQuery("ProjectCreation.failStale")
+      .setParameter("running", running)
+      .setParameter("failed", failed)
+      .setParameter("error", error)
+      .setParameter("now", new Date())
+      .setParameter("staleBefore", staleBefore)
+      .executeUpdate();
+  }
+
+  /**
+   * @return the number of ended creations removed
+   */
+  public int removeEnded(String running, Date endedBefore) {
+    return em.createNamedQuery("ProjectCreation.deleteEnded")
+      .setParameter("running", running)
+      .setParameter("endedBefore", endedBefore)
+      .executeUpdate();
+  }
+}
@@ -38,15 +38,22 @@
  */
 package io.hops.hopsworks.common.dao.project;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import javax.ejb.Stateless;
 import javax.persistence.EntityManager;
 import javax.persistence.NoResultException;
 import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
 import javax.persistence.TypedQuery;
 
+import io.hops.hopsworks.exceptions.InvalidQueryException;
+import io.hops.hopsworks.persistence.entity.project.PaymentType;
 import io.hops.hopsworks.persistence.entity.project.Project;
 import io.hops.hopsworks.persistence.entity.user.Users;
 import io.hops.hopsworks.common.dao.AbstractFacade;
@@ -54,6 +61,8 @@ import io.hops.hopsworks.common.dao.AbstractFacade;
 @Stateless
 public class ProjectFacade extends AbstractFacade<Project> {
 
+  private static final int IN_CLAUSE_BATCH_SIZE = 1000;
+
   @PersistenceContext(unitName = "kthfsPU")
   private EntityManager em;
 
@@ -72,6 +81,53 @@ public class ProjectFacade extends AbstractFacade<Project> {
     return query.getResultList();
   }
 
+  public CollectionInfo findAll(Integer offset, Integer limit, Set<? extends AbstractFacade.FilterBy> filter,
+      Set<? extends AbstractFacade.SortBy> sort) {
+    String queryStr = buildQuery("SELECT t FROM Project t ", filter, sort, "");
+    String queryCountStr = buildQuery("SELECT COUNT(t.id) FROM Project t ", filter, null, "");
+    Query query = em.createQuery(queryStr, Project.class);
+    Query queryCount = em.createQuery(queryCountStr, Project.class);
+    setFilter(filter, query);
+    setFilter(filter, queryCount);
+    setOffsetAndLim(offset, limit, query);
+    return new CollectionInfo((Long) queryCount.getSingleResult(), query.getResultList());
+  }
+
+  private void setFilter(Set<? extends AbstractFacade.FilterBy> filter, Query q) {
+    if (filter == null || filter.isEmpty()) {
+      return;
+    }
+    for (FilterBy aFilter : filter) {
+      setFilterQuery(aFilter, q);
+    }
+  }
+
+  private void setFilterQuery(AbstractFacade.FilterBy filterBy, Query q) {
+    switch (Filters.valueOf(filterBy.getValue())) {
+      case NAME:
+      case OWNER:
+        q.setParameter(filterBy.getField(), filterBy.getParam().toUpperCase());
+        break;
+      case ARCHIVED:
+        q.setParameter(filterBy.getField(), Boolean.valueOf(filterBy.getParam()));
+        break;
+      case PAYMENT_TYPE:
+        q.setParameter(filterBy.getField(), getPaymentType(filterBy.getField(), filterBy.getParam()));
+        break;
+      default:
+        break;
+    }
+  }
+
+  private PaymentType getPaymentType(String field, String value) {
+    try {
+      return PaymentType.valueOf(value.toUpperCase());
+    } catch (IllegalArgumentException | NullPointerException e) {
+      throw new InvalidQueryException("Filter value for " + field + " needs to set a valid " + field
+        + ", but found: " + value);
+    }
+  }
+
   public List<Project> findAllOrderByCreated() {
     TypedQuery<Project> query = em.createNamedQuery("Project.findAllOrderByCreated", Project.class);
     return query.getResultList();
@@ -93,6 +149,21 @@ public class ProjectFacade extends AbstractFacade<Project> {
     }
   }
 
+  /**
+   * @param inodeIds
+   * @return the inode ids, among the given ones, of the project folders of existing projects
+   */
+  public Set<Long> findProjectInodeIds(Collection<Long> inodeIds) {
+    Set<Long> result = new HashSet<>();
+    List<Long> ids = new ArrayList<>(inodeIds);
+    for (int i = 0; i < ids.size(); i += IN_CLAUSE_BATCH_SIZE) {
+      result.addAll(em.createNamedQuery("Project.findInodeIds", Long.class)
+        .setParameter("inodeIds", ids.subList(i, Math.min(i + IN_CLAUSE_BATCH_SIZE, ids.size())))
+        .getResultList());
+    }
+    return result;
+  }
+
   /**
    * Find all the studies for which the given user is owner. This implies that
    * this user created all the returned studies.
@@ -351,4 +422,79 @@ public class ProjectFacade extends AbstractFacade<Project> {
     project.setKafkaMaxNumTopics(numTopics);
     em.merge(project);
   }
+
+  public enum Sorts {
+    ID("ID", " t.id ", "ASC"),
+    NAME("NAME", " LOWER(t.name) ", "ASC"),
+    OWNER("OWNER", " LOWER(t.owner.username) ", "ASC"),
+    CREATED("CREATED", " t.created ", "DESC"),
+    LAST_QUOTA_UPDATE("LAST_QUOTA_UPDATE", " t.lastQuotaUpdate ", "DESC");
+
+    private final String value;
+    private final String sql;
+    private final String defaultParam;
+
+    Sorts(String value, String sql, String defaultParam) {
+      this.value = value;
+      this.sql = sql;
+      this.defaultParam = defaultParam;
+    }
+
+    public String getValue() {
+      return value;
+    }
+
+    public String getSql() {
+      return sql;
+    }
+
+    public String getDefaultParam() {
+      return defaultParam;
+    }
+
+    @Override
+    public String toString() {
+      return value;
+    }
+  }
+
+  public enum Filters {
+    NAME("NAME", " UPPER(t.name) LIKE CONCAT(:name, '%') ", "name", " "),
+    OWNER("OWNER", " UPPER(t.owner.username) LIKE CONCAT(:owner, '%') ", "owner", " "),
+    ARCHIVED("ARCHIVED", " t.archived = :archived ", "archived", "false"),
+    PAYMENT_TYPE("PAYMENT_TYPE", " t.paymentType = :paymentType ", "paymentType", "PREPAID");
+
+    private final String value;
+    private final String sql;
+    private final String field;
+    private final String defaultParam;
+
+    Filters(String value, String sql, String field, String defaultParam) {
+      this.value = value;
+      this.sql = sql;
+      this.field = field;
+      this.defaultParam = defaultParam;
+    }
+
+    public String getDefaultParam() {
+      return defaultParam;
+    }
+
+    public String getValue() {
+      return value;
+    }
+
+    public String getSql() {
+      return sql;
+    }
+
+    public String getField() {
+      return field;
+    }
+
+    @Override
+    public String toString() {
+      return value;
+    }
+  }
 }
@@ -51,6 +51,7 @@ import javax.persistence.PersistenceContext;
 import javax.persistence.Query;
 import javax.persistence.TypedQuery;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 
@@ -195,6 +196,21 @@ public class ProjectTeamFacade extends AbstractFacade<ProjectTeam> {
     return query.getSingleResult().intValue();
   }
 
+  /**
+   * Get the members of all the given projects in one query.
+   * <p/>
+   * @param projects
+   * @return
+   */
+  public List<ProjectTeam> findByProjects(Collection<Project> projects) {
+    if (projects.isEmpty()) {
+      return new ArrayList<>();
+    }
+    TypedQuery<ProjectTeam> q = em.createNamedQuery("ProjectTeam.findByProjects", ProjectTeam.class);
+    q.setParameter("projects", projects);
+    return q.getResultList();
+  }
+
   /**
    * Get the current role of Users <i>user</i> in Project <i>project</i>.
    * <p/>
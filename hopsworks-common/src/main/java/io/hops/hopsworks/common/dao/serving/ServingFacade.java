@@ -25,6 +25,9 @@ import javax.annotation.PostConstruct;
 import javax.ejb.Stateless;
 import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
+import javax.enterprise.inject.Any;
+import javax.enterprise.inject.Instance;
+import javax.inject.Inject;
 import javax.persistence.EntityManager;
 import javax.persistence.LockModeType;
 import javax.persistence.LockTimeoutException;
@@ -44,6 +47,9 @@ public class ServingFacade {
 
   @PersistenceContext(unitName = "kthfsPU")
   private EntityManager em;
+  @Inject
+  @Any
+  private Instance<ServingChangeHandler> servingChangeHandlers;
 
   private String nodeIP = null;
 
@@ -82,6 +88,7 @@ public class ServingFacade {
     if (refetched != null) {
       em.remove(refetched);
     }
+    servingChanged(serving.getId());
   }
 
   @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
@@ -174,6 +181,9 @@ public class ServingFacade {
   }
 
   public Serving merge(Serving serving) {
+    if (serving.getId() != null) {
+      servingChanged(serving.getId());
+    }
     return em.merge(serving);
   }
 
@@ -229,6 +239,7 @@ public class ServingFacade {
 
         serving.setLockIP(nodeIP);
         serving.setLockTimestamp(System.currentTimeMillis());
+        servingChanged(id);
 
         // Lock acquire, return;
         return em.merge(serving);
@@ -256,6 +267,7 @@ public class ServingFacade {
 
         serving.setLockIP(null);
         serving.setLockTimestamp(null);
+        servingChanged(id);
 
         return em.merge(serving);
       } catch (LockTimeoutException e) {
@@ -271,4 +283,10 @@ public class ServingFacade {
     return em.createNamedQuery("Serving.findLocalhostRunning", Serving.class)
         .getResultList();
   }
+
+  private void servingChanged(Integer servingId) {
+    for (ServingChangeHandler handler : servingChangeHandlers) {
+      handler.servingChanged(servingId);
+    }
+  }
 }
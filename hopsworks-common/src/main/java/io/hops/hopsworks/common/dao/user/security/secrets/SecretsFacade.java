@@ -48,6 +48,29 @@ public class SecretsFacade {
     entityManager.merge(secret);
   }
   
+  /**
+   * Replace the encrypted value of a Secret only if it was not changed since it was read
+   *
+   * @param id Id of the Secret
+   * @param expected Encrypted value the Secret was read with
+   * @param secret New encrypted value
+   * @return true if the Secret was updated, false if it was changed or deleted in the meantime
+   */
+  public boolean updateSecretIfUnchanged(SecretId id, byte[] expected, byte[] secret) {
+    return entityManager.createNamedQuery("Secret.updateSecretIfUnchanged")
+        .setParameter("uid", id.getUid())
+        .setParameter("name", id.getName())
+        .setParameter("expected", expected)
+        .setParameter("secret", secret)
+        .executeUpdate() == 1;
+  }
+  
+  public void updateAll(List<Secret> secrets) {
+    for (Secret secret : secrets) {
+      entityManager.merge(secret);
+    }
+  }
+  
   public List<Secret> findAllForUser(Users user) {
     return entityManager.createNamedQuery("Secret.findByUser", Secret.class)
         .setParameter("uid", user.getUid())
@@ -0,0 +1,79 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2021, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.common.dao.util;
+
+import io.hops.hopsworks.persistence.profiler.QueryProfiler;
+import org.eclipse.persistence.jpa.JpaEntityManager;
+import org.eclipse.persistence.sessions.SessionProfiler;
+
+import javax.ejb.Stateless;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Access to the query statistics collected by the {@link QueryProfiler} of the persistence unit on this instance.
+ */
+@Stateless
+@TransactionAttribute(TransactionAttributeType.SUPPORTS)
+public class QueryProfileFacade {
+
+  @PersistenceContext(unitName = "kthfsPU")
+  private EntityManager em;
+
+  /**
+   * @param limit
+   * @return the statistics of the queries that took the most time in total
+   */
+  public List<QueryProfiler.QueryStatistics> getStatistics(int limit) {
+    QueryProfiler profiler = getProfiler();
+    if (profiler == null) {
+      return Collections.emptyList();
+    }
+    List<QueryProfiler.QueryStatistics> statistics = profiler.getStatistics();
+    statistics.sort(Comparator.comparingLong(QueryProfiler.QueryStatistics::getTotalTime).reversed());
+    return statistics.subList(0, Math.min(limit, statistics.size()));
+  }
+
+  /**
+   * @return the reads of every entity served from the shared cache and the ones that missed it
+   */
+  public List<QueryProfiler.CacheStatistics> getCacheStatistics() {
+    QueryProfiler profiler = getProfiler();
+    if (profiler == null) {
+      return Collections.emptyList();
+    }
+    List<QueryProfiler.CacheStatistics> statistics = profiler.getCacheStatistics();
+    statistics.sort(Comparator.comparing(QueryProfiler.CacheStatistics::getEntity));
+    return statistics;
+  }
+
+  public void reset() {
+    QueryProfiler profiler = getProfiler();
+    if (profiler != null) {
+      profiler.reset();
+    }
+  }
+
+  private QueryProfiler getProfiler() {
+    SessionProfiler profiler = em.unwrap(JpaEntityManager.class).getServerSession().getProfiler();
+    return profiler instanceof QueryProfiler ? (QueryProfiler) profiler : null;
+  }
+}
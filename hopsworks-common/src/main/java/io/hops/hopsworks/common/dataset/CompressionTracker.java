@@ -0,0 +1,152 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2021, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.common.dataset;
+
+import io.hops.hopsworks.common.dataset.util.CompressionInfo;
+import io.hops.hopsworks.common.dataset.util.HopsFsArchiver;
+import io.hops.hopsworks.common.hdfs.DistributedFileSystemOps;
+import io.hops.hopsworks.common.hdfs.DistributedFsService;
+import io.hops.hopsworks.common.util.Settings;
+import io.hops.hopsworks.exceptions.DatasetException;
+import io.hops.hopsworks.restutils.RESTCodes;
+import org.apache.hadoop.fs.Path;
+
+import javax.annotation.Resource;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.EJB;
+import javax.ejb.Singleton;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import javax.enterprise.concurrent.ManagedExecutorService;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static javax.ejb.ConcurrencyManagementType.BEAN;
+
+/**
+ * Runs the zip and unzip operations of datasets in the background, streaming over HopsFS as the project user. The
+ * state of an operation is written to the fsm.txt file of its staging directory, where Settings.getZipState looks
+ * for it, while the progress is kept in memory until the operation completes.
+ */
+@ConcurrencyManagement(BEAN)
+@Singleton
+@TransactionAttribute(TransactionAttributeType.NEVER)
+public class CompressionTracker {
+
+  private static final Logger LOGGER = Logger.getLogger(CompressionTracker.class.getName());
+  private static final String STATE_FILE = "fsm.txt";
+
+  @EJB
+  private Settings settings;
+  @EJB
+  private DistributedFsService dfs;
+  @Resource(lookup = "concurrent/hopsExecutorService")
+  private ManagedExecutorService executorService;
+
+  //Key is the path of the file or directory being zipped or unzipped
+  private final ConcurrentHashMap<String, HopsFsArchiver.Progress> running = new ConcurrentHashMap<>();
+
+  public void zip(CompressionInfo compressionInfo, String hdfsUser) throws DatasetException {
+    start(compressionInfo, hdfsUser, true);
+  }
+
+  public void unzip(CompressionInfo compressionInfo, String hdfsUser) throws DatasetException {
+    start(compressionInfo, hdfsUser, false);
+  }
+
+  /**
+   * @param path
+   * @return fraction of the bytes of the running operation on the path processed so far, null if none is running
+   */
+  public Float getProgress(String path) {
+    HopsFsArchiver.Progress progress = running.get(path);
+    return progress == null ? null : progress.getFraction();
+  }
+
+  public void cancel(Path path) throws DatasetException {
+    HopsFsArchiver.Progress progress = running.get(path.toString());
+    if (progress == null) {
+      throw new DatasetException(RESTCodes.DatasetErrorCode.COMPRESSION_NOT_RUNNING, Level.FINE,
+        "path: " + path.toString());
+    }
+    progress.cancel();
+  }
+
+  private void start(CompressionInfo compressionInfo, String hdfsUser, boolean zip) throws DatasetException {
+    Path source = compressionInfo.getHdfsPath();
+    Path destDir = compressionInfo.getOutputPath() != null ? compressionInfo.getOutputPath() : source.getParent();
+    File stagingDir = new File(settings.getStagingDir(), compressionInfo.getStagingDirectory());
+    HopsFsArchiver.Limits limits = new HopsFsArchiver.Limits(settings.getUnzipMaxSize(),
+      settings.getUnzipMaxEntries(), settings.getUnzipMaxCompressionRatio());
+
+    DistributedFileSystemOps udfso = dfs.getDfsOps(hdfsUser);
+    HopsFsArchiver archiver = new HopsFsArchiver(udfso, executorService, settings.getCompressionParallelism(),
+      limits);
+    if (running.putIfAbsent(source.toString(), archiver.getProgress()) != null) {
+      dfs.closeDfsClient(udfso);
+      throw new DatasetException(RESTCodes.DatasetErrorCode.COMPRESSION_IN_PROGRESS, Level.FINE,
+        "path: " + source.toString());
+    }
+    try {
+      stagingDir.mkdirs();
+      writeState(stagingDir, zip ? "ZIPPING" : "UNZIPPING");
+      executorService.submit(() -> run(archiver, udfso, source, destDir, stagingDir, zip));
+    } catch (IOException | RuntimeException ex) {
+      running.remove(source.toString());
+      dfs.closeDfsClient(udfso);
+      throw new DatasetException(RESTCodes.DatasetErrorCode.COMPRESSION_ERROR, Level.SEVERE,
+        "path: " + source.toString(), ex.getMessage(), ex);
+    }
+  }
+
+  private void run(HopsFsArchiver archiver, DistributedFileSystemOps udfso, Path source, Path destDir,
+    File stagingDir, boolean zip) {
+    String state = "FAILED";
+    long start = System.currentTimeMillis();
+    try {
+      if (zip) {
+        archiver.zip(source, destDir);
+      } else {
+        archiver.unzip(source, destDir);
+      }
+      state = "SUCCESS";
+      LOGGER.log(Level.FINE, "{0} of {1} took {2} ms, {3} bytes", new Object[]{zip ? "Zip" : "Unzip", source,
+        System.currentTimeMillis() - start, archiver.getProgress().getBytesDone()});
+    } catch (CancellationException e) {
+      LOGGER.log(Level.INFO, "{0} of {1} was cancelled", new Object[]{zip ? "Zip" : "Unzip", source});
+    } catch (IOException | RuntimeException e) {
+      LOGGER.log(Level.WARNING, (zip ? "Zip" : "Unzip") + " of " + source + " failed", e);
+    } finally {
+      running.remove(source.toString());
+      dfs.closeDfsClient(udfso);
+      try {
+        writeState(stagingDir, state);
+      } catch (IOException e) {
+        LOGGER.log(Level.WARNING, "Could not write the state of " + source, e);
+      }
+    }
+  }
+
+  private void writeState(File stagingDir, String state) throws IOException {
+    Files.write(new File(stagingDir, STATE_FILE).toPath(), state.getBytes(StandardCharsets.UTF_8));
+  }
+}
@@ -49,7 +49,9 @@ import io.hops.hopsworks.common.dao.log.operation.OperationsLogFacade;
 import io.hops.hopsworks.common.dao.project.ProjectFacade;
 import io.hops.hopsworks.common.dao.project.team.ProjectTeamFacade;
 import io.hops.hopsworks.common.dao.user.activity.ActivityFacade;
+import io.hops.hopsworks.common.dataset.acl.PermissionsCleaner;
 import io.hops.hopsworks.common.dataset.util.CompressionInfo;
+import io.hops.hopsworks.common.dataset.util.HopsFsArchiver;
 import io.hops.hopsworks.common.featurestore.FeaturestoreConstants;
 import io.hops.hopsworks.common.hdfs.DistributedFileSystemOps;
 import io.hops.hopsworks.common.hdfs.DistributedFsService;
@@ -138,6 +140,10 @@ public class DatasetController {
   @EJB
   private Settings settings;
   @EJB
+  private PermissionsCleaner permissionsCleaner;
+  @EJB
+  private CompressionTracker compressionTracker;
+  @EJB
   private HdfsUsersController hdfsUsersController;
   @EJB
   private OSProcessExecutor osProcessExecutor;
@@ -715,39 +721,12 @@ public class DatasetController {
     String hdfsUser = hdfsUsersController.getHdfsUserName(project, user);
     checkFileExists(path, hdfsUser);
     CompressionInfo compressionInfo = new CompressionInfo(path, destPath);
-    String stagingDir = settings.getStagingDir() + File.separator + compressionInfo.getStagingDirectory();
-    
-    File unzipDir = new File(stagingDir);
-    unzipDir.mkdirs();
     settings.addUnzippingState(compressionInfo);
-    
-    ProcessDescriptor.Builder processDescriptorBuilder = new ProcessDescriptor.Builder()
-      .addCommand(settings.getHopsworksDomainDir() + "/bin/unzip-background.sh")
-      .addCommand(stagingDir)
-      .addCommand(path.toString())
-      .addCommand(hdfsUser);
-
-    if (destPath != null) {
-      processDescriptorBuilder.addCommand(destPath.toString());
-    }
-
-    ProcessDescriptor processDescriptor = processDescriptorBuilder
-      .ignoreOutErrStreams(true)
-      .build();
-
-    try {
-      ProcessResult processResult = osProcessExecutor.execute(processDescriptor);
-      int result = processResult.getExitCode();
-      if (result == 2) {
-        throw new DatasetException(RESTCodes.DatasetErrorCode.COMPRESSION_SIZE_ERROR, Level.WARNING);
-      }
-      if (result != 0) {
-        throw new DatasetException(RESTCodes.DatasetErrorCode.COMPRESSION_ERROR, Level.WARNING,
-          "path: " + path.toString() + ", result: " + result);
-      }
-    } catch (IOException ex) {
-      throw new DatasetException(RESTCodes.DatasetErrorCode.COMPRESSION_ERROR, Level.SEVERE,
-        "path: " + path.toString(), ex.getMessage(), ex);
+    if (path.getName().toLowerCase().endsWith(HopsFsArchiver.ZIP_EXTENSION)) {
+      compressionTracker.unzip(compressionInfo, hdfsUser);
+    } else {
+      //Other archive formats are still extracted by the script
+      runCompressionScript("unzip-background.sh", compressionInfo, hdfsUser);
     }
   }
   
@@ -755,20 +734,30 @@ public class DatasetController {
     String hdfsUser = hdfsUsersController.getHdfsUserName(project, user);
     checkFileExists(path, hdfsUser);
     CompressionInfo compressionInfo = new CompressionInfo(path, destPath);
+    settings.addZippingState(compressionInfo);
+    compressionTracker.zip(compressionInfo, hdfsUser);
+  }
+  
+  public void cancelCompression(Path path) throws DatasetException {
+    compressionTracker.cancel(path);
+  }
+  
+  private void runCompressionScript(String script, CompressionInfo compressionInfo, String hdfsUser)
+    throws DatasetException {
+    Path path = compressionInfo.getHdfsPath();
     String stagingDir = settings.getStagingDir() + File.separator + compressionInfo.getStagingDirectory();
     
-    File zipDir = new File(stagingDir);
-    zipDir.mkdirs();
-    settings.addZippingState(compressionInfo);
+    File compressionDir = new File(stagingDir);
+    compressionDir.mkdirs();
     
     ProcessDescriptor.Builder processDescriptorBuilder = new ProcessDescriptor.Builder()
-      .addCommand(settings.getHopsworksDomainDir() + "/bin/zip-background.sh")
+      .addCommand(settings.getHopsworksDomainDir() + "/bin/" + script)
       .addCommand(stagingDir)
       .addCommand(path.toString())
       .addCommand(hdfsUser);
 
-    if (destPath != null) {
-      processDescriptorBuilder.addCommand(destPath.toString());
+    if (compressionInfo.getOutputPath() != null) {
+      processDescriptorBuilder.addCommand(compressionInfo.getOutputPath().toString());
     }
 
     ProcessDescriptor processDescriptor = processDescriptorBuilder
@@ -864,6 +853,7 @@ public class DatasetController {
       addMembersToGroup(datasetSharedWith);
     }
     datasetSharedWithFacade.save(datasetSharedWith);
+    permissionsCleaner.markDirty(ds);
     if (dsReq != null) {
       datasetRequest.remove(dsReq);//the dataset is shared so remove the request.
     }
@@ -967,6 +957,7 @@ public class DatasetController {
     datasetSharedWith.setAccepted(true);
     datasetSharedWith.setAcceptedBy(user);
     datasetSharedWithFacade.update(datasetSharedWith);
+    permissionsCleaner.markDirty(datasetSharedWith.getDataset());
   }
 
   public void rejectShared(DatasetSharedWith datasetSharedWith) throws DatasetException {
@@ -1098,6 +1089,7 @@ public class DatasetController {
         "dataset: " + ds.getName(), e.getMessage(), e);
     }
     datasetFacade.update(ds);
+    permissionsCleaner.markDirty(ds);
   }
 
   public void changePermissions(Dataset ds, PermissionTransition permissionTransition, Project targetProject,
@@ -1114,6 +1106,7 @@ public class DatasetController {
         "dataset: " + ds.getName(), e.getMessage(), e);
     }
     datasetFacade.update(ds);
+    permissionsCleaner.markDirty(ds);
   }
 
   public void changePermissions(DatasetSharedWith ds, PermissionTransition permissionTransition)
@@ -1130,6 +1123,7 @@ public class DatasetController {
         "dataset: " + ds.getDataset().getName(), e.getMessage(), e);
     }
     datasetSharedWithFacade.update(ds);
+    permissionsCleaner.markDirty(ds.getDataset());
   }
 
   public void changePermissions(DatasetSharedWith ds, PermissionTransition permissionTransition,
@@ -1146,6 +1140,7 @@ public class DatasetController {
         "dataset: " + ds.getDataset().getName(), e.getMessage(), e);
     }
     datasetSharedWithFacade.update(ds);
+    permissionsCleaner.markDirty(ds.getDataset());
   }
 
   public void delete(Project project, Users user, Path fullPath, Dataset dataset, boolean isDataset)
@@ -1279,6 +1274,7 @@ public class DatasetController {
                          DistributedFileSystemOps dfso) throws DatasetException {
     removeAllShareMembers(datasetSharedWith, dfso);
     datasetSharedWithFacade.remove(datasetSharedWith);
+    permissionsCleaner.markDirty(datasetSharedWith.getDataset());
     activityFacade.persistActivity(ActivityFacade.UNSHARED_DATA + datasetSharedWith.getDataset().getName() +
         " with project " + datasetSharedWith.getProject().getName(), project, user, ActivityFlag.DATASET);
   }
@@ -1287,6 +1283,7 @@ public class DatasetController {
     throws DatasetException {
     removeAllShareMembers(datasetSharedWith);
     datasetSharedWithFacade.remove(datasetSharedWith);
+    permissionsCleaner.markDirty(dataset);
     activityFacade.persistActivity(ActivityFacade.UNSHARED_DATA + dataset.getName() + " with project " +
       datasetSharedWith.getProject().getName(), project, user, ActivityFlag.DATASET);
   }
@@ -1485,6 +1482,7 @@ public class DatasetController {
     }
     dataset.setPublicDs(SharedState.CLUSTER.state);
     makeImmutable(dataset, project, user, path);//will update dataset
+    permissionsCleaner.markDirty(dataset);
     logDataset(project, dataset, OperationType.Update);
     activityFacade.persistActivity(ActivityFacade.SHARED_DATA + dataset.getName() + " with cluster ",
       project, user, ActivityFlag.DATASET);
@@ -1505,6 +1503,7 @@ public class DatasetController {
     }
     dataset.setPublicDsState(SharedState.PRIVATE);
     datasetFacade.merge(dataset);
+    permissionsCleaner.markDirty(dataset);
     logDataset(project, dataset, OperationType.Update);
     activityFacade.persistActivity(ActivityFacade.UNSHARED_DATA + dataset.getName() + " from cluster ",
       project, user, ActivityFlag.DATASET);
@@ -25,6 +25,8 @@ import io.hops.hopsworks.common.hdfs.DistributedFsService;
 import io.hops.hopsworks.common.hdfs.FsPermissions;
 import io.hops.hopsworks.common.hdfs.HdfsUsersController;
 import io.hops.hopsworks.common.hdfs.inode.InodeController;
+import io.hops.hopsworks.common.util.BoundedParallelism;
+import io.hops.hopsworks.common.util.Settings;
 import io.hops.hopsworks.persistence.entity.dataset.Dataset;
 import io.hops.hopsworks.persistence.entity.dataset.DatasetAccessPermission;
 import io.hops.hopsworks.persistence.entity.dataset.DatasetSharedWith;
@@ -36,28 +38,49 @@ import io.hops.hopsworks.persistence.entity.project.team.ProjectTeam;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.fs.permission.FsPermission;
 
-import javax.ejb.AccessTimeout;
+import javax.annotation.Resource;
 import javax.ejb.Asynchronous;
+import javax.ejb.ConcurrencyManagement;
 import javax.ejb.EJB;
 import javax.ejb.Schedule;
 import javax.ejb.Singleton;
 import javax.ejb.Timer;
 import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
+import javax.enterprise.concurrent.ManagedExecutorService;
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+import javax.transaction.TransactionSynchronizationRegistry;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import static javax.ejb.ConcurrencyManagementType.BEAN;
+
+/**
+ * Keeps the HopsFS permissions and dataset groups in line with the datasets, their shares and the project members.
+ * Changes to memberships, shares and dataset permissions mark the affected datasets, or all the datasets of a project
+ * when its members change, as dirty once the change is committed. The dirty datasets are reconciled by a bounded
+ * number of workers every few seconds. Datasets that fail are retried with an exponential backoff, up to
+ * MAX_RETRIES times. A full sweep that marks every project dirty runs once a day as a safety net.
+ */
 @Singleton
-@AccessTimeout(value = 5, unit = TimeUnit.SECONDS)
+@ConcurrencyManagement(BEAN)
 @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
 public class PermissionsCleaner {
   
   private final static Logger LOGGER = Logger.getLogger(PermissionsCleaner.class.getName());
+  static final long RETRY_BASE_DELAY_MS = 10 * 1000L;
+  static final long RETRY_MAX_DELAY_MS = 60 * 60 * 1000L;
+  static final int MAX_RETRIES = 10;
   
   @EJB
   private ProjectFacade projectFacade;
@@ -73,37 +96,245 @@ public class PermissionsCleaner {
   private DistributedFsService dfsService;
   @EJB
   private InodeController inodeController;
+  @EJB
+  private Settings settings;
+  @Resource(lookup = "concurrent/hopsExecutorService")
+  private ManagedExecutorService executorService;
+  @Resource
+  private TransactionSynchronizationRegistry transactionSynchronizationRegistry;
+  
+  //Id of the dirty datasets and projects, and the time they were marked
+  private final ConcurrentHashMap<Integer, Long> dirtyDatasets = new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<Integer, Long> dirtyProjects = new ConcurrentHashMap<>();
+  //Id of the datasets that failed to be reconciled, waiting for their next attempt
+  private final ConcurrentHashMap<Integer, Retry> retries = new ConcurrentHashMap<>();
+  private final AtomicBoolean reconciling = new AtomicBoolean(false);
+  private final AtomicLong reconciled = new AtomicLong();
+  private final AtomicLong failed = new AtomicLong();
+  private final AtomicLong totalLatency = new AtomicLong();
+  private final AtomicLong maxLatency = new AtomicLong();
+  private volatile long lastSweep = 0;
+  
+  /**
+   * Reconcile the dataset once the current transaction, if any, commits.
+   *
+   * @param dataset
+   */
+  @TransactionAttribute(TransactionAttributeType.SUPPORTS)
+  public void markDirty(Dataset dataset) {
+    if (dataset != null && dataset.getId() != null) {
+      afterCommit(() -> dirtyDatasets.putIfAbsent(dataset.getId(), System.currentTimeMillis()));
+    }
+  }
   
-  private int counter = 0;
+  /**
+   * Reconcile the datasets of the project, and the datasets shared with it, once the current transaction, if any,
+   * commits. Used when the members of the project change.
+   *
+   * @param project
+   */
+  @TransactionAttribute(TransactionAttributeType.SUPPORTS)
+  public void markDirty(Project project) {
+    if (project != null && project.getId() != null) {
+      afterCommit(() -> dirtyProjects.putIfAbsent(project.getId(), System.currentTimeMillis()));
+    }
+  }
+  
+  private void afterCommit(Runnable mark) {
+    if (transactionSynchronizationRegistry.getTransactionStatus() != Status.STATUS_ACTIVE) {
+      mark.run();
+      return;
+    }
+    transactionSynchronizationRegistry.registerInterposedSynchronization(new Synchronization() {
+      @Override
+      public void beforeCompletion() {
+      }
+      
+      @Override
+      public void afterCompletion(int status) {
+        if (status == Status.STATUS_COMMITTED) {
+          mark.run();
+        }
+      }
+    });
+  }
   
   @Schedule(persistent = false,
-    minute = "*/15",
+    second = "*/10",
+    minute = "*",
     hour = "*")
+  public void reconcile(Timer timer) {
+    reconcileDirty();
+  }
+  
+  @Schedule(persistent = false,
+    minute = "0",
+    hour = "3")
   public void fixPermissions(Timer timer) {
-    counter = fixPermissions(counter, System.currentTimeMillis());
-    LOGGER.log(Level.INFO, "Fix permissions triggered by timer counter={0}", counter);
+    int projects = markAllDirty();
+    LOGGER.log(Level.INFO, "Fix permissions triggered by timer, projects={0}", projects);
   }
 
   @Asynchronous
   public void fixPermissions() {
-    fixPermissions(0, 0l);
+    markAllDirty();
+    reconcileDirty();
     LOGGER.log(Level.INFO, "Manual fix permissions triggered.");
   }
-
-  private int fixPermissions(int index, Long startTime) {
+  
+  private int markAllDirty() {
+    long now = System.currentTimeMillis();
     List<Project> projectList = projectFacade.findAllOrderByCreated();
-    for (int i = index; i < projectList.size(); i++) {
-      Project project = projectList.get(i);
-      fixPermissions(project);
-      index = i;
-      if (startTime > 0 && System.currentTimeMillis() - startTime > 300000) {
-        break;
+    for (Project project : projectList) {
+      dirtyProjects.putIfAbsent(project.getId(), now);
+    }
+    lastSweep = now;
+    return projectList.size();
+  }
+  
+  void reconcileDirty() {
+    reconcileDirty(System.currentTimeMillis());
+  }
+  
+  void reconcileDirty(long now) {
+    if (!reconciling.compareAndSet(false, true)) {
+      return;
+    }
+    Map<Integer, Long> datasets = drain(dirtyDatasets);
+    Map<Integer, Long> drainedProjects = drain(dirtyProjects);
+    try {
+      int parallelism = settings.getPermissionsReconciliationParallelism();
+      drainRetries(datasets, now);
+      List<Map.Entry<Integer, Long>> projects = new ArrayList<>(drainedProjects.entrySet());
+      List<List<Integer>> projectDatasets = BoundedParallelism.map(executorService, projects, parallelism,
+        project -> getDatasetIds(project.getKey()));
+      for (int i = 0; i < projects.size(); i++) {
+        Long markedAt = projects.get(i).getValue();
+        for (Integer datasetId : projectDatasets.get(i)) {
+          datasets.merge(datasetId, markedAt, Math::min);
+        }
       }
+      if (datasets.isEmpty()) {
+        return;
+      }
+      LOGGER.log(Level.FINE, "Reconciling permissions of {0} datasets", datasets.size());
+      BoundedParallelism.map(executorService, new ArrayList<>(datasets.entrySet()), parallelism, dataset -> {
+        reconcileDataset(dataset.getKey(), dataset.getValue(), now);
+        return null;
+      });
+    } catch (Exception e) {
+      //Put back what was drained, reconciling a dataset twice is harmless
+      LOGGER.log(Level.WARNING, "Failed to reconcile dataset permissions", e);
+      datasets.forEach(dirtyDatasets::putIfAbsent);
+      drainedProjects.forEach(dirtyProjects::putIfAbsent);
+    } finally {
+      reconciling.set(false);
     }
-    if (index >= projectList.size()) {
-      index = 0;
+  }
+  
+  private Map<Integer, Long> drain(ConcurrentHashMap<Integer, Long> dirty) {
+    Map<Integer, Long> drained = new HashMap<>();
+    for (Integer id : dirty.keySet()) {
+      Long markedAt = dirty.remove(id);
+      if (markedAt != null) {
+        drained.put(id, markedAt);
+      }
     }
-    return index;
+    return drained;
+  }
+  
+  /**
+   * Move the datasets whose retry is due to the datasets to reconcile.
+   */
+  private void drainRetries(Map<Integer, Long> datasets, long now) {
+    for (Map.Entry<Integer, Retry> entry : retries.entrySet()) {
+      Retry retry = entry.getValue();
+      if (retry.notBefore <= now || datasets.containsKey(entry.getKey())) {
+        datasets.merge(entry.getKey(), retry.markedAt, Math::min);
+      }
+    }
+  }
+  
+  private List<Integer> getDatasetIds(Integer projectId) {
+    List<Integer> datasetIds = new ArrayList<>();
+    Project project = projectFacade.find(projectId);
+    if (project == null || isUnderRemoval(project)) {
+      return datasetIds;
+    }
+    for (Dataset dataset : datasetFacade.findByProject(project)) {
+      datasetIds.add(dataset.getId());
+    }
+    for (DatasetSharedWith datasetSharedWith : datasetSharedWithFacade.findByProject(project)) {
+      datasetIds.add(datasetSharedWith.getDataset().getId());
+    }
+    return datasetIds;
+  }
+  
+  private void reconcileDataset(Integer datasetId, long markedAt, long now) {
+    Dataset dataset;
+    try {
+      dataset = datasetFacade.find(datasetId);
+      if (dataset == null || isUnderRemoval(dataset.getProject())) {
+        retries.remove(datasetId);
+        return;
+      }
+      fixDataset(dataset);
+    } catch (Exception e) {
+      failed.incrementAndGet();
+      retry(datasetId, markedAt, now, e);
+      return;
+    }
+    retries.remove(datasetId);
+    long latency = System.currentTimeMillis() - markedAt;
+    reconciled.incrementAndGet();
+    totalLatency.addAndGet(latency);
+    maxLatency.accumulateAndGet(latency, Math::max);
+  }
+  
+  private void retry(Integer datasetId, long markedAt, long now, Exception cause) {
+    Retry previous = retries.get(datasetId);
+    int attempts = previous == null ? 1 : previous.attempts + 1;
+    if (attempts > MAX_RETRIES) {
+      retries.remove(datasetId);
+      LOGGER.log(Level.SEVERE, "Giving up fixing permissions of dataset {0} after {1} attempts, it will be fixed " +
+        "by the next sweep. Error: {2}", new Object[]{datasetId, attempts, cause.getMessage()});
+      return;
+    }
+    long delay = Math.min(RETRY_BASE_DELAY_MS << Math.min(attempts - 1, 20), RETRY_MAX_DELAY_MS);
+    retries.put(datasetId, new Retry(markedAt, attempts, now + delay));
+    LOGGER.log(Level.WARNING, "Failed to fix permissions of dataset {0}, retrying in {1} ms. Error: {2}",
+      new Object[]{datasetId, delay, cause.getMessage()});
+  }
+  
+  /**
+   * @return the number of datasets and projects waiting to be reconciled, including the datasets waiting to be retried
+   */
+  public int getQueueDepth() {
+    return dirtyDatasets.size() + dirtyProjects.size() + retries.size();
+  }
+  
+  public long getReconciledCount() {
+    return reconciled.get();
+  }
+  
+  public long getFailedCount() {
+    return failed.get();
+  }
+  
+  /**
+   * @return average time in milliseconds from a dataset being marked dirty to it being reconciled
+   */
+  public long getAverageLatency() {
+    long count = reconciled.get();
+    return count == 0 ? 0 : totalLatency.get() / count;
+  }
+  
+  public long getMaxLatency() {
+    return maxLatency.get();
+  }
+  
+  public long getLastSweep() {
+    return lastSweep;
   }
   
   public void fixPermissions(Project project) {
@@ -307,4 +538,16 @@ public class PermissionsCleaner {
     }
     return false;
   }
+
+  private static class Retry {
+    private final long markedAt;
+    private final int attempts;
+    private final long notBefore;
+    
+    private Retry(long markedAt, int attempts, long notBefore) {
+      this.markedAt = markedAt;
+      this.attempts = attempts;
+      this.notBefore = notBefore;
+    }
+  }
 }
@@ -0,0 +1,515 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2021, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.common.dataset.util;
+
+import io.hops.hopsworks.common.hdfs.DistributedFileSystemOps;
+import io.hops.hopsworks.common.util.BoundedParallelism;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+import org.apache.commons.compress.utils.BoundedInputStream;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.permission.FsPermission;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.SeekableByteChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Zips and unzips files on HopsFS by streaming them through this JVM, without copying them to local disk first.
+ * Entries of an archive are extracted concurrently, each one reading the archive with its own stream. Entries that
+ * would be extracted outside the destination directory, and archives that exceed the configured limits, are
+ * rejected. Output written by a failed or cancelled operation is removed.
+ */
+public class HopsFsArchiver {
+
+  private static final Logger LOGGER = Logger.getLogger(HopsFsArchiver.class.getName());
+  public static final String ZIP_EXTENSION = ".zip";
+  private static final int BUFFER_SIZE = 64 * 1024;
+  private static final String STAGING_PREFIX = ".unzip-";
+  private static final Pattern DRIVE_LETTER = Pattern.compile("[A-Za-z]:");
+
+  private final DistributedFileSystemOps dfso;
+  private final ExecutorService executor;
+  private final int parallelism;
+  private final Limits limits;
+  private final Progress progress = new Progress();
+
+  public HopsFsArchiver(DistributedFileSystemOps dfso, ExecutorService executor, int parallelism, Limits limits) {
+    this.dfso = dfso;
+    this.executor = executor;
+    this.parallelism = parallelism;
+    this.limits = limits;
+  }
+
+  public Progress getProgress() {
+    return progress;
+  }
+
+  /**
+   * Zip a file or a directory. Entry names are relative to the parent of the source, as with zip -r.
+   *
+   * @param source file or directory to zip
+   * @param destDir directory the archive is written to
+   * @return path of the archive
+   * @throws IOException
+   */
+  public Path zip(Path source, Path destDir) throws IOException {
+    source = Path.getPathWithoutSchemeAndAuthority(source);
+    Path archive = new Path(destDir, source.getName() + ZIP_EXTENSION);
+    List<FileStatus> files = new ArrayList<>();
+    collect(dfso.getFileStatus(source), files);
+    for (FileStatus file : files) {
+      progress.bytesTotal.addAndGet(file.getLen());
+    }
+    progress.entriesTotal.set(files.size());
+    String parent = source.getParent() == null || source.getParent().isRoot() ? "/" :
+      source.getParent().toString() + "/";
+
+    OutputStream archiveOut = dfso.create(archive);
+    boolean completed = false;
+    try (ZipOutputStream out = new ZipOutputStream(new BufferedOutputStream(archiveOut, BUFFER_SIZE))) {
+      byte[] buffer = new byte[BUFFER_SIZE];
+      for (FileStatus file : files) {
+        checkCancelled();
+        String name = Path.getPathWithoutSchemeAndAuthority(file.getPath()).toString().substring(parent.length());
+        ZipEntry entry = new ZipEntry(file.isDirectory() ? name + "/" : name);
+        entry.setTime(file.getModificationTime());
+        out.putNextEntry(entry);
+        if (!file.isDirectory()) {
+          try (InputStream in = dfso.open(file.getPath())) {
+            copy(in, out, buffer, Long.MAX_VALUE);
+          }
+        }
+        out.closeEntry();
+        progress.entriesDone.incrementAndGet();
+      }
+      completed = true;
+    } finally {
+      if (!completed) {
+        deleteQuietly(archive);
+      }
+    }
+    return archive;
+  }
+
+  /**
+   * Extract a zip archive into a directory. Entries are first extracted into a hidden staging directory inside the
+   * destination and moved to their place only once all of them have been extracted, so that a failed or cancelled
+   * extraction leaves the files that were already in the destination untouched.
+   *
+   * @param archive zip archive
+   * @param destDir directory the entries are extracted to, it is created if it does not exist
+   * @throws IOException
+   */
+  public void unzip(Path archive, Path destDir) throws IOException {
+    destDir = Path.getPathWithoutSchemeAndAuthority(destDir);
+    long length = dfso.getFileStatus(archive).getLen();
+    Path staging = new Path(destDir, STAGING_PREFIX + UUID.randomUUID());
+    Deque<Path> created = new ConcurrentLinkedDeque<>();
+    boolean completed = false;
+    try (FSDataInputStream in = dfso.open(archive);
+         ZipFile zipFile = new ZipFile(new PositionalReadChannel(in, length), archive.getName(), "UTF8", true)) {
+      List<ZipArchiveEntry> entries = Collections.list(zipFile.getEntries());
+      if (entries.size() > limits.maxEntries) {
+        throw new IOException("Archive " + archive + " has " + entries.size() + " entries, more than the limit of "
+          + limits.maxEntries);
+      }
+      //Key is the target, an entry repeated in the archive is extracted once, the last one wins as with unzip -o
+      Map<Path, Extraction> extractions = new LinkedHashMap<>();
+      Set<Path> dirs = new LinkedHashSet<>();
+      for (ZipArchiveEntry entry : entries) {
+        Path target = resolve(destDir, entry.getName());
+        if (target == null || entry.isUnixSymlink()) {
+          LOGGER.log(Level.FINE, "Skipping entry {0} of {1}", new Object[]{entry.getName(), archive});
+          continue;
+        }
+        if (entry.isDirectory()) {
+          dirs.add(target);
+        } else {
+          dirs.add(target.getParent());
+          extractions.put(target, new Extraction(entry, target, resolve(staging, entry.getName())));
+        }
+      }
+      long declaredSize = 0;
+      for (Extraction extraction : extractions.values()) {
+        declaredSize += Math.max(extraction.entry.getSize(), 0);
+      }
+      if (declaredSize > limits.maxSize) {
+        throw new IOException("Archive " + archive + " extracts to " + declaredSize + " bytes, more than the limit of "
+          + limits.maxSize);
+      }
+      progress.bytesTotal.set(declaredSize);
+      progress.entriesTotal.set(extractions.size());
+
+      mkdirs(destDir, created);
+      Set<Path> stagingDirs = new LinkedHashSet<>();
+      stagingDirs.add(staging);
+      for (Extraction extraction : extractions.values()) {
+        stagingDirs.add(extraction.staged.getParent());
+      }
+      for (Path dir : stagingDirs) {
+        checkCancelled();
+        dfso.mkdirs(dir, FsPermission.getDirDefault());
+      }
+      AtomicLong extracted = new AtomicLong();
+      BoundedParallelism.map(executor, new ArrayList<>(extractions.values()), parallelism, extraction -> {
+        extract(archive, zipFile, extraction, extracted);
+        return null;
+      });
+
+      //All the entries are extracted, only now the destination is modified
+      for (Path dir : dirs) {
+        mkdirs(dir, created);
+      }
+      for (Extraction extraction : extractions.values()) {
+        if (dfso.exists(extraction.target)) {
+          dfso.rm(extraction.target, false);
+        }
+        dfso.moveWithinHdfs(extraction.staged, extraction.target);
+      }
+      completed = true;
+    } catch (IOException | RuntimeException e) {
+      //Stop the extractions that are still running
+      progress.cancelled = true;
+      throw e;
+    } finally {
+      deleteQuietly(staging);
+      if (!completed) {
+        for (Path path : created) {
+          deleteQuietly(path);
+        }
+      }
+    }
+  }
+
+  private void extract(Path archive, ZipFile zipFile, Extraction extraction, AtomicLong extracted)
+    throws IOException {
+    checkCancelled();
+    ZipArchiveEntry entry = extraction.entry;
+    //Extracted entries must match their declared size and the compression ratio limit
+    long maxEntrySize = limits.maxRatio * Math.max(entry.getCompressedSize(), 1);
+    if (entry.getSize() >= 0) {
+      maxEntrySize = Math.min(maxEntrySize, entry.getSize());
+    }
+    try (InputStream in = openEntry(archive, zipFile, entry);
+         OutputStream out = dfso.create(extraction.staged)) {
+      long written = copy(in, out, new byte[BUFFER_SIZE], maxEntrySize);
+      if (extracted.addAndGet(written) > limits.maxSize) {
+        throw new IOException("Archive " + archive + " extracts to more than the limit of " + limits.maxSize +
+          " bytes");
+      }
+    } catch (SizeLimitException e) {
+      throw new IOException("Entry " + entry.getName() + " of " + archive + " extracts to more than its declared "
+        + "size or the compression ratio limit of " + limits.maxRatio);
+    }
+    progress.entriesDone.incrementAndGet();
+  }
+
+  /**
+   * Stored and deflated entries are read from their own stream on the archive, so that concurrent extractions do
+   * not share a stream. Entries compressed with other methods go through the ZipFile.
+   */
+  private InputStream openEntry(Path archive, ZipFile zipFile, ZipArchiveEntry entry) throws IOException {
+    int method = entry.getMethod();
+    if ((method != ZipEntry.STORED && method != ZipEntry.DEFLATED) || entry.getGeneralPurposeBit().usesEncryption()
+      || entry.getDataOffset() < 0) {
+      return zipFile.getInputStream(entry);
+    }
+    FSDataInputStream in = dfso.open(archive);
+    try {
+      in.seek(entry.getDataOffset());
+    } catch (IOException e) {
+      in.close();
+      throw e;
+    }
+    InputStream data = new BoundedInputStream(in, entry.getCompressedSize()) {
+      @Override
+      public void close() throws IOException {
+        in.close();
+      }
+    };
+    if (method == ZipEntry.STORED) {
+      return data;
+    }
+    //The inflater needs an extra byte after the deflated data
+    Inflater inflater = new Inflater(true);
+    return new InflaterInputStream(new SequenceInputStream(data, new ByteArrayInputStream(new byte[1])), inflater,
+      BUFFER_SIZE) {
+      @Override
+      public void close() throws IOException {
+        try {
+          super.close();
+        } finally {
+          inflater.end();
+        }
+      }
+    };
+  }
+
+  /**
+   * @return the path the entry is extracted to, or null if the entry has an empty name
+   * @throws IOException if the entry would be extracted outside of the destination directory
+   */
+  static Path resolve(Path destDir, String entryName) throws IOException {
+    String name = entryName.replace('\\', '/');
+    if (name.startsWith("/") || DRIVE_LETTER.matcher(name).lookingAt()) {
+      throw new IOException("Illegal entry " + entryName + " in archive");
+    }
+    StringBuilder relative = new StringBuilder();
+    for (String segment : name.split("/")) {
+      if (segment.isEmpty() || segment.equals(".")) {
+        continue;
+      }
+      if (segment.equals("..")) {
+        throw new IOException("Illegal entry " + entryName + " in archive");
+      }
+      if (relative.length() > 0) {
+        relative.append('/');
+      }
+      relative.append(segment);
+    }
+    if (relative.length() == 0) {
+      return null;
+    }
+    //The leading ./ keeps a colon in the first segment from being parsed as a scheme
+    Path target = new Path(destDir, "./" + relative);
+    String dest = destDir.toString().endsWith("/") ? destDir.toString() : destDir.toString() + "/";
+    if (!target.toString().startsWith(dest)) {
+      throw new IOException("Illegal entry " + entryName + " in archive");
+    }
+    return target;
+  }
+
+  private void collect(FileStatus status, List<FileStatus> files) throws IOException {
+    checkCancelled();
+    files.add(status);
+    if (status.isDirectory()) {
+      for (FileStatus child : dfso.listStatus(status.getPath())) {
+        collect(child, files);
+      }
+    }
+  }
+
+  private void mkdirs(Path dir, Deque<Path> created) throws IOException {
+    if (dfso.exists(dir)) {
+      return;
+    }
+    //Register the topmost missing directory, removing it removes everything created below it
+    Path topmost = dir;
+    while (topmost.getParent() != null && !dfso.exists(topmost.getParent())) {
+      topmost = topmost.getParent();
+    }
+    created.push(topmost);
+    dfso.mkdirs(dir, FsPermission.getDirDefault());
+  }
+
+  private long copy(InputStream in, OutputStream out, byte[] buffer, long limit) throws IOException {
+    long written = 0;
+    int read;
+    while ((read = in.read(buffer)) != -1) {
+      checkCancelled();
+      written += read;
+      if (written > limit) {
+        throw new SizeLimitException();
+      }
+      out.write(buffer, 0, read);
+      progress.bytesDone.addAndGet(read);
+    }
+    return written;
+  }
+
+  private void checkCancelled() {
+    if (progress.cancelled) {
+      throw new CancellationException();
+    }
+  }
+
+  private void deleteQuietly(Path path) {
+    try {
+      dfso.rm(path, true);
+    } catch (IOException e) {
+      LOGGER.log(Level.WARNING, "Could not remove " + path, e);
+    }
+  }
+
+  public static class Limits {
+    private final long maxSize;
+    private final int maxEntries;
+    private final long maxRatio;
+
+    public Limits(long maxSize, int maxEntries, long maxRatio) {
+      this.maxSize = maxSize;
+      this.maxEntries = maxEntries;
+      this.maxRatio = maxRatio;
+    }
+  }
+
+  public static class Progress {
+    private final AtomicLong bytesDone = new AtomicLong();
+    private final AtomicLong bytesTotal = new AtomicLong();
+    private final AtomicInteger entriesDone = new AtomicInteger();
+    private final AtomicInteger entriesTotal = new AtomicInteger();
+    private volatile boolean cancelled = false;
+
+    public void cancel() {
+      cancelled = true;
+    }
+
+    public boolean isCancelled() {
+      return cancelled;
+    }
+
+    public long getBytesDone() {
+      return bytesDone.get();
+    }
+
+    public long getBytesTotal() {
+      return bytesTotal.get();
+    }
+
+    public int getEntriesDone() {
+      return entriesDone.get();
+    }
+
+    public int getEntriesTotal() {
+      return entriesTotal.get();
+    }
+
+    /**
+     * @return fraction of the bytes processed, between 0 and 1
+     */
+    public float getFraction() {
+      long total = bytesTotal.get();
+      if (total <= 0) {
+        int entries = entriesTotal.get();
+        return entries == 0 ? 0 : Math.min(1f, (float) entriesDone.get() / entries);
+      }
+      return Math.min(1f, (float) bytesDone.get() / total);
+    }
+  }
+
+  private static class Extraction {
+    private final ZipArchiveEntry entry;
+    private final Path target;
+    //Where the entry is extracted before being moved to the target
+    private final Path staged;
+
+    private Extraction(ZipArchiveEntry entry, Path target, Path staged) {
+      this.entry = entry;
+      this.target = target;
+      this.staged = staged;
+    }
+  }
+
+  private static class SizeLimitException extends IOException {
+  }
+
+  /**
+   * Read only channel over a HopsFS file. Reads are positional and do not move the stream, the ZipFile uses it to
+   * read the central directory and the entries it extracts itself.
+   */
+  private static class PositionalReadChannel implements SeekableByteChannel {
+    private final FSDataInputStream in;
+    private final long size;
+    private long position = 0;
+    private boolean open = true;
+
+    private PositionalReadChannel(FSDataInputStream in, long size) {
+      this.in = in;
+      this.size = size;
+    }
+
+    @Override
+    public synchronized int read(ByteBuffer dst) throws IOException {
+      if (position >= size) {
+        return -1;
+      }
+      int length = (int) Math.min(dst.remaining(), size - position);
+      byte[] buffer = new byte[length];
+      int read = in.read(position, buffer, 0, length);
+      if (read > 0) {
+        dst.put(buffer, 0, read);
+        position += read;
+      }
+      return read;
+    }
+
+    @Override
+    public int write(ByteBuffer src) {
+      throw new NonWritableChannelException();
+    }
+
+    @Override
+    public synchronized long position() {
+      return position;
+    }
+
+    @Override
+    public synchronized SeekableByteChannel position(long newPosition) {
+      position = newPosition;
+      return this;
+    }
+
+    @Override
+    public long size() {
+      return size;
+    }
+
+    @Override
+    public SeekableByteChannel truncate(long size) {
+      throw new NonWritableChannelException();
+    }
+
+    @Override
+    public boolean isOpen() {
+      return open;
+    }
+
+    @Override
+    public void close() {
+      open = false;
+    }
+  }
+}
@@ -33,6 +33,7 @@ import org.elasticsearch.action.bulk.BulkRequest;
 import org.elasticsearch.action.bulk.BulkResponse;
 import org.elasticsearch.action.index.IndexRequest;
 import org.elasticsearch.action.index.IndexResponse;
+import org.elasticsearch.action.ingest.PutPipelineRequest;
 import org.elasticsearch.action.search.ClearScrollRequest;
 import org.elasticsearch.action.search.ClearScrollResponse;
 import org.elasticsearch.action.search.MultiSearchRequest;
@@ -53,6 +54,8 @@ import org.elasticsearch.client.indices.GetIndexTemplatesRequest;
 import org.elasticsearch.client.indices.GetIndexTemplatesResponse;
 import org.elasticsearch.client.indices.GetMappingsRequest;
 import org.elasticsearch.client.indices.GetMappingsResponse;
+import org.elasticsearch.client.indices.rollover.RolloverRequest;
+import org.elasticsearch.client.indices.rollover.RolloverResponse;
 import org.elasticsearch.cluster.metadata.MappingMetaData;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.TimeValue;
@@ -214,6 +217,18 @@ public class ElasticClientController {
     }
   }
 
+  public RolloverResponse mngIndexRollover(RolloverRequest request) throws ElasticException {
+    FailableSupplier<RolloverResponse> query =
+      () -> client.getClient().indices().rollover(request, RequestOptions.DEFAULT);
+    return executeElasticQuery(query, "elastic index rollover", request.toString());
+  }
+  
+  public AcknowledgedResponse mngPipelinePut(PutPipelineRequest request) throws ElasticException {
+    FailableSupplier<AcknowledgedResponse> query =
+      () -> client.getClient().ingest().putPipeline(request, RequestOptions.DEFAULT);
+    return executeElasticQuery(query, "elastic put pipeline", request.toString());
+  }
+  
   public void indexDoc(IndexRequest request) throws ElasticException {
     FailableSupplier<IndexResponse> query =
       () -> client.getClient().index(request, RequestOptions.DEFAULT);
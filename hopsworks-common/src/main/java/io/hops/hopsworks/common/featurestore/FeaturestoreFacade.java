@@ -26,11 +26,18 @@ import javax.ejb.TransactionAttributeType;
 import javax.persistence.EntityManager;
 import javax.persistence.NoResultException;
 import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
 import javax.persistence.TypedQuery;
 import javax.validation.ConstraintViolationException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
  * A facade for the feature_store table in the Hopsworks database, use this interface when performing database
@@ -39,6 +46,7 @@ import java.util.logging.Logger;
 @Stateless
 public class FeaturestoreFacade extends AbstractFacade<Featurestore> {
   private static final Logger LOGGER = Logger.getLogger(FeaturestoreFacade.class.getName());
+  private static final int IN_CLAUSE_BATCH_SIZE = 1000;
   @PersistenceContext(unitName = "kthfsPU")
   private EntityManager em;
 
@@ -172,6 +180,31 @@ public class FeaturestoreFacade extends AbstractFacade<Featurestore> {
     }
   }
 
+  /**
+   * Gets the names of several Hive Databases with a single query per 1000 ids
+   *
+   * @param hiveDbIds the ids of the databases in the metastore
+   * @return map from database id to database name, ids that do not exist are left out
+   */
+  public Map<Long, String> getHiveDbNames(Collection<Long> hiveDbIds) {
+    Map<Long, String> names = new HashMap<>();
+    List<Long> ids = new ArrayList<>(hiveDbIds);
+    for (int i = 0; i < ids.size(); i += IN_CLAUSE_BATCH_SIZE) {
+      List<Long> batch = ids.subList(i, Math.min(i + IN_CLAUSE_BATCH_SIZE, ids.size()));
+      String parameters = IntStream.rangeClosed(1, batch.size()).mapToObj(p -> "?" + p)
+        .collect(Collectors.joining(","));
+      Query query = em.createNativeQuery("SELECT `DB_ID`, `NAME` FROM metastore.`DBS` " +
+        "WHERE `DB_ID` IN (" + parameters + ");");
+      for (int p = 0; p < batch.size(); p++) {
+        query.setParameter(p + 1, batch.get(p));
+      }
+      for (Object[] row : (List<Object[]>) query.getResultList()) {
+        names.put(((Number) row[0]).longValue(), (String) row[1]);
+      }
+    }
+    return names;
+  }
+
   /**
    * Gets the Hive Database HDFS path
    *
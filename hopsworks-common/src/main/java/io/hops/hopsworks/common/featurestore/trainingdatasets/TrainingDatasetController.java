@@ -16,6 +16,7 @@
 
 package io.hops.hopsworks.common.featurestore.trainingdatasets;
 
+import com.logicalclocks.servicediscoverclient.service.Service;
 import com.logicalclocks.shaded.com.google.common.collect.Streams;
 import io.hops.hopsworks.common.featurestore.FeaturestoreFacade;
 import io.hops.hopsworks.common.featurestore.activity.FeaturestoreActivityFacade;
@@ -33,6 +34,8 @@ import io.hops.hopsworks.common.featurestore.query.pit.PitJoinController;
 import io.hops.hopsworks.common.featurestore.statistics.StatisticsController;
 import io.hops.hopsworks.common.featurestore.statistics.columns.StatisticColumnController;
 import io.hops.hopsworks.common.featurestore.storageconnectors.FeaturestoreConnectorFacade;
+import io.hops.hopsworks.common.featurestore.storageconnectors.FeaturestoreStorageConnectorController;
+import io.hops.hopsworks.common.featurestore.storageconnectors.FeaturestoreStorageConnectorDTO;
 import io.hops.hopsworks.common.featurestore.trainingdatasets.external.ExternalTrainingDatasetController;
 import io.hops.hopsworks.common.featurestore.trainingdatasets.external.ExternalTrainingDatasetFacade;
 import io.hops.hopsworks.common.featurestore.trainingdatasets.hopsfs.HopsfsTrainingDatasetController;
@@ -80,6 +83,7 @@ import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Comparator;
 import java.util.Date;
 import java.util.HashMap;
@@ -141,22 +145,83 @@ public class TrainingDatasetController {
   private TrainingDatasetInputValidation inputValidation;
   @EJB
   private PitJoinController pitJoinController;
+  @EJB
+  private FeaturestoreStorageConnectorController storageConnectorController;
 
   /**
-   * Gets all trainingDatasets for a particular featurestore and project
+   * Gets a page of the trainingDatasets of a featurestore, ordered by id. The page is converted in bulk: the
+   * features, splits, hive database names, paths and storage connectors of all its training datasets are loaded
+   * with a fixed number of queries instead of once per training dataset.
    *
    * @param featurestore featurestore to query trainingDatasets for
+   * @param offset number of training datasets to skip
+   * @param limit maximum number of training datasets to return, all of them if null
    * @return list of XML/JSON DTOs of the trainingDatasets
    */
   public List<TrainingDatasetDTO> getTrainingDatasetsForFeaturestore(Users user, Project project,
-                                                                     Featurestore featurestore)
+                                                                     Featurestore featurestore,
+                                                                     Integer offset, Integer limit)
       throws ServiceException, FeaturestoreException {
-    List<TrainingDatasetDTO> trainingDatasets = new ArrayList<>();
-    for (TrainingDataset td : trainingDatasetFacade.findByFeaturestore(featurestore)) {
-      trainingDatasets.add(convertTrainingDatasetToDTO(user, project, td));
+    List<TrainingDataset> trainingDatasets = trainingDatasetFacade.findByFeaturestore(featurestore, offset, limit);
+    if (trainingDatasets.isEmpty()) {
+      return new ArrayList<>();
     }
 
-    return trainingDatasets;
+    Map<Integer, List<TrainingDatasetFeature>> featuresByTd =
+        trainingDatasetFacade.findFeaturesByTrainingDatasets(trainingDatasets).stream()
+            .collect(Collectors.groupingBy(f -> f.getTrainingDataset().getId()));
+    Map<Integer, List<TrainingDatasetSplit>> splitsByTd =
+        trainingDatasetFacade.findSplitsByTrainingDatasets(trainingDatasets).stream()
+            .collect(Collectors.groupingBy(split -> split.getTrainingDataset().getId()));
+
+    // the feature stores of the training datasets and of the feature groups they are built from
+    Map<Integer, Featurestore> featurestores = new HashMap<>();
+    trainingDatasets.forEach(td -> featurestores.put(td.getFeaturestore().getId(), td.getFeaturestore()));
+    featuresByTd.values().stream().flatMap(List::stream)
+        .filter(f -> f.getFeatureGroup() != null)
+        .forEach(f -> featurestores.put(f.getFeatureGroup().getFeaturestore().getId(),
+            f.getFeatureGroup().getFeaturestore()));
+    Map<Long, String> hiveDbNames = featurestoreFacade.getHiveDbNames(featurestores.values().stream()
+        .map(Featurestore::getHiveDbId).collect(Collectors.toSet()));
+    Map<Integer, String> fsLookupTable = new HashMap<>();
+    featurestores.forEach((id, fs) -> fsLookupTable.put(id, hiveDbNames.get(fs.getHiveDbId())));
+
+    List<Inode> inodes = trainingDatasets.stream()
+        .filter(td -> td.getTrainingDatasetType() == TrainingDatasetType.HOPSFS_TRAINING_DATASET)
+        .map(td -> td.getHopsfsTrainingDataset().getInode())
+        .collect(Collectors.toList());
+    Map<Long, String> paths = inodeController.getPaths(inodes);
+    Service namenodeService = inodes.isEmpty() ? null : hopsfsTrainingDatasetController.getNamenodeService();
+    Map<Integer, FeaturestoreStorageConnectorDTO> connectors = new HashMap<>();
+
+    List<TrainingDatasetDTO> trainingDatasetDTOs = new ArrayList<>();
+    for (TrainingDataset td : trainingDatasets) {
+      TrainingDatasetDTO trainingDatasetDTO =
+          new TrainingDatasetDTO(td, splitsByTd.getOrDefault(td.getId(), new ArrayList<>()));
+      trainingDatasetDTO.setFeaturestoreName(fsLookupTable.get(td.getFeaturestore().getId()));
+      trainingDatasetDTO.setFeatures(convertFeatures(project,
+          sortFeatures(featuresByTd.getOrDefault(td.getId(), new ArrayList<>()), true), fsLookupTable));
+
+      switch (td.getTrainingDatasetType()) {
+        case HOPSFS_TRAINING_DATASET:
+          trainingDatasetDTOs.add(hopsfsTrainingDatasetController.convertHopsfsTrainingDatasetToDTO(
+              trainingDatasetDTO, td, namenodeService, paths.get(td.getHopsfsTrainingDataset().getInode().getId())));
+          break;
+        case EXTERNAL_TRAINING_DATASET:
+          FeaturestoreConnector connector = td.getExternalTrainingDataset().getFeaturestoreConnector();
+          FeaturestoreStorageConnectorDTO connectorDTO = connectors.get(connector.getId());
+          if (connectorDTO == null) {
+            connectorDTO = storageConnectorController.convertToConnectorDTO(user, project, connector);
+            connectors.put(connector.getId(), connectorDTO);
+          }
+          trainingDatasetDTOs.add(externalTrainingDatasetController.convertExternalTrainingDatasetToDTO(
+              trainingDatasetDTO, td, connectorDTO));
+          break;
+        default:
+          throw illegalTrainingDatasetType(td);
+      }
+    }
+    return trainingDatasetDTOs;
   }
 
   /**
@@ -179,7 +244,22 @@ public class TrainingDatasetController {
     // Set features
     List<TrainingDatasetFeature> tdFeatures = getFeaturesSorted(trainingDataset, true);
     Map<Integer, String> fsLookupTable = getFsLookupTableFeatures(tdFeatures);
-    trainingDatasetDTO.setFeatures(tdFeatures
+    trainingDatasetDTO.setFeatures(convertFeatures(project, tdFeatures, fsLookupTable));
+
+    switch (trainingDataset.getTrainingDatasetType()) {
+      case HOPSFS_TRAINING_DATASET:
+        return hopsfsTrainingDatasetController.convertHopsfsTrainingDatasetToDTO(trainingDatasetDTO, trainingDataset);
+      case EXTERNAL_TRAINING_DATASET:
+        return externalTrainingDatasetController.convertExternalTrainingDatasetToDTO(user, project,
+            trainingDatasetDTO, trainingDataset);
+      default:
+        throw illegalTrainingDatasetType(trainingDataset);
+    }
+  }
+
+  private List<TrainingDatasetFeatureDTO> convertFeatures(Project project, List<TrainingDatasetFeature> tdFeatures,
+                                                          Map<Integer, String> fsLookupTable) {
+    return tdFeatures
         .stream()
         .map(f -> new TrainingDatasetFeatureDTO(checkPrefix(f), f.getType(),
             f.getFeatureGroup() != null ?
@@ -191,20 +271,14 @@ public class TrainingDatasetController {
                         f.getFeatureGroup().getId(), Utils.getFeaturegroupName(f.getFeatureGroup())))
                 : null,
             f.getIndex(), f.isLabel()))
-        .collect(Collectors.toList()));
+        .collect(Collectors.toList());
+  }
 
-    switch (trainingDataset.getTrainingDatasetType()) {
-      case HOPSFS_TRAINING_DATASET:
-        return hopsfsTrainingDatasetController.convertHopsfsTrainingDatasetToDTO(trainingDatasetDTO, trainingDataset);
-      case EXTERNAL_TRAINING_DATASET:
-        return externalTrainingDatasetController.convertExternalTrainingDatasetToDTO(user, project,
-            trainingDatasetDTO, trainingDataset);
-      default:
-        throw new IllegalArgumentException(RESTCodes.FeaturestoreErrorCode.ILLEGAL_TRAINING_DATASET_TYPE.getMessage() +
-          ", Recognized training dataset types are: " + TrainingDatasetType.HOPSFS_TRAINING_DATASET + ", and: " +
-          TrainingDatasetType.EXTERNAL_TRAINING_DATASET + ". The provided training dataset type was not recognized: "
-          + trainingDataset.getTrainingDatasetType());
-    }
+  private IllegalArgumentException illegalTrainingDatasetType(TrainingDataset trainingDataset) {
+    return new IllegalArgumentException(RESTCodes.FeaturestoreErrorCode.ILLEGAL_TRAINING_DATASET_TYPE.getMessage() +
+        ", Recognized training dataset types are: " + TrainingDatasetType.HOPSFS_TRAINING_DATASET + ", and: " +
+        TrainingDatasetType.EXTERNAL_TRAINING_DATASET + ". The provided training dataset type was not recognized: "
+        + trainingDataset.getTrainingDatasetType());
   }
 
   public TrainingDatasetDTO createTrainingDataset(Users user, Project project, Featurestore featurestore,
@@ -758,7 +832,11 @@ public class TrainingDatasetController {
   }
 
   public List<TrainingDatasetFeature> getFeaturesSorted(TrainingDataset trainingDataset, boolean withLabel) {
-    return trainingDataset.getFeatures().stream()
+    return sortFeatures(trainingDataset.getFeatures(), withLabel);
+  }
+
+  private List<TrainingDatasetFeature> sortFeatures(Collection<TrainingDatasetFeature> features, boolean withLabel) {
+    return features.stream()
         .sorted((t1, t2) -> {
           if (t1.getIndex() != null) {
             // compare based on index
@@ -24,10 +24,12 @@ import io.hops.hopsworks.common.featurestore.storageconnectors.FeaturestoreStora
 import io.hops.hopsworks.common.featurestore.trainingdatasets.split.TrainingDatasetSplitDTO;
 import io.hops.hopsworks.persistence.entity.featurestore.trainingdataset.TrainingDataset;
 import io.hops.hopsworks.persistence.entity.featurestore.trainingdataset.TrainingDatasetType;
+import io.hops.hopsworks.persistence.entity.featurestore.trainingdataset.split.TrainingDatasetSplit;
 
 import javax.xml.bind.annotation.XmlElement;
 import javax.xml.bind.annotation.XmlRootElement;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -60,6 +62,10 @@ public class TrainingDatasetDTO extends FeaturestoreEntityDTO {
   }
 
   public TrainingDatasetDTO(TrainingDataset trainingDataset) {
+    this(trainingDataset, trainingDataset.getSplits());
+  }
+
+  public TrainingDatasetDTO(TrainingDataset trainingDataset, Collection<TrainingDatasetSplit> splits) {
     super(trainingDataset.getFeaturestore().getId(), trainingDataset.getName(), trainingDataset.getCreated(),
       trainingDataset.getCreator(), trainingDataset.getVersion(), trainingDataset.getId(),
         new StatisticsConfigDTO(trainingDataset.getStatisticsConfig()));
@@ -68,7 +74,7 @@ public class TrainingDatasetDTO extends FeaturestoreEntityDTO {
     this.coalesce = trainingDataset.getCoalesce();
     this.trainingDatasetType = trainingDataset.getTrainingDatasetType();
     this.splits =
-      trainingDataset.getSplits().stream().map(tds -> new TrainingDatasetSplitDTO(tds.getName(), tds.getPercentage()))
+      splits.stream().map(tds -> new TrainingDatasetSplitDTO(tds.getName(), tds.getPercentage()))
         .collect(Collectors.toList());
     this.seed = trainingDataset.getSeed();
     this.fromQuery = trainingDataset.isQuery();
@@ -21,6 +21,8 @@ import io.hops.hopsworks.common.featurestore.trainingdatasets.external.ExternalT
 import io.hops.hopsworks.common.featurestore.trainingdatasets.hopsfs.HopsfsTrainingDatasetFacade;
 import io.hops.hopsworks.persistence.entity.featurestore.Featurestore;
 import io.hops.hopsworks.persistence.entity.featurestore.trainingdataset.TrainingDataset;
+import io.hops.hopsworks.persistence.entity.featurestore.trainingdataset.TrainingDatasetFeature;
+import io.hops.hopsworks.persistence.entity.featurestore.trainingdataset.split.TrainingDatasetSplit;
 
 import javax.ejb.EJB;
 import javax.ejb.Stateless;
@@ -28,6 +30,7 @@ import javax.persistence.EntityManager;
 import javax.persistence.NoResultException;
 import javax.persistence.PersistenceContext;
 import javax.persistence.TypedQuery;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.logging.Logger;
@@ -39,6 +42,7 @@ import java.util.logging.Logger;
 @Stateless
 public class TrainingDatasetFacade extends AbstractFacade<TrainingDataset> {
   private static final Logger LOGGER = Logger.getLogger(TrainingDatasetFacade.class.getName());
+  private static final int IN_CLAUSE_BATCH_SIZE = 1000;
 
   @PersistenceContext(unitName = "kthfsPU")
   private EntityManager em;
@@ -159,6 +163,58 @@ public class TrainingDatasetFacade extends AbstractFacade<TrainingDataset> {
     return q.getResultList();
   }
 
+  /**
+   * Retrieves a page of the trainingDatasets of a featurestore ordered by id, together with their statistics config
+   * and their hopsfs or external part
+   *
+   * @param featurestore
+   * @param offset
+   * @param limit
+   * @return
+   */
+  public List<TrainingDataset> findByFeaturestore(Featurestore featurestore, Integer offset, Integer limit) {
+    TypedQuery<TrainingDataset> q =
+      em.createNamedQuery("TrainingDataset.findByFeaturestoreOrderById", TrainingDataset.class)
+        .setParameter("featurestore", featurestore);
+    setOffsetAndLim(offset, limit, q);
+    return q.getResultList();
+  }
+
+  /**
+   * Retrieves the features of the given trainingDatasets, together with their feature group and join
+   *
+   * @param trainingDatasets
+   * @return
+   */
+  public List<TrainingDatasetFeature> findFeaturesByTrainingDatasets(List<TrainingDataset> trainingDatasets) {
+    List<TrainingDatasetFeature> features = new ArrayList<>();
+    for (int i = 0; i < trainingDatasets.size(); i += IN_CLAUSE_BATCH_SIZE) {
+      features.addAll(em.createNamedQuery("TrainingDatasetFeature.findByTrainingDatasets",
+          TrainingDatasetFeature.class)
+        .setParameter("trainingDatasets",
+          trainingDatasets.subList(i, Math.min(i + IN_CLAUSE_BATCH_SIZE, trainingDatasets.size())))
+        .getResultList());
+    }
+    return features;
+  }
+
+  /**
+   * Retrieves the splits of the given trainingDatasets
+   *
+   * @param trainingDatasets
+   * @return
+   */
+  public List<TrainingDatasetSplit> findSplitsByTrainingDatasets(List<TrainingDataset> trainingDatasets) {
+    List<TrainingDatasetSplit> splits = new ArrayList<>();
+    for (int i = 0; i < trainingDatasets.size(); i += IN_CLAUSE_BATCH_SIZE) {
+      splits.addAll(em.createNamedQuery("TrainingDatasetSplit.findByTrainingDatasets", TrainingDatasetSplit.class)
+        .setParameter("trainingDatasets",
+          trainingDatasets.subList(i, Math.min(i + IN_CLAUSE_BATCH_SIZE, trainingDatasets.size())))
+        .getResultList());
+    }
+    return splits;
+  }
+
   public Long countByFeaturestore(Featurestore featurestore) {
     return em.createNamedQuery("TrainingDataset.countByFeaturestore", Long.class)
         .setParameter("featurestore", featurestore)
@@ -17,6 +17,7 @@
 package io.hops.hopsworks.common.featurestore.trainingdatasets.external;
 
 import io.hops.hopsworks.common.featurestore.storageconnectors.FeaturestoreStorageConnectorController;
+import io.hops.hopsworks.common.featurestore.storageconnectors.FeaturestoreStorageConnectorDTO;
 import io.hops.hopsworks.exceptions.FeaturestoreException;
 import io.hops.hopsworks.persistence.entity.featurestore.storageconnector.adls.FeaturestoreADLSConnector;
 import io.hops.hopsworks.persistence.entity.featurestore.trainingdataset.TrainingDataset;
@@ -56,8 +57,19 @@ public class ExternalTrainingDatasetController {
                                                                 TrainingDataset trainingDataset)
       throws FeaturestoreException {
     ExternalTrainingDataset externalTrainingDataset = trainingDataset.getExternalTrainingDataset();
-    trainingDatasetDTO.setStorageConnector(storageConnectorController
+    return convertExternalTrainingDatasetToDTO(trainingDatasetDTO, trainingDataset, storageConnectorController
         .convertToConnectorDTO(user, project, externalTrainingDataset.getFeaturestoreConnector()));
+  }
+
+  /**
+   * Converts an external training dataset whose storage connector was already converted by the caller, so that
+   * training datasets sharing a connector convert it only once.
+   */
+  public TrainingDatasetDTO convertExternalTrainingDatasetToDTO(TrainingDatasetDTO trainingDatasetDTO,
+                                                                TrainingDataset trainingDataset,
+                                                                FeaturestoreStorageConnectorDTO storageConnectorDTO)
+      throws FeaturestoreException {
+    trainingDatasetDTO.setStorageConnector(storageConnectorDTO);
     trainingDatasetDTO.setLocation(buildDatasetPath(trainingDataset));
 
     return trainingDatasetDTO;
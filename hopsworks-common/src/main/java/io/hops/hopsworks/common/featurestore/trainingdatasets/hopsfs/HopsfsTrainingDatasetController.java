@@ -56,21 +56,26 @@ public class HopsfsTrainingDatasetController {
   public TrainingDatasetDTO convertHopsfsTrainingDatasetToDTO(TrainingDatasetDTO trainingDatasetDTO,
                                                               TrainingDataset trainingDataset)
       throws ServiceException {
+    return convertHopsfsTrainingDatasetToDTO(trainingDatasetDTO, trainingDataset, getNamenodeService(),
+        inodeController.getPath(trainingDataset.getHopsfsTrainingDataset().getInode()));
+  }
 
-    Service namenodeService;
-    try {
-      namenodeService = serviceDiscoveryController.getAnyAddressOfServiceWithDNS(
-          ServiceDiscoveryController.HopsworksService.RPC_NAMENODE);
-    } catch (ServiceDiscoveryException e) {
-      throw new ServiceException(RESTCodes.ServiceErrorCode.SERVICE_NOT_FOUND,
-          Level.SEVERE, "Could not find namenode service", e.getMessage(), e);
-    }
-
+  /**
+   * Converts a Hopsfs Training Dataset entity into a DTO representation, with the namenode and the path of the
+   * training dataset already resolved by the caller. Used when converting many training datasets at once.
+   *
+   * @param trainingDataset the entity to convert
+   * @param namenodeService the namenode to put in the location of the training dataset
+   * @param path the path of the inode of the training dataset
+   * @return the converted DTO representation
+   */
+  public TrainingDatasetDTO convertHopsfsTrainingDatasetToDTO(TrainingDatasetDTO trainingDatasetDTO,
+                                                              TrainingDataset trainingDataset,
+                                                              Service namenodeService, String path) {
     HopsfsTrainingDataset hopsfsTrainingDataset = trainingDataset.getHopsfsTrainingDataset();
 
     trainingDatasetDTO.setLocation(new Path(DistributedFileSystemOps.HOPSFS_SCHEME,
-        namenodeService.getAddress() + ":" + namenodeService.getPort(),
-        inodeController.getPath(hopsfsTrainingDataset.getInode())).toString());
+        namenodeService.getAddress() + ":" + namenodeService.getPort(), path).toString());
     trainingDatasetDTO.setInodeId(hopsfsTrainingDataset.getInode().getId());
 
     FeaturestoreHopsfsConnectorDTO hopsfsConnectorDTO =
@@ -78,4 +83,14 @@ public class HopsfsTrainingDatasetController {
     trainingDatasetDTO.setStorageConnector(hopsfsConnectorDTO);
     return trainingDatasetDTO;
   }
+
+  public Service getNamenodeService() throws ServiceException {
+    try {
+      return serviceDiscoveryController.getAnyAddressOfServiceWithDNS(
+          ServiceDiscoveryController.HopsworksService.RPC_NAMENODE);
+    } catch (ServiceDiscoveryException e) {
+      throw new ServiceException(RESTCodes.ServiceErrorCode.SERVICE_NOT_FOUND,
+          Level.SEVERE, "Could not find namenode service", e.getMessage(), e);
+    }
+  }
 }
@@ -31,7 +31,10 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.logging.Logger;
 
 @Stateless
@@ -168,6 +171,28 @@ public class InodeController {
     return path.toString();
   }
   
+  /**
+   * Get the paths of several Inodes. The path of a parent directory is resolved once and shared by all the Inodes
+   * in it, so Inodes in the same directory cost a single walk up the tree.
+   * <p/>
+   * @param inodes
+   * @return map from inode id to path
+   */
+  public Map<Long, String> getPaths(Collection<Inode> inodes) {
+    Map<Long, String> parentPaths = new HashMap<>();
+    Map<Long, String> paths = new HashMap<>();
+    for (Inode inode : inodes) {
+      if (inode.getId() == 1) {
+        paths.put(inode.getId(), getPath(inode));
+        continue;
+      }
+      String parentPath = parentPaths.computeIfAbsent(inode.getInodePK().getParentId(),
+        parentId -> getPath(inodeFacade.findParent(inode)));
+      paths.put(inode.getId(), parentPath + "/" + inode.getInodePK().getName());
+    }
+    return paths;
+  }
+
   /**
    * Get the inodes in the directory pointed to by the given absolute HDFS path.
    * <p/>
@@ -45,6 +45,7 @@ import io.hops.hopsworks.common.dao.jobhistory.ExecutionFacade;
 import io.hops.hopsworks.common.hdfs.DistributedFileSystemOps;
 import io.hops.hopsworks.common.hdfs.DistributedFsService;
 import io.hops.hopsworks.common.jobs.execution.HopsJob;
+import io.hops.hopsworks.common.jobs.yarn.LocalResourceCache;
 import io.hops.hopsworks.common.jobs.yarn.YarnExecutionFinalizer;
 import io.hops.hopsworks.common.security.BaseHadoopClientsService;
 import io.hops.hopsworks.common.security.CertificateMaterializer;
@@ -86,6 +87,8 @@ public class AsynchronousJobExecutor {
   private CertificateMaterializer certificateMaterializer;
   @EJB
   private BaseHadoopClientsService baseHadoopClientsService;
+  @EJB
+  private LocalResourceCache localResourceCache;
   
   @Asynchronous
   @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
@@ -139,4 +142,8 @@ public class AsynchronousJobExecutor {
     return baseHadoopClientsService;
   }
 
+  public LocalResourceCache getLocalResourceCache() {
+    return localResourceCache;
+  }
+
 }
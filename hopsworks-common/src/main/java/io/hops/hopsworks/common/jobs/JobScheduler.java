@@ -40,125 +40,203 @@
 package io.hops.hopsworks.common.jobs;
 
 import io.hops.hopsworks.common.dao.jobs.description.JobFacade;
+import io.hops.hopsworks.common.dao.jobs.scheduler.JobScheduleFacade;
+import io.hops.hopsworks.common.util.BoundedParallelism;
+import io.hops.hopsworks.common.util.Settings;
 import io.hops.hopsworks.persistence.entity.jobs.description.Jobs;
 import io.hops.hopsworks.common.dao.project.team.ProjectTeamFacade;
 import io.hops.hopsworks.persistence.entity.jobs.configuration.ScheduleDTO;
-import io.hops.hopsworks.persistence.entity.jobs.configuration.ScheduleDTO.TimeUnit;
 import io.hops.hopsworks.common.jobs.execution.ExecutionController;
+import io.hops.hopsworks.persistence.entity.jobs.scheduler.JobSchedule;
+import io.hops.hopsworks.persistence.entity.project.Project;
+import io.hops.hopsworks.persistence.entity.project.team.ProjectTeam;
 
 import javax.annotation.Resource;
 import javax.ejb.EJB;
-import javax.ejb.ScheduleExpression;
+import javax.ejb.Schedule;
 import javax.ejb.Stateless;
 import javax.ejb.Timeout;
 import javax.ejb.Timer;
-import javax.ejb.TimerConfig;
-import javax.ejb.TimerService;
 import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
+import javax.enterprise.concurrent.ManagedExecutorService;
 import javax.inject.Inject;
 import java.io.Serializable;
-import java.util.Collection;
-import java.util.Date;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
  * Allow jobs to be scheduled and take care of their execution.
+ * <p/>
+ * The schedule of every scheduled job is a row of the job_schedule table, indexed by its next fire time. A single
+ * timer ticking every second on each instance loads the due schedules in batches, and claims every fire time by
+ * moving it to the next one only if no other instance moved it first, so each fire time runs once in the cluster.
+ * The jobs and the members of their projects are then loaded in batches as well.
  */
 @Stateless
 public class JobScheduler {
 
   private static final Logger logger = Logger.getLogger(JobScheduler.class.
           getName());
+  static final int BATCH_SIZE = 500;
+
+  /**
+   * What to do with a fire time that was missed by more than the misfire threshold, because the server was down or
+   * overloaded.
+   */
+  public enum MissedFirePolicy {
+    //Fire once for all the missed fire times
+    FIRE_ONCE,
+    //Do not fire, wait for the next fire time
+    SKIP
+  }
 
   @EJB
   private JobFacade jobFacade;
+  @EJB
+  private JobScheduleFacade jobScheduleFacade;
   @Inject
   private ExecutionController executionController;
-  @Resource
-  private TimerService timerService;
   @EJB
   private ProjectTeamFacade projectTeamFacade;
+  @EJB
+  private Settings settings;
+  @Resource(lookup = "concurrent/hopsExecutorService")
+  private ManagedExecutorService executorService;
+
+  /**
+   * Fire the jobs that are due.
+   * <p/>
+   * @param timer
+   */
+  @Schedule(persistent = false, second = "*", minute = "*", hour = "*")
+  @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+  public void tick(Timer timer) {
+    try {
+      fireDue(System.currentTimeMillis());
+    } catch (Exception e) {
+      logger.log(Level.SEVERE, "Failed to fire scheduled jobs", e);
+    }
+  }
 
   /**
-   * Execute the job given as extra info to the timer object.
+   * Jobs used to be scheduled with one persistent timer each. When such a timer expires the schedule of its job is
+   * moved to the job_schedule table, due now so that the next tick fires it, and the timer is cancelled.
    * <p/>
    * @param timer
    */
   @Timeout
   @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
   public void timeout(Timer timer) {
-    Serializable jobId = timer.getInfo();
+    Serializable info = timer.getInfo();
+    Integer jobId;
+    if (info instanceof ScheduleInfo) {
+      jobId = ((ScheduleInfo) info).getJobId();
+    } else if (info instanceof Integer) {
+      jobId = (Integer) info;
+    } else {
+      return;
+    }
+    timer.cancel();
     try {
-      //Valid id?
-      if (!(jobId instanceof Integer)) {
-        logger.log(Level.WARNING,
-                "Trying to run a scheduled execution, but info is not " + jobId.getClass().getSimpleName());
-        return;
-      }
-      //Valid job?
       Jobs job = jobFacade.find(jobId);
-
-      //Make sure the job is valid (still exists in DB and user still in the project where the job is)
-      if (job == null) {
-        logger.log(Level.WARNING, "Trying to run a job with non-existing id, canceling timer.");
-        timer.cancel();
+      ScheduleDTO schedule = job == null || job.getJobConfig() == null ? null : job.getJobConfig().getSchedule();
+      if (schedule == null || jobScheduleFacade.find(jobId) != null) {
         return;
-      } else if (projectTeamFacade.findCurrentRole(job.getProject(), job.getCreator()) == null) {
-        logger.log(Level.INFO, "Trying to run a job created by a user no longer in this project, canceling timer.");
-        timer.cancel();
+      }
+      long interval = getInterval(schedule);
+      if (interval <= 0) {
         return;
       }
-      //Run scheduled job
-      executionController.start(job, null, job.getCreator());
-    } catch(Exception e) {
-      logger.log(Level.SEVERE, "Failed to start an execution for job " + jobId, e);
+      long now = System.currentTimeMillis();
+      jobScheduleFacade.save(new JobSchedule(jobId, schedule.getStart(), interval,
+        Math.max(lastFireAtOrBefore(schedule.getStart(), interval, now), schedule.getStart())));
+      logger.log(Level.INFO, "Moved the schedule of job {0} from its timer to the job_schedule table", jobId);
+    } catch (Exception e) {
+      logger.log(Level.SEVERE, "Failed to move the schedule of job " + jobId + " from its timer", e);
     }
   }
 
-  /**
-   * Schedule a job for periodic execution. The first execution will occur after
-   * the specified interval.
-   * <p/>
-   * @param job
-   * @param numberOfUnits
-   * @param timeUnit
-   */
-  public void scheduleJobPeriodic(Jobs job, int numberOfUnits,
-          TimeUnit timeUnit) {
-    long interval = numberOfUnits * timeUnit.getDuration();
-    timerService.createTimer(new Date().getTime() + interval, interval, job.
-            getId());
+  void fireDue(long now) {
+    long misfireThreshold = settings.getJobSchedulerMisfireThreshold() * 1000;
+    MissedFirePolicy policy = getMissedFirePolicy();
+    List<JobSchedule> due;
+    do {
+      due = jobScheduleFacade.findDue(now, BATCH_SIZE);
+      List<Integer> claimed = new ArrayList<>(due.size());
+      for (JobSchedule schedule : due) {
+        //Claiming moves the next fire time after now, so the next batch does not return this schedule again
+        long next = nextFireAfter(schedule.getStartTime(), schedule.getInterval(), now);
+        if (!jobScheduleFacade.claim(schedule.getJobId(), schedule.getNextFireTime(), next)) {
+          continue;
+        }
+        if (now - schedule.getNextFireTime() > misfireThreshold && policy == MissedFirePolicy.SKIP) {
+          logger.log(Level.INFO, "Skipping missed execution of job {0}", schedule.getJobId());
+        } else {
+          claimed.add(schedule.getJobId());
+        }
+      }
+      fire(claimed);
+    } while (due.size() == BATCH_SIZE);
   }
 
-  /**
-   * Schedule a job for a single execution, at the given date.
-   * <p/>
-   * @param job
-   * @param when
-   */
-  public void scheduleJobOnce(Jobs job, Date when) {
-    TimerConfig config = new TimerConfig();
-    config.setInfo(job.getId());
-    timerService.createSingleActionTimer(when, config);
+  private void fire(List<Integer> jobIds) {
+    if (jobIds.isEmpty()) {
+      return;
+    }
+    List<Jobs> jobs = jobFacade.findByIds(jobIds);
+    Set<Integer> found = new HashSet<>();
+    Set<Project> projects = new HashSet<>();
+    for (Jobs job : jobs) {
+      found.add(job.getId());
+      projects.add(job.getProject());
+    }
+    List<Integer> invalid = new ArrayList<>();
+    for (Integer jobId : jobIds) {
+      if (!found.contains(jobId)) {
+        logger.log(Level.WARNING, "Trying to run a job with non-existing id {0}, unscheduling it.", jobId);
+        invalid.add(jobId);
+      }
+    }
+    Set<String> members = new HashSet<>();
+    for (ProjectTeam member : projectTeamFacade.findByProjects(projects)) {
+      members.add(memberKey(member.getProject(), member.getUser().getUid()));
+    }
+
+    //Make sure the user is still in the project where the job is
+    List<Jobs> toStart = new ArrayList<>(jobs.size());
+    for (Jobs job : jobs) {
+      if (members.contains(memberKey(job.getProject(), job.getCreator().getUid()))) {
+        toStart.add(job);
+      } else {
+        logger.log(Level.INFO, "Trying to run job {0} created by a user no longer in this project, unscheduling it.",
+          job.getId());
+        invalid.add(job.getId());
+      }
+    }
+    jobScheduleFacade.remove(invalid);
+    BoundedParallelism.map(executorService, toStart, settings.getJobSchedulerParallelism(), job -> {
+      try {
+        //Run scheduled job
+        executionController.start(job, null, job.getCreator());
+      } catch (Exception e) {
+        logger.log(Level.SEVERE, "Failed to start an execution for job " + job.getId(), e);
+      }
+      return null;
+    });
   }
 
-  /**
-   * Schedule a job for regular execution.
-   * <p/>
-   * @param job
-   * @param when The ScheduleExpression dictating when the job should be run.
-   */
-  public void scheduleJobOnCalendar(Jobs job, ScheduleExpression when) {
-    TimerConfig config = new TimerConfig();
-    config.setInfo(job.getId());
-    timerService.createCalendarTimer(when, config);
+  private String memberKey(Project project, Integer uid) {
+    return project.getId() + "/" + uid;
   }
 
   /**
    * Schedule the given job according to the JobSchedule contained in its
-   * configuration.
+   * configuration, replacing its previous schedule if any.
    * <p/>
    * @param job
    */
@@ -169,26 +247,80 @@ public class JobScheduler {
     } else if (job.getJobConfig().getSchedule() == null) {
       throw new IllegalArgumentException("Trying to schedule a job with null schedule: " + job);
     }
-    //Then: set up interval timer
     ScheduleDTO schedule = job.getJobConfig().getSchedule();
-    timerService.createTimer(new Date(schedule.getStart()), schedule.getNumber() * schedule.getUnit().getDuration(),
-      job.getId());
+    long interval = getInterval(schedule);
+    if (interval <= 0) {
+      throw new IllegalArgumentException("Trying to schedule a job with an empty interval: " + job);
+    }
+    //Then: the first execution is the first fire time from now on
+    jobScheduleFacade.save(new JobSchedule(job.getId(), schedule.getStart(), interval,
+      nextFireAfter(schedule.getStart(), interval, System.currentTimeMillis() - 1)));
   }
+
   /**
    * Unschedule the given job.
    * <p/>
    * @param job
    */
   public boolean unscheduleJob(Jobs job) {
-    Collection<Timer> timers = timerService.getTimers();
-    for(Timer timer: timers) {
-      int jobId = (int)timer.getInfo();
-      if(jobId == job.getId()) {
-        timer.cancel();
-        return true;
-      }
+    return jobScheduleFacade.remove(job.getId());
+  }
+
+  private MissedFirePolicy getMissedFirePolicy() {
+    try {
+      return MissedFirePolicy.valueOf(settings.getJobSchedulerMissedFirePolicy().toUpperCase());
+    } catch (IllegalArgumentException e) {
+      logger.log(Level.WARNING, "Unknown missed fire policy " + settings.getJobSchedulerMissedFirePolicy(), e);
+      return MissedFirePolicy.FIRE_ONCE;
+    }
+  }
+
+  private long getInterval(ScheduleDTO schedule) {
+    return schedule.getNumber() * schedule.getUnit().getDuration();
+  }
+
+  /**
+   * @return the last fire time at or before the given time, or -1 if the first execution is still to come
+   */
+  static long lastFireAtOrBefore(long start, long interval, long time) {
+    if (time < start) {
+      return -1;
+    }
+    if (interval <= 0) {
+      return start;
+    }
+    return start + ((time - start) / interval) * interval;
+  }
+
+  /**
+   * @return the first fire time strictly after the given time, Long.MAX_VALUE if an empty interval already fired
+   */
+  static long nextFireAfter(long start, long interval, long time) {
+    long lastFire = lastFireAtOrBefore(start, interval, time);
+    if (lastFire < 0) {
+      return start;
+    }
+    return interval <= 0 ? Long.MAX_VALUE : lastFire + interval;
+  }
+
+  /**
+   * Info of the persistent timers that used to schedule jobs, kept so that the remaining ones can be read.
+   */
+  public static class ScheduleInfo implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final Integer jobId;
+    private final long start;
+    private final long interval;
+
+    public ScheduleInfo(Integer jobId, long start, long interval) {
+      this.jobId = jobId;
+      this.start = start;
+      this.interval = interval;
+    }
+
+    public Integer getJobId() {
+      return jobId;
     }
-    return false;
   }
-  
 }
@@ -35,6 +35,7 @@ import io.hops.hopsworks.common.jobs.spark.SparkController;
 import io.hops.hopsworks.common.jobs.yarn.YarnExecutionFinalizer;
 import io.hops.hopsworks.common.jobs.yarn.YarnLogUtil;
 import io.hops.hopsworks.common.jobs.yarn.YarnMonitor;
+import io.hops.hopsworks.common.security.AuthorizationCache;
 import io.hops.hopsworks.common.util.Settings;
 import io.hops.hopsworks.common.yarn.YarnClientService;
 import io.hops.hopsworks.common.yarn.YarnClientWrapper;
@@ -111,6 +112,8 @@ public abstract class AbstractExecutionController implements ExecutionController
   @EJB
   private YarnExecutionFinalizer yarnExecutionFinalizer;
   @EJB
+  private AuthorizationCache authorizationCache;
+  @EJB
   private HostServicesFacade hostServicesFacade;
   
   @Override
@@ -204,6 +207,7 @@ public abstract class AbstractExecutionController implements ExecutionController
       try {
         yarnClientWrapper = ycs.getYarnClientSuper(settings.getConfiguration());
         yarnClientWrapper.getYarnClient().killApplication(ApplicationId.fromString(execution.getAppId()));
+        authorizationCache.invalidateApplication(execution.getAppId());
         yarnExecutionFinalizer.removeAllNecessary(execution);
         return executionFacade.findById(execution.getId())
           .orElseThrow(() -> new JobException(RESTCodes.JobErrorCode.JOB_EXECUTION_NOT_FOUND,
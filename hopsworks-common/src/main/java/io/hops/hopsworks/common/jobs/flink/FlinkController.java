@@ -59,19 +59,11 @@ import io.hops.hopsworks.common.jobs.AsynchronousJobExecutor;
 import io.hops.hopsworks.persistence.entity.jobs.configuration.JobType;
 import io.hops.hopsworks.common.kafka.KafkaBrokers;
 import io.hops.hopsworks.common.util.Settings;
-import io.hops.hopsworks.common.yarn.YarnClientService;
-import io.hops.hopsworks.common.yarn.YarnClientWrapper;
 import io.hops.hopsworks.exceptions.GenericException;
 import io.hops.hopsworks.exceptions.JobException;
 import io.hops.hopsworks.restutils.RESTCodes;
 import io.hops.security.UserNotFoundException;
-import org.apache.flink.client.program.ClusterClient;
-import org.apache.flink.yarn.YarnClusterDescriptor;
-import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.security.UserGroupInformation;
-import org.apache.hadoop.yarn.api.records.ApplicationId;
-import org.apache.hadoop.yarn.client.api.YarnClient;
-import org.apache.hadoop.yarn.conf.YarnConfiguration;
 import org.apache.parquet.Strings;
 import org.yaml.snakeyaml.Yaml;
 
@@ -110,8 +102,6 @@ public class FlinkController {
   @EJB
   private Settings settings;
   @EJB
-  private YarnClientService ycs;
-  @EJB
   private ProjectFacade projectFacade;
   @EJB
   private InodeController inodeController;
@@ -168,44 +158,6 @@ public class FlinkController {
     return execution;
   }
   
-  /**
-   * Retrieves the Flink master address from a running Flink session in YARN.
-   *
-   * @param appId flink ApplicationId in YARN
-   * @return String of ip:port of flink master
-   */
-  @TransactionAttribute(TransactionAttributeType.NEVER)
-  public String getFlinkMasterAddr(String appId) {
-    LOGGER.log(Level.INFO, "Getting Flink Master Addr for:" + appId);
-    Configuration conf = settings.getConfiguration();
-    org.apache.flink.configuration.Configuration flinkConf
-      = org.apache.flink.configuration.GlobalConfiguration.loadConfiguration(settings.getFlinkConfDir());
-    YarnConfiguration yarnConf = new YarnConfiguration(conf);
-    YarnClientWrapper yarnClientWrapper = null;
-    YarnClusterDescriptor cluster = null;
-    String flinkMasterURL = null;
-    try {
-      yarnConf.addResource(new File(settings.getHadoopConfDir() + "/yarn-site.xml").toURI().toURL());
-      yarnClientWrapper = ycs.getYarnClientSuper();
-      YarnClient yarnClient = yarnClientWrapper.getYarnClient();
-      cluster = new YarnClusterDescriptor(flinkConf,
-        yarnConf, settings.getFlinkConfDir(), yarnClient, true);
-      ClusterClient<ApplicationId> clusterClient = cluster.retrieve(ApplicationId.fromString(appId));
-      flinkMasterURL = clusterClient.getClusterConnectionInfo().getHostname() + ":" +
-        clusterClient.getClusterConnectionInfo().getPort();
-    } catch (Exception ex) {
-      LOGGER.log(Level.FINE, "Could not retrieve Flink Master URL for applicationID: " + appId, ex);
-    } finally {
-      if (cluster != null) {
-        cluster.close();
-      }
-      if (yarnClientWrapper != null) {
-        ycs.closeYarnClient(yarnClientWrapper);
-      }
-    }
-    return flinkMasterURL;
-  }
-  
   /**
    * Used by flinkCompletedJobsCache() on startUp.
    *
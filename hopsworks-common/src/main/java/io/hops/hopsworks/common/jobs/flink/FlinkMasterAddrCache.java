@@ -15,65 +15,155 @@
  */
 package io.hops.hopsworks.common.jobs.flink;
 
-import com.google.common.base.Strings;
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
-import io.hops.hopsworks.exceptions.JobException;
-import io.hops.hopsworks.restutils.RESTCodes;
+import io.hops.hopsworks.common.util.Settings;
+import io.hops.hopsworks.common.yarn.YarnClientService;
+import io.hops.hopsworks.common.yarn.YarnClientWrapper;
+import org.apache.hadoop.yarn.api.records.ApplicationReport;
+import org.apache.hadoop.yarn.api.records.YarnApplicationState;
+import org.apache.hadoop.yarn.exceptions.YarnException;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
 import javax.ejb.ConcurrencyManagement;
+import javax.ejb.DependsOn;
 import javax.ejb.EJB;
 import javax.ejb.Singleton;
 import javax.ejb.Startup;
+import javax.ejb.Timeout;
+import javax.ejb.Timer;
+import javax.ejb.TimerConfig;
+import javax.ejb.TimerService;
 import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
-
-import java.util.concurrent.TimeUnit;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import static javax.ejb.ConcurrencyManagementType.BEAN;
 
+/**
+ * Addresses (host:port) of the masters of the running Flink clusters. They are read in bulk from the YARN application
+ * reports by a timer, so that the Flink proxy and the executions listing never wait on YARN. The report of a Flink
+ * application carries the host and the REST port of its JobManager, which move when the AM is restarted on another
+ * host.
+ */
 @ConcurrencyManagement(BEAN)
 @Singleton
 @Startup
+@DependsOn("Settings")
 @TransactionAttribute(TransactionAttributeType.NEVER)
 public class FlinkMasterAddrCache {
   
   private static final Logger LOGGER = Logger.getLogger(FlinkMasterAddrCache.class.getName());
+  private static final Set<String> FLINK_APPLICATION_TYPES = Collections.singleton("Apache Flink");
+  private static final EnumSet<YarnApplicationState> RUNNING = EnumSet.of(YarnApplicationState.RUNNING);
+  private static final String INTERVAL_TIMER = "Flink master address refresh";
+  private static final String LOOKUP_TIMER = "Flink master address lookup";
+  private static final long MIN_REFRESH_GAP_MS = 1000L;
   
   @EJB
-  private FlinkController flinkController;
+  private Settings settings;
+  @EJB
+  private YarnClientService ycs;
+  @Resource
+  private TimerService timerService;
   
   //Key is applicationId and value is FlinkMasterAddr (IP:port)
-  private LoadingCache<String, String> cache;
+  private final Map<String, String> addresses = new ConcurrentHashMap<>();
+  private final AtomicBoolean refreshing = new AtomicBoolean();
+  private final AtomicBoolean refreshRequested = new AtomicBoolean();
+  //Applications a lookup already requested a refresh for since the last interval refresh. Lookups of applications
+  //that are not running must not turn into a refresh each
+  private final Set<String> requested = ConcurrentHashMap.newKeySet();
+  private final AtomicLong relocations = new AtomicLong();
+  private volatile long lastRefresh;
   
   @PostConstruct
-  @TransactionAttribute(TransactionAttributeType.NEVER)
   public void init() {
-    CacheLoader<String, String> loader = new CacheLoader<String, String>() {
-      @Override
-      public String load(String appId) throws JobException {
-        LOGGER.log(Level.INFO, "Fetching FlinkMaster Addr into cache for appId:" + appId);
-        String addr = flinkController.getFlinkMasterAddr(appId);
-        if (Strings.isNullOrEmpty(addr)) {
-          throw new JobException(RESTCodes.JobErrorCode.APPID_NOT_FOUND,Level.WARNING);
-        }
-        return addr;
-      }
-    };
-    
-    cache = CacheBuilder.newBuilder().maximumSize(100).expireAfterAccess(1, TimeUnit.HOURS).build(loader);
+    long interval = settings.getFlinkMasterAddrRefreshInterval() * 1000L;
+    timerService.createIntervalTimer(0L, interval, new TimerConfig(INTERVAL_TIMER, false));
   }
   
+  /**
+   * @param appId
+   * @return the address of the Flink master of the application, or null if the application is not a running Flink
+   * cluster as of the last refresh
+   */
   public String get(String appId) {
+    String addr = addresses.get(appId);
+    if (addr == null && System.currentTimeMillis() - lastRefresh > MIN_REFRESH_GAP_MS && requested.add(appId)
+      && refreshRequested.compareAndSet(false, true)) {
+      //The application might have started after the last refresh, pick it up now instead of at the next interval
+      timerService.createSingleActionTimer(0L, new TimerConfig(LOOKUP_TIMER, false));
+    }
+    return addr;
+  }
+  
+  @Timeout
+  public void timeout(Timer timer) {
+    if (INTERVAL_TIMER.equals(timer.getInfo())) {
+      requested.clear();
+    }
+    refresh();
+  }
+  
+  public void refresh() {
+    refreshRequested.set(false);
+    if (!refreshing.compareAndSet(false, true)) {
+      return;
+    }
+    YarnClientWrapper yarnClientWrapper = null;
     try {
-      return cache.get(appId);
-    } catch (Exception ex){
-      LOGGER.log(Level.WARNING, "Could not get Flink Master Address from Cache.", ex);
-      return null;
+      yarnClientWrapper = ycs.getYarnClientSuper();
+      List<ApplicationReport> reports =
+        yarnClientWrapper.getYarnClient().getApplications(FLINK_APPLICATION_TYPES, RUNNING);
+      Map<String, String> running = new HashMap<>();
+      for (ApplicationReport report : reports) {
+        //The master of an application whose AM is being restarted is not reachable until the new AM registers
+        if (report.getHost() == null || report.getHost().equals("N/A") || report.getRpcPort() <= 0) {
+          continue;
+        }
+        running.put(report.getApplicationId().toString(), report.getHost() + ":" + report.getRpcPort());
+      }
+      for (Map.Entry<String, String> entry : running.entrySet()) {
+        String previous = addresses.put(entry.getKey(), entry.getValue());
+        if (previous != null && !previous.equals(entry.getValue())) {
+          relocations.incrementAndGet();
+          LOGGER.log(Level.INFO, "Flink master of {0} moved from {1} to {2}",
+            new Object[]{entry.getKey(), previous, entry.getValue()});
+        }
+      }
+      addresses.keySet().retainAll(running.keySet());
+      lastRefresh = System.currentTimeMillis();
+    } catch (IOException | YarnException | RuntimeException ex) {
+      //Keep serving the addresses of the last refresh
+      LOGGER.log(Level.WARNING, "Could not refresh the Flink master addresses", ex);
+    } finally {
+      if (yarnClientWrapper != null) {
+        ycs.closeYarnClient(yarnClientWrapper);
+      }
+      refreshing.set(false);
     }
   }
-}
\ No newline at end of file
+  
+  public int size() {
+    return addresses.size();
+  }
+  
+  public long getRelocations() {
+    return relocations.get();
+  }
+  
+  public long getLastRefresh() {
+    return lastRefresh;
+  }
+}
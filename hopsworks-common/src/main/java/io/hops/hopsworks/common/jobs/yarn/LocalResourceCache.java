@@ -0,0 +1,134 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2021, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.common.jobs.yarn;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import io.hops.hopsworks.common.util.BoundedParallelism;
+import io.hops.hopsworks.common.util.Settings;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.EJB;
+import javax.ejb.Schedule;
+import javax.ejb.Singleton;
+import javax.ejb.Timer;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import javax.enterprise.concurrent.ManagedExecutorService;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static javax.ejb.ConcurrencyManagementType.BEAN;
+
+/**
+ * Size and modification time of the files localized by YARN applications, which YARN needs in the LocalResource of
+ * every file. The files of a job are stat'ed in parallel, and the status of the shared system files in the home
+ * directories of the service users (spark and flink jars, log4j configuration, etc.) is kept for a while as they are
+ * the same for every job and only change on upgrades.
+ */
+@ConcurrencyManagement(BEAN)
+@Singleton
+@TransactionAttribute(TransactionAttributeType.NEVER)
+public class LocalResourceCache {
+
+  private static final Logger LOGGER = Logger.getLogger(LocalResourceCache.class.getName());
+  private static final String SHARED_PREFIX = "/user/";
+
+  @EJB
+  private Settings settings;
+  @Resource(lookup = "concurrent/hopsExecutorService")
+  private ManagedExecutorService executorService;
+
+  private Cache<String, ResourceStatus> sharedResources;
+
+  @PostConstruct
+  public void init() {
+    sharedResources = CacheBuilder.newBuilder()
+      .maximumSize(settings.getYarnLocalizationCacheMaxSize())
+      .expireAfterWrite(settings.getYarnLocalizationCacheTTL(), TimeUnit.SECONDS)
+      .recordStats()
+      .build();
+  }
+
+  /**
+   * Get the status of the given files, in the same order.
+   *
+   * @param fs
+   * @param paths
+   * @return
+   * @throws IOException if one of the files does not exist or can not be accessed
+   */
+  public List<ResourceStatus> getStatus(FileSystem fs, List<Path> paths) throws IOException {
+    return BoundedParallelism.map(executorService, paths, settings.getYarnLocalizationStatParallelism(),
+      path -> getStatus(fs, path));
+  }
+
+  private ResourceStatus getStatus(FileSystem fs, Path path) throws IOException {
+    String key = path.toUri().getPath();
+    if (!isShared(key)) {
+      return new ResourceStatus(fs.getFileStatus(path));
+    }
+    ResourceStatus status = sharedResources.getIfPresent(key);
+    if (status == null) {
+      status = new ResourceStatus(fs.getFileStatus(path));
+      sharedResources.put(key, status);
+    }
+    return status;
+  }
+
+  private boolean isShared(String path) {
+    //Certificates are written per application in the home of the hdfs super user
+    return path.startsWith(SHARED_PREFIX) && !path.startsWith(settings.getHdfsTmpCertDir());
+  }
+
+  @Schedule(persistent = false, minute = "*/10", hour = "*")
+  public void logStats(Timer timer) {
+    CacheStats stats = sharedResources.stats();
+    LOGGER.log(Level.FINE, "Localization cache hit ratio {0} ({1} requests), {2} entries",
+      new Object[]{String.format("%.3f", stats.hitRate()), stats.requestCount(), sharedResources.size()});
+  }
+
+  public static class ResourceStatus {
+    private final long len;
+    private final long modificationTime;
+
+    public ResourceStatus(FileStatus fileStatus) {
+      this(fileStatus.getLen(), fileStatus.getModificationTime());
+    }
+
+    public ResourceStatus(long len, long modificationTime) {
+      this.len = len;
+      this.modificationTime = modificationTime;
+    }
+
+    public long getLen() {
+      return len;
+    }
+
+    public long getModificationTime() {
+      return modificationTime;
+    }
+  }
+}
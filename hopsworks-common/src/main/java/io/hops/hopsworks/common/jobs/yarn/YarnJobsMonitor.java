@@ -42,6 +42,7 @@ package io.hops.hopsworks.common.jobs.yarn;
 import io.hops.hopsworks.common.dao.jobhistory.ExecutionFacade;
 import io.hops.hopsworks.common.jobs.JobsMonitor;
 import io.hops.hopsworks.common.jobs.execution.ExecutionUpdateController;
+import io.hops.hopsworks.common.security.AuthorizationCache;
 import io.hops.hopsworks.common.util.Settings;
 import io.hops.hopsworks.common.yarn.YarnClientService;
 import io.hops.hopsworks.common.yarn.YarnClientWrapper;
@@ -87,6 +88,8 @@ public class YarnJobsMonitor implements JobsMonitor {
   private YarnExecutionFinalizer execFinalizer;
   @EJB
   private YarnClientService ycs;
+  @EJB
+  private AuthorizationCache authorizationCache;
 
   private int maxStatusPollRetry;
 
@@ -162,6 +165,7 @@ public class YarnJobsMonitor implements JobsMonitor {
           || appState == YarnApplicationState.KILLED)
           && !copyLogsFutures.containsKey(monitor.getApplicationId())) {
         
+        authorizationCache.invalidateApplication(exec.getAppId());
         exec = executionFacade.updateState(exec, JobState.AGGREGATING_LOGS);
         // Async call
         Future<Execution> futureResult = execFinalizer.copyLogs(exec);
@@ -393,29 +393,32 @@ public class YarnRunner {
     String basePath = hdfsPrefix + localResourcesBasePath;
     logger.log(Level.FINER, "Base path: {0}", basePath);
     //For all local resources with hdfs path: add local resource
-    for (Entry<String, LocalResourceDTO> entry : amLocalResourcesOnHDFS.
-        entrySet()) {
+    List<Entry<String, LocalResourceDTO>> entries = new ArrayList<>(amLocalResourcesOnHDFS.entrySet());
+    List<Path> srcs = new ArrayList<>(entries.size());
+    for (Entry<String, LocalResourceDTO> entry : entries) {
       logger.log(Level.FINE, "LocalResourceDTO to upload is :{0}", entry.
           toString());
-      String key = entry.getKey();
       String pathToResource = entry.getValue().getPath();
       pathToResource = pathToResource.replaceFirst("hdfs:/*Projects",
           "hdfs:///Projects");
       pathToResource = pathToResource.replaceFirst("hdfs:/*user",
           "hdfs:///user");
-      Path src = new Path(pathToResource);
-      FileStatus scFileStat = fs.getFileStatus(src);
+      srcs.add(new Path(pathToResource));
+    }
+    //Stat all the resources at once, the status of shared files is cached
+    List<LocalResourceCache.ResourceStatus> stats = services.getLocalResourceCache().getStatus(fs, srcs);
+    for (int i = 0; i < entries.size(); i++) {
+      LocalResourceDTO dto = entries.get(i).getValue();
       LocalResource scRsrc = LocalResource.newInstance(ConverterUtils.
-          getYarnUrlFromPath(src),
+          getYarnUrlFromPath(srcs.get(i)),
           LocalResourceType.
-              valueOf(entry.getValue().getType().toUpperCase()),
-          LocalResourceVisibility.valueOf(entry.getValue().getVisibility().
+              valueOf(dto.getType().toUpperCase()),
+          LocalResourceVisibility.valueOf(dto.getVisibility().
               toUpperCase()),
-          scFileStat.getLen(),
-          scFileStat.getModificationTime(),
-          entry.getValue().getPattern());
-      localResources.put(key, scRsrc);
-
+          stats.get(i).getLen(),
+          stats.get(i).getModificationTime(),
+          dto.getPattern());
+      localResources.put(entries.get(i).getKey(), scRsrc);
     }
     //For Spark 2.0, loop through local resources and add their properties
     //as system properties (javaOptions)
@@ -53,6 +53,7 @@ import io.hops.hopsworks.common.dao.kafka.SharedTopicsFacade;
 import io.hops.hopsworks.common.dao.kafka.TopicAclsFacade;
 import io.hops.hopsworks.common.dao.kafka.TopicDTO;
 import io.hops.hopsworks.common.dao.kafka.TopicDefaultValueDTO;
+import io.hops.hopsworks.common.dao.kafka.TopicLagDTO;
 import io.hops.hopsworks.common.dao.kafka.schemas.SubjectDTO;
 import io.hops.hopsworks.common.dao.kafka.schemas.SubjectsFacade;
 import io.hops.hopsworks.common.dao.project.ProjectFacade;
@@ -132,6 +133,8 @@ public class KafkaController {
   private ProjectController projectController;
   @EJB
   private KafkaBrokers kafkaBrokers;
+  @EJB
+  private KafkaLagCollector kafkaLagCollector;
   
   public void createTopic(Project project, TopicDTO topicDto) throws KafkaException,
     ProjectException, UserException {
@@ -306,6 +309,13 @@ public class KafkaController {
     return getTopicDetailsFromKafkaCluster(topicName);
   }
   
+  public TopicLagDTO getTopicLag(Project project, String topicName) throws KafkaException {
+    projectTopicsFacade.findTopicByNameAndProject(project, topicName).orElseThrow(() ->
+      new KafkaException(RESTCodes.KafkaErrorCode.TOPIC_NOT_FOUND, Level.FINE, "topic: " + topicName)
+    );
+    return kafkaLagCollector.getLag(topicName);
+  }
+  
   public SharedTopicsDTO shareTopicWithProject(Project project, String topicName, Integer destProjectId) throws
     ProjectException, KafkaException, UserException {
     
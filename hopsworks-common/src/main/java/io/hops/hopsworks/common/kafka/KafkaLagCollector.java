@@ -0,0 +1,315 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2021, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.common.kafka;
+
+import io.hops.hopsworks.common.dao.kafka.ConsumerGroupLagDTO;
+import io.hops.hopsworks.common.dao.kafka.HopsKafkaAdminClient;
+import io.hops.hopsworks.common.dao.kafka.PartitionLagDTO;
+import io.hops.hopsworks.common.dao.kafka.ProjectTopicsFacade;
+import io.hops.hopsworks.common.dao.kafka.TopicLagDTO;
+import io.hops.hopsworks.persistence.entity.kafka.ProjectTopics;
+import org.apache.kafka.clients.admin.ConsumerGroupListing;
+import org.apache.kafka.clients.admin.TopicDescription;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.KafkaFuture;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.TopicPartitionInfo;
+
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.EJB;
+import javax.ejb.Schedule;
+import javax.ejb.Singleton;
+import javax.ejb.Timer;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static javax.ejb.ConcurrencyManagementType.BEAN;
+
+/**
+ * Periodically collects the end offsets of the partitions of all project topics and the offsets committed to them
+ * by every consumer group, so that the lag of a consumer group and the produce and consume rates of a topic can be
+ * served from memory instead of asking the brokers on every request. Rates are computed from the difference
+ * between two consecutive collections.
+ */
+@ConcurrencyManagement(BEAN)
+@Singleton
+@TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+public class KafkaLagCollector {
+
+  private static final Logger LOGGER = Logger.getLogger(KafkaLagCollector.class.getName());
+  private static final Duration TIMEOUT = Duration.ofSeconds(10);
+  private static final Comparator<TopicPartition> PARTITION_ORDER =
+    Comparator.comparing(TopicPartition::topic).thenComparingInt(TopicPartition::partition);
+
+  @EJB
+  private ProjectTopicsFacade projectTopicsFacade;
+  @EJB
+  private HopsKafkaAdminClient hopsKafkaAdminClient;
+
+  private final AtomicBoolean collecting = new AtomicBoolean(false);
+  private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+  @Schedule(persistent = false, second = "*/30", minute = "*", hour = "*")
+  public void collect(Timer timer) {
+    if (!collecting.compareAndSet(false, true)) {
+      LOGGER.log(Level.FINE, "Previous collection of Kafka consumer lag is still running");
+      return;
+    }
+    try {
+      Map<String, String> owners = new HashMap<>();
+      for (ProjectTopics projectTopic : projectTopicsFacade.findAll()) {
+        owners.put(projectTopic.getTopicName(), projectTopic.getProject().getName());
+      }
+      if (owners.isEmpty()) {
+        snapshot = Snapshot.EMPTY;
+        return;
+      }
+      List<TopicPartition> partitions = partitions(owners.keySet());
+      Map<TopicPartition, Long> endOffsets = partitions.isEmpty() ? Collections.emptyMap() :
+        hopsKafkaAdminClient.endOffsets(partitions, TIMEOUT);
+      snapshot = snapshot.next(System.currentTimeMillis(), owners, endOffsets, committedOffsets(endOffsets));
+    } catch (Exception e) {
+      LOGGER.log(Level.WARNING, "Could not collect Kafka consumer lag", e);
+    } finally {
+      collecting.set(false);
+    }
+  }
+
+  private List<TopicPartition> partitions(Collection<String> topics) {
+    List<TopicPartition> partitions = new ArrayList<>();
+    for (Map.Entry<String, KafkaFuture<TopicDescription>> topic :
+      hopsKafkaAdminClient.describeTopics(topics).values().entrySet()) {
+      try {
+        for (TopicPartitionInfo partition : topic.getValue().get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)
+          .partitions()) {
+          partitions.add(new TopicPartition(topic.getKey(), partition.partition()));
+        }
+      } catch (Exception e) {
+        //The topic may be in the database but not in Kafka yet, or be being deleted
+        LOGGER.log(Level.FINE, "Could not describe topic " + topic.getKey(), e);
+      }
+    }
+    return partitions;
+  }
+
+  /**
+   * The offsets of all consumer groups are requested before waiting for any of them, so a collection costs one
+   * round trip to the group coordinators rather than one per group.
+   */
+  private Map<String, Map<TopicPartition, Long>> committedOffsets(Map<TopicPartition, Long> endOffsets)
+    throws Exception {
+    Map<String, KafkaFuture<Map<TopicPartition, OffsetAndMetadata>>> requests = new HashMap<>();
+    for (ConsumerGroupListing group : hopsKafkaAdminClient.listConsumerGroups().all()
+      .get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)) {
+      requests.put(group.groupId(),
+        hopsKafkaAdminClient.listConsumerGroupOffsets(group.groupId()).partitionsToOffsetAndMetadata());
+    }
+    Map<String, Map<TopicPartition, Long>> committed = new HashMap<>();
+    for (Map.Entry<String, KafkaFuture<Map<TopicPartition, OffsetAndMetadata>>> request : requests.entrySet()) {
+      Map<TopicPartition, OffsetAndMetadata> offsets;
+      try {
+        offsets = request.getValue().get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+      } catch (Exception e) {
+        LOGGER.log(Level.FINE, "Could not list offsets of consumer group " + request.getKey(), e);
+        continue;
+      }
+      Map<TopicPartition, Long> groupOffsets = new HashMap<>();
+      for (Map.Entry<TopicPartition, OffsetAndMetadata> offset : offsets.entrySet()) {
+        //Only the partitions of project topics
+        if (offset.getValue() != null && endOffsets.containsKey(offset.getKey())) {
+          groupOffsets.put(offset.getKey(), offset.getValue().offset());
+        }
+      }
+      if (!groupOffsets.isEmpty()) {
+        committed.put(request.getKey(), groupOffsets);
+      }
+    }
+    return committed;
+  }
+
+  /**
+   * @param topic
+   * @return lag of every consumer group of the topic as of the last collection
+   */
+  public TopicLagDTO getLag(String topic) {
+    return snapshot.toDTO(topic);
+  }
+
+  /**
+   * @return lag and rates of all project topics in the Prometheus text exposition format
+   */
+  public String toPrometheus() {
+    return snapshot.toPrometheus();
+  }
+
+  /**
+   * Immutable result of one collection.
+   */
+  static class Snapshot {
+    static final Snapshot EMPTY = new Snapshot(0, Collections.emptyMap(), Collections.emptyMap(),
+      Collections.emptyMap(), Collections.emptyMap(), Collections.emptyMap());
+
+    private final long timestamp;
+    //topic -> name of the project owning the topic
+    private final Map<String, String> owners;
+    private final Map<TopicPartition, Long> endOffsets;
+    //group -> committed offset of every partition the group consumes
+    private final Map<String, Map<TopicPartition, Long>> committed;
+    //topic -> messages per second
+    private final Map<String, Double> produceRates;
+    //group -> topic -> messages per second
+    private final Map<String, Map<String, Double>> consumeRates;
+
+    private Snapshot(long timestamp, Map<String, String> owners, Map<TopicPartition, Long> endOffsets,
+      Map<String, Map<TopicPartition, Long>> committed, Map<String, Double> produceRates,
+      Map<String, Map<String, Double>> consumeRates) {
+      this.timestamp = timestamp;
+      this.owners = owners;
+      this.endOffsets = endOffsets;
+      this.committed = committed;
+      this.produceRates = produceRates;
+      this.consumeRates = consumeRates;
+    }
+
+    Snapshot next(long now, Map<String, String> owners, Map<TopicPartition, Long> endOffsets,
+      Map<String, Map<TopicPartition, Long>> committed) {
+      Map<String, Double> produceRates = new HashMap<>();
+      Map<String, Map<String, Double>> consumeRates = new HashMap<>();
+      if (timestamp > 0 && now > timestamp) {
+        double seconds = (now - timestamp) / 1000.0;
+        produceRates = rates(this.endOffsets, endOffsets, seconds);
+        for (Map.Entry<String, Map<TopicPartition, Long>> group : committed.entrySet()) {
+          Map<TopicPartition, Long> previous = this.committed.get(group.getKey());
+          if (previous != null) {
+            consumeRates.put(group.getKey(), rates(previous, group.getValue(), seconds));
+          }
+        }
+      }
+      return new Snapshot(now, owners, endOffsets, committed, produceRates, consumeRates);
+    }
+
+    /**
+     * Per topic rate of the offsets present in both collections. Offsets going backwards, as when a topic is
+     * recreated or a group resets its offsets, count as no progress.
+     */
+    private static Map<String, Double> rates(Map<TopicPartition, Long> previous, Map<TopicPartition, Long> current,
+      double seconds) {
+      Map<String, Double> rates = new HashMap<>();
+      for (Map.Entry<TopicPartition, Long> offset : current.entrySet()) {
+        Long previousOffset = previous.get(offset.getKey());
+        if (previousOffset != null) {
+          rates.merge(offset.getKey().topic(), Math.max(0, offset.getValue() - previousOffset) / seconds,
+            Double::sum);
+        }
+      }
+      return rates;
+    }
+
+    TopicLagDTO toDTO(String topic) {
+      if (!owners.containsKey(topic)) {
+        return new TopicLagDTO(topic, null);
+      }
+      TopicLagDTO dto = new TopicLagDTO(topic, timestamp);
+      long endOffset = 0;
+      for (Map.Entry<TopicPartition, Long> offset : endOffsets.entrySet()) {
+        if (offset.getKey().topic().equals(topic)) {
+          endOffset += offset.getValue();
+        }
+      }
+      dto.setEndOffset(endOffset);
+      dto.setProduceRate(produceRates.get(topic));
+      for (Map.Entry<String, Map<TopicPartition, Long>> group : new TreeMap<>(committed).entrySet()) {
+        ConsumerGroupLagDTO groupDTO = new ConsumerGroupLagDTO(group.getKey());
+        long lag = 0;
+        for (TopicPartition partition : sorted(group.getValue().keySet())) {
+          if (partition.topic().equals(topic)) {
+            PartitionLagDTO partitionDTO = new PartitionLagDTO(partition.partition(), endOffsets.get(partition),
+              group.getValue().get(partition));
+            lag += partitionDTO.getLag();
+            groupDTO.getPartitions().add(partitionDTO);
+          }
+        }
+        if (!groupDTO.getPartitions().isEmpty()) {
+          groupDTO.setLag(lag);
+          groupDTO.setConsumeRate(consumeRates.getOrDefault(group.getKey(), Collections.emptyMap()).get(topic));
+          dto.getConsumerGroups().add(groupDTO);
+        }
+      }
+      return dto;
+    }
+
+    String toPrometheus() {
+      StringBuilder metrics = new StringBuilder();
+      metrics.append("# HELP hopsworks_kafka_consumer_lag Messages of a partition not yet committed by a consumer"
+        + " group\n# TYPE hopsworks_kafka_consumer_lag gauge\n");
+      for (Map.Entry<String, Map<TopicPartition, Long>> group : new TreeMap<>(committed).entrySet()) {
+        for (TopicPartition partition : sorted(group.getValue().keySet())) {
+          metrics.append("hopsworks_kafka_consumer_lag{project=\"").append(escape(owners.get(partition.topic())))
+            .append("\",topic=\"").append(escape(partition.topic()))
+            .append("\",group=\"").append(escape(group.getKey()))
+            .append("\",partition=\"").append(partition.partition())
+            .append("\"} ").append(Math.max(0, endOffsets.get(partition) - group.getValue().get(partition)))
+            .append('\n');
+        }
+      }
+      metrics.append("# HELP hopsworks_kafka_topic_produce_rate Messages per second produced to a topic\n"
+        + "# TYPE hopsworks_kafka_topic_produce_rate gauge\n");
+      for (Map.Entry<String, Double> rate : new TreeMap<>(produceRates).entrySet()) {
+        metrics.append("hopsworks_kafka_topic_produce_rate{project=\"").append(escape(owners.get(rate.getKey())))
+          .append("\",topic=\"").append(escape(rate.getKey()))
+          .append("\"} ").append(rate.getValue()).append('\n');
+      }
+      metrics.append("# HELP hopsworks_kafka_consumer_consume_rate Messages per second committed by a consumer"
+        + " group on a topic\n# TYPE hopsworks_kafka_consumer_consume_rate gauge\n");
+      for (Map.Entry<String, Map<String, Double>> group : new TreeMap<>(consumeRates).entrySet()) {
+        for (Map.Entry<String, Double> rate : new TreeMap<>(group.getValue()).entrySet()) {
+          metrics.append("hopsworks_kafka_consumer_consume_rate{project=\"")
+            .append(escape(owners.get(rate.getKey())))
+            .append("\",topic=\"").append(escape(rate.getKey()))
+            .append("\",group=\"").append(escape(group.getKey()))
+            .append("\"} ").append(rate.getValue()).append('\n');
+        }
+      }
+      return metrics.toString();
+    }
+
+    private static List<TopicPartition> sorted(Collection<TopicPartition> partitions) {
+      List<TopicPartition> sorted = new ArrayList<>(partitions);
+      sorted.sort(PARTITION_ORDER);
+      return sorted;
+    }
+
+    private static String escape(String label) {
+      if (label == null) {
+        return "";
+      }
+      return label.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+  }
+}
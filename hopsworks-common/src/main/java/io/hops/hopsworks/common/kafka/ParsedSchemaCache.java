@@ -0,0 +1,111 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2021, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.common.kafka;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.hops.hopsworks.common.util.Settings;
+import io.hops.hopsworks.persistence.entity.kafka.schemas.Schemas;
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaNormalization;
+
+import javax.annotation.PostConstruct;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.EJB;
+import javax.ejb.Singleton;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+
+import static javax.ejb.ConcurrencyManagementType.BEAN;
+
+/**
+ * Parsed Avro schemas of the schema registry, keyed by schema id, so that compatibility checks do not parse the
+ * previous versions of a subject every time. Registered schemas are never modified, an entry is only used if the
+ * text it was parsed from is still the text of the schema.
+ */
+@ConcurrencyManagement(BEAN)
+@Singleton
+@TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+public class ParsedSchemaCache {
+
+  @EJB
+  private Settings settings;
+
+  private Cache<Integer, CachedSchema> schemas;
+
+  @PostConstruct
+  public void init() {
+    schemas = CacheBuilder.newBuilder()
+      .maximumSize(settings.getKafkaSchemaCacheSize())
+      .build();
+  }
+
+  public Schema parse(Schemas schemas) {
+    return get(schemas).parsed();
+  }
+
+  /**
+   * @param schemas
+   * @return fingerprint of the schema, computed once per schema
+   */
+  public long fingerprint(Schemas schemas) {
+    return get(schemas).fingerprint();
+  }
+
+  /**
+   * Fingerprint of the Parsing Canonical Form of a schema, so that schemas that only differ in whitespace, field
+   * attribute order or documentation have the same fingerprint.
+   *
+   * @param schema
+   * @return 64-bit Rabin fingerprint of the canonical form
+   */
+  public static long parsingFingerprint(Schema schema) {
+    return SchemaNormalization.parsingFingerprint64(schema);
+  }
+
+  private CachedSchema get(Schemas schemas) {
+    CachedSchema cached = this.schemas.getIfPresent(schemas.getId());
+    if (cached == null || !cached.text.equals(schemas.getSchema())) {
+      cached = new CachedSchema(schemas.getSchema());
+      this.schemas.put(schemas.getId(), cached);
+    }
+    return cached;
+  }
+
+  private static class CachedSchema {
+    private final String text;
+    private volatile Schema parsed;
+    private volatile Long fingerprint;
+
+    private CachedSchema(String text) {
+      this.text = text;
+    }
+
+    private Schema parsed() {
+      if (parsed == null) {
+        parsed = new Schema.Parser().parse(text);
+      }
+      return parsed;
+    }
+
+    private long fingerprint() {
+      if (fingerprint == null) {
+        fingerprint = parsingFingerprint(parsed());
+      }
+      return fingerprint;
+    }
+  }
+}
@@ -62,6 +62,8 @@ public class SubjectsController {
   private SchemasController schemasController;
   @EJB
   private ProjectTopicsFacade projectTopicsFacade;
+  @EJB
+  private ParsedSchemaCache parsedSchemaCache;
   
   public List<String> getSubjects(Project project) {
     return subjectsFacade.getListOfSubjects(project);
@@ -117,19 +119,19 @@ public class SubjectsController {
       throw new SchemaException(RESTCodes.SchemaRegistryErrorCode.INVALID_AVRO_SCHEMA, Level.FINE,
         "schema=" + schemaContent);
     }
+    List<Subjects> versions = subjectsFacade.findSubjectByNameWithSchema(project, subject);
     //check if schema exists - return current id
-    Optional<Subjects> optionalSubject =
-      subjectsFacade.findSubjectByNameAndSchema(project, subject, schema.toString());
+    Optional<Subjects> optionalSubject = findRegisteredSchema(versions, schema);
     if (optionalSubject.isPresent()) {
       Subjects subjects = optionalSubject.get();
       return new SubjectDTO(subjects.getSchema().getId(), subjects.getSubject(), subjects.getVersion());
     }
     //check if schema compatible - return 409 of not
-    if(!isCompatible(project, subject, schema)) {
+    if(!isCompatible(project, subject, schema, versions)) {
       throw new SchemaException(RESTCodes.SchemaRegistryErrorCode.INCOMPATIBLE_AVRO_SCHEMA, Level.FINE,
         "Subject=" + subject + ", project=" + project.getName());
     }
-    Integer latestVersion = subjectsFacade.findSubjectByName(project, subject)
+    Integer latestVersion = versions
       .stream()
       .map(Subjects::getVersion)
       .max(Integer::compareTo)
@@ -154,19 +156,33 @@ public class SubjectsController {
     }
   }
   
-  private boolean isCompatible(Project project, String subject, Schema schema) throws SchemaException {
+  /**
+   * Find the version of the subject the schema is registered as. The canonical form fingerprints, cached with the
+   * parsed registered schemas, rule out the versions that differ, the remaining ones are compared in full.
+   */
+  private Optional<Subjects> findRegisteredSchema(List<Subjects> versions, Schema schema) {
+    long fingerprint = ParsedSchemaCache.parsingFingerprint(schema);
+    return versions.stream()
+      .filter(s -> parsedSchemaCache.fingerprint(s.getSchema()) == fingerprint
+        && parsedSchemaCache.parse(s.getSchema()).equals(schema))
+      .findFirst();
+  }
+  
+  private boolean isCompatible(Project project, String subject, Schema schema, List<Subjects> versions)
+    throws SchemaException {
     SchemaCompatibility sc = getSubjectOrProjectCompatibility(project, subject);
-    if (sc.equals(SchemaCompatibility.NONE)) {
+    if (sc.equals(SchemaCompatibility.NONE) || versions.isEmpty()) {
       return true;
     }
     SchemaValidator validator = getSchemaValidator(sc);
-    List<Schema> previousSchemas = subjectsFacade.findSubjectByName(project, subject)
+    //Non transitive levels are only checked against the latest version
+    List<Schema> previousSchemas = versions
       .stream()
       .sorted(Comparator.comparing(Subjects::getVersion).reversed())
-      .map(s -> new Schema.Parser().parse(s.getSchema().getSchema()))
+      .limit(isTransitive(sc) ? versions.size() : 1)
+      .map(s -> parsedSchemaCache.parse(s.getSchema()))
       .collect(Collectors.toList());
     try {
-      
       validator.validate(schema, previousSchemas);
     } catch (SchemaValidationException e) {
       return false;
@@ -201,12 +217,17 @@ public class SubjectsController {
     }
   }
   
+  private boolean isTransitive(SchemaCompatibility sc) {
+    return sc == SchemaCompatibility.BACKWARD_TRANSITIVE || sc == SchemaCompatibility.FORWARD_TRANSITIVE
+      || sc == SchemaCompatibility.FULL_TRANSITIVE;
+  }
+  
   private SchemaValidator getSchemaValidator(SchemaCompatibility sc) {
     switch(sc) {
       case BACKWARD:
         return new SchemaValidatorBuilder().canReadStrategy().validateLatest();
       case BACKWARD_TRANSITIVE:
-        new SchemaValidatorBuilder().canReadStrategy().validateAll();
+        return new SchemaValidatorBuilder().canReadStrategy().validateAll();
       case FORWARD:
         return new SchemaValidatorBuilder().canBeReadStrategy().validateLatest();
       case FORWARD_TRANSITIVE:
@@ -233,7 +254,8 @@ public class SubjectsController {
       throw new SchemaException(RESTCodes.SchemaRegistryErrorCode.INVALID_AVRO_SCHEMA, Level.FINE,
         "schema=" + schemaContent);
     }
-    Optional<Subjects> optional = subjectsFacade.findSubjectByNameAndSchema(project, subject, schema.toString());
+    Optional<Subjects> optional =
+      findRegisteredSchema(subjectsFacade.findSubjectByNameWithSchema(project, subject), schema);
     if (!optional.isPresent()) {
       throw new SchemaException(RESTCodes.SchemaRegistryErrorCode.SCHEMA_NOT_FOUND, Level.FINE,
         "schema=" + schema.toString());
@@ -288,7 +310,7 @@ public class SubjectsController {
         .getName() + ", subject=" + subject + ", version=" + version);
     }
     
-    boolean isCompatible = isCompatible(new Schema.Parser().parse(optional.get().getSchema().getSchema()), schema, sc);
+    boolean isCompatible = isCompatible(parsedSchemaCache.parse(optional.get().getSchema()), schema, sc);
     return new CompatibilityCheck(isCompatible);
   }
   
@@ -50,6 +50,7 @@ import io.hops.hopsworks.common.airflow.AirflowManager;
 import io.hops.hopsworks.common.alert.AlertController;
 import io.hops.hopsworks.common.constants.auth.AllowedRoles;
 import io.hops.hopsworks.common.dao.certificates.CertsFacade;
+import io.hops.hopsworks.common.dao.dataset.DatasetFacade;
 import io.hops.hopsworks.common.dao.dataset.DatasetSharedWithFacade;
 import io.hops.hopsworks.common.dao.hdfs.HdfsDirectoryWithQuotaFeatureFacade;
 import io.hops.hopsworks.common.dao.hdfs.inode.InodeFacade;
@@ -69,6 +70,7 @@ import io.hops.hopsworks.common.dao.user.UserFacade;
 import io.hops.hopsworks.common.dao.user.activity.ActivityFacade;
 import io.hops.hopsworks.common.dataset.DatasetController;
 import io.hops.hopsworks.common.dataset.FolderNameValidator;
+import io.hops.hopsworks.common.dataset.acl.PermissionsCleaner;
 import io.hops.hopsworks.common.elastic.ElasticController;
 import io.hops.hopsworks.common.experiments.tensorboard.TensorBoardController;
 import io.hops.hopsworks.common.featurestore.FeaturestoreController;
@@ -89,9 +91,11 @@ import io.hops.hopsworks.common.kafka.SubjectsCompatibilityController;
 import io.hops.hopsworks.common.kafka.SubjectsController;
 import io.hops.hopsworks.common.message.MessageController;
 import io.hops.hopsworks.common.provenance.core.HopsFSProvenanceController;
+import io.hops.hopsworks.common.provenance.core.ProvIndexController;
 import io.hops.hopsworks.common.provenance.core.Provenance;
 import io.hops.hopsworks.common.provenance.core.dto.ProvTypeDTO;
 import io.hops.hopsworks.common.python.environment.EnvironmentController;
+import io.hops.hopsworks.common.security.AuthorizationCache;
 import io.hops.hopsworks.common.security.CertificateMaterializer;
 import io.hops.hopsworks.common.security.CertificatesController;
 import io.hops.hopsworks.common.serving.ServingController;
@@ -100,10 +104,10 @@ import io.hops.hopsworks.common.user.UsersController;
 import io.hops.hopsworks.common.util.DateUtils;
 import io.hops.hopsworks.common.util.ProjectUtils;
 import io.hops.hopsworks.common.util.Settings;
+import io.hops.hopsworks.common.util.TaskGraph;
 import io.hops.hopsworks.common.yarn.YarnClientService;
 import io.hops.hopsworks.common.yarn.YarnClientWrapper;
 import io.hops.hopsworks.exceptions.AlertException;
-import io.hops.hopsworks.exceptions.CryptoPasswordNotFoundException;
 import io.hops.hopsworks.exceptions.DatasetException;
 import io.hops.hopsworks.exceptions.ElasticException;
 import io.hops.hopsworks.exceptions.FeaturestoreException;
@@ -165,11 +169,15 @@ import org.apache.hadoop.yarn.client.api.YarnClient;
 import org.apache.hadoop.yarn.conf.YarnConfiguration;
 import org.apache.hadoop.yarn.exceptions.YarnException;
 
+import javax.annotation.Resource;
+import javax.ejb.AsyncResult;
+import javax.ejb.Asynchronous;
 import javax.ejb.EJB;
 import javax.ejb.EJBException;
 import javax.ejb.Stateless;
 import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
+import javax.enterprise.concurrent.ManagedExecutorService;
 import javax.enterprise.inject.Any;
 import javax.enterprise.inject.Instance;
 import javax.inject.Inject;
@@ -184,14 +192,17 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
@@ -263,10 +274,20 @@ public class ProjectController {
   @EJB
   private CertificatesController certificatesController;
   @EJB
+  private AuthorizationCache authorizationCache;
+  @EJB
+  private PermissionsCleaner permissionsCleaner;
+  @EJB
+  private ProjectCreationTracker projectCreationTracker;
+  @Resource(lookup = "concurrent/hopsExecutorService")
+  private ManagedExecutorService executorService;
+  @EJB
   private MessageController messageController;
   @EJB
   private HdfsDirectoryWithQuotaFeatureFacade hdfsDirectoryWithQuotaFeatureFacade;
   @EJB
+  private DatasetFacade datasetFacade;
+  @EJB
   private FeaturestoreController featurestoreController;
   @EJB
   private OnlineFeaturestoreController onlineFeaturestoreController;
@@ -296,6 +317,8 @@ public class ProjectController {
   @EJB
   private HopsFSProvenanceController fsProvController;
   @EJB
+  private ProvIndexController provIndexController;
+  @EJB
   private AlertController alertController;
 
   /**
@@ -315,8 +338,46 @@ public class ProjectController {
   public Project createProject(ProjectDTO projectDTO, Users owner, String sessionId) throws DatasetException,
     GenericException, KafkaException, ProjectException, UserException, HopsSecurityException, ServiceException,
     FeaturestoreException, ElasticException, SchemaException, IOException {
+    return createProject(projectDTO, owner, sessionId,
+      projectCreationTracker.start(projectDTO.getProjectName(), owner.getUsername()));
+  }
+
+  /**
+   * Creates a new project in the background. The progress of the creation is available through
+   * {@link ProjectCreationTracker#getStatus(String, String)}
+   *
+   * @param projectDTO
+   * @param owner
+   * @param sessionId
+   * @param progress progress of the creation, registered by the caller before returning to the client
+   * @return
+   */
+  @Asynchronous
+  public Future<Project> createProjectAsync(ProjectDTO projectDTO, Users owner, String sessionId,
+    ProjectCreationTracker.Progress progress) throws DatasetException, GenericException, KafkaException,
+    ProjectException, UserException, HopsSecurityException, ServiceException, FeaturestoreException, ElasticException,
+    SchemaException, IOException {
+    return new AsyncResult<>(createProject(projectDTO, owner, sessionId, progress));
+  }
+
+  private Project createProject(ProjectDTO projectDTO, Users owner, String sessionId,
+    ProjectCreationTracker.Progress progress) throws DatasetException, GenericException, KafkaException,
+    ProjectException, UserException, HopsSecurityException, ServiceException, FeaturestoreException, ElasticException,
+    SchemaException, IOException {
+    try {
+      Project project = createProjectInt(projectDTO, owner, sessionId, progress);
+      progress.finish();
+      return project;
+    } catch (Exception e) {
+      progress.fail(e);
+      throw e;
+    }
+  }
 
-    Long startTime = System.currentTimeMillis();
+  private Project createProjectInt(ProjectDTO projectDTO, Users owner, String sessionId,
+    ProjectCreationTracker.Progress progress) throws DatasetException, GenericException, KafkaException,
+    ProjectException, UserException, HopsSecurityException, ServiceException, FeaturestoreException, ElasticException,
+    SchemaException, IOException {
 
     //check that the project name is ok
     String projectName = projectDTO.getProjectName();
@@ -329,7 +390,6 @@ public class ProjectController {
         projectServices.add(se);
       }
     }
-    LOGGER.log(Level.FINE, () -> "PROJECT CREATION TIME. Step 1: " + (System.currentTimeMillis() - startTime));
 
     DistributedFileSystemOps dfso = null;
     Project project = null;
@@ -343,6 +403,8 @@ public class ProjectController {
        * with the same name
        * until this project is removed from the database
        */
+      long stepStart = System.currentTimeMillis();
+      progress.started("database");
       try {
         project = createProject(projectName, owner, projectDTO.getDescription(), dfso);
       } catch (EJBException ex) {
@@ -356,11 +418,13 @@ public class ProjectController {
         throw new ProjectException(RESTCodes.ProjectErrorCode.PROJECT_EXISTS, Level.SEVERE, "project: " + projectName,
           ex.getMessage(), ex);
       }
-      LOGGER.log(Level.FINE, "PROJECT CREATION TIME. Step 2 (hdfs): {0}", System.currentTimeMillis() - startTime);
+      progress.setProjectId(project.getId());
+      progress.finished("database", System.currentTimeMillis() - stepStart);
 
+      stepStart = System.currentTimeMillis();
+      progress.started("verify");
       verifyProject(project, dfso, sessionId);
-
-      LOGGER.log(Level.FINE, "PROJECT CREATION TIME. Step 3 (verify): {0}", System.currentTimeMillis() - startTime);
+      progress.finished("verify", System.currentTimeMillis() - stepStart);
 
       // Run the handlers.
       for (ProjectHandler projectHandler : projectHandlers) {
@@ -373,97 +437,149 @@ public class ProjectController {
         }
       }
 
-      List<Future<?>> projectCreationFutures = new ArrayList<>();
+      String username = hdfsUsersController.getHdfsUserName(project, owner);
+      if (username == null || username.isEmpty()) {
+        cleanup(project, sessionId, null, true, owner);
+        throw new UserException(RESTCodes.UserErrorCode.USER_WAS_NOT_FOUND, Level.SEVERE,
+          "project: " + project.getName() + "owner: " + owner.getUsername());
+      }
 
-      //create certificate for this user
-      // User's certificates should be created before making any call to
-      // Hadoop clients. Otherwise the client will fail if RPC TLS is enabled
-      // This is an async call
+      List<Future<?>> projectCreationFutures = Collections.synchronizedList(new ArrayList<>());
+      AtomicReference<Project> result = new AtomicReference<>(project);
+      TaskGraph steps = buildCreationSteps(project, owner, projectServices, dfso, projectCreationFutures, result);
+      try {
+        steps.execute(executorService, progress);
+      } catch (Exception ex) {
+        if (ex.getSuppressed().length > 0) {
+          // a step could not be compensated, cleanup is able to remove a project in any intermediate state
+          cleanup(project, sessionId, projectCreationFutures, true, owner);
+        } else {
+          removeCompensatedProject(project, dfso);
+        }
+        throwCreationFailure(ex);
+      }
+      return result.get();
+    } finally {
+      if (dfso != null) {
+        dfso.close();
+      }
+    }
+  }
+
+  /**
+   * Provisioning steps of a new project and their dependencies. Steps that only depend on the project being in the
+   * database (certificates, elastic cleanup) run in parallel with the HopsFS setup. The services are enabled one
+   * after the other as they check each other's state, and the python environment is created last as both merge the
+   * project entity.
+   *
+   * Every step that changes something outside of the project folder has a compensation that undoes it. The project
+   * folder and the project itself are removed by {@link #removeCompensatedProject} once the steps are compensated.
+   */
+  private TaskGraph buildCreationSteps(Project project, Users owner, List<ProjectServiceEnum> projectServices,
+    DistributedFileSystemOps dfso, List<Future<?>> projectCreationFutures, AtomicReference<Project> result) {
+    String projectName = project.getName();
+    ProvTypeDTO provType = settings.getProvType().dto;
+    TaskGraph steps = new TaskGraph();
+    //create certificate for this user
+    // User's certificates should be created before making any call to
+    // Hadoop clients. Otherwise the client will fail if RPC TLS is enabled
+    // This is an async call
+    steps.add("certificates", () -> {
       try {
         projectCreationFutures.add(certificatesController.generateCertificates(project, owner));
       } catch (Exception ex) {
-        cleanup(project, sessionId, projectCreationFutures, true, owner);
         throw new HopsSecurityException(RESTCodes.SecurityErrorCode.CERT_CREATION_ERROR, Level.SEVERE,
           "project: " + project.getName() +
             "owner: " + owner.getUsername(), ex.getMessage(), ex);
       }
-
-      String username = hdfsUsersController.getHdfsUserName(project, owner);
-      if (username == null || username.isEmpty()) {
-        cleanup(project, sessionId, projectCreationFutures, true, owner);
-        throw new UserException(RESTCodes.UserErrorCode.USER_WAS_NOT_FOUND, Level.SEVERE,
-          "project: " + project.getName() + "owner: " + owner.getUsername());
-      }
-
-      LOGGER.log(Level.FINE, "PROJECT CREATION TIME. Step 4 (certs): {0}", System.currentTimeMillis() - startTime);
-
-      //all the verifications have passed, we can now create the project
-      //create the project folder
-      ProvTypeDTO provType = settings.getProvType().dto;
+    }, () -> {
+      // the certificates of the service users are generated by the services step, wait for all of them
+      waitForCreationFutures(project, projectCreationFutures);
+      revokeCreationCertificates(project, owner);
+    });
+    //all the verifications have passed, we can now create the project
+    //create the project folder
+    steps.add("folder", () -> {
       try {
         mkProjectDIR(projectName, dfso);
         fsProvController.updateProjectProvType(project, provType, dfso);
       } catch (IOException | EJBException | ProvenanceException ex) {
-        cleanup(project, sessionId, projectCreationFutures, true, owner);
         throw new ProjectException(RESTCodes.ProjectErrorCode.PROJECT_FOLDER_NOT_CREATED, Level.SEVERE,
           "project: " + projectName, ex.getMessage(), ex);
       }
-      LOGGER.log(Level.FINE, "PROJECT CREATION TIME. Step 5 (folders): {0}", System.currentTimeMillis() - startTime);
-      //update the project with the project folder inode
+    });
+    //update the project with the project folder inode
+    steps.add("inode", () -> {
       try {
         setProjectInode(project, dfso);
       } catch (IOException | EJBException ex) {
-        cleanup(project, sessionId, projectCreationFutures, true, owner);
         throw new ProjectException(RESTCodes.ProjectErrorCode.PROJECT_INODE_CREATION_ERROR, Level.SEVERE,
           "project: " + projectName, ex.getMessage(), ex);
       }
-      LOGGER.log(Level.FINE, "PROJECT CREATION TIME. Step 6 (inodes): {0}", System.currentTimeMillis() - startTime);
-
-      //set payment and quotas
+    }, "folder");
+    //set payment and quotas
+    steps.add("quotas", () -> {
       try {
         setProjectOwnerAndQuotas(project, dfso, owner);
       } catch (IOException | EJBException ex) {
-        cleanup(project, sessionId, projectCreationFutures, true, owner);
-        throw new ProjectException(RESTCodes.ProjectErrorCode.QUOTA_ERROR, Level.SEVERE, "project: " + project.getName()
-          , ex.getMessage(), ex);
+        throw new ProjectException(RESTCodes.ProjectErrorCode.QUOTA_ERROR, Level.SEVERE,
+          "project: " + project.getName(), ex.getMessage(), ex);
       }
-      LOGGER.log(Level.FINE, "PROJECT CREATION TIME. Step 7 (quotas): {0}", System.currentTimeMillis() - startTime);
-
+    }, () -> removeQuotas(project), "inode");
+    //create the first provenance segment before epipe writes the first file op of the project
+    steps.add("provenanceIndex", () -> {
+      if (Provenance.Type.DISABLED.equals(settings.getProvType())) {
+        return;
+      }
+      try {
+        provIndexController.createProjectIndex(project);
+      } catch (ElasticException ex) {
+        LOGGER.log(Level.INFO, "Could not create the provenance index of project: " + projectName, ex);
+      }
+    }, () -> {
+      if (!Provenance.Type.DISABLED.equals(settings.getProvType())) {
+        provIndexController.deleteProjectIndex(project);
+      }
+    }, "inode");
+    steps.add("logs", () -> {
       try {
         hdfsUsersController.addProjectFolderOwner(project, dfso);
         createProjectLogResources(owner, project, dfso);
       } catch (IOException | EJBException ex) {
-        cleanup(project, sessionId, projectCreationFutures);
         throw new ProjectException(RESTCodes.ProjectErrorCode.PROJECT_SET_PERMISSIONS_ERROR, Level.SEVERE,
           "project: " + projectName, ex.getMessage(), ex);
       }
-      LOGGER.log(Level.FINE, "PROJECT CREATION TIME. Step 8 (logs): {0}", System.currentTimeMillis() - startTime);
-
-      //Delete old project indices and kibana saved objects to avoid
-      // inconsistencies
+    }, () -> removeGroupAndUsers(getGroupsToClean(project), getUsersToClean(project)), "quotas", "provenanceIndex");
+    //Delete old project indices and kibana saved objects to avoid
+    // inconsistencies
+    steps.add("elasticCleanup", () -> {
       try {
         elasticController.deleteProjectIndices(project);
         elasticController.deleteProjectSavedObjects(projectName);
-        LOGGER.log(Level.FINE, "PROJECT CREATION TIME. Step 9 (elastic cleanup): {0}",
-            System.currentTimeMillis() - startTime);
-      } catch (ElasticException ex){
+      } catch (ElasticException ex) {
         LOGGER.log(Level.FINE, "Error while cleaning old project indices", ex);
       }
-
+    });
+    // enable services, the project is logged only once the old indices are gone
+    steps.add("services", () -> {
       logProject(project, OperationType.Add);
-
-      // enable services
       for (ProjectServiceEnum service : projectServices) {
-        try {
-          projectCreationFutures.addAll(addService(project, service, owner, dfso, provType));
-        } catch (RESTException | IOException ex) {
-          cleanup(project, sessionId, projectCreationFutures);
-          throw ex;
+        List<Future<?>> serviceFutures = addService(project, service, owner, dfso, provType);
+        if (serviceFutures != null) {
+          projectCreationFutures.addAll(serviceFutures);
         }
       }
-
+    }, () -> {
+      // the datasets of the services are in the project folder, the rest lives in other systems
+      removeElasticsearch(project);
+      removeKafkaTopics(project);
+      hiveController.dropDatabases(project, dfso, false);
+      onlineFeaturestoreController.removeOnlineFeatureStore(project);
+      logProject(project, OperationType.Delete);
+    }, "logs", "elasticCleanup");
+    steps.add("waitCertificates", () -> {
       try {
-        for (Future f : projectCreationFutures) {
+        for (Future f : new ArrayList<>(projectCreationFutures)) {
           if (f != null) {
             f.get();
           }
@@ -471,39 +587,103 @@ public class ProjectController {
       } catch (InterruptedException | ExecutionException ex) {
         LOGGER.log(Level.SEVERE, "Error while waiting for the certificate generation thread to finish. Will try to " +
           "cleanup...", ex);
-        cleanup(project, sessionId, projectCreationFutures);
         throw new HopsSecurityException(RESTCodes.SecurityErrorCode.CERT_CREATION_ERROR, Level.SEVERE);
       }
-
-      // Run the handlers.
+    }, "certificates", "services");
+    // Run the handlers.
+    steps.add("postCreateHandlers", () -> {
       for (ProjectHandler projectHandler : projectHandlers) {
         try {
           projectHandler.postCreate(project);
         } catch (Exception e) {
-          cleanup(project, sessionId, projectCreationFutures);
           throw new ProjectException(RESTCodes.ProjectErrorCode.PROJECT_HANDLER_POSTCREATE_ERROR, Level.SEVERE,
             e.getMessage(), "project: " + project.getName() + ", handler: " + projectHandler.getClassName(), e);
         }
       }
-
+    }, () -> {
+      for (ProjectHandler projectHandler : projectHandlers) {
+        projectHandler.preDelete(project);
+        projectHandler.postDelete(project);
+      }
+    }, "waitCertificates");
+    steps.add("environment", () -> {
       try {
-        project = environmentController.createEnv(project, owner);
+        result.set(environmentController.createEnv(project, owner));
       } catch (PythonException | EJBException ex) {
-        cleanup(project, sessionId, projectCreationFutures);
         throw new ProjectException(RESTCodes.ProjectErrorCode.PROJECT_ANACONDA_ENABLE_ERROR, Level.SEVERE,
           "project: " + projectName, ex.getMessage(), ex);
       }
-      LOGGER.log(Level.FINE, "PROJECT CREATION TIME. Step 10 (env): {0}", System.currentTimeMillis() - startTime);
+    }, () -> removeAnacondaEnv(project), "postCreateHandlers");
+    return steps;
+  }
 
-      return project;
+  private void waitForCreationFutures(Project project, List<Future<?>> projectCreationFutures)
+    throws InterruptedException {
+    for (Future f : new ArrayList<>(projectCreationFutures)) {
+      if (f != null) {
+        try {
+          f.get();
+        } catch (ExecutionException ex) {
+          LOGGER.log(Level.SEVERE, "Error while waiting for ProjectCreationFutures to finish for Project "
+            + project.getName(), ex);
+        }
+      }
+    }
+  }
 
-    } finally {
-      if (dfso != null) {
-        dfso.close();
+  private void revokeCreationCertificates(Project project, Users owner) throws GenericException,
+    HopsSecurityException, IOException {
+    try {
+      certificatesController.revokeProjectCertificates(project, owner);
+    } catch (HopsSecurityException ex) {
+      if (ex.getErrorCode() != RESTCodes.SecurityErrorCode.CERTIFICATE_NOT_FOUND) {
+        throw ex;
       }
-      LOGGER.log(Level.FINE, "PROJECT CREATION TIME. Step 11 (close): {0}", System.currentTimeMillis() - startTime);
     }
+  }
 
+  /**
+   * Remove a project whose creation steps have all been compensated. The project is removed with the inode it
+   * references, the project folder or the dummy inode if the folder was not created yet.
+   */
+  private void removeCompensatedProject(Project project, DistributedFileSystemOps dfso) throws IOException {
+    authorizationCache.invalidateProject(project.getId());
+    removeProjectFolder(project.getName(), dfso);
+    dfso.rm(new Path("/tmp/" + project.getName()), true);
+    usersController.decrementNumProjectsCreated(project.getOwner().getUid());
+    usersController.decrementNumActiveProjects(project.getOwner().getUid());
+  }
+
+  private void throwCreationFailure(Exception ex) throws DatasetException, GenericException, KafkaException,
+    ProjectException, UserException, HopsSecurityException, ServiceException, FeaturestoreException, ElasticException,
+    SchemaException, IOException {
+    if (ex instanceof DatasetException) {
+      throw (DatasetException) ex;
+    } else if (ex instanceof GenericException) {
+      throw (GenericException) ex;
+    } else if (ex instanceof KafkaException) {
+      throw (KafkaException) ex;
+    } else if (ex instanceof ProjectException) {
+      throw (ProjectException) ex;
+    } else if (ex instanceof UserException) {
+      throw (UserException) ex;
+    } else if (ex instanceof HopsSecurityException) {
+      throw (HopsSecurityException) ex;
+    } else if (ex instanceof ServiceException) {
+      throw (ServiceException) ex;
+    } else if (ex instanceof FeaturestoreException) {
+      throw (FeaturestoreException) ex;
+    } else if (ex instanceof ElasticException) {
+      throw (ElasticException) ex;
+    } else if (ex instanceof SchemaException) {
+      throw (SchemaException) ex;
+    } else if (ex instanceof IOException) {
+      throw (IOException) ex;
+    } else if (ex instanceof RuntimeException) {
+      throw (RuntimeException) ex;
+    }
+    throw new ProjectException(RESTCodes.ProjectErrorCode.PROJECT_SERVICE_ADD_FAILURE, Level.SEVERE,
+      ex.getMessage(), ex.getMessage(), ex);
   }
 
   @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
@@ -1094,6 +1274,7 @@ public class ProjectController {
       dfso = dfs.getDfsOps();
       yarnClientWrapper = ycs.getYarnClientSuper(settings.getConfiguration());
       Project project = projectFacade.findByName(projectName);
+      authorizationCache.invalidateProject(projectName);
       if (project != null) {
         cleanupLogger.logSuccess("Project found in the database");
 
@@ -1636,6 +1817,7 @@ public class ProjectController {
       try {
         //remove from project_team so that nobody can see the project anymore
         updateProjectTeamRole(project, ProjectRoleTypes.UNDER_REMOVAL);
+        authorizationCache.invalidateProject(project.getId());
 
         /*
          * get all running yarn application owned by anny of the project members
@@ -1862,7 +2044,9 @@ public class ProjectController {
   @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
   private void removeQuotas(Project project) {
     YarnProjectsQuota yarnProjectsQuota = yarnProjectsQuotaFacade.findByProjectName(project.getName());
-    yarnProjectsQuotaFacade.remove(yarnProjectsQuota);
+    if (yarnProjectsQuota != null) {
+      yarnProjectsQuotaFacade.remove(yarnProjectsQuota);
+    }
   }
 
   @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
@@ -1964,7 +2148,9 @@ public class ProjectController {
       projectTeam.setUser(newMember);
       project.getProjectTeamCollection().add(projectTeam);
       projectFacade.update(project);
+      authorizationCache.invalidateProjectMember(project.getId(), newMember.getUsername());
       hdfsUsersController.addNewProjectMember(projectTeam, dfso);
+      permissionsCleaner.markDirty(project);
       
       //Add user to kafka topics ACLs by default
       if (projectServicesFacade.isServiceEnabledForProject(project, ProjectServiceEnum.KAFKA)) {
@@ -1998,6 +2184,7 @@ public class ProjectController {
         LOGGER.log(Level.SEVERE, "error while creating certificates, jupyter kernel: " + ex.getMessage(), ex);
         hdfsUsersController.removeMember(projectTeam);
         projectTeamFacade.removeProjectTeam(project, newMember);
+        authorizationCache.invalidateProjectMember(project.getId(), newMember.getUsername());
         throw new EJBException("Could not create certificates for user");
       }
       
@@ -2137,60 +2324,80 @@ public class ProjectController {
   }
 
   public QuotasDTO getQuotasInternal(Project project) {
-    long hdfsQuota = -1L, hdfsUsage = -1L, hdfsNsQuota = -1L, hdfsNsCount = -1L,
-      dbhdfsQuota = -1L, dbhdfsUsage = -1L, dbhdfsNsQuota = -1L, dbhdfsNsCount = -1L,
-      fshdfsQuota = -1L, fshdfsUsage = -1L, fshdfsNsQuota = -1L, fshdfsNsCount = -1L;
-    float yarnRemainingQuota = 0f, yarnTotalQuota = 0f;
-
-    // Yarn Quota
-    YarnProjectsQuota yarnQuota = yarnProjectsQuotaFacade.
-      findByProjectName(project.getName());
-    if (yarnQuota == null) {
-      LOGGER.log(Level.SEVERE, "Cannot find YARN quota information for project: " + project.getName());
-    } else {
-      yarnRemainingQuota = yarnQuota.getQuotaRemaining();
-      yarnTotalQuota = yarnQuota.getTotal();
-    }
+    return getQuotasInternal(Collections.singletonList(project)).get(project.getId());
+  }
 
-    // HDFS project directory quota
-    Optional<HdfsDirectoryWithQuotaFeature> projectInodeAttrsOptional =
-        hdfsDirectoryWithQuotaFeatureFacade.getByInodeId(project.getInode().getId());
-    if (projectInodeAttrsOptional.isPresent()) {
-      hdfsQuota = projectInodeAttrsOptional.get().getSsquota().longValue();
-      hdfsUsage = projectInodeAttrsOptional.get().getStorageSpace().longValue();
-      hdfsNsQuota = projectInodeAttrsOptional.get().getNsquota().longValue();
-      hdfsNsCount = projectInodeAttrsOptional.get().getNscount().longValue();
+  /**
+   * Quotas of a page of projects. The YARN quotas, the Hive and feature store datasets and the HDFS quotas of the
+   * project, Hive and feature store directories are each fetched with one query for the whole page.
+   *
+   * @param projects
+   * @return the quotas of each project, by project id
+   */
+  public Map<Integer, QuotasDTO> getQuotasInternal(List<Project> projects) {
+    Map<Integer, QuotasDTO> quotas = new HashMap<>();
+    if (projects.isEmpty()) {
+      return quotas;
     }
 
-    // If the Hive service is enabled, get the quota information for the db directory
-    List<Dataset> datasets = (List<Dataset>) project.getDatasetCollection();
-    for (Dataset ds : datasets) {
+    // Yarn Quota
+    Map<String, YarnProjectsQuota> yarnQuotas = yarnProjectsQuotaFacade.findByProjectNames(
+      projects.stream().map(Project::getName).collect(Collectors.toList())).stream()
+      .collect(Collectors.toMap(YarnProjectsQuota::getProjectname, q -> q, (q1, q2) -> q1));
+
+    // If the Hive service is enabled, get the quota information for the db and feature store directories
+    Map<Integer, Dataset> hiveDbs = new HashMap<>();
+    Map<Integer, Dataset> featurestores = new HashMap<>();
+    for (Dataset ds : datasetFacade.findByProjectsAndTypes(projects,
+      EnumSet.of(DatasetType.HIVEDB, DatasetType.FEATURESTORE))) {
       if (ds.getDsType() == DatasetType.HIVEDB) {
-        Optional<HdfsDirectoryWithQuotaFeature> dbInodeAttrsOptional =
-            hdfsDirectoryWithQuotaFeatureFacade.getByInodeId(ds.getInodeId());
-        if (dbInodeAttrsOptional.isPresent()) {
-          dbhdfsQuota = dbInodeAttrsOptional.get().getSsquota().longValue();
-          dbhdfsUsage = dbInodeAttrsOptional.get().getStorageSpace().longValue();
-          dbhdfsNsQuota = dbInodeAttrsOptional.get().getNsquota().longValue();
-          dbhdfsNsCount = dbInodeAttrsOptional.get().getNscount().longValue();
-        }
-      } else if (ds.getDsType() == DatasetType.FEATURESTORE) {
-        Optional<HdfsDirectoryWithQuotaFeature> fsInodeAttrsOptional =
-            hdfsDirectoryWithQuotaFeatureFacade.getByInodeId(ds.getInodeId());
-        if (fsInodeAttrsOptional.isPresent()) {
-          fshdfsQuota = fsInodeAttrsOptional.get().getSsquota().longValue();
-          fshdfsUsage = fsInodeAttrsOptional.get().getStorageSpace().longValue();
-          fshdfsNsQuota = fsInodeAttrsOptional.get().getNsquota().longValue();
-          fshdfsNsCount = fsInodeAttrsOptional.get().getNscount().longValue();
-        }
+        hiveDbs.put(ds.getProject().getId(), ds);
+      } else {
+        featurestores.put(ds.getProject().getId(), ds);
       }
     }
 
-    Integer kafkaQuota = project.getKafkaMaxNumTopics();
+    // HDFS project, db and feature store directory quotas
+    Set<Long> inodeIds = new HashSet<>();
+    projects.forEach(project -> inodeIds.add(project.getInode().getId()));
+    hiveDbs.values().forEach(ds -> inodeIds.add(ds.getInodeId()));
+    featurestores.values().forEach(ds -> inodeIds.add(ds.getInodeId()));
+    Map<Long, HdfsDirectoryWithQuotaFeature> dirQuotas = hdfsDirectoryWithQuotaFeatureFacade.getByInodeIds(inodeIds)
+      .stream().collect(Collectors.toMap(HdfsDirectoryWithQuotaFeature::getInodeId, q -> q));
 
-    return new QuotasDTO(yarnRemainingQuota, yarnTotalQuota, hdfsQuota, hdfsUsage, hdfsNsQuota, hdfsNsCount,
-      dbhdfsQuota, dbhdfsUsage, dbhdfsNsQuota, dbhdfsNsCount, fshdfsQuota, fshdfsUsage, fshdfsNsQuota,
-      fshdfsNsCount, kafkaQuota);
+    for (Project project : projects) {
+      float yarnRemainingQuota = 0f, yarnTotalQuota = 0f;
+      YarnProjectsQuota yarnQuota = yarnQuotas.get(project.getName());
+      if (yarnQuota == null) {
+        LOGGER.log(Level.SEVERE, "Cannot find YARN quota information for project: " + project.getName());
+      } else {
+        yarnRemainingQuota = yarnQuota.getQuotaRemaining();
+        yarnTotalQuota = yarnQuota.getTotal();
+      }
+      long[] hdfs = getHdfsQuota(dirQuotas.get(project.getInode().getId()));
+      Dataset hiveDb = hiveDbs.get(project.getId());
+      long[] dbhdfs = getHdfsQuota(hiveDb == null ? null : dirQuotas.get(hiveDb.getInodeId()));
+      Dataset featurestore = featurestores.get(project.getId());
+      long[] fshdfs = getHdfsQuota(featurestore == null ? null : dirQuotas.get(featurestore.getInodeId()));
+
+      Integer kafkaQuota = project.getKafkaMaxNumTopics();
+
+      quotas.put(project.getId(), new QuotasDTO(yarnRemainingQuota, yarnTotalQuota, hdfs[0], hdfs[1], hdfs[2],
+        hdfs[3], dbhdfs[0], dbhdfs[1], dbhdfs[2], dbhdfs[3], fshdfs[0], fshdfs[1], fshdfs[2], fshdfs[3],
+        kafkaQuota));
+    }
+    return quotas;
+  }
+
+  /**
+   * @return space quota, space usage, namespace quota and namespace count of the directory, -1 if it has no quota
+   */
+  private long[] getHdfsQuota(HdfsDirectoryWithQuotaFeature dirQuota) {
+    if (dirQuota == null) {
+      return new long[]{-1L, -1L, -1L, -1L};
+    }
+    return new long[]{dirQuota.getSsquota().longValue(), dirQuota.getStorageSpace().longValue(),
+      dirQuota.getNsquota().longValue(), dirQuota.getNscount().longValue()};
   }
 
   public void removeMemberFromTeam(Project project, Users user, String toRemoveEmail) throws UserException,
@@ -2219,6 +2426,7 @@ public class ProjectController {
       throw new ProjectException(RESTCodes.ProjectErrorCode.PROJECT_OWNER_NOT_ALLOWED, Level.FINE);
     }
     projectTeamFacade.removeProjectTeam(project, userToBeRemoved);
+    authorizationCache.invalidateProjectMember(project.getId(), userToBeRemoved.getUsername());
     String hdfsUser = hdfsUsersController.getHdfsUserName(project, userToBeRemoved);
     
     YarnClientWrapper yarnClientWrapper = ycs.getYarnClientSuper(settings.getConfiguration());
@@ -2291,6 +2499,7 @@ public class ProjectController {
       throw ex;
     }
     hdfsUsersController.removeMember(projectTeam);//TODO: projectTeam might be null?
+    permissionsCleaner.markDirty(project);
   }
 
   /**
@@ -2347,8 +2556,10 @@ public class ProjectController {
     projectTeam.setTeamRole(newRole);
     projectTeam.setTimestamp(new Date());
     projectTeamFacade.update(projectTeam);
+    authorizationCache.invalidateProjectMember(project.getId(), user.getUsername());
   
     hdfsUsersController.changeMemberRole(projectTeam);
+    permissionsCleaner.markDirty(project);
 
     // Update privileges for online feature store
     if (projectServiceFacade.isServiceEnabledForProject(project, ProjectServiceEnum.FEATURESTORE)) {
@@ -2657,15 +2868,14 @@ public class ProjectController {
     }
   }
 
-  private AccessCredentialsDTO getAccessCredentials(Project project, Users user)
-        throws IOException, CryptoPasswordNotFoundException {
-    //Read certs from database and stream them out
-    certificateMaterializer.materializeCertificatesLocal(user.getUsername(), project.getName());
-    CertificateMaterializer.CryptoMaterial material = certificateMaterializer.getUserMaterial(user.getUsername(),
+  private AccessCredentialsDTO getAccessCredentials(Project project, Users user) throws IOException {
+    //Read certs from memory or database and stream them out, no need to write them to the local filesystem
+    CertificateMaterializer.CryptoMaterial material = certificateMaterializer.getMaterial(user.getUsername(),
       project.getName());
     String keyStore = Base64.encodeBase64String(material.getKeyStore().array());
     String trustStore = Base64.encodeBase64String(material.getTrustStore().array());
     String certPwd = new String(material.getPassword());
+    material.wipePassword();
     return new AccessCredentialsDTO("jks", keyStore, trustStore, certPwd);
   }
 
@@ -2677,8 +2887,6 @@ public class ProjectController {
       LOGGER.log(Level.SEVERE, null, ex);
       throw new DatasetException(RESTCodes.DatasetErrorCode.DOWNLOAD_ERROR, Level.SEVERE, "projectId: " + projectId,
         ex.getMessage(), ex);
-    } finally {
-      certificateMaterializer.removeCertificatesLocal(user.getUsername(), project.getName());
     }
   }
 
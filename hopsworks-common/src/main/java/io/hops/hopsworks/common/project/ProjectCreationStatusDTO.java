@@ -0,0 +1,144 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2021, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.common.project;
+
+import javax.xml.bind.annotation.XmlRootElement;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+@XmlRootElement
+public class ProjectCreationStatusDTO {
+
+  public enum State {
+    RUNNING,
+    COMPENSATED,
+    FAILED,
+    FINISHED
+  }
+
+  private String projectName;
+  private Integer projectId;
+  private State state;
+  private Date started;
+  private Long durationMs;
+  private String error;
+  private List<StepDTO> steps = new ArrayList<>();
+
+  public ProjectCreationStatusDTO() {
+  }
+
+  public ProjectCreationStatusDTO(String projectName, State state, Date started) {
+    this.projectName = projectName;
+    this.state = state;
+    this.started = started;
+  }
+
+  public String getProjectName() {
+    return projectName;
+  }
+
+  public void setProjectName(String projectName) {
+    this.projectName = projectName;
+  }
+
+  public Integer getProjectId() {
+    return projectId;
+  }
+
+  public void setProjectId(Integer projectId) {
+    this.projectId = projectId;
+  }
+
+  public State getState() {
+    return state;
+  }
+
+  public void setState(State state) {
+    this.state = state;
+  }
+
+  public Date getStarted() {
+    return started;
+  }
+
+  public void setStarted(Date started) {
+    this.started = started;
+  }
+
+  public Long getDurationMs() {
+    return durationMs;
+  }
+
+  public void setDurationMs(Long durationMs) {
+    this.durationMs = durationMs;
+  }
+
+  public String getError() {
+    return error;
+  }
+
+  public void setError(String error) {
+    this.error = error;
+  }
+
+  public List<StepDTO> getSteps() {
+    return steps;
+  }
+
+  public void setSteps(List<StepDTO> steps) {
+    this.steps = steps;
+  }
+
+  public static class StepDTO {
+    private String name;
+    private State state;
+    private Long durationMs;
+
+    public StepDTO() {
+    }
+
+    public StepDTO(String name, State state, Long durationMs) {
+      this.name = name;
+      this.state = state;
+      this.durationMs = durationMs;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public void setName(String name) {
+      this.name = name;
+    }
+
+    public State getState() {
+      return state;
+    }
+
+    public void setState(State state) {
+      this.state = state;
+    }
+
+    public Long getDurationMs() {
+      return durationMs;
+    }
+
+    public void setDurationMs(Long durationMs) {
+      this.durationMs = durationMs;
+    }
+  }
+}
@@ -0,0 +1,195 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2021, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.common.project;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.hops.hopsworks.common.dao.project.ProjectCreationFacade;
+import io.hops.hopsworks.common.util.TaskGraph;
+import io.hops.hopsworks.persistence.entity.project.ProjectCreation;
+
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.EJB;
+import javax.ejb.Schedule;
+import javax.ejb.Singleton;
+import javax.ejb.Timer;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static javax.ejb.ConcurrencyManagementType.BEAN;
+
+/**
+ * Keeps the progress and the timing of every step of the projects being created, so that asynchronous creations can
+ * be followed from any instance and slow subsystems spotted. The progress is written to the database on every step.
+ */
+@ConcurrencyManagement(BEAN)
+@Singleton
+@TransactionAttribute(TransactionAttributeType.NEVER)
+public class ProjectCreationTracker {
+
+  private static final Logger LOGGER = Logger.getLogger(ProjectCreationTracker.class.getName());
+  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+  //Ended creations are reported for an hour, a creation not updated for an hour lost the instance running it
+  private static final long RETENTION_MS = TimeUnit.HOURS.toMillis(1);
+  private static final int MAX_ERROR_LENGTH = 1000;
+
+  @EJB
+  private ProjectCreationFacade projectCreationFacade;
+
+  public Progress start(String projectName, String owner) {
+    ProjectCreation creation = new ProjectCreation(projectName, owner, ProjectCreationStatusDTO.State.RUNNING.name(),
+      new Date());
+    projectCreationFacade.save(creation);
+    return new Progress(projectCreationFacade, creation);
+  }
+
+  /**
+   * @return the status of the last creation of a project with this name by this user, or null if there is none
+   */
+  public ProjectCreationStatusDTO getStatus(String projectName, String owner) {
+    ProjectCreation creation = projectCreationFacade.findLatest(projectName, owner);
+    return creation != null ? toDTO(creation) : null;
+  }
+
+  @Schedule(persistent = false, minute = "*/10", hour = "*")
+  public void expire(Timer timer) {
+    Date before = new Date(System.currentTimeMillis() - RETENTION_MS);
+    int failed = projectCreationFacade.failStale(ProjectCreationStatusDTO.State.RUNNING.name(),
+      ProjectCreationStatusDTO.State.FAILED.name(), "The instance creating the project stopped", before);
+    int removed = projectCreationFacade.removeEnded(ProjectCreationStatusDTO.State.RUNNING.name(), before);
+    if (failed > 0) {
+      LOGGER.log(Level.INFO, "{0} project creations were interrupted", failed);
+    }
+    LOGGER.log(Level.FINE, "Removed {0} ended project creations", removed);
+  }
+
+  private static ProjectCreationStatusDTO toDTO(ProjectCreation creation) {
+    ProjectCreationStatusDTO dto = new ProjectCreationStatusDTO(creation.getProjectName(),
+      ProjectCreationStatusDTO.State.valueOf(creation.getState()), creation.getStarted());
+    dto.setProjectId(creation.getProjectId());
+    dto.setDurationMs(creation.getDurationMs() != null ? creation.getDurationMs()
+      : System.currentTimeMillis() - creation.getStarted().getTime());
+    dto.setError(creation.getError());
+    if (creation.getSteps() != null) {
+      try {
+        dto.setSteps(OBJECT_MAPPER.readValue(creation.getSteps(),
+          new TypeReference<List<ProjectCreationStatusDTO.StepDTO>>() {}));
+      } catch (IOException e) {
+        LOGGER.log(Level.WARNING, "Could not read the steps of the creation of project " + creation.getProjectName(),
+          e);
+      }
+    }
+    return dto;
+  }
+
+  /**
+   * Progress of one creation. Every change is written through to the database, a failure to write it is logged and
+   * does not fail the creation.
+   */
+  public static class Progress implements TaskGraph.Listener {
+    private final ProjectCreationFacade projectCreationFacade;
+    private final Map<String, ProjectCreationStatusDTO.StepDTO> steps = new LinkedHashMap<>();
+    private ProjectCreation creation;
+
+    private Progress(ProjectCreationFacade projectCreationFacade, ProjectCreation creation) {
+      this.projectCreationFacade = projectCreationFacade;
+      this.creation = creation;
+    }
+
+    public synchronized void setProjectId(Integer projectId) {
+      creation.setProjectId(projectId);
+      save();
+    }
+
+    public synchronized void finish() {
+      creation.setState(ProjectCreationStatusDTO.State.FINISHED.name());
+      creation.setDurationMs(System.currentTimeMillis() - creation.getStarted().getTime());
+      save();
+      LOGGER.log(Level.FINE, "Project {0} created in {1} ms, steps: {2}", new Object[]{creation.getProjectName(),
+        creation.getDurationMs(), stepTimings()});
+    }
+
+    public synchronized void fail(Exception cause) {
+      creation.setState(ProjectCreationStatusDTO.State.FAILED.name());
+      creation.setDurationMs(System.currentTimeMillis() - creation.getStarted().getTime());
+      String error = cause.getMessage();
+      creation.setError(error != null && error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH)
+        : error);
+      save();
+      LOGGER.log(Level.INFO, "Project {0} creation failed after {1} ms, steps: {2}",
+        new Object[]{creation.getProjectName(), creation.getDurationMs(), stepTimings()});
+    }
+
+    @Override
+    public synchronized void started(String step) {
+      steps.put(step, new ProjectCreationStatusDTO.StepDTO(step, ProjectCreationStatusDTO.State.RUNNING, null));
+      save();
+    }
+
+    @Override
+    public synchronized void finished(String step, long durationMs) {
+      steps.put(step, new ProjectCreationStatusDTO.StepDTO(step, ProjectCreationStatusDTO.State.FINISHED,
+        durationMs));
+      save();
+    }
+
+    @Override
+    public synchronized void failed(String step, long durationMs, Exception cause) {
+      steps.put(step, new ProjectCreationStatusDTO.StepDTO(step, ProjectCreationStatusDTO.State.FAILED, durationMs));
+      save();
+    }
+
+    @Override
+    public synchronized void compensated(String step) {
+      ProjectCreationStatusDTO.StepDTO previous = steps.get(step);
+      steps.put(step, new ProjectCreationStatusDTO.StepDTO(step, ProjectCreationStatusDTO.State.COMPENSATED,
+        previous != null ? previous.getDurationMs() : null));
+      save();
+    }
+
+    private void save() {
+      try {
+        creation.setSteps(OBJECT_MAPPER.writeValueAsString(new ArrayList<>(steps.values())));
+        creation.setUpdated(new Date());
+        creation = projectCreationFacade.update(creation);
+      } catch (IOException | RuntimeException e) {
+        LOGGER.log(Level.WARNING, "Could not save the progress of the creation of project "
+          + creation.getProjectName(), e);
+      }
+    }
+
+    private String stepTimings() {
+      StringBuilder sb = new StringBuilder();
+      for (ProjectCreationStatusDTO.StepDTO step : steps.values()) {
+        sb.append(step.getName()).append('=').append(step.getDurationMs()).append("ms ");
+      }
+      return sb.toString().trim();
+    }
+
+    public synchronized ProjectCreationStatusDTO toDTO() {
+      return ProjectCreationTracker.toDTO(creation);
+    }
+  }
+}
@@ -0,0 +1,325 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2021, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.common.provenance.core;
+
+import io.hops.hopsworks.common.elastic.ElasticClientController;
+import io.hops.hopsworks.common.provenance.core.elastic.ElasticHelper;
+import io.hops.hopsworks.common.util.Settings;
+import io.hops.hopsworks.exceptions.ElasticException;
+import io.hops.hopsworks.persistence.entity.project.Project;
+import org.elasticsearch.action.admin.indices.alias.Alias;
+import org.elasticsearch.action.admin.indices.delete.DeleteIndexRequest;
+import org.elasticsearch.action.ingest.PutPipelineRequest;
+import org.elasticsearch.client.indices.CreateIndexRequest;
+import org.elasticsearch.client.indices.GetIndexRequest;
+import org.elasticsearch.client.indices.GetIndexResponse;
+import org.elasticsearch.client.indices.rollover.RolloverRequest;
+import org.elasticsearch.client.indices.rollover.RolloverResponse;
+import org.elasticsearch.cluster.metadata.AliasMetaData;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.unit.ByteSizeUnit;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.common.xcontent.XContentType;
+
+import javax.ejb.EJB;
+import javax.ejb.Stateless;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The file provenance of a project is written by epipe to the {projectInodeId}__file_prov index. The file states and
+ * archived states in it are updated and deleted by id, so that index is a single index that is never rolled over or
+ * expired. The file operations are only ever added. The file_prov_ops ingest pipeline, the default pipeline of the
+ * index, routes them to time and size bounded segments, indices named {projectInodeId}_ops-{generation}__file_prov,
+ * behind the {projectInodeId}_ops__file_prov alias. The write segment is rolled over once it is too old or too large,
+ * and segments whose operations are all older than the retention period are dropped as a whole instead of deleting
+ * documents. Projects whose index was created by epipe, without the pipeline, keep their operations in it.
+ */
+@Stateless
+@TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+public class ProvIndexController {
+  private final static Logger LOGGER = Logger.getLogger(ProvIndexController.class.getName());
+  private static final Pattern SEGMENT =
+    Pattern.compile("(\\d+)_ops-(\\d{6})" + Pattern.quote(Settings.PROV_FILE_INDEX_SUFFIX));
+  private static final Pattern PROJECT_INDEX =
+    Pattern.compile("(\\d+)" + Pattern.quote(Settings.PROV_FILE_INDEX_SUFFIX));
+  private static final String CREATION_DATE = "index.creation_date";
+  private static final String DEFAULT_PIPELINE = "index.default_pipeline";
+  static final String OPS_PIPELINE = "file_prov_ops";
+  //Segments deleted per request, to keep the request line short
+  private static final int DELETE_BATCH_SIZE = 100;
+  
+  @EJB
+  private ElasticClientController client;
+  @EJB
+  private Settings settings;
+  
+  /**
+   * Create the file provenance index of a new project and the first segment of its operations, so that epipe does
+   * not create a single unbounded index.
+   * @param project
+   * @throws ElasticException
+   */
+  public void createProjectIndex(Project project) throws ElasticException {
+    String index = Provenance.getProjectIndex(project);
+    if (client.mngIndexExists(index)) {
+      return;
+    }
+    client.mngPipelinePut(new PutPipelineRequest(OPS_PIPELINE, new BytesArray(opsPipeline()), XContentType.JSON));
+    //The alias has to exist before operations are routed to it, otherwise the first one creates an index by its name
+    String opsAlias = Provenance.getProjectOpsIndex(project);
+    if (!client.mngIndexExists(opsAlias)) {
+      CreateIndexRequest ops = new CreateIndexRequest(segmentName(project.getInode().getId(), 1));
+      ops.alias(new Alias(opsAlias).writeIndex(true));
+      client.mngIndexCreate(ops);
+    }
+    CreateIndexRequest request = new CreateIndexRequest(index);
+    request.settings(Collections.singletonMap(DEFAULT_PIPELINE, OPS_PIPELINE));
+    client.mngIndexCreate(request);
+  }
+  
+  /**
+   * Delete the indices created by {@link #createProjectIndex(Project)}, used when the creation of the project is
+   * rolled back.
+   * @param project
+   * @throws ElasticException
+   */
+  public void deleteProjectIndex(Project project) throws ElasticException {
+    for (String index : new String[]{Provenance.getProjectIndex(project),
+      segmentName(project.getInode().getId(), 1)}) {
+      if (client.mngIndexExists(index)) {
+        client.mngIndexDelete(new DeleteIndexRequest(index));
+      }
+    }
+  }
+  
+  /**
+   * The ingest pipeline routing the file operations written to the index of a project to its operations alias. Other
+   * documents, and the updates of the file states, are left in the index.
+   */
+  static String opsPipeline() {
+    return "{\"description\":\"Route the file operations of a project to its operations alias\","
+      + "\"processors\":[{\"script\":{"
+      + "\"if\":\"ctx." + ProvParser.Fields.ENTRY_TYPE + " == '" + ProvParser.EntryType.OPERATION + "'\","
+      + "\"source\":\"ctx._index = ctx._index.replace(params.index, params.ops)\","
+      + "\"params\":{\"index\":\"" + Settings.PROV_FILE_INDEX_SUFFIX + "\","
+      + "\"ops\":\"" + Settings.PROV_FILE_OPS_INDEX_SUFFIX + "\"}}}]}";
+  }
+  
+  /**
+   * Roll over the operations write segments that reached the age or size limit and drop the expired operations
+   * segments of all projects. The file state indices are left as they are.
+   * @return number of segments rolled over and dropped
+   * @throws ElasticException
+   */
+  public LifecycleResult lifecycleRound() throws ElasticException {
+    GetIndexResponse response;
+    try {
+      response = client.mngIndexGet(new GetIndexRequest("*_ops-*" + Settings.PROV_FILE_INDEX_SUFFIX));
+    } catch (ElasticException e) {
+      if (ElasticHelper.indexNotFound(e.getCause())) {
+        return new LifecycleResult(0, 0);
+      }
+      throw e;
+    }
+    Map<Long, List<Segment>> segments = segments(response);
+    TimeValue maxAge = TimeValue.timeValueDays(settings.getProvIndexRolloverAge());
+    ByteSizeValue maxSize = new ByteSizeValue(settings.getProvIndexRolloverSize(), ByteSizeUnit.GB);
+    int rolledOver = 0;
+    List<String> expired = new ArrayList<>();
+    long retention = TimeUnit.DAYS.toMillis(settings.getProvIndexRetention());
+    long now = System.currentTimeMillis();
+    for (Map.Entry<Long, List<Segment>> project : segments.entrySet()) {
+      Segment write = writeSegment(project.getValue());
+      if (write != null) {
+        RolloverRequest request = new RolloverRequest(write.alias(),
+          segmentName(project.getKey(), write.generation + 1));
+        request.addMaxIndexAgeCondition(maxAge);
+        request.addMaxIndexSizeCondition(maxSize);
+        try {
+          RolloverResponse rollover = client.mngIndexRollover(request);
+          if (rollover.isRolledOver()) {
+            rolledOver++;
+            LOGGER.log(Level.FINE, "rolled over prov index:{0} to:{1}",
+              new Object[]{rollover.getOldIndex(), rollover.getNewIndex()});
+          }
+        } catch (ElasticException e) {
+          LOGGER.log(Level.INFO, "could not roll over prov alias:" + write.alias(), e);
+        }
+      }
+      if (retention > 0) {
+        expired.addAll(expiredSegments(project.getValue(), now, retention));
+      }
+    }
+    int dropped = deleteIndices(expired);
+    return new LifecycleResult(rolledOver, dropped);
+  }
+  
+  /**
+   * Delete indices, many per request. A request that fails, for example because one of its indices is already
+   * gone, is retried one index at a time.
+   * @param indices
+   * @return number of indices deleted
+   */
+  public int deleteIndices(List<String> indices) {
+    int deleted = 0;
+    for (int i = 0; i < indices.size(); i += DELETE_BATCH_SIZE) {
+      List<String> batch = indices.subList(i, Math.min(i + DELETE_BATCH_SIZE, indices.size()));
+      try {
+        client.mngIndexDelete(new DeleteIndexRequest(batch.toArray(new String[0])));
+        deleted += batch.size();
+      } catch (ElasticException e) {
+        for (String index : batch) {
+          try {
+            client.mngIndexDelete(new DeleteIndexRequest(index));
+            deleted++;
+          } catch (ElasticException ex) {
+            LOGGER.log(Level.INFO, "could not delete prov index:" + index, ex);
+          }
+        }
+      }
+    }
+    return deleted;
+  }
+  
+  static String segmentName(Long projectIId, int generation) {
+    return String.format("%d_ops-%06d%s", projectIId, generation, Settings.PROV_FILE_INDEX_SUFFIX);
+  }
+  
+  /**
+   * @param indexName file provenance index or operations segment of a project
+   * @return inode id of the project the index belongs to, null if the name is not one of a file ops index
+   */
+  public static Long projectInodeId(String indexName) {
+    Matcher matcher = SEGMENT.matcher(indexName);
+    if (!matcher.matches()) {
+      matcher = PROJECT_INDEX.matcher(indexName);
+      if (!matcher.matches()) {
+        return null;
+      }
+    }
+    try {
+      return Long.parseLong(matcher.group(1));
+    } catch (NumberFormatException e) {
+      return null;
+    }
+  }
+  
+  /**
+   * Operations segments of every project, oldest first. The file provenance indices are not segments and are left
+   * out.
+   */
+  static Map<Long, List<Segment>> segments(GetIndexResponse response) {
+    Map<Long, List<Segment>> segments = new TreeMap<>();
+    for (String index : response.getIndices()) {
+      Matcher matcher = SEGMENT.matcher(index);
+      if (!matcher.matches()) {
+        continue;
+      }
+      long projectIId = Long.parseLong(matcher.group(1));
+      int generation = Integer.parseInt(matcher.group(2));
+      String creationDate = response.getSetting(index, CREATION_DATE);
+      boolean writeIndex = false;
+      List<AliasMetaData> aliases = response.getAliases().get(index);
+      if (aliases != null) {
+        for (AliasMetaData alias : aliases) {
+          writeIndex |= Boolean.TRUE.equals(alias.writeIndex());
+        }
+      }
+      segments.computeIfAbsent(projectIId, id -> new ArrayList<>()).add(new Segment(index, projectIId, generation,
+        creationDate == null ? 0 : Long.parseLong(creationDate), writeIndex));
+    }
+    for (List<Segment> projectSegments : segments.values()) {
+      projectSegments.sort(Comparator.comparingInt(segment -> segment.generation));
+    }
+    return segments;
+  }
+  
+  private static Segment writeSegment(List<Segment> segments) {
+    for (Segment segment : segments) {
+      if (segment.writeIndex) {
+        return segment;
+      }
+    }
+    return null;
+  }
+  
+  /**
+   * A segment stops receiving documents when the next one is created, so all its documents are expired once the
+   * next segment is older than the retention period. The write segment is never expired.
+   */
+  static List<String> expiredSegments(List<Segment> segments, long now, long retention) {
+    List<String> expired = new ArrayList<>();
+    for (int i = 0; i < segments.size() - 1; i++) {
+      Segment segment = segments.get(i);
+      Segment next = segments.get(i + 1);
+      if (!segment.writeIndex && next.creationDate > 0 && next.creationDate < now - retention) {
+        expired.add(segment.name);
+      }
+    }
+    return expired;
+  }
+  
+  static class Segment {
+    private final String name;
+    private final long projectIId;
+    private final int generation;
+    private final long creationDate;
+    private final boolean writeIndex;
+    
+    Segment(String name, long projectIId, int generation, long creationDate, boolean writeIndex) {
+      this.name = name;
+      this.projectIId = projectIId;
+      this.generation = generation;
+      this.creationDate = creationDate;
+      this.writeIndex = writeIndex;
+    }
+    
+    private String alias() {
+      return projectIId + Settings.PROV_FILE_OPS_INDEX_SUFFIX;
+    }
+  }
+  
+  public static class LifecycleResult {
+    private final int rolledOver;
+    private final int dropped;
+    
+    public LifecycleResult(int rolledOver, int dropped) {
+      this.rolledOver = rolledOver;
+      this.dropped = dropped;
+    }
+    
+    public int getRolledOver() {
+      return rolledOver;
+    }
+    
+    public int getDropped() {
+      return dropped;
+    }
+  }
+}
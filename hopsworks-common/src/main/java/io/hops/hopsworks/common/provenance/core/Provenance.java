@@ -105,6 +105,13 @@ public class Provenance {
     return project.getInode().getId() + Settings.PROV_FILE_INDEX_SUFFIX;
   }
   
+  /**
+   * @return alias of the file operations of the project, the file states are in {@link #getProjectIndex(Project)}
+   */
+  public static String getProjectOpsIndex(Project project) {
+    return project.getInode().getId() + Settings.PROV_FILE_OPS_INDEX_SUFFIX;
+  }
+  
   public static ProvTypeDTO getDatasetProvCore(ProvTypeDTO projectProvCore, MLType type) {
     switch (type) {
       case FEATURE:
@@ -43,6 +43,8 @@ public class ProvenanceCleaner {
   private Settings settings;
   @EJB
   private ProvenanceCleanerController cleanerCtrl;
+  @EJB
+  private ProvIndexController provIndexCtrl;
   @Resource
   TimerService timerService;
   
@@ -65,6 +67,13 @@ public class ProvenanceCleaner {
   @Timeout
   @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
   private void timeout(Timer timer) {
+    try {
+      ProvIndexController.LifecycleResult lifecycle = provIndexCtrl.lifecycleRound();
+      LOGGER.log(Level.FINE, "lifecycle round - idx rolled over:{0} segments dropped:{1}",
+        new Object[]{lifecycle.getRolledOver(), lifecycle.getDropped()});
+    } catch (Exception e) {
+      LOGGER.log(Level.INFO, "lifecycle round was not successful - error", e);
+    }
     int cleanupSize = settings.getProvCleanupSize();
     if(cleanupSize == 0) {
       return;
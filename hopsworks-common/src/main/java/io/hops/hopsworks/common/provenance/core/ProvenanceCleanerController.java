@@ -15,24 +15,24 @@
  */
 package io.hops.hopsworks.common.provenance.core;
 
-import io.hops.hopsworks.persistence.entity.hdfs.inode.Inode;
-import io.hops.hopsworks.common.dao.hdfs.inode.InodeFacade;
-import io.hops.hopsworks.persistence.entity.project.Project;
 import io.hops.hopsworks.common.dao.project.ProjectFacade;
 import io.hops.hopsworks.common.elastic.ElasticClientController;
 import io.hops.hopsworks.common.util.Settings;
 import io.hops.hopsworks.exceptions.ElasticException;
 import io.hops.hopsworks.exceptions.ProvenanceException;
 import io.hops.hopsworks.restutils.RESTCodes;
-import org.elasticsearch.ElasticsearchException;
-import org.elasticsearch.action.admin.indices.delete.DeleteIndexRequest;
-import org.elasticsearch.rest.RestStatus;
 import org.javatuples.Pair;
 
 import javax.ejb.EJB;
 import javax.ejb.Stateless;
 import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -46,64 +46,49 @@ public class ProvenanceCleanerController {
   @EJB
   private ProjectFacade projectFacade;
   @EJB
-  private InodeFacade inodeFacade;
+  private ProvIndexController provIndexCtrl;
   
+  /**
+   * Delete the provenance indices, single indices and segments, of projects that no longer exist. The project inode
+   * ids of all the indices of the round are resolved against the database in one batched query.
+   * @param nextToCheck first index name of the round
+   * @param limit
+   * @return number of indices deleted and the index name to start the next round from, empty if all were checked
+   */
   public Pair<Integer, String> indexCleanupRound(String nextToCheck, Integer limit)
     throws ProvenanceException, ElasticException {
     String indexRegex = "*" + Settings.PROV_FILE_INDEX_SUFFIX;
     String[] indices = client.mngIndicesGetBySimplifiedRegex(indexRegex);
+    Arrays.sort(indices);
     
-    int cleaned = 0;
-    String nextToCheckAux = "";
+    Map<String, Long> candidates = new LinkedHashMap<>();
     for(String indexName : indices) {
-      if(cleaned > limit) {
-        nextToCheckAux = indexName;
-        break;
-      }
       if(indexName.compareTo(nextToCheck) < 0) {
         continue;
       }
-      Project project = getProject(indexName);
-      if(project == null) {
-        LOGGER.log(Level.FINE, "deleting prov index:{0} with no corresponding project", indexName);
-        deleteProvIndex(indexName);
-        cleaned++;
-        continue;
+      Long inodeId = ProvIndexController.projectInodeId(indexName);
+      if(inodeId == null) {
+        throw new ProvenanceException(RESTCodes.ProvenanceErrorCode.INTERNAL_ERROR, Level.WARNING,
+          "error extracting project from prov index name - format error", "index:" + indexName);
       }
+      candidates.put(indexName, inodeId);
     }
-    return Pair.with(cleaned, nextToCheckAux);
-  }
-  
-  private Project getProject(String indexName) throws ProvenanceException {
-    int endIndex = indexName.indexOf(Settings.PROV_FILE_INDEX_SUFFIX);
-    String sInodeId = indexName.substring(0, endIndex);
-    long inodeId;
-    try {
-      inodeId = Long.parseLong(sInodeId);
-    } catch(NumberFormatException e) {
-      throw new ProvenanceException(RESTCodes.ProvenanceErrorCode.INTERNAL_ERROR, Level.WARNING,
-        "error extracting project from prov index name - format error", e.getMessage(), e);
-    }
-    Inode inode = inodeFacade.findById(inodeId);
-    if(inode == null) {
-      return null;
-    }
-    return projectFacade.findByInodeId(inode.getInodePK().getParentId(), inode.getInodePK().getName());
-  }
-  
-  private void deleteProvIndex(String indexName) {
-    DeleteIndexRequest request = new DeleteIndexRequest(indexName);
-    try {
-      client.mngIndexDelete(request);
-    } catch (ElasticException e) {
-      if(e.getCause() instanceof ElasticsearchException) {
-        ElasticsearchException ex = (ElasticsearchException)e.getCause();
-        if(ex.status() == RestStatus.NOT_FOUND) {
-          LOGGER.log(Level.INFO, "trying to delete index:{0} - does not exist", indexName);
-          return;
-        }
+    Set<Long> projects = projectFacade.findProjectInodeIds(candidates.values());
+    
+    List<String> orphans = new ArrayList<>();
+    String nextToCheckAux = "";
+    for(Map.Entry<String, Long> candidate : candidates.entrySet()) {
+      if(projects.contains(candidate.getValue())) {
+        continue;
+      }
+      if(orphans.size() > limit) {
+        nextToCheckAux = candidate.getKey();
+        break;
       }
-      LOGGER.log(Level.WARNING, "trying to delete index:{0}", e.getStackTrace());
+      LOGGER.log(Level.FINE, "deleting prov index:{0} with no corresponding project", candidate.getKey());
+      orphans.add(candidate.getKey());
     }
+    int cleaned = provIndexCtrl.deleteIndices(orphans);
+    return Pair.with(cleaned, nextToCheckAux);
   }
 }
@@ -24,6 +24,7 @@ import io.hops.hopsworks.common.provenance.core.elastic.ElasticHits;
 import io.hops.hopsworks.common.elastic.ElasticClientController;
 import io.hops.hopsworks.common.provenance.util.functional.CheckedSupplier;
 import io.hops.hopsworks.common.python.commands.CommandsController;
+import io.hops.hopsworks.common.python.search.CondaChannelIndex;
 import io.hops.hopsworks.common.python.search.PyPiLibraryElasticIndexer;
 import io.hops.hopsworks.common.util.OSProcessExecutor;
 import io.hops.hopsworks.common.util.ProcessDescriptor;
@@ -45,25 +46,19 @@ import io.hops.hopsworks.restutils.RESTCodes;
 import org.elasticsearch.action.search.SearchRequest;
 import org.elasticsearch.search.builder.SearchSourceBuilder;
 import org.javatuples.Pair;
-import org.json.JSONArray;
-import org.json.JSONObject;
 
 import javax.ejb.EJB;
 import javax.ejb.Stateless;
 import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
-import javax.ws.rs.client.ClientBuilder;
-import javax.ws.rs.core.Response;
 import java.io.IOException;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.Date;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -87,6 +82,10 @@ public class LibraryController {
   private ElasticClientController provElasticController;
   @EJB
   private PyPiLibraryElasticIndexer pypiIndexer;
+  @EJB
+  private PyPiReleasesClient pyPiReleasesClient;
+  @EJB
+  private CondaChannelIndex condaChannelIndex;
 
   public PythonDep getPythonDep(String dependency, Project project) {
     return libraryFacade.findByDependencyAndProject(dependency, project);
@@ -123,6 +122,13 @@ public class LibraryController {
   }
 
   public HashMap<String, List<LibraryVersionDTO>> condaSearch(String library, String url) throws ServiceException {
+    Optional<HashMap<String, List<LibraryVersionDTO>>> indexed = condaChannelIndex.search(url, library);
+    if (indexed.isPresent()) {
+      if (indexed.get().isEmpty()) {
+        throw new ServiceException(RESTCodes.ServiceErrorCode.ANACONDA_LIST_LIB_NOT_FOUND, Level.FINE);
+      }
+      return indexed.get();
+    }
     HashMap<String, List<LibraryVersionDTO>> libVersions = new HashMap<>();
     String prog = settings.getHopsworksDomainDir() + "/bin/condasearch.sh";
     String[] lines = condaList(prog, library, url);
@@ -177,66 +183,14 @@ public class LibraryController {
     return libVersions;
   }
 
-  private void findPipLibPyPi(String libName, HashMap<String, List<LibraryVersionDTO>> versions) {
-    Response resp = null;
-    try {
-      resp = ClientBuilder.newClient()
-        .target(settings.getPyPiRESTEndpoint().replaceFirst("\\{package}", libName))
-        .request()
-        .header("Content-Type", "application/json").get();
-    } catch (Exception e) {
-      LOGGER.log(Level.FINE, "PyPi REST endpoint connection failed" + settings.getPyPiRESTEndpoint().replaceFirst(
-        "\\{package}", libName), e);
-      return;
-    }
-
-    if (resp.getStatusInfo().getStatusCode() != Response.Status.OK.getStatusCode()) {
-      return;
-    }
-
-    JSONObject jsonObject = new JSONObject(resp.readEntity(String.class));
-
-    if (jsonObject.has("releases")) {
-      JSONObject releases = jsonObject.getJSONObject("releases");
-      versions.put(libName, getVersions(releases));
-    }
-  }
-
-  private List<LibraryVersionDTO> getVersions(JSONObject releases) {
-    List<LibraryVersionDTO> versions = new ArrayList<>();
-    Iterator<String> keys = releases.keys();
-    Date releaseDate = new Date(0);
-    while (keys.hasNext()) {
-      String key = keys.next();
-      if (releases.get(key) instanceof JSONArray) {
-        JSONObject versionMeta =
-          ((JSONArray) releases.get(key)).length() > 0 ? (JSONObject) ((JSONArray) releases.get(key)).get(0) : null;
-        if (versionMeta != null && versionMeta.has("upload_time")) {
-          String strDate = versionMeta.getString("upload_time");
-          SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss");
-          try {
-            releaseDate = sdf.parse(strDate);
-          } catch (ParseException e) {
-            LOGGER.log(Level.FINE, "Failed to parse release date: {0}", strDate);
-          }
-        }
-      }
-      versions.add(new LibraryVersionDTO(key, releaseDate));
-    }
-    return versions;
-  }
-
   public HashMap<String, List<LibraryVersionDTO>> pipSearch(String query)
     throws ServiceException {
 
-    HashMap<String, List<LibraryVersionDTO>> versions = new HashMap<>();
-
     String[] lines = pipList(query, new HandlerFactory.BaseList(),
       Settings.ELASTIC_PYPI_LIBRARIES_ALIAS);
 
-    for (String library : lines) {
-      findPipLibPyPi(library, versions);
-    }
+    HashMap<String, List<LibraryVersionDTO>> versions =
+      new HashMap<>(pyPiReleasesClient.getVersions(Arrays.asList(lines)));
 
     // if empty
     if (versions.isEmpty()) {
@@ -0,0 +1,298 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2021, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.common.python.library;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.hops.hopsworks.common.util.Settings;
+import org.apache.http.Header;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.util.EntityUtils;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.EJB;
+import javax.ejb.Singleton;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import javax.enterprise.concurrent.ManagedExecutorService;
+import java.io.IOException;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static javax.ejb.ConcurrencyManagementType.BEAN;
+
+/**
+ * Looks up the released versions of pip packages in the PyPi REST API. Lookups run in parallel over a pooled HTTP
+ * client, concurrent lookups of the same package share one request, and the releases of a package are cached. Once
+ * the cache entry is older than the TTL it is revalidated with its ETag, so an unchanged package costs a 304.
+ * At most pypi_max_connections lookups run at a time on the shared executor, the others wait in a queue without
+ * holding an executor thread.
+ */
+@ConcurrencyManagement(BEAN)
+@Singleton
+@TransactionAttribute(TransactionAttributeType.NEVER)
+public class PyPiReleasesClient {
+
+  private static final Logger LOGGER = Logger.getLogger(PyPiReleasesClient.class.getName());
+  private static final int MAX_CACHED_PACKAGES = 10000;
+
+  @EJB
+  private Settings settings;
+  @Resource(lookup = "concurrent/hopsExecutorService")
+  private ManagedExecutorService executorService;
+
+  private PoolingHttpClientConnectionManager cm;
+  private CloseableHttpClient httpClient;
+  private final Cache<String, Releases> cache = CacheBuilder.newBuilder()
+    .maximumSize(MAX_CACHED_PACKAGES)
+    .build();
+  private final ConcurrentHashMap<String, CompletableFuture<List<LibraryVersionDTO>>> inFlight =
+    new ConcurrentHashMap<>();
+  private final Queue<Lookup> pending = new ConcurrentLinkedQueue<>();
+  //One permit per lookup running on the executor
+  private Semaphore running;
+
+  @PostConstruct
+  public void init() {
+    int maxConnections = settings.getPyPiMaxConnections();
+    int timeout = settings.getPyPiRequestTimeout();
+    running = new Semaphore(maxConnections);
+    cm = new PoolingHttpClientConnectionManager(30L, TimeUnit.SECONDS);
+    cm.setMaxTotal(maxConnections);
+    cm.setDefaultMaxPerRoute(maxConnections);
+    httpClient = HttpClients.custom()
+      .setConnectionManager(cm)
+      .setDefaultRequestConfig(RequestConfig.custom()
+        .setConnectTimeout(timeout)
+        .setSocketTimeout(timeout)
+        .setConnectionRequestTimeout(timeout)
+        .build())
+      .build();
+  }
+
+  @PreDestroy
+  public void preDestroy() {
+    try {
+      if (httpClient != null) {
+        httpClient.close();
+      }
+    } catch (IOException e) {
+      LOGGER.log(Level.FINE, "Error closing the PyPi client", e);
+    }
+    if (cm != null) {
+      cm.close();
+    }
+  }
+
+  /**
+   * @param packages
+   * @return the versions of the given packages. Packages not found in PyPi, and packages whose lookup did not finish
+   * within the search timeout, are left out. The lookups that did not finish go on in the background and fill the
+   * cache for the next search.
+   */
+  public Map<String, List<LibraryVersionDTO>> getVersions(Collection<String> packages) {
+    long deadline = System.currentTimeMillis() + settings.getPyPiSearchTimeout();
+    Map<String, CompletableFuture<List<LibraryVersionDTO>>> lookups = new LinkedHashMap<>();
+    for (String name : packages) {
+      lookups.putIfAbsent(name, lookup(name));
+    }
+    Map<String, List<LibraryVersionDTO>> versions = new HashMap<>();
+    for (Map.Entry<String, CompletableFuture<List<LibraryVersionDTO>>> lookup : lookups.entrySet()) {
+      try {
+        List<LibraryVersionDTO> found =
+          lookup.getValue().get(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+        if (found != null) {
+          versions.put(lookup.getKey(), new ArrayList<>(found));
+        }
+      } catch (TimeoutException e) {
+        LOGGER.log(Level.FINE, "PyPi lookup of {0} did not finish in time", lookup.getKey());
+      } catch (ExecutionException e) {
+        LOGGER.log(Level.FINE, "PyPi lookup of " + lookup.getKey() + " failed", e.getCause());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        break;
+      }
+    }
+    return versions;
+  }
+
+  public void invalidateAll() {
+    cache.invalidateAll();
+  }
+
+  private CompletableFuture<List<LibraryVersionDTO>> lookup(String name) {
+    Releases cached = cache.getIfPresent(name);
+    if (cached != null && cached.isFresh(settings.getPyPiCacheTtl())) {
+      return CompletableFuture.completedFuture(cached.versions);
+    }
+    CompletableFuture<List<LibraryVersionDTO>> created = new CompletableFuture<>();
+    CompletableFuture<List<LibraryVersionDTO>> running = inFlight.putIfAbsent(name, created);
+    if (running != null) {
+      return running;
+    }
+    pending.add(new Lookup(name, cached, created));
+    submitPending();
+    return created;
+  }
+
+  /**
+   * Submit queued lookups while fewer than pypi_max_connections are running. A lookup releases its permit before
+   * submitting the next ones, so a lookup queued while all the permits are taken is submitted when one of the
+   * running lookups finishes.
+   */
+  private void submitPending() {
+    while (!pending.isEmpty() && running.tryAcquire()) {
+      Lookup lookup = pending.poll();
+      if (lookup == null) {
+        running.release();
+        continue;
+      }
+      try {
+        executorService.submit(() -> {
+          try {
+            lookup.future.complete(fetch(lookup.name, lookup.cached));
+          } catch (Throwable t) {
+            lookup.future.completeExceptionally(t);
+          } finally {
+            inFlight.remove(lookup.name, lookup.future);
+            running.release();
+            submitPending();
+          }
+        });
+      } catch (RejectedExecutionException e) {
+        running.release();
+        inFlight.remove(lookup.name, lookup.future);
+        lookup.future.completeExceptionally(e);
+      }
+    }
+  }
+
+  private List<LibraryVersionDTO> fetch(String name, Releases cached) {
+    String url = settings.getPyPiRESTEndpoint().replaceFirst("\\{package}", name);
+    HttpGet request = new HttpGet(url);
+    request.setHeader(HttpHeaders.ACCEPT, "application/json");
+    if (cached != null && cached.etag != null) {
+      request.setHeader(HttpHeaders.IF_NONE_MATCH, cached.etag);
+    }
+    try (CloseableHttpResponse response = httpClient.execute(request)) {
+      int status = response.getStatusLine().getStatusCode();
+      if (status == HttpStatus.SC_NOT_MODIFIED && cached != null) {
+        cache.put(name, new Releases(cached.etag, cached.versions));
+        return cached.versions;
+      }
+      if (status != HttpStatus.SC_OK) {
+        EntityUtils.consumeQuietly(response.getEntity());
+        if (status == HttpStatus.SC_NOT_FOUND) {
+          cache.put(name, new Releases(null, null));
+        }
+        return null;
+      }
+      JSONObject jsonObject = new JSONObject(EntityUtils.toString(response.getEntity()));
+      List<LibraryVersionDTO> versions =
+        jsonObject.has("releases") ? getVersions(jsonObject.getJSONObject("releases")) : null;
+      Header etag = response.getFirstHeader(HttpHeaders.ETAG);
+      cache.put(name, new Releases(etag == null ? null : etag.getValue(), versions));
+      return versions;
+    } catch (IOException | JSONException e) {
+      //Serve the stale releases rather than nothing
+      LOGGER.log(Level.FINE, "PyPi REST endpoint connection failed " + url, e);
+      return cached == null ? null : cached.versions;
+    }
+  }
+
+  private List<LibraryVersionDTO> getVersions(JSONObject releases) {
+    List<LibraryVersionDTO> versions = new ArrayList<>();
+    Iterator<String> keys = releases.keys();
+    Date releaseDate = new Date(0);
+    while (keys.hasNext()) {
+      String key = keys.next();
+      if (releases.get(key) instanceof JSONArray) {
+        JSONObject versionMeta =
+          ((JSONArray) releases.get(key)).length() > 0 ? (JSONObject) ((JSONArray) releases.get(key)).get(0) : null;
+        if (versionMeta != null && versionMeta.has("upload_time")) {
+          String strDate = versionMeta.getString("upload_time");
+          SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss");
+          try {
+            releaseDate = sdf.parse(strDate);
+          } catch (ParseException e) {
+            LOGGER.log(Level.FINE, "Failed to parse release date: {0}", strDate);
+          }
+        }
+      }
+      versions.add(new LibraryVersionDTO(key, releaseDate));
+    }
+    return versions;
+  }
+
+  private static class Lookup {
+    private final String name;
+    private final Releases cached;
+    private final CompletableFuture<List<LibraryVersionDTO>> future;
+
+    private Lookup(String name, Releases cached, CompletableFuture<List<LibraryVersionDTO>> future) {
+      this.name = name;
+      this.cached = cached;
+      this.future = future;
+    }
+  }
+
+  private static class Releases {
+    private final String etag;
+    private final List<LibraryVersionDTO> versions;
+    private final long fetched = System.currentTimeMillis();
+
+    private Releases(String etag, List<LibraryVersionDTO> versions) {
+      this.etag = etag;
+      this.versions = versions;
+    }
+
+    private boolean isFresh(long ttl) {
+      return System.currentTimeMillis() - fetched < ttl;
+    }
+  }
+}
@@ -0,0 +1,388 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2021, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.common.python.search;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import io.hops.hopsworks.common.python.library.LibraryVersionDTO;
+import io.hops.hopsworks.common.util.Settings;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.DependsOn;
+import javax.ejb.EJB;
+import javax.ejb.Singleton;
+import javax.ejb.Startup;
+import javax.ejb.Timeout;
+import javax.ejb.Timer;
+import javax.ejb.TimerConfig;
+import javax.ejb.TimerService;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigInteger;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+
+import static javax.ejb.ConcurrencyManagementType.BEAN;
+
+/**
+ * In memory index of the packages of the conda channels configured for library search. The repodata.json of each
+ * subdir of a channel is fetched periodically and only parsed again if it changed, using the ETag and Last-Modified of
+ * the previous fetch. Searches in an indexed channel are answered from the index instead of running conda.
+ */
+@ConcurrencyManagement(BEAN)
+@Singleton
+@Startup
+@DependsOn("Settings")
+public class CondaChannelIndex {
+
+  private static final Logger LOGGER = Logger.getLogger(CondaChannelIndex.class.getName());
+  private static final String DEFAULTS_CHANNEL = "defaults";
+  private static final String DEFAULTS_URL = "https://repo.anaconda.com/pkgs/main";
+  private static final String ANACONDA_CLOUD_URL = "https://conda.anaconda.org/";
+  private static final int TIMEOUT_MS = 60000;
+  private static final long ERROR_RESCHEDULE_MS = 600000;
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
+  private static final Pattern URL_SCHEME = Pattern.compile("[a-zA-Z][a-zA-Z0-9+.-]*:");
+  private static final Pattern VERSION_SEPARATOR = Pattern.compile("[._+!-]|(?<=\\d)(?=[a-z])|(?<=[a-z])(?=\\d)");
+
+  @EJB
+  private Settings settings;
+  @Resource
+  private TimerService timerService;
+
+  private final ConcurrentHashMap<String, Channel> channels = new ConcurrentHashMap<>();
+
+  @PostConstruct
+  public void init() {
+    scheduleTimer(0);
+  }
+
+  private void scheduleTimer(long duration) {
+    if (settings.isCondaChannelIndexEnabled()) {
+      timerService.createSingleActionTimer(duration, new TimerConfig("Conda Channel Indexer", false));
+    } else {
+      LOGGER.log(Level.INFO, "Conda channel index is disabled, conda searches will run conda");
+    }
+  }
+
+  @Timeout
+  @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+  public void execute(Timer timer) {
+    boolean complete = refresh();
+    if (complete) {
+      String rawInterval = settings.getCondaChannelIndexInterval();
+      scheduleTimer(settings.getConfTimeTimeUnit(rawInterval).toMillis(settings.getConfTimeValue(rawInterval)));
+    } else {
+      scheduleTimer(ERROR_RESCHEDULE_MS);
+    }
+  }
+
+  /**
+   * Fetch the repodata of the configured channels that changed since the last refresh and drop the channels that
+   * are not configured anymore.
+   *
+   * @return false if any of the channels could not be refreshed
+   */
+  public boolean refresh() {
+    boolean complete = true;
+    Map<String, Channel> configured = new HashMap<>();
+    for (String channel : settings.getCondaChannelIndexChannels()) {
+      String url = channelUrl(channel);
+      Channel current = channels.get(url);
+      Map<String, Subdir> subdirs = new HashMap<>();
+      boolean changed = current == null;
+      for (String subdirName : settings.getCondaChannelIndexSubdirs()) {
+        Subdir previous = current == null ? null : current.subdirs.get(subdirName);
+        try {
+          Subdir subdir = fetch(url + "/" + subdirName + "/repodata.json", previous);
+          changed |= subdir != previous;
+          subdirs.put(subdirName, subdir);
+        } catch (IOException e) {
+          LOGGER.log(Level.WARNING, "Could not fetch the repodata of " + url + "/" + subdirName, e);
+          complete = false;
+          changed = true;
+          if (previous != null) {
+            subdirs.put(subdirName, previous);
+          }
+        }
+      }
+      if (subdirs.isEmpty()) {
+        //Never fetched, searches in the channel keep running conda
+        continue;
+      }
+      if (changed) {
+        configured.put(url, new Channel(subdirs));
+        LOGGER.log(Level.INFO, "Indexed conda channel {0}", url);
+      } else {
+        configured.put(url, current);
+      }
+    }
+    channels.putAll(configured);
+    channels.keySet().retainAll(configured.keySet());
+    return complete;
+  }
+
+  /**
+   * Search packages by name as conda search does: the name must match the given library exactly, unless the library
+   * has a * wildcard, which matches any sequence of characters. A search with a wildcard returns at most
+   * conda_channel_index_max_results packages, in alphabetical order.
+   *
+   * @param channel name or url of the channel, the default channel if null or empty
+   * @param library
+   * @return the versions of the packages of the channel whose name matches the given library, newest version first.
+   * Empty if the channel is not indexed.
+   */
+  public Optional<HashMap<String, List<LibraryVersionDTO>>> search(String channel, String library) {
+    Channel indexed = channels.get(channelUrl(channel == null || channel.isEmpty() ?
+      settings.getCondaDefaultRepo() : channel));
+    if (indexed == null) {
+      return Optional.empty();
+    }
+    String query = library == null ? "" : library.trim().toLowerCase();
+    HashMap<String, List<LibraryVersionDTO>> result = new HashMap<>();
+    int wildcard = query.indexOf('*');
+    if (query.isEmpty()) {
+      return Optional.of(result);
+    } else if (wildcard < 0) {
+      List<LibraryVersionDTO> versions = indexed.packages.get(query);
+      if (versions != null) {
+        result.put(query, new ArrayList<>(versions));
+      }
+      return Optional.of(result);
+    }
+    //Only the names starting with the part before the first wildcard can match
+    String prefix = query.substring(0, wildcard);
+    Pattern glob = glob(query);
+    int maxResults = settings.getCondaChannelIndexMaxResults();
+    for (Map.Entry<String, List<LibraryVersionDTO>> pkg : indexed.packages.tailMap(prefix).entrySet()) {
+      if (!pkg.getKey().startsWith(prefix) || result.size() >= maxResults) {
+        break;
+      }
+      if (glob.matcher(pkg.getKey()).matches()) {
+        result.put(pkg.getKey(), new ArrayList<>(pkg.getValue()));
+      }
+    }
+    return Optional.of(result);
+  }
+
+  private static Pattern glob(String query) {
+    String[] parts = query.split("\\*", -1);
+    StringBuilder regex = new StringBuilder();
+    for (int i = 0; i < parts.length; i++) {
+      if (i > 0) {
+        regex.append(".*");
+      }
+      if (!parts[i].isEmpty()) {
+        regex.append(Pattern.quote(parts[i]));
+      }
+    }
+    return Pattern.compile(regex.toString());
+  }
+
+  public boolean isIndexed(String channel) {
+    return channels.containsKey(channelUrl(channel));
+  }
+
+  static String channelUrl(String channel) {
+    String url = channel.trim();
+    if (DEFAULTS_CHANNEL.equals(url)) {
+      return DEFAULTS_URL;
+    }
+    if (!URL_SCHEME.matcher(url).lookingAt()) {
+      url = ANACONDA_CLOUD_URL + url;
+    }
+    while (url.endsWith("/")) {
+      url = url.substring(0, url.length() - 1);
+    }
+    return url;
+  }
+
+  /**
+   * @return the previous subdir if the repodata did not change, the parsed repodata otherwise
+   */
+  private Subdir fetch(String repodataUrl, Subdir previous) throws IOException {
+    URLConnection connection = new URL(repodataUrl).openConnection();
+    connection.setConnectTimeout(TIMEOUT_MS);
+    connection.setReadTimeout(TIMEOUT_MS);
+    if (connection instanceof HttpURLConnection) {
+      HttpURLConnection http = (HttpURLConnection) connection;
+      http.setRequestProperty("Accept-Encoding", "gzip");
+      if (previous != null && previous.etag != null) {
+        http.setRequestProperty("If-None-Match", previous.etag);
+      }
+      if (previous != null && previous.lastModified > 0) {
+        http.setIfModifiedSince(previous.lastModified);
+      }
+      int status = http.getResponseCode();
+      if (status == HttpURLConnection.HTTP_NOT_MODIFIED && previous != null) {
+        http.disconnect();
+        return previous;
+      }
+      if (status != HttpURLConnection.HTTP_OK) {
+        http.disconnect();
+        throw new IOException("Fetching " + repodataUrl + " returned " + status);
+      }
+    } else if (previous != null && previous.lastModified > 0 && connection.getLastModified() == previous.lastModified) {
+      return previous;
+    }
+    try (InputStream in = "gzip".equals(connection.getContentEncoding()) ?
+      new GZIPInputStream(connection.getInputStream()) : connection.getInputStream()) {
+      return new Subdir(connection.getHeaderField("ETag"), connection.getLastModified(), parse(in));
+    }
+  }
+
+  /**
+   * @return the versions of each package in the repodata, with the most recent build timestamp of each version
+   */
+  static Map<String, Map<String, Long>> parse(InputStream in) throws IOException {
+    Map<String, Map<String, Long>> packages = new HashMap<>();
+    try (JsonParser parser = JSON_FACTORY.createParser(in)) {
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        throw new IOException("repodata is not a JSON object");
+      }
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String field = parser.getCurrentName();
+        parser.nextToken();
+        if (!"packages".equals(field) && !"packages.conda".equals(field)) {
+          parser.skipChildren();
+          continue;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+          parser.nextToken();
+          String name = null;
+          String version = null;
+          long timestamp = 0;
+          while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String key = parser.getCurrentName();
+            parser.nextToken();
+            if ("name".equals(key)) {
+              name = parser.getText();
+            } else if ("version".equals(key)) {
+              version = parser.getText();
+            } else if ("timestamp".equals(key)) {
+              timestamp = parser.getValueAsLong();
+            } else {
+              parser.skipChildren();
+            }
+          }
+          if (name != null && version != null) {
+            //Old packages have their timestamp in seconds
+            long millis = timestamp < 100000000000L ? timestamp * 1000 : timestamp;
+            packages.computeIfAbsent(name, n -> new HashMap<>()).merge(version, millis, Math::max);
+          }
+        }
+      }
+    }
+    return packages;
+  }
+
+  /**
+   * Orders versions by their numeric and alphanumeric components, an approximation of the ordering conda uses. A
+   * version with an alphabetic component where the other one has ended, like 1.0rc1 against 1.0, is a pre-release,
+   * unless the component is post.
+   */
+  static final Comparator<String> VERSION_ORDER = (v1, v2) -> {
+    String[] c1 = VERSION_SEPARATOR.split(v1.toLowerCase());
+    String[] c2 = VERSION_SEPARATOR.split(v2.toLowerCase());
+    for (int i = 0; i < Math.max(c1.length, c2.length); i++) {
+      if (i >= c1.length) {
+        return isRelease(c2[i]) ? -1 : 1;
+      }
+      if (i >= c2.length) {
+        return isRelease(c1[i]) ? 1 : -1;
+      }
+      int cmp = Integer.compare(rank(c1[i]), rank(c2[i]));
+      if (cmp == 0) {
+        cmp = isNumber(c1[i]) ? new BigInteger(c1[i]).compareTo(new BigInteger(c2[i])) : c1[i].compareTo(c2[i]);
+      }
+      if (cmp != 0) {
+        return cmp;
+      }
+    }
+    return 0;
+  };
+
+  private static boolean isRelease(String component) {
+    return isNumber(component) || "post".equals(component);
+  }
+
+  /**
+   * Pre-release tags sort before post, and both before a number.
+   */
+  private static int rank(String component) {
+    return isNumber(component) ? 2 : "post".equals(component) ? 1 : 0;
+  }
+
+  private static boolean isNumber(String component) {
+    return !component.isEmpty() && component.chars().allMatch(Character::isDigit);
+  }
+
+  private static class Subdir {
+    private final String etag;
+    private final long lastModified;
+    private final Map<String, Map<String, Long>> packages;
+
+    private Subdir(String etag, long lastModified, Map<String, Map<String, Long>> packages) {
+      this.etag = etag;
+      this.lastModified = lastModified;
+      this.packages = packages;
+    }
+  }
+
+  /**
+   * The packages of all the subdirs of a channel, with their versions newest first.
+   */
+  private static class Channel {
+    private final Map<String, Subdir> subdirs;
+    private final TreeMap<String, List<LibraryVersionDTO>> packages = new TreeMap<>();
+
+    private Channel(Map<String, Subdir> subdirs) {
+      this.subdirs = subdirs;
+      Map<String, Map<String, Long>> merged = new HashMap<>();
+      for (Subdir subdir : subdirs.values()) {
+        subdir.packages.forEach((name, versions) -> versions.forEach((version, timestamp) ->
+          merged.computeIfAbsent(name, n -> new HashMap<>()).merge(version, timestamp, Math::max)));
+      }
+      merged.forEach((name, versions) -> {
+        List<LibraryVersionDTO> sorted = new ArrayList<>();
+        versions.entrySet().stream()
+          .sorted(Map.Entry.<String, Long>comparingByKey(VERSION_ORDER).reversed())
+          .forEach(v -> sorted.add(new LibraryVersionDTO(v.getKey(), new Date(v.getValue()))));
+        packages.put(name.toLowerCase(), sorted);
+      });
+    }
+  }
+}
@@ -0,0 +1,312 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2021, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.common.security;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import io.hops.hopsworks.common.util.Settings;
+import io.hops.hopsworks.persistence.entity.user.security.apiKey.ApiScope;
+
+import javax.annotation.PostConstruct;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.EJB;
+import javax.ejb.Schedule;
+import javax.ejb.Singleton;
+import javax.ejb.Timer;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static javax.ejb.ConcurrencyManagementType.BEAN;
+
+/**
+ * Short lived cache of the authorization decisions taken by the request filters, so that requests of clients
+ * calling the API in a loop do not need to look up the project, the user, the project role and the api key every
+ * time. The application proxies keep here, with a shorter TTL, whether a user can access a YARN application.
+ *
+ * Entries are invalidated on this instance by ProjectController and ApiKeyController when memberships, roles or keys
+ * change, and by the job monitor when an application stops. Other instances of the cluster pick up the change when
+ * the entry expires, so the TTL is the upper bound on how long a revoked permission can still be used there.
+ */
+@ConcurrencyManagement(BEAN)
+@Singleton
+@TransactionAttribute(TransactionAttributeType.NEVER)
+public class AuthorizationCache {
+
+  private static final Logger LOGGER = Logger.getLogger(AuthorizationCache.class.getName());
+
+  @EJB
+  private Settings settings;
+
+  //Key is username/id:projectId or username/name:projectName
+  private Cache<String, ProjectRole> projectRoles;
+  //Key is the api key prefix
+  private Cache<String, ApiKeyAuthorization> apiKeys;
+  //Key is principal/appId, the principal is email:userEmail or user:username
+  private Cache<String, ApplicationAccess> applicationAccesses;
+
+  @PostConstruct
+  public void init() {
+    int ttl = settings.getAuthorizationCacheTTL();
+    int maxSize = settings.getAuthorizationCacheMaxSize();
+    projectRoles = CacheBuilder.newBuilder()
+      .maximumSize(maxSize)
+      .expireAfterWrite(ttl, TimeUnit.SECONDS)
+      .recordStats()
+      .build();
+    apiKeys = CacheBuilder.newBuilder()
+      .maximumSize(maxSize)
+      .expireAfterWrite(ttl, TimeUnit.SECONDS)
+      .recordStats()
+      .build();
+    applicationAccesses = CacheBuilder.newBuilder()
+      .maximumSize(maxSize)
+      .expireAfterWrite(settings.getProxyAuthorizationCacheTTL(), TimeUnit.SECONDS)
+      .recordStats()
+      .build();
+  }
+
+  public ProjectRole getProjectRole(String username, Integer projectId, String projectName) {
+    return projectRoles.getIfPresent(projectRoleKey(username, projectId, projectName));
+  }
+
+  public void putProjectRole(String username, Integer projectId, String projectName, ProjectRole projectRole) {
+    projectRoles.put(projectRoleKey(username, projectId, projectName), projectRole);
+  }
+
+  public ApiKeyAuthorization getApiKey(String prefix) {
+    return apiKeys.getIfPresent(prefix);
+  }
+
+  public void putApiKey(String prefix, ApiKeyAuthorization apiKeyAuthorization) {
+    apiKeys.put(prefix, apiKeyAuthorization);
+  }
+
+  public ApplicationAccess getApplicationAccess(String principal, String appId) {
+    return applicationAccesses.getIfPresent(principal + "/" + appId);
+  }
+
+  public void putApplicationAccess(String principal, ApplicationAccess applicationAccess) {
+    applicationAccesses.put(principal + "/" + applicationAccess.getAppId(), applicationAccess);
+  }
+
+  /**
+   * Drop the role of a member, used when a member is added, removed or changes role.
+   */
+  public void invalidateProjectMember(Integer projectId, String username) {
+    projectRoles.asMap().values().removeIf(r -> r.getProjectId().equals(projectId)
+      && r.getUsername().equals(username));
+    applicationAccesses.asMap().values().removeIf(a -> a.getProjectId().equals(projectId)
+      && a.getUsername().equals(username));
+  }
+
+  /**
+   * Drop the roles of all the members of a project, used when the project is removed.
+   */
+  public void invalidateProject(Integer projectId) {
+    projectRoles.asMap().values().removeIf(r -> r.getProjectId().equals(projectId));
+    applicationAccesses.asMap().values().removeIf(a -> a.getProjectId().equals(projectId));
+  }
+
+  public void invalidateProject(String projectName) {
+    projectRoles.asMap().values().removeIf(r -> r.getProjectName().equals(projectName));
+    applicationAccesses.asMap().values().removeIf(a -> a.getProjectName().equals(projectName));
+  }
+
+  public void invalidateApiKey(String prefix) {
+    apiKeys.invalidate(prefix);
+  }
+
+  /**
+   * Drop the decisions about an application, used when the application stops.
+   */
+  public void invalidateApplication(String appId) {
+    applicationAccesses.asMap().values().removeIf(a -> a.getAppId().equals(appId));
+  }
+
+  public CacheStats getProjectRoleStats() {
+    return projectRoles.stats();
+  }
+
+  public long getProjectRoleCacheSize() {
+    return projectRoles.size();
+  }
+
+  public CacheStats getApiKeyStats() {
+    return apiKeys.stats();
+  }
+
+  public long getApiKeyCacheSize() {
+    return apiKeys.size();
+  }
+
+  public CacheStats getApplicationAccessStats() {
+    return applicationAccesses.stats();
+  }
+
+  public long getApplicationAccessCacheSize() {
+    return applicationAccesses.size();
+  }
+
+  @Schedule(persistent = false, minute = "*/10", hour = "*")
+  public void logStats(Timer timer) {
+    CacheStats roles = projectRoles.stats();
+    CacheStats keys = apiKeys.stats();
+    CacheStats applications = applicationAccesses.stats();
+    LOGGER.log(Level.INFO, "Authorization cache hit ratio: project roles {0} ({1} requests), api keys {2} ({3} " +
+      "requests), applications {4} ({5} requests)", new Object[]{String.format("%.3f", roles.hitRate()),
+      roles.requestCount(), String.format("%.3f", keys.hitRate()), keys.requestCount(),
+      String.format("%.3f", applications.hitRate()), applications.requestCount()});
+  }
+
+  private String projectRoleKey(String username, Integer projectId, String projectName) {
+    return projectId != null ? username + "/id:" + projectId : username + "/name:" + projectName;
+  }
+
+  /**
+   * Role of a user in a project. An empty role means that the user is not a member.
+   */
+  public static class ProjectRole {
+    private final Integer projectId;
+    private final String projectName;
+    private final String username;
+    private final String role;
+
+    public ProjectRole(Integer projectId, String projectName, String username, String role) {
+      this.projectId = projectId;
+      this.projectName = projectName;
+      this.username = username;
+      this.role = role == null ? "" : role;
+    }
+
+    public Integer getProjectId() {
+      return projectId;
+    }
+
+    public String getProjectName() {
+      return projectName;
+    }
+
+    public String getUsername() {
+      return username;
+    }
+
+    public String getRole() {
+      return role;
+    }
+  }
+
+  /**
+   * Whether a user can access a YARN application: the user must be a member of the project that runs it.
+   */
+  public static class ApplicationAccess {
+    private final String appId;
+    private final String state;
+    private final Integer projectId;
+    private final String projectName;
+    private final String username;
+    private final boolean member;
+
+    public ApplicationAccess(String appId, String state, Integer projectId, String projectName, String username,
+      boolean member) {
+      this.appId = appId;
+      this.state = state;
+      this.projectId = projectId;
+      this.projectName = projectName;
+      this.username = username;
+      this.member = member;
+    }
+
+    public String getAppId() {
+      return appId;
+    }
+
+    /**
+     * @return the state of the application when the decision was taken
+     */
+    public String getState() {
+      return state;
+    }
+
+    public Integer getProjectId() {
+      return projectId;
+    }
+
+    public String getProjectName() {
+      return projectName;
+    }
+
+    public String getUsername() {
+      return username;
+    }
+
+    public boolean isMember() {
+      return member;
+    }
+  }
+
+  /**
+   * Result of the verification of an api key. The secret itself is not kept, only its salted digest.
+   */
+  public static class ApiKeyAuthorization {
+    private final String prefix;
+    private final String salt;
+    private final String secretDigest;
+    private final String username;
+    private final List<String> roles;
+    private final Set<ApiScope> scopes;
+
+    public ApiKeyAuthorization(String prefix, String salt, String secretDigest, String username,
+      List<String> roles, Set<ApiScope> scopes) {
+      this.prefix = prefix;
+      this.salt = salt;
+      this.secretDigest = secretDigest;
+      this.username = username;
+      this.roles = Collections.unmodifiableList(roles);
+      this.scopes = Collections.unmodifiableSet(scopes);
+    }
+
+    public String getPrefix() {
+      return prefix;
+    }
+
+    public String getSalt() {
+      return salt;
+    }
+
+    public String getSecretDigest() {
+      return secretDigest;
+    }
+
+    public String getUsername() {
+      return username;
+    }
+
+    public List<String> getRoles() {
+      return roles;
+    }
+
+    public Set<ApiScope> getScopes() {
+      return scopes;
+    }
+  }
+}
@@ -0,0 +1,194 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2021, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.common.security;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Re-encrypts the items of a {@link MasterPasswordHandler} with the new master encryption password in batches. The
+ * old values of a batch are logged to the {@link MasterPasswordRotationJournal} before the batch is rotated, the
+ * items of the batch are encrypted in parallel and written back in one transaction. Items logged by an interrupted
+ * change whose value differs from the logged one were already rotated and are skipped.
+ *
+ * @param <T> Type of the items
+ */
+public abstract class BatchedMasterPasswordRotation<T> {
+  
+  public static final int DEFAULT_BATCH_SIZE = 500;
+  
+  private final String name;
+  private final int batchSize;
+  private final ExecutorService executor;
+  
+  /**
+   * @param name Name of the items in the journal, it must not change between releases
+   * @param batchSize Items rotated and written per transaction
+   * @param executor Executor to encrypt the items of a batch with
+   */
+  protected BatchedMasterPasswordRotation(String name, int batchSize, ExecutorService executor) {
+    this.name = name;
+    this.batchSize = batchSize;
+    this.executor = executor;
+  }
+  
+  /**
+   * @return All the items to rotate
+   */
+  protected abstract List<T> findAll();
+  
+  /**
+   * @return Key of the item in the journal
+   */
+  protected abstract String key(T item);
+  
+  /**
+   * @return Current encrypted value of the item
+   */
+  protected abstract byte[] value(T item);
+  
+  protected abstract void setValue(T item, byte[] value);
+  
+  /**
+   * Decrypt the value of the item with the old password and encrypt it with the new one. It is called
+   * concurrently for the items of a batch.
+   * @return The value encrypted with the new password
+   */
+  protected abstract byte[] reEncrypt(T item, String oldPassword, String newPassword) throws Exception;
+  
+  /**
+   * Write a batch of items in one transaction
+   */
+  protected abstract void update(List<T> batch);
+  
+  public Result rotate(String oldPassword, String newPassword, MasterPasswordRotationJournal journal)
+    throws Exception {
+    long start = System.currentTimeMillis();
+    if (journal.isDone(name)) {
+      return new Result(name, 0, 0, 0);
+    }
+    Map<String, byte[]> logged = journal.getItems(name);
+    List<T> items = findAll();
+    int rotated = 0;
+    int skipped = 0;
+    for (int i = 0; i < items.size(); i += batchSize) {
+      List<T> toRotate = new ArrayList<>();
+      Map<String, byte[]> toLog = new HashMap<>();
+      for (T item : items.subList(i, Math.min(i + batchSize, items.size()))) {
+        byte[] old = logged.get(key(item));
+        if (old == null) {
+          toLog.put(key(item), value(item));
+        } else if (!Arrays.equals(old, value(item))) {
+          skipped++;
+          continue;
+        }
+        toRotate.add(item);
+      }
+      journal.logItems(name, toLog);
+      
+      List<Future<byte[]>> newValues = new ArrayList<>(toRotate.size());
+      for (T item : toRotate) {
+        newValues.add(executor.submit(() -> reEncrypt(item, oldPassword, newPassword)));
+      }
+      try {
+        for (int j = 0; j < toRotate.size(); j++) {
+          setValue(toRotate.get(j), newValues.get(j).get());
+        }
+      } catch (ExecutionException ex) {
+        newValues.forEach(f -> f.cancel(true));
+        throw new Exception("Could not re-encrypt " + name, ex.getCause());
+      }
+      if (!toRotate.isEmpty()) {
+        update(toRotate);
+      }
+      rotated += toRotate.size();
+    }
+    journal.markDone(name);
+    return new Result(name, rotated, skipped, System.currentTimeMillis() - start);
+  }
+  
+  /**
+   * Restore the old value of the items logged in the journal
+   * @return Number of items restored
+   */
+  public int rollback(MasterPasswordRotationJournal journal) {
+    Map<String, byte[]> logged = journal.getItems(name);
+    if (logged.isEmpty()) {
+      return 0;
+    }
+    int restored = 0;
+    List<T> batch = new ArrayList<>();
+    for (T item : findAll()) {
+      byte[] old = logged.get(key(item));
+      if (old != null && !Arrays.equals(old, value(item))) {
+        setValue(item, old);
+        batch.add(item);
+      }
+      if (batch.size() == batchSize) {
+        update(batch);
+        restored += batch.size();
+        batch = new ArrayList<>();
+      }
+    }
+    if (!batch.isEmpty()) {
+      update(batch);
+      restored += batch.size();
+    }
+    return restored;
+  }
+  
+  public static class Result {
+    private final String name;
+    private final int rotated;
+    private final int skipped;
+    private final long elapsed;
+    
+    Result(String name, int rotated, int skipped, long elapsed) {
+      this.name = name;
+      this.rotated = rotated;
+      this.skipped = skipped;
+      this.elapsed = elapsed;
+    }
+    
+    public int getRotated() {
+      return rotated;
+    }
+    
+    public int getSkipped() {
+      return skipped;
+    }
+    
+    public long getElapsed() {
+      return elapsed;
+    }
+    
+    public double getThroughput() {
+      return elapsed == 0 ? rotated : rotated * 1000.0 / elapsed;
+    }
+    
+    @Override
+    public String toString() {
+      return String.format("Rotated %d %s (%d already rotated) in %d ms, %.0f/s", rotated, name, skipped, elapsed,
+        getThroughput());
+    }
+  }
+}
@@ -51,8 +51,11 @@ import io.hops.hopsworks.persistence.entity.security.RemoteMaterialReferences;
 import io.hops.hopsworks.common.util.HopsUtils;
 import io.hops.hopsworks.common.util.Settings;
 import io.hops.hopsworks.exceptions.CryptoPasswordNotFoundException;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalListener;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import org.apache.commons.collections.Bag;
-import org.apache.commons.collections.MapUtils;
 import org.apache.commons.collections.bag.HashBag;
 import org.apache.commons.io.FileUtils;
 import org.apache.hadoop.fs.FSDataOutputStream;
@@ -68,6 +71,10 @@ import javax.ejb.DependsOn;
 import javax.ejb.EJB;
 import javax.ejb.Singleton;
 import javax.enterprise.concurrent.ManagedScheduledExecutorService;
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.TrustManagerFactory;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.net.InetAddress;
@@ -79,13 +86,16 @@ import java.nio.file.Paths;
 import java.nio.file.attribute.PosixFileAttributeView;
 import java.nio.file.attribute.PosixFilePermission;
 import java.nio.file.attribute.PosixFilePermissions;
-import java.util.Comparator;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
@@ -109,6 +119,8 @@ public class CertificateMaterializer {
   private final Map<MaterialKey, CryptoMaterial> materialCache;
   private final Map<MaterialKey, Map<String, LocalFileRemover>> fileRemovers;
   private final Map<MaterialKey, ReentrantReadWriteLock> materialKeyLocks = new ConcurrentHashMap<>();
+  // Decoded material for consumers running in this JVM, it does not depend on any file being materialized
+  private Cache<MaterialKey, InMemoryMaterial> inMemoryMaterial;
   
   private String lock_id;
   
@@ -134,9 +146,9 @@ public class CertificateMaterializer {
   private ManagedScheduledExecutorService scheduler;
   
   public CertificateMaterializer() {
-    materializedCerts = new HashMap<>();
-    materialCache = new HashMap<>();
-    fileRemovers = new HashMap<>();
+    materializedCerts = new ConcurrentHashMap<>();
+    materialCache = new ConcurrentHashMap<>();
+    fileRemovers = new ConcurrentHashMap<>();
   }
   
   @PostConstruct
@@ -204,6 +216,14 @@ public class CertificateMaterializer {
     String delayRaw = settings.getCertificateMaterializerDelay();
     DELAY_VALUE = settings.getConfTimeValue(delayRaw);
     DELAY_TIMEUNIT = settings.getConfTimeTimeUnit(delayRaw);
+    // Expire after write so that material regenerated on another instance is picked up after the delay
+    RemovalListener<MaterialKey, InMemoryMaterial> wipeOnRemoval = notification -> notification.getValue().wipe();
+    inMemoryMaterial = CacheBuilder.newBuilder()
+        // Material evicted as soon as it is loaded would be read again forever
+        .maximumSize(Math.max(1, settings.getCertificateMaterializerMaxInMemory()))
+        .expireAfterWrite(DELAY_VALUE, DELAY_TIMEUNIT)
+        .removalListener(wipeOnRemoval)
+        .build();
     
     try {
       String hostAddress = InetAddress.getLocalHost().getHostAddress();
@@ -590,6 +610,81 @@ public class CertificateMaterializer {
     return ref != null;
   }
   
+  /**
+   * Get a copy of project *specific* material without writing anything to the filesystem. Use this instead of
+   * materializing the certificates when the consumer runs in this JVM and does not need a path to a file.
+   *
+   * @param username Username of the user, null for project *generic* material
+   * @param projectName Name of the project
+   * @return Copy of the crypto material, the caller may wipe the password when done
+   * @throws IOException In case the material could not be fetched from the database
+   */
+  public CryptoMaterial getMaterial(String username, String projectName) throws IOException {
+    return loadMaterial(new MaterialKey(username, projectName));
+  }
+  
+  /**
+   * Get the keystore of project *specific* material, loaded in memory. The keystore is loaded once and shared by all
+   * the callers as long as the material stays in memory, callers must not modify it.
+   *
+   * @param username Username of the user, null for project *generic* material
+   * @param projectName Name of the project
+   * @return Keystore
+   * @throws IOException In case the material could not be fetched from the database or loaded
+   */
+  public KeyStore getKeyStore(String username, String projectName) throws IOException {
+    KeyStore keyStore = null;
+    while (keyStore == null) {
+      keyStore = getInMemoryMaterial(new MaterialKey(username, projectName)).getKeyStore();
+    }
+    return keyStore;
+  }
+  
+  /**
+   * Get the truststore of project *specific* material, loaded in memory. The truststore is loaded once and shared by
+   * all the callers as long as the material stays in memory, callers must not modify it.
+   *
+   * @param username Username of the user, null for project *generic* material
+   * @param projectName Name of the project
+   * @return Truststore
+   * @throws IOException In case the material could not be fetched from the database or loaded
+   */
+  public KeyStore getTrustStore(String username, String projectName) throws IOException {
+    KeyStore trustStore = null;
+    while (trustStore == null) {
+      trustStore = getInMemoryMaterial(new MaterialKey(username, projectName)).getTrustStore();
+    }
+    return trustStore;
+  }
+  
+  /**
+   * Get an SSLContext initialized with the keystore and truststore of project *specific* material. The context is
+   * built once and shared by all the callers as long as the material stays in memory.
+   *
+   * @param username Username of the user, null for project *generic* material
+   * @param projectName Name of the project
+   * @return Initialized SSLContext
+   * @throws IOException In case the material could not be fetched from the database or loaded
+   */
+  public SSLContext getSSLContext(String username, String projectName) throws IOException {
+    SSLContext sslContext = null;
+    while (sslContext == null) {
+      sslContext = getInMemoryMaterial(new MaterialKey(username, projectName)).getSSLContext();
+    }
+    return sslContext;
+  }
+  
+  /**
+   * Drop the in-memory copy of project *specific* material, so that the next request reads it from the database.
+   * It must be called when the material of a user is regenerated or removed.
+   *
+   * @param username Username of the user, null for project *generic* material
+   * @param projectName Name of the project
+   */
+  public void invalidateMaterial(String username, String projectName) {
+    inMemoryMaterial.invalidate(new MaterialKey(username, projectName));
+  }
+  
   /*
    * End of Certificate materializer API
    */
@@ -612,30 +707,35 @@ public class CertificateMaterializer {
    *
    * @return The state of the CertificateMaterializer at that point of time
    */
-  @SuppressWarnings("unchecked")
   public MaterializerState<Map<String, Map<String, Integer>>, Map<String, Map<String, Integer>>,
       Map<String, Set<String>>, Map<String, Boolean>> getState() {
-    MaterializerState<Map<MaterialKey, Bag>, List<RemoteMaterialReferences>, Map<MaterialKey,
-        Map<String, Runnable>>, Map<MaterialKey, ReentrantReadWriteLock>>
-        state = getImmutableState();
-    
-    Map<MaterialKey, Bag> localMaterialState = state.getLocalMaterial();
-    
     // <Username, <MaterialPath, NumberOfReferences>>
-    Map<String, Map<String, Integer>> simpleLocalMaterialState = new HashMap<>(localMaterialState.size());
+    Map<String, Map<String, Integer>> simpleLocalMaterialState = new HashMap<>(materializedCerts.size());
     
-    for (Map.Entry<MaterialKey, Bag> entry : localMaterialState.entrySet()) {
-      String username = entry.getKey().getExtendedUsername();
-      Map<String, Integer> referencesMap = new HashMap<>();
-      Bag pathsBag = entry.getValue();
-      Set<String> paths = pathsBag.uniqueSet();
-      for (String path : paths) {
-        referencesMap.put(path, pathsBag.getCount(path));
+    for (MaterialKey key : materializedCerts.keySet()) {
+      // Bags are modified under the write lock of their key, copy them under the read lock
+      ReentrantReadWriteLock.ReadLock lock = getReadLockForKey(key);
+      if (lock == null) {
+        continue;
+      }
+      lock.lock();
+      try {
+        Bag pathsBag = materializedCerts.get(key);
+        if (pathsBag == null) {
+          continue;
+        }
+        Map<String, Integer> referencesMap = new HashMap<>();
+        Set<String> paths = pathsBag.uniqueSet();
+        for (String path : paths) {
+          referencesMap.put(path, pathsBag.getCount(path));
+        }
+        simpleLocalMaterialState.put(key.getExtendedUsername(), referencesMap);
+      } finally {
+        lock.unlock();
       }
-      simpleLocalMaterialState.put(username, referencesMap);
     }
     
-    List<RemoteMaterialReferences> remoteMaterialState = state.getRemoteMaterial();
+    List<RemoteMaterialReferences> remoteMaterialState = remoteMaterialReferencesFacade.findAll();
     // <Username, <MaterialPath, NumberOfReferences>>
     Map<String, Map<String, Integer>> simpleRemoteMaterialState = new HashMap<>(remoteMaterialState.size());
     
@@ -651,16 +751,14 @@ public class CertificateMaterializer {
       }
     }
     
-    Map<MaterialKey, Map<String, Runnable>> fileRemovals = state.getScheduledRemovals();
     // <Username, [MaterialPath]>
     Map<String, Set<String>> simpleScheduledRemovals = new HashMap<>();
     
-    for (Map.Entry<MaterialKey, Map<String, Runnable>> entry : fileRemovals.entrySet()) {
+    for (Map.Entry<MaterialKey, Map<String, LocalFileRemover>> entry : fileRemovers.entrySet()) {
       String username = entry.getKey().getExtendedUsername();
-      simpleScheduledRemovals.put(username, entry.getValue().keySet());
+      simpleScheduledRemovals.put(username, new HashSet<>(entry.getValue().keySet()));
     }
     
-    Map<MaterialKey, ReentrantReadWriteLock> materialKeyLocks = state.getMaterialKeyLocks();
     // Username, Locked
     Map<String, Boolean> flatMaterialKeyLocks = new HashMap<>(materialKeyLocks.size());
     for (Map.Entry<MaterialKey, ReentrantReadWriteLock> lock : materialKeyLocks.entrySet()) {
@@ -671,54 +769,6 @@ public class CertificateMaterializer {
         simpleScheduledRemovals, flatMaterialKeyLocks);
   }
   
-  private MaterializerState<Map<MaterialKey, Bag>, List<RemoteMaterialReferences>,
-      Map<MaterialKey, Map<String, Runnable>>, Map<MaterialKey, ReentrantReadWriteLock>> getImmutableState() {
-    Map<MaterialKey, Bag> localMaterial = null;
-    Map<MaterialKey, Map<String, Runnable>> scheduledRemovals = null;
-    List<RemoteMaterialReferences> remoteMaterial = null;
-    Map<MaterialKey, ReentrantReadWriteLock> materialKeyLocks = null;
-  
-    // Take all the write locks
-    TreeSet<ReentrantReadWriteLock> acquiredLocks = acquireWriteLocks(this.materialKeyLocks);
-    try {
-      localMaterial = MapUtils.unmodifiableMap(materializedCerts);
-      scheduledRemovals = MapUtils.unmodifiableMap(fileRemovers);
-      materialKeyLocks = MapUtils.unmodifiableMap(this.materialKeyLocks);
-      remoteMaterial = remoteMaterialReferencesFacade.findAll();
-    } finally {
-      // Release all locks acquired
-      releaseWriteLocks(acquiredLocks);
-    }
-    
-    return new MaterializerState(localMaterial, remoteMaterial, scheduledRemovals, materialKeyLocks);
-  }
-  
-  private TreeSet<ReentrantReadWriteLock> acquireWriteLocks(Map<MaterialKey, ReentrantReadWriteLock> lockSet) {
-    TreeSet<ReentrantReadWriteLock> acquiredLocks = new TreeSet<>(new Comparator<ReentrantReadWriteLock>() {
-      @Override
-      public int compare(ReentrantReadWriteLock t0, ReentrantReadWriteLock t1) {
-        if (t0.hashCode() < t1.hashCode()) {
-          return -1;
-        } else if (t0.hashCode() > t1.hashCode()) {
-          return 1;
-        }
-        return 0;
-      }
-    });
-    
-    lockSet.values().stream()
-        .forEach(l -> {
-          l.writeLock().lock();
-          acquiredLocks.add(l);
-        });
-    return acquiredLocks;
-  }
-
-  private void releaseWriteLocks(TreeSet<ReentrantReadWriteLock> acquiredLocks) {
-    Set<ReentrantReadWriteLock> reversedLocks = acquiredLocks.descendingSet();
-    reversedLocks.stream().forEach(l -> l.writeLock().unlock());
-  }
-  
   public class MaterializerState<T, S, R, P> {
     private final T localMaterial;
     private final S remoteMaterial;
@@ -763,7 +813,7 @@ public class CertificateMaterializer {
       if (shouldContinue) {
         // First time it was requested to be materialized
         // 1. Get certs fro DB
-        CryptoMaterial material = getMaterialFromDatabase(key);
+        CryptoMaterial material = loadMaterial(key);
         // 2. Add them to L1 Cache
         materialCache.put(key, material);
         // 3. Write them to local FS
@@ -788,7 +838,7 @@ public class CertificateMaterializer {
           // but fetch them from DB anyways
           CryptoMaterial material = materialCache.get(key);
           if (material == null) {
-            material = getMaterialFromDatabase(key);
+            material = loadMaterial(key);
             materialCache.put(key, material);
           }
           // 2. Flush buffers to local filesystem
@@ -832,7 +882,7 @@ public class CertificateMaterializer {
         if (localFileRemover.cryptoMaterial != null) {
           materialCache.put(key, localFileRemover.cryptoMaterial);
         } else {
-          CryptoMaterial material = getMaterialFromDatabase(key);
+          CryptoMaterial material = loadMaterial(key);
           materialCache.put(key, material);
         }
       }
@@ -897,7 +947,7 @@ public class CertificateMaterializer {
     if (materialRemovesForKey != null) {
       materialRemovesForKey.put(materializationDirectory, fileRemover);
     } else {
-      materialRemovesForKey = new HashMap<>();
+      materialRemovesForKey = new ConcurrentHashMap<>();
       materialRemovesForKey.put(materializationDirectory, fileRemover);
       fileRemovers.put(key, materialRemovesForKey);
     }
@@ -951,6 +1001,8 @@ public class CertificateMaterializer {
       
       // Then from local FS
       deleteMaterialFromLocalFs(key, materializationDirectory);
+      // Material is forcefully removed when it is revoked, do not serve it from memory either
+      inMemoryMaterial.invalidate(key);
       removeLockForKey(key);
     } finally {
       lock.unlock();
@@ -980,7 +1032,7 @@ public class CertificateMaterializer {
           // 1. Check if in cache otherwise fetch from DB
           CryptoMaterial material = materialCache.get(key);
           if (material == null) {
-            material = getMaterialFromDatabase(key);
+            material = loadMaterial(key);
           }
           
           // 2. Upload to HDFS
@@ -1184,6 +1236,31 @@ public class CertificateMaterializer {
   /*
    * Utility methods
    */
+  
+  /**
+   * Copy of the material of a key. It is decoded once and shared by all the consumers, the copy returned is owned by
+   * the caller as materialCache wipes the password when the files are removed. Material evicted while it was being
+   * copied has been wiped already, it is then read again.
+   */
+  private CryptoMaterial loadMaterial(MaterialKey key) throws IOException {
+    CryptoMaterial material = null;
+    while (material == null) {
+      material = getInMemoryMaterial(key).toCryptoMaterial();
+    }
+    return material;
+  }
+  
+  private InMemoryMaterial getInMemoryMaterial(MaterialKey key) throws IOException {
+    try {
+      return inMemoryMaterial.get(key, () -> new InMemoryMaterial(getMaterialFromDatabase(key)));
+    } catch (ExecutionException | UncheckedExecutionException ex) {
+      if (ex.getCause() instanceof IOException) {
+        throw (IOException) ex.getCause();
+      }
+      throw new IOException(ex.getCause());
+    }
+  }
+  
   private CryptoMaterial getMaterialFromDatabase(MaterialKey key) throws IOException {
     UserCerts projectSpecificCerts = certsFacade.findUserCert(key.projectName, key.username);
     ByteBuffer keyStore = ByteBuffer.wrap(projectSpecificCerts.getUserKey());
@@ -1246,6 +1323,107 @@ public class CertificateMaterializer {
     }
   }
   
+  private class InMemoryMaterial {
+    private final byte[] keyStoreBytes;
+    private final byte[] trustStoreBytes;
+    private final char[] password;
+    private KeyStore keyStore;
+    private KeyStore trustStore;
+    private SSLContext sslContext;
+    private boolean wiped = false;
+    
+    private InMemoryMaterial(CryptoMaterial material) {
+      // The bytes of the database entity are copied, wiping them must not change the entity
+      ByteBuffer keyStore = material.getKeyStore();
+      ByteBuffer trustStore = material.getTrustStore();
+      this.keyStoreBytes = Arrays.copyOf(keyStore.array(), keyStore.array().length);
+      this.trustStoreBytes = Arrays.copyOf(trustStore.array(), trustStore.array().length);
+      this.password = material.getPassword();
+    }
+    
+    /**
+     * @return a copy of the material, or null if it has been wiped on eviction
+     */
+    private synchronized CryptoMaterial toCryptoMaterial() {
+      if (wiped) {
+        return null;
+      }
+      return new CryptoMaterial(ByteBuffer.wrap(Arrays.copyOf(keyStoreBytes, keyStoreBytes.length)),
+          ByteBuffer.wrap(Arrays.copyOf(trustStoreBytes, trustStoreBytes.length)),
+          Arrays.copyOf(password, password.length));
+    }
+    
+    /**
+     * @return the keystore, or null if the material has been wiped on eviction
+     */
+    private synchronized KeyStore getKeyStore() throws IOException {
+      if (wiped) {
+        return null;
+      }
+      if (keyStore == null) {
+        keyStore = loadKeyStore(keyStoreBytes);
+      }
+      return keyStore;
+    }
+    
+    /**
+     * @return the truststore, or null if the material has been wiped on eviction
+     */
+    private synchronized KeyStore getTrustStore() throws IOException {
+      if (wiped) {
+        return null;
+      }
+      if (trustStore == null) {
+        trustStore = loadKeyStore(trustStoreBytes);
+      }
+      return trustStore;
+    }
+    
+    /**
+     * @return the SSLContext, or null if the material has been wiped on eviction
+     */
+    private synchronized SSLContext getSSLContext() throws IOException {
+      if (wiped) {
+        return null;
+      }
+      if (sslContext == null) {
+        try {
+          KeyManagerFactory kmf = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+          kmf.init(getKeyStore(), password);
+          TrustManagerFactory tmf = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+          tmf.init(getTrustStore());
+          SSLContext context = SSLContext.getInstance("TLS");
+          context.init(kmf.getKeyManagers(), tmf.getTrustManagers(), null);
+          sslContext = context;
+        } catch (GeneralSecurityException ex) {
+          throw new IOException("Could not initialize SSLContext", ex);
+        }
+      }
+      return sslContext;
+    }
+    
+    private KeyStore loadKeyStore(byte[] material) throws IOException {
+      try {
+        KeyStore store = KeyStore.getInstance("JKS");
+        store.load(new ByteArrayInputStream(material), password);
+        return store;
+      } catch (GeneralSecurityException ex) {
+        throw new IOException("Could not load keystore", ex);
+      }
+    }
+    
+    // Copies and the loaded stores are owned by the callers, wiping the evicted material cannot affect them
+    private synchronized void wipe() {
+      wiped = true;
+      Arrays.fill(keyStoreBytes, (byte) 0);
+      Arrays.fill(trustStoreBytes, (byte) 0);
+      Arrays.fill(password, (char) 0);
+      keyStore = null;
+      trustStore = null;
+      sslContext = null;
+    }
+  }
+  
   private class MaterialKey {
     private final String username;
     private final String projectName;
@@ -117,6 +117,8 @@ public class CertificatesController {
   private CertsFacade certsFacade;
   @EJB
   private CertificatesMgmService certificatesMgmService;
+  @EJB
+  private CertificateMaterializer certificateMaterializer;
   @Inject
   @Any
   private Instance<CertificateHandler> certificateHandlers;
@@ -176,6 +178,8 @@ public class CertificatesController {
       convertKeystoreToByteArray(userKeystores.getValue0(), userKeyPwd),
       convertKeystoreToByteArray(userKeystores.getValue1(), userKeyPwd),
       encryptedKey);
+    // Do not serve the material of a previous generation from memory
+    certificateMaterializer.invalidateMaterial(user.getUsername(), project.getName());
 
     // Run custom certificateHandlers
     for (CertificateHandler certificateHandler : certificateHandlers) {
@@ -208,6 +212,7 @@ public class CertificatesController {
       // Ordering here is important
       // *First* revoke and *then* delete the certificate
       revokeCertificate(certificateIdentifier, Endpoint.PROJECT);
+      certificateMaterializer.invalidateMaterial(user2delete.getUsername(), projectName);
 
       // Run custom handlers
       for (CertificateHandler certificateHandler : certificateHandlers) {
@@ -224,6 +229,7 @@ public class CertificatesController {
     // *First* revoke and *then* delete the certificate
     certsFacade.removeUserProjectCerts(project.getName(), user.getUsername());
     revokeCertificate(certificateIdentifier, Endpoint.PROJECT);
+    certificateMaterializer.invalidateMaterial(user.getUsername(), project.getName());
 
     // Run custom handlers
     for (CertificateHandler certificateHandler : certificateHandlers) {
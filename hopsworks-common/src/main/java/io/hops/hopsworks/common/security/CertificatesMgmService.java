@@ -56,6 +56,7 @@ import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.io.FileUtils;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
 import javax.ejb.AccessTimeout;
 import javax.ejb.Asynchronous;
 import javax.ejb.ConcurrencyManagement;
@@ -64,6 +65,10 @@ import javax.ejb.EJB;
 import javax.ejb.Lock;
 import javax.ejb.LockType;
 import javax.ejb.Singleton;
+import javax.ejb.Timeout;
+import javax.ejb.Timer;
+import javax.ejb.TimerConfig;
+import javax.ejb.TimerService;
 import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
 import javax.enterprise.inject.Any;
@@ -89,6 +94,9 @@ import java.util.logging.Logger;
 @ConcurrencyManagement(ConcurrencyManagementType.CONTAINER)
 public class CertificatesMgmService {
   private final Logger LOG = Logger.getLogger(CertificatesMgmService.class.getName());
+  private static final long RESUME_DELAY_MS = 60000;
+  // A change without progress for this long is resumed by another instance
+  private static final long STALE_ROTATION_MS = TimeUnit.MINUTES.toMillis(5);
   
   @EJB
   private Settings settings;
@@ -104,9 +112,15 @@ public class CertificatesMgmService {
   private SystemCommandFacade systemCommandFacade;
   @EJB
   private HostsFacade hostsFacade;
+  @EJB
+  private MasterPasswordRotationFacade masterPasswordRotationFacade;
+  @EJB
+  private SymmetricEncryptionService symmetricEncryptionService;
   @Inject
   @Any
   private Instance<MasterPasswordHandler> handlers;
+  @Resource
+  private TimerService timerService;
   
   public enum UPDATE_STATUS {
     OK,
@@ -130,6 +144,10 @@ public class CertificatesMgmService {
     if (!masterPasswordFile.exists()) {
       throw new IllegalStateException("Master encryption file does not exist");
     }
+    if (MasterPasswordRotationJournal.exists(masterPasswordRotationFacade)) {
+      LOG.log(Level.WARNING, "Change of master encryption password in progress, it will be resumed if it stops");
+      timerService.createSingleActionTimer(RESUME_DELAY_MS, new TimerConfig(null, false));
+    }
     
     try {
       PosixFileAttributeView fileView = Files.getFileAttributeView(masterPasswordFile.toPath(),
@@ -235,10 +253,18 @@ public class CertificatesMgmService {
   @Lock(LockType.WRITE)
   @AccessTimeout(value = 500)
   public void resetMasterEncryptionPassword(Integer operationId, String newMasterPasswd, String userRequested) {
+    MasterPasswordRotationJournal journal = null;
     try {
+      if (MasterPasswordRotationJournal.exists(masterPasswordRotationFacade)) {
+        throw new EncryptionMasterPasswordException("A previous change of the master encryption password has not " +
+            "finished yet");
+      }
       String newDigest = DigestUtils.sha256Hex(newMasterPasswd);
-      callUpdateHandlers(newDigest);
+      journal = MasterPasswordRotationJournal.create(masterPasswordRotationFacade, symmetricEncryptionService,
+          getMasterEncryptionPassword(), newDigest);
+      callUpdateHandlers(newDigest, journal);
       updateMasterEncryptionPassword(newDigest);
+      journal.delete();
       StringBuilder successLog = gatherLogs();
       sendSuccessfulMessage(successLog, userRequested);
       updateStatus.put(operationId, UPDATE_STATUS.OK);
@@ -247,20 +273,66 @@ public class CertificatesMgmService {
       String errorMsg = "*** Master encryption password update failed!!! Rolling back...";
       LOG.log(Level.SEVERE, errorMsg, ex);
       updateStatus.put(operationId, UPDATE_STATUS.FAILED);
-      callRollbackHandlers();
+      callRollbackHandlers(journal);
+      deleteJournal(journal);
       sendUnsuccessfulMessage(errorMsg + "\n" + ex.getMessage(), userRequested);
     } catch (IOException ex) {
       String errorMsg = "*** Failed to write new encryption password to file: " + masterPasswordFile.getAbsolutePath()
           + ". Rolling back...";
       LOG.log(Level.SEVERE, errorMsg, ex);
       updateStatus.put(operationId, UPDATE_STATUS.FAILED);
-      callRollbackHandlers();
+      callRollbackHandlers(journal);
+      deleteJournal(journal);
       sendUnsuccessfulMessage(errorMsg + "\n" + ex.getMessage(), userRequested);
     } finally {
       handlersResult.clear();
     }
   }
   
+  /**
+   * Resume a change of the master encryption password interrupted by a restart. The change is claimed once the
+   * instance running it stopped logging progress, so that only one instance resumes it. Items already encrypted with
+   * the new password are skipped. If the change fails, the items are rolled back from the journal.
+   */
+  @Timeout
+  @Lock(LockType.WRITE)
+  public void resumeMasterEncryptionPasswordChange(Timer timer) {
+    MasterPasswordRotationJournal journal;
+    try {
+      journal = MasterPasswordRotationJournal.load(masterPasswordRotationFacade, symmetricEncryptionService,
+          getMasterEncryptionPassword());
+      if (journal == null) {
+        return;
+      }
+      if (journal.getNewPassword().equals(getMasterEncryptionPassword())) {
+        // Interrupted after the new password was stored
+        journal.delete();
+        return;
+      }
+    } catch (IOException ex) {
+      LOG.log(Level.SEVERE, "*** Could not read the journal of the master encryption password change", ex);
+      return;
+    }
+    long now = System.currentTimeMillis();
+    if (!journal.isStale(now, STALE_ROTATION_MS) || !journal.claim(now)) {
+      // Still running, or resumed by another instance
+      timerService.createSingleActionTimer(RESUME_DELAY_MS, new TimerConfig(null, false));
+      return;
+    }
+    try {
+      callUpdateHandlers(journal.getNewPassword(), journal);
+      updateMasterEncryptionPassword(journal.getNewPassword());
+      journal.delete();
+      LOG.log(Level.INFO, "Master encryption password changed!\n" + gatherLogs());
+    } catch (EncryptionMasterPasswordException | IOException ex) {
+      LOG.log(Level.SEVERE, "*** Resuming master encryption password update failed!!! Rolling back...", ex);
+      callRollbackHandlers(journal);
+      deleteJournal(journal);
+    } finally {
+      handlersResult.clear();
+    }
+  }
+  
   @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
   public void issueServiceKeyRotationCommand() {
     List<Hosts> allHosts = hostsFacade.findAll();
@@ -270,9 +342,10 @@ public class CertificatesMgmService {
     }
   }
   
-  private void callUpdateHandlers(String newDigest) throws EncryptionMasterPasswordException, IOException {
+  private void callUpdateHandlers(String newDigest, MasterPasswordRotationJournal journal)
+      throws EncryptionMasterPasswordException, IOException {
     for (MasterPasswordHandler handler : handlers) {
-      MasterPasswordChangeResult result = handler.perform(getMasterEncryptionPassword(), newDigest);
+      MasterPasswordChangeResult result = handler.perform(getMasterEncryptionPassword(), newDigest, journal);
       handlersResult.put(handler.getClass(), result);
       if (result.getCause() != null) {
         throw result.getCause();
@@ -280,15 +353,29 @@ public class CertificatesMgmService {
     }
   }
   
-  private void callRollbackHandlers() {
+  private void callRollbackHandlers(MasterPasswordRotationJournal journal) {
     for (MasterPasswordHandler handler : handlers) {
       MasterPasswordChangeResult result = handlersResult.get(handler.getClass());
+      if (result == null && journal != null) {
+        // Handler not performed in this run, it may have rotated items before a restart
+        result = new MasterPasswordChangeResult<>(journal, null);
+      }
       if (result != null) {
         handler.rollback(result);
       }
     }
   }
   
+  private void deleteJournal(MasterPasswordRotationJournal journal) {
+    if (journal != null) {
+      try {
+        journal.delete();
+      } catch (IOException ex) {
+        LOG.log(Level.SEVERE, "Could not delete the journal of the master encryption password change", ex);
+      }
+    }
+  }
+  
   private StringBuilder gatherLogs() {
     StringBuilder successLog = new StringBuilder();
     for (MasterPasswordChangeResult result : handlersResult.values()) {
@@ -43,14 +43,15 @@ import io.hops.hopsworks.common.dao.dela.certs.ClusterCertificateFacade;
 import io.hops.hopsworks.common.util.Settings;
 import io.hops.hopsworks.exceptions.EncryptionMasterPasswordException;
 
+import javax.annotation.Resource;
 import javax.ejb.EJB;
 import javax.ejb.Stateless;
 import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
-import java.util.HashMap;
+import javax.enterprise.concurrent.ManagedExecutorService;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
 import java.util.List;
-import java.util.Map;
-import java.util.Optional;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -63,6 +64,8 @@ public class DelaCertsMasterPasswordHandler implements MasterPasswordHandler {
   private ClusterCertificateFacade clusterCertificateFacade;
   @EJB
   private Settings settings;
+  @Resource(lookup = "concurrent/hopsExecutorService")
+  private ManagedExecutorService executorService;
   
   @Override
   public void pre() {
@@ -71,55 +74,76 @@ public class DelaCertsMasterPasswordHandler implements MasterPasswordHandler {
   
   @Override
   public MasterPasswordChangeResult perform(String oldMasterPassword, String newMasterPassword) {
+    return perform(oldMasterPassword, newMasterPassword, MasterPasswordRotationJournal.inMemory(newMasterPassword));
+  }
+  
+  @Override
+  public MasterPasswordChangeResult perform(String oldMasterPassword, String newMasterPassword,
+      MasterPasswordRotationJournal journal) {
     StringBuilder successLog = new StringBuilder();
     successLog.append("Performing change of master password for Dela certificates\n");
-    Map<String, String> items2rollback = new HashMap<>();
-    
-    Optional<List<ClusterCertificate>> maybe = clusterCertificateFacade.getAllClusterCerts();
-    if (maybe.isPresent()) {
+    try {
       LOGGER.log(Level.INFO, "Updating Dela certs with new Hopsworks master encryption password");
-      String mapKey = null, oldPassword, newEncCertPassword;
-      try {
-        for (ClusterCertificate cert : maybe.get()) {
-          mapKey = cert.getClusterName();
-          oldPassword = cert.getCertificatePassword();
-          items2rollback.putIfAbsent(mapKey, oldPassword);
-          newEncCertPassword = getNewUserPassword(settings.getHopsSiteClusterPswd().get(), oldPassword,
-              oldMasterPassword, newMasterPassword);
-          cert.setCertificatePassword(newEncCertPassword);
-          clusterCertificateFacade.updateClusterCerts(cert);
-          successLog.append("Updated certificate: ").append(mapKey).append("\n");
-        }
-      } catch (Exception ex) {
-        String errorMsg = "Something went wrong while updating master encryption password for Cluster Certificates. " +
-            "Cluster certificate provoked the error was: " + mapKey;
-        LOGGER.log(Level.SEVERE, errorMsg + " rolling back...", ex);
-        return new MasterPasswordChangeResult<>(items2rollback,
-            new EncryptionMasterPasswordException(errorMsg));
-      }
+      BatchedMasterPasswordRotation.Result result = new ClusterCertsRotation().rotate(oldMasterPassword,
+          newMasterPassword, journal);
+      LOGGER.log(Level.INFO, result.toString());
+      successLog.append(result).append("\n");
+    } catch (Exception ex) {
+      String errorMsg = "Something went wrong while updating master encryption password for Cluster Certificates.";
+      LOGGER.log(Level.SEVERE, errorMsg + " rolling back...", ex);
+      return new MasterPasswordChangeResult<>(journal, new EncryptionMasterPasswordException(errorMsg, ex));
     }
-    return new MasterPasswordChangeResult<>(successLog, items2rollback, null);
+    return new MasterPasswordChangeResult<>(successLog, journal, null);
   }
   
   @Override
-  @SuppressWarnings("unchecked")
   public void rollback(MasterPasswordChangeResult result) {
     LOGGER.log(Level.INFO, "Rolling back Dela certificates");
-    Map<String, String> items2rollback = (HashMap<String, String>) result.getRollbackItems();
-    for (Map.Entry<String, String> cert : items2rollback.entrySet()) {
-      String key = cert.getKey();
-      String value = cert.getValue();
-      Optional<ClusterCertificate> optional = clusterCertificateFacade.getClusterCert(key);
-      if (optional.isPresent()) {
-        ClusterCertificate cc = optional.get();
-        cc.setCertificatePassword(value);
-        clusterCertificateFacade.updateClusterCerts(cc);
-      }
-    }
+    new ClusterCertsRotation().rollback((MasterPasswordRotationJournal) result.getRollbackItems());
   }
   
   @Override
   public void post() {
   
   }
+  
+  private class ClusterCertsRotation extends BatchedMasterPasswordRotation<ClusterCertificate> {
+    
+    private ClusterCertsRotation() {
+      super("cluster_certificates", DEFAULT_BATCH_SIZE, executorService);
+    }
+    
+    @Override
+    protected List<ClusterCertificate> findAll() {
+      return clusterCertificateFacade.getAllClusterCerts().orElse(Collections.emptyList());
+    }
+    
+    @Override
+    protected String key(ClusterCertificate cert) {
+      return cert.getClusterName();
+    }
+    
+    @Override
+    protected byte[] value(ClusterCertificate cert) {
+      return cert.getCertificatePassword().getBytes(StandardCharsets.UTF_8);
+    }
+    
+    @Override
+    protected void setValue(ClusterCertificate cert, byte[] value) {
+      cert.setCertificatePassword(new String(value, StandardCharsets.UTF_8));
+    }
+    
+    @Override
+    protected byte[] reEncrypt(ClusterCertificate cert, String oldPassword, String newPassword) throws Exception {
+      return getNewUserPassword(settings.getHopsSiteClusterPswd().get(), cert.getCertificatePassword(), oldPassword,
+          newPassword).getBytes(StandardCharsets.UTF_8);
+    }
+    
+    @Override
+    protected void update(List<ClusterCertificate> batch) {
+      for (ClusterCertificate cert : batch) {
+        clusterCertificateFacade.updateClusterCerts(cert);
+      }
+    }
+  }
 }
@@ -0,0 +1,149 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2021, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.common.security;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+import javax.annotation.PostConstruct;
+import javax.crypto.SecretKey;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.EJB;
+import javax.ejb.Singleton;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static javax.ejb.ConcurrencyManagementType.BEAN;
+
+/**
+ * Key encryption keys derived from the Hopsworks master encryption password. Deriving a key takes thousands of
+ * PBKDF2 iterations, so keys are derived once per salt and kept in memory for envelope encryption, see
+ * {@link SymmetricEncryptionService#encryptEnvelope}. New envelopes of this instance are all encrypted with the same
+ * key encryption key, so in practice there are as many keys as there are Hopsworks instances.
+ *
+ * Keys are looked up by a digest of the password and the salt, so a change of the master encryption password never
+ * returns a key of the old password. The cache is bounded and entries expire when not used.
+ */
+@ConcurrencyManagement(BEAN)
+@Singleton
+@TransactionAttribute(TransactionAttributeType.NEVER)
+public class KeyEncryptionKeyCache {
+  
+  private static final int MAX_KEYS = 64;
+  private static final int EXPIRE_AFTER_ACCESS_MINUTES = 60;
+  
+  @EJB
+  private SymmetricEncryptionService symmetricEncryptionService;
+  
+  private Cache<String, SecretKey> keys;
+  private volatile KeyEncryptionKey current;
+  
+  @PostConstruct
+  public void init() {
+    keys = CacheBuilder.newBuilder()
+      .maximumSize(MAX_KEYS)
+      .expireAfterAccess(EXPIRE_AFTER_ACCESS_MINUTES, TimeUnit.MINUTES)
+      .recordStats()
+      .build();
+  }
+  
+  /**
+   * @param password Master encryption password
+   * @return The key encryption key new envelopes are encrypted with, along with its salt
+   * @throws GeneralSecurityException
+   */
+  public KeyEncryptionKey getCurrent(String password) throws GeneralSecurityException {
+    String passwordDigest = digest(password, null);
+    KeyEncryptionKey kek = current;
+    if (kek != null && kek.passwordDigest.equals(passwordDigest)) {
+      return kek;
+    }
+    synchronized (this) {
+      kek = current;
+      if (kek == null || !kek.passwordDigest.equals(passwordDigest)) {
+        byte[] salt = symmetricEncryptionService.generateSalt();
+        kek = new KeyEncryptionKey(passwordDigest, salt, get(password, salt));
+        current = kek;
+      }
+      return kek;
+    }
+  }
+  
+  /**
+   * @param password Master encryption password
+   * @param salt Salt of the key, as stored in the envelope
+   * @return The key encryption key derived from the password and the salt
+   * @throws GeneralSecurityException
+   */
+  public SecretKey get(String password, byte[] salt) throws GeneralSecurityException {
+    try {
+      return keys.get(digest(password, salt),
+        () -> symmetricEncryptionService.deriveKey(password.toCharArray(), salt));
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof GeneralSecurityException) {
+        throw (GeneralSecurityException) e.getCause();
+      }
+      throw new GeneralSecurityException(e.getCause());
+    }
+  }
+  
+  /**
+   * Forget all the keys, used after the master encryption password has changed.
+   */
+  public void invalidateAll() {
+    current = null;
+    keys.invalidateAll();
+  }
+  
+  public CacheStats getStats() {
+    return keys.stats();
+  }
+  
+  private String digest(String password, byte[] salt) {
+    Hasher hasher = Hashing.sha256().newHasher().putString(password, StandardCharsets.UTF_8);
+    if (salt != null) {
+      hasher.putBytes(salt);
+    }
+    return hasher.hash().toString();
+  }
+  
+  public static class KeyEncryptionKey {
+    private final String passwordDigest;
+    private final byte[] salt;
+    private final SecretKey key;
+    
+    private KeyEncryptionKey(String passwordDigest, byte[] salt, SecretKey key) {
+      this.passwordDigest = passwordDigest;
+      this.salt = salt;
+      this.key = key;
+    }
+    
+    public byte[] getSalt() {
+      return salt;
+    }
+    
+    public SecretKey getKey() {
+      return key;
+    }
+  }
+}
@@ -24,6 +24,14 @@ import io.hops.hopsworks.common.util.HopsUtils;
 public interface MasterPasswordHandler {
   void pre();
   MasterPasswordChangeResult perform(String oldPassword, String newPassword);
+  /**
+   * Perform the change logging the progress to a journal, so that an interrupted change can be resumed and a
+   * failed one rolled back after a restart. Handlers that do not log their items are performed all over again.
+   */
+  default MasterPasswordChangeResult perform(String oldPassword, String newPassword,
+      MasterPasswordRotationJournal journal) {
+    return perform(oldPassword, newPassword);
+  }
   void rollback(MasterPasswordChangeResult result);
   void post();
   default String getNewUserPassword(String userPassword, String cipherText, String oldMasterPassword,
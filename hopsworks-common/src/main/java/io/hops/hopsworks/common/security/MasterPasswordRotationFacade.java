@@ -0,0 +1,96 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2021, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.common.security;
+
+import io.hops.hopsworks.persistence.entity.security.MasterPasswordRotation;
+import io.hops.hopsworks.persistence.entity.security.MasterPasswordRotationItem;
+
+import javax.ejb.Stateless;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Every write commits on its own, the journal must hold what was logged even if the change fails afterwards.
+ */
+@Stateless
+@TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+public class MasterPasswordRotationFacade {
+  
+  @PersistenceContext(unitName = "kthfsPU")
+  private EntityManager em;
+  
+  public MasterPasswordRotation find() {
+    return em.find(MasterPasswordRotation.class, MasterPasswordRotation.ID);
+  }
+  
+  /**
+   * Start a change of the master encryption password
+   * @throws javax.persistence.PersistenceException if a change is already in progress
+   */
+  public void start(MasterPasswordRotation rotation) {
+    em.persist(rotation);
+    em.flush();
+  }
+  
+  public List<MasterPasswordRotationItem> findItems() {
+    return em.createNamedQuery("MasterPasswordRotationItem.findAll", MasterPasswordRotationItem.class)
+      .getResultList();
+  }
+  
+  /**
+   * Log the old values of the items of a handler and move the heartbeat of the change, in one transaction
+   */
+  public void logItems(String handler, Map<String, byte[]> oldValues, long heartbeat) {
+    for (Map.Entry<String, byte[]> oldValue : oldValues.entrySet()) {
+      em.persist(new MasterPasswordRotationItem(handler, oldValue.getKey(), oldValue.getValue()));
+    }
+    MasterPasswordRotation rotation = find();
+    rotation.setHeartbeat(heartbeat);
+    em.merge(rotation);
+  }
+  
+  public void markDone(String handler, long heartbeat) {
+    MasterPasswordRotation rotation = find();
+    rotation.setDoneHandlers(rotation.getDoneHandlers() == null ? handler
+      : rotation.getDoneHandlers() + "," + handler);
+    rotation.setHeartbeat(heartbeat);
+    em.merge(rotation);
+  }
+  
+  /**
+   * Move the heartbeat of the change from expected to next.
+   *
+   * @return true if the change was claimed, false if it finished or another instance claimed it first
+   */
+  public boolean claim(long expected, long next) {
+    return em.createNamedQuery("MasterPasswordRotation.claim")
+      .setParameter("id", MasterPasswordRotation.ID)
+      .setParameter("expected", expected)
+      .setParameter("next", next)
+      .executeUpdate() == 1;
+  }
+  
+  public void remove() {
+    em.createNamedQuery("MasterPasswordRotationItem.deleteAll").executeUpdate();
+    em.createNamedQuery("MasterPasswordRotation.delete")
+      .setParameter("id", MasterPasswordRotation.ID)
+      .executeUpdate();
+  }
+}
@@ -0,0 +1,229 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2021, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.common.security;
+
+import io.hops.hopsworks.persistence.entity.security.MasterPasswordRotation;
+import io.hops.hopsworks.persistence.entity.security.MasterPasswordRotationItem;
+import org.apache.commons.codec.digest.DigestUtils;
+
+import javax.crypto.SecretKey;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Write-ahead log of a change of the Hopsworks master encryption password. Before an item is encrypted with the new
+ * password its old ciphertext is logged, and a handler is marked done once all its items are rotated. A change
+ * interrupted by a restart is resumed from the log, skipping the items already rotated, and a change that fails is
+ * rolled back from the log.
+ *
+ * The log is kept in the database, in the master_password_rotation tables, so that any instance can resume it and
+ * only one change can run in the cluster. The new password is stored encrypted with the old one. The log is deleted
+ * once the change either completes or is rolled back.
+ */
+public class MasterPasswordRotationJournal {
+  private static final String DONE_SEPARATOR = ",";
+  
+  private final MasterPasswordRotationFacade facade;
+  private final String newPassword;
+  private final Map<String, Map<String, byte[]>> items = new HashMap<>();
+  private final Set<String> done = new HashSet<>();
+  private long heartbeat;
+  
+  private MasterPasswordRotationJournal(MasterPasswordRotationFacade facade, String newPassword, long heartbeat) {
+    this.facade = facade;
+    this.newPassword = newPassword;
+    this.heartbeat = heartbeat;
+  }
+  
+  /**
+   * Start the log of a new change of the master encryption password
+   * @param facade Facade of the log tables
+   * @param encryptionService Service to encrypt the new password with the old one
+   * @param oldPassword The current master encryption password
+   * @param newPassword The new master encryption password
+   * @return The log
+   * @throws IOException if a change is already in progress or the log can not be written
+   */
+  public static MasterPasswordRotationJournal create(MasterPasswordRotationFacade facade,
+      SymmetricEncryptionService encryptionService, String oldPassword, String newPassword) throws IOException {
+    long now = System.currentTimeMillis();
+    try {
+      byte[] salt = encryptionService.generateSalt();
+      SecretKey key = encryptionService.deriveKey(oldPassword.toCharArray(), salt);
+      String encrypted = Base64.getEncoder().encodeToString(encryptionService.encryptEnvelope(key, salt,
+        newPassword.getBytes(StandardCharsets.UTF_8)));
+      facade.start(new MasterPasswordRotation(encrypted, DigestUtils.sha256Hex(newPassword), now));
+    } catch (GeneralSecurityException | RuntimeException ex) {
+      throw new IOException("Could not start the change of the master encryption password, another change may be "
+        + "in progress", ex);
+    }
+    return new MasterPasswordRotationJournal(facade, newPassword, now);
+  }
+  
+  /**
+   * Log that is not persisted, for changes that do not need to survive a restart
+   * @param newPassword The new master encryption password
+   * @return The log
+   */
+  public static MasterPasswordRotationJournal inMemory(String newPassword) {
+    return new MasterPasswordRotationJournal(null, newPassword, System.currentTimeMillis());
+  }
+  
+  /**
+   * @param facade Facade of the log tables
+   * @return true if a change of the master encryption password is in progress in the cluster
+   */
+  public static boolean exists(MasterPasswordRotationFacade facade) {
+    return facade.find() != null;
+  }
+  
+  /**
+   * Read the log of an interrupted change. If the change finished but the log was not deleted, the new password is
+   * the current one.
+   * @param facade Facade of the log tables
+   * @param encryptionService Service to decrypt the new password with the current one
+   * @param currentPassword The current master encryption password
+   * @return The log, null if there is no interrupted change
+   * @throws IOException
+   */
+  public static MasterPasswordRotationJournal load(MasterPasswordRotationFacade facade,
+      SymmetricEncryptionService encryptionService, String currentPassword) throws IOException {
+    MasterPasswordRotation rotation;
+    String newPassword;
+    try {
+      rotation = facade.find();
+      if (rotation == null) {
+        return null;
+      }
+      if (rotation.getNewPasswordHash().equals(DigestUtils.sha256Hex(currentPassword))) {
+        newPassword = currentPassword;
+      } else {
+        byte[] encrypted = Base64.getDecoder().decode(rotation.getNewPassword());
+        SecretKey key = encryptionService.deriveKey(currentPassword.toCharArray(),
+          encryptionService.getEnvelopeKekSalt(encrypted));
+        newPassword = new String(encryptionService.decryptEnvelope(key, encrypted), StandardCharsets.UTF_8);
+      }
+    } catch (GeneralSecurityException | RuntimeException ex) {
+      throw new IOException("Could not read the change of the master encryption password", ex);
+    }
+    MasterPasswordRotationJournal journal = new MasterPasswordRotationJournal(facade, newPassword,
+      rotation.getHeartbeat());
+    if (rotation.getDoneHandlers() != null) {
+      journal.done.addAll(Arrays.asList(rotation.getDoneHandlers().split(DONE_SEPARATOR)));
+    }
+    for (MasterPasswordRotationItem item : facade.findItems()) {
+      journal.items.computeIfAbsent(item.getHandler(), h -> new HashMap<>()).put(item.getItemKey(),
+        item.getOldValue());
+    }
+    return journal;
+  }
+  
+  public String getNewPassword() {
+    return newPassword;
+  }
+  
+  /**
+   * @param now Current time in milliseconds
+   * @param timeout Milliseconds without progress after which the instance running the change is considered stopped
+   * @return true if the instance running the change did not log any progress for longer than timeout
+   */
+  public synchronized boolean isStale(long now, long timeout) {
+    return now - heartbeat > timeout;
+  }
+  
+  /**
+   * Take over the change from the instance that stopped running it
+   * @param now Current time in milliseconds
+   * @return true if this instance claimed the change, false if it finished or another instance claimed it first
+   */
+  public synchronized boolean claim(long now) {
+    if (!facade.claim(heartbeat, now)) {
+      return false;
+    }
+    heartbeat = now;
+    return true;
+  }
+  
+  /**
+   * Log the old values of items before they are rotated. The records are committed when this method returns.
+   * @param handler Name of the handler the items belong to
+   * @param oldValues Old ciphertext of each item
+   * @throws IOException
+   */
+  public synchronized void logItems(String handler, Map<String, byte[]> oldValues) throws IOException {
+    if (oldValues.isEmpty()) {
+      return;
+    }
+    if (facade != null) {
+      long now = System.currentTimeMillis();
+      try {
+        facade.logItems(handler, oldValues, now);
+      } catch (RuntimeException ex) {
+        throw new IOException("Could not log the items of " + handler, ex);
+      }
+      heartbeat = now;
+    }
+    items.computeIfAbsent(handler, h -> new HashMap<>()).putAll(oldValues);
+  }
+  
+  /**
+   * @param handler Name of the handler
+   * @return The old values of the items of the handler logged so far
+   */
+  public synchronized Map<String, byte[]> getItems(String handler) {
+    Map<String, byte[]> handlerItems = items.get(handler);
+    return handlerItems == null ? Collections.emptyMap() : new HashMap<>(handlerItems);
+  }
+  
+  public synchronized void markDone(String handler) throws IOException {
+    if (facade != null) {
+      long now = System.currentTimeMillis();
+      try {
+        facade.markDone(handler, now);
+      } catch (RuntimeException ex) {
+        throw new IOException("Could not mark " + handler + " done", ex);
+      }
+      heartbeat = now;
+    }
+    done.add(handler);
+  }
+  
+  public synchronized boolean isDone(String handler) {
+    return done.contains(handler);
+  }
+  
+  /**
+   * Delete the log once the change completed or was rolled back
+   * @throws IOException
+   */
+  public void delete() throws IOException {
+    if (facade != null) {
+      try {
+        facade.remove();
+      } catch (RuntimeException ex) {
+        throw new IOException("Could not delete the change of the master encryption password", ex);
+      }
+    }
+  }
+}
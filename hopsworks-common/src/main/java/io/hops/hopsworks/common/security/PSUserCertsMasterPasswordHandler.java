@@ -45,10 +45,13 @@ import io.hops.hopsworks.persistence.entity.user.Users;
 import io.hops.hopsworks.common.hdfs.HdfsUsersController;
 import io.hops.hopsworks.exceptions.EncryptionMasterPasswordException;
 
+import javax.annotation.Resource;
 import javax.ejb.EJB;
 import javax.ejb.Stateless;
 import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
+import javax.enterprise.concurrent.ManagedExecutorService;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -64,7 +67,8 @@ public class PSUserCertsMasterPasswordHandler implements MasterPasswordHandler {
   private UserFacade userFacade;
   @EJB
   private CertsFacade certsFacade;
-  
+  @Resource(lookup = "concurrent/hopsExecutorService")
+  private ManagedExecutorService executorService;
   
   @Override
   public void pre() {
@@ -72,58 +76,87 @@ public class PSUserCertsMasterPasswordHandler implements MasterPasswordHandler {
   
   @Override
   public MasterPasswordChangeResult perform(String oldMasterPassword, String newMasterPassword) {
+    return perform(oldMasterPassword, newMasterPassword, MasterPasswordRotationJournal.inMemory(newMasterPassword));
+  }
+  
+  @Override
+  public MasterPasswordChangeResult perform(String oldMasterPassword, String newMasterPassword,
+      MasterPasswordRotationJournal journal) {
     StringBuilder successLog = new StringBuilder();
     successLog.append("Performing change of master password for PSU certificates\n");
     
-    Map<String, String> oldPasswords4Rollback = new HashMap<>();
-    List<UserCerts> allPSCerts = certsFacade.findAllUserCerts();
-    String mapKey = null, oldPassword, newEncCertPassword;
-    Users user;
-    
     try {
       LOGGER.log(Level.INFO, "Updating PSU certs with new Hopsworks master encryption password");
-      for (UserCerts psCert : allPSCerts) {
-        mapKey = psCert.getUserCertsPK().getProjectname() + HdfsUsersController.USER_NAME_DELIMITER
-            + psCert.getUserCertsPK().getUsername();
-        oldPassword = psCert.getUserKeyPwd();
-        oldPasswords4Rollback.putIfAbsent(mapKey, oldPassword);
-        user = userFacade.findByUsername(psCert.getUserCertsPK().getUsername());
-        if (user == null) {
-          throw new Exception("Could not find Hopsworks user for certificate " + mapKey);
-        }
-        newEncCertPassword = getNewUserPassword(user.getPassword(), oldPassword, oldMasterPassword,
-            newMasterPassword);
-        psCert.setUserKeyPwd(newEncCertPassword);
-        certsFacade.update(psCert);
-        successLog.append("Updated certificate: ").append(mapKey).append("\n");
-      }
-      return new MasterPasswordChangeResult<>(successLog, oldPasswords4Rollback, null);
+      BatchedMasterPasswordRotation.Result result = new PSUCertsRotation().rotate(oldMasterPassword,
+          newMasterPassword, journal);
+      LOGGER.log(Level.INFO, result.toString());
+      successLog.append(result).append("\n");
+      return new MasterPasswordChangeResult<>(successLog, journal, null);
     } catch (Exception ex) {
       String errorMsg = "Something went wrong while updating master encryption password for Project Specific User " +
-          "certificates. PSU certificate provoked the error was: " + mapKey;
+          "certificates";
       LOGGER.log(Level.SEVERE, errorMsg + " rolling back...", ex);
-      return new MasterPasswordChangeResult<Map<String, String>>(oldPasswords4Rollback,
-          new EncryptionMasterPasswordException(errorMsg));
+      return new MasterPasswordChangeResult<>(journal, new EncryptionMasterPasswordException(errorMsg, ex));
     }
   }
   
   @Override
-  @SuppressWarnings("unchecked")
   public void rollback(MasterPasswordChangeResult result) {
-    Map<String, String> items2rollback = (HashMap<String, String>) result.getRollbackItems();
     LOGGER.log(Level.INFO, "Rolling back PSU certificates");
-    for (Map.Entry<String, String> oldPassword : items2rollback.entrySet()) {
-      String key = oldPassword.getKey();
-      String value = oldPassword.getValue();
-      String[] project__username = key.split(HdfsUsersController.USER_NAME_DELIMITER, 2);
-      UserCerts userCerts = certsFacade.findUserCert(project__username[0], project__username[1]);
-      userCerts.setUserKeyPwd(value);
-      certsFacade.update(userCerts);
-    }
+    int restored = new PSUCertsRotation().rollback((MasterPasswordRotationJournal) result.getRollbackItems());
+    LOGGER.log(Level.INFO, "Restored {0} PSU certificates", restored);
   }
   
   @Override
   public void post() {
   
   }
+  
+  private class PSUCertsRotation extends BatchedMasterPasswordRotation<UserCerts> {
+    // The password of the user is part of the key of the certificate password
+    private final Map<String, String> userPasswords = new HashMap<>();
+    
+    private PSUCertsRotation() {
+      super("psu_certificates", DEFAULT_BATCH_SIZE, executorService);
+    }
+    
+    @Override
+    protected List<UserCerts> findAll() {
+      for (Users user : userFacade.findAll()) {
+        userPasswords.put(user.getUsername(), user.getPassword());
+      }
+      return certsFacade.findAllUserCerts();
+    }
+    
+    @Override
+    protected String key(UserCerts psCert) {
+      return psCert.getUserCertsPK().getProjectname() + HdfsUsersController.USER_NAME_DELIMITER
+          + psCert.getUserCertsPK().getUsername();
+    }
+    
+    @Override
+    protected byte[] value(UserCerts psCert) {
+      return psCert.getUserKeyPwd().getBytes(StandardCharsets.UTF_8);
+    }
+    
+    @Override
+    protected void setValue(UserCerts psCert, byte[] value) {
+      psCert.setUserKeyPwd(new String(value, StandardCharsets.UTF_8));
+    }
+    
+    @Override
+    protected byte[] reEncrypt(UserCerts psCert, String oldPassword, String newPassword) throws Exception {
+      String userPassword = userPasswords.get(psCert.getUserCertsPK().getUsername());
+      if (userPassword == null) {
+        throw new Exception("Could not find Hopsworks user for certificate " + key(psCert));
+      }
+      return getNewUserPassword(userPassword, psCert.getUserKeyPwd(), oldPassword, newPassword)
+          .getBytes(StandardCharsets.UTF_8);
+    }
+    
+    @Override
+    protected void update(List<UserCerts> batch) {
+      certsFacade.updateAll(batch);
+    }
+  }
 }
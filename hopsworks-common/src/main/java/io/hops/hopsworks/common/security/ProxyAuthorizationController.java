@@ -0,0 +1,133 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2021, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.common.security;
+
+import io.hops.hopsworks.common.dao.jobhistory.YarnApplicationstateFacade;
+import io.hops.hopsworks.common.dao.project.ProjectFacade;
+import io.hops.hopsworks.common.dao.project.team.ProjectTeamFacade;
+import io.hops.hopsworks.common.dao.user.UserFacade;
+import io.hops.hopsworks.common.hdfs.HdfsUsersController;
+import io.hops.hopsworks.persistence.entity.jobs.history.YarnApplicationstate;
+import io.hops.hopsworks.persistence.entity.project.Project;
+import io.hops.hopsworks.persistence.entity.user.Users;
+import org.apache.hadoop.yarn.api.records.YarnApplicationState;
+
+import javax.ejb.EJB;
+import javax.ejb.Stateless;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Authorization of the requests proxied to the web UIs of YARN applications. Loading a single page of these UIs
+ * fetches tens of assets of the same application, so whether a user can access an application is kept in the
+ * AuthorizationCache instead of being looked up again for every asset.
+ *
+ * Only decisions about existing applications of existing projects are cached, so an application is reachable as soon
+ * as its state is registered.
+ */
+@Stateless
+@TransactionAttribute(TransactionAttributeType.NEVER)
+public class ProxyAuthorizationController {
+
+  public static final Pattern APPLICATION_ID = Pattern.compile("(application_.*?_\\d*)");
+
+  private static final String EMAIL_PRINCIPAL = "email:";
+  private static final String USERNAME_PRINCIPAL = "user:";
+
+  @EJB
+  private AuthorizationCache authorizationCache;
+  @EJB
+  private YarnApplicationstateFacade yarnApplicationstateFacade;
+  @EJB
+  private HdfsUsersController hdfsUsersController;
+  @EJB
+  private ProjectFacade projectFacade;
+  @EJB
+  private ProjectTeamFacade projectTeamFacade;
+  @EJB
+  private UserFacade userFacade;
+
+  /**
+   * @param path request uri or path
+   * @return the first application id found in the path, or null
+   */
+  public static String findApplicationId(String path) {
+    if (path == null) {
+      return null;
+    }
+    Matcher matcher = APPLICATION_ID.matcher(path);
+    return matcher.find() ? matcher.group(1) : null;
+  }
+
+  /**
+   * @param email email of the user, as found in the principal of the request
+   * @param appId
+   * @return the access of the user to the application, or null if the user, the application or its project do not
+   * exist
+   */
+  public AuthorizationCache.ApplicationAccess authorizeByEmail(String email, String appId) {
+    return authorize(EMAIL_PRINCIPAL + email, appId, () -> userFacade.findByEmail(email));
+  }
+
+  /**
+   * @param username username of the user, as found in an api key
+   * @param appId
+   * @return the access of the user to the application, or null if the user, the application or its project do not
+   * exist
+   */
+  public AuthorizationCache.ApplicationAccess authorizeByUsername(String username, String appId) {
+    return authorize(USERNAME_PRINCIPAL + username, appId, () -> userFacade.findByUsername(username));
+  }
+
+  /**
+   * @param applicationAccess
+   * @return true if the application had stopped when the decision was taken
+   */
+  public static boolean isStopped(AuthorizationCache.ApplicationAccess applicationAccess) {
+    if (applicationAccess.getState() == null || applicationAccess.getState().isEmpty()) {
+      return false;
+    }
+    YarnApplicationState state = YarnApplicationState.valueOf(applicationAccess.getState());
+    return state == YarnApplicationState.FAILED || state == YarnApplicationState.FINISHED
+      || state == YarnApplicationState.KILLED;
+  }
+
+  private AuthorizationCache.ApplicationAccess authorize(String principal, String appId, Supplier<Users> userLookup) {
+    AuthorizationCache.ApplicationAccess applicationAccess = authorizationCache.getApplicationAccess(principal, appId);
+    if (applicationAccess != null) {
+      return applicationAccess;
+    }
+    YarnApplicationstate appState = yarnApplicationstateFacade.findByAppId(appId);
+    if (appState == null) {
+      return null;
+    }
+    Project project = projectFacade.findByName(hdfsUsersController.getProjectName(appState.getAppuser()));
+    if (project == null) {
+      return null;
+    }
+    Users user = userLookup.get();
+    if (user == null) {
+      return null;
+    }
+    applicationAccess = new AuthorizationCache.ApplicationAccess(appId, appState.getAppsmstate(), project.getId(),
+      project.getName(), user.getUsername(), projectTeamFacade.isUserMemberOfProject(project, user));
+    authorizationCache.putApplicationAccess(principal, applicationAccess);
+    return applicationAccess;
+  }
+}
@@ -32,6 +32,7 @@ import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
 import java.security.spec.InvalidKeySpecException;
 import java.security.spec.KeySpec;
+import java.util.Arrays;
 
 @Stateless
 /**
@@ -56,6 +57,13 @@ public class SymmetricEncryptionService {
   private static final int GCM_AUTHENTICATION_TAG_SIZE = 128;
   public static final int IV_LENGTH = 12;
   
+  // Envelope constants
+  private static final byte[] ENVELOPE_MAGIC = {'H', 'E', 'N', 1};
+  private static final int DATA_KEY_LENGTH = KEY_SIZE / 8;
+  private static final int WRAPPED_DATA_KEY_LENGTH = DATA_KEY_LENGTH + GCM_AUTHENTICATION_TAG_SIZE / 8;
+  private static final int ENVELOPE_HEADER_LENGTH = ENVELOPE_MAGIC.length + SALT_LENGTH + IV_LENGTH
+      + WRAPPED_DATA_KEY_LENGTH + IV_LENGTH;
+  
   SecureRandom rand;
   
   @PostConstruct
@@ -176,6 +184,133 @@ public class SymmetricEncryptionService {
     return splitPayload;
   }
   
+  /**
+   * Derive a key encryption key from a password. This is the expensive part of encryption, callers are expected
+   * to derive it once and keep it, see {@link KeyEncryptionKeyCache}
+   *
+   * @param password Password to derive the key from
+   * @param salt Salt for the key derivation function, @SALT_LENGTH bytes
+   * @return The derived key
+   * @throws GeneralSecurityException
+   */
+  public SecretKey deriveKey(char[] password, byte[] salt) throws GeneralSecurityException {
+    Pair<KeySpec, SecretKey> keyMaterial = buildSecretKey(password, salt);
+    ((PBEKeySpec) keyMaterial.getLeft()).clearPassword();
+    return keyMaterial.getRight();
+  }
+  
+  /**
+   * Envelope encryption. The input is encrypted with a random data key and the data key is encrypted (wrapped)
+   * with the key encryption key, so that no key derivation happens per message.
+   * [magic(4 bytes), kek salt(64 bytes), wrap iv(12 bytes), wrapped data key(32 bytes), iv(12 bytes), payload]
+   *
+   * @param kek Key encryption key, derived with {@link #deriveKey(char[], byte[])}
+   * @param kekSalt Salt the key encryption key was derived with. It is stored in the envelope so that the key can
+   *                be derived again for decryption
+   * @param input Message to encrypt
+   * @return The envelope
+   * @throws GeneralSecurityException
+   */
+  public byte[] encryptEnvelope(SecretKey kek, byte[] kekSalt, byte[] input) throws GeneralSecurityException {
+    byte[] dataKey = new byte[DATA_KEY_LENGTH];
+    byte[] wrapIv = new byte[IV_LENGTH];
+    byte[] iv = new byte[IV_LENGTH];
+    generateRandom(dataKey);
+    generateRandom(wrapIv);
+    generateRandom(iv);
+    try {
+      Cipher cipher = getCipher();
+      cipher.init(Cipher.ENCRYPT_MODE, kek, getGCMSpec(wrapIv));
+      byte[] wrappedDataKey = cipher.doFinal(dataKey);
+      cipher = getCipher();
+      cipher.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(dataKey, ENCRYPTION_ALGORITHM), getGCMSpec(iv));
+      byte[] ciphertext = cipher.doFinal(input);
+      
+      byte[] envelope = new byte[ENVELOPE_HEADER_LENGTH + ciphertext.length];
+      int offset = append(envelope, 0, ENVELOPE_MAGIC);
+      offset = append(envelope, offset, kekSalt);
+      offset = append(envelope, offset, wrapIv);
+      offset = append(envelope, offset, wrappedDataKey);
+      offset = append(envelope, offset, iv);
+      append(envelope, offset, ciphertext);
+      return envelope;
+    } finally {
+      Arrays.fill(dataKey, (byte) 0);
+    }
+  }
+  
+  /**
+   * Decrypts an envelope created by {@link #encryptEnvelope(SecretKey, byte[], byte[])}
+   *
+   * @param kek Key encryption key derived with the salt returned by {@link #getEnvelopeKekSalt(byte[])}
+   * @param envelope The envelope
+   * @return The plaintext message
+   * @throws GeneralSecurityException
+   */
+  public byte[] decryptEnvelope(SecretKey kek, byte[] envelope) throws GeneralSecurityException {
+    if (!isEnvelope(envelope)) {
+      throw new IllegalArgumentException("Payload is not an envelope");
+    }
+    int offset = ENVELOPE_MAGIC.length + SALT_LENGTH;
+    byte[] wrapIv = Arrays.copyOfRange(envelope, offset, offset + IV_LENGTH);
+    offset += IV_LENGTH;
+    byte[] wrappedDataKey = Arrays.copyOfRange(envelope, offset, offset + WRAPPED_DATA_KEY_LENGTH);
+    offset += WRAPPED_DATA_KEY_LENGTH;
+    byte[] iv = Arrays.copyOfRange(envelope, offset, offset + IV_LENGTH);
+    offset += IV_LENGTH;
+    
+    Cipher cipher = getCipher();
+    cipher.init(Cipher.DECRYPT_MODE, kek, getGCMSpec(wrapIv));
+    byte[] dataKey = cipher.doFinal(wrappedDataKey);
+    try {
+      cipher = getCipher();
+      cipher.init(Cipher.DECRYPT_MODE, new SecretKeySpec(dataKey, ENCRYPTION_ALGORITHM), getGCMSpec(iv));
+      return cipher.doFinal(envelope, offset, envelope.length - offset);
+    } finally {
+      Arrays.fill(dataKey, (byte) 0);
+    }
+  }
+  
+  /**
+   * @param payload Encrypted payload
+   * @return true if the payload was created by envelope encryption, false if it is
+   * [salt(64 bytes), iv(12 bytes), payload] as created by {@link #mergePayloadWithCryptoPrimitives}
+   */
+  public boolean isEnvelope(byte[] payload) {
+    if (payload == null || payload.length < ENVELOPE_HEADER_LENGTH) {
+      return false;
+    }
+    for (int i = 0; i < ENVELOPE_MAGIC.length; i++) {
+      if (payload[i] != ENVELOPE_MAGIC[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+  
+  /**
+   * @param envelope The envelope
+   * @return Salt the key encryption key of the envelope was derived with
+   */
+  public byte[] getEnvelopeKekSalt(byte[] envelope) {
+    return Arrays.copyOfRange(envelope, ENVELOPE_MAGIC.length, ENVELOPE_MAGIC.length + SALT_LENGTH);
+  }
+  
+  /**
+   * Generate a random salt for key derivation
+   * @return @SALT_LENGTH random bytes
+   */
+  public byte[] generateSalt() {
+    byte[] salt = new byte[SALT_LENGTH];
+    generateRandom(salt);
+    return salt;
+  }
+  
+  private int append(byte[] destination, int offset, byte[] source) {
+    System.arraycopy(source, 0, destination, offset, source.length);
+    return offset + source.length;
+  }
+  
   /**
    * Clear the password from the key specification. Call this only after you are done
    * with the encryption/decryption
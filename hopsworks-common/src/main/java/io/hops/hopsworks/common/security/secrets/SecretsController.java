@@ -23,6 +23,9 @@ import io.hops.hopsworks.common.dao.user.UserFacade;
 import io.hops.hopsworks.common.dao.user.security.secrets.SecretPlaintext;
 import io.hops.hopsworks.common.dao.user.security.secrets.SecretsFacade;
 import io.hops.hopsworks.common.security.CertificatesMgmService;
+import io.hops.hopsworks.common.security.KeyEncryptionKeyCache;
+import io.hops.hopsworks.common.security.MasterPasswordRotationFacade;
+import io.hops.hopsworks.common.security.MasterPasswordRotationJournal;
 import io.hops.hopsworks.common.security.SymmetricEncryptionDescriptor;
 import io.hops.hopsworks.common.security.SymmetricEncryptionService;
 import io.hops.hopsworks.common.util.DateUtils;
@@ -37,6 +40,8 @@ import io.hops.hopsworks.persistence.entity.user.security.secrets.SecretId;
 import io.hops.hopsworks.persistence.entity.user.security.secrets.VisibilityType;
 import io.hops.hopsworks.restutils.RESTCodes;
 
+import javax.crypto.AEADBadTagException;
+import javax.crypto.SecretKey;
 import javax.ejb.EJB;
 import javax.ejb.EJBException;
 import javax.ejb.Stateless;
@@ -57,6 +62,9 @@ import java.util.stream.Collectors;
  * Stateless bean for managing Secrets of users
  * Secrets are encrypted with Hopsworks master encryption password
  * before persisted in the database.
+ * Secrets are envelope encrypted: each secret has its own data key, which is encrypted with a key encryption key
+ * derived once from the master encryption password. Secrets encrypted before envelope encryption are still read, and
+ * are encrypted again as envelopes the first time they are read.
  */
 public class SecretsController {
   private static final Logger LOG = Logger.getLogger(SecretsController.class.getName());
@@ -66,8 +74,12 @@ public class SecretsController {
   @EJB
   private SymmetricEncryptionService symmetricEncryptionService;
   @EJB
+  private KeyEncryptionKeyCache keyEncryptionKeyCache;
+  @EJB
   private CertificatesMgmService certificatesMgmService;
   @EJB
+  private MasterPasswordRotationFacade masterPasswordRotationFacade;
+  @EJB
   private UserFacade userFacade;
   @EJB
   private ProjectFacade projectFacade;
@@ -386,7 +398,7 @@ public class SecretsController {
   }
   
   /**
-   * Decrypts an encrypted Secret
+   * Decrypts an encrypted Secret. A Secret which is not an envelope yet is stored again as an envelope.
    *
    * @param user
    * @param ciphered
@@ -397,9 +409,39 @@ public class SecretsController {
   private SecretPlaintext decrypt(Users user, Secret ciphered)
       throws IOException, GeneralSecurityException {
     String password = certificatesMgmService.getMasterEncryptionPassword();
+    byte[] plaintext = decryptSecret(ciphered.getSecret(), password);
+    if (!symmetricEncryptionService.isEnvelope(ciphered.getSecret())) {
+      migrate(ciphered, plaintext, password);
+    }
+
+    return SecretPlaintext.newInstance(user, ciphered.getId().getName(), bytes2string(plaintext),
+        ciphered.getAddedOn(), ciphered.getVisibilityType(), ciphered.getProjectIdScope());
+  }
+  
+  /**
+   * Decrypts the payload of a Secret, an envelope or the legacy [salt(64),iv(12),payload] format
+   *
+   * @param ciphered Encrypted payload of the Secret
+   * @param password Master encryption password the Secret was encrypted with
+   * @return The plaintext secret
+   * @throws GeneralSecurityException
+   */
+  public byte[] decryptSecret(byte[] ciphered, String password) throws GeneralSecurityException {
+    if (!symmetricEncryptionService.isEnvelope(ciphered)) {
+      return decryptLegacy(ciphered, password);
+    }
+    SecretKey kek = keyEncryptionKeyCache.get(password, symmetricEncryptionService.getEnvelopeKekSalt(ciphered));
+    try {
+      return symmetricEncryptionService.decryptEnvelope(kek, ciphered);
+    } catch (AEADBadTagException ex) {
+      // A legacy payload whose random salt happens to start like an envelope
+      return decryptLegacy(ciphered, password);
+    }
+  }
   
+  private byte[] decryptLegacy(byte[] ciphered, String password) throws GeneralSecurityException {
     // [salt(64),iv(12),payload)]
-    byte[][] split = symmetricEncryptionService.splitPayloadFromCryptoPrimitives(ciphered.getSecret());
+    byte[][] split = symmetricEncryptionService.splitPayloadFromCryptoPrimitives(ciphered);
     
     SymmetricEncryptionDescriptor descriptor = new SymmetricEncryptionDescriptor.Builder()
         .setPassword(password)
@@ -408,32 +450,55 @@ public class SecretsController {
         .setInput(split[2])
         .build();
     descriptor = symmetricEncryptionService.decrypt(descriptor);
-    
-    byte[] plaintext = descriptor.getOutput();
-
-    return SecretPlaintext.newInstance(user, ciphered.getId().getName(), bytes2string(plaintext),
-        ciphered.getAddedOn(), ciphered.getVisibilityType(), ciphered.getProjectIdScope());
+    return descriptor.getOutput();
+  }
+  
+  /**
+   * Store a Secret read in the legacy format as an envelope. Failing to do so does not fail the read, the Secret is
+   * migrated the next time it is read. The Secret is written only if it still has the value it was read with, so
+   * that a concurrent update or change of the master encryption password is not overwritten, and it is not written
+   * at all while a change of the master encryption password is in progress.
+   */
+  private void migrate(Secret ciphered, byte[] plaintext, String password) {
+    try {
+      if (MasterPasswordRotationJournal.exists(masterPasswordRotationFacade)) {
+        // The change stores every Secret as an envelope
+        return;
+      }
+      if (!secretsFacade.updateSecretIfUnchanged(ciphered.getId(), ciphered.getSecret(),
+          encryptSecret(plaintext, password))) {
+        LOG.log(Level.FINE, "Secret <" + ciphered.getId().getUid() + ", " + ciphered.getId().getName()
+            + "> changed since it was read, it is not migrated");
+      }
+    } catch (GeneralSecurityException | RuntimeException ex) {
+      LOG.log(Level.WARNING, "Could not migrate Secret <" + ciphered.getId().getUid() + ", "
+          + ciphered.getId().getName() + "> to envelope encryption", ex);
+    }
   }
   
   /**
    * Encrypts a Secret.
    *
    * @param secret
-   * @return Encrypted secret along with cryptographic primitives. The structure is the following:
-   * Salt(64 bytes), InitializationVector(12 bytes), EncryptedPayload
+   * @return Encrypted secret as an envelope, see {@link SymmetricEncryptionService#encryptEnvelope}
    * @throws IOException
    * @throws GeneralSecurityException
    */
   public byte[] encryptSecret(String secret) throws IOException, GeneralSecurityException {
-    String password = certificatesMgmService.getMasterEncryptionPassword();
-    SymmetricEncryptionDescriptor descriptor = new SymmetricEncryptionDescriptor.Builder()
-        .setInput(string2bytes(secret))
-        .setPassword(password)
-        .build();
-    descriptor = symmetricEncryptionService.encrypt(descriptor);
-    
-    return symmetricEncryptionService.mergePayloadWithCryptoPrimitives(descriptor.getSalt(), descriptor.getIv(),
-        descriptor.getOutput());
+    return encryptSecret(string2bytes(secret), certificatesMgmService.getMasterEncryptionPassword());
+  }
+  
+  /**
+   * Encrypts a Secret with the key encryption key of a master encryption password
+   *
+   * @param secret The plaintext secret
+   * @param password Master encryption password
+   * @return Encrypted secret as an envelope
+   * @throws GeneralSecurityException
+   */
+  public byte[] encryptSecret(byte[] secret, String password) throws GeneralSecurityException {
+    KeyEncryptionKeyCache.KeyEncryptionKey kek = keyEncryptionKeyCache.getCurrent(password);
+    return symmetricEncryptionService.encryptEnvelope(kek.getKey(), kek.getSalt(), secret);
   }
   
   /**
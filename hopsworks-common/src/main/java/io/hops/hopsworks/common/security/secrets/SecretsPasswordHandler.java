@@ -17,21 +17,21 @@
 package io.hops.hopsworks.common.security.secrets;
 
 import io.hops.hopsworks.persistence.entity.user.security.secrets.Secret;
-import io.hops.hopsworks.persistence.entity.user.security.secrets.SecretId;
 import io.hops.hopsworks.common.dao.user.security.secrets.SecretsFacade;
+import io.hops.hopsworks.common.security.BatchedMasterPasswordRotation;
+import io.hops.hopsworks.common.security.KeyEncryptionKeyCache;
 import io.hops.hopsworks.common.security.MasterPasswordChangeResult;
 import io.hops.hopsworks.common.security.MasterPasswordHandler;
-import io.hops.hopsworks.common.security.SymmetricEncryptionDescriptor;
-import io.hops.hopsworks.common.security.SymmetricEncryptionService;
+import io.hops.hopsworks.common.security.MasterPasswordRotationJournal;
 import io.hops.hopsworks.exceptions.EncryptionMasterPasswordException;
 
+import javax.annotation.Resource;
 import javax.ejb.EJB;
 import javax.ejb.Stateless;
 import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
-import java.util.HashMap;
+import javax.enterprise.concurrent.ManagedExecutorService;
 import java.util.List;
-import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -43,9 +43,11 @@ public class SecretsPasswordHandler implements MasterPasswordHandler {
   @EJB
   private SecretsController secretsController;
   @EJB
-  private SymmetricEncryptionService symmetricEncryptionService;
+  private KeyEncryptionKeyCache keyEncryptionKeyCache;
   @EJB
   private SecretsFacade secretsFacade;
+  @Resource(lookup = "concurrent/hopsExecutorService")
+  private ManagedExecutorService executorService;
   
   @Override
   public void pre() {
@@ -53,84 +55,77 @@ public class SecretsPasswordHandler implements MasterPasswordHandler {
   
   @Override
   public MasterPasswordChangeResult perform(String oldPassword, String newPassword) {
-    Map<SecretId, byte[]> secrets2Rollback = new HashMap<>();
+    return perform(oldPassword, newPassword, MasterPasswordRotationJournal.inMemory(newPassword));
+  }
+  
+  @Override
+  public MasterPasswordChangeResult perform(String oldPassword, String newPassword,
+      MasterPasswordRotationJournal journal) {
     StringBuilder successLog = new StringBuilder();
     successLog.append("Performing change of master password for Secrets\n");
-    SecretId secretId;
-    Secret newSecret;
-    SymmetricEncryptionDescriptor inDescriptor;
-    SymmetricEncryptionDescriptor outDescriptor;
     
     try {
       LOGGER.log(Level.INFO, "Updating Secrets with new Hopsworks master encryption password");
-      List<Secret> cipheredSecrets = secretsController.getAllCiphered();
-      
-      for (Secret cipheredSecret : cipheredSecrets) {
-        secretId = cipheredSecret.getId();
-        secrets2Rollback.put(secretId, cipheredSecret.getSecret());
-        
-        // First decrypt with the old password
-        byte[][] cryptoPrimitives = symmetricEncryptionService
-            .splitPayloadFromCryptoPrimitives(cipheredSecret.getSecret());
-        inDescriptor = new SymmetricEncryptionDescriptor.Builder()
-            .setPassword(oldPassword)
-            .setSalt(cryptoPrimitives[0])
-            .setIV(cryptoPrimitives[1])
-            .setInput(cryptoPrimitives[2])
-            .build();
-        outDescriptor = symmetricEncryptionService.decrypt(inDescriptor);
-        inDescriptor.clearPassword();
-        
-        // Then encrypt plaintext secret with the new password
-        inDescriptor = new SymmetricEncryptionDescriptor.Builder()
-            .setInput(outDescriptor.getOutput())
-            .setPassword(newPassword)
-            .build();
-        outDescriptor = symmetricEncryptionService.encrypt(inDescriptor);
-        inDescriptor.clearPassword();
-        byte[] newCipheredSecret = symmetricEncryptionService.mergePayloadWithCryptoPrimitives(outDescriptor.getSalt(),
-            outDescriptor.getIv(), outDescriptor.getOutput());
-        
-        // Store new API key
-        newSecret = new Secret(secretId, newCipheredSecret, cipheredSecret.getAddedOn());
-        newSecret.setVisibilityType(cipheredSecret.getVisibilityType());
-        if (cipheredSecret.getProjectIdScope() != null) {
-          newSecret.setProjectIdScope(cipheredSecret.getProjectIdScope());
-        }
-        secretsFacade.update(newSecret);
-        successLog.append("Updated Secret <").append(newSecret.getId().getUid()).append(",")
-            .append(newSecret.getId().getName()).append(">\n");
-      }
-      
-      return new MasterPasswordChangeResult<>(successLog, secrets2Rollback, null);
+      BatchedMasterPasswordRotation.Result result = new SecretsRotation().rotate(oldPassword, newPassword, journal);
+      LOGGER.log(Level.INFO, result.toString());
+      successLog.append(result).append("\n");
+      return new MasterPasswordChangeResult<>(successLog, journal, null);
     } catch (Exception ex) {
       String errorMsg = "Error while updating master encryption password for Secrets";
       LOGGER.log(Level.SEVERE, errorMsg, ex);
-      return new MasterPasswordChangeResult<>(secrets2Rollback, new EncryptionMasterPasswordException(errorMsg, ex));
+      return new MasterPasswordChangeResult<>(journal, new EncryptionMasterPasswordException(errorMsg, ex));
     }
   }
   
   @Override
-  @SuppressWarnings("unchecked")
   public void rollback(MasterPasswordChangeResult result) {
-    Map<SecretId, byte[]> secrets2rollback = (HashMap<SecretId, byte[]>)result.getRollbackItems();
     LOGGER.log(Level.INFO, "Rolling back Secrets");
-    Secret secret;
-    for (Map.Entry<SecretId, byte[]> secret2rollback : secrets2rollback.entrySet()) {
-      Secret persistedSecret = secretsFacade.findById(secret2rollback.getKey());
-      if (persistedSecret == null) {
-        continue;
-      }
-      secret = new Secret(secret2rollback.getKey(), secret2rollback.getValue(), persistedSecret.getAddedOn());
-      secret.setVisibilityType(persistedSecret.getVisibilityType());
-      if (persistedSecret.getProjectIdScope() != null) {
-        secret.setProjectIdScope(persistedSecret.getProjectIdScope());
-      }
-      secretsFacade.update(secret);
-    }
+    int restored = new SecretsRotation().rollback((MasterPasswordRotationJournal) result.getRollbackItems());
+    LOGGER.log(Level.INFO, "Restored {0} Secrets", restored);
   }
   
   @Override
   public void post() {
+    // Drop the key encryption keys of the old password
+    keyEncryptionKeyCache.invalidateAll();
+  }
+  
+  private class SecretsRotation extends BatchedMasterPasswordRotation<Secret> {
+    
+    private SecretsRotation() {
+      super("secrets", DEFAULT_BATCH_SIZE, executorService);
+    }
+    
+    @Override
+    protected List<Secret> findAll() {
+      return secretsController.getAllCiphered();
+    }
+    
+    @Override
+    protected String key(Secret secret) {
+      return secret.getId().getUid() + "/" + secret.getId().getName();
+    }
+    
+    @Override
+    protected byte[] value(Secret secret) {
+      return secret.getSecret();
+    }
+    
+    @Override
+    protected void setValue(Secret secret, byte[] value) {
+      secret.setSecret(value);
+    }
+    
+    @Override
+    protected byte[] reEncrypt(Secret secret, String oldPassword, String newPassword) throws Exception {
+      // First decrypt with the old password, then encrypt plaintext secret with the new password
+      byte[] plaintext = secretsController.decryptSecret(secret.getSecret(), oldPassword);
+      return secretsController.encryptSecret(plaintext, newPassword);
+    }
+    
+    @Override
+    protected void update(List<Secret> batch) {
+      secretsFacade.updateAll(batch);
+    }
   }
 }
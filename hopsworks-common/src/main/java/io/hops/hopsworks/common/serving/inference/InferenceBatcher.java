@@ -0,0 +1,228 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2021, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.common.serving.inference;
+
+import io.hops.common.Pair;
+import io.hops.hopsworks.common.util.Settings;
+import io.hops.hopsworks.exceptions.InferenceException;
+import io.hops.hopsworks.persistence.entity.serving.ModelServer;
+import io.hops.hopsworks.persistence.entity.serving.Serving;
+import io.hops.hopsworks.restutils.RESTCodes;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.EJB;
+import javax.ejb.Singleton;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.logging.Level;
+
+import static javax.ejb.ConcurrencyManagementType.BEAN;
+
+/**
+ * Coalesces concurrent predict requests to the same Tensorflow model into a single request to the model server. The
+ * first request of a batch waits for the batch window, or less if the batch fills up, sends the instances of all the
+ * requests that joined in the meantime and hands each request its slice of the predictions. Requests that can not be merged, and all requests
+ * when the batch window is 0, go straight to the model server.
+ */
+@ConcurrencyManagement(BEAN)
+@Singleton
+@TransactionAttribute(TransactionAttributeType.NEVER)
+public class InferenceBatcher {
+
+  private static final String PREDICT = ":predict";
+  private static final String INSTANCES = "instances";
+  private static final String PREDICTIONS = "predictions";
+  private static final String SIGNATURE_NAME = "signature_name";
+  private static final long MAX_WAIT_SECONDS = 120;
+
+  @EJB
+  private Settings settings;
+  @Inject
+  private ServingInferenceController servingInferenceController;
+
+  private final ConcurrentHashMap<String, Batch> batches = new ConcurrentHashMap<>();
+
+  public Pair<Integer, String> infer(Serving serving, Integer modelVersion, String verb, String inferenceRequestJson)
+    throws InferenceException {
+    int window = settings.getServingBatchWindowMs();
+    if (window <= 0 || serving.getModelServer() != ModelServer.TENSORFLOW_SERVING || !PREDICT.equals(verb)) {
+      return servingInferenceController.infer(serving, modelVersion, verb, inferenceRequestJson);
+    }
+    JSONArray instances;
+    String signature;
+    try {
+      JSONObject request = new JSONObject(inferenceRequestJson);
+      instances = request.optJSONArray(INSTANCES);
+      signature = request.optString(SIGNATURE_NAME, "");
+      if (instances == null || instances.length() == 0 || request.length() > (request.has(SIGNATURE_NAME) ? 2 : 1)) {
+        return servingInferenceController.infer(serving, modelVersion, verb, inferenceRequestJson);
+      }
+    } catch (JSONException e) {
+      //Let the model server report the error
+      return servingInferenceController.infer(serving, modelVersion, verb, inferenceRequestJson);
+    }
+
+    String key = serving.getId() + "/" + modelVersion + "/" + signature;
+    int maxBatchSize = settings.getServingMaxBatchSize();
+    Request request = new Request(instances);
+    boolean[] leader = new boolean[1];
+    Batch batch = batches.compute(key, (k, current) -> {
+      if (current != null && current.add(request, maxBatchSize)) {
+        return current;
+      }
+      Batch created = new Batch(signature);
+      created.add(request, maxBatchSize);
+      leader[0] = true;
+      return created;
+    });
+
+    if (leader[0]) {
+      sendBatch(key, batch, serving, modelVersion, verb, window, maxBatchSize);
+    }
+    try {
+      return request.result.get(MAX_WAIT_SECONDS, TimeUnit.SECONDS);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof InferenceException) {
+        throw (InferenceException) e.getCause();
+      }
+      throw new InferenceException(RESTCodes.InferenceErrorCode.REQUEST_ERROR, Level.INFO, null,
+        e.getCause().getMessage(), e.getCause());
+    } catch (InterruptedException | TimeoutException e) {
+      throw new InferenceException(RESTCodes.InferenceErrorCode.REQUEST_ERROR, Level.INFO, null, e.getMessage(), e);
+    }
+  }
+
+  private void sendBatch(String key, Batch batch, Serving serving, Integer modelVersion, String verb, int window,
+    int maxBatchSize) {
+    try {
+      batch.awaitFull(window, maxBatchSize);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    batches.remove(key, batch);
+    List<Request> requests = batch.close();
+    try {
+      JSONArray allInstances = new JSONArray();
+      for (Request request : requests) {
+        for (int i = 0; i < request.instances.length(); i++) {
+          allInstances.put(request.instances.get(i));
+        }
+      }
+      JSONObject merged = new JSONObject();
+      merged.put(INSTANCES, allInstances);
+      if (!batch.signature.isEmpty()) {
+        merged.put(SIGNATURE_NAME, batch.signature);
+      }
+      Pair<Integer, String> result =
+        servingInferenceController.infer(serving, modelVersion, verb, merged.toString());
+      split(requests, allInstances.length(), result);
+    } catch (Exception e) {
+      for (Request request : requests) {
+        request.result.completeExceptionally(e);
+      }
+    }
+  }
+
+  /**
+   * Hand each request its slice of the predictions. Errors, and responses that do not have one prediction per
+   * instance, are returned as they are to every request.
+   */
+  private void split(List<Request> requests, int instances, Pair<Integer, String> result) {
+    JSONArray predictions = null;
+    if (result.getL() == 200) {
+      try {
+        predictions = new JSONObject(result.getR()).optJSONArray(PREDICTIONS);
+      } catch (JSONException e) {
+        predictions = null;
+      }
+    }
+    if (predictions == null || predictions.length() != instances) {
+      for (Request request : requests) {
+        request.result.complete(result);
+      }
+      return;
+    }
+    int offset = 0;
+    for (Request request : requests) {
+      JSONArray slice = new JSONArray();
+      for (int i = 0; i < request.instances.length(); i++) {
+        slice.put(predictions.get(offset + i));
+      }
+      offset += request.instances.length();
+      request.result.complete(new Pair<>(result.getL(), new JSONObject().put(PREDICTIONS, slice).toString()));
+    }
+  }
+
+  private static class Request {
+    private final JSONArray instances;
+    private final CompletableFuture<Pair<Integer, String>> result = new CompletableFuture<>();
+
+    private Request(JSONArray instances) {
+      this.instances = instances;
+    }
+  }
+
+  private static class Batch {
+    private final String signature;
+    private final List<Request> requests = new ArrayList<>();
+    private int instances = 0;
+    private boolean closed = false;
+
+    private Batch(String signature) {
+      this.signature = signature;
+    }
+
+    private synchronized boolean add(Request request, int maxBatchSize) {
+      if (closed || (instances > 0 && instances + request.instances.length() > maxBatchSize)) {
+        return false;
+      }
+      requests.add(request);
+      instances += request.instances.length();
+      if (instances >= maxBatchSize) {
+        notifyAll();
+      }
+      return true;
+    }
+
+    /**
+     * Wait until the batch has maxBatchSize instances or the window has passed, whichever comes first.
+     */
+    private synchronized void awaitFull(long windowMs, int maxBatchSize) throws InterruptedException {
+      long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(windowMs);
+      long remaining = deadline - System.nanoTime();
+      while (instances < maxBatchSize && remaining > 0) {
+        TimeUnit.NANOSECONDS.timedWait(this, remaining);
+        remaining = deadline - System.nanoTime();
+      }
+    }
+
+    private synchronized List<Request> close() {
+      closed = true;
+      return requests;
+    }
+  }
+}
@@ -48,8 +48,10 @@ public class InferenceController {
   @EJB
   private ServingFacade servingFacade;
 
-  @Inject
-  private ServingInferenceController servingInferenceController;
+  @EJB
+  private ServingEndpointCache servingEndpointCache;
+  @EJB
+  private InferenceBatcher inferenceBatcher;
 
   @Inject
   @Any
@@ -70,9 +72,13 @@ public class InferenceController {
   public String infer(Project project, String modelName, Integer modelVersion,
                       String verb, String inferenceRequestJson) throws InferenceException {
 
-    Serving serving = servingFacade.findByProjectAndName(project, modelName);
+    Serving serving = servingEndpointCache.get(project, modelName);
     if (serving == null) {
-      throw new InferenceException(RESTCodes.InferenceErrorCode.SERVING_NOT_FOUND, Level.FINE, "name: " + modelName);
+      serving = servingFacade.findByProjectAndName(project, modelName);
+      if (serving == null) {
+        throw new InferenceException(RESTCodes.InferenceErrorCode.SERVING_NOT_FOUND, Level.FINE, "name: " + modelName);
+      }
+      servingEndpointCache.put(project, serving);
     }
   
     if (Strings.isNullOrEmpty(verb)) {
@@ -84,9 +90,10 @@ public class InferenceController {
         "positive");
     }
 
-    // ServingInferenceController is either localhost or kubernetes inference controller
+    // The batcher sends the request, possibly merged with others, to the ServingInferenceController which is either
+    // localhost or kubernetes inference controller
     Pair<Integer, String> inferenceResult =
-      servingInferenceController.infer(serving, modelVersion, verb, inferenceRequestJson);
+      inferenceBatcher.infer(serving, modelVersion, verb, inferenceRequestJson);
 
     // Log the inference
     for (InferenceLogger inferenceLogger : inferenceLoggers) {
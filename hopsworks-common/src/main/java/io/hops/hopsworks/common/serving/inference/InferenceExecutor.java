@@ -0,0 +1,77 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2021, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.common.serving.inference;
+
+import io.hops.hopsworks.common.util.Settings;
+import io.hops.hopsworks.exceptions.InferenceException;
+import io.hops.hopsworks.restutils.RESTCodes;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.EJB;
+import javax.ejb.Singleton;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import javax.enterprise.concurrent.ManagedThreadFactory;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+import static javax.ejb.ConcurrencyManagementType.BEAN;
+
+/**
+ * Threads that wait for the model servers on behalf of the suspended inference requests. The pool is bounded and
+ * not shared with the rest of Hopsworks, so slow model servers can neither starve other background work nor pile up
+ * an unbounded number of requests. Requests beyond the queue are rejected.
+ */
+@ConcurrencyManagement(BEAN)
+@Singleton
+@TransactionAttribute(TransactionAttributeType.NEVER)
+public class InferenceExecutor {
+
+  @EJB
+  private Settings settings;
+  @Resource
+  private ManagedThreadFactory threadFactory;
+
+  private ThreadPoolExecutor executor;
+
+  @PostConstruct
+  public void init() {
+    int threads = settings.getServingInferenceThreads();
+    executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+      new ArrayBlockingQueue<>(settings.getServingInferenceQueueSize()), threadFactory);
+    executor.allowCoreThreadTimeOut(true);
+  }
+
+  @PreDestroy
+  public void destroy() {
+    executor.shutdownNow();
+  }
+
+  public void submit(Runnable task) throws InferenceException {
+    try {
+      executor.execute(task);
+    } catch (RejectedExecutionException e) {
+      throw new InferenceException(RESTCodes.InferenceErrorCode.TOO_MANY_REQUESTS, Level.FINE, null,
+        "queued requests: " + executor.getQueue().size(), e);
+    }
+  }
+}
@@ -0,0 +1,105 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2021, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.common.serving.inference;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.hops.hopsworks.common.dao.serving.ServingChangeHandler;
+import io.hops.hopsworks.persistence.entity.project.Project;
+import io.hops.hopsworks.persistence.entity.serving.Serving;
+import io.hops.hopsworks.common.util.Settings;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.EJB;
+import javax.ejb.LocalBean;
+import javax.ejb.Singleton;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+import javax.transaction.TransactionSynchronizationRegistry;
+import java.util.concurrent.TimeUnit;
+
+import static javax.ejb.ConcurrencyManagementType.BEAN;
+
+/**
+ * Servings resolved by inference requests, so that predictions do not query the database for the serving every
+ * time. ServingFacade notifies the cache when a serving is updated, locked or deleted on this instance, other
+ * instances see the change when the entry expires.
+ */
+@ConcurrencyManagement(BEAN)
+@Singleton
+@LocalBean
+@TransactionAttribute(TransactionAttributeType.SUPPORTS)
+public class ServingEndpointCache implements ServingChangeHandler {
+
+  @EJB
+  private Settings settings;
+  @Resource
+  private TransactionSynchronizationRegistry transactionSynchronizationRegistry;
+
+  //Key is projectId/servingName
+  private Cache<String, Serving> servings;
+
+  @PostConstruct
+  public void init() {
+    servings = CacheBuilder.newBuilder()
+      .maximumSize(10000)
+      .expireAfterWrite(settings.getServingEndpointCacheTTL(), TimeUnit.SECONDS)
+      .build();
+  }
+
+  public Serving get(Project project, String servingName) {
+    return servings.getIfPresent(key(project, servingName));
+  }
+
+  public void put(Project project, Serving serving) {
+    servings.put(key(project, serving.getName()), serving);
+  }
+
+  /**
+   * Drop the serving from the cache. If called within a transaction the serving is dropped again once the
+   * transaction completes, so that a request resolving the serving before the commit does not cache the old state.
+   *
+   * @param servingId
+   */
+  @Override
+  public void servingChanged(Integer servingId) {
+    invalidateNow(servingId);
+    if (transactionSynchronizationRegistry.getTransactionStatus() == Status.STATUS_ACTIVE) {
+      transactionSynchronizationRegistry.registerInterposedSynchronization(new Synchronization() {
+        @Override
+        public void beforeCompletion() {
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+          invalidateNow(servingId);
+        }
+      });
+    }
+  }
+
+  private void invalidateNow(Integer servingId) {
+    servings.asMap().values().removeIf(s -> s.getId().equals(servingId));
+  }
+
+  private String key(Project project, String servingName) {
+    return project.getId() + "/" + servingName;
+  }
+}
@@ -22,6 +22,7 @@ import io.hops.hopsworks.common.dao.serving.ServingFacade;
 import io.hops.hopsworks.common.serving.LocalhostServingController;
 import io.hops.hopsworks.common.serving.ServingController;
 import io.hops.hopsworks.exceptions.ServingException;
+import io.hops.hopsworks.common.util.BoundedParallelism;
 import io.hops.hopsworks.common.util.OSProcessExecutor;
 import io.hops.hopsworks.common.util.ProcessDescriptor;
 import io.hops.hopsworks.common.util.ProcessResult;
@@ -35,11 +36,16 @@ import javax.ejb.Startup;
 import javax.ejb.Timeout;
 import javax.ejb.Timer;
 import javax.ejb.TimerService;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import javax.enterprise.concurrent.ManagedExecutorService;
 import javax.inject.Inject;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -51,6 +57,9 @@ import static io.hops.hopsworks.common.serving.LocalhostServingController.CID_ST
  * This singleton iterates over the running Serving instances and checks whether
  * or not they are still alive.
  * <p>
+ * All the instances are probed in a single pass, in parallel, without locking them. Only the instances that do not
+ * respond are locked, checked with the serving scripts and, if they are dead, cleaned up and marked as stopped.
+ * <p>
  * The monitor needs to run only if the ServingController is the Localhost one
  */
 @Singleton
@@ -72,7 +81,10 @@ public class LocalhostServingMonitor {
 
   @Inject
   private ServingController servingController;
+  @Resource(lookup = "concurrent/hopsExecutorService")
+  private ManagedExecutorService executorService;
 
+  private ServingLivenessProbe livenessProbe = new ServingLivenessProbe();
   private String tfScript;
   private String sklearnScript;
 
@@ -96,72 +108,110 @@ public class LocalhostServingMonitor {
   }
 
   @Timeout
+  @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
   public void monitor(Timer timer) {
     try {
       // Get the list of running Localhost Serving instances
       List<Serving> servingList = servingFacade.getLocalhostRunning();
-      for (Serving serving : servingList) {
-        try {
-          Serving dbServing = servingFacade.acquireLock(serving.getProject(), serving.getId());
-          ProcessDescriptor.Builder builder = new ProcessDescriptor.Builder().addCommand("/usr/bin/sudo");
-          if (serving.getModelServer() == ModelServer.TENSORFLOW_SERVING) {
-            builder.addCommand(tfScript);
-          }
-          if (serving.getModelServer() == ModelServer.FLASK) {
-            builder.addCommand(sklearnScript);
-          }
-          ProcessDescriptor processDescriptor = builder.addCommand("alive")
-              .addCommand(dbServing.getProject().getName().toLowerCase())
-              .addCommand(dbServing.getName())
-              .ignoreOutErrStreams(true)
-              .build();
-
-          LOGGER.log(Level.FINE, processDescriptor.toString());
-          try {
-            ProcessResult processResult = osProcessExecutor.execute(processDescriptor);
-
-            if (processResult.getExitCode() != 0) {
-
-              // The processes is dead, run the kill script to delete the directory
-              // and update the value in the db
-              Path secretDir = Paths.get(settings.getStagingDir(), SERVING_DIRS + serving.getLocalDir());
-              builder = new ProcessDescriptor.Builder().addCommand("/usr/bin/sudo");
-              if (serving.getModelServer() == ModelServer.TENSORFLOW_SERVING) {
-                builder.addCommand(tfScript);
-              }
-              if (serving.getModelServer() == ModelServer.FLASK) {
-                builder.addCommand(sklearnScript);
-              }
-              processDescriptor = builder.addCommand("kill")
-                  .addCommand(dbServing.getCid())
-                  .addCommand(dbServing.getName())
-                  .addCommand(dbServing.getProject().getName().toLowerCase())
-                  .addCommand(secretDir.toString())
-                  .ignoreOutErrStreams(true)
-                  .build();
-
-              LOGGER.log(Level.FINE, processDescriptor.toString());
-              osProcessExecutor.execute(processDescriptor);
-
-              // If the process succeeded to delete the localDir update the db
-              dbServing.setCid(CID_STOPPED);
-              dbServing.setLocalPort(-1);
-              servingFacade.updateDbObject(dbServing, dbServing.getProject());
-            }
-
-          } catch (IOException e) {
-            LOGGER.log(Level.SEVERE, "Could not clean up serving instance with id: "
-                + serving.getId(), e);
-          }
-
-          servingFacade.releaseLock(serving.getProject(), serving.getId());
-        } catch (ServingException e) {
-          LOGGER.log(Level.INFO, "Error processing serving instance with id: "
-              + serving.getId(), e);
+      if (servingList.isEmpty()) {
+        return;
+      }
+      int parallelism = settings.getServingMonitorParallelism();
+      Set<String> runningPids = livenessProbe.runningPids();
+      List<Boolean> responding = BoundedParallelism.map(executorService, servingList, parallelism,
+          serving -> isResponding(serving, runningPids));
+
+      List<Serving> suspects = new ArrayList<>();
+      for (int i = 0; i < servingList.size(); i++) {
+        if (!responding.get(i)) {
+          suspects.add(servingList.get(i));
         }
       }
+      if (suspects.isEmpty()) {
+        return;
+      }
+      LOGGER.log(Level.FINE, "{0} of {1} localhost serving instances are not responding",
+          new Object[]{suspects.size(), servingList.size()});
+      BoundedParallelism.map(executorService, suspects, parallelism, serving -> {
+        checkAndCleanUp(serving);
+        return null;
+      });
     } catch(Exception e) {
       LOGGER.log(Level.SEVERE, "Got an exception while monitoring servings" , e);
     }
   }
+
+  /**
+   * A serving is responding if its process is in the process table and its port accepts connections. Servings
+   * that are not responding might just be starting up or restarting, they are checked with the serving scripts
+   * before being cleaned up.
+   */
+  private boolean isResponding(Serving serving, Set<String> runningPids) {
+    if (runningPids != null && !runningPids.contains(serving.getCid())) {
+      return false;
+    }
+    Integer port = serving.getLocalPort();
+    return port != null && port > 0 && livenessProbe.isListening(port);
+  }
+
+  private void checkAndCleanUp(Serving serving) {
+    try {
+      Serving dbServing = servingFacade.acquireLock(serving.getProject(), serving.getId());
+      try {
+        if (CID_STOPPED.equals(dbServing.getCid())) {
+          // Stopped in the meantime
+          return;
+        }
+        ProcessDescriptor processDescriptor = scriptCommand(dbServing).addCommand("alive")
+            .addCommand(dbServing.getProject().getName().toLowerCase())
+            .addCommand(dbServing.getName())
+            .ignoreOutErrStreams(true)
+            .build();
+
+        LOGGER.log(Level.FINE, processDescriptor.toString());
+        ProcessResult processResult = osProcessExecutor.execute(processDescriptor);
+        if (processResult.getExitCode() == 0) {
+          return;
+        }
+
+        // The processes is dead, run the kill script to delete the directory
+        // and update the value in the db
+        Path secretDir = Paths.get(settings.getStagingDir(), SERVING_DIRS + dbServing.getLocalDir());
+        processDescriptor = scriptCommand(dbServing).addCommand("kill")
+            .addCommand(dbServing.getCid())
+            .addCommand(dbServing.getName())
+            .addCommand(dbServing.getProject().getName().toLowerCase())
+            .addCommand(secretDir.toString())
+            .ignoreOutErrStreams(true)
+            .build();
+
+        LOGGER.log(Level.FINE, processDescriptor.toString());
+        osProcessExecutor.execute(processDescriptor);
+
+        // If the process succeeded to delete the localDir update the db
+        dbServing.setCid(CID_STOPPED);
+        dbServing.setLocalPort(-1);
+        servingFacade.updateDbObject(dbServing, dbServing.getProject());
+      } catch (IOException e) {
+        LOGGER.log(Level.SEVERE, "Could not clean up serving instance with id: "
+            + serving.getId(), e);
+      } finally {
+        servingFacade.releaseLock(serving.getProject(), serving.getId());
+      }
+    } catch (ServingException e) {
+      LOGGER.log(Level.INFO, "Error processing serving instance with id: "
+          + serving.getId(), e);
+    }
+  }
+
+  private ProcessDescriptor.Builder scriptCommand(Serving serving) {
+    ProcessDescriptor.Builder builder = new ProcessDescriptor.Builder().addCommand("/usr/bin/sudo");
+    if (serving.getModelServer() == ModelServer.TENSORFLOW_SERVING) {
+      builder.addCommand(tfScript);
+    }
+    if (serving.getModelServer() == ModelServer.FLASK) {
+      builder.addCommand(sklearnScript);
+    }
+    return builder;
+  }
 }
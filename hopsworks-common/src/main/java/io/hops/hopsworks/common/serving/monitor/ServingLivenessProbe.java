@@ -0,0 +1,66 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2021, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.common.serving.monitor;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Cheap, in-process checks of whether a localhost serving is still up: the pid of the serving is looked up in a
+ * single listing of the process table, and the port of the serving must accept connections.
+ */
+class ServingLivenessProbe {
+
+  private static final Path PROC = Paths.get("/proc");
+  private static final int CONNECT_TIMEOUT_MS = 1000;
+
+  /**
+   * @return the pids of the processes running on this machine, or null if the process table can not be listed
+   */
+  Set<String> runningPids() {
+    if (!Files.isDirectory(PROC)) {
+      return null;
+    }
+    Set<String> pids = new HashSet<>();
+    try (DirectoryStream<Path> entries = Files.newDirectoryStream(PROC)) {
+      for (Path entry : entries) {
+        String name = entry.getFileName().toString();
+        if (!name.isEmpty() && name.chars().allMatch(Character::isDigit)) {
+          pids.add(name);
+        }
+      }
+    } catch (IOException e) {
+      return null;
+    }
+    return pids;
+  }
+
+  boolean isListening(int port) {
+    try (Socket socket = new Socket()) {
+      socket.connect(new InetSocketAddress("localhost", port), CONNECT_TIMEOUT_MS);
+      return true;
+    } catch (IOException e) {
+      return false;
+    }
+  }
+}
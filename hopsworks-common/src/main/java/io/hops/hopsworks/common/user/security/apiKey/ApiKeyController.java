@@ -22,8 +22,10 @@ import io.hops.hopsworks.common.dao.user.security.apiKey.ApiKeyScopeFacade;
 import io.hops.hopsworks.persistence.entity.user.security.apiKey.ApiScope;
 import io.hops.hopsworks.persistence.entity.user.Users;
 import io.hops.hopsworks.common.dao.user.security.ua.UserAccountsEmailMessages;
+import io.hops.hopsworks.common.security.AuthorizationCache;
 import io.hops.hopsworks.common.security.utils.Secret;
 import io.hops.hopsworks.common.security.utils.SecurityUtils;
+import io.hops.hopsworks.common.user.UsersController;
 import io.hops.hopsworks.common.util.EmailBean;
 import io.hops.hopsworks.exceptions.ApiKeyException;
 import io.hops.hopsworks.exceptions.UserException;
@@ -35,6 +37,8 @@ import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
 import javax.mail.Message;
 import javax.mail.MessagingException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
@@ -59,6 +63,10 @@ public class ApiKeyController {
   private SecurityUtils securityUtils;
   @EJB
   private EmailBean emailBean;
+  @EJB
+  private AuthorizationCache authorizationCache;
+  @EJB
+  private UsersController usersController;
   
   /**
    * Create new key for the give user with the given key name and scopes.
@@ -154,6 +162,38 @@ public class ApiKeyController {
     return apiKey;
   }
   
+  /**
+   * Verify the key and return the owner's roles and the key's scopes. Verified keys are kept in the authorization
+   * cache so that only the salted digest needs to be recomputed for the next requests using the same key.
+   * @param key
+   * @return
+   * @throws ApiKeyException
+   */
+  public AuthorizationCache.ApiKeyAuthorization getAuthorization(String key) throws ApiKeyException {
+    String[] parts = key.split(Secret.KEY_ID_SEPARATOR_REGEX);
+    if (parts.length < 2) {
+      throw new ApiKeyException(RESTCodes.ApiKeyErrorCode.KEY_NOT_FOUND, Level.FINE);
+    }
+    AuthorizationCache.ApiKeyAuthorization authorization = authorizationCache.getApiKey(parts[0]);
+    if (authorization != null) {
+      Secret secret = new Secret(parts[0], parts[1], authorization.getSalt());
+      if (!digestEquals(secret.getSha256HexDigest(), authorization.getSecretDigest())) {
+        throw new ApiKeyException(RESTCodes.ApiKeyErrorCode.KEY_NOT_FOUND, Level.FINE);
+      }
+      return authorization;
+    }
+    ApiKey apiKey = getApiKey(key);
+    Users user = apiKey.getUser();
+    authorization = new AuthorizationCache.ApiKeyAuthorization(apiKey.getPrefix(), apiKey.getSalt(),
+      apiKey.getSecret(), user.getUsername(), usersController.getUserRoles(user), getScopes(apiKey));
+    authorizationCache.putApiKey(apiKey.getPrefix(), authorization);
+    return authorization;
+  }
+  
+  private boolean digestEquals(String digest, String expected) {
+    return MessageDigest.isEqual(digest.getBytes(StandardCharsets.UTF_8), expected.getBytes(StandardCharsets.UTF_8));
+  }
+  
   /**
    *
    * @param user
@@ -174,6 +214,7 @@ public class ApiKeyController {
       return;
     }
     apiKeyFacade.remove(apiKey);
+    authorizationCache.invalidateApiKey(apiKey.getPrefix());
     sendDeletedEmail(user, keyName);
   }
   
@@ -185,6 +226,7 @@ public class ApiKeyController {
     List<ApiKey> keys = apiKeyFacade.findByUser(user);
     for (ApiKey key : keys) {
       apiKeyFacade.remove(key);
+      authorizationCache.invalidateApiKey(key.getPrefix());
     }
     sendDeletedAllEmail(user);
   }
@@ -207,6 +249,7 @@ public class ApiKeyController {
       apiKey.getApiKeyScopeCollection().addAll(newScopes);
       apiKey.setModified(new Date());
       apiKey = apiKeyFacade.update(apiKey);
+      authorizationCache.invalidateApiKey(apiKey.getPrefix());
     }
     return apiKey;
   }
@@ -239,6 +282,7 @@ public class ApiKeyController {
       }
       apiKey.setModified(new Date());
       apiKey = apiKeyFacade.update(apiKey);
+      authorizationCache.invalidateApiKey(apiKey.getPrefix());
     } else if (removed && apiKey.getApiKeyScopeCollection().isEmpty()) {
       throw new ApiKeyException(RESTCodes.ApiKeyErrorCode.KEY_SCOPE_EMPTY, Level.FINE);
     }
@@ -290,6 +334,7 @@ public class ApiKeyController {
       apiKey.setApiKeyScopeCollection(toKeep);
       apiKey.setModified(new Date());
       apiKey = apiKeyFacade.update(apiKey);
+      authorizationCache.invalidateApiKey(apiKey.getPrefix());
     }
     return apiKey;
   }
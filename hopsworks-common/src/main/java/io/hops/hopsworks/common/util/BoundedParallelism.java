@@ -0,0 +1,109 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2021, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.common.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Applies a task to every element of a list using at most {@code parallelism} threads, one of which is the
+ * calling thread. The order of the results matches the order of the input.
+ */
+public final class BoundedParallelism {
+
+  private BoundedParallelism() {
+  }
+
+  @FunctionalInterface
+  public interface Task<I, O, E extends Exception> {
+    O apply(I item) throws E;
+  }
+
+  public static <I, O, E extends Exception> List<O> map(ExecutorService executor, List<I> items, int parallelism,
+    Task<I, O, E> task) throws E {
+    if (executor == null || parallelism <= 1 || items.size() <= 1) {
+      List<O> results = new ArrayList<>(items.size());
+      for (I item : items) {
+        results.add(task.apply(item));
+      }
+      return results;
+    }
+    Object[] results = new Object[items.size()];
+    AtomicInteger next = new AtomicInteger(0);
+    int workers = Math.min(parallelism, items.size());
+    List<Future<?>> futures = new ArrayList<>(workers - 1);
+    for (int i = 1; i < workers; i++) {
+      futures.add(executor.submit(() -> {
+        work(items, results, next, task);
+        return null;
+      }));
+    }
+    Exception failure = null;
+    try {
+      work(items, results, next, task);
+    } catch (Exception e) {
+      failure = e;
+      //make the other workers stop picking up new items
+      next.set(items.size());
+    }
+    for (Future<?> future : futures) {
+      try {
+        future.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        next.set(items.size());
+        if (failure == null) {
+          failure = new IllegalStateException("interrupted while waiting for parallel tasks", e);
+        }
+      } catch (ExecutionException e) {
+        next.set(items.size());
+        if (e.getCause() instanceof Error) {
+          throw (Error) e.getCause();
+        }
+        if (failure == null) {
+          failure = (Exception) e.getCause();
+        }
+      }
+    }
+    if (failure != null) {
+      BoundedParallelism.<E>rethrow(failure);
+    }
+    @SuppressWarnings("unchecked")
+    List<O> resultList = (List<O>) Arrays.asList(results);
+    return resultList;
+  }
+
+  private static <I, O, E extends Exception> void work(List<I> items, Object[] results, AtomicInteger next,
+    Task<I, O, E> task) throws E {
+    int idx;
+    while ((idx = next.getAndIncrement()) < items.size()) {
+      results[idx] = task.apply(items.get(idx));
+    }
+  }
+
+  /**
+   * The task can only throw E or unchecked exceptions, so the cast below is safe.
+   */
+  @SuppressWarnings("unchecked")
+  private static <E extends Exception> void rethrow(Exception e) throws E {
+    throw (E) e;
+  }
+}
@@ -60,8 +60,10 @@ import org.apache.hadoop.yarn.conf.YarnConfiguration;
 import javax.ejb.ConcurrencyManagement;
 import javax.ejb.ConcurrencyManagementType;
 import javax.ejb.EJB;
+import javax.ejb.Schedule;
 import javax.ejb.Singleton;
 import javax.ejb.Startup;
+import javax.ejb.Timer;
 import javax.persistence.EntityManager;
 import javax.persistence.NoResultException;
 import javax.persistence.PersistenceContext;
@@ -76,6 +78,7 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -83,6 +86,7 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.StringTokenizer;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -123,9 +127,19 @@ public class Settings implements Serializable {
    * Global Variables taken from the DB
    */
   private static final String VARIABLE_ADMIN_EMAIL = "admin_email";
+  private static final String VARIABLE_VARIABLES_VERSION = "variables_version";
   private static final String VARIABLE_PYPI_REST_ENDPOINT = "pypi_rest_endpoint";
+  private static final String VARIABLE_PYPI_MAX_CONNECTIONS = "pypi_max_connections";
+  private static final String VARIABLE_PYPI_REQUEST_TIMEOUT = "pypi_request_timeout";
+  private static final String VARIABLE_PYPI_SEARCH_TIMEOUT = "pypi_search_timeout";
+  private static final String VARIABLE_PYPI_CACHE_TTL = "pypi_cache_ttl";
   private static final String VARIABLE_PYPI_INDEXER_TIMER_INTERVAL = "pypi_indexer_timer_interval";
   private static final String VARIABLE_PYPI_INDEXER_TIMER_ENABLED = "pypi_indexer_timer_enabled";
+  private static final String VARIABLE_CONDA_CHANNEL_INDEX_ENABLED = "conda_channel_index_enabled";
+  private static final String VARIABLE_CONDA_CHANNEL_INDEX_CHANNELS = "conda_channel_index_channels";
+  private static final String VARIABLE_CONDA_CHANNEL_INDEX_SUBDIRS = "conda_channel_index_subdirs";
+  private static final String VARIABLE_CONDA_CHANNEL_INDEX_INTERVAL = "conda_channel_index_interval";
+  private static final String VARIABLE_CONDA_CHANNEL_INDEX_MAX_RESULTS = "conda_channel_index_max_results";
   private static final String VARIABLE_PYPI_SIMPLE_ENDPOINT = "pypi_simple_endpoint";
   private static final String VARIABLE_PYTHON_LIBRARY_UPDATES_MONITOR_INTERVAL =
     "python_library_updates_monitor_interval";
@@ -185,6 +199,7 @@ public class Settings implements Serializable {
   private static final String VARIABLE_KAFKA_DIR = "kafka_dir";
   private static final String VARIABLE_KAFKA_USER = "kafka_user";
   private static final String VARIABLE_KAFKA_MAX_NUM_TOPICS = "kafka_max_num_topics";
+  private static final String VARIABLE_KAFKA_SCHEMA_CACHE_SIZE = "kafka_schema_cache_size";
   private static final String VARIABLE_ZK_DIR = "zk_dir";
   private static final String VARIABLE_ZK_USER = "zk_user";
   private static final String VARIABLE_FILE_PREVIEW_IMAGE_SIZE
@@ -213,6 +228,7 @@ public class Settings implements Serializable {
   private static final String VARIABLE_CERTS_DIRS = "certs_dir";
   private static final String VARIABLE_MAX_STATUS_POLL_RETRY = "max_status_poll_retry";
   private static final String VARIABLE_CERT_MATER_DELAY = "cert_mater_delay";
+  private static final String VARIABLE_CERT_MATER_MAX_IN_MEMORY = "cert_mater_max_in_memory";
   private static final String VARIABLE_WHITELIST_USERS_LOGIN = "whitelist_users";
   private static final String VARIABLE_VERIFICATION_PATH = "verification_endpoint";
   private static final String VARIABLE_ALERT_EMAIL_ADDRS = "alert_email_addrs";
@@ -248,14 +264,70 @@ public class Settings implements Serializable {
    * -------------------- Serving ---------------
    */
   private static final String VARIABLE_SERVING_MONITOR_INT = "serving_monitor_int";
+  private static final String VARIABLE_SERVING_MONITOR_PARALLELISM = "serving_monitor_parallelism";
   private static final String VARIABLE_SERVING_CONNECTION_POOL_SIZE = "serving_connection_pool_size";
   private static final String VARIABLE_SERVING_MAX_ROUTE_CONNECTIONS = "serving_max_route_connections";
+  private static final String VARIABLE_SERVING_ENDPOINT_CACHE_TTL = "serving_endpoint_cache_ttl";
+  private static final String VARIABLE_SERVING_BATCH_WINDOW_MS = "serving_inference_batch_window_ms";
+  private static final String VARIABLE_SERVING_MAX_BATCH_SIZE = "serving_inference_max_batch_size";
+  private static final String VARIABLE_SERVING_INFERENCE_THREADS = "serving_inference_threads";
+  private static final String VARIABLE_SERVING_INFERENCE_QUEUE_SIZE = "serving_inference_queue_size";
 
   /*
    * -------------------- TensorBoard ---------------
    */
   private static final String VARIABLE_TENSORBOARD_MAX_RELOAD_THREADS = "tensorboard_max_reload_threads";
 
+  /*
+   * -------------------- Experiments & Models ---------------
+   */
+  private static final String VARIABLE_ML_LISTING_PARALLELISM = "ml_listing_parallelism";
+
+  /*
+   * -------------------- Authorization cache ---------------
+   */
+  private static final String VARIABLE_AUTHZ_CACHE_TTL = "authorization_cache_ttl";
+  private static final String VARIABLE_AUTHZ_CACHE_MAX_SIZE = "authorization_cache_max_size";
+  private static final String VARIABLE_PROXY_AUTHZ_CACHE_TTL = "proxy_authorization_cache_ttl";
+  private static final String VARIABLE_PROXY_MAX_CONNECTIONS = "proxy_max_connections";
+  private static final String VARIABLE_PROXY_MAX_CONNECTIONS_PER_TARGET = "proxy_max_connections_per_target";
+  private static final String VARIABLE_PROXY_CONNECTION_REQUEST_TIMEOUT = "proxy_connection_request_timeout_ms";
+  private static final String VARIABLE_PROXY_MAX_EXCHANGES = "proxy_max_exchanges";
+  private static final String VARIABLE_FLINK_MASTER_ADDR_REFRESH_INTERVAL = "flink_master_addr_refresh_interval";
+
+  /*
+   * -------------------- Job scheduler ---------------
+   */
+  private static final String VARIABLE_JOB_SCHEDULER_MISFIRE_THRESHOLD = "job_scheduler_misfire_threshold";
+  private static final String VARIABLE_JOB_SCHEDULER_MISSED_FIRE_POLICY = "job_scheduler_missed_fire_policy";
+  private static final String VARIABLE_JOB_SCHEDULER_PARALLELISM = "job_scheduler_parallelism";
+  private static final String VARIABLE_YARN_LOCALIZATION_CACHE_TTL = "yarn_localization_cache_ttl";
+  private static final String VARIABLE_YARN_LOCALIZATION_CACHE_MAX_SIZE = "yarn_localization_cache_max_size";
+  private static final String VARIABLE_YARN_LOCALIZATION_STAT_PARALLELISM = "yarn_localization_stat_parallelism";
+
+  /*
+   * -------------------- Dataset permissions ---------------
+   */
+  private static final String VARIABLE_PERMISSIONS_RECONCILIATION_PARALLELISM =
+    "permissions_reconciliation_parallelism";
+
+  /*
+   * -------------------- Dataset compression ---------------
+   */
+  private static final String VARIABLE_COMPRESSION_PARALLELISM = "compression_parallelism";
+  private static final String VARIABLE_UNZIP_MAX_SIZE = "unzip_max_size";
+  private static final String VARIABLE_UNZIP_MAX_ENTRIES = "unzip_max_entries";
+  private static final String VARIABLE_UNZIP_MAX_COMPRESSION_RATIO = "unzip_max_compression_ratio";
+
+  /*
+   * -------------------- Alert dispatch ---------------
+   */
+  private static final String VARIABLE_ALERT_DISPATCH_QUEUE_SIZE = "alert_dispatch_queue_size";
+  private static final String VARIABLE_ALERT_DISPATCH_BATCH_SIZE = "alert_dispatch_batch_size";
+  private static final String VARIABLE_ALERT_DISPATCH_MAX_RETRIES = "alert_dispatch_max_retries";
+  private static final String VARIABLE_ALERT_DISPATCH_BACKOFF_MS = "alert_dispatch_backoff_ms";
+  private static final String VARIABLE_ALERT_DEDUP_WINDOW_MS = "alert_dedup_window_ms";
+
   /*
    * -------------------- Kubernetes ---------------
    */
@@ -376,9 +448,9 @@ public class Settings implements Serializable {
   }
 
   private String setStrVar(String varName, String defaultValue) {
-    Optional<Variables> variable = findById(varName);
+    Optional<String> variable = lookupVariable(varName);
     if (variable.isPresent()) {
-      String value = variable.get().getValue();
+      String value = variable.get();
       if (!Strings.isNullOrEmpty(value)) {
         return value;
       }
@@ -387,9 +459,9 @@ public class Settings implements Serializable {
   }
 
   private String setDirVar(String varName, String defaultValue) {
-    Optional<Variables> dirName = findById(varName);
+    Optional<String> dirName = lookupVariable(varName);
     if (dirName.isPresent()) {
-      String value = dirName.get().getValue();
+      String value = dirName.get();
       if (!Strings.isNullOrEmpty(value) && new File(value).isDirectory()) {
         return value;
       }
@@ -398,9 +470,9 @@ public class Settings implements Serializable {
   }
 
   private String setIpVar(String varName, String defaultValue) {
-    Optional<Variables> variable = findById(varName);
+    Optional<String> variable = lookupVariable(varName);
     if (variable.isPresent()) {
-      String value = variable.get().getValue();
+      String value = variable.get();
       if (!Strings.isNullOrEmpty(value) && Ip.validIp(value)) {
         return value;
       }
@@ -410,9 +482,9 @@ public class Settings implements Serializable {
   }
 
   private Boolean setBoolVar(String varName, Boolean defaultValue) {
-    Optional<Variables> variable = findById(varName);
+    Optional<String> variable = lookupVariable(varName);
     if (variable.isPresent()) {
-      String value = variable.get().getValue();
+      String value = variable.get();
       if (!Strings.isNullOrEmpty(value)) {
         return Boolean.parseBoolean(value);
       }
@@ -422,9 +494,9 @@ public class Settings implements Serializable {
   }
 
   private Integer setIntVar(String varName, Integer defaultValue) {
-    Optional<Variables> variable = findById(varName);
+    Optional<String> variable = lookupVariable(varName);
     if (variable.isPresent()) {
-      String value = variable.get().getValue();
+      String value = variable.get();
       try {
         if (!Strings.isNullOrEmpty(value)) {
           return Integer.parseInt(value);
@@ -438,9 +510,9 @@ public class Settings implements Serializable {
   }
 
   private Double setDoubleVar(String varName, Double defaultValue) {
-    Optional<Variables> variable = findById(varName);
+    Optional<String> variable = lookupVariable(varName);
     if (variable.isPresent()) {
-      String value = variable.get().getValue();
+      String value = variable.get();
       try {
         if (!Strings.isNullOrEmpty(value)) {
           return Double.parseDouble(value);
@@ -454,9 +526,9 @@ public class Settings implements Serializable {
   }
 
   private long setLongVar(String varName, Long defaultValue) {
-    Optional<Variables> variable = findById(varName);
+    Optional<String> variable = lookupVariable(varName);
     if (variable.isPresent()) {
-      String value = variable.get().getValue();
+      String value = variable.get();
       try {
         if (!Strings.isNullOrEmpty(value)) {
           return Long.parseLong(value);
@@ -469,9 +541,9 @@ public class Settings implements Serializable {
   }
 
   private RESTLogLevel setLogLevelVar(String varName, RESTLogLevel defaultValue) {
-    Optional<Variables> variable = findById(varName);
+    Optional<String> variable = lookupVariable(varName);
     if (variable.isPresent()) {
-      String value = variable.get().getValue();
+      String value = variable.get();
       if (!Strings.isNullOrEmpty(value)) {
         return RESTLogLevel.valueOf(value);
       }
@@ -480,9 +552,9 @@ public class Settings implements Serializable {
   }
 
   private long setMillisecondVar(String varName, Long defaultValue) {
-    Optional<Variables> variable = findById(varName);
+    Optional<String> variable = lookupVariable(varName);
     if (variable.isPresent()) {
-      String value = variable.get().getValue();
+      String value = variable.get();
       if (!Strings.isNullOrEmpty(value)) {
         long timeValue = getConfTimeValue(value);
         TimeUnit timeUnit = getConfTimeTimeUnit(value);
@@ -494,9 +566,9 @@ public class Settings implements Serializable {
   }
 
   private PaymentType setPaymentType(String varName, PaymentType defaultValue) {
-    Optional<Variables> variable = findById(varName);
+    Optional<String> variable = lookupVariable(varName);
     if (variable.isPresent()) {
-      String value = variable.get().getValue();
+      String value = variable.get();
       if (!Strings.isNullOrEmpty(value)) {
         return PaymentType.valueOf(value);
       }
@@ -504,11 +576,6 @@ public class Settings implements Serializable {
     return defaultValue;
   }
 
-  private Set<String> setStringHashSetLowerCase(String varName, String defaultValue, String separator) {
-    RESERVED_PROJECT_NAMES_STR = setStrVar(varName, defaultValue);
-    return setStringHashSetLowerCase(RESERVED_PROJECT_NAMES_STR, separator, true);
-  }
-
   private Set<String> setStringHashSetLowerCase(String values, String separator, boolean toLowerCase) {
     StringTokenizer tokenizer = new StringTokenizer(values, separator);
     HashSet<String> tokens = new HashSet<>(tokenizer.countTokens());
@@ -518,50 +585,468 @@ public class Settings implements Serializable {
     return tokens;
   }
 
-  private boolean cached = false;
+  /**
+   * The variables table and the typed values derived from it. A snapshot is never modified once it has been published
+   * through the volatile snapshot reference: refreshes and setters build a new one and replace the reference, so
+   * readers always see a consistent configuration without taking the monitor.
+   */
+  private static final class VariablesSnapshot implements Cloneable {
+    private Map<String, String> values = Collections.emptyMap();
+    private long version = 0L;
+
+    private String TWOFACTOR_AUTH = "false";
+    private String TWOFACTOR_EXCLUDE = "AGENT;CLUSTER_AGENT";
+    private String HOPS_RPC_TLS = "false";
+    private String SPARK_DIR = "/srv/hops/spark";
+
+    // "/tmp" by default
+    private String STAGING_DIR = "/srv/hops/domains/domain1/staging";
+
+    // Remember to change this in docker-images as well
+    private String FLINK_DIR = "/srv/hops/flink";
+    private String AIRFLOW_DIR = "/srv/hops/airflow";
+    private String AIRFLOW_USER = "airflow";
+    private String HADOOP_DIR = "/srv/hops/hadoop";
+    private String HIVE_SUPERUSER = "hive";
+    private String ANACONDA_DEFAULT_REPO = "defaults";
+    private String HIVE_WAREHOUSE = "/apps/hive/warehouse";
+    private String HIVE_SCRATCHDIR = "/tmp/hive";
+    private String HIVE_SCRATCHDIR_DELAY = "7d";
+    private String HIVE_SCRATCHDIR_CLEANER_INTERVAL = "24h";
+    private long HIVE_DB_DEFAULT_QUOTA = -1;
+    private String HOPSWORKS_IP = "127.0.0.1";
+    private String CERTS_DIR = "/srv/hops/certs-dir";
+    private String HOPSWORKS_INSTALL_DIR = "/srv/hops/domains/domain1";
+    private String SUDOERS_DIR = "/srv/hops/sbin";
+
+    //User under which yarn is run
+    private String YARN_SUPERUSER = "yarn";
+    private String HOPSWORKS_USER = "glassfish";
+    private String HDFS_SUPERUSER = "hdfs";
+    private String SPARK_USER = "spark";
+    private String JAVA_HOME = "/usr/lib/jvm/default-java";
+    private String FLINK_USER = "flink";
+    private Integer YARN_DEFAULT_QUOTA = 60000;
+    private PaymentType DEFAULT_PAYMENT_TYPE = PaymentType.NOLIMIT;
+    private long HDFS_DEFAULT_QUOTA_MBs = -1;
+
+    // Set the DIR_ROOT (/Projects) to have DB storage policy, i.e. - small files stored on db
+    private DistributedFileSystemOps.StoragePolicy HDFS_BASE_STORAGE_POLICY
+      = DistributedFileSystemOps.StoragePolicy.SMALL_FILES;
+    // To not fill the SSDs with Logs files that nobody access frequently
+    // We set the StoragePolicy for the LOGS dir to be DEFAULT
+    private DistributedFileSystemOps.StoragePolicy HDFS_LOG_STORAGE_POLICY
+        = DistributedFileSystemOps.StoragePolicy.DEFAULT;
+    private Integer MAX_NUM_PROJ_PER_USER = 5;
+    private String HADOOP_VERSION = "2.8.2";
+
+    // Spark executor min memory
+    private int SPARK_EXECUTOR_MIN_MEMORY = 1024;
+    private Set<String> RESERVED_PROJECT_NAMES;
+    private String RESERVED_PROJECT_NAMES_STR;
+    private ElasticSettings ELASTIC_SETTINGS;
+    private long ELASTIC_LOGS_INDEX_EXPIRATION = 7 * 24 * 60 * 60 * 1000;
+
+    // CertificateMaterializer service. Delay for deleting crypto material from
+    // the local filesystem. The lower the value the more frequent we reach DB
+    // for materialization
+    // Suffix, defaults to minutes if omitted:
+    // ms: milliseconds
+    // s: seconds
+    // m: minutes (default)
+    // h: hours
+    // d: days
+    private String CERTIFICATE_MATERIALIZER_DELAY = "1m";
+    // Maximum number of project users whose crypto material is kept decoded in memory
+    private int CERTIFICATE_MATERIALIZER_MAX_IN_MEMORY = 1000;
+    private String CERTIFICATE_USER_VALID_DAYS = "12";
+    private String SERVICE_DISCOVERY_DOMAIN = "consul";
+
+    // MapReduce Job History Server
+    private String JHS_IP = "127.0.0.1";
+    private String KIBANA_IP = "10.0.2.15";
+    private String ZK_USER = "zk";
+    private String WHITELIST_USERS_LOGIN = "agent@hops.io";
+    private String JUPYTER_DIR = "/srv/hops/jupyter";
+    private String JUPYTER_USER = "jupyter";
+    private String JUPYTER_GROUP = "jupyter";
+    private String JUPYTER_ORIGIN_SCHEME = "https";
+    private long JUPYTER_WS_PING_INTERVAL_MS = 10000L;
+    private String jupyterShutdownTimerInterval = "30m";
+    private String KAFKA_USER = "kafka";
+    private String KAFKA_DIR = "/srv/kafka";
+    private String ANACONDA_USER = "anaconda";
+    private String ANACONDA_DIR = "/srv/hops/anaconda";
+    private Boolean ANACONDA_ENABLED = true;
+    private Boolean DOWNLOAD_ALLOWED = true;
+    private String KAGENT_USER = "kagent";
+    private boolean KAGENT_LIVENESS_MONITOR_ENABLED = false;
+    private String KAGENT_LIVENESS_THRESHOLD = "10s";
+    private RESTLogLevel HOPSWORKS_REST_LOG_LEVEL = RESTLogLevel.PROD;
+    private String FIRST_TIME_LOGIN = "0";
+    private String ADMIN_EMAIL = "admin@hopsworks.ai";
+    private String HOPSWORKS_DEFAULT_SSL_MASTER_PASSWORD = "adminpw";
+    private Integer KAFKA_DEFAULT_NUM_PARTITIONS = 2;
+    private Integer KAFKA_DEFAULT_NUM_REPLICAS = 1;
+    private String ZK_DIR = "/srv/zookeeper";
+    private String CLUSTER_CERT = "asdasxasx8as6dx8a7sx7asdta8dtasxa8";
+    private int FILE_PREVIEW_IMAGE_SIZE = 10000000;
+    private int FILE_PREVIEW_TXT_SIZE = 100;
+    private String RESOURCE_DIRS = ".sparkStaging;spark-warehouse";
+    private String FS_JOB_ACTIVITY_TIME = "5m";
+    private String ALERT_EMAIL_ADDRS = "";
+    private int KAFKA_MAX_NUM_TOPICS = 10;
+
+    //Number of parsed Avro schemas kept in memory by the schema registry
+    private int KAFKA_SCHEMA_CACHE_SIZE = 10000;
+    private int MAX_STATUS_POLL_RETRY = 5;
+    private boolean PYTHON_KERNEL = true;
+    private String PYPI_REST_ENDPOINT = "https://pypi.org/pypi/{package}/json";
+
+    //Connections to the PyPi REST endpoint shared by all the version lookups
+    private int PYPI_MAX_CONNECTIONS = 16;
+
+    //Connect and read timeout of a single version lookup in ms
+    private int PYPI_REQUEST_TIMEOUT = 5000;
+
+    //Time a pip search waits for the version lookups in ms, the versions found until then are returned
+    private long PYPI_SEARCH_TIMEOUT = 10000;
+
+    //Time in ms the releases of a package are served from the cache before being revalidated with PyPi
+    private long PYPI_CACHE_TTL = 3600000;
+    private String PYPI_INDEXER_TIMER_INTERVAL = "1d";
+    private String PYPI_SIMPLE_ENDPOINT = "https://pypi.org/simple/";
+    private boolean PYPI_INDEXER_TIMER_ENABLED = true;
+    private boolean CONDA_CHANNEL_INDEX_ENABLED = true;
+
+    //Comma separated conda channels, names or urls, whose repodata is indexed for library search
+    private String CONDA_CHANNEL_INDEX_CHANNELS = "defaults";
+    private String CONDA_CHANNEL_INDEX_SUBDIRS = "linux-64,noarch";
+    private String CONDA_CHANNEL_INDEX_INTERVAL = "1h";
+    //Packages returned by a search of an indexed channel with a wildcard
+    private int CONDA_CHANNEL_INDEX_MAX_RESULTS = 100;
+    private String PYTHON_LIBRARY_UPDATES_MONITOR_INTERVAL = "1d";
+    private String HOPS_EXAMPLES_VERSION = "0.3.0";
+    private String VERIFICATION_PATH = "/hopsworks-admin/security/validate_account.xhtml";
+    private String HOPSSITE_HOST = "hops.site";
+    private String HOPSSITE = "http://hops.site:5081/hops-site/api";
+    private Boolean DELA_ENABLED = false; // set to false if not found in variables table
+    private DelaClientType DELA_CLIENT_TYPE = DelaClientType.FULL_CLIENT;
+    private long HOPSSITE_HEARTBEAT_INTERVAL = 10 * 60 * 1000l;//10min
+    private String DELA_TRANSFER_IP = "localhost";
+    private String DELA_TRANSFER_HTTP_PORT = "42000";
+    private String DELA_PUBLIC_HOPSWORK_PORT = "8080";
+    private String PUBLIC_HTTPS_PORT = "8181";
+
+    //set on registration after Dela is contacted to detect public port
+    private String DELA_SEARCH_ENDPOINT = "";
+    private String DELA_TRANSFER_ENDPOINT = "";
+    //set on cluster registration
+    private String DELA_CLUSTER_ID = null;
+    private AddressJSON DELA_PUBLIC_ENDPOINT = null;
+    private String HOPSSITE_CLUSTER_NAME = null;
+    private String HOPSSITE_CLUSTER_PSWD = null;
+    private String HOPSSITE_CLUSTER_PSWD_AUX = "1234";
+    private String KRB_AUTH = "false";
+    private String LDAP_AUTH = "false";
+    private boolean IS_KRB_ENABLED = false;
+    private boolean IS_LDAP_ENABLED = false;
+    private String LDAP_GROUP_MAPPING = "";
+    private String LDAP_USER_ID = "uid"; //login name
+    private String LDAP_USER_GIVEN_NAME = "givenName";
+    private String LDAP_USER_SURNAME = "sn";
+    private String LDAP_USER_EMAIL = "mail";
+    private String LDAP_USER_SEARCH_FILTER = "uid=%s";
+    private String LDAP_GROUP_SEARCH_FILTER = "member=%d";
+    private String LDAP_KRB_USER_SEARCH_FILTER = "krbPrincipalName=%s";
+    private String LDAP_ATTR_BINARY = "java.naming.ldap.attributes.binary";
+    private String LDAP_GROUP_TARGET = "cn";
+    private String LDAP_DYNAMIC_GROUP_TARGET = "memberOf";
+    private String LDAP_USER_DN = LDAP_USER_DN_DEFAULT;
+    private String LDAP_GROUP_DN = LDAP_GROUP_DN_DEFAULT;
+    private String LDAP_GROUPS_TARGET = "distinguishedName";
+    private String LDAP_GROUPS_SEARCH_FILTER = "(&(objectCategory=group)(cn=%c))";
+    private String LDAP_GROUP_MEMBERS_SEARCH_FILTER = "(&(objectCategory=user)(memberOf=%d))";
+    private int LDAP_ACCOUNT_STATUS = 1;
+    private String OAUTH_ENABLED = "false";
+    private boolean IS_OAUTH_ENABLED = false;
+    private String OAUTH_GROUP_MAPPING = "";
+    private String OAUTH_REDIRECT_URI = "hopsworks/callback";
+    private int OAUTH_ACCOUNT_STATUS = 1;
+    private long LDAP_GROUP_MAPPING_SYNC_INTERVAL = 0;
+    private boolean DISABLE_PASSWORD_LOGIN = false;
+    private boolean DISABLE_REGISTRATION = false;
+
+    // Special flag to disable only registration UI but not the backend
+    // It is used in managed cloud when user management is MANAGED by hopsworks.ai
+    // Variable value is set during instance initialization by ec2-init
+    private boolean DISABLE_REGISTRATION_UI = false;
+    private boolean serviceKeyRotationEnabled = false;
+    private String serviceKeyRotationInterval = "3d";
+    private int tensorBoardMaxLastAccessed = 1140000;
+    private int sparkUILogsOffset = 512000;
+
+    // Libraries that should not be uninstallable
+    private Set<String> IMMUTABLE_PYTHON_LIBRARY_NAMES;
+    private String HOPSWORKS_VERSION;
+    private String TENSORFLOW_VERSION;
+    private String ELASTIC_VERSION;
+    private String KAFKA_VERSION;
+    private String DELA_VERSION;
+    private String EPIPE_VERSION;
+    private String FLINK_VERSION;
+    private String SPARK_VERSION;
+    private String TEZ_VERSION;
+    private String HIVE2_VERSION;
+    private String LIVY_VERSION;
+    private String NDB_VERSION;
+    private String FILEBEAT_VERSION;
+    private String KIBANA_VERSION;
+    private String LOGSTASH_VERSION;
+    private String GRAFANA_VERSION;
+    private String ZOOKEEPER_VERSION;
+    private String KUBE_USER = "kubernetes";
+    private String KUBE_HOPSWORKS_USER = "hopsworks";
+    private String KUBEMASTER_URL = "https://192.168.68.102:6443";
+    private String KUBE_CA_CERTFILE = "/srv/hops/certs-dir/certs/ca.cert.pem";
+    private String KUBE_CLIENT_KEYFILE = "/srv/hops/certs-dir/kube/hopsworks/hopsworks.key.pem";
+    private String KUBE_CLIENT_CERTFILE = "/srv/hops/certs-dir/kube/hopsworks/hopsworks.cert.pem";
+    private String KUBE_CLIENT_KEYPASS = "adminpw";
+    private String KUBE_TRUSTSTORE_PATH = "/srv/hops/certs-dir/kube/hopsworks/hopsworks__tstore.jks";
+    private String KUBE_TRUSTSTORE_KEY = "adminpw";
+    private String KUBE_KEYSTORE_PATH = "/srv/hops/certs-dir/kube/hopsworks/hopsworks__kstore.jks";
+    private String KUBE_KEYSTORE_KEY = "adminpw";
+    private String KUBE_REGISTRY = "registry.docker-registry.svc.cluster.local";
+    private Integer KUBE_MAX_SERVING_INSTANCES = 10;
+    private Integer KUBE_API_MAX_ATTEMPTS = 12;
+    private Boolean ONLINE_FEATURESTORE = false;
+    private String ONLINE_FEATURESTORE_TS = "";
+    private Integer ONLINEFS_THREAD_NUMBER = 10;
+    private Integer KUBE_DOCKER_MAX_MEMORY_ALLOCATION = 8192;
+    private Integer KUBE_DOCKER_MAX_CORES_ALLOCATION = 4;
+    private Double KUBE_DOCKER_CORES_FRACTION = 1.0;
+    private Boolean KUBE_INSTALLED = false;
+    private Boolean KUBE_KFSERVING_INSTALLED = false;
+    private Boolean HOPSWORKS_ENTERPRISE = false;
+    private String SERVING_MONITOR_INT = "30s";
+
+    //Number of localhost serving instances probed or cleaned up concurrently by the monitor
+    private int SERVING_MONITOR_PARALLELISM = 8;
+    private int SERVING_CONNECTION_POOL_SIZE = 40;
+    private int SERVING_MAX_ROUTE_CONNECTIONS = 10;
+
+    //Seconds a serving is resolved from the cache of a single instance for inference requests
+    private int SERVING_ENDPOINT_CACHE_TTL = 30;
+
+    //Milliseconds concurrent predict requests to the same model are coalesced for, 0 disables batching
+    private int SERVING_BATCH_WINDOW_MS = 0;
+    private int SERVING_MAX_BATCH_SIZE = 64;
+
+    //Threads waiting for the model servers on behalf of inference requests, and requests queued for them
+    private int SERVING_INFERENCE_THREADS = 32;
+    private int SERVING_INFERENCE_QUEUE_SIZE = 512;
+    private int TENSORBOARD_MAX_RELOAD_THREADS = 1;
+    private int ML_LISTING_PARALLELISM = 8;
+
+    //Seconds an authorization decision is served from the cache of a single instance
+    private int AUTHZ_CACHE_TTL = 30;
+    private int AUTHZ_CACHE_MAX_SIZE = 10000;
+
+    //Seconds a decision of the application proxies is cached, also bounds how long a stopped application is proxied
+    private int PROXY_AUTHZ_CACHE_TTL = 10;
+
+    //Connections a proxy servlet keeps open to all its targets, and to a single target
+    private int PROXY_MAX_CONNECTIONS = 200;
+    private int PROXY_MAX_CONNECTIONS_PER_TARGET = 50;
+
+    //Milliseconds a proxied request waits for a connection to a saturated target before failing with 503
+    private int PROXY_CONNECTION_REQUEST_TIMEOUT = 5000;
+
+    //Requests a proxy servlet serves at once before failing with 503, each one holds a Payara http thread until the
+    //response is copied, so it must stay below the size of the http-thread-pool
+    private int PROXY_MAX_EXCHANGES = 50;
+
+    //Seconds between two bulk reads of the Flink master addresses from the YARN application reports
+    private int FLINK_MASTER_ADDR_REFRESH_INTERVAL = 5;
+
+    //Seconds a scheduled job can be late before the missed fire policy applies
+    private long JOB_SCHEDULER_MISFIRE_THRESHOLD = 60L;
+    private String JOB_SCHEDULER_MISSED_FIRE_POLICY = "FIRE_ONCE";
+    //Executions of due scheduled jobs started in parallel
+    private int JOB_SCHEDULER_PARALLELISM = 4;
+
+    //Seconds the status of the shared files localized by YARN applications is cached
+    private int YARN_LOCALIZATION_CACHE_TTL = 300;
+    private int YARN_LOCALIZATION_CACHE_MAX_SIZE = 1000;
+    private int YARN_LOCALIZATION_STAT_PARALLELISM = 8;
+
+    //Number of datasets whose HopsFS permissions and groups are reconciled concurrently
+    private int PERMISSIONS_RECONCILIATION_PARALLELISM = 4;
+
+    //Number of archive entries extracted concurrently by an unzip
+    private int COMPRESSION_PARALLELISM = 4;
+
+    //Bytes an archive may extract to in total
+    private long UNZIP_MAX_SIZE = 1024L * 1024 * 1024 * 1024;
+    private int UNZIP_MAX_ENTRIES = 1000000;
+
+    //Largest ratio of extracted to compressed size of an archive entry
+    private int UNZIP_MAX_COMPRESSION_RATIO = 200;
+
+    //Alerts waiting to be sent to Alertmanager, further alerts are dropped
+    private int ALERT_DISPATCH_QUEUE_SIZE = 10000;
+
+    //Alerts sent to Alertmanager in one request
+    private int ALERT_DISPATCH_BATCH_SIZE = 100;
+    private int ALERT_DISPATCH_MAX_RETRIES = 5;
+
+    //Wait before the first retry of a failed request to Alertmanager, doubled on every further retry
+    private long ALERT_DISPATCH_BACKOFF_MS = 500;
+
+    //Identical alerts raised within this window are sent once
+    private long ALERT_DEDUP_WINDOW_MS = 60000;
+    private String JUPYTER_HOST = "localhost";
+    private String JWT_SIGNATURE_ALGORITHM = "HS512";
+    private String JWT_SIGNING_KEY_NAME = "apiKey";
+    private String JWT_ISSUER = "hopsworks@logicalclocks.com";
+    private long JWT_LIFETIME_MS = 1800000l;
+    private int JWT_EXP_LEEWAY_SEC = 900;
+    private long SERVICE_JWT_LIFETIME_MS = 86400000l;
+    private int SERVICE_JWT_EXP_LEEWAY_SEC = 43200;
+    private String SERVICE_MASTER_JWT = "";
+    private String[] RENEW_TOKENS = new String[0];
+    private int CONNECTION_KEEPALIVE_TIMEOUT = 30;
+    private String HIVE_CONF_PATH = "/srv/hops/apache-hive/conf/hive-site.xml";
+    private String FS_JOB_UTIL_PATH = "hdfs:///user/spark/hsfs_util-2.1.0-SNAPSHOT.py";
+    private long FEATURESTORE_DB_DEFAULT_QUOTA = -1;
+    private String FEATURESTORE_DB_DEFAULT_STORAGE_FORMAT = "ORC";
+    private Boolean LOCALHOST = false;
+    private String CLOUD = "";
+    private boolean IAM_ROLE_CONFIGURED = false;
+    private String CLOUD_TYPE = CLOUD_TYPES.NONE.name();
+    private String FEATURESTORE_JDBC_URL = "jdbc:mysql://" + HOPSWORKS_IP + ":3306/";
+    private Boolean REQUESTS_VERIFY = false;
+    private Boolean KIBANA_HTTPS_ENABELED = false;
+    private Boolean KIBANA_MULTI_TENANCY_ENABELED = false;
+    private Provenance.Type PROVENANCE_TYPE = Provenance.Type.MIN;
+    private String PROVENANCE_TYPE_S = PROVENANCE_TYPE.name();
+    private Integer PROVENANCE_CLEANUP_SIZE = 5;
+    private Integer PROVENANCE_ARCHIVE_SIZE = 100;
+    private Long PROVENANCE_CLEANER_PERIOD = 3600L; //1h in s
+    private Long PROVENANCE_ARCHIVE_DELAY = 0l;
+    private Long PROVENANCE_INDEX_ROLLOVER_AGE = 30L; //days
+    private Long PROVENANCE_INDEX_ROLLOVER_SIZE = 20L; //GB
+    private Long PROVENANCE_INDEX_RETENTION = 0L; //days, 0 keeps all segments
+    private String CLOUD_EVENTS_ENDPOINT = "";
+    private String CLOUD_EVENTS_ENDPOINT_API_KEY = "";
+    private int FG_PREVIEW_LIMIT = 100;
+    private String YARN_RUNTIME = "docker";
+    private boolean checkNodemanagersStatus = false;
+    private String DOCKER_MOUNTS =
+        "/srv/hops/hadoop/etc/hadoop,/srv/hops/spark,/srv/hops/flink";
+    private String DOCKER_BASE_IMAGE_PYTHON_NAME = "python38";
+    private String DOCKER_BASE_IMAGE_PYTHON_VERSION = "3.7";
+    private long YARN_APP_UID = 1235L;
+    private KubeType KUBE_TYPE = KubeType.Local;
+    private String DOCKER_NAMESPACE = "";
+    private Boolean MANAGED_DOCKER_REGISTRY = false;
+    private String DOCKER_JOB_MOUNTS_LIST;
+    private Boolean DOCKER_JOB_MOUNT_ALLOWED = true;
+    private Boolean DOCKER_JOB_UID_STRICT = true;
+    private int MAX_ENV_YML_BYTE_SIZE = 20000;
+    private int LIVY_STARTUP_TIMEOUT = 240;
+    private boolean USER_SEARCH_ENABLED = true;
+
+    private VariablesSnapshot copy() {
+      try {
+        return (VariablesSnapshot) super.clone();
+      } catch (CloneNotSupportedException ex) {
+        throw new IllegalStateException(ex);
+      }
+    }
+  }
+
+  private volatile VariablesSnapshot snapshot = null;
+  // snapshot the typed fields are derived from while populateCache() is running
+  private VariablesSnapshot loadingSnapshot = null;
 
+  private Optional<String> lookupVariable(String varName) {
+    VariablesSnapshot source = loadingSnapshot != null ? loadingSnapshot : snapshot;
+    if (source != null) {
+      return Optional.ofNullable(source.values.get(varName));
+    }
+    return findById(varName).map(Variables::getValue);
+  }
+
+  private static long parseVariablesVersion(String value) {
+    if (Strings.isNullOrEmpty(value)) {
+      return 0L;
+    }
+    try {
+      return Long.parseLong(value);
+    } catch (NumberFormatException ex) {
+      LOGGER.log(Level.WARNING, "Error - not a long! " + VARIABLE_VARIABLES_VERSION + " was " + value);
+      return 0L;
+    }
+  }
+
+  /**
+   * Loads all variables with a single query and derives the typed fields from them. Must be called while holding the
+   * monitor. The new snapshot is published only after all fields have been updated.
+   */
   private void populateCache() {
-    if (!cached) {
-      ADMIN_EMAIL = setVar(VARIABLE_ADMIN_EMAIL, ADMIN_EMAIL);
-      LOCALHOST = setBoolVar(VARIABLE_LOCALHOST, LOCALHOST);
-      CLOUD = setStrVar(VARIABLE_CLOUD, CLOUD);
-      IAM_ROLE_CONFIGURED = setBoolVar(VARIABLE_AWS_INSTANCE_ROLE, IAM_ROLE_CONFIGURED);
-      REQUESTS_VERIFY = setBoolVar(VARIABLE_REQUESTS_VERIFY, REQUESTS_VERIFY);
-      PYTHON_KERNEL = setBoolVar(VARIABLE_PYTHON_KERNEL, PYTHON_KERNEL);
-      JAVA_HOME = setVar(VARIABLE_JAVA_HOME, JAVA_HOME);
-      TWOFACTOR_AUTH = setVar(VARIABLE_TWOFACTOR_AUTH, TWOFACTOR_AUTH);
-      TWOFACTOR_EXCLUDE = setVar(VARIABLE_TWOFACTOR_EXCLUD, TWOFACTOR_EXCLUDE);
-      HOPSWORKS_USER = setVar(VARIABLE_HOPSWORKS_USER, HOPSWORKS_USER);
-      JUPYTER_USER = setVar(VARIABLE_JUPYTER_USER, JUPYTER_USER);
-      JUPYTER_GROUP = setVar(VARIABLE_JUPYTER_GROUP, JUPYTER_GROUP);
-      JUPYTER_ORIGIN_SCHEME = setVar(VARIABLE_JUPYTER_ORIGIN_SCHEME, JUPYTER_ORIGIN_SCHEME);
-      AIRFLOW_USER = setVar(VARIABLE_AIRFLOW_USER, AIRFLOW_USER);
-      HDFS_SUPERUSER = setVar(VARIABLE_HDFS_SUPERUSER, HDFS_SUPERUSER);
-      YARN_SUPERUSER = setVar(VARIABLE_YARN_SUPERUSER, YARN_SUPERUSER);
-      SPARK_USER = setVar(VARIABLE_SPARK_USER, SPARK_USER);
-      SPARK_DIR = setDirVar(VARIABLE_SPARK_DIR, SPARK_DIR);
-      FLINK_USER = setVar(VARIABLE_FLINK_USER, FLINK_USER);
-      FLINK_DIR = setDirVar(VARIABLE_FLINK_DIR, FLINK_DIR);
-      STAGING_DIR = setDirVar(VARIABLE_STAGING_DIR, STAGING_DIR);
-      HOPS_EXAMPLES_VERSION = setVar(VARIABLE_HOPSEXAMPLES_VERSION, HOPS_EXAMPLES_VERSION);
-      HIVE_SUPERUSER = setStrVar(VARIABLE_HIVE_SUPERUSER, HIVE_SUPERUSER);
-      HIVE_WAREHOUSE = setStrVar(VARIABLE_HIVE_WAREHOUSE, HIVE_WAREHOUSE);
-      HIVE_SCRATCHDIR = setStrVar(VARIABLE_HIVE_SCRATCHDIR, HIVE_SCRATCHDIR);
-      HIVE_SCRATCHDIR_DELAY = setStrVar(VARIABLE_HIVE_SCRATCHDIR_DELAY, HIVE_SCRATCHDIR_DELAY);
-      HIVE_SCRATCHDIR_CLEANER_INTERVAL = setStrVar(VARIABLE_HIVE_SCRATCHDIR_CLEANER_INTERVAL,
-          HIVE_SCRATCHDIR_CLEANER_INTERVAL);
-      HIVE_DB_DEFAULT_QUOTA = setLongVar(VARIABLE_HIVE_DEFAULT_QUOTA, HIVE_DB_DEFAULT_QUOTA);
-      ALERT_EMAIL_ADDRS = setStrVar(VARIABLE_ALERT_EMAIL_ADDRS, "");
-      HADOOP_VERSION = setVar(VARIABLE_HADOOP_VERSION, HADOOP_VERSION);
-      JUPYTER_DIR = setDirVar(VARIABLE_JUPYTER_DIR, JUPYTER_DIR);
-      JUPYTER_WS_PING_INTERVAL_MS = setMillisecondVar(VARIABLE_JUPYTER_WS_PING_INTERVAL, JUPYTER_WS_PING_INTERVAL_MS);
-      HADOOP_DIR = setDirVar(VARIABLE_HADOOP_DIR, HADOOP_DIR);
-      HOPSWORKS_INSTALL_DIR = setDirVar(VARIABLE_HOPSWORKS_DIR, HOPSWORKS_INSTALL_DIR);
-      CERTS_DIR = setDirVar(VARIABLE_CERTS_DIRS, CERTS_DIR);
-      SUDOERS_DIR = setDirVar(VARIABLE_SUDOERS_DIR, SUDOERS_DIR);
-      CERTIFICATE_USER_VALID_DAYS = setStrVar(VARIABLE_CERTIFICATE_USER_VALID_DAYS, CERTIFICATE_USER_VALID_DAYS);
-      SERVICE_DISCOVERY_DOMAIN = setStrVar(VARIABLE_SERVICE_DISCOVERY_DOMAIN, SERVICE_DISCOVERY_DOMAIN);
-      AIRFLOW_DIR = setDirVar(VARIABLE_AIRFLOW_DIR, AIRFLOW_DIR);
+    Map<String, String> values = new HashMap<>();
+    for (Variables variable : getAllVariables()) {
+      values.put(variable.getId(), variable.getValue());
+    }
+    VariablesSnapshot current = snapshot;
+    VariablesSnapshot next = current != null ? current.copy() : new VariablesSnapshot();
+    next.values = Collections.unmodifiableMap(values);
+    next.version = parseVariablesVersion(values.get(VARIABLE_VARIABLES_VERSION));
+    loadingSnapshot = next;
+    try {
+      next.ADMIN_EMAIL = setVar(VARIABLE_ADMIN_EMAIL, next.ADMIN_EMAIL);
+      next.LOCALHOST = setBoolVar(VARIABLE_LOCALHOST, next.LOCALHOST);
+      next.CLOUD = setStrVar(VARIABLE_CLOUD, next.CLOUD);
+      next.IAM_ROLE_CONFIGURED = setBoolVar(VARIABLE_AWS_INSTANCE_ROLE, next.IAM_ROLE_CONFIGURED);
+      next.REQUESTS_VERIFY = setBoolVar(VARIABLE_REQUESTS_VERIFY, next.REQUESTS_VERIFY);
+      next.PYTHON_KERNEL = setBoolVar(VARIABLE_PYTHON_KERNEL, next.PYTHON_KERNEL);
+      next.JAVA_HOME = setVar(VARIABLE_JAVA_HOME, next.JAVA_HOME);
+      next.TWOFACTOR_AUTH = setVar(VARIABLE_TWOFACTOR_AUTH, next.TWOFACTOR_AUTH);
+      next.TWOFACTOR_EXCLUDE = setVar(VARIABLE_TWOFACTOR_EXCLUD, next.TWOFACTOR_EXCLUDE);
+      next.HOPSWORKS_USER = setVar(VARIABLE_HOPSWORKS_USER, next.HOPSWORKS_USER);
+      next.JUPYTER_USER = setVar(VARIABLE_JUPYTER_USER, next.JUPYTER_USER);
+      next.JUPYTER_GROUP = setVar(VARIABLE_JUPYTER_GROUP, next.JUPYTER_GROUP);
+      next.JUPYTER_ORIGIN_SCHEME = setVar(VARIABLE_JUPYTER_ORIGIN_SCHEME, next.JUPYTER_ORIGIN_SCHEME);
+      next.AIRFLOW_USER = setVar(VARIABLE_AIRFLOW_USER, next.AIRFLOW_USER);
+      next.HDFS_SUPERUSER = setVar(VARIABLE_HDFS_SUPERUSER, next.HDFS_SUPERUSER);
+      next.YARN_SUPERUSER = setVar(VARIABLE_YARN_SUPERUSER, next.YARN_SUPERUSER);
+      next.SPARK_USER = setVar(VARIABLE_SPARK_USER, next.SPARK_USER);
+      next.SPARK_DIR = setDirVar(VARIABLE_SPARK_DIR, next.SPARK_DIR);
+      next.FLINK_USER = setVar(VARIABLE_FLINK_USER, next.FLINK_USER);
+      next.FLINK_DIR = setDirVar(VARIABLE_FLINK_DIR, next.FLINK_DIR);
+      next.STAGING_DIR = setDirVar(VARIABLE_STAGING_DIR, next.STAGING_DIR);
+      next.HOPS_EXAMPLES_VERSION = setVar(VARIABLE_HOPSEXAMPLES_VERSION, next.HOPS_EXAMPLES_VERSION);
+      next.HIVE_SUPERUSER = setStrVar(VARIABLE_HIVE_SUPERUSER, next.HIVE_SUPERUSER);
+      next.HIVE_WAREHOUSE = setStrVar(VARIABLE_HIVE_WAREHOUSE, next.HIVE_WAREHOUSE);
+      next.HIVE_SCRATCHDIR = setStrVar(VARIABLE_HIVE_SCRATCHDIR, next.HIVE_SCRATCHDIR);
+      next.HIVE_SCRATCHDIR_DELAY = setStrVar(VARIABLE_HIVE_SCRATCHDIR_DELAY, next.HIVE_SCRATCHDIR_DELAY);
+      next.HIVE_SCRATCHDIR_CLEANER_INTERVAL = setStrVar(VARIABLE_HIVE_SCRATCHDIR_CLEANER_INTERVAL,
+          next.HIVE_SCRATCHDIR_CLEANER_INTERVAL);
+      next.HIVE_DB_DEFAULT_QUOTA = setLongVar(VARIABLE_HIVE_DEFAULT_QUOTA, next.HIVE_DB_DEFAULT_QUOTA);
+      next.ALERT_EMAIL_ADDRS = setStrVar(VARIABLE_ALERT_EMAIL_ADDRS, "");
+      next.HADOOP_VERSION = setVar(VARIABLE_HADOOP_VERSION, next.HADOOP_VERSION);
+      next.JUPYTER_DIR = setDirVar(VARIABLE_JUPYTER_DIR, next.JUPYTER_DIR);
+      next.JUPYTER_WS_PING_INTERVAL_MS = setMillisecondVar(VARIABLE_JUPYTER_WS_PING_INTERVAL,
+          next.JUPYTER_WS_PING_INTERVAL_MS);
+      next.HADOOP_DIR = setDirVar(VARIABLE_HADOOP_DIR, next.HADOOP_DIR);
+      next.HOPSWORKS_INSTALL_DIR = setDirVar(VARIABLE_HOPSWORKS_DIR, next.HOPSWORKS_INSTALL_DIR);
+      next.CERTS_DIR = setDirVar(VARIABLE_CERTS_DIRS, next.CERTS_DIR);
+      next.SUDOERS_DIR = setDirVar(VARIABLE_SUDOERS_DIR, next.SUDOERS_DIR);
+      next.CERTIFICATE_USER_VALID_DAYS = setStrVar(VARIABLE_CERTIFICATE_USER_VALID_DAYS,
+          next.CERTIFICATE_USER_VALID_DAYS);
+      next.SERVICE_DISCOVERY_DOMAIN = setStrVar(VARIABLE_SERVICE_DISCOVERY_DOMAIN, next.SERVICE_DISCOVERY_DOMAIN);
+      next.AIRFLOW_DIR = setDirVar(VARIABLE_AIRFLOW_DIR, next.AIRFLOW_DIR);
       String elasticIps = setStrVar(VARIABLE_ELASTIC_IP,
           ElasticSettings.ELASTIC_IP_DEFAULT);
       int elasticPort = setIntVar(VARIABLE_ELASTIC_PORT, ElasticSettings.ELASTIC_PORT_DEFAULT);
@@ -584,207 +1069,296 @@ public class Settings implements Serializable {
           ElasticSettings.ELASTIC_JWT_URL_PARAMETER_DEFAULT);
       long elasticJWTEXPMS = setLongVar(VARIABLE_ELASTIC_JWT_EXP_MS,
           ElasticSettings.ELASTIC_JWT_EXP_MS_DEFAULT);
-      ELASTIC_SETTINGS = new ElasticSettings(elasticIps, elasticPort,
+      next.ELASTIC_SETTINGS = new ElasticSettings(elasticIps, elasticPort,
           elasticRestPort, elasticOpenDistroEnabled, elasticHttpsEnabled,
           elasticAdminUser, elasticAdminPassword, elasticJWTEnabled,
           elasticJWTUrlParameter, elasticJWTEXPMS, elasticServiceLogUser);
-      ELASTIC_LOGS_INDEX_EXPIRATION = setLongVar(VARIABLE_ELASTIC_LOGS_INDEX_EXPIRATION, ELASTIC_LOGS_INDEX_EXPIRATION);
-      HOPSWORKS_IP = setIpVar(VARIABLE_HOPSWORKS_IP, HOPSWORKS_IP);
-      JHS_IP = setIpVar(VARIABLE_JHS_IP, JHS_IP);
-      ZK_USER = setVar(VARIABLE_ZK_USER, ZK_USER);
-      ZK_DIR = setDirVar(VARIABLE_ZK_DIR, ZK_DIR);
-      KIBANA_IP = setIpVar(VARIABLE_KIBANA_IP, KIBANA_IP);
-      KAFKA_MAX_NUM_TOPICS = setIntVar(VARIABLE_KAFKA_MAX_NUM_TOPICS, KAFKA_MAX_NUM_TOPICS);
-      HOPSWORKS_DEFAULT_SSL_MASTER_PASSWORD = setVar(VARIABLE_HOPSWORKS_SSL_MASTER_PASSWORD,
-          HOPSWORKS_DEFAULT_SSL_MASTER_PASSWORD);
-      KAFKA_USER = setVar(VARIABLE_KAFKA_USER, KAFKA_USER);
-      KAFKA_DIR = setDirVar(VARIABLE_KAFKA_DIR, KAFKA_DIR);
-      KAFKA_DEFAULT_NUM_PARTITIONS = setIntVar(VARIABLE_KAFKA_NUM_PARTITIONS, KAFKA_DEFAULT_NUM_PARTITIONS);
-      KAFKA_DEFAULT_NUM_REPLICAS = setIntVar(VARIABLE_KAFKA_NUM_REPLICAS, KAFKA_DEFAULT_NUM_REPLICAS);
-      YARN_DEFAULT_QUOTA = setIntVar(VARIABLE_YARN_DEFAULT_QUOTA, YARN_DEFAULT_QUOTA);
-      DEFAULT_PAYMENT_TYPE = setPaymentType(VARIABLE_PROJECT_PAYMENT_TYPE, DEFAULT_PAYMENT_TYPE);
-      HDFS_DEFAULT_QUOTA_MBs = setLongVar(VARIABLE_HDFS_DEFAULT_QUOTA, HDFS_DEFAULT_QUOTA_MBs);
-      HDFS_BASE_STORAGE_POLICY = setHdfsStoragePolicy(VARIABLE_HDFS_BASE_STORAGE_POLICY, HDFS_BASE_STORAGE_POLICY);
-      HDFS_LOG_STORAGE_POLICY = setHdfsStoragePolicy(VARIABLE_HDFS_LOG_STORAGE_POLICY, HDFS_LOG_STORAGE_POLICY);
-      MAX_NUM_PROJ_PER_USER = setIntVar(VARIABLE_MAX_NUM_PROJ_PER_USER, MAX_NUM_PROJ_PER_USER);
-      CLUSTER_CERT = setVar(VARIABLE_CLUSTER_CERT, CLUSTER_CERT);
-      FILE_PREVIEW_IMAGE_SIZE = setIntVar(VARIABLE_FILE_PREVIEW_IMAGE_SIZE, 10000000);
-      FILE_PREVIEW_TXT_SIZE = setIntVar(VARIABLE_FILE_PREVIEW_TXT_SIZE, 100);
-      ANACONDA_USER = setStrVar(VARIABLE_ANACONDA_USER, ANACONDA_USER);
-      ANACONDA_DIR = setDirVar(VARIABLE_ANACONDA_DIR, ANACONDA_DIR);
-      ANACONDA_DEFAULT_REPO = setStrVar(VARIABLE_ANACONDA_DEFAULT_REPO, ANACONDA_DEFAULT_REPO);
-      ANACONDA_ENABLED = Boolean.parseBoolean(setStrVar(
-          VARIABLE_ANACONDA_ENABLED, ANACONDA_ENABLED.toString()));
-      KAGENT_USER = setStrVar(VARIABLE_KAGENT_USER, KAGENT_USER);
-      KAGENT_LIVENESS_MONITOR_ENABLED = setBoolVar(VARIABLE_KAGENT_LIVENESS_MONITOR_ENABLED,
-          KAGENT_LIVENESS_MONITOR_ENABLED);
-      KAGENT_LIVENESS_THRESHOLD = setStrVar(VARIABLE_KAGENT_LIVENESS_THRESHOLD, KAGENT_LIVENESS_THRESHOLD);
-      DOWNLOAD_ALLOWED = Boolean.parseBoolean(setStrVar(VARIABLE_DOWNLOAD_ALLOWED, DOWNLOAD_ALLOWED.toString()));
-      RESOURCE_DIRS = setStrVar(VARIABLE_RESOURCE_DIRS, RESOURCE_DIRS);
-      MAX_STATUS_POLL_RETRY = setIntVar(VARIABLE_MAX_STATUS_POLL_RETRY, MAX_STATUS_POLL_RETRY);
-      HOPS_RPC_TLS = setStrVar(VARIABLE_HOPS_RPC_TLS, HOPS_RPC_TLS);
-      CERTIFICATE_MATERIALIZER_DELAY = setStrVar(VARIABLE_CERT_MATER_DELAY,
-          CERTIFICATE_MATERIALIZER_DELAY);
-      WHITELIST_USERS_LOGIN = setStrVar(VARIABLE_WHITELIST_USERS_LOGIN,
-          WHITELIST_USERS_LOGIN);
-      FIRST_TIME_LOGIN = setStrVar(VARIABLE_FIRST_TIME_LOGIN, FIRST_TIME_LOGIN);
-      VERIFICATION_PATH = setStrVar(VARIABLE_VERIFICATION_PATH, VERIFICATION_PATH);
-      serviceKeyRotationEnabled = setBoolVar(SERVICE_KEY_ROTATION_ENABLED_KEY, serviceKeyRotationEnabled);
-      serviceKeyRotationInterval = setStrVar(SERVICE_KEY_ROTATION_INTERVAL_KEY, serviceKeyRotationInterval);
-      tensorBoardMaxLastAccessed = setIntVar(TENSORBOARD_MAX_LAST_ACCESSED, tensorBoardMaxLastAccessed);
-      sparkUILogsOffset = setIntVar(SPARK_UI_LOGS_OFFSET, sparkUILogsOffset);
-      jupyterShutdownTimerInterval = setStrVar(JUPYTER_SHUTDOWN_TIMER_INTERVAL, jupyterShutdownTimerInterval);
-      checkNodemanagersStatus = setBoolVar(VARIABLE_CHECK_NODEMANAGERS_STATUS, checkNodemanagersStatus);
-
-      populateDelaCache();
-      populateLDAPCache();
-
-      ZOOKEEPER_VERSION = setStrVar(VARIABLE_ZOOKEEPER_VERSION, ZOOKEEPER_VERSION);
-      GRAFANA_VERSION = setStrVar(VARIABLE_GRAFANA_VERSION, GRAFANA_VERSION);
-      LOGSTASH_VERSION = setStrVar(VARIABLE_LOGSTASH_VERSION, LOGSTASH_VERSION);
-      KIBANA_VERSION = setStrVar(VARIABLE_KIBANA_VERSION, KIBANA_VERSION);
-      FILEBEAT_VERSION = setStrVar(VARIABLE_FILEBEAT_VERSION, FILEBEAT_VERSION);
-      NDB_VERSION = setStrVar(VARIABLE_NDB_VERSION, NDB_VERSION);
-      LIVY_VERSION = setStrVar(VARIABLE_LIVY_VERSION, LIVY_VERSION);
-      HIVE2_VERSION = setStrVar(VARIABLE_HIVE2_VERSION, HIVE2_VERSION);
-      TEZ_VERSION = setStrVar(VARIABLE_TEZ_VERSION, TEZ_VERSION);
-      SPARK_VERSION = setStrVar(VARIABLE_SPARK_VERSION, SPARK_VERSION);
-      FLINK_VERSION = setStrVar(VARIABLE_FLINK_VERSION, FLINK_VERSION);
-      EPIPE_VERSION = setStrVar(VARIABLE_EPIPE_VERSION, EPIPE_VERSION);
-      DELA_VERSION = setStrVar(VARIABLE_DELA_VERSION, DELA_VERSION);
-      KAFKA_VERSION = setStrVar(VARIABLE_KAFKA_VERSION, KAFKA_VERSION);
-      ELASTIC_VERSION = setStrVar(VARIABLE_ELASTIC_VERSION, ELASTIC_VERSION);
-      TENSORFLOW_VERSION = setStrVar(VARIABLE_TENSORFLOW_VERSION, TENSORFLOW_VERSION);
-      HOPSWORKS_VERSION = setStrVar(VARIABLE_HOPSWORKS_VERSION, HOPSWORKS_VERSION);
-      HOPSWORKS_REST_LOG_LEVEL = setLogLevelVar(VARIABLE_HOPSWORKS_REST_LOG_LEVEL, HOPSWORKS_REST_LOG_LEVEL);
-
-      PYPI_REST_ENDPOINT = setStrVar(VARIABLE_PYPI_REST_ENDPOINT, PYPI_REST_ENDPOINT);
-      PYPI_SIMPLE_ENDPOINT = setStrVar(VARIABLE_PYPI_SIMPLE_ENDPOINT, PYPI_SIMPLE_ENDPOINT);
-      PYPI_INDEXER_TIMER_INTERVAL = setStrVar(VARIABLE_PYPI_INDEXER_TIMER_INTERVAL, PYPI_INDEXER_TIMER_INTERVAL);
-      PYTHON_LIBRARY_UPDATES_MONITOR_INTERVAL = setStrVar(VARIABLE_PYTHON_LIBRARY_UPDATES_MONITOR_INTERVAL,
-        PYTHON_LIBRARY_UPDATES_MONITOR_INTERVAL);
-      PYPI_INDEXER_TIMER_ENABLED = setBoolVar(VARIABLE_PYPI_INDEXER_TIMER_ENABLED, PYPI_INDEXER_TIMER_ENABLED);
-
-      IMMUTABLE_PYTHON_LIBRARY_NAMES = toSetFromCsv(
+      next.ELASTIC_LOGS_INDEX_EXPIRATION = setLongVar(VARIABLE_ELASTIC_LOGS_INDEX_EXPIRATION,
+          next.ELASTIC_LOGS_INDEX_EXPIRATION);
+      next.HOPSWORKS_IP = setIpVar(VARIABLE_HOPSWORKS_IP, next.HOPSWORKS_IP);
+      next.JHS_IP = setIpVar(VARIABLE_JHS_IP, next.JHS_IP);
+      next.ZK_USER = setVar(VARIABLE_ZK_USER, next.ZK_USER);
+      next.ZK_DIR = setDirVar(VARIABLE_ZK_DIR, next.ZK_DIR);
+      next.KIBANA_IP = setIpVar(VARIABLE_KIBANA_IP, next.KIBANA_IP);
+      next.KAFKA_MAX_NUM_TOPICS = setIntVar(VARIABLE_KAFKA_MAX_NUM_TOPICS, next.KAFKA_MAX_NUM_TOPICS);
+      next.KAFKA_SCHEMA_CACHE_SIZE = setIntVar(VARIABLE_KAFKA_SCHEMA_CACHE_SIZE, next.KAFKA_SCHEMA_CACHE_SIZE);
+      next.HOPSWORKS_DEFAULT_SSL_MASTER_PASSWORD = setVar(VARIABLE_HOPSWORKS_SSL_MASTER_PASSWORD,
+          next.HOPSWORKS_DEFAULT_SSL_MASTER_PASSWORD);
+      next.KAFKA_USER = setVar(VARIABLE_KAFKA_USER, next.KAFKA_USER);
+      next.KAFKA_DIR = setDirVar(VARIABLE_KAFKA_DIR, next.KAFKA_DIR);
+      next.KAFKA_DEFAULT_NUM_PARTITIONS = setIntVar(VARIABLE_KAFKA_NUM_PARTITIONS, next.KAFKA_DEFAULT_NUM_PARTITIONS);
+      next.KAFKA_DEFAULT_NUM_REPLICAS = setIntVar(VARIABLE_KAFKA_NUM_REPLICAS, next.KAFKA_DEFAULT_NUM_REPLICAS);
+      next.YARN_DEFAULT_QUOTA = setIntVar(VARIABLE_YARN_DEFAULT_QUOTA, next.YARN_DEFAULT_QUOTA);
+      next.DEFAULT_PAYMENT_TYPE = setPaymentType(VARIABLE_PROJECT_PAYMENT_TYPE, next.DEFAULT_PAYMENT_TYPE);
+      next.HDFS_DEFAULT_QUOTA_MBs = setLongVar(VARIABLE_HDFS_DEFAULT_QUOTA, next.HDFS_DEFAULT_QUOTA_MBs);
+      next.HDFS_BASE_STORAGE_POLICY = setHdfsStoragePolicy(VARIABLE_HDFS_BASE_STORAGE_POLICY,
+          next.HDFS_BASE_STORAGE_POLICY);
+      next.HDFS_LOG_STORAGE_POLICY = setHdfsStoragePolicy(VARIABLE_HDFS_LOG_STORAGE_POLICY,
+          next.HDFS_LOG_STORAGE_POLICY);
+      next.MAX_NUM_PROJ_PER_USER = setIntVar(VARIABLE_MAX_NUM_PROJ_PER_USER, next.MAX_NUM_PROJ_PER_USER);
+      next.CLUSTER_CERT = setVar(VARIABLE_CLUSTER_CERT, next.CLUSTER_CERT);
+      next.FILE_PREVIEW_IMAGE_SIZE = setIntVar(VARIABLE_FILE_PREVIEW_IMAGE_SIZE, 10000000);
+      next.FILE_PREVIEW_TXT_SIZE = setIntVar(VARIABLE_FILE_PREVIEW_TXT_SIZE, 100);
+      next.ANACONDA_USER = setStrVar(VARIABLE_ANACONDA_USER, next.ANACONDA_USER);
+      next.ANACONDA_DIR = setDirVar(VARIABLE_ANACONDA_DIR, next.ANACONDA_DIR);
+      next.ANACONDA_DEFAULT_REPO = setStrVar(VARIABLE_ANACONDA_DEFAULT_REPO, next.ANACONDA_DEFAULT_REPO);
+      next.ANACONDA_ENABLED = Boolean.parseBoolean(setStrVar(
+          VARIABLE_ANACONDA_ENABLED, next.ANACONDA_ENABLED.toString()));
+      next.KAGENT_USER = setStrVar(VARIABLE_KAGENT_USER, next.KAGENT_USER);
+      next.KAGENT_LIVENESS_MONITOR_ENABLED = setBoolVar(VARIABLE_KAGENT_LIVENESS_MONITOR_ENABLED,
+          next.KAGENT_LIVENESS_MONITOR_ENABLED);
+      next.KAGENT_LIVENESS_THRESHOLD = setStrVar(VARIABLE_KAGENT_LIVENESS_THRESHOLD, next.KAGENT_LIVENESS_THRESHOLD);
+      next.DOWNLOAD_ALLOWED = Boolean.parseBoolean(setStrVar(VARIABLE_DOWNLOAD_ALLOWED,
+          next.DOWNLOAD_ALLOWED.toString()));
+      next.RESOURCE_DIRS = setStrVar(VARIABLE_RESOURCE_DIRS, next.RESOURCE_DIRS);
+      next.MAX_STATUS_POLL_RETRY = setIntVar(VARIABLE_MAX_STATUS_POLL_RETRY, next.MAX_STATUS_POLL_RETRY);
+      next.HOPS_RPC_TLS = setStrVar(VARIABLE_HOPS_RPC_TLS, next.HOPS_RPC_TLS);
+      next.CERTIFICATE_MATERIALIZER_DELAY = setStrVar(VARIABLE_CERT_MATER_DELAY,
+          next.CERTIFICATE_MATERIALIZER_DELAY);
+      next.CERTIFICATE_MATERIALIZER_MAX_IN_MEMORY = setIntVar(VARIABLE_CERT_MATER_MAX_IN_MEMORY,
+          next.CERTIFICATE_MATERIALIZER_MAX_IN_MEMORY);
+      next.WHITELIST_USERS_LOGIN = setStrVar(VARIABLE_WHITELIST_USERS_LOGIN,
+          next.WHITELIST_USERS_LOGIN);
+      next.FIRST_TIME_LOGIN = setStrVar(VARIABLE_FIRST_TIME_LOGIN, next.FIRST_TIME_LOGIN);
+      next.VERIFICATION_PATH = setStrVar(VARIABLE_VERIFICATION_PATH, next.VERIFICATION_PATH);
+      next.serviceKeyRotationEnabled = setBoolVar(SERVICE_KEY_ROTATION_ENABLED_KEY, next.serviceKeyRotationEnabled);
+      next.serviceKeyRotationInterval = setStrVar(SERVICE_KEY_ROTATION_INTERVAL_KEY, next.serviceKeyRotationInterval);
+      next.tensorBoardMaxLastAccessed = setIntVar(TENSORBOARD_MAX_LAST_ACCESSED, next.tensorBoardMaxLastAccessed);
+      next.sparkUILogsOffset = setIntVar(SPARK_UI_LOGS_OFFSET, next.sparkUILogsOffset);
+      next.jupyterShutdownTimerInterval = setStrVar(JUPYTER_SHUTDOWN_TIMER_INTERVAL, next.jupyterShutdownTimerInterval);
+      next.checkNodemanagersStatus = setBoolVar(VARIABLE_CHECK_NODEMANAGERS_STATUS, next.checkNodemanagersStatus);
+
+      populateDelaCache(next);
+      populateLDAPCache(next);
+
+      next.ZOOKEEPER_VERSION = setStrVar(VARIABLE_ZOOKEEPER_VERSION, next.ZOOKEEPER_VERSION);
+      next.GRAFANA_VERSION = setStrVar(VARIABLE_GRAFANA_VERSION, next.GRAFANA_VERSION);
+      next.LOGSTASH_VERSION = setStrVar(VARIABLE_LOGSTASH_VERSION, next.LOGSTASH_VERSION);
+      next.KIBANA_VERSION = setStrVar(VARIABLE_KIBANA_VERSION, next.KIBANA_VERSION);
+      next.FILEBEAT_VERSION = setStrVar(VARIABLE_FILEBEAT_VERSION, next.FILEBEAT_VERSION);
+      next.NDB_VERSION = setStrVar(VARIABLE_NDB_VERSION, next.NDB_VERSION);
+      next.LIVY_VERSION = setStrVar(VARIABLE_LIVY_VERSION, next.LIVY_VERSION);
+      next.HIVE2_VERSION = setStrVar(VARIABLE_HIVE2_VERSION, next.HIVE2_VERSION);
+      next.TEZ_VERSION = setStrVar(VARIABLE_TEZ_VERSION, next.TEZ_VERSION);
+      next.SPARK_VERSION = setStrVar(VARIABLE_SPARK_VERSION, next.SPARK_VERSION);
+      next.FLINK_VERSION = setStrVar(VARIABLE_FLINK_VERSION, next.FLINK_VERSION);
+      next.EPIPE_VERSION = setStrVar(VARIABLE_EPIPE_VERSION, next.EPIPE_VERSION);
+      next.DELA_VERSION = setStrVar(VARIABLE_DELA_VERSION, next.DELA_VERSION);
+      next.KAFKA_VERSION = setStrVar(VARIABLE_KAFKA_VERSION, next.KAFKA_VERSION);
+      next.ELASTIC_VERSION = setStrVar(VARIABLE_ELASTIC_VERSION, next.ELASTIC_VERSION);
+      next.TENSORFLOW_VERSION = setStrVar(VARIABLE_TENSORFLOW_VERSION, next.TENSORFLOW_VERSION);
+      next.HOPSWORKS_VERSION = setStrVar(VARIABLE_HOPSWORKS_VERSION, next.HOPSWORKS_VERSION);
+      next.HOPSWORKS_REST_LOG_LEVEL = setLogLevelVar(VARIABLE_HOPSWORKS_REST_LOG_LEVEL, next.HOPSWORKS_REST_LOG_LEVEL);
+
+      next.PYPI_REST_ENDPOINT = setStrVar(VARIABLE_PYPI_REST_ENDPOINT, next.PYPI_REST_ENDPOINT);
+      next.PYPI_MAX_CONNECTIONS = setIntVar(VARIABLE_PYPI_MAX_CONNECTIONS, next.PYPI_MAX_CONNECTIONS);
+      next.PYPI_REQUEST_TIMEOUT = setIntVar(VARIABLE_PYPI_REQUEST_TIMEOUT, next.PYPI_REQUEST_TIMEOUT);
+      next.PYPI_SEARCH_TIMEOUT = setLongVar(VARIABLE_PYPI_SEARCH_TIMEOUT, next.PYPI_SEARCH_TIMEOUT);
+      next.PYPI_CACHE_TTL = setLongVar(VARIABLE_PYPI_CACHE_TTL, next.PYPI_CACHE_TTL);
+      next.PYPI_SIMPLE_ENDPOINT = setStrVar(VARIABLE_PYPI_SIMPLE_ENDPOINT, next.PYPI_SIMPLE_ENDPOINT);
+      next.PYPI_INDEXER_TIMER_INTERVAL = setStrVar(VARIABLE_PYPI_INDEXER_TIMER_INTERVAL,
+          next.PYPI_INDEXER_TIMER_INTERVAL);
+      next.PYTHON_LIBRARY_UPDATES_MONITOR_INTERVAL = setStrVar(VARIABLE_PYTHON_LIBRARY_UPDATES_MONITOR_INTERVAL,
+        next.PYTHON_LIBRARY_UPDATES_MONITOR_INTERVAL);
+      next.PYPI_INDEXER_TIMER_ENABLED = setBoolVar(VARIABLE_PYPI_INDEXER_TIMER_ENABLED,
+          next.PYPI_INDEXER_TIMER_ENABLED);
+      next.CONDA_CHANNEL_INDEX_ENABLED = setBoolVar(VARIABLE_CONDA_CHANNEL_INDEX_ENABLED,
+          next.CONDA_CHANNEL_INDEX_ENABLED);
+      next.CONDA_CHANNEL_INDEX_CHANNELS = setStrVar(VARIABLE_CONDA_CHANNEL_INDEX_CHANNELS,
+          next.CONDA_CHANNEL_INDEX_CHANNELS);
+      next.CONDA_CHANNEL_INDEX_SUBDIRS = setStrVar(VARIABLE_CONDA_CHANNEL_INDEX_SUBDIRS,
+          next.CONDA_CHANNEL_INDEX_SUBDIRS);
+      next.CONDA_CHANNEL_INDEX_INTERVAL = setStrVar(VARIABLE_CONDA_CHANNEL_INDEX_INTERVAL,
+          next.CONDA_CHANNEL_INDEX_INTERVAL);
+      next.CONDA_CHANNEL_INDEX_MAX_RESULTS = setIntVar(VARIABLE_CONDA_CHANNEL_INDEX_MAX_RESULTS,
+          next.CONDA_CHANNEL_INDEX_MAX_RESULTS);
+
+      next.IMMUTABLE_PYTHON_LIBRARY_NAMES = toSetFromCsv(
           setStrVar(VARIABLE_IMMUTABLE_PYTHON_LIBRARY_NAMES, DEFAULT_IMMUTABLE_PYTHON_LIBRARY_NAMES),
           ",");
 
-      SERVING_MONITOR_INT = setStrVar(VARIABLE_SERVING_MONITOR_INT, SERVING_MONITOR_INT);
-      SERVING_CONNECTION_POOL_SIZE = setIntVar(VARIABLE_SERVING_CONNECTION_POOL_SIZE,
-        SERVING_CONNECTION_POOL_SIZE);
-      SERVING_MAX_ROUTE_CONNECTIONS = setIntVar(VARIABLE_SERVING_MAX_ROUTE_CONNECTIONS,
-        SERVING_MAX_ROUTE_CONNECTIONS);
-
-      TENSORBOARD_MAX_RELOAD_THREADS = setIntVar(VARIABLE_TENSORBOARD_MAX_RELOAD_THREADS,
-          TENSORBOARD_MAX_RELOAD_THREADS);
-
-      KUBE_USER = setStrVar(VARIABLE_KUBE_USER, KUBE_USER);
-      KUBE_HOPSWORKS_USER = setStrVar(VARIABLE_KUBE_HOPSWORKS_USER, KUBE_HOPSWORKS_USER);
-      KUBEMASTER_URL = setStrVar(VARIABLE_KUBEMASTER_URL, KUBEMASTER_URL);
-      KUBE_CA_CERTFILE = setStrVar(VARIABLE_KUBE_CA_CERTFILE, KUBE_CA_CERTFILE);
-      KUBE_CLIENT_KEYFILE = setStrVar(VARIABLE_KUBE_CLIENT_KEYFILE, KUBE_CLIENT_KEYFILE);
-      KUBE_CLIENT_CERTFILE = setStrVar(VARIABLE_KUBE_CLIENT_CERTFILE, KUBE_CLIENT_CERTFILE);
-      KUBE_CLIENT_KEYPASS = setStrVar(VARIABLE_KUBE_CLIENT_KEYPASS, KUBE_CLIENT_KEYPASS);
-      KUBE_TRUSTSTORE_PATH = setStrVar(VARIABLE_KUBE_TRUSTSTORE_PATH, KUBE_TRUSTSTORE_PATH);
-      KUBE_TRUSTSTORE_KEY = setStrVar(VARIABLE_KUBE_TRUSTSTORE_KEY, KUBE_TRUSTSTORE_KEY);
-      KUBE_KEYSTORE_PATH = setStrVar(VARIABLE_KUBE_KEYSTORE_PATH, KUBE_KEYSTORE_PATH);
-      KUBE_KEYSTORE_KEY = setStrVar(VARIABLE_KUBE_KEYSTORE_KEY, KUBE_KEYSTORE_KEY);
-      KUBE_REGISTRY = setStrVar(VARIABLE_KUBE_REGISTRY, KUBE_REGISTRY);
-      KUBE_MAX_SERVING_INSTANCES = setIntVar(VARIABLE_KUBE_MAX_SERVING, KUBE_MAX_SERVING_INSTANCES);
-      KUBE_API_MAX_ATTEMPTS = setIntVar(VARIABLE_KUBE_API_MAX_ATTEMPTS, KUBE_API_MAX_ATTEMPTS);
-      KUBE_DOCKER_MAX_MEMORY_ALLOCATION = setIntVar(VARIABLE_KUBE_DOCKER_MAX_MEMORY_ALLOCATION,
-          KUBE_DOCKER_MAX_MEMORY_ALLOCATION);
-      KUBE_DOCKER_MAX_CORES_ALLOCATION = setIntVar(VARIABLE_KUBE_DOCKER_MAX_CORES_ALLOCATION,
-        KUBE_DOCKER_MAX_CORES_ALLOCATION);
-      KUBE_DOCKER_CORES_FRACTION = setDoubleVar(VARIABLE_KUBE_DOCKER_CORES_FRACTION, KUBE_DOCKER_CORES_FRACTION);
-      KUBE_INSTALLED = setBoolVar(VARIABLE_KUBE_INSTALLED, KUBE_INSTALLED);
-      KUBE_KFSERVING_INSTALLED = setBoolVar(VARIABLE_KUBE_KFSERVING_INSTALLED, KUBE_KFSERVING_INSTALLED);
-  
-      HOPSWORKS_ENTERPRISE = setBoolVar(VARIABLE_HOPSWORKS_ENTERPRISE, HOPSWORKS_ENTERPRISE);
-
-      JUPYTER_HOST = setStrVar(VARIABLE_JUPYTER_HOST, JUPYTER_HOST);
-
-      JWT_SIGNATURE_ALGORITHM = setStrVar(VARIABLE_JWT_SIGNATURE_ALGORITHM, JWT_SIGNATURE_ALGORITHM);
-      JWT_LIFETIME_MS = setLongVar(VARIABLE_JWT_LIFETIME_MS, JWT_LIFETIME_MS);
-      JWT_EXP_LEEWAY_SEC = setIntVar(VARIABLE_JWT_EXP_LEEWAY_SEC, JWT_EXP_LEEWAY_SEC);
-      JWT_SIGNING_KEY_NAME = setStrVar(VARIABLE_JWT_SIGNING_KEY_NAME, JWT_SIGNING_KEY_NAME);
-      JWT_ISSUER = setStrVar(VARIABLE_JWT_ISSUER_KEY, JWT_ISSUER);
-
-      SERVICE_JWT_LIFETIME_MS = setLongVar(VARIABLE_SERVICE_JWT_LIFETIME_MS, SERVICE_JWT_LIFETIME_MS);
-      SERVICE_JWT_EXP_LEEWAY_SEC = setIntVar(VARIABLE_SERVICE_JWT_EXP_LEEWAY_SEC, SERVICE_JWT_EXP_LEEWAY_SEC);
-
-      populateServiceJWTCache();
-
-      CONNECTION_KEEPALIVE_TIMEOUT = setIntVar(VARIABLE_CONNECTION_KEEPALIVE_TIMEOUT, CONNECTION_KEEPALIVE_TIMEOUT);
-
-      FEATURESTORE_DB_DEFAULT_QUOTA = setLongVar(VARIABLE_FEATURESTORE_DEFAULT_QUOTA, FEATURESTORE_DB_DEFAULT_QUOTA);
-      FEATURESTORE_DB_DEFAULT_STORAGE_FORMAT =
-          setStrVar(VARIABLE_FEATURESTORE_DEFAULT_STORAGE_FORMAT, FEATURESTORE_DB_DEFAULT_STORAGE_FORMAT);
-      FEATURESTORE_JDBC_URL = setStrVar(VARIABLE_FEATURESTORE_JDBC_URL, FEATURESTORE_JDBC_URL);
-      ONLINE_FEATURESTORE = setBoolVar(VARIABLE_ONLINE_FEATURESTORE, ONLINE_FEATURESTORE);
-      ONLINE_FEATURESTORE_TS = setStrVar(VARIABLE_ONLINE_FEATURESTORE_TS, ONLINE_FEATURESTORE_TS);
-      FS_JOB_ACTIVITY_TIME = setStrVar(VARIABLE_FS_JOB_ACTIVITY_TIME, FS_JOB_ACTIVITY_TIME);
-      ONLINEFS_THREAD_NUMBER = setIntVar(VARIABLE_ONLINEFS_THREAD_NUMBER, ONLINEFS_THREAD_NUMBER);
-
-      KIBANA_HTTPS_ENABELED = setBoolVar(VARIABLE_KIBANA_HTTPS_ENABLED,
-          KIBANA_HTTPS_ENABELED);
-  
-      KIBANA_MULTI_TENANCY_ENABELED = setBoolVar(VARIABLE_KIBANA_MULTI_TENANCY_ENABLED,
-          KIBANA_MULTI_TENANCY_ENABELED);
-
-      RESERVED_PROJECT_NAMES =
-        setStringHashSetLowerCase(VARIABLE_RESERVED_PROJECT_NAMES, DEFAULT_RESERVED_PROJECT_NAMES, ",");
-  
-      CLOUD_EVENTS_ENDPOINT = setStrVar(VARIABLE_CLOUD_EVENTS_ENDPOINT,
-          CLOUD_EVENTS_ENDPOINT);
-  
-      CLOUD_EVENTS_ENDPOINT_API_KEY =
-          setStrVar(VARIABLE_CLOUD_EVENTS_ENDPOINT_API_KEY, CLOUD_EVENTS_ENDPOINT_API_KEY);
-
-      FG_PREVIEW_LIMIT = setIntVar(VARIABLE_FG_PREVIEW_LIMIT, FG_PREVIEW_LIMIT);
-      HIVE_CONF_PATH = setStrVar(VARIABLE_HIVE_CONF_PATH, HIVE_CONF_PATH);
-      FS_JOB_UTIL_PATH = setStrVar(VARIABLE_FS_JOB_UTIL_PATH, FS_JOB_UTIL_PATH);
+      next.SERVING_MONITOR_INT = setStrVar(VARIABLE_SERVING_MONITOR_INT, next.SERVING_MONITOR_INT);
+      next.SERVING_MONITOR_PARALLELISM = setIntVar(VARIABLE_SERVING_MONITOR_PARALLELISM,
+          next.SERVING_MONITOR_PARALLELISM);
+      next.SERVING_CONNECTION_POOL_SIZE = setIntVar(VARIABLE_SERVING_CONNECTION_POOL_SIZE,
+        next.SERVING_CONNECTION_POOL_SIZE);
+      next.SERVING_MAX_ROUTE_CONNECTIONS = setIntVar(VARIABLE_SERVING_MAX_ROUTE_CONNECTIONS,
+        next.SERVING_MAX_ROUTE_CONNECTIONS);
+      next.SERVING_ENDPOINT_CACHE_TTL = setIntVar(VARIABLE_SERVING_ENDPOINT_CACHE_TTL, next.SERVING_ENDPOINT_CACHE_TTL);
+      next.SERVING_BATCH_WINDOW_MS = setIntVar(VARIABLE_SERVING_BATCH_WINDOW_MS, next.SERVING_BATCH_WINDOW_MS);
+      next.SERVING_MAX_BATCH_SIZE = setIntVar(VARIABLE_SERVING_MAX_BATCH_SIZE, next.SERVING_MAX_BATCH_SIZE);
+      next.SERVING_INFERENCE_THREADS = setIntVar(VARIABLE_SERVING_INFERENCE_THREADS, next.SERVING_INFERENCE_THREADS);
+      next.SERVING_INFERENCE_QUEUE_SIZE = setIntVar(VARIABLE_SERVING_INFERENCE_QUEUE_SIZE,
+        next.SERVING_INFERENCE_QUEUE_SIZE);
+
+      next.TENSORBOARD_MAX_RELOAD_THREADS = setIntVar(VARIABLE_TENSORBOARD_MAX_RELOAD_THREADS,
+          next.TENSORBOARD_MAX_RELOAD_THREADS);
+
+      next.ML_LISTING_PARALLELISM = setIntVar(VARIABLE_ML_LISTING_PARALLELISM, next.ML_LISTING_PARALLELISM);
+
+      next.AUTHZ_CACHE_TTL = setIntVar(VARIABLE_AUTHZ_CACHE_TTL, next.AUTHZ_CACHE_TTL);
+      next.AUTHZ_CACHE_MAX_SIZE = setIntVar(VARIABLE_AUTHZ_CACHE_MAX_SIZE, next.AUTHZ_CACHE_MAX_SIZE);
+      next.PROXY_AUTHZ_CACHE_TTL = setIntVar(VARIABLE_PROXY_AUTHZ_CACHE_TTL, next.PROXY_AUTHZ_CACHE_TTL);
+      next.PROXY_MAX_CONNECTIONS = setIntVar(VARIABLE_PROXY_MAX_CONNECTIONS, next.PROXY_MAX_CONNECTIONS);
+      next.PROXY_MAX_CONNECTIONS_PER_TARGET = setIntVar(VARIABLE_PROXY_MAX_CONNECTIONS_PER_TARGET,
+        next.PROXY_MAX_CONNECTIONS_PER_TARGET);
+      next.PROXY_CONNECTION_REQUEST_TIMEOUT = setIntVar(VARIABLE_PROXY_CONNECTION_REQUEST_TIMEOUT,
+        next.PROXY_CONNECTION_REQUEST_TIMEOUT);
+      next.PROXY_MAX_EXCHANGES = setIntVar(VARIABLE_PROXY_MAX_EXCHANGES, next.PROXY_MAX_EXCHANGES);
+      next.FLINK_MASTER_ADDR_REFRESH_INTERVAL = setIntVar(VARIABLE_FLINK_MASTER_ADDR_REFRESH_INTERVAL,
+        next.FLINK_MASTER_ADDR_REFRESH_INTERVAL);
+      next.JOB_SCHEDULER_MISFIRE_THRESHOLD = setLongVar(VARIABLE_JOB_SCHEDULER_MISFIRE_THRESHOLD,
+        next.JOB_SCHEDULER_MISFIRE_THRESHOLD);
+      next.JOB_SCHEDULER_MISSED_FIRE_POLICY = setStrVar(VARIABLE_JOB_SCHEDULER_MISSED_FIRE_POLICY,
+        next.JOB_SCHEDULER_MISSED_FIRE_POLICY);
+      next.JOB_SCHEDULER_PARALLELISM = setIntVar(VARIABLE_JOB_SCHEDULER_PARALLELISM, next.JOB_SCHEDULER_PARALLELISM);
+      next.YARN_LOCALIZATION_CACHE_TTL = setIntVar(VARIABLE_YARN_LOCALIZATION_CACHE_TTL,
+          next.YARN_LOCALIZATION_CACHE_TTL);
+      next.YARN_LOCALIZATION_CACHE_MAX_SIZE = setIntVar(VARIABLE_YARN_LOCALIZATION_CACHE_MAX_SIZE,
+        next.YARN_LOCALIZATION_CACHE_MAX_SIZE);
+      next.YARN_LOCALIZATION_STAT_PARALLELISM = setIntVar(VARIABLE_YARN_LOCALIZATION_STAT_PARALLELISM,
+        next.YARN_LOCALIZATION_STAT_PARALLELISM);
+      next.PERMISSIONS_RECONCILIATION_PARALLELISM = setIntVar(VARIABLE_PERMISSIONS_RECONCILIATION_PARALLELISM,
+        next.PERMISSIONS_RECONCILIATION_PARALLELISM);
+      next.COMPRESSION_PARALLELISM = setIntVar(VARIABLE_COMPRESSION_PARALLELISM, next.COMPRESSION_PARALLELISM);
+      next.UNZIP_MAX_SIZE = setLongVar(VARIABLE_UNZIP_MAX_SIZE, next.UNZIP_MAX_SIZE);
+      next.UNZIP_MAX_ENTRIES = setIntVar(VARIABLE_UNZIP_MAX_ENTRIES, next.UNZIP_MAX_ENTRIES);
+      next.UNZIP_MAX_COMPRESSION_RATIO = setIntVar(VARIABLE_UNZIP_MAX_COMPRESSION_RATIO,
+          next.UNZIP_MAX_COMPRESSION_RATIO);
+      next.ALERT_DISPATCH_QUEUE_SIZE = setIntVar(VARIABLE_ALERT_DISPATCH_QUEUE_SIZE, next.ALERT_DISPATCH_QUEUE_SIZE);
+      next.ALERT_DISPATCH_BATCH_SIZE = setIntVar(VARIABLE_ALERT_DISPATCH_BATCH_SIZE, next.ALERT_DISPATCH_BATCH_SIZE);
+      next.ALERT_DISPATCH_MAX_RETRIES = setIntVar(VARIABLE_ALERT_DISPATCH_MAX_RETRIES, next.ALERT_DISPATCH_MAX_RETRIES);
+      next.ALERT_DISPATCH_BACKOFF_MS = setLongVar(VARIABLE_ALERT_DISPATCH_BACKOFF_MS, next.ALERT_DISPATCH_BACKOFF_MS);
+      next.ALERT_DEDUP_WINDOW_MS = setLongVar(VARIABLE_ALERT_DEDUP_WINDOW_MS, next.ALERT_DEDUP_WINDOW_MS);
+
+      next.KUBE_USER = setStrVar(VARIABLE_KUBE_USER, next.KUBE_USER);
+      next.KUBE_HOPSWORKS_USER = setStrVar(VARIABLE_KUBE_HOPSWORKS_USER, next.KUBE_HOPSWORKS_USER);
+      next.KUBEMASTER_URL = setStrVar(VARIABLE_KUBEMASTER_URL, next.KUBEMASTER_URL);
+      next.KUBE_CA_CERTFILE = setStrVar(VARIABLE_KUBE_CA_CERTFILE, next.KUBE_CA_CERTFILE);
+      next.KUBE_CLIENT_KEYFILE = setStrVar(VARIABLE_KUBE_CLIENT_KEYFILE, next.KUBE_CLIENT_KEYFILE);
+      next.KUBE_CLIENT_CERTFILE = setStrVar(VARIABLE_KUBE_CLIENT_CERTFILE, next.KUBE_CLIENT_CERTFILE);
+      next.KUBE_CLIENT_KEYPASS = setStrVar(VARIABLE_KUBE_CLIENT_KEYPASS, next.KUBE_CLIENT_KEYPASS);
+      next.KUBE_TRUSTSTORE_PATH = setStrVar(VARIABLE_KUBE_TRUSTSTORE_PATH, next.KUBE_TRUSTSTORE_PATH);
+      next.KUBE_TRUSTSTORE_KEY = setStrVar(VARIABLE_KUBE_TRUSTSTORE_KEY, next.KUBE_TRUSTSTORE_KEY);
+      next.KUBE_KEYSTORE_PATH = setStrVar(VARIABLE_KUBE_KEYSTORE_PATH, next.KUBE_KEYSTORE_PATH);
+      next.KUBE_KEYSTORE_KEY = setStrVar(VARIABLE_KUBE_KEYSTORE_KEY, next.KUBE_KEYSTORE_KEY);
+      next.KUBE_REGISTRY = setStrVar(VARIABLE_KUBE_REGISTRY, next.KUBE_REGISTRY);
+      next.KUBE_MAX_SERVING_INSTANCES = setIntVar(VARIABLE_KUBE_MAX_SERVING, next.KUBE_MAX_SERVING_INSTANCES);
+      next.KUBE_API_MAX_ATTEMPTS = setIntVar(VARIABLE_KUBE_API_MAX_ATTEMPTS, next.KUBE_API_MAX_ATTEMPTS);
+      next.KUBE_DOCKER_MAX_MEMORY_ALLOCATION = setIntVar(VARIABLE_KUBE_DOCKER_MAX_MEMORY_ALLOCATION,
+          next.KUBE_DOCKER_MAX_MEMORY_ALLOCATION);
+      next.KUBE_DOCKER_MAX_CORES_ALLOCATION = setIntVar(VARIABLE_KUBE_DOCKER_MAX_CORES_ALLOCATION,
+        next.KUBE_DOCKER_MAX_CORES_ALLOCATION);
+      next.KUBE_DOCKER_CORES_FRACTION = setDoubleVar(VARIABLE_KUBE_DOCKER_CORES_FRACTION,
+          next.KUBE_DOCKER_CORES_FRACTION);
+      next.KUBE_INSTALLED = setBoolVar(VARIABLE_KUBE_INSTALLED, next.KUBE_INSTALLED);
+      next.KUBE_KFSERVING_INSTALLED = setBoolVar(VARIABLE_KUBE_KFSERVING_INSTALLED, next.KUBE_KFSERVING_INSTALLED);
+  
+      next.HOPSWORKS_ENTERPRISE = setBoolVar(VARIABLE_HOPSWORKS_ENTERPRISE, next.HOPSWORKS_ENTERPRISE);
+
+      next.JUPYTER_HOST = setStrVar(VARIABLE_JUPYTER_HOST, next.JUPYTER_HOST);
+
+      next.JWT_SIGNATURE_ALGORITHM = setStrVar(VARIABLE_JWT_SIGNATURE_ALGORITHM, next.JWT_SIGNATURE_ALGORITHM);
+      next.JWT_LIFETIME_MS = setLongVar(VARIABLE_JWT_LIFETIME_MS, next.JWT_LIFETIME_MS);
+      next.JWT_EXP_LEEWAY_SEC = setIntVar(VARIABLE_JWT_EXP_LEEWAY_SEC, next.JWT_EXP_LEEWAY_SEC);
+      next.JWT_SIGNING_KEY_NAME = setStrVar(VARIABLE_JWT_SIGNING_KEY_NAME, next.JWT_SIGNING_KEY_NAME);
+      next.JWT_ISSUER = setStrVar(VARIABLE_JWT_ISSUER_KEY, next.JWT_ISSUER);
+
+      next.SERVICE_JWT_LIFETIME_MS = setLongVar(VARIABLE_SERVICE_JWT_LIFETIME_MS, next.SERVICE_JWT_LIFETIME_MS);
+      next.SERVICE_JWT_EXP_LEEWAY_SEC = setIntVar(VARIABLE_SERVICE_JWT_EXP_LEEWAY_SEC, next.SERVICE_JWT_EXP_LEEWAY_SEC);
+
+      populateServiceJWTCache(next);
+
+      next.CONNECTION_KEEPALIVE_TIMEOUT = setIntVar(VARIABLE_CONNECTION_KEEPALIVE_TIMEOUT,
+          next.CONNECTION_KEEPALIVE_TIMEOUT);
+
+      next.FEATURESTORE_DB_DEFAULT_QUOTA = setLongVar(VARIABLE_FEATURESTORE_DEFAULT_QUOTA,
+          next.FEATURESTORE_DB_DEFAULT_QUOTA);
+      next.FEATURESTORE_DB_DEFAULT_STORAGE_FORMAT =
+          setStrVar(VARIABLE_FEATURESTORE_DEFAULT_STORAGE_FORMAT, next.FEATURESTORE_DB_DEFAULT_STORAGE_FORMAT);
+      next.FEATURESTORE_JDBC_URL = setStrVar(VARIABLE_FEATURESTORE_JDBC_URL, next.FEATURESTORE_JDBC_URL);
+      next.ONLINE_FEATURESTORE = setBoolVar(VARIABLE_ONLINE_FEATURESTORE, next.ONLINE_FEATURESTORE);
+      next.ONLINE_FEATURESTORE_TS = setStrVar(VARIABLE_ONLINE_FEATURESTORE_TS, next.ONLINE_FEATURESTORE_TS);
+      next.FS_JOB_ACTIVITY_TIME = setStrVar(VARIABLE_FS_JOB_ACTIVITY_TIME, next.FS_JOB_ACTIVITY_TIME);
+      next.ONLINEFS_THREAD_NUMBER = setIntVar(VARIABLE_ONLINEFS_THREAD_NUMBER, next.ONLINEFS_THREAD_NUMBER);
+
+      next.KIBANA_HTTPS_ENABELED = setBoolVar(VARIABLE_KIBANA_HTTPS_ENABLED,
+          next.KIBANA_HTTPS_ENABELED);
+  
+      next.KIBANA_MULTI_TENANCY_ENABELED = setBoolVar(VARIABLE_KIBANA_MULTI_TENANCY_ENABLED,
+          next.KIBANA_MULTI_TENANCY_ENABELED);
+
+      next.RESERVED_PROJECT_NAMES_STR = setStrVar(VARIABLE_RESERVED_PROJECT_NAMES, DEFAULT_RESERVED_PROJECT_NAMES);
+      Set<String> reservedProjectNames = setStringHashSetLowerCase(next.RESERVED_PROJECT_NAMES_STR, ",", true);
+      reservedProjectNames.addAll(getReservedHiveNames());
+      next.RESERVED_PROJECT_NAMES = Collections.unmodifiableSet(reservedProjectNames);
+  
+      next.CLOUD_EVENTS_ENDPOINT = setStrVar(VARIABLE_CLOUD_EVENTS_ENDPOINT,
+          next.CLOUD_EVENTS_ENDPOINT);
+  
+      next.CLOUD_EVENTS_ENDPOINT_API_KEY =
+          setStrVar(VARIABLE_CLOUD_EVENTS_ENDPOINT_API_KEY, next.CLOUD_EVENTS_ENDPOINT_API_KEY);
+
+      next.FG_PREVIEW_LIMIT = setIntVar(VARIABLE_FG_PREVIEW_LIMIT, next.FG_PREVIEW_LIMIT);
+      next.HIVE_CONF_PATH = setStrVar(VARIABLE_HIVE_CONF_PATH, next.HIVE_CONF_PATH);
+      next.FS_JOB_UTIL_PATH = setStrVar(VARIABLE_FS_JOB_UTIL_PATH, next.FS_JOB_UTIL_PATH);
 
       
 
-      YARN_RUNTIME = setStrVar(VARIABLE_YARN_RUNTIME, YARN_RUNTIME);
-      DOCKER_MOUNTS = setStrVar(VARIABLE_DOCKER_MOUNTS, DOCKER_MOUNTS);
-      DOCKER_JOB_MOUNTS_LIST = setStrVar(VARIABLE_DOCKER_JOB_MOUNTS_LIST, DOCKER_JOB_MOUNTS_LIST);
-      DOCKER_JOB_MOUNT_ALLOWED = setBoolVar(VARIABLE_DOCKER_JOB_MOUNT_ALLOWED, DOCKER_JOB_MOUNT_ALLOWED);
-      DOCKER_JOB_UID_STRICT = setBoolVar(VARIABLE_DOCKER_JOB_UID_STRICT, DOCKER_JOB_UID_STRICT);
-      DOCKER_BASE_IMAGE_PYTHON_NAME = setStrVar(VARIABLE_DOCKER_BASE_IMAGE_PYTHON_NAME, DOCKER_BASE_IMAGE_PYTHON_NAME);
-      DOCKER_BASE_IMAGE_PYTHON_VERSION = setStrVar(VARIABLE_DOCKER_BASE_IMAGE_PYTHON_VERSION,
-          DOCKER_BASE_IMAGE_PYTHON_VERSION);
-      YARN_APP_UID = setLongVar(VARIABLE_YARN_APP_UID, YARN_APP_UID);
-      populateProvenanceCache();
+      next.YARN_RUNTIME = setStrVar(VARIABLE_YARN_RUNTIME, next.YARN_RUNTIME);
+      next.DOCKER_MOUNTS = setStrVar(VARIABLE_DOCKER_MOUNTS, next.DOCKER_MOUNTS);
+      next.DOCKER_JOB_MOUNTS_LIST = setStrVar(VARIABLE_DOCKER_JOB_MOUNTS_LIST, next.DOCKER_JOB_MOUNTS_LIST);
+      next.DOCKER_JOB_MOUNT_ALLOWED = setBoolVar(VARIABLE_DOCKER_JOB_MOUNT_ALLOWED, next.DOCKER_JOB_MOUNT_ALLOWED);
+      next.DOCKER_JOB_UID_STRICT = setBoolVar(VARIABLE_DOCKER_JOB_UID_STRICT, next.DOCKER_JOB_UID_STRICT);
+      next.DOCKER_BASE_IMAGE_PYTHON_NAME = setStrVar(VARIABLE_DOCKER_BASE_IMAGE_PYTHON_NAME,
+          next.DOCKER_BASE_IMAGE_PYTHON_NAME);
+      next.DOCKER_BASE_IMAGE_PYTHON_VERSION = setStrVar(VARIABLE_DOCKER_BASE_IMAGE_PYTHON_VERSION,
+          next.DOCKER_BASE_IMAGE_PYTHON_VERSION);
+      next.YARN_APP_UID = setLongVar(VARIABLE_YARN_APP_UID, next.YARN_APP_UID);
+      populateProvenanceCache(next);
 
-      KUBE_TYPE = KubeType.fromString(setStrVar(VARIABLE_KUBE_TYPE, KUBE_TYPE.name));
-      DOCKER_NAMESPACE = setStrVar(VARIABLE_DOCKER_NAMESPACE, DOCKER_NAMESPACE);
-      MANAGED_DOCKER_REGISTRY = setBoolVar(VARIABLE_MANAGED_DOCKER_REGISTRY,
-          MANAGED_DOCKER_REGISTRY);
+      next.KUBE_TYPE = KubeType.fromString(setStrVar(VARIABLE_KUBE_TYPE, next.KUBE_TYPE.name));
+      next.DOCKER_NAMESPACE = setStrVar(VARIABLE_DOCKER_NAMESPACE, next.DOCKER_NAMESPACE);
+      next.MANAGED_DOCKER_REGISTRY = setBoolVar(VARIABLE_MANAGED_DOCKER_REGISTRY,
+          next.MANAGED_DOCKER_REGISTRY);
 
-      MAX_ENV_YML_BYTE_SIZE = setIntVar(VARIABLE_MAX_ENV_YML_BYTE_SIZE, MAX_ENV_YML_BYTE_SIZE);
-      SPARK_EXECUTOR_MIN_MEMORY = setIntVar(VARIABLE_SPARK_EXECUTOR_MIN_MEMORY, SPARK_EXECUTOR_MIN_MEMORY);
+      next.MAX_ENV_YML_BYTE_SIZE = setIntVar(VARIABLE_MAX_ENV_YML_BYTE_SIZE, next.MAX_ENV_YML_BYTE_SIZE);
+      next.SPARK_EXECUTOR_MIN_MEMORY = setIntVar(VARIABLE_SPARK_EXECUTOR_MIN_MEMORY, next.SPARK_EXECUTOR_MIN_MEMORY);
 
-      CLOUD_TYPE = setStrVar(VARIABLE_CLOUD_TYPE, CLOUD_TYPE);
+      next.CLOUD_TYPE = setStrVar(VARIABLE_CLOUD_TYPE, next.CLOUD_TYPE);
 
       
-      LIVY_STARTUP_TIMEOUT = setIntVar(VARIABLE_LIVY_STARTUP_TIMEOUT, LIVY_STARTUP_TIMEOUT);
+      next.LIVY_STARTUP_TIMEOUT = setIntVar(VARIABLE_LIVY_STARTUP_TIMEOUT, next.LIVY_STARTUP_TIMEOUT);
   
-      USER_SEARCH_ENABLED = setBoolVar(VARIABLE_USER_SEARCH, USER_SEARCH_ENABLED);
+      next.USER_SEARCH_ENABLED = setBoolVar(VARIABLE_USER_SEARCH, next.USER_SEARCH_ENABLED);
   
-      cached = true;
+      snapshot = next;
+    } finally {
+      loadingSnapshot = null;
     }
   }
 
-  private void checkCache() {
-    if (!cached) {
-      populateCache();
+  private VariablesSnapshot variables() {
+    VariablesSnapshot current = snapshot;
+    if (current == null) {
+      synchronized (this) {
+        if (snapshot == null) {
+          populateCache();
+        }
+        current = snapshot;
+      }
     }
+    return current;
+  }
+
+  private void checkCache() {
+    variables();
   }
 
+  /**
+   * Reloads the variables. Readers keep using the current values until the reload is done.
+   */
   public synchronized void refreshCache() {
-    cached = false;
     populateCache();
   }
 
@@ -803,7 +1377,45 @@ public class Settings implements Serializable {
    * trigger a read of all variables from the database.
    */
   public synchronized void invalidateCache() {
-    cached = false;
+    snapshot = null;
+  }
+
+  /**
+   * Every change to the variables table done through this class bumps variables_version. The other Hopsworks
+   * instances of the cluster poll it and reload their cache when it has changed.
+   */
+  @Schedule(persistent = false, second = "*/30", minute = "*", hour = "*")
+  public void pollVariablesVersion(Timer timer) {
+    VariablesSnapshot current = snapshot;
+    if (current == null) {
+      return;
+    }
+    long version = findById(VARIABLE_VARIABLES_VERSION)
+      .map(v -> parseVariablesVersion(v.getValue()))
+      .orElse(0L);
+    if (version != current.version) {
+      LOGGER.log(Level.INFO, "Variables changed from version {0} to {1}, refreshing cache",
+        new Object[]{current.version, version});
+      refreshCache();
+    }
+  }
+
+  /**
+   * Copy of the current snapshot for a setter to modify and publish. Must be called while holding the monitor.
+   */
+  private VariablesSnapshot nextVariables() {
+    return variables().copy();
+  }
+
+  private void bumpVariablesVersion() {
+    Optional<Variables> versionVar = findById(VARIABLE_VARIABLES_VERSION);
+    if (versionVar.isPresent()) {
+      long next = parseVariablesVersion(versionVar.get().getValue()) + 1;
+      versionVar.get().setValue(Long.toString(next));
+      em.merge(versionVar.get());
+    } else {
+      em.persist(new Variables(VARIABLE_VARIABLES_VERSION, "1", VariablesVisibility.ADMIN));
+    }
   }
 
   /**
@@ -811,21 +1423,16 @@ public class Settings implements Serializable {
    */
   private static final String GLASSFISH_DIR = "/srv/hops/glassfish";
 
-  public synchronized String getGlassfishDir() {
+  public String getGlassfishDir() {
     return GLASSFISH_DIR;
   }
 
-  private String TWOFACTOR_AUTH = "false";
-  private String TWOFACTOR_EXCLUDE = "AGENT;CLUSTER_AGENT";
-
-  public synchronized String getTwoFactorAuth() {
-    checkCache();
-    return TWOFACTOR_AUTH;
+  public String getTwoFactorAuth() {
+    return variables().TWOFACTOR_AUTH;
   }
 
-  public synchronized String getTwoFactorExclude() {
-    checkCache();
-    return TWOFACTOR_EXCLUDE;
+  public String getTwoFactorExclude() {
+    return variables().TWOFACTOR_EXCLUDE;
   }
 
   public enum TwoFactorMode {
@@ -849,17 +1456,13 @@ public class Settings implements Serializable {
     }
   }
 
-  private String HOPS_RPC_TLS = "false";
-
-  public synchronized boolean getHopsRpcTls() {
-    checkCache();
-    return HOPS_RPC_TLS.toLowerCase().equals("true");
+  public boolean getHopsRpcTls() {
+    return variables().HOPS_RPC_TLS.toLowerCase().equals("true");
   }
 
   //Spark executor minimum memory
-  public synchronized int getSparkExecutorMinMemory() {
-    checkCache();
-    return SPARK_EXECUTOR_MIN_MEMORY;
+  public int getSparkExecutorMinMemory() {
+    return variables().SPARK_EXECUTOR_MIN_MEMORY;
   }
 
   /**
@@ -871,7 +1474,6 @@ public class Settings implements Serializable {
 
   public static final String TENSORBOARD_DIRS = "/tensorboard/";
 
-  private String SPARK_DIR = "/srv/hops/spark";
   public static final String SPARK_EXAMPLES_DIR = "/examples/jars";
   
   public static final String CONVERSION_DIR = "/ipython_conversions/";
@@ -993,41 +1595,33 @@ public class Settings implements Serializable {
   //Hive config
   public static final String HIVE_SITE = "hive-site.xml";
 
-  public synchronized String getSparkDir() {
-    checkCache();
-    return SPARK_DIR;
+  public String getSparkDir() {
+    return variables().SPARK_DIR;
   }
 
-  public synchronized String getSparkConfDir() {
+  public String getSparkConfDir() {
     return getSparkDir() + "/conf";
   }
 
-  public synchronized String getSparkExampleDir() {
+  public String getSparkExampleDir() {
     checkCache();
     return SPARK_EXAMPLES_DIR;
   }
 
   private final String SPARK_CONF_FILE = "/spark-defaults.conf";
 
-  public synchronized String getSparkConfFile() {
+  public String getSparkConfFile() {
     return getSparkConfDir() + SPARK_CONF_FILE;
   }
 
-  // "/tmp" by default
-  private String STAGING_DIR = "/srv/hops/domains/domain1/staging";
-
-  public synchronized String getStagingDir() {
-    checkCache();
-    return STAGING_DIR;
+  public String getStagingDir() {
+    return variables().STAGING_DIR;
   }
 
   private final String FLINK_CONF_DIR = "conf";
-  // Remember to change this in docker-images as well
-  private String FLINK_DIR = "/srv/hops/flink";
 
-  public synchronized String getFlinkDir() {
-    checkCache();
-    return FLINK_DIR;
+  public String getFlinkDir() {
+    return variables().FLINK_DIR;
   }
 
   public String getFlinkConfDir() {
@@ -1048,187 +1642,118 @@ public class Settings implements Serializable {
     return getFlinkConfDir() + File.separator + FLINK_CONF_FILE;
   }
 
-  private String AIRFLOW_DIR = "/srv/hops/airflow";
-  public synchronized String getAirflowDir() {
-    checkCache();
-    return AIRFLOW_DIR;
+  public String getAirflowDir() {
+    return variables().AIRFLOW_DIR;
   }
 
-  private String AIRFLOW_USER = "airflow";
-  public synchronized String getAirflowUser() {
-    checkCache();
-    return AIRFLOW_USER;
+  public String getAirflowUser() {
+    return variables().AIRFLOW_USER;
   }
 
-  private String HADOOP_DIR = "/srv/hops/hadoop";
-
   // This returns the unversioned base installation directory for hops-hadoop
   // For example, "/srv/hops/hadoop" - it does not return "/srv/hops/hadoop-2.8.2"
-  public synchronized String getHadoopSymbolicLinkDir() {
-    checkCache();
-    return HADOOP_DIR;
+  public String getHadoopSymbolicLinkDir() {
+    return variables().HADOOP_DIR;
   }
 
-  public synchronized String getHadoopVersionedDir() {
-    checkCache();
-    return HADOOP_DIR + "-" + getHadoopVersion();
+  public String getHadoopVersionedDir() {
+    return variables().HADOOP_DIR + "-" + getHadoopVersion();
   }
 
-  private String HIVE_SUPERUSER = "hive";
-
-  public synchronized String getHiveSuperUser() {
-    checkCache();
-    return HIVE_SUPERUSER;
+  public String getHiveSuperUser() {
+    return variables().HIVE_SUPERUSER;
   }
 
-  private String ANACONDA_DEFAULT_REPO = "defaults";
-
-  public synchronized String getCondaDefaultRepo() {
-    checkCache();
-    return ANACONDA_DEFAULT_REPO;
+  public String getCondaDefaultRepo() {
+    return variables().ANACONDA_DEFAULT_REPO;
   }
 
-  private String HIVE_WAREHOUSE = "/apps/hive/warehouse";
-
-  public synchronized String getHiveWarehouse() {
-    checkCache();
-    return HIVE_WAREHOUSE;
+  public String getHiveWarehouse() {
+    return variables().HIVE_WAREHOUSE;
   }
 
-  private String HIVE_SCRATCHDIR = "/tmp/hive";
-
-  public synchronized String getHiveScratchdir() {
-    checkCache();
-    return HIVE_SCRATCHDIR;
+  public String getHiveScratchdir() {
+    return variables().HIVE_SCRATCHDIR;
   }
 
-  private String HIVE_SCRATCHDIR_DELAY = "7d";
-
-  public synchronized String getHiveScratchdirDelay() {
-    checkCache();
-    return HIVE_SCRATCHDIR_DELAY;
+  public String getHiveScratchdirDelay() {
+    return variables().HIVE_SCRATCHDIR_DELAY;
   }
 
-  private String HIVE_SCRATCHDIR_CLEANER_INTERVAL = "24h";
-
-  public synchronized String getHiveScratchdirCleanerInterval() {
-    checkCache();
-    return HIVE_SCRATCHDIR_CLEANER_INTERVAL;
+  public String getHiveScratchdirCleanerInterval() {
+    return variables().HIVE_SCRATCHDIR_CLEANER_INTERVAL;
   }
 
-  private long HIVE_DB_DEFAULT_QUOTA = -1;
-  public synchronized long getHiveDbDefaultQuota() {
-    checkCache();
-    return HIVE_DB_DEFAULT_QUOTA;
+  public long getHiveDbDefaultQuota() {
+    return variables().HIVE_DB_DEFAULT_QUOTA;
   }
 
-  private String HOPSWORKS_IP = "127.0.0.1";
-
-  public synchronized String getHopsworksIp() {
-    checkCache();
-    return HOPSWORKS_IP;
+  public String getHopsworksIp() {
+    return variables().HOPSWORKS_IP;
   }
 
-  private String CERTS_DIR = "/srv/hops/certs-dir";
-
-  public synchronized String getCertsDir() {
-    checkCache();
-    return CERTS_DIR;
+  public String getCertsDir() {
+    return variables().CERTS_DIR;
   }
 
-  public synchronized String getHopsworksMasterEncPasswordFile() {
+  public String getHopsworksMasterEncPasswordFile() {
     checkCache();
     return getCertsDir() + File.separator + "encryption_master_password";
   }
 
-  private String HOPSWORKS_INSTALL_DIR = "/srv/hops/domains/domain1";
-
-  public synchronized String getHopsworksDomainDir() {
-    checkCache();
-    return HOPSWORKS_INSTALL_DIR;
+  public String getHopsworksDomainDir() {
+    return variables().HOPSWORKS_INSTALL_DIR;
   }
 
-  private String SUDOERS_DIR = "/srv/hops/sbin";
-  public synchronized String getSudoersDir() {
-    checkCache();
-    return SUDOERS_DIR;
+  public String getSudoersDir() {
+    return variables().SUDOERS_DIR;
   }
 
-  //User under which yarn is run
-  private String YARN_SUPERUSER = "yarn";
-
-  public synchronized String getYarnSuperUser() {
-    checkCache();
-    return YARN_SUPERUSER;
+  public String getYarnSuperUser() {
+    return variables().YARN_SUPERUSER;
   }
-  private String HOPSWORKS_USER = "glassfish";
 
-  public synchronized String getHopsworksUser() {
-    checkCache();
-    return HOPSWORKS_USER;
+  public String getHopsworksUser() {
+    return variables().HOPSWORKS_USER;
   }
-  private String HDFS_SUPERUSER = "hdfs";
 
-  public synchronized String getHdfsSuperUser() {
-    checkCache();
-    return HDFS_SUPERUSER;
+  public String getHdfsSuperUser() {
+    return variables().HDFS_SUPERUSER;
   }
-  private String SPARK_USER = "spark";
 
-  public synchronized String getSparkUser() {
-    checkCache();
-    return SPARK_USER;
+  public String getSparkUser() {
+    return variables().SPARK_USER;
   }
 
-  public String JAVA_HOME = "/usr/lib/jvm/default-java";
-
-  public synchronized String getJavaHome() {
-    checkCache();
-    return JAVA_HOME;
+  public String getJavaHome() {
+    return variables().JAVA_HOME;
   }
 
-  private String FLINK_USER = "flink";
-
-  public synchronized String getFlinkUser() {
-    checkCache();
-    return FLINK_USER;
+  public String getFlinkUser() {
+    return variables().FLINK_USER;
   }
 
-  private Integer YARN_DEFAULT_QUOTA = 60000;
-  public synchronized Integer getYarnDefaultQuota() {
-    checkCache();
-    return YARN_DEFAULT_QUOTA;
+  public Integer getYarnDefaultQuota() {
+    return variables().YARN_DEFAULT_QUOTA;
   }
 
-  private PaymentType DEFAULT_PAYMENT_TYPE = PaymentType.NOLIMIT;
-  public synchronized PaymentType getDefaultPaymentType() {
-    checkCache();
-    return DEFAULT_PAYMENT_TYPE;
+  public PaymentType getDefaultPaymentType() {
+    return variables().DEFAULT_PAYMENT_TYPE;
   }
 
-  private long HDFS_DEFAULT_QUOTA_MBs = -1;
-  public synchronized long getHdfsDefaultQuotaInMBs() {
-    checkCache();
-    return HDFS_DEFAULT_QUOTA_MBs;
+  public long getHdfsDefaultQuotaInMBs() {
+    return variables().HDFS_DEFAULT_QUOTA_MBs;
   }
 
-  // Set the DIR_ROOT (/Projects) to have DB storage policy, i.e. - small files stored on db
-  private DistributedFileSystemOps.StoragePolicy HDFS_BASE_STORAGE_POLICY
-    = DistributedFileSystemOps.StoragePolicy.SMALL_FILES;
-  // To not fill the SSDs with Logs files that nobody access frequently
-  // We set the StoragePolicy for the LOGS dir to be DEFAULT
-  private DistributedFileSystemOps.StoragePolicy HDFS_LOG_STORAGE_POLICY
-      = DistributedFileSystemOps.StoragePolicy.DEFAULT;
-
   private DistributedFileSystemOps.StoragePolicy setHdfsStoragePolicy(String policyName,
     DistributedFileSystemOps.StoragePolicy defaultPolicy) {
 
-    Optional<Variables> policyOptional = findById(policyName);
+    Optional<String> policyOptional = lookupVariable(policyName);
     if (!policyOptional.isPresent()) {
       return defaultPolicy;
     }
 
-    String existingPolicy = policyOptional.get().getValue();
+    String existingPolicy = policyOptional.get();
     if (!Strings.isNullOrEmpty(existingPolicy)) {
       try {
         return DistributedFileSystemOps.StoragePolicy.fromPolicy(existingPolicy);
@@ -1241,39 +1766,32 @@ public class Settings implements Serializable {
     }
   }
 
-  public synchronized DistributedFileSystemOps.StoragePolicy getHdfsBaseStoragePolicy() {
-    checkCache();
-    return HDFS_BASE_STORAGE_POLICY;
+  public DistributedFileSystemOps.StoragePolicy getHdfsBaseStoragePolicy() {
+    return variables().HDFS_BASE_STORAGE_POLICY;
   }
 
-  public synchronized DistributedFileSystemOps.StoragePolicy getHdfsLogStoragePolicy() {
-    checkCache();
-    return HDFS_LOG_STORAGE_POLICY;
+  public DistributedFileSystemOps.StoragePolicy getHdfsLogStoragePolicy() {
+    return variables().HDFS_LOG_STORAGE_POLICY;
   }
 
   private String AIRFLOW_WEB_UI_IP = "127.0.0.1";
   private int AIRFLOW_WEB_UI_PORT = 12358;
 
-  public synchronized String getAirflowWebUIAddress() {
+  public String getAirflowWebUIAddress() {
     checkCache();
     return AIRFLOW_WEB_UI_IP + ":" + AIRFLOW_WEB_UI_PORT + "/hopsworks-api/airflow";
   }
 
-  private Integer MAX_NUM_PROJ_PER_USER = 5;
-  public synchronized Integer getMaxNumProjPerUser() {
-    checkCache();
-    return MAX_NUM_PROJ_PER_USER;
+  public Integer getMaxNumProjPerUser() {
+    return variables().MAX_NUM_PROJ_PER_USER;
   }
 
-  private String HADOOP_VERSION = "2.8.2";
-
-  public synchronized String getHadoopVersion() {
-    checkCache();
-    return HADOOP_VERSION;
+  public String getHadoopVersion() {
+    return variables().HADOOP_VERSION;
   }
 
   //Hadoop locations
-  public synchronized String getHadoopConfDir() {
+  public String getHadoopConfDir() {
     return hadoopConfDir(getHadoopSymbolicLinkDir());
   }
 
@@ -1285,7 +1803,7 @@ public class Settings implements Serializable {
     return hadoopConfDir(hadoopDir);
   }
 
-  public synchronized String getYarnConfDir() {
+  public String getYarnConfDir() {
     return getHadoopConfDir();
   }
 
@@ -1343,8 +1861,6 @@ public class Settings implements Serializable {
   public static final int SPARK_MIN_EXECS = 1;
   public static final int SPARK_MAX_EXECS = 2;
   public static final String SPARK_HADOOP_FS_PERMISSIONS_UMASK_DEFAULT = "0007";
-  // Spark executor min memory
-  private int SPARK_EXECUTOR_MIN_MEMORY = 1024;
 
   //Flink constants
   public static final String FLINK_LOCRSC_FLINK_JAR = "flink.jar";
@@ -1378,11 +1894,11 @@ public class Settings implements Serializable {
   public static final Set<String> KAFKA_SUBJECT_BLACKLIST =
     new HashSet<>(Arrays.asList(INFERENCE_SCHEMANAME, PROJECT_COMPATIBILITY_SUBJECT));
 
-  public synchronized String getLocalFlinkJarPath() {
+  public String getLocalFlinkJarPath() {
     return getFlinkDir() + "/flink.jar";
   }
 
-  public synchronized String getFlinkJarPath() {
+  public String getFlinkJarPath() {
     return hdfsFlinkJarPath(getFlinkUser());
   }
 
@@ -1390,7 +1906,7 @@ public class Settings implements Serializable {
     return "hdfs:///user/" + flinkUser + "/flink.jar";
   }
 
-  public synchronized String getFlinkDefaultClasspath() {
+  public String getFlinkDefaultClasspath() {
     return flinkDefaultClasspath(getFlinkDir());
   }
 
@@ -1406,7 +1922,7 @@ public class Settings implements Serializable {
     return "hdfs:///user/" + getSparkUser() + "/log4j.properties";
   }
 
-  public synchronized String getSparkDefaultClasspath() {
+  public String getSparkDefaultClasspath() {
     return sparkDefaultClasspath(getSparkDir());
   }
 
@@ -1476,113 +1992,87 @@ public class Settings implements Serializable {
     "REGEXP, RLIKE, ROLLBACK, START, CACHE, CONSTRAINT, FOREIGN, PRIMARY, REFERENCES, DAYOFWEEK, EXTRACT, FLOOR, " +
     "INTEGER, PRECISION, VIEWS, TIME, NUMERIC, SYNC";
 
-  private Set<String> RESERVED_PROJECT_NAMES;
-  private String RESERVED_PROJECT_NAMES_STR;
-  
-  public synchronized Set<String> getReservedProjectNames() {
-    checkCache();
-    RESERVED_PROJECT_NAMES = RESERVED_PROJECT_NAMES != null ? RESERVED_PROJECT_NAMES : new HashSet<>();
-    RESERVED_PROJECT_NAMES.addAll(getReservedHiveNames());
-    return RESERVED_PROJECT_NAMES;
+  public Set<String> getReservedProjectNames() {
+    return variables().RESERVED_PROJECT_NAMES;
   }
 
-  public synchronized Set<String> getReservedHiveNames() {
+  public Set<String> getReservedHiveNames() {
     return setStringHashSetLowerCase(DEFAULT_RESERVED_HIVE_NAMES, ",", true);
   }
 
-  public synchronized String getProjectNameReservedWords() {
-    checkCache();
-    return (RESERVED_PROJECT_NAMES_STR + ", " + DEFAULT_RESERVED_HIVE_NAMES).toLowerCase();
+  public String getProjectNameReservedWords() {
+    return (variables().RESERVED_PROJECT_NAMES_STR + ", " + DEFAULT_RESERVED_HIVE_NAMES).toLowerCase();
   }
 
   //Only for unit test
-  public synchronized String getProjectNameReservedWordsTest() {
+  public String getProjectNameReservedWordsTest() {
     return (DEFAULT_RESERVED_PROJECT_NAMES + ", " + DEFAULT_RESERVED_HIVE_NAMES).toLowerCase();
   }
   
   // Elasticsearch
-  ElasticSettings ELASTIC_SETTINGS;
   
-  public synchronized List<String> getElasticIps(){
-    checkCache();
-    return ELASTIC_SETTINGS.getElasticIps();
+  public List<String> getElasticIps(){
+    return variables().ELASTIC_SETTINGS.getElasticIps();
   }
   
-  public synchronized int getElasticPort() {
-    checkCache();
-    return ELASTIC_SETTINGS.getElasticPort();
+  public int getElasticPort() {
+    return variables().ELASTIC_SETTINGS.getElasticPort();
   }
   
-  public synchronized int getElasticRESTPort() {
-    checkCache();
-    return ELASTIC_SETTINGS.getElasticRESTPort();
+  public int getElasticRESTPort() {
+    return variables().ELASTIC_SETTINGS.getElasticRESTPort();
   }
   
-  public synchronized String getElasticEndpoint() {
-    checkCache();
-    return ELASTIC_SETTINGS.getElasticEndpoint();
+  public String getElasticEndpoint() {
+    return variables().ELASTIC_SETTINGS.getElasticEndpoint();
   }
 
-  public synchronized String getElasticRESTEndpoint() {
-    checkCache();
-    return ELASTIC_SETTINGS.getElasticRESTEndpoint();
+  public String getElasticRESTEndpoint() {
+    return variables().ELASTIC_SETTINGS.getElasticRESTEndpoint();
   }
   
-  public synchronized boolean isElasticOpenDistroSecurityEnabled() {
-    checkCache();
-    return ELASTIC_SETTINGS.isOpenDistroSecurityEnabled();
+  public boolean isElasticOpenDistroSecurityEnabled() {
+    return variables().ELASTIC_SETTINGS.isOpenDistroSecurityEnabled();
   }
   
-  public synchronized boolean isElasticHTTPSEnabled() {
-    checkCache();
-    return ELASTIC_SETTINGS.isHttpsEnabled();
+  public boolean isElasticHTTPSEnabled() {
+    return variables().ELASTIC_SETTINGS.isHttpsEnabled();
   }
   
-  public synchronized String getElasticAdminUser() {
-    checkCache();
-    return ELASTIC_SETTINGS.getAdminUser();
+  public String getElasticAdminUser() {
+    return variables().ELASTIC_SETTINGS.getAdminUser();
   }
 
-  public synchronized String getElasticServiceLogUser() {
-    checkCache();
-    return ELASTIC_SETTINGS.getServiceLogUser();
+  public String getElasticServiceLogUser() {
+    return variables().ELASTIC_SETTINGS.getServiceLogUser();
   }
   
-  public synchronized String getElasticAdminPassword() {
-    checkCache();
-    return ELASTIC_SETTINGS.getAdminPassword();
+  public String getElasticAdminPassword() {
+    return variables().ELASTIC_SETTINGS.getAdminPassword();
   }
   
-  public synchronized boolean isElasticJWTEnabled() {
-    checkCache();
-    return ELASTIC_SETTINGS.isElasticJWTEnabled();
+  public boolean isElasticJWTEnabled() {
+    return variables().ELASTIC_SETTINGS.isElasticJWTEnabled();
   }
   
-  public synchronized String getElasticJwtUrlParameter() {
-    checkCache();
-    return ELASTIC_SETTINGS.getElasticJWTURLParameter();
+  public String getElasticJwtUrlParameter() {
+    return variables().ELASTIC_SETTINGS.getElasticJWTURLParameter();
   }
   
-  public synchronized long getElasicJwtExpMs() {
-    checkCache();
-    return ELASTIC_SETTINGS.getElasticJWTExpMs();
+  public long getElasicJwtExpMs() {
+    return variables().ELASTIC_SETTINGS.getElasticJWTExpMs();
   }
   
-  public synchronized Integer getElasticDefaultScrollPageSize() {
-    checkCache();
-    return ELASTIC_SETTINGS.getDefaultScrollPageSize();
+  public Integer getElasticDefaultScrollPageSize() {
+    return variables().ELASTIC_SETTINGS.getDefaultScrollPageSize();
   }
   
-  public synchronized Integer getElasticMaxScrollPageSize() {
-    checkCache();
-    return ELASTIC_SETTINGS.getMaxScrollPageSize();
+  public Integer getElasticMaxScrollPageSize() {
+    return variables().ELASTIC_SETTINGS.getMaxScrollPageSize();
   }
 
-  private long ELASTIC_LOGS_INDEX_EXPIRATION = 7 * 24 * 60 * 60 * 1000;
-
-  public synchronized long getElasticLogsIndexExpiration() {
-    checkCache();
-    return ELASTIC_LOGS_INDEX_EXPIRATION;
+  public long getElasticLogsIndexExpiration() {
+    return variables().ELASTIC_LOGS_INDEX_EXPIRATION;
   }
 
   private static final int JOB_LOGS_EXPIRATION = 604800;
@@ -1608,49 +2098,32 @@ public class Settings implements Serializable {
     return JOB_LOGS_ID_FIELD;
   }
 
-  // CertificateMaterializer service. Delay for deleting crypto material from
-  // the local filesystem. The lower the value the more frequent we reach DB
-  // for materialization
-  // Suffix, defaults to minutes if omitted:
-  // ms: milliseconds
-  // s: seconds
-  // m: minutes (default)
-  // h: hours
-  // d: days
-  private String CERTIFICATE_MATERIALIZER_DELAY = "1m";
-
-  public synchronized String getCertificateMaterializerDelay() {
-    checkCache();
-    return CERTIFICATE_MATERIALIZER_DELAY;
+  public String getCertificateMaterializerDelay() {
+    return variables().CERTIFICATE_MATERIALIZER_DELAY;
   }
 
-  private String CERTIFICATE_USER_VALID_DAYS = "12";
+  public int getCertificateMaterializerMaxInMemory() {
+    return variables().CERTIFICATE_MATERIALIZER_MAX_IN_MEMORY;
+  }
 
-  public synchronized String getCertificateUserValidDays() {
-    checkCache();
-    return CERTIFICATE_USER_VALID_DAYS;
+  public String getCertificateUserValidDays() {
+    return variables().CERTIFICATE_USER_VALID_DAYS;
   }
 
   
-  private String SERVICE_DISCOVERY_DOMAIN = "consul";
-  public synchronized String getServiceDiscoveryDomain() {
-    checkCache();
-    return SERVICE_DISCOVERY_DOMAIN;
+  public String getServiceDiscoveryDomain() {
+    return variables().SERVICE_DISCOVERY_DOMAIN;
   }
 
 
-  // MapReduce Job History Server
-  private String JHS_IP = "127.0.0.1";
-
-  public synchronized String getJhsIp() {
-    checkCache();
-    return JHS_IP;
+  public String getJhsIp() {
+    return variables().JHS_IP;
   }
 
   // Livy Server`
   private final String LIVY_YARN_MODE = "yarn";
 
-  public synchronized String getLivyYarnMode() {
+  public String getLivyYarnMode() {
     checkCache();
     return LIVY_YARN_MODE;
   }
@@ -1658,12 +2131,11 @@ public class Settings implements Serializable {
   // Kibana
   public static final String KIBANA_INDEX_PREFIX = ".kibana";
   
-  private String KIBANA_IP = "10.0.2.15";
   private static final int KIBANA_PORT = 5601;
 
-  public synchronized String getKibanaUri() {
-    checkCache();
-    return (KIBANA_HTTPS_ENABELED ? "https" : "http") + "://" + KIBANA_IP +
+  public String getKibanaUri() {
+    VariablesSnapshot variables = variables();
+    return (variables.KIBANA_HTTPS_ENABELED ? "https" : "http") + "://" + variables.KIBANA_IP +
         ":" + KIBANA_PORT;
   }
   
@@ -1672,14 +2144,11 @@ public class Settings implements Serializable {
   }
   
   public String getKibanaAppUri(String jwtToken) {
-    return  getKibanaAppUri() + ELASTIC_SETTINGS.getElasticJWTURLParameter() + "=" + jwtToken + "&";
+    return  getKibanaAppUri() + variables().ELASTIC_SETTINGS.getElasticJWTURLParameter() + "=" + jwtToken + "&";
   }
 
-  private String ZK_USER = "zk";
-
-  public synchronized String getZkUser() {
-    checkCache();
-    return ZK_USER;
+  public String getZkUser() {
+    return variables().ZK_USER;
   }
 
   /*
@@ -1687,85 +2156,55 @@ public class Settings implements Serializable {
    * userlogins table for auditing.
    * kagent -> agent@hops.io
    */
-  private String WHITELIST_USERS_LOGIN = "agent@hops.io";
 
-  public synchronized String getWhitelistUsersLogin() {
-    checkCache();
-    return WHITELIST_USERS_LOGIN;
+  public String getWhitelistUsersLogin() {
+    return variables().WHITELIST_USERS_LOGIN;
   }
 
   // Jupyter
-  private String JUPYTER_DIR = "/srv/hops/jupyter";
 
-  public synchronized String getJupyterDir() {
-    checkCache();
-    return JUPYTER_DIR;
+  public String getJupyterDir() {
+    return variables().JUPYTER_DIR;
   }
 
-  private String JUPYTER_USER = "jupyter";
-
-  public synchronized String getJupyterUser() {
-    checkCache();
-    return JUPYTER_USER;
+  public String getJupyterUser() {
+    return variables().JUPYTER_USER;
   }
 
-  private String JUPYTER_GROUP = "jupyter";
-
-  public synchronized String getJupyterGroup() {
-    checkCache();
-    return JUPYTER_GROUP;
+  public String getJupyterGroup() {
+    return variables().JUPYTER_GROUP;
   }
 
-  private String JUPYTER_ORIGIN_SCHEME = "https";
-
-  public synchronized String getJupyterOriginScheme() {
-    checkCache();
-    return JUPYTER_ORIGIN_SCHEME;
+  public String getJupyterOriginScheme() {
+    return variables().JUPYTER_ORIGIN_SCHEME;
   }
 
-  private long JUPYTER_WS_PING_INTERVAL_MS = 10000L;
-
-  public synchronized long getJupyterWSPingInterval() {
-    checkCache();
-    return JUPYTER_WS_PING_INTERVAL_MS;
+  public long getJupyterWSPingInterval() {
+    return variables().JUPYTER_WS_PING_INTERVAL_MS;
 
   }
 
   // Service key rotation interval
   private static final String JUPYTER_SHUTDOWN_TIMER_INTERVAL = "jupyter_shutdown_timer_interval";
-  private String jupyterShutdownTimerInterval = "30m";
 
-  public synchronized String getJupyterShutdownTimerInterval() {
-    checkCache();
-    return jupyterShutdownTimerInterval;
+  public String getJupyterShutdownTimerInterval() {
+    return variables().jupyterShutdownTimerInterval;
   }
 
-  private String KAFKA_USER = "kafka";
-
-  public synchronized String getKafkaUser() {
-    checkCache();
-    return KAFKA_USER;
+  public String getKafkaUser() {
+    return variables().KAFKA_USER;
   }
 
-  private String KAFKA_DIR = "/srv/kafka";
-
-  public synchronized String getKafkaDir() {
-    checkCache();
-    return KAFKA_DIR;
+  public String getKafkaDir() {
+    return variables().KAFKA_DIR;
   }
 
-  private String ANACONDA_USER = "anaconda";
-
-  public synchronized String getAnacondaUser() {
-    checkCache();
-    return ANACONDA_USER;
+  public String getAnacondaUser() {
+    return variables().ANACONDA_USER;
   }
 
-  private String ANACONDA_DIR = "/srv/hops/anaconda";
-
-  public synchronized String getAnacondaDir() {
-    checkCache();
-    return ANACONDA_DIR;
+  public String getAnacondaDir() {
+    return variables().ANACONDA_DIR;
   }
 
   private String condaEnvName = "theenv";
@@ -1783,23 +2222,18 @@ public class Settings implements Serializable {
     return condaEnvName;
   }
   
-  private Boolean ANACONDA_ENABLED = true;
-
-  public synchronized Boolean isAnacondaEnabled() {
-    checkCache();
-    return ANACONDA_ENABLED;
+  public Boolean isAnacondaEnabled() {
+    return variables().ANACONDA_ENABLED;
   }
 
-  private Boolean DOWNLOAD_ALLOWED = true;
-  public synchronized Boolean isDownloadAllowed() {
-    checkCache();
-    return DOWNLOAD_ALLOWED;
+  public Boolean isDownloadAllowed() {
+    return variables().DOWNLOAD_ALLOWED;
   }
 
 //  private String CONDA_CHANNEL_URL = "https://repo.continuum.io/pkgs/free/linux-64/";
   private String CONDA_CHANNEL_URL = "default";
 
-  public synchronized String getCondaChannelUrl() {
+  public String getCondaChannelUrl() {
     checkCache();
     return CONDA_CHANNEL_URL;
   }
@@ -1807,48 +2241,33 @@ public class Settings implements Serializable {
   /**
    * kagent liveness monitor settings
    */
-  private String KAGENT_USER = "kagent";
-  public synchronized String getKagentUser() {
-    checkCache();
-    return KAGENT_USER;
+  public String getKagentUser() {
+    return variables().KAGENT_USER;
   }
 
-  private boolean KAGENT_LIVENESS_MONITOR_ENABLED = false;
-  public synchronized boolean isKagentLivenessMonitorEnabled() {
-    checkCache();
-    return KAGENT_LIVENESS_MONITOR_ENABLED;
+  public boolean isKagentLivenessMonitorEnabled() {
+    return variables().KAGENT_LIVENESS_MONITOR_ENABLED;
   }
 
-  private String KAGENT_LIVENESS_THRESHOLD = "10s";
-  public synchronized String getKagentLivenessThreshold() {
-    checkCache();
-    return KAGENT_LIVENESS_THRESHOLD;
+  public String getKagentLivenessThreshold() {
+    return variables().KAGENT_LIVENESS_THRESHOLD;
   }
 
-  private RESTLogLevel HOPSWORKS_REST_LOG_LEVEL = RESTLogLevel.PROD;
-
-  public synchronized RESTLogLevel getHopsworksRESTLogLevel() {
-    checkCache();
-    return HOPSWORKS_REST_LOG_LEVEL;
+  public RESTLogLevel getHopsworksRESTLogLevel() {
+    return variables().HOPSWORKS_REST_LOG_LEVEL;
   }
 
-  private String FIRST_TIME_LOGIN = "0";
-
-  public synchronized String getFirstTimeLogin() {
-    checkCache();
-    return FIRST_TIME_LOGIN;
+  public String getFirstTimeLogin() {
+    return variables().FIRST_TIME_LOGIN;
   }
 
 
-  private String ADMIN_EMAIL = "admin@hopsworks.ai";
-
-  public synchronized String getAdminEmail() {
-    checkCache();
-    return ADMIN_EMAIL;
+  public String getAdminEmail() {
+    return variables().ADMIN_EMAIL;
   }
   
-  public synchronized boolean isDefaultAdminPasswordChanged() {
-    Users user = userFacade.findByEmail(ADMIN_EMAIL);
+  public boolean isDefaultAdminPasswordChanged() {
+    Users user = userFacade.findByEmail(variables().ADMIN_EMAIL);
     if (user != null) {
       String DEFAULT_ADMIN_PWD = "12fa520ec8f65d3a6feacfa97a705e622e1fea95b80b521ec016e43874dfed5a";
       return !DEFAULT_ADMIN_PWD.equals(user.getPassword());
@@ -1856,38 +2275,24 @@ public class Settings implements Serializable {
     return false;
   }
 
-  private String HOPSWORKS_DEFAULT_SSL_MASTER_PASSWORD = "adminpw";
-
-  public synchronized String getHopsworksMasterPasswordSsl() {
-    checkCache();
-    return HOPSWORKS_DEFAULT_SSL_MASTER_PASSWORD;
+  public String getHopsworksMasterPasswordSsl() {
+    return variables().HOPSWORKS_DEFAULT_SSL_MASTER_PASSWORD;
   }
 
-  private Integer KAFKA_DEFAULT_NUM_PARTITIONS = 2;
-  private Integer KAFKA_DEFAULT_NUM_REPLICAS = 1;
-
-  public synchronized Integer getKafkaDefaultNumPartitions() {
-    checkCache();
-    return KAFKA_DEFAULT_NUM_PARTITIONS;
+  public Integer getKafkaDefaultNumPartitions() {
+    return variables().KAFKA_DEFAULT_NUM_PARTITIONS;
   }
 
-  public synchronized Integer getKafkaDefaultNumReplicas() {
-    checkCache();
-    return KAFKA_DEFAULT_NUM_REPLICAS;
+  public Integer getKafkaDefaultNumReplicas() {
+    return variables().KAFKA_DEFAULT_NUM_REPLICAS;
   }
 
-  private String ZK_DIR = "/srv/zookeeper";
-
-  public synchronized String getZkDir() {
-    checkCache();
-    return ZK_DIR;
+  public String getZkDir() {
+    return variables().ZK_DIR;
   }
 
-  private String CLUSTER_CERT = "asdasxasx8as6dx8a7sx7asdta8dtasxa8";
-
-  public synchronized String getCLUSTER_CERT() {
-    checkCache();
-    return CLUSTER_CERT;
+  public String getCLUSTER_CERT() {
+    return variables().CLUSTER_CERT;
   }
 
   // Hopsworks
@@ -1981,8 +2386,6 @@ public class Settings implements Serializable {
   public static final String HOPSWORKS_ELASTIC_ENDPOINT_PROPERTY = "hopsworks.elastic.endpoint";
   public static final String HOPSWORKS_DOMAIN_CA_TRUSTSTORE_PROPERTY = "hopsworks.domain.truststore";
 
-  private int FILE_PREVIEW_IMAGE_SIZE = 10000000;
-  private int FILE_PREVIEW_TXT_SIZE = 100;
   public static final int FILE_PREVIEW_TXT_SIZE_BYTES = 1024 * 384;
   public static final String README_TEMPLATE = "*This is an auto-generated README.md"
       + " file for your Dataset!*\n"
@@ -2036,9 +2439,8 @@ public class Settings implements Serializable {
    *
    * @return file size
    */
-  public synchronized int getFilePreviewImageSize() {
-    checkCache();
-    return FILE_PREVIEW_IMAGE_SIZE;
+  public int getFilePreviewImageSize() {
+    return variables().FILE_PREVIEW_IMAGE_SIZE;
   }
 
   /**
@@ -2046,9 +2448,8 @@ public class Settings implements Serializable {
    *
    * @return file size
    */
-  public synchronized int getFilePreviewTxtSize() {
-    checkCache();
-    return FILE_PREVIEW_TXT_SIZE;
+  public int getFilePreviewTxtSize() {
+    return variables().FILE_PREVIEW_TXT_SIZE;
   }
 
   //Project creation: default datasets
@@ -2102,27 +2503,20 @@ public class Settings implements Serializable {
   }
 
   public static final String JUPYTER_PIDS = "/tmp/jupyterNotebookServer.pids";
-  private String RESOURCE_DIRS = ".sparkStaging;spark-warehouse";
 
-  public synchronized String getResourceDirs() {
-    checkCache();
-    return RESOURCE_DIRS;
+  public String getResourceDirs() {
+    return variables().RESOURCE_DIRS;
   }
 
-  private String FS_JOB_ACTIVITY_TIME = "5m";
-  public synchronized String getFsJobActivityTime() {
-    checkCache();
-    return FS_JOB_ACTIVITY_TIME;
+  public String getFsJobActivityTime() {
+    return variables().FS_JOB_ACTIVITY_TIME;
   }
   
   public Settings() {
   }
 
-  private String ALERT_EMAIL_ADDRS = "";
-
-  public synchronized String getAlertEmailAddrs() {
-    checkCache();
-    return ALERT_EMAIL_ADDRS;
+  public String getAlertEmailAddrs() {
+    return variables().ALERT_EMAIL_ADDRS;
   }
 
   /**
@@ -2164,6 +2558,7 @@ public class Settings implements Serializable {
       var.setValue(variableValue);
       var.setVisibility(visibility);
       em.persist(var);
+      bumpVariablesVersion();
     }
   }
 
@@ -2244,18 +2639,16 @@ public class Settings implements Serializable {
     }
   }
 
-  private int KAFKA_MAX_NUM_TOPICS = 10;
-
-  public synchronized int getKafkaMaxNumTopics() {
-    checkCache();
-    return KAFKA_MAX_NUM_TOPICS;
+  public int getKafkaMaxNumTopics() {
+    return variables().KAFKA_MAX_NUM_TOPICS;
   }
 
-  private int MAX_STATUS_POLL_RETRY = 5;
+  public int getKafkaSchemaCacheSize() {
+    return variables().KAFKA_SCHEMA_CACHE_SIZE;
+  }
 
-  public synchronized int getMaxStatusPollRetry() {
-    checkCache();
-    return MAX_STATUS_POLL_RETRY;
+  public int getMaxStatusPollRetry() {
+    return variables().MAX_STATUS_POLL_RETRY;
   }
 
   /**
@@ -2287,18 +2680,18 @@ public class Settings implements Serializable {
 
   // For performance reasons, we have an in-memory cache of files being unzipped
   // Lazily remove them from the cache, when we check the FS and they aren't there.
-  private Set<CompressionInfo> zippingFiles = new HashSet<>();
+  private final Set<CompressionInfo> zippingFiles = ConcurrentHashMap.newKeySet();
 
-  public synchronized void addZippingState(CompressionInfo compressionInfo) {
+  public void addZippingState(CompressionInfo compressionInfo) {
     zippingFiles.add(compressionInfo);
   }
-  private Set<CompressionInfo> unzippingFiles = new HashSet<>();
+  private final Set<CompressionInfo> unzippingFiles = ConcurrentHashMap.newKeySet();
 
-  public synchronized void addUnzippingState(CompressionInfo compressionInfo) {
+  public void addUnzippingState(CompressionInfo compressionInfo) {
     unzippingFiles.add(compressionInfo);
   }
 
-  public synchronized String getZipState(String hdfsPath) {
+  public String getZipState(String hdfsPath) {
 
     boolean zipOperation = false;
     boolean unzipOperation = false;
@@ -2362,65 +2755,78 @@ public class Settings implements Serializable {
     return state;
   }
 
-  private boolean PYTHON_KERNEL = true;
+  public boolean isPythonKernelEnabled() {
+    return variables().PYTHON_KERNEL;
+  }
 
-  public synchronized boolean isPythonKernelEnabled() {
-    checkCache();
-    return PYTHON_KERNEL;
+  public String getPyPiRESTEndpoint() {
+    return variables().PYPI_REST_ENDPOINT;
   }
 
-  private String PYPI_REST_ENDPOINT = "https://pypi.org/pypi/{package}/json";
+  public int getPyPiMaxConnections() {
+    return variables().PYPI_MAX_CONNECTIONS;
+  }
 
-  public synchronized String getPyPiRESTEndpoint() {
-    checkCache();
-    return PYPI_REST_ENDPOINT;
+  public int getPyPiRequestTimeout() {
+    return variables().PYPI_REQUEST_TIMEOUT;
   }
 
-  private String PYPI_INDEXER_TIMER_INTERVAL = "1d";
+  public long getPyPiSearchTimeout() {
+    return variables().PYPI_SEARCH_TIMEOUT;
+  }
 
-  public synchronized String getPyPiIndexerTimerInterval() {
-    checkCache();
-    return PYPI_INDEXER_TIMER_INTERVAL;
+  public long getPyPiCacheTtl() {
+    return variables().PYPI_CACHE_TTL;
   }
 
-  private String PYPI_SIMPLE_ENDPOINT = "https://pypi.org/simple/";
+  public String getPyPiIndexerTimerInterval() {
+    return variables().PYPI_INDEXER_TIMER_INTERVAL;
+  }
 
-  public synchronized String getPyPiSimpleEndpoint() {
-    checkCache();
-    return PYPI_SIMPLE_ENDPOINT;
+  public String getPyPiSimpleEndpoint() {
+    return variables().PYPI_SIMPLE_ENDPOINT;
   }
 
-  private boolean PYPI_INDEXER_TIMER_ENABLED = true;
+  public boolean isPyPiIndexerTimerEnabled() {
+    return variables().PYPI_INDEXER_TIMER_ENABLED;
+  }
 
-  public synchronized boolean isPyPiIndexerTimerEnabled() {
-    checkCache();
-    return PYPI_INDEXER_TIMER_ENABLED;
+  public boolean isCondaChannelIndexEnabled() {
+    return variables().CONDA_CHANNEL_INDEX_ENABLED;
   }
 
-  private String PYTHON_LIBRARY_UPDATES_MONITOR_INTERVAL = "1d";
+  public List<String> getCondaChannelIndexChannels() {
+    return Arrays.stream(variables().CONDA_CHANNEL_INDEX_CHANNELS.split(",")).map(String::trim)
+      .filter(c -> !c.isEmpty()).collect(Collectors.toList());
+  }
 
-  public synchronized String getPythonLibraryUpdatesMonitorInterval() {
-    checkCache();
-    return PYTHON_LIBRARY_UPDATES_MONITOR_INTERVAL;
+  public List<String> getCondaChannelIndexSubdirs() {
+    return Arrays.stream(variables().CONDA_CHANNEL_INDEX_SUBDIRS.split(",")).map(String::trim)
+      .filter(c -> !c.isEmpty()).collect(Collectors.toList());
   }
 
-  private String HOPS_EXAMPLES_VERSION = "0.3.0";
+  public String getCondaChannelIndexInterval() {
+    return variables().CONDA_CHANNEL_INDEX_INTERVAL;
+  }
 
-  public synchronized String getHopsExamplesSparkFilename() {
-    checkCache();
-    return "hops-examples-spark-" + HOPS_EXAMPLES_VERSION + ".jar";
+  public int getCondaChannelIndexMaxResults() {
+    return variables().CONDA_CHANNEL_INDEX_MAX_RESULTS;
   }
 
-  public synchronized String getHopsExamplesFeaturestoreTourFilename() {
-    checkCache();
-    return "hops-examples-featurestore-tour-" + HOPS_EXAMPLES_VERSION + ".jar";
+  public String getPythonLibraryUpdatesMonitorInterval() {
+    return variables().PYTHON_LIBRARY_UPDATES_MONITOR_INTERVAL;
+  }
+
+  public String getHopsExamplesSparkFilename() {
+    return "hops-examples-spark-" + variables().HOPS_EXAMPLES_VERSION + ".jar";
   }
 
-  private String VERIFICATION_PATH = "/hopsworks-admin/security/validate_account.xhtml";
+  public String getHopsExamplesFeaturestoreTourFilename() {
+    return "hops-examples-featurestore-tour-" + variables().HOPS_EXAMPLES_VERSION + ".jar";
+  }
 
-  public synchronized String getEmailVerificationEndpoint() {
-    checkCache();
-    return VERIFICATION_PATH;
+  public String getEmailVerificationEndpoint() {
+    return variables().VERIFICATION_PATH;
   }
 
   //Dela START
@@ -2440,135 +2846,114 @@ public class Settings implements Serializable {
   private static final String VARIABLE_DELA_TRANSFER_ENDPOINT = "dela_transfer_endpoint";
 
   public static final Level DELA_DEBUG = Level.INFO;
-  private String HOPSSITE_HOST = "hops.site";
-  private String HOPSSITE = "http://hops.site:5081/hops-site/api";
-  private Boolean DELA_ENABLED = false; // set to false if not found in variables table
-  private DelaClientType DELA_CLIENT_TYPE = DelaClientType.FULL_CLIENT;
 
   private long HOPSSITE_HEARTBEAT_RETRY = 10 * 1000l; //10s
-  private long HOPSSITE_HEARTBEAT_INTERVAL = 10 * 60 * 1000l;//10min
-
-  private String DELA_TRANSFER_IP = "localhost";
-  private String DELA_TRANSFER_HTTP_PORT = "42000";
-  private String DELA_PUBLIC_HOPSWORK_PORT = "8080";
-  private String PUBLIC_HTTPS_PORT = "8181";
-
-  //set on registration after Dela is contacted to detect public port
-  private String DELA_SEARCH_ENDPOINT = "";
-  private String DELA_TRANSFER_ENDPOINT = "";
-  //set on cluster registration
-  private String DELA_CLUSTER_ID = null;
+
   //
-  private AddressJSON DELA_PUBLIC_ENDPOINT = null;
   //
   public static final String MANIFEST_FILE = "manifest.json";
   public static final String README_FILE = "README.md";
 
-  private void populateDelaCache() {
-    DELA_ENABLED = setBoolVar(VARIABLE_DELA_ENABLED, DELA_ENABLED);
-    DELA_CLIENT_TYPE = DelaClientType.from(setVar(VARIABLE_DELA_CLIENT_TYPE, DELA_CLIENT_TYPE.type));
-    HOPSSITE_CLUSTER_NAME = setVar(VARIABLE_HOPSSITE_CLUSTER_NAME, HOPSSITE_CLUSTER_NAME);
-    HOPSSITE_CLUSTER_PSWD = setVar(VARIABLE_HOPSSITE_CLUSTER_PSWD, HOPSSITE_CLUSTER_PSWD);
-    HOPSSITE_CLUSTER_PSWD_AUX = setVar(VARIABLE_HOPSSITE_CLUSTER_PSWD_AUX, HOPSSITE_CLUSTER_PSWD_AUX);
-    HOPSSITE_HOST = setVar(VARIABLE_HOPSSITE_BASE_URI_HOST, HOPSSITE_HOST);
-    HOPSSITE = setVar(VARIABLE_HOPSSITE_BASE_URI, HOPSSITE);
-    HOPSSITE_HEARTBEAT_INTERVAL = setLongVar(VARIABLE_HOPSSITE_HEARTBEAT_INTERVAL, HOPSSITE_HEARTBEAT_INTERVAL);
-
-    DELA_TRANSFER_IP = setStrVar(VARIABLE_DELA_CLUSTER_IP, DELA_TRANSFER_IP);
-    DELA_TRANSFER_HTTP_PORT = setStrVar(VARIABLE_DELA_CLUSTER_HTTP_PORT, DELA_TRANSFER_HTTP_PORT);
-    DELA_SEARCH_ENDPOINT = setStrVar(VARIABLE_DELA_SEARCH_ENDPOINT, DELA_SEARCH_ENDPOINT);
-    DELA_TRANSFER_ENDPOINT = setStrVar(VARIABLE_DELA_TRANSFER_ENDPOINT, DELA_TRANSFER_ENDPOINT);
-    DELA_PUBLIC_HOPSWORK_PORT = setStrVar(VARIABLE_DELA_PUBLIC_HOPSWORKS_PORT, DELA_PUBLIC_HOPSWORK_PORT);
-    PUBLIC_HTTPS_PORT = setStrVar(VARIABLE_PUBLIC_HTTPS_PORT, PUBLIC_HTTPS_PORT);
-    DELA_CLUSTER_ID = setStrVar(VARIABLE_DELA_CLUSTER_ID, DELA_CLUSTER_ID);
-  }
-
-  private void populateServiceJWTCache() {
-    SERVICE_MASTER_JWT = setStrVar(VARIABLE_SERVICE_MASTER_JWT, SERVICE_MASTER_JWT);
-    RENEW_TOKENS = new String[NUM_OF_SERVICE_RENEW_TOKENS];
+  private void populateDelaCache(VariablesSnapshot next) {
+    next.DELA_ENABLED = setBoolVar(VARIABLE_DELA_ENABLED, next.DELA_ENABLED);
+    next.DELA_CLIENT_TYPE = DelaClientType.from(setVar(VARIABLE_DELA_CLIENT_TYPE, next.DELA_CLIENT_TYPE.type));
+    next.HOPSSITE_CLUSTER_NAME = setVar(VARIABLE_HOPSSITE_CLUSTER_NAME, next.HOPSSITE_CLUSTER_NAME);
+    next.HOPSSITE_CLUSTER_PSWD = setVar(VARIABLE_HOPSSITE_CLUSTER_PSWD, next.HOPSSITE_CLUSTER_PSWD);
+    next.HOPSSITE_CLUSTER_PSWD_AUX = setVar(VARIABLE_HOPSSITE_CLUSTER_PSWD_AUX, next.HOPSSITE_CLUSTER_PSWD_AUX);
+    next.HOPSSITE_HOST = setVar(VARIABLE_HOPSSITE_BASE_URI_HOST, next.HOPSSITE_HOST);
+    next.HOPSSITE = setVar(VARIABLE_HOPSSITE_BASE_URI, next.HOPSSITE);
+    next.HOPSSITE_HEARTBEAT_INTERVAL = setLongVar(VARIABLE_HOPSSITE_HEARTBEAT_INTERVAL,
+        next.HOPSSITE_HEARTBEAT_INTERVAL);
+
+    next.DELA_TRANSFER_IP = setStrVar(VARIABLE_DELA_CLUSTER_IP, next.DELA_TRANSFER_IP);
+    next.DELA_TRANSFER_HTTP_PORT = setStrVar(VARIABLE_DELA_CLUSTER_HTTP_PORT, next.DELA_TRANSFER_HTTP_PORT);
+    next.DELA_SEARCH_ENDPOINT = setStrVar(VARIABLE_DELA_SEARCH_ENDPOINT, next.DELA_SEARCH_ENDPOINT);
+    next.DELA_TRANSFER_ENDPOINT = setStrVar(VARIABLE_DELA_TRANSFER_ENDPOINT, next.DELA_TRANSFER_ENDPOINT);
+    next.DELA_PUBLIC_HOPSWORK_PORT = setStrVar(VARIABLE_DELA_PUBLIC_HOPSWORKS_PORT, next.DELA_PUBLIC_HOPSWORK_PORT);
+    next.PUBLIC_HTTPS_PORT = setStrVar(VARIABLE_PUBLIC_HTTPS_PORT, next.PUBLIC_HTTPS_PORT);
+    next.DELA_CLUSTER_ID = setStrVar(VARIABLE_DELA_CLUSTER_ID, next.DELA_CLUSTER_ID);
+  }
+
+  private void populateServiceJWTCache(VariablesSnapshot next) {
+    next.SERVICE_MASTER_JWT = setStrVar(VARIABLE_SERVICE_MASTER_JWT, next.SERVICE_MASTER_JWT);
+    String[] renewTokens = new String[NUM_OF_SERVICE_RENEW_TOKENS];
     for (int i = 0; i < NUM_OF_SERVICE_RENEW_TOKENS; i++) {
       String variableKey = String.format(SERVICE_RENEW_TOKEN_VARIABLE_TEMPLATE, i);
       String token = setStrVar(variableKey, "");
-      RENEW_TOKENS[i] = token;
+      renewTokens[i] = token;
     }
+    next.RENEW_TOKENS = renewTokens;
   }
 
-  public synchronized Boolean isDelaEnabled() {
-    checkCache();
-    return DELA_ENABLED;
+  public Boolean isDelaEnabled() {
+    return variables().DELA_ENABLED;
   }
 
-  public synchronized DelaClientType getDelaClientType() {
-    return DELA_CLIENT_TYPE;
+  public DelaClientType getDelaClientType() {
+    return variables().DELA_CLIENT_TYPE;
   }
 
-  public synchronized String getHOPSSITE_HOST() {
-    checkCache();
-    return HOPSSITE_HOST;
+  public String getHOPSSITE_HOST() {
+    return variables().HOPSSITE_HOST;
   }
 
-  public synchronized String getHOPSSITE() {
-    checkCache();
-    return HOPSSITE;
+  public String getHOPSSITE() {
+    return variables().HOPSSITE;
   }
 
-  public synchronized long getHOPSSITE_HEARTBEAT_RETRY() {
+  public long getHOPSSITE_HEARTBEAT_RETRY() {
     checkCache();
     return HOPSSITE_HEARTBEAT_RETRY;
   }
 
-  public synchronized long getHOPSSITE_HEARTBEAT_INTERVAL() {
-    checkCache();
-    return HOPSSITE_HEARTBEAT_INTERVAL;
+  public long getHOPSSITE_HEARTBEAT_INTERVAL() {
+    return variables().HOPSSITE_HEARTBEAT_INTERVAL;
   }
 
-  public synchronized String getDELA_TRANSFER_IP() {
-    checkCache();
-    return DELA_TRANSFER_IP;
+  public String getDELA_TRANSFER_IP() {
+    return variables().DELA_TRANSFER_IP;
   }
 
-  public synchronized String getDELA_TRANSFER_HTTP_PORT() {
-    checkCache();
-    return DELA_TRANSFER_HTTP_PORT;
+  public String getDELA_TRANSFER_HTTP_PORT() {
+    return variables().DELA_TRANSFER_HTTP_PORT;
   }
 
-  public synchronized String getDELA_TRANSFER_HTTP_ENDPOINT() {
-    checkCache();
-    return "http://" + DELA_TRANSFER_IP + ":" + DELA_TRANSFER_HTTP_PORT + "/";
+  public String getDELA_TRANSFER_HTTP_ENDPOINT() {
+    VariablesSnapshot variables = variables();
+    return "http://" + variables.DELA_TRANSFER_IP + ":" + variables.DELA_TRANSFER_HTTP_PORT + "/";
   }
 
-  public synchronized String getDELA_HOPSWORKS_PORT() {
-    checkCache();
-    return DELA_PUBLIC_HOPSWORK_PORT;
+  public String getDELA_HOPSWORKS_PORT() {
+    return variables().DELA_PUBLIC_HOPSWORK_PORT;
   }
 
-  public synchronized String getPUBLIC_HTTPS_PORT() {
-    checkCache();
-    return PUBLIC_HTTPS_PORT;
+  public String getPUBLIC_HTTPS_PORT() {
+    return variables().PUBLIC_HTTPS_PORT;
   }
 
   public synchronized AddressJSON getDELA_PUBLIC_ENDPOINT() {
-    return DELA_PUBLIC_ENDPOINT;
+    return variables().DELA_PUBLIC_ENDPOINT;
   }
 
   public synchronized String getDELA_SEARCH_ENDPOINT() {
-    checkCache();
-    if (DELA_SEARCH_ENDPOINT != null) {
-      return DELA_SEARCH_ENDPOINT;
+    VariablesSnapshot variables = variables();
+    if (variables.DELA_SEARCH_ENDPOINT != null) {
+      return variables.DELA_SEARCH_ENDPOINT;
     }
-    return setStrVar(DELA_SEARCH_ENDPOINT, null);
+    return setStrVar(variables.DELA_SEARCH_ENDPOINT, null);
   }
 
   public synchronized String getDELA_TRANSFER_ENDPOINT() {
-    checkCache();
-    if (DELA_TRANSFER_ENDPOINT != null) {
-      return DELA_TRANSFER_ENDPOINT;
+    VariablesSnapshot variables = variables();
+    if (variables.DELA_TRANSFER_ENDPOINT != null) {
+      return variables.DELA_TRANSFER_ENDPOINT;
     }
-    return setStrVar(DELA_TRANSFER_ENDPOINT, null);
+    return setStrVar(variables.DELA_TRANSFER_ENDPOINT, null);
   }
 
   public synchronized void setDELA_PUBLIC_ENDPOINT(AddressJSON endpoint) {
-    DELA_PUBLIC_ENDPOINT = endpoint;
+    VariablesSnapshot next = nextVariables();
+    next.DELA_PUBLIC_ENDPOINT = endpoint;
 
     String delaSearchEndpoint = "https://" + endpoint.getIp() + ":"
         + getPUBLIC_HTTPS_PORT() + "/hopsworks-api/api";
@@ -2579,14 +2964,16 @@ public class Settings implements Serializable {
     } else {
       em.merge(new Variables(VARIABLE_DELA_SEARCH_ENDPOINT, delaSearchEndpoint));
     }
-    DELA_SEARCH_ENDPOINT = delaSearchEndpoint;
+    next.DELA_SEARCH_ENDPOINT = delaSearchEndpoint;
 
     if (getDELA_TRANSFER_ENDPOINT() == null) {
       em.persist(new Variables(VARIABLE_DELA_TRANSFER_ENDPOINT, delaTransferEndpoint));
     } else {
       em.merge(new Variables(VARIABLE_DELA_TRANSFER_ENDPOINT, delaTransferEndpoint));
     }
-    DELA_TRANSFER_ENDPOINT = delaTransferEndpoint;
+    next.DELA_TRANSFER_ENDPOINT = delaTransferEndpoint;
+    bumpVariablesVersion();
+    snapshot = next;
   }
 
   public synchronized void setDELA_CLUSTER_ID(String id) {
@@ -2595,20 +2982,24 @@ public class Settings implements Serializable {
     } else {
       em.merge(new Variables(VARIABLE_DELA_CLUSTER_ID, id));
     }
-    DELA_CLUSTER_ID = id;
+    VariablesSnapshot next = nextVariables();
+    next.DELA_CLUSTER_ID = id;
+    bumpVariablesVersion();
+    snapshot = next;
   }
 
   public synchronized String getDELA_CLUSTER_ID() {
-    checkCache();
-    if (DELA_CLUSTER_ID != null) {
-      return DELA_CLUSTER_ID;
+    VariablesSnapshot variables = variables();
+    if (variables.DELA_CLUSTER_ID != null) {
+      return variables.DELA_CLUSTER_ID;
     }
     return setStrVar(VARIABLE_DELA_CLUSTER_ID, null);
   }
 
   public synchronized String getDELA_DOMAIN() {
-    if (DELA_PUBLIC_ENDPOINT != null) {
-      return DELA_PUBLIC_ENDPOINT.getIp();
+    VariablesSnapshot variables = variables();
+    if (variables.DELA_PUBLIC_ENDPOINT != null) {
+      return variables.DELA_PUBLIC_ENDPOINT.getIp();
     }
     return null;
   }
@@ -2625,13 +3016,8 @@ public class Settings implements Serializable {
   private static final String VARIABLE_HOPSSITE_CLUSTER_PSWD = "hops_site_cluster_pswd";
   private static final String VARIABLE_HOPSSITE_CLUSTER_PSWD_AUX = "hops_site_cluster_pswd_aux";
 
-  private String HOPSSITE_CLUSTER_NAME = null;
-  private String HOPSSITE_CLUSTER_PSWD = null;
-  private String HOPSSITE_CLUSTER_PSWD_AUX = "1234";
-
   public synchronized Optional<String> getHopsSiteClusterName() {
-    checkCache();
-    return Optional.ofNullable(HOPSSITE_CLUSTER_NAME);
+    return Optional.ofNullable(variables().HOPSSITE_CLUSTER_NAME);
   }
 
   public synchronized void setHopsSiteClusterName(String clusterName) {
@@ -2640,7 +3026,10 @@ public class Settings implements Serializable {
     } else {
       em.persist(new Variables(VARIABLE_HOPSSITE_CLUSTER_NAME, clusterName));
     }
-    HOPSSITE_CLUSTER_NAME = clusterName;
+    VariablesSnapshot next = nextVariables();
+    next.HOPSSITE_CLUSTER_NAME = clusterName;
+    bumpVariablesVersion();
+    snapshot = next;
   }
 
   public synchronized void deleteHopsSiteClusterName() {
@@ -2648,19 +3037,20 @@ public class Settings implements Serializable {
       Optional<Variables> v = findById(VARIABLE_HOPSSITE_CLUSTER_NAME);
       if (v.isPresent()) {
         em.remove(v);
-        HOPSSITE_CLUSTER_NAME = null;
+        VariablesSnapshot next = nextVariables();
+        next.HOPSSITE_CLUSTER_NAME = null;
+        bumpVariablesVersion();
+        snapshot = next;
       }
     }
   }
 
-  public synchronized String getHopsSiteClusterPswdAux() {
-    checkCache();
-    return HOPSSITE_CLUSTER_PSWD_AUX;
+  public String getHopsSiteClusterPswdAux() {
+    return variables().HOPSSITE_CLUSTER_PSWD_AUX;
   }
 
   public synchronized Optional<String> getHopsSiteClusterPswd() {
-    checkCache();
-    return Optional.ofNullable(HOPSSITE_CLUSTER_PSWD);
+    return Optional.ofNullable(variables().HOPSSITE_CLUSTER_PSWD);
   }
 
   public synchronized void setHopsSiteClusterPswd(String pswd) {
@@ -2669,34 +3059,37 @@ public class Settings implements Serializable {
     } else {
       em.persist(new Variables(VARIABLE_HOPSSITE_CLUSTER_PSWD, pswd));
     }
-    HOPSSITE_CLUSTER_PSWD = pswd;
+    VariablesSnapshot next = nextVariables();
+    next.HOPSSITE_CLUSTER_PSWD = pswd;
+    bumpVariablesVersion();
+    snapshot = next;
   }
 
-  public synchronized String getHopsSiteCaDir() {
+  public String getHopsSiteCaDir() {
     return getCertsDir() + File.separator + HOPS_SITE_CA_DIR;
   }
 
-  public synchronized String getHopsSiteCaScript() {
+  public String getHopsSiteCaScript() {
     return getSudoersDir() + File.separator + "ca-keystore.sh";
   }
 
-  public synchronized String getHopsSiteCert() {
+  public String getHopsSiteCert() {
     return getHopsSiteCaDir() + HOPS_SITE_CERTFILE;
   }
 
-  public synchronized String getHopsSiteCaCert() {
+  public String getHopsSiteCaCert() {
     return getHopsSiteCaDir() + HOPS_SITE_CA_CERTFILE;
   }
 
-  public synchronized String getHopsSiteIntermediateCert() {
+  public String getHopsSiteIntermediateCert() {
     return getHopsSiteCaDir() + HOPS_SITE_INTERMEDIATE_CERTFILE;
   }
 
-  public synchronized String getHopsSiteKeyStorePath() {
+  public String getHopsSiteKeyStorePath() {
     return getHopsSiteCaDir() + HOPS_SITE_KEY_STORE;
   }
 
-  public synchronized String getHopsSiteTrustStorePath() {
+  public String getHopsSiteTrustStorePath() {
     return getHopsSiteCaDir() + HOPS_SITE_TRUST_STORE;
   }
   //Dela END
@@ -2742,288 +3135,224 @@ public class Settings implements Serializable {
   private static final String VARIABLE_DISABLE_REGISTRATION_UI = "disable_registration_ui";
   private static final String VARIABLE_LDAP_GROUP_MAPPING_SYNC_INTERVAL = "ldap_group_mapping_sync_interval";
   
-  private String KRB_AUTH = "false";
-  private String LDAP_AUTH = "false";
-  private boolean IS_KRB_ENABLED = false;
-  private boolean IS_LDAP_ENABLED = false;
-  private String LDAP_GROUP_MAPPING = "";
-  private String LDAP_USER_ID = "uid"; //login name
-  private String LDAP_USER_GIVEN_NAME = "givenName";
-  private String LDAP_USER_SURNAME = "sn";
-  private String LDAP_USER_EMAIL = "mail";
-  private String LDAP_USER_SEARCH_FILTER = "uid=%s";
-  private String LDAP_GROUP_SEARCH_FILTER = "member=%d";
-  private String LDAP_KRB_USER_SEARCH_FILTER = "krbPrincipalName=%s";
-  private String LDAP_ATTR_BINARY = "java.naming.ldap.attributes.binary";
-  private String LDAP_GROUP_TARGET = "cn";
-  private String LDAP_DYNAMIC_GROUP_TARGET = "memberOf";
-  private String LDAP_USER_DN_DEFAULT = "";
-  private String LDAP_GROUP_DN_DEFAULT = "";
-  private String LDAP_USER_DN = LDAP_USER_DN_DEFAULT;
-  private String LDAP_GROUP_DN = LDAP_GROUP_DN_DEFAULT;
-  private String LDAP_GROUPS_TARGET = "distinguishedName";
-  private String LDAP_GROUPS_SEARCH_FILTER = "(&(objectCategory=group)(cn=%c))";
-  private String LDAP_GROUP_MEMBERS_SEARCH_FILTER = "(&(objectCategory=user)(memberOf=%d))";
-  private int LDAP_ACCOUNT_STATUS = 1;
-  private String OAUTH_ENABLED = "false";
-  private boolean IS_OAUTH_ENABLED = false;
-  private String OAUTH_GROUP_MAPPING = "";
-  private String OAUTH_REDIRECT_URI = "hopsworks/callback";
-  private int OAUTH_ACCOUNT_STATUS = 1;
-  private long LDAP_GROUP_MAPPING_SYNC_INTERVAL = 0;
-  
-  private boolean DISABLE_PASSWORD_LOGIN = false;
-  private boolean DISABLE_REGISTRATION = false;
-  
-  private void populateLDAPCache() {
-    KRB_AUTH = setVar(VARIABLE_KRB_AUTH, KRB_AUTH);
-    LDAP_AUTH = setVar(VARIABLE_LDAP_AUTH, LDAP_AUTH);
-    LDAP_GROUP_MAPPING = setVar(VARIABLE_LDAP_GROUP_MAPPING, LDAP_GROUP_MAPPING);
-    LDAP_USER_ID = setVar(VARIABLE_LDAP_USER_ID, LDAP_USER_ID);
-    LDAP_USER_GIVEN_NAME = setVar(VARIABLE_LDAP_USER_GIVEN_NAME, LDAP_USER_GIVEN_NAME);
-    LDAP_USER_SURNAME = setVar(VARIABLE_LDAP_USER_SURNAME, LDAP_USER_SURNAME);
-    LDAP_USER_EMAIL = setVar(VARIABLE_LDAP_USER_EMAIL, LDAP_USER_EMAIL);
-    LDAP_ACCOUNT_STATUS = setIntVar(VARIABLE_LDAP_ACCOUNT_STATUS, LDAP_ACCOUNT_STATUS);
-    LDAP_USER_SEARCH_FILTER = setVar(VARIABLE_LDAP_USER_SEARCH_FILTER, LDAP_USER_SEARCH_FILTER);
-    LDAP_GROUP_SEARCH_FILTER = setVar(VARIABLE_LDAP_GROUP_SEARCH_FILTER, LDAP_GROUP_SEARCH_FILTER);
-    LDAP_KRB_USER_SEARCH_FILTER = setVar(VARIABLE_LDAP_KRB_USER_SEARCH_FILTER, LDAP_KRB_USER_SEARCH_FILTER);
-    LDAP_ATTR_BINARY = setVar(VARIABLE_LDAP_ATTR_BINARY, LDAP_ATTR_BINARY);
-    LDAP_GROUP_TARGET = setVar(VARIABLE_LDAP_GROUP_TARGET, LDAP_GROUP_TARGET);
-    LDAP_DYNAMIC_GROUP_TARGET = setVar(VARIABLE_LDAP_DYNAMIC_GROUP_TARGET, LDAP_DYNAMIC_GROUP_TARGET);
-    LDAP_USER_DN = setStrVar(VARIABLE_LDAP_USERDN, LDAP_USER_DN_DEFAULT);
-    LDAP_GROUP_DN = setStrVar(VARIABLE_LDAP_GROUPDN, LDAP_GROUP_DN_DEFAULT);
-    LDAP_GROUPS_TARGET = setVar(VARIABLE_LDAP_GROUPS_TARGET, LDAP_GROUPS_TARGET);
-    LDAP_GROUPS_SEARCH_FILTER = setStrVar(VARIABLE_LDAP_GROUPS_SEARCH_FILTER, LDAP_GROUPS_SEARCH_FILTER);
-    LDAP_GROUP_MEMBERS_SEARCH_FILTER =
-      setStrVar(VARIABLE_LDAP_GROUP_MEMBERS_SEARCH_FILTER, LDAP_GROUP_MEMBERS_SEARCH_FILTER);
-    IS_KRB_ENABLED = setBoolVar(VARIABLE_KRB_AUTH, IS_KRB_ENABLED);
-    IS_LDAP_ENABLED = setBoolVar(VARIABLE_LDAP_AUTH, IS_LDAP_ENABLED);
-    OAUTH_ENABLED = setStrVar(VARIABLE_OAUTH_ENABLED, OAUTH_ENABLED);
-    IS_OAUTH_ENABLED = setBoolVar(VARIABLE_OAUTH_ENABLED, IS_OAUTH_ENABLED);
-    OAUTH_REDIRECT_URI = setStrVar(VARIABLE_OAUTH_REDIRECT_URI, OAUTH_REDIRECT_URI);
-    OAUTH_ACCOUNT_STATUS = setIntVar(VARIABLE_OAUTH_ACCOUNT_STATUS, OAUTH_ACCOUNT_STATUS);
-    OAUTH_GROUP_MAPPING = setStrVar(VARIABLE_OAUTH_GROUP_MAPPING, OAUTH_GROUP_MAPPING);
+  private static final String LDAP_USER_DN_DEFAULT = "";
+  private static final String LDAP_GROUP_DN_DEFAULT = "";
+  
+  private void populateLDAPCache(VariablesSnapshot next) {
+    next.KRB_AUTH = setVar(VARIABLE_KRB_AUTH, next.KRB_AUTH);
+    next.LDAP_AUTH = setVar(VARIABLE_LDAP_AUTH, next.LDAP_AUTH);
+    next.LDAP_GROUP_MAPPING = setVar(VARIABLE_LDAP_GROUP_MAPPING, next.LDAP_GROUP_MAPPING);
+    next.LDAP_USER_ID = setVar(VARIABLE_LDAP_USER_ID, next.LDAP_USER_ID);
+    next.LDAP_USER_GIVEN_NAME = setVar(VARIABLE_LDAP_USER_GIVEN_NAME, next.LDAP_USER_GIVEN_NAME);
+    next.LDAP_USER_SURNAME = setVar(VARIABLE_LDAP_USER_SURNAME, next.LDAP_USER_SURNAME);
+    next.LDAP_USER_EMAIL = setVar(VARIABLE_LDAP_USER_EMAIL, next.LDAP_USER_EMAIL);
+    next.LDAP_ACCOUNT_STATUS = setIntVar(VARIABLE_LDAP_ACCOUNT_STATUS, next.LDAP_ACCOUNT_STATUS);
+    next.LDAP_USER_SEARCH_FILTER = setVar(VARIABLE_LDAP_USER_SEARCH_FILTER, next.LDAP_USER_SEARCH_FILTER);
+    next.LDAP_GROUP_SEARCH_FILTER = setVar(VARIABLE_LDAP_GROUP_SEARCH_FILTER, next.LDAP_GROUP_SEARCH_FILTER);
+    next.LDAP_KRB_USER_SEARCH_FILTER = setVar(VARIABLE_LDAP_KRB_USER_SEARCH_FILTER, next.LDAP_KRB_USER_SEARCH_FILTER);
+    next.LDAP_ATTR_BINARY = setVar(VARIABLE_LDAP_ATTR_BINARY, next.LDAP_ATTR_BINARY);
+    next.LDAP_GROUP_TARGET = setVar(VARIABLE_LDAP_GROUP_TARGET, next.LDAP_GROUP_TARGET);
+    next.LDAP_DYNAMIC_GROUP_TARGET = setVar(VARIABLE_LDAP_DYNAMIC_GROUP_TARGET, next.LDAP_DYNAMIC_GROUP_TARGET);
+    next.LDAP_USER_DN = setStrVar(VARIABLE_LDAP_USERDN, LDAP_USER_DN_DEFAULT);
+    next.LDAP_GROUP_DN = setStrVar(VARIABLE_LDAP_GROUPDN, LDAP_GROUP_DN_DEFAULT);
+    next.LDAP_GROUPS_TARGET = setVar(VARIABLE_LDAP_GROUPS_TARGET, next.LDAP_GROUPS_TARGET);
+    next.LDAP_GROUPS_SEARCH_FILTER = setStrVar(VARIABLE_LDAP_GROUPS_SEARCH_FILTER, next.LDAP_GROUPS_SEARCH_FILTER);
+    next.LDAP_GROUP_MEMBERS_SEARCH_FILTER =
+      setStrVar(VARIABLE_LDAP_GROUP_MEMBERS_SEARCH_FILTER, next.LDAP_GROUP_MEMBERS_SEARCH_FILTER);
+    next.IS_KRB_ENABLED = setBoolVar(VARIABLE_KRB_AUTH, next.IS_KRB_ENABLED);
+    next.IS_LDAP_ENABLED = setBoolVar(VARIABLE_LDAP_AUTH, next.IS_LDAP_ENABLED);
+    next.OAUTH_ENABLED = setStrVar(VARIABLE_OAUTH_ENABLED, next.OAUTH_ENABLED);
+    next.IS_OAUTH_ENABLED = setBoolVar(VARIABLE_OAUTH_ENABLED, next.IS_OAUTH_ENABLED);
+    next.OAUTH_REDIRECT_URI = setStrVar(VARIABLE_OAUTH_REDIRECT_URI, next.OAUTH_REDIRECT_URI);
+    next.OAUTH_ACCOUNT_STATUS = setIntVar(VARIABLE_OAUTH_ACCOUNT_STATUS, next.OAUTH_ACCOUNT_STATUS);
+    next.OAUTH_GROUP_MAPPING = setStrVar(VARIABLE_OAUTH_GROUP_MAPPING, next.OAUTH_GROUP_MAPPING);
     
-    DISABLE_PASSWORD_LOGIN = setBoolVar(VARIABLE_DISABLE_PASSWORD_LOGIN, DISABLE_PASSWORD_LOGIN);
-    DISABLE_REGISTRATION = setBoolVar(VARIABLE_DISABLE_REGISTRATION, DISABLE_REGISTRATION);
-    DISABLE_REGISTRATION_UI = setBoolVar(VARIABLE_DISABLE_REGISTRATION_UI, DISABLE_REGISTRATION_UI);
+    next.DISABLE_PASSWORD_LOGIN = setBoolVar(VARIABLE_DISABLE_PASSWORD_LOGIN, next.DISABLE_PASSWORD_LOGIN);
+    next.DISABLE_REGISTRATION = setBoolVar(VARIABLE_DISABLE_REGISTRATION, next.DISABLE_REGISTRATION);
+    next.DISABLE_REGISTRATION_UI = setBoolVar(VARIABLE_DISABLE_REGISTRATION_UI, next.DISABLE_REGISTRATION_UI);
     
-    LDAP_GROUP_MAPPING_SYNC_INTERVAL = setLongVar(VARIABLE_LDAP_GROUP_MAPPING_SYNC_INTERVAL,
-      LDAP_GROUP_MAPPING_SYNC_INTERVAL);
+    next.LDAP_GROUP_MAPPING_SYNC_INTERVAL = setLongVar(VARIABLE_LDAP_GROUP_MAPPING_SYNC_INTERVAL,
+      next.LDAP_GROUP_MAPPING_SYNC_INTERVAL);
   }
   
-  public synchronized String getKRBAuthStatus() {
-    checkCache();
-    return KRB_AUTH;
+  public String getKRBAuthStatus() {
+    return variables().KRB_AUTH;
   }
   
-  public synchronized String getLDAPAuthStatus() {
-    checkCache();
-    return LDAP_AUTH;
+  public String getLDAPAuthStatus() {
+    return variables().LDAP_AUTH;
   }
   
-  public synchronized  boolean isKrbEnabled() {
-    checkCache();
-    return IS_KRB_ENABLED;
+  public boolean isKrbEnabled() {
+    return variables().IS_KRB_ENABLED;
   }
   
-  public synchronized  boolean isLdapEnabled() {
-    checkCache();
-    return IS_LDAP_ENABLED;
+  public boolean isLdapEnabled() {
+    return variables().IS_LDAP_ENABLED;
   }
   
-  public synchronized String getLdapGroupMapping() {
-    checkCache();
-    return LDAP_GROUP_MAPPING;
+  public String getLdapGroupMapping() {
+    return variables().LDAP_GROUP_MAPPING;
   }
   
-  public synchronized String getLdapUserId() {
-    checkCache();
-    return LDAP_USER_ID;
+  public String getLdapUserId() {
+    return variables().LDAP_USER_ID;
   }
   
-  public synchronized String getLdapUserGivenName() {
-    checkCache();
-    return LDAP_USER_GIVEN_NAME;
+  public String getLdapUserGivenName() {
+    return variables().LDAP_USER_GIVEN_NAME;
   }
   
-  public synchronized String getLdapUserSurname() {
-    checkCache();
-    return LDAP_USER_SURNAME;
+  public String getLdapUserSurname() {
+    return variables().LDAP_USER_SURNAME;
   }
   
-  public synchronized String getLdapUserMail() {
-    checkCache();
-    return LDAP_USER_EMAIL;
+  public String getLdapUserMail() {
+    return variables().LDAP_USER_EMAIL;
   }
   
-  public synchronized String getLdapUserSearchFilter() {
-    checkCache();
-    return LDAP_USER_SEARCH_FILTER;
+  public String getLdapUserSearchFilter() {
+    return variables().LDAP_USER_SEARCH_FILTER;
   }
   
-  public synchronized String getLdapGroupSearchFilter() {
-    checkCache();
-    return LDAP_GROUP_SEARCH_FILTER;
+  public String getLdapGroupSearchFilter() {
+    return variables().LDAP_GROUP_SEARCH_FILTER;
   }
   
-  public synchronized String getKrbUserSearchFilter() {
-    checkCache();
-    return LDAP_KRB_USER_SEARCH_FILTER;
+  public String getKrbUserSearchFilter() {
+    return variables().LDAP_KRB_USER_SEARCH_FILTER;
   }
   
-  public synchronized String getLdapAttrBinary() {
-    checkCache();
-    return LDAP_ATTR_BINARY;
+  public String getLdapAttrBinary() {
+    return variables().LDAP_ATTR_BINARY;
   }
   
-  public synchronized String getLdapGroupTarget() {
-    checkCache();
-    return LDAP_GROUP_TARGET;
+  public String getLdapGroupTarget() {
+    return variables().LDAP_GROUP_TARGET;
   }
   
-  public synchronized String getLdapDynGroupTarget() {
-    checkCache();
-    return LDAP_DYNAMIC_GROUP_TARGET;
+  public String getLdapDynGroupTarget() {
+    return variables().LDAP_DYNAMIC_GROUP_TARGET;
   }
   
-  public synchronized String getLdapUserDN() {
-    checkCache();
-    return LDAP_USER_DN;
+  public String getLdapUserDN() {
+    return variables().LDAP_USER_DN;
   }
   
-  public synchronized String getLdapGroupDN() {
-    checkCache();
-    return LDAP_GROUP_DN;
+  public String getLdapGroupDN() {
+    return variables().LDAP_GROUP_DN;
   }
   
-  public synchronized int getLdapAccountStatus() {
-    checkCache();
-    return LDAP_ACCOUNT_STATUS;
+  public int getLdapAccountStatus() {
+    return variables().LDAP_ACCOUNT_STATUS;
   }
   
-  public synchronized String getLdapGroupsTarget() {
-    checkCache();
-    return LDAP_GROUPS_TARGET;
+  public String getLdapGroupsTarget() {
+    return variables().LDAP_GROUPS_TARGET;
   }
   
-  public synchronized String getLdapGroupsSearchFilter() {
-    checkCache();
-    return LDAP_GROUPS_SEARCH_FILTER;
+  public String getLdapGroupsSearchFilter() {
+    return variables().LDAP_GROUPS_SEARCH_FILTER;
   }
   
-  public synchronized String getLdapGroupMembersFilter() {
-    checkCache();
-    return LDAP_GROUP_MEMBERS_SEARCH_FILTER;
+  public String getLdapGroupMembersFilter() {
+    return variables().LDAP_GROUP_MEMBERS_SEARCH_FILTER;
   }
   
-  public synchronized String getOAuthEnabled() {
-    checkCache();
-    return OAUTH_ENABLED;
+  public String getOAuthEnabled() {
+    return variables().OAUTH_ENABLED;
   }
   
-  public synchronized  boolean isOAuthEnabled() {
-    checkCache();
-    return IS_OAUTH_ENABLED;
+  public boolean isOAuthEnabled() {
+    return variables().IS_OAUTH_ENABLED;
   }
   
-  public synchronized String getOAuthGroupMapping() {
-    checkCache();
-    return OAUTH_GROUP_MAPPING;
+  public String getOAuthGroupMapping() {
+    return variables().OAUTH_GROUP_MAPPING;
   }
   
-  public synchronized String getOauthRedirectUri() {
-    checkCache();
-    return OAUTH_REDIRECT_URI;
+  public String getOauthRedirectUri() {
+    return variables().OAUTH_REDIRECT_URI;
   }
   
-  public synchronized int getOAuthAccountStatus() {
-    checkCache();
-    return OAUTH_ACCOUNT_STATUS;
+  public int getOAuthAccountStatus() {
+    return variables().OAUTH_ACCOUNT_STATUS;
   }
   
-  public synchronized String getVarLdapAccountStatus() {
+  public String getVarLdapAccountStatus() {
     return VARIABLE_LDAP_ACCOUNT_STATUS;
   }
   
-  public synchronized String getVarLdapGroupMapping() {
+  public String getVarLdapGroupMapping() {
     return VARIABLE_LDAP_GROUP_MAPPING;
   }
   
-  public synchronized String getVarLdapUserId() {
+  public String getVarLdapUserId() {
     return VARIABLE_LDAP_USER_ID;
   }
   
-  public synchronized String getVarLdapUserGivenName() {
+  public String getVarLdapUserGivenName() {
     return VARIABLE_LDAP_USER_GIVEN_NAME;
   }
   
-  public synchronized String getVarLdapUserSurname() {
+  public String getVarLdapUserSurname() {
     return VARIABLE_LDAP_USER_SURNAME;
   }
   
-  public synchronized String getVarLdapUserMail() {
+  public String getVarLdapUserMail() {
     return VARIABLE_LDAP_USER_EMAIL;
   }
   
-  public synchronized String getVarLdapUserSearchFilter() {
+  public String getVarLdapUserSearchFilter() {
     return VARIABLE_LDAP_USER_SEARCH_FILTER;
   }
   
-  public synchronized String getVarLdapGroupSearchFilter() {
+  public String getVarLdapGroupSearchFilter() {
     return VARIABLE_LDAP_GROUP_SEARCH_FILTER;
   }
   
-  public synchronized String getVarKrbUserSearchFilter() {
+  public String getVarKrbUserSearchFilter() {
     return VARIABLE_LDAP_KRB_USER_SEARCH_FILTER;
   }
   
-  public synchronized String getVarLdapAttrBinary() {
+  public String getVarLdapAttrBinary() {
     return VARIABLE_LDAP_ATTR_BINARY;
   }
   
-  public synchronized String getVarLdapGroupTarget() {
+  public String getVarLdapGroupTarget() {
     return VARIABLE_LDAP_GROUP_TARGET;
   }
   
-  public synchronized String getVarLdapDynGroupTarget() {
+  public String getVarLdapDynGroupTarget() {
     return VARIABLE_LDAP_DYNAMIC_GROUP_TARGET;
   }
   
-  public synchronized String getVarLdapUserDN() {
+  public String getVarLdapUserDN() {
     return VARIABLE_LDAP_USERDN;
   }
   
-  public synchronized String getVarLdapGroupDN() {
+  public String getVarLdapGroupDN() {
     return VARIABLE_LDAP_GROUPDN;
   }
   
-  public synchronized  boolean isPasswordLoginDisabled() {
-    checkCache();
-    return DISABLE_PASSWORD_LOGIN;
+  public boolean isPasswordLoginDisabled() {
+    return variables().DISABLE_PASSWORD_LOGIN;
   }
   
-  public synchronized  boolean isRegistrationDisabled() {
-    checkCache();
-    return DISABLE_REGISTRATION;
+  public boolean isRegistrationDisabled() {
+    return variables().DISABLE_REGISTRATION;
   }
   
   public void updateRegistrationDisabled(boolean disable) {
     updateVariableInternal(VARIABLE_DISABLE_REGISTRATION, Boolean.toString(disable), VariablesVisibility.ADMIN);
   }
   
-  // Special flag to disable only registration UI but not the backend
-  // It is used in managed cloud when user management is MANAGED by hopsworks.ai
-  // Variable value is set during instance initialization by ec2-init
-  private boolean DISABLE_REGISTRATION_UI = false;
-  public synchronized boolean isRegistrationUIDisabled() {
-    checkCache();
-    return isRegistrationDisabled() || DISABLE_REGISTRATION_UI;
+  public boolean isRegistrationUIDisabled() {
+    return isRegistrationDisabled() || variables().DISABLE_REGISTRATION_UI;
   }
   
-  public synchronized long ldapGroupMappingSyncInterval() {
-    checkCache();
-    return LDAP_GROUP_MAPPING_SYNC_INTERVAL;
+  public long ldapGroupMappingSyncInterval() {
+    return variables().LDAP_GROUP_MAPPING_SYNC_INTERVAL;
   }
   
   
@@ -3032,38 +3361,30 @@ public class Settings implements Serializable {
   
   // Service key rotation enabled
   private static final String SERVICE_KEY_ROTATION_ENABLED_KEY = "service_key_rotation_enabled";
-  private boolean serviceKeyRotationEnabled = false;
 
-  public synchronized boolean isServiceKeyRotationEnabled() {
-    checkCache();
-    return serviceKeyRotationEnabled;
+  public boolean isServiceKeyRotationEnabled() {
+    return variables().serviceKeyRotationEnabled;
   }
 
   // Service key rotation interval
   private static final String SERVICE_KEY_ROTATION_INTERVAL_KEY = "service_key_rotation_interval";
-  private String serviceKeyRotationInterval = "3d";
 
-  public synchronized String getServiceKeyRotationInterval() {
-    checkCache();
-    return serviceKeyRotationInterval;
+  public String getServiceKeyRotationInterval() {
+    return variables().serviceKeyRotationInterval;
   }
 
  // TensorBoard kill rotation interval in milliseconds (should be lower than the TensorBoardKillTimer)
   private static final String TENSORBOARD_MAX_LAST_ACCESSED = "tensorboard_max_last_accessed";
-  private int tensorBoardMaxLastAccessed = 1140000;
 
-  public synchronized int getTensorBoardMaxLastAccessed() {
-    checkCache();
-    return tensorBoardMaxLastAccessed;
+  public int getTensorBoardMaxLastAccessed() {
+    return variables().tensorBoardMaxLastAccessed;
   }
 
   // TensorBoard kill rotation interval in milliseconds
   private static final String SPARK_UI_LOGS_OFFSET = "spark_ui_logs_offset";
-  private int sparkUILogsOffset = 512000;
 
-  public synchronized int getSparkUILogsOffset() {
-    checkCache();
-    return sparkUILogsOffset;
+  public int getSparkUILogsOffset() {
+    return variables().sparkUILogsOffset;
   }
 
   public Long getConfTimeValue(String configurationTime) {
@@ -3090,320 +3411,319 @@ public class Settings implements Serializable {
     return new HashSet<>(Splitter.on(separator).trimResults().splitToList(csv));
   }
 
-  // Libraries that should not be uninstallable
-  private Set<String> IMMUTABLE_PYTHON_LIBRARY_NAMES;
   private static final String VARIABLE_IMMUTABLE_PYTHON_LIBRARY_NAMES = "preinstalled_python_lib_names";
   private static final String DEFAULT_IMMUTABLE_PYTHON_LIBRARY_NAMES = "pydoop, pyspark, jupyterlab, sparkmagic, " +
       "hdfscontents, pyjks, hops-apache-beam, pyopenssl";
 
-  public synchronized Set<String> getImmutablePythonLibraryNames() {
-    checkCache();
-    return IMMUTABLE_PYTHON_LIBRARY_NAMES;
+  public Set<String> getImmutablePythonLibraryNames() {
+    return variables().IMMUTABLE_PYTHON_LIBRARY_NAMES;
   }
 
-  private String HOPSWORKS_VERSION;
-
-  public synchronized String getHopsworksVersion() {
-    checkCache();
-    return HOPSWORKS_VERSION;
+  public String getHopsworksVersion() {
+    return variables().HOPSWORKS_VERSION;
   }
 
-  private String TENSORFLOW_VERSION;
+  public String getTensorflowVersion() {
+    return variables().TENSORFLOW_VERSION;
+  }
 
-  public synchronized String getTensorflowVersion() {
-    checkCache();
-    return TENSORFLOW_VERSION;
+  public String getElasticVersion() {
+    return variables().ELASTIC_VERSION;
   }
 
-  private String ELASTIC_VERSION;
+  public String getKafkaVersion() {
+    return variables().KAFKA_VERSION;
+  }
 
-  public synchronized String getElasticVersion() {
-    checkCache();
-    return ELASTIC_VERSION;
+  public String getDelaVersion() {
+    return variables().DELA_VERSION;
   }
 
-  private String KAFKA_VERSION;
+  public String getEpipeVersion() {
+    return variables().EPIPE_VERSION;
+  }
 
-  public synchronized String getKafkaVersion() {
-    checkCache();
-    return KAFKA_VERSION;
+  public String getFlinkVersion() {
+    return variables().FLINK_VERSION;
   }
 
-  private String DELA_VERSION;
+  public String getSparkVersion() {
+    return variables().SPARK_VERSION;
+  }
 
-  public synchronized String getDelaVersion() {
-    checkCache();
-    return DELA_VERSION;
+  public String getTezVersion() {
+    return variables().TEZ_VERSION;
   }
 
-  private String EPIPE_VERSION;
+  public String getHive2Version() {
+    return variables().HIVE2_VERSION;
+  }
 
-  public synchronized String getEpipeVersion() {
-    checkCache();
-    return EPIPE_VERSION;
+  public String getLivyVersion() {
+    return variables().LIVY_VERSION;
   }
 
-  private String FLINK_VERSION;
+  public String getNdbVersion() {
+    return variables().NDB_VERSION;
+  }
 
-  public synchronized String getFlinkVersion() {
-    checkCache();
-    return FLINK_VERSION;
+  public String getFilebeatVersion() {
+    return variables().FILEBEAT_VERSION;
   }
 
-  private String SPARK_VERSION;
+  public String getKibanaVersion() {
+    return variables().KIBANA_VERSION;
+  }
 
-  public synchronized String getSparkVersion() {
-    checkCache();
-    return SPARK_VERSION;
+  public String getLogstashVersion() {
+    return variables().LOGSTASH_VERSION;
   }
 
-  private String TEZ_VERSION;
+  public String getGrafanaVersion() {
+    return variables().GRAFANA_VERSION;
+  }
 
-  public synchronized String getTezVersion() {
-    checkCache();
-    return TEZ_VERSION;
+  public String getZookeeperVersion() {
+    return variables().ZOOKEEPER_VERSION;
   }
 
-  private String HIVE2_VERSION;
+  // -------------------------------- Kubernetes ----------------------------------------------//
 
-  public synchronized String getHive2Version() {
-    checkCache();
-    return HIVE2_VERSION;
+  public String getKubeUser() {
+    return variables().KUBE_USER;
+  }
+  
+  public String getKubeHopsworksUser() {
+    return variables().KUBE_HOPSWORKS_USER;
   }
 
-  private String LIVY_VERSION;
+  public String getKubeMasterUrl() {
+    return variables().KUBEMASTER_URL;
+  }
 
-  public synchronized String getLivyVersion() {
-    checkCache();
-    return LIVY_VERSION;
+  public String getKubeCaCertfile() {
+    return variables().KUBE_CA_CERTFILE;
   }
 
-  private String NDB_VERSION;
+  public String getKubeClientKeyfile() {
+    return variables().KUBE_CLIENT_KEYFILE;
+  }
 
-  public synchronized String getNdbVersion() {
-    checkCache();
-    return NDB_VERSION;
+  public String getKubeClientCertfile() {
+    return variables().KUBE_CLIENT_CERTFILE;
   }
 
-  private String FILEBEAT_VERSION;
+  public String getKubeClientKeypass() {
+    return variables().KUBE_CLIENT_KEYPASS;
+  }
 
-  public synchronized String getFilebeatVersion() {
-    checkCache();
-    return FILEBEAT_VERSION;
+  public String getKubeTruststorePath() {
+    return variables().KUBE_TRUSTSTORE_PATH;
   }
 
-  private String KIBANA_VERSION;
+  public String getKubeTruststoreKey() {
+    return variables().KUBE_TRUSTSTORE_KEY;
+  }
 
-  public synchronized String getKibanaVersion() {
-    checkCache();
-    return KIBANA_VERSION;
+  public String getKubeKeystorePath() {
+    return variables().KUBE_KEYSTORE_PATH;
   }
 
-  private String LOGSTASH_VERSION;
+  public String getKubeKeystoreKey() {
+    return variables().KUBE_KEYSTORE_KEY;
+  }
 
-  public synchronized String getLogstashVersion() {
-    checkCache();
-    return LOGSTASH_VERSION;
+  public String getKubeRegistry() {
+    return variables().KUBE_REGISTRY;
   }
 
-  private String GRAFANA_VERSION;
+  public Integer getKubeMaxServingInstances() {
+    return variables().KUBE_MAX_SERVING_INSTANCES;
+  }
 
-  public synchronized String getGrafanaVersion() {
-    checkCache();
-    return GRAFANA_VERSION;
+  public Integer getKubeAPIMaxAttempts() {
+    return variables().KUBE_API_MAX_ATTEMPTS;
+  }
+  
+  
+  public Boolean isOnlineFeaturestore() {
+    return variables().ONLINE_FEATURESTORE;
   }
 
-  private String ZOOKEEPER_VERSION;
+  public String getOnlineFeatureStoreTableSpace() {
+    return variables().ONLINE_FEATURESTORE_TS;
+  }
 
-  public synchronized String getZookeeperVersion() {
-    checkCache();
-    return ZOOKEEPER_VERSION;
+  public Integer getOnlineFsThreadNumber() {
+    return variables().ONLINEFS_THREAD_NUMBER;
   }
 
-  // -------------------------------- Kubernetes ----------------------------------------------//
-  private String KUBE_USER = "kubernetes";
+  public Integer getKubeDockerMaxMemoryAllocation() {
+    return variables().KUBE_DOCKER_MAX_MEMORY_ALLOCATION;
+  }
 
-  public synchronized String getKubeUser() {
-    checkCache();
-    return KUBE_USER;
+  public Integer getKubeDockerMaxCoresAllocation() {
+    return variables().KUBE_DOCKER_MAX_CORES_ALLOCATION;
+  }
+
+  public Double getKubeDockerCoresFraction() {
+    return variables().KUBE_DOCKER_CORES_FRACTION;
   }
   
-  private String KUBE_HOPSWORKS_USER = "hopsworks";
+  public Boolean getKubeInstalled() {
+    return variables().KUBE_INSTALLED;
+  }
   
-  public synchronized String getKubeHopsworksUser() {
-    checkCache();
-    return KUBE_HOPSWORKS_USER;
+  public Boolean getKubeKFServingInstalled() {
+    return variables().KUBE_KFSERVING_INSTALLED;
   }
-
-  private String KUBEMASTER_URL = "https://192.168.68.102:6443";
-
-  public synchronized String getKubeMasterUrl() {
-    checkCache();
-    return KUBEMASTER_URL;
+  
+  public Boolean getHopsworksEnterprise() {
+    return variables().HOPSWORKS_ENTERPRISE;
   }
 
-  private String KUBE_CA_CERTFILE = "/srv/hops/certs-dir/certs/ca.cert.pem";
-
-  public synchronized String getKubeCaCertfile() {
-    checkCache();
-    return KUBE_CA_CERTFILE;
+  public String getServingMonitorInt() {
+    return variables().SERVING_MONITOR_INT;
   }
 
-  private String KUBE_CLIENT_KEYFILE = "/srv/hops/certs-dir/kube/hopsworks/hopsworks.key.pem";
+  public int getServingMonitorParallelism() {
+    return variables().SERVING_MONITOR_PARALLELISM;
+  }
 
-  public synchronized String getKubeClientKeyfile() {
-    checkCache();
-    return KUBE_CLIENT_KEYFILE;
+  public int getServingConnectionPoolSize() {
+    return variables().SERVING_CONNECTION_POOL_SIZE;
   }
 
-  private String KUBE_CLIENT_CERTFILE = "/srv/hops/certs-dir/kube/hopsworks/hopsworks.cert.pem";
+  public int getServingMaxRouteConnections() {
+    return variables().SERVING_MAX_ROUTE_CONNECTIONS;
+  }
 
-  public synchronized String getKubeClientCertfile() {
-    checkCache();
-    return KUBE_CLIENT_CERTFILE;
+  public int getServingEndpointCacheTTL() {
+    return variables().SERVING_ENDPOINT_CACHE_TTL;
   }
 
-  private String KUBE_CLIENT_KEYPASS = "adminpw";
+  public int getServingBatchWindowMs() {
+    return variables().SERVING_BATCH_WINDOW_MS;
+  }
 
-  public synchronized String getKubeClientKeypass() {
-    checkCache();
-    return KUBE_CLIENT_KEYPASS;
+  public int getServingMaxBatchSize() {
+    return variables().SERVING_MAX_BATCH_SIZE;
   }
 
-  private String KUBE_TRUSTSTORE_PATH = "/srv/hops/certs-dir/kube/hopsworks/hopsworks__tstore.jks";
+  public int getServingInferenceThreads() {
+    return variables().SERVING_INFERENCE_THREADS;
+  }
 
-  public synchronized String getKubeTruststorePath() {
-    checkCache();
-    return KUBE_TRUSTSTORE_PATH;
+  public int getServingInferenceQueueSize() {
+    return variables().SERVING_INFERENCE_QUEUE_SIZE;
   }
 
-  private String KUBE_TRUSTSTORE_KEY = "adminpw";
+  public int getTensorBoardMaxReloadThreads() {
+    return variables().TENSORBOARD_MAX_RELOAD_THREADS;
+  }
 
-  public synchronized String getKubeTruststoreKey() {
-    checkCache();
-    return KUBE_TRUSTSTORE_KEY;
+  public int getMLListingParallelism() {
+    return variables().ML_LISTING_PARALLELISM;
   }
 
-  private String KUBE_KEYSTORE_PATH = "/srv/hops/certs-dir/kube/hopsworks/hopsworks__kstore.jks";
+  public int getAuthorizationCacheTTL() {
+    return variables().AUTHZ_CACHE_TTL;
+  }
 
-  public synchronized String getKubeKeystorePath() {
-    checkCache();
-    return KUBE_KEYSTORE_PATH;
+  public int getAuthorizationCacheMaxSize() {
+    return variables().AUTHZ_CACHE_MAX_SIZE;
   }
 
-  private String KUBE_KEYSTORE_KEY = "adminpw";
+  public int getProxyAuthorizationCacheTTL() {
+    return variables().PROXY_AUTHZ_CACHE_TTL;
+  }
 
-  public synchronized String getKubeKeystoreKey() {
-    checkCache();
-    return KUBE_KEYSTORE_KEY;
+  public int getProxyMaxConnections() {
+    return variables().PROXY_MAX_CONNECTIONS;
   }
 
-  private String KUBE_REGISTRY = "registry.docker-registry.svc.cluster.local";
+  public int getProxyMaxConnectionsPerTarget() {
+    return variables().PROXY_MAX_CONNECTIONS_PER_TARGET;
+  }
 
-  public synchronized String getKubeRegistry() {
-    checkCache();
-    return KUBE_REGISTRY;
+  public int getProxyConnectionRequestTimeout() {
+    return variables().PROXY_CONNECTION_REQUEST_TIMEOUT;
   }
 
-  private Integer KUBE_MAX_SERVING_INSTANCES = 10;
+  public int getProxyMaxExchanges() {
+    return variables().PROXY_MAX_EXCHANGES;
+  }
 
-  public synchronized Integer getKubeMaxServingInstances() {
-    checkCache();
-    return KUBE_MAX_SERVING_INSTANCES;
+  public int getFlinkMasterAddrRefreshInterval() {
+    return variables().FLINK_MASTER_ADDR_REFRESH_INTERVAL;
   }
 
-  private Integer KUBE_API_MAX_ATTEMPTS = 12;
-  public synchronized Integer getKubeAPIMaxAttempts() {
-    checkCache();
-    return KUBE_API_MAX_ATTEMPTS;
+  public long getJobSchedulerMisfireThreshold() {
+    return variables().JOB_SCHEDULER_MISFIRE_THRESHOLD;
   }
-  
-  
-  private Boolean ONLINE_FEATURESTORE = false;
-  
-  public synchronized Boolean isOnlineFeaturestore() {
-    checkCache();
-    return ONLINE_FEATURESTORE;
+
+  public String getJobSchedulerMissedFirePolicy() {
+    return variables().JOB_SCHEDULER_MISSED_FIRE_POLICY;
   }
 
-  private String ONLINE_FEATURESTORE_TS = "";
-  public synchronized String getOnlineFeatureStoreTableSpace() {
-    checkCache();
-    return ONLINE_FEATURESTORE_TS;
+  public int getJobSchedulerParallelism() {
+    return variables().JOB_SCHEDULER_PARALLELISM;
   }
 
-  private Integer ONLINEFS_THREAD_NUMBER = 10;
-  public synchronized  Integer getOnlineFsThreadNumber() {
-    checkCache();
-    return ONLINEFS_THREAD_NUMBER;
+  public int getYarnLocalizationCacheTTL() {
+    return variables().YARN_LOCALIZATION_CACHE_TTL;
   }
 
-  private Integer KUBE_DOCKER_MAX_MEMORY_ALLOCATION = 8192;
-  public synchronized Integer getKubeDockerMaxMemoryAllocation() {
-    checkCache();
-    return KUBE_DOCKER_MAX_MEMORY_ALLOCATION;
+  public int getYarnLocalizationCacheMaxSize() {
+    return variables().YARN_LOCALIZATION_CACHE_MAX_SIZE;
   }
 
-  private Integer KUBE_DOCKER_MAX_CORES_ALLOCATION = 4;
-  public synchronized Integer getKubeDockerMaxCoresAllocation() {
-    checkCache();
-    return KUBE_DOCKER_MAX_CORES_ALLOCATION;
+  public int getYarnLocalizationStatParallelism() {
+    return variables().YARN_LOCALIZATION_STAT_PARALLELISM;
   }
 
-  private Double KUBE_DOCKER_CORES_FRACTION = 1.0;
-  public synchronized Double getKubeDockerCoresFraction() {
-    checkCache();
-    return KUBE_DOCKER_CORES_FRACTION;
+  public int getPermissionsReconciliationParallelism() {
+    return variables().PERMISSIONS_RECONCILIATION_PARALLELISM;
   }
-  
-  private Boolean KUBE_INSTALLED = false;
-  public synchronized Boolean getKubeInstalled() {
-    checkCache();
-    return KUBE_INSTALLED;
+
+  public int getCompressionParallelism() {
+    return variables().COMPRESSION_PARALLELISM;
   }
-  
-  private Boolean KUBE_KFSERVING_INSTALLED = false;
-  public synchronized Boolean getKubeKFServingInstalled() {
-    checkCache();
-    return KUBE_KFSERVING_INSTALLED;
+
+  public long getUnzipMaxSize() {
+    return variables().UNZIP_MAX_SIZE;
   }
-  
-  private Boolean HOPSWORKS_ENTERPRISE = false;
-  public synchronized Boolean getHopsworksEnterprise() {
-    checkCache();
-    return HOPSWORKS_ENTERPRISE;
+
+  public int getUnzipMaxEntries() {
+    return variables().UNZIP_MAX_ENTRIES;
   }
 
-  private String SERVING_MONITOR_INT = "30s";
+  public int getUnzipMaxCompressionRatio() {
+    return variables().UNZIP_MAX_COMPRESSION_RATIO;
+  }
 
-  public synchronized String getServingMonitorInt() {
-    checkCache();
-    return SERVING_MONITOR_INT;
+  public int getAlertDispatchQueueSize() {
+    return variables().ALERT_DISPATCH_QUEUE_SIZE;
   }
 
-  private int SERVING_CONNECTION_POOL_SIZE = 40;
-  public synchronized int getServingConnectionPoolSize() {
-    checkCache();
-    return SERVING_CONNECTION_POOL_SIZE;
+  public int getAlertDispatchBatchSize() {
+    return variables().ALERT_DISPATCH_BATCH_SIZE;
   }
 
-  private int SERVING_MAX_ROUTE_CONNECTIONS = 10;
-  public synchronized int getServingMaxRouteConnections() {
-    checkCache();
-    return SERVING_MAX_ROUTE_CONNECTIONS;
+  public int getAlertDispatchMaxRetries() {
+    return variables().ALERT_DISPATCH_MAX_RETRIES;
   }
 
-  private int TENSORBOARD_MAX_RELOAD_THREADS = 1;
-  public synchronized int getTensorBoardMaxReloadThreads() {
-    checkCache();
-    return TENSORBOARD_MAX_RELOAD_THREADS;
+  public long getAlertDispatchBackoffMs() {
+    return variables().ALERT_DISPATCH_BACKOFF_MS;
   }
 
-  private String JUPYTER_HOST = "localhost";
+  public long getAlertDedupWindowMs() {
+    return variables().ALERT_DEDUP_WINDOW_MS;
+  }
 
-  public synchronized String getJupyterHost() {
-    checkCache();
-    return JUPYTER_HOST;
+  public String getJupyterHost() {
+    return variables().JUPYTER_HOST;
   }
 
   //These dependencies were collected by installing jupyterlab in a new environment
@@ -3415,76 +3735,57 @@ public class Settings implements Serializable {
       "packaging, webencodings, bleach, testpath, nbformat, nest-asyncio, async-generator, nbclient, nbconvert, " +
       "notebook, json5, jupyterlab-server, jupyterlab, sparkmagic";
 
-  public synchronized List<String> getJupyterDependencies() {
+  public List<String> getJupyterDependencies() {
     checkCache();
     List<String> dependencies = new ArrayList<>(Arrays.asList(JUPYTER_DEPENDENCIES.split(",")));
     dependencies = dependencies.stream().map(x -> x.trim()).collect(Collectors.toList());
     return dependencies;
   }
   
-  private String JWT_SIGNATURE_ALGORITHM = "HS512";
-  private String JWT_SIGNING_KEY_NAME = "apiKey";
-  private String JWT_ISSUER = "hopsworks@logicalclocks.com";
-
-  private long JWT_LIFETIME_MS = 1800000l;
-  private int JWT_EXP_LEEWAY_SEC = 900;
-
-  private long SERVICE_JWT_LIFETIME_MS = 86400000l;
-  private int SERVICE_JWT_EXP_LEEWAY_SEC = 43200;
-
-  public synchronized String getJWTSignatureAlg() {
-    checkCache();
-    return JWT_SIGNATURE_ALGORITHM;
+  public String getJWTSignatureAlg() {
+    return variables().JWT_SIGNATURE_ALGORITHM;
   }
 
-  public synchronized long getJWTLifetimeMs() {
-    checkCache();
-    return JWT_LIFETIME_MS;
+  public long getJWTLifetimeMs() {
+    return variables().JWT_LIFETIME_MS;
   }
 
-  public synchronized int getJWTExpLeewaySec() {
-    checkCache();
-    return JWT_EXP_LEEWAY_SEC;
+  public int getJWTExpLeewaySec() {
+    return variables().JWT_EXP_LEEWAY_SEC;
   }
 
-  public synchronized long getServiceJWTLifetimeMS() {
-    checkCache();
-    return SERVICE_JWT_LIFETIME_MS;
+  public long getServiceJWTLifetimeMS() {
+    return variables().SERVICE_JWT_LIFETIME_MS;
   }
 
-  public synchronized int getServiceJWTExpLeewaySec() {
-    checkCache();
-    return SERVICE_JWT_EXP_LEEWAY_SEC;
+  public int getServiceJWTExpLeewaySec() {
+    return variables().SERVICE_JWT_EXP_LEEWAY_SEC;
   }
 
-  public synchronized String getJWTSigningKeyName() {
-    checkCache();
-    return JWT_SIGNING_KEY_NAME;
+  public String getJWTSigningKeyName() {
+    return variables().JWT_SIGNING_KEY_NAME;
   }
 
-  public synchronized String getJWTIssuer() {
-    checkCache();
-    return JWT_ISSUER;
+  public String getJWTIssuer() {
+    return variables().JWT_ISSUER;
   }
 
-  private String SERVICE_MASTER_JWT = "";
-  public synchronized String getServiceMasterJWT() {
-    checkCache();
-    return SERVICE_MASTER_JWT;
+  public String getServiceMasterJWT() {
+    return variables().SERVICE_MASTER_JWT;
   }
 
   public synchronized void setServiceMasterJWT(String JWT) {
     updateVariableInternal(VARIABLE_SERVICE_MASTER_JWT, JWT, VariablesVisibility.ADMIN);
     em.flush();
-    SERVICE_MASTER_JWT = JWT;
+    VariablesSnapshot next = nextVariables();
+    next.SERVICE_MASTER_JWT = JWT;
+    snapshot = next;
   }
 
   private final int NUM_OF_SERVICE_RENEW_TOKENS = 5;
   private final static String SERVICE_RENEW_TOKEN_VARIABLE_TEMPLATE = "service_renew_token_%d";
-  private String[] RENEW_TOKENS = new String[0];
-  public synchronized String[] getServiceRenewJWTs() {
-    checkCache();
-    return RENEW_TOKENS;
+  public String[] getServiceRenewJWTs() {
+    return variables().RENEW_TOKENS;
   }
 
   public synchronized void setServiceRenewJWTs(String[] renewTokens) {
@@ -3492,74 +3793,55 @@ public class Settings implements Serializable {
       String variableKey = String.format(SERVICE_RENEW_TOKEN_VARIABLE_TEMPLATE, i);
       updateVariableInternal(variableKey, renewTokens[i], VariablesVisibility.ADMIN);
     }
-    RENEW_TOKENS = renewTokens;
+    VariablesSnapshot next = nextVariables();
+    next.RENEW_TOKENS = renewTokens;
+    snapshot = next;
   }
 
-  private int CONNECTION_KEEPALIVE_TIMEOUT = 30;
-  public synchronized int getConnectionKeepAliveTimeout() {
-    checkCache();
-    return CONNECTION_KEEPALIVE_TIMEOUT;
+  public int getConnectionKeepAliveTimeout() {
+    return variables().CONNECTION_KEEPALIVE_TIMEOUT;
   }
 
   private int MAGGY_CLEANUP_INTERVAL = 24 * 60 * 1000;
-  public synchronized int getMaggyCleanupInterval() {
+  public int getMaggyCleanupInterval() {
     checkCache();
     return MAGGY_CLEANUP_INTERVAL;
   }
 
-  private String HIVE_CONF_PATH = "/srv/hops/apache-hive/conf/hive-site.xml";
-  public synchronized String getHiveConfPath() {
-    checkCache();
-    return HIVE_CONF_PATH;
+  public String getHiveConfPath() {
+    return variables().HIVE_CONF_PATH;
   }
 
-  private String FS_JOB_UTIL_PATH = "hdfs:///user/spark/hsfs_util-2.1.0-SNAPSHOT.py";
-  public synchronized String getFSJobUtilPath() {
-    checkCache();
-    return FS_JOB_UTIL_PATH;
+  public String getFSJobUtilPath() {
+    return variables().FS_JOB_UTIL_PATH;
   }
 
-  private long FEATURESTORE_DB_DEFAULT_QUOTA = -1;
-  public synchronized long getFeaturestoreDbDefaultQuota() {
-    checkCache();
-    return FEATURESTORE_DB_DEFAULT_QUOTA;
+  public long getFeaturestoreDbDefaultQuota() {
+    return variables().FEATURESTORE_DB_DEFAULT_QUOTA;
   }
 
-  private String FEATURESTORE_DB_DEFAULT_STORAGE_FORMAT = "ORC";
-
-  public synchronized String getFeaturestoreDbDefaultStorageFormat() {
-    checkCache();
-    return FEATURESTORE_DB_DEFAULT_STORAGE_FORMAT;
+  public String getFeaturestoreDbDefaultStorageFormat() {
+    return variables().FEATURESTORE_DB_DEFAULT_STORAGE_FORMAT;
   }
 
-  private Boolean LOCALHOST = false;
-
-  public synchronized Boolean isLocalHost() {
-    checkCache();
-    return LOCALHOST;
+  public Boolean isLocalHost() {
+    return variables().LOCALHOST;
   }
 
-  private String CLOUD = "";
-
-  public synchronized String getCloudProvider() {
-    checkCache();
-    return CLOUD;
+  public String getCloudProvider() {
+    return variables().CLOUD;
   }
 
   public Boolean isCloud() {
     return !getCloudProvider().isEmpty();
   }
 
-  private boolean IAM_ROLE_CONFIGURED = false;
-  public synchronized boolean isIAMRoleConfigured() {
-    checkCache();
-    return IAM_ROLE_CONFIGURED;
+  public boolean isIAMRoleConfigured() {
+    return variables().IAM_ROLE_CONFIGURED;
   }
 
-  private String CLOUD_TYPE = CLOUD_TYPES.NONE.name();
-  public synchronized CLOUD_TYPES getCloudType() {
-    checkCache();
-    return CLOUD_TYPES.valueOf(CLOUD_TYPE.toUpperCase());
+  public CLOUD_TYPES getCloudType() {
+    return CLOUD_TYPES.valueOf(variables().CLOUD_TYPE.toUpperCase());
   }
 
   public static enum CLOUD_TYPES {
@@ -3573,34 +3855,24 @@ public class Settings implements Serializable {
     return isCloud() || isLocalHost();
   }
   
-  private String FEATURESTORE_JDBC_URL = "jdbc:mysql://" + HOPSWORKS_IP + ":3306/";
-  
-  public synchronized String getFeaturestoreJdbcUrl() {
-    checkCache();
-    return FEATURESTORE_JDBC_URL;
+  public String getFeaturestoreJdbcUrl() {
+    return variables().FEATURESTORE_JDBC_URL;
   }
   
-  private Boolean REQUESTS_VERIFY = false;
-  
   /**
    * Whether to verify HTTP requests in hops-util-py. Accepted values are "true", "false"
    *
    */
-  public synchronized Boolean getRequestsVerify() {
-    checkCache();
-    return REQUESTS_VERIFY;
+  public Boolean getRequestsVerify() {
+    return variables().REQUESTS_VERIFY;
   }
   
-  private  Boolean KIBANA_HTTPS_ENABELED = false;
-  public synchronized Boolean isKibanaHTTPSEnabled() {
-    checkCache();
-    return KIBANA_HTTPS_ENABELED;
+  public Boolean isKibanaHTTPSEnabled() {
+    return variables().KIBANA_HTTPS_ENABELED;
   }
   
-  private  Boolean KIBANA_MULTI_TENANCY_ENABELED = false;
-  public synchronized Boolean isKibanaMultiTenancyEnabled() {
-    checkCache();
-    return KIBANA_MULTI_TENANCY_ENABELED;
+  public Boolean isKibanaMultiTenancyEnabled() {
+    return variables().KIBANA_MULTI_TENANCY_ENABELED;
   }
   
   public static final int ELASTIC_KIBANA_NO_CONNECTIONS = 5;
@@ -3611,14 +3883,13 @@ public class Settings implements Serializable {
   private static final String VARIABLE_PROVENANCE_ARCHIVE_DELAY = "provenance_archive_delay";
   private static final String VARIABLE_PROVENANCE_CLEANUP_SIZE = "provenance_cleanup_size";
   private static final String VARIABLE_PROVENANCE_CLEANER_PERIOD = "provenance_cleaner_period";
+  private static final String VARIABLE_PROVENANCE_INDEX_ROLLOVER_AGE = "provenance_index_rollover_age";
+  private static final String VARIABLE_PROVENANCE_INDEX_ROLLOVER_SIZE = "provenance_index_rollover_size";
+  private static final String VARIABLE_PROVENANCE_INDEX_RETENTION = "provenance_index_retention";
   
   public static final String PROV_FILE_INDEX_SUFFIX = "__file_prov";
-  private Provenance.Type PROVENANCE_TYPE = Provenance.Type.MIN;
-  private String PROVENANCE_TYPE_S = PROVENANCE_TYPE.name();
-  private Integer PROVENANCE_CLEANUP_SIZE = 5;
-  private Integer PROVENANCE_ARCHIVE_SIZE = 100;
-  private Long PROVENANCE_CLEANER_PERIOD = 3600L; //1h in s
-  private Long PROVENANCE_ARCHIVE_DELAY = 0l;
+  //Keeps the __file_prov suffix so that the index templates and wildcards of the file provenance indices match it
+  public static final String PROV_FILE_OPS_INDEX_SUFFIX = "_ops" + PROV_FILE_INDEX_SUFFIX;
   private Integer PROVENANCE_ELASTIC_ARCHIVAL_PAGE_SIZE = 50;
   public static final Integer PROVENANCE_ELASTIC_PAGE_DEFAULT_SIZE = 1000;
   
@@ -3626,211 +3897,192 @@ public class Settings implements Serializable {
     return projectIId.toString() + Settings.PROV_FILE_INDEX_SUFFIX;
   }
   
-  private void populateProvenanceCache() {
-    PROVENANCE_TYPE_S = setStrVar(VARIABLE_PROVENANCE_TYPE, PROVENANCE_TYPE_S);
+  private void populateProvenanceCache(VariablesSnapshot next) {
+    next.PROVENANCE_TYPE_S = setStrVar(VARIABLE_PROVENANCE_TYPE, next.PROVENANCE_TYPE_S);
     try {
-      PROVENANCE_TYPE = ProvTypeDTO.provTypeFromString(PROVENANCE_TYPE_S);
+      next.PROVENANCE_TYPE = ProvTypeDTO.provTypeFromString(next.PROVENANCE_TYPE_S);
     } catch(ProvenanceException e) {
-      LOGGER.log(Level.WARNING, "unknown prov type:" + PROVENANCE_TYPE_S + ", using default");
-      PROVENANCE_TYPE = Provenance.Type.MIN;
-      PROVENANCE_TYPE_S = PROVENANCE_TYPE.name();
+      LOGGER.log(Level.WARNING, "unknown prov type:" + next.PROVENANCE_TYPE_S + ", using default");
+      next.PROVENANCE_TYPE = Provenance.Type.MIN;
+      next.PROVENANCE_TYPE_S = next.PROVENANCE_TYPE.name();
     }
-    PROVENANCE_ARCHIVE_SIZE = setIntVar(VARIABLE_PROVENANCE_ARCHIVE_SIZE, PROVENANCE_ARCHIVE_SIZE);
-    PROVENANCE_ARCHIVE_DELAY = setLongVar(VARIABLE_PROVENANCE_ARCHIVE_DELAY, PROVENANCE_ARCHIVE_DELAY);
-    PROVENANCE_CLEANUP_SIZE = setIntVar(VARIABLE_PROVENANCE_CLEANUP_SIZE, PROVENANCE_CLEANUP_SIZE);
-    PROVENANCE_CLEANER_PERIOD = setLongVar(VARIABLE_PROVENANCE_CLEANER_PERIOD, PROVENANCE_CLEANER_PERIOD);
+    next.PROVENANCE_ARCHIVE_SIZE = setIntVar(VARIABLE_PROVENANCE_ARCHIVE_SIZE, next.PROVENANCE_ARCHIVE_SIZE);
+    next.PROVENANCE_ARCHIVE_DELAY = setLongVar(VARIABLE_PROVENANCE_ARCHIVE_DELAY, next.PROVENANCE_ARCHIVE_DELAY);
+    next.PROVENANCE_CLEANUP_SIZE = setIntVar(VARIABLE_PROVENANCE_CLEANUP_SIZE, next.PROVENANCE_CLEANUP_SIZE);
+    next.PROVENANCE_CLEANER_PERIOD = setLongVar(VARIABLE_PROVENANCE_CLEANER_PERIOD, next.PROVENANCE_CLEANER_PERIOD);
+    next.PROVENANCE_INDEX_ROLLOVER_AGE = setLongVar(VARIABLE_PROVENANCE_INDEX_ROLLOVER_AGE,
+        next.PROVENANCE_INDEX_ROLLOVER_AGE);
+    next.PROVENANCE_INDEX_ROLLOVER_SIZE = setLongVar(VARIABLE_PROVENANCE_INDEX_ROLLOVER_SIZE,
+      next.PROVENANCE_INDEX_ROLLOVER_SIZE);
+    next.PROVENANCE_INDEX_RETENTION = setLongVar(VARIABLE_PROVENANCE_INDEX_RETENTION, next.PROVENANCE_INDEX_RETENTION);
   }
   
-  public synchronized Provenance.Type getProvType() {
-    checkCache();
-    return PROVENANCE_TYPE;
+  public Provenance.Type getProvType() {
+    return variables().PROVENANCE_TYPE;
   }
   
-  public synchronized Integer getProvArchiveSize() {
-    checkCache();
-    return PROVENANCE_ARCHIVE_SIZE;
+  public Integer getProvArchiveSize() {
+    return variables().PROVENANCE_ARCHIVE_SIZE;
   }
   
   public synchronized void setProvArchiveSize(Integer size) {
-    if(!PROVENANCE_ARCHIVE_SIZE.equals(size)) {
+    if(!variables().PROVENANCE_ARCHIVE_SIZE.equals(size)) {
       em.merge(new Variables(VARIABLE_PROVENANCE_ARCHIVE_SIZE, size.toString()));
-      PROVENANCE_ARCHIVE_SIZE = size;
+      VariablesSnapshot next = nextVariables();
+      next.PROVENANCE_ARCHIVE_SIZE = size;
+      bumpVariablesVersion();
+      snapshot = next;
     }
   }
   
-  public synchronized Long getProvArchiveDelay() {
-    checkCache();
-    return PROVENANCE_ARCHIVE_DELAY;
+  public Long getProvArchiveDelay() {
+    return variables().PROVENANCE_ARCHIVE_DELAY;
   }
   
   public synchronized void setProvArchiveDelay(Long delay) {
-    if(!PROVENANCE_ARCHIVE_DELAY.equals(delay)) {
+    if(!variables().PROVENANCE_ARCHIVE_DELAY.equals(delay)) {
       em.merge(new Variables(VARIABLE_PROVENANCE_ARCHIVE_DELAY, delay.toString()));
-      PROVENANCE_ARCHIVE_DELAY = delay;
+      VariablesSnapshot next = nextVariables();
+      next.PROVENANCE_ARCHIVE_DELAY = delay;
+      bumpVariablesVersion();
+      snapshot = next;
     }
   }
   
-  public synchronized Integer getProvCleanupSize() {
-    checkCache();
-    return PROVENANCE_CLEANUP_SIZE;
+  public Integer getProvCleanupSize() {
+    return variables().PROVENANCE_CLEANUP_SIZE;
   }
   
-  public synchronized Integer getProvElasticArchivalPageSize() {
+  public Integer getProvElasticArchivalPageSize() {
     checkCache();
     return PROVENANCE_ELASTIC_ARCHIVAL_PAGE_SIZE;
   }
   
-  public synchronized Long getProvCleanerPeriod() {
-    checkCache();
-    return PROVENANCE_CLEANER_PERIOD;
+  public Long getProvCleanerPeriod() {
+    return variables().PROVENANCE_CLEANER_PERIOD;
   }
   
   public synchronized void setProvCleanerPeriod(Long period) {
-    if(!PROVENANCE_CLEANER_PERIOD.equals(period)) {
+    if(!variables().PROVENANCE_CLEANER_PERIOD.equals(period)) {
       em.merge(new Variables(VARIABLE_PROVENANCE_CLEANER_PERIOD, period.toString()));
-      PROVENANCE_CLEANER_PERIOD = period;
+      VariablesSnapshot next = nextVariables();
+      next.PROVENANCE_CLEANER_PERIOD = period;
+      bumpVariablesVersion();
+      snapshot = next;
     }
   }
+  
+  public Long getProvIndexRolloverAge() {
+    return variables().PROVENANCE_INDEX_ROLLOVER_AGE;
+  }
+  
+  public Long getProvIndexRolloverSize() {
+    return variables().PROVENANCE_INDEX_ROLLOVER_SIZE;
+  }
+  
+  public Long getProvIndexRetention() {
+    return variables().PROVENANCE_INDEX_RETENTION;
+  }
   //------------------------------ END PROVENANCE --------------------------------------------//
   
   // CLOUD
-  private String CLOUD_EVENTS_ENDPOINT = "";
   
-  public synchronized String getCloudEventsEndPoint() {
-    checkCache();
-    return CLOUD_EVENTS_ENDPOINT;
+  public String getCloudEventsEndPoint() {
+    return variables().CLOUD_EVENTS_ENDPOINT;
   }
   
-  private String CLOUD_EVENTS_ENDPOINT_API_KEY = "";
-  
-  public synchronized String getCloudEventsEndPointAPIKey() {
-    checkCache();
-    return CLOUD_EVENTS_ENDPOINT_API_KEY;
+  public String getCloudEventsEndPointAPIKey() {
+    return variables().CLOUD_EVENTS_ENDPOINT_API_KEY;
   }
 
-  private int FG_PREVIEW_LIMIT = 100;
-  public synchronized int getFGPreviewLimit() {
-    checkCache();
-    return FG_PREVIEW_LIMIT;
+  public int getFGPreviewLimit() {
+    return variables().FG_PREVIEW_LIMIT;
   }
 
   public static final String FEATURESTORE_INDEX = "featurestore";
   public static final String FEATURESTORE_PROJECT_ID_FIELD = "project_id";
 
   //-----------------------------YARN DOCKER-------------------------------------------------//
-  private static String YARN_RUNTIME = "docker";
   
-  public synchronized String getYarnRuntime(){
-    checkCache();
-    return YARN_RUNTIME;
+  public String getYarnRuntime(){
+    return variables().YARN_RUNTIME;
   }
 
   //----------------------------YARN NODEMANAGER--------------------------------------------//
-  private boolean checkNodemanagersStatus = false;
-  public synchronized boolean isCheckingForNodemanagerStatusEnabled() {
-    checkCache();
-    return checkNodemanagersStatus;
+  public boolean isCheckingForNodemanagerStatusEnabled() {
+    return variables().checkNodemanagersStatus;
   }
 
-  private static String DOCKER_MOUNTS = 
-      "/srv/hops/hadoop/etc/hadoop,/srv/hops/spark,/srv/hops/flink";
-  
-  public synchronized String getDockerMounts() {
-    checkCache();
+  public String getDockerMounts() {
     String result = "";
-    for(String mountPoint: DOCKER_MOUNTS.split(",")){
+    for(String mountPoint: variables().DOCKER_MOUNTS.split(",")){
       result += mountPoint + ":" + mountPoint + ":ro,";
     }
     return result.substring(0, result.length() - 1);
   }
 
-  private String DOCKER_BASE_IMAGE_PYTHON_NAME = "python38";
-
-  public synchronized String getBaseDockerImagePythonName() {
-    checkCache();
+  public String getBaseDockerImagePythonName() {
+    VariablesSnapshot variables = variables();
     if(isManagedDockerRegistry()){
-      return DOCKER_BASE_NON_PYTHON_IMAGE + ":" + DOCKER_BASE_IMAGE_PYTHON_NAME +
-          "_" + HOPSWORKS_VERSION;
+      return DOCKER_BASE_NON_PYTHON_IMAGE + ":" + variables.DOCKER_BASE_IMAGE_PYTHON_NAME +
+          "_" + variables.HOPSWORKS_VERSION;
     }else{
-      return DOCKER_BASE_IMAGE_PYTHON_NAME + ":" + HOPSWORKS_VERSION;
+      return variables.DOCKER_BASE_IMAGE_PYTHON_NAME + ":" + variables.HOPSWORKS_VERSION;
     }
   }
 
-  private String DOCKER_BASE_IMAGE_PYTHON_VERSION = "3.7";
-
-  public synchronized String getDockerBaseImagePythonVersion() {
-    checkCache();
-    return DOCKER_BASE_IMAGE_PYTHON_VERSION;
+  public String getDockerBaseImagePythonVersion() {
+    return variables().DOCKER_BASE_IMAGE_PYTHON_VERSION;
   }
 
   private final static String DOCKER_BASE_NON_PYTHON_IMAGE = "base";
-  public synchronized String getBaseNonPythonDockerImage() {
-    return DOCKER_BASE_NON_PYTHON_IMAGE + ":" + HOPSWORKS_VERSION;
+  public String getBaseNonPythonDockerImage() {
+    return DOCKER_BASE_NON_PYTHON_IMAGE + ":" + variables().HOPSWORKS_VERSION;
   }
 
-  private long YARN_APP_UID = 1235L;
   public long getYarnAppUID() {
-    checkCache();
-    return YARN_APP_UID;
+    return variables().YARN_APP_UID;
   }
   //-----------------------------END YARN DOCKER-------------------------------------------------//
   
-  private KubeType KUBE_TYPE = KubeType.Local;
-  public synchronized KubeType getKubeType() {
-    checkCache();
-    return KUBE_TYPE;
+  public KubeType getKubeType() {
+    return variables().KUBE_TYPE;
   }
   
-  private String DOCKER_NAMESPACE = "";
-  public synchronized String getDockerNamespace(){
-    checkCache();
-    return DOCKER_NAMESPACE;
+  public String getDockerNamespace(){
+    return variables().DOCKER_NAMESPACE;
   }
   
-  private Boolean MANAGED_DOCKER_REGISTRY = false;
-  public synchronized Boolean isManagedDockerRegistry(){
-    checkCache();
-    return MANAGED_DOCKER_REGISTRY && isCloud();
+  public Boolean isManagedDockerRegistry(){
+    return variables().MANAGED_DOCKER_REGISTRY && isCloud();
   }
   
-  public synchronized String getBaseNonPythonDockerImageWithNoTag(){
+  public String getBaseNonPythonDockerImageWithNoTag(){
     checkCache();
     return DOCKER_BASE_NON_PYTHON_IMAGE;
   }
 
-  private String DOCKER_JOB_MOUNTS_LIST;
-  public synchronized List<String> getDockerMountsList(){
-    checkCache();
-    return Arrays.asList(DOCKER_JOB_MOUNTS_LIST.split(","));
+  public List<String> getDockerMountsList(){
+    return Arrays.asList(variables().DOCKER_JOB_MOUNTS_LIST.split(","));
   }
 
-  private Boolean DOCKER_JOB_MOUNT_ALLOWED = true;
-  public synchronized Boolean isDockerJobMountAllowed(){
-    checkCache();
-    return DOCKER_JOB_MOUNT_ALLOWED;
+  public Boolean isDockerJobMountAllowed(){
+    return variables().DOCKER_JOB_MOUNT_ALLOWED;
   }
 
-  private Boolean DOCKER_JOB_UID_STRICT = true;
-  public synchronized Boolean isDockerJobUidStrict(){
-    checkCache();
-    return DOCKER_JOB_UID_STRICT;
+  public Boolean isDockerJobUidStrict(){
+    return variables().DOCKER_JOB_UID_STRICT;
   }
 
-  private int MAX_ENV_YML_BYTE_SIZE = 20000;
-  public synchronized int getMaxEnvYmlByteSize() {
-    checkCache();
-    return MAX_ENV_YML_BYTE_SIZE;
+  public int getMaxEnvYmlByteSize() {
+    return variables().MAX_ENV_YML_BYTE_SIZE;
   }
   
-  private int LIVY_STARTUP_TIMEOUT = 240;
-  public synchronized int getLivyStartupTimeout() {
-    checkCache();
-    return LIVY_STARTUP_TIMEOUT;
+  public int getLivyStartupTimeout() {
+    return variables().LIVY_STARTUP_TIMEOUT;
   }
   
-  private boolean USER_SEARCH_ENABLED = true;
-  public synchronized boolean isUserSearchEnabled() {
-    checkCache();
-    return USER_SEARCH_ENABLED;
+  public boolean isUserSearchEnabled() {
+    return variables().USER_SEARCH_ENABLED;
   }
 }
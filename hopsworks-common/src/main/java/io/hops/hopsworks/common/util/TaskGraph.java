@@ -0,0 +1,232 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2021, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.common.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Set of named steps with dependencies between them. A step is started as soon as all the steps it depends on have
+ * finished, so independent steps run in parallel on the executor. If a step fails no new step is started, the
+ * running ones are waited for and then the compensation of every step that ran, the failed ones included, is run in
+ * the calling thread in reverse order of completion. A compensation must therefore cope with a step that did only
+ * part of its work.
+ */
+public class TaskGraph {
+
+  private static final Logger LOGGER = Logger.getLogger(TaskGraph.class.getName());
+
+  @FunctionalInterface
+  public interface Action {
+    void run() throws Exception;
+  }
+
+  /**
+   * Notified from the thread running the step.
+   */
+  public interface Listener {
+    void started(String step);
+
+    void finished(String step, long durationMs);
+
+    void failed(String step, long durationMs, Exception cause);
+
+    void compensated(String step);
+  }
+
+  private final Map<String, Step> steps = new LinkedHashMap<>();
+
+  public TaskGraph add(String name, Action action, String... dependsOn) {
+    return add(name, action, null, dependsOn);
+  }
+
+  /**
+   * @param compensation undoes the step if the graph fails, null if the step has nothing to undo
+   */
+  public TaskGraph add(String name, Action action, Action compensation, String... dependsOn) {
+    if (steps.containsKey(name)) {
+      throw new IllegalArgumentException("Step " + name + " already exists");
+    }
+    for (String dependency : dependsOn) {
+      if (!steps.containsKey(dependency)) {
+        throw new IllegalArgumentException("Step " + name + " depends on unknown step " + dependency);
+      }
+    }
+    steps.put(name, new Step(name, action, compensation, Arrays.asList(dependsOn)));
+    return this;
+  }
+
+  /**
+   * Run all the steps. Steps can only depend on steps added before them, so the graph can not have cycles.
+   *
+   * @param executor executor for the steps, if null the steps run one after the other in the calling thread
+   * @param listener listener for the progress of the steps
+   * @throws Exception the exception of the first step that failed, once all the running steps have finished and the
+   * steps that ran have been compensated. The failures of the compensations are added to it as suppressed.
+   */
+  public void execute(Executor executor, Listener listener) throws Exception {
+    Executor stepExecutor = executor != null ? executor : Runnable::run;
+    CompletionService<Outcome> completionService = new ExecutorCompletionService<>(stepExecutor);
+    Map<Step, Integer> pendingDependencies = new LinkedHashMap<>();
+    for (Step step : steps.values()) {
+      pendingDependencies.put(step, step.dependsOn.size());
+    }
+    Deque<Step> ran = new ArrayDeque<>();
+    List<Exception> rejections = new ArrayList<>();
+    boolean interrupted = false;
+    int running = submitReady(completionService, pendingDependencies, listener, rejections);
+    Exception failure = rejections.isEmpty() ? null : rejections.get(0);
+    while (running > 0) {
+      Future<Outcome> done;
+      try {
+        done = completionService.take();
+      } catch (InterruptedException e) {
+        //stop starting steps but keep waiting for the running ones, they can not be abandoned half way
+        interrupted = true;
+        if (failure == null) {
+          failure = e;
+        }
+        continue;
+      }
+      running--;
+      Outcome outcome;
+      try {
+        outcome = done.get();
+      } catch (ExecutionException | InterruptedException e) {
+        //the steps catch their exceptions and the future is done
+        throw new IllegalStateException(e);
+      }
+      ran.push(outcome.step);
+      if (outcome.failure != null) {
+        if (failure == null) {
+          failure = outcome.failure;
+        }
+      } else if (failure == null) {
+        for (Step dependent : steps.values()) {
+          if (dependent.dependsOn.contains(outcome.step.name)) {
+            pendingDependencies.put(dependent, pendingDependencies.get(dependent) - 1);
+          }
+        }
+        running += submitReady(completionService, pendingDependencies, listener, rejections);
+        if (!rejections.isEmpty()) {
+          failure = rejections.get(0);
+        }
+      }
+    }
+
+    if (failure != null) {
+      compensate(ran, listener, failure);
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+    if (failure != null) {
+      throw failure;
+    }
+  }
+
+  /**
+   * Submit the steps whose dependencies have all finished. If the executor rejects a step the remaining ones are not
+   * submitted and the rejection is added to rejections.
+   *
+   * @return the number of steps submitted
+   */
+  private int submitReady(CompletionService<Outcome> completionService, Map<Step, Integer> pendingDependencies,
+    Listener listener, List<Exception> rejections) {
+    List<Step> ready = new ArrayList<>();
+    for (Map.Entry<Step, Integer> entry : pendingDependencies.entrySet()) {
+      if (entry.getValue() == 0) {
+        ready.add(entry.getKey());
+      }
+    }
+    int submitted = 0;
+    for (Step step : ready) {
+      pendingDependencies.remove(step);
+      try {
+        completionService.submit(() -> {
+          listener.started(step.name);
+          long start = System.currentTimeMillis();
+          try {
+            step.action.run();
+          } catch (Exception e) {
+            listener.failed(step.name, System.currentTimeMillis() - start, e);
+            return new Outcome(step, e);
+          }
+          listener.finished(step.name, System.currentTimeMillis() - start);
+          return new Outcome(step, null);
+        });
+      } catch (RejectedExecutionException e) {
+        rejections.add(e);
+        break;
+      }
+      submitted++;
+    }
+    return submitted;
+  }
+
+  private void compensate(Deque<Step> ran, Listener listener, Exception failure) {
+    while (!ran.isEmpty()) {
+      Step step = ran.pop();
+      if (step.compensation == null) {
+        continue;
+      }
+      try {
+        step.compensation.run();
+        listener.compensated(step.name);
+      } catch (Exception e) {
+        LOGGER.log(Level.WARNING, "Failed to compensate step " + step.name, e);
+        failure.addSuppressed(e);
+      }
+    }
+  }
+
+  private static class Step {
+    private final String name;
+    private final Action action;
+    private final Action compensation;
+    private final List<String> dependsOn;
+
+    private Step(String name, Action action, Action compensation, List<String> dependsOn) {
+      this.name = name;
+      this.action = action;
+      this.compensation = compensation;
+      this.dependsOn = dependsOn;
+    }
+  }
+
+  private static class Outcome {
+    private final Step step;
+    private final Exception failure;
+
+    private Outcome(Step step, Exception failure) {
+      this.step = step;
+      this.failure = failure;
+    }
+  }
+}
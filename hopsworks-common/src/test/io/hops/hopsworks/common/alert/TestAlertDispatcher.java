@@ -0,0 +1,300 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2021, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.hops.hopsworks.common.alert;
+
+import io.hops.hopsworks.alert.AlertManager;
+import io.hops.hopsworks.alert.dao.PendingAlertFacade;
+import io.hops.hopsworks.alert.exception.AlertManagerUnreachableException;
+import io.hops.hopsworks.alerting.api.alert.dto.PostableAlert;
+import io.hops.hopsworks.common.util.Settings;
+import io.hops.hopsworks.persistence.entity.alertmanager.PendingAlert;
+import io.hops.hopsworks.persistence.entity.project.Project;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Matchers;
+import org.mockito.Mockito;
+import org.mockito.internal.util.reflection.Whitebox;
+
+import javax.enterprise.concurrent.ManagedExecutorService;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+public class TestAlertDispatcher {
+
+  private AlertDispatcher alertDispatcher;
+  private Settings settings;
+  private StubAlertmanager alertmanager;
+  private AlertManager alertManager;
+  private InMemoryPendingAlertFacade pendingAlertFacade;
+  private ExecutorService pool;
+  private ManagedExecutorService executorService;
+  private Project project;
+
+  @Before
+  public void setup() throws Exception {
+    settings = Mockito.mock(Settings.class);
+    Mockito.when(settings.getAlertDispatchQueueSize()).thenReturn(10000);
+    Mockito.when(settings.getAlertDispatchBatchSize()).thenReturn(50);
+    Mockito.when(settings.getAlertDispatchMaxRetries()).thenReturn(3);
+    Mockito.when(settings.getAlertDispatchBackoffMs()).thenReturn(10L);
+    Mockito.when(settings.getAlertDedupWindowMs()).thenReturn(60000L);
+
+    alertmanager = new StubAlertmanager();
+    alertManager = Mockito.mock(AlertManager.class);
+    Mockito.doAnswer(invocation -> {
+      alertmanager.post((List<?>) invocation.getArguments()[0]);
+      return null;
+    }).when(alertManager).postAlerts(Matchers.anyListOf(PostableAlert.class));
+
+    pool = Executors.newSingleThreadExecutor();
+    executorService = Mockito.mock(ManagedExecutorService.class);
+    Mockito.when(executorService.submit(Matchers.any(Runnable.class)))
+      .thenAnswer(invocation -> pool.submit((Runnable) invocation.getArguments()[0]));
+
+    pendingAlertFacade = new InMemoryPendingAlertFacade();
+    alertDispatcher = dispatcher(executorService);
+    project = new Project("demo");
+  }
+
+  private AlertDispatcher dispatcher(ManagedExecutorService executorService) {
+    AlertDispatcher dispatcher = new AlertDispatcher();
+    Whitebox.setInternalState(dispatcher, "alertManager", alertManager);
+    Whitebox.setInternalState(dispatcher, "pendingAlertFacade", pendingAlertFacade);
+    Whitebox.setInternalState(dispatcher, "settings", settings);
+    Whitebox.setInternalState(dispatcher, "executorService", executorService);
+    return dispatcher;
+  }
+
+  @After
+  public void tearDown() {
+    pool.shutdownNow();
+  }
+
+  @Test
+  public void testCallersDoNotWaitForAlertmanager() throws Exception {
+    alertmanager.delayMs = 200;
+    long start = System.nanoTime();
+    for (int i = 0; i < 200; i++) {
+      alertDispatcher.dispatch(Collections.singletonList(alert(i)), project);
+    }
+    long elapsed = System.nanoTime() - start;
+    //A synchronous caller would have waited 200 * 200ms
+    Assert.assertTrue(elapsed / 1e6 < 1000);
+
+    waitFor(() -> alertDispatcher.getDispatchedCount() == 200);
+    Assert.assertEquals(200, alertmanager.received.get());
+    Assert.assertTrue(alertDispatcher.getRequestCount() < 200);
+    Assert.assertEquals(0, alertDispatcher.getQueueDepth());
+    Assert.assertTrue(alertDispatcher.getMaxLatency() >= 200);
+    Assert.assertTrue(pendingAlertFacade.rows.isEmpty());
+  }
+
+  @Test
+  public void testFailedRequestsAreRetried() throws Exception {
+    alertmanager.failures.set(2);
+    alertDispatcher.dispatch(alerts(10), project);
+
+    waitFor(() -> alertDispatcher.getDispatchedCount() == 10);
+    Assert.assertEquals(10, alertmanager.received.get());
+    Assert.assertEquals(3, alertDispatcher.getRequestCount());
+    Assert.assertEquals(0, alertDispatcher.getFailedCount());
+  }
+
+  @Test
+  public void testAlertsAreDroppedAfterMaxRetries() throws Exception {
+    alertmanager.failures.set(Integer.MAX_VALUE);
+    alertDispatcher.dispatch(alerts(10), project);
+
+    waitFor(() -> alertDispatcher.getFailedCount() == 10);
+    Assert.assertEquals(4, alertDispatcher.getRequestCount());
+    Assert.assertEquals(0, alertDispatcher.getDispatchedCount());
+    waitFor(() -> pendingAlertFacade.rows.isEmpty());
+
+    //Alertmanager is back, the alerts that were not delivered are not taken for duplicates
+    alertmanager.failures.set(0);
+    alertDispatcher.dispatch(Collections.singletonList(alert(0)), project);
+    waitFor(() -> alertDispatcher.getDispatchedCount() == 1);
+    Assert.assertEquals(0, alertDispatcher.getDeduplicatedCount());
+  }
+
+  @Test
+  public void testQueuedAlertsAreSentAfterRestart() throws Exception {
+    ManagedExecutorService stopped = Mockito.mock(ManagedExecutorService.class);
+    Mockito.when(stopped.submit(Matchers.any(Runnable.class))).thenThrow(new RejectedExecutionException());
+    dispatcher(stopped).dispatch(alerts(10), project);
+    Assert.assertEquals(10, pendingAlertFacade.rows.size());
+    Assert.assertEquals(0, alertmanager.received.get());
+
+    alertDispatcher.resume(null);
+    waitFor(() -> alertDispatcher.getDispatchedCount() == 10);
+    Assert.assertEquals(10, alertmanager.received.get());
+    Assert.assertTrue(pendingAlertFacade.rows.isEmpty());
+  }
+
+  @Test
+  public void testAlertsClaimedByAnotherInstanceAreNotSent() throws Exception {
+    alertDispatcher.dispatch(Collections.singletonList(alert(0)), project);
+    waitFor(() -> alertDispatcher.getDispatchedCount() == 1);
+    ManagedExecutorService stopped = Mockito.mock(ManagedExecutorService.class);
+    Mockito.when(stopped.submit(Matchers.any(Runnable.class))).thenThrow(new RejectedExecutionException());
+    dispatcher(stopped).dispatch(alerts(3), project);
+    long now = System.currentTimeMillis();
+    for (PendingAlert pendingAlert : pendingAlertFacade.rows.values()) {
+      Assert.assertTrue(pendingAlertFacade.claim(pendingAlert.getId(), new Date(now), new Date(now - 60000)));
+    }
+    Assert.assertEquals(0, alertDispatcher.getQueueDepth());
+
+    alertDispatcher.resume(null);
+    Thread.sleep(100);
+    Assert.assertEquals(1, alertmanager.received.get());
+    Assert.assertEquals(3, pendingAlertFacade.rows.size());
+  }
+
+  @Test
+  public void testIdenticalAlertsAreSentOnce() throws Exception {
+    for (int i = 0; i < 10; i++) {
+      alertDispatcher.dispatch(Collections.singletonList(alert(1)), project);
+    }
+    alertDispatcher.dispatch(Collections.singletonList(alert(2)), project);
+
+    waitFor(() -> alertDispatcher.getDispatchedCount() == 2);
+    Assert.assertEquals(9, alertDispatcher.getDeduplicatedCount());
+
+    Mockito.when(settings.getAlertDedupWindowMs()).thenReturn(0L);
+    alertDispatcher.dispatch(Collections.singletonList(alert(1)), project);
+    waitFor(() -> alertDispatcher.getDispatchedCount() == 3);
+  }
+
+  @Test
+  public void testFullQueueDropsAlerts() throws Exception {
+    Mockito.when(settings.getAlertDispatchQueueSize()).thenReturn(5);
+    Mockito.when(settings.getAlertDedupWindowMs()).thenReturn(0L);
+    alertmanager.delayMs = 500;
+    //The first batch is taken off the queue by the drain task, the rest waits for it
+    alertDispatcher.dispatch(Collections.singletonList(alert(0)), project);
+    waitFor(() -> alertDispatcher.getQueueDepth() == 0);
+    alertDispatcher.dispatch(alerts(10), project);
+    Assert.assertEquals(5, alertDispatcher.getQueueDepth());
+    Assert.assertEquals(5, alertDispatcher.getDroppedCount());
+  }
+
+  private List<PostableAlert> alerts(int count) {
+    List<PostableAlert> alerts = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      alerts.add(alert(i));
+    }
+    return alerts;
+  }
+
+  private PostableAlert alert(int executionId) {
+    Map<String, String> labels = new HashMap<>();
+    labels.put("job", "job1");
+    labels.put("executionId", String.valueOf(executionId));
+    Map<String, String> annotations = new HashMap<>();
+    annotations.put("summary", "Job FAILED");
+    return new PostableAlert(labels, annotations);
+  }
+
+  private void waitFor(BooleanSupplier condition) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 30000;
+    while (!condition.getAsBoolean()) {
+      Assert.assertTrue("Timed out", System.currentTimeMillis() < deadline);
+      Thread.sleep(5);
+    }
+  }
+
+  /**
+   * Pending alert table kept in memory.
+   */
+  private static class InMemoryPendingAlertFacade extends PendingAlertFacade {
+    private final Map<Integer, PendingAlert> rows = new ConcurrentSkipListMap<>();
+    private final AtomicInteger ids = new AtomicInteger();
+
+    @Override
+    public void save(PendingAlert entity) {
+      entity.setId(ids.incrementAndGet());
+      rows.put(entity.getId(), entity);
+    }
+
+    @Override
+    public List<PendingAlert> findClaimable(Date expired, int limit) {
+      List<PendingAlert> claimable = new ArrayList<>();
+      for (PendingAlert pendingAlert : rows.values()) {
+        if (claimable.size() < limit && claimable(pendingAlert, expired)) {
+          claimable.add(pendingAlert);
+        }
+      }
+      return claimable;
+    }
+
+    @Override
+    public long countClaimable(Date expired) {
+      return rows.values().stream().filter(pendingAlert -> claimable(pendingAlert, expired)).count();
+    }
+
+    @Override
+    public synchronized boolean claim(Integer id, Date claimedAt, Date expired) {
+      PendingAlert pendingAlert = rows.get(id);
+      if (pendingAlert == null || !claimable(pendingAlert, expired)) {
+        return false;
+      }
+      pendingAlert.setClaimedAt(claimedAt);
+      return true;
+    }
+
+    @Override
+    public void remove(Collection<Integer> ids) {
+      rows.keySet().removeAll(ids);
+    }
+
+    private boolean claimable(PendingAlert pendingAlert, Date expired) {
+      return pendingAlert.getClaimedAt() == null || pendingAlert.getClaimedAt().before(expired);
+    }
+  }
+
+  /**
+   * Alertmanager that takes delayMs to answer and is unreachable for the next failures requests.
+   */
+  private static class StubAlertmanager {
+    private volatile long delayMs = 0;
+    private final AtomicInteger failures = new AtomicInteger();
+    private final AtomicInteger received = new AtomicInteger();
+
+    private void post(List<?> alerts) throws Exception {
+      if (delayMs > 0) {
+        Thread.sleep(delayMs);
+      }
+      if (failures.getAndUpdate(left -> left > 0 ? left - 1 : 0) > 0) {
+        throw new AlertManagerUnreachableException("Alertmanager not reachable.");
+      }
+      received.addAndGet(alerts.size());
+    }
+  }
+}
@@ -0,0 +1,219 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2021, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.hops.hopsworks.common.dataset.acl;
+
+import io.hops.hopsworks.common.dao.dataset.DatasetFacade;
+import io.hops.hopsworks.common.dao.dataset.DatasetSharedWithFacade;
+import io.hops.hopsworks.common.dao.hdfsUser.HdfsGroupsFacade;
+import io.hops.hopsworks.common.dao.project.ProjectFacade;
+import io.hops.hopsworks.common.hdfs.DistributedFileSystemOps;
+import io.hops.hopsworks.common.hdfs.DistributedFsService;
+import io.hops.hopsworks.common.hdfs.HdfsUsersController;
+import io.hops.hopsworks.common.hdfs.inode.InodeController;
+import io.hops.hopsworks.common.util.Settings;
+import io.hops.hopsworks.persistence.entity.dataset.Dataset;
+import io.hops.hopsworks.persistence.entity.dataset.DatasetAccessPermission;
+import io.hops.hopsworks.persistence.entity.dataset.DatasetSharedWith;
+import io.hops.hopsworks.persistence.entity.hdfs.inode.Inode;
+import io.hops.hopsworks.persistence.entity.hdfs.user.HdfsGroups;
+import io.hops.hopsworks.persistence.entity.project.Project;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Matchers;
+import org.mockito.Mockito;
+import org.mockito.internal.util.reflection.Whitebox;
+
+import javax.ejb.Timer;
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+import javax.transaction.TransactionSynchronizationRegistry;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class TestPermissionsCleaner {
+
+  private static final int PROJECTS = 50;
+  private static final int DATASETS_PER_PROJECT = 100;
+
+  private PermissionsCleaner permissionsCleaner;
+  private DistributedFsService dfsService;
+  private TransactionSynchronizationRegistry transactionSynchronizationRegistry;
+  private List<Project> projects;
+  private Map<Integer, Dataset> datasets;
+
+  @Before
+  public void setup() throws Exception {
+    projects = new ArrayList<>();
+    datasets = new HashMap<>();
+    Map<Project, List<Dataset>> datasetsByProject = new HashMap<>();
+    for (int p = 0; p < PROJECTS; p++) {
+      Project project = new Project("project" + p);
+      project.setId(p);
+      project.setProjectTeamCollection(new ArrayList<>());
+      projects.add(project);
+      List<Dataset> projectDatasets = new ArrayList<>();
+      for (int d = 0; d < DATASETS_PER_PROJECT; d++) {
+        Inode inode = new Inode(p, "dataset" + d, p);
+        inode.setPermission((short) 0770);
+        Dataset dataset = new Dataset(inode, project, DatasetAccessPermission.EDITABLE);
+        dataset.setId(p * DATASETS_PER_PROJECT + d);
+        dataset.setDatasetSharedWithCollection(new ArrayList<>());
+        datasets.put(dataset.getId(), dataset);
+        projectDatasets.add(dataset);
+      }
+      datasetsByProject.put(project, projectDatasets);
+    }
+
+    ProjectFacade projectFacade = Mockito.mock(ProjectFacade.class);
+    Mockito.when(projectFacade.findAllOrderByCreated()).thenReturn(projects);
+    Mockito.when(projectFacade.find(Matchers.anyInt()))
+      .thenAnswer(invocation -> projects.get((Integer) invocation.getArguments()[0]));
+    DatasetFacade datasetFacade = Mockito.mock(DatasetFacade.class);
+    Mockito.when(datasetFacade.find(Matchers.anyInt()))
+      .thenAnswer(invocation -> datasets.get((Integer) invocation.getArguments()[0]));
+    Mockito.when(datasetFacade.findByProject(Matchers.any(Project.class)))
+      .thenAnswer(invocation -> datasetsByProject.get((Project) invocation.getArguments()[0]));
+    //The first dataset of project0 is shared with project1
+    DatasetSharedWithFacade datasetSharedWithFacade = Mockito.mock(DatasetSharedWithFacade.class);
+    Mockito.when(datasetSharedWithFacade.findByProject(Matchers.any(Project.class))).thenReturn(
+      Collections.emptyList());
+    Mockito.when(datasetSharedWithFacade.findByProject(projects.get(1))).thenReturn(Collections.singletonList(
+      new DatasetSharedWith(projects.get(1), datasets.get(0), DatasetAccessPermission.READ_ONLY, true, null)));
+
+    HdfsUsersController hdfsUsersController = Mockito.mock(HdfsUsersController.class);
+    Mockito.when(hdfsUsersController.getHdfsGroupName(Matchers.any(Project.class), Matchers.any(Dataset.class)))
+      .thenReturn("group");
+    Mockito.when(hdfsUsersController.getHdfsAclGroupName(Matchers.any(Project.class), Matchers.any(Dataset.class)))
+      .thenReturn("group__read");
+    HdfsGroupsFacade hdfsGroupsFacade = Mockito.mock(HdfsGroupsFacade.class);
+    Mockito.when(hdfsGroupsFacade.findByName(Matchers.anyString())).thenReturn(Mockito.mock(HdfsGroups.class));
+    dfsService = Mockito.mock(DistributedFsService.class);
+    Mockito.when(dfsService.getDfsOps()).thenReturn(Mockito.mock(DistributedFileSystemOps.class));
+    InodeController inodeController = Mockito.mock(InodeController.class);
+    Mockito.when(inodeController.getPath(Matchers.any(Inode.class))).thenReturn("/Projects/project/dataset");
+    Settings settings = Mockito.mock(Settings.class);
+    Mockito.when(settings.getPermissionsReconciliationParallelism()).thenReturn(4);
+    transactionSynchronizationRegistry = Mockito.mock(TransactionSynchronizationRegistry.class);
+    Mockito.when(transactionSynchronizationRegistry.getTransactionStatus()).thenReturn(Status.STATUS_NO_TRANSACTION);
+
+    permissionsCleaner = new PermissionsCleaner();
+    Whitebox.setInternalState(permissionsCleaner, "projectFacade", projectFacade);
+    Whitebox.setInternalState(permissionsCleaner, "datasetFacade", datasetFacade);
+    Whitebox.setInternalState(permissionsCleaner, "datasetSharedWithFacade", datasetSharedWithFacade);
+    Whitebox.setInternalState(permissionsCleaner, "hdfsUsersController", hdfsUsersController);
+    Whitebox.setInternalState(permissionsCleaner, "hdfsGroupsFacade", hdfsGroupsFacade);
+    Whitebox.setInternalState(permissionsCleaner, "dfsService", dfsService);
+    Whitebox.setInternalState(permissionsCleaner, "inodeController", inodeController);
+    Whitebox.setInternalState(permissionsCleaner, "settings", settings);
+    Whitebox.setInternalState(permissionsCleaner, "transactionSynchronizationRegistry",
+      transactionSynchronizationRegistry);
+  }
+
+  @Test
+  public void testOnlyDirtyDatasetsAreReconciled() {
+    permissionsCleaner.markDirty(datasets.get(7));
+    permissionsCleaner.markDirty(datasets.get(4242));
+    permissionsCleaner.markDirty(datasets.get(7));
+    Assert.assertEquals(2, permissionsCleaner.getQueueDepth());
+
+    permissionsCleaner.reconcileDirty();
+
+    Mockito.verify(dfsService, Mockito.times(2)).getDfsOps();
+    Assert.assertEquals(0, permissionsCleaner.getQueueDepth());
+    Assert.assertEquals(2, permissionsCleaner.getReconciledCount());
+    Assert.assertEquals(0, permissionsCleaner.getFailedCount());
+
+    permissionsCleaner.reconcileDirty();
+    Mockito.verify(dfsService, Mockito.times(2)).getDfsOps();
+  }
+
+  @Test
+  public void testMembershipChangeReconcilesOwnedAndSharedDatasets() {
+    permissionsCleaner.markDirty(projects.get(1));
+    permissionsCleaner.markDirty(datasets.get(DATASETS_PER_PROJECT + 3));
+
+    permissionsCleaner.reconcileDirty();
+
+    //datasets of project1 and the dataset shared with it, each of them once
+    Mockito.verify(dfsService, Mockito.times(DATASETS_PER_PROJECT + 1)).getDfsOps();
+    Assert.assertEquals(DATASETS_PER_PROJECT + 1, permissionsCleaner.getReconciledCount());
+  }
+
+  @Test
+  public void testDatasetIsMarkedOnlyWhenTheTransactionCommits() {
+    Mockito.when(transactionSynchronizationRegistry.getTransactionStatus()).thenReturn(Status.STATUS_ACTIVE);
+    permissionsCleaner.markDirty(datasets.get(1));
+    permissionsCleaner.markDirty(datasets.get(2));
+    Assert.assertEquals(0, permissionsCleaner.getQueueDepth());
+
+    ArgumentCaptor<Synchronization> synchronizations = ArgumentCaptor.forClass(Synchronization.class);
+    Mockito.verify(transactionSynchronizationRegistry, Mockito.times(2))
+      .registerInterposedSynchronization(synchronizations.capture());
+    synchronizations.getAllValues().get(0).afterCompletion(Status.STATUS_COMMITTED);
+    synchronizations.getAllValues().get(1).afterCompletion(Status.STATUS_ROLLEDBACK);
+    Assert.assertEquals(1, permissionsCleaner.getQueueDepth());
+  }
+
+  @Test
+  public void testFailedDatasetIsRetriedWithBackoff() throws Exception {
+    DistributedFileSystemOps dfso = Mockito.mock(DistributedFileSystemOps.class);
+    Mockito.when(dfsService.getDfsOps()).thenThrow(new IllegalStateException("namenode down"))
+      .thenThrow(new IllegalStateException("namenode down")).thenReturn(dfso);
+    long now = System.currentTimeMillis();
+    permissionsCleaner.markDirty(datasets.get(7));
+
+    permissionsCleaner.reconcileDirty(now);
+    Assert.assertEquals(1, permissionsCleaner.getFailedCount());
+    Assert.assertEquals(1, permissionsCleaner.getQueueDepth());
+
+    //not due before the backoff
+    permissionsCleaner.reconcileDirty(now + PermissionsCleaner.RETRY_BASE_DELAY_MS - 1);
+    Mockito.verify(dfsService, Mockito.times(1)).getDfsOps();
+    now += PermissionsCleaner.RETRY_BASE_DELAY_MS;
+    permissionsCleaner.reconcileDirty(now);
+    Mockito.verify(dfsService, Mockito.times(2)).getDfsOps();
+    Assert.assertEquals(2, permissionsCleaner.getFailedCount());
+
+    //the backoff doubles after every failure
+    permissionsCleaner.reconcileDirty(now + 2 * PermissionsCleaner.RETRY_BASE_DELAY_MS - 1);
+    Mockito.verify(dfsService, Mockito.times(2)).getDfsOps();
+    permissionsCleaner.reconcileDirty(now + 2 * PermissionsCleaner.RETRY_BASE_DELAY_MS);
+    Mockito.verify(dfsService, Mockito.times(3)).getDfsOps();
+    Assert.assertEquals(1, permissionsCleaner.getReconciledCount());
+    Assert.assertEquals(0, permissionsCleaner.getQueueDepth());
+  }
+
+  @Test
+  public void testSweep() {
+    permissionsCleaner.fixPermissions((Timer) null);
+    permissionsCleaner.reconcileDirty();
+
+    Assert.assertEquals(datasets.size(), permissionsCleaner.getReconciledCount());
+    Assert.assertTrue(permissionsCleaner.getLastSweep() > 0);
+
+    //after the sweep a dirty dataset only reconciles that dataset
+    permissionsCleaner.markDirty(datasets.get(9));
+    permissionsCleaner.reconcileDirty();
+    Assert.assertEquals(datasets.size() + 1, permissionsCleaner.getReconciledCount());
+    Mockito.verify(dfsService, Mockito.times(datasets.size() + 1)).getDfsOps();
+  }
+}
@@ -0,0 +1,278 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2021, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.hops.hopsworks.common.dataset.util;
+
+import io.hops.hopsworks.common.hdfs.DistributedFileSystemOps;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.permission.FsPermission;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Matchers;
+import org.mockito.Mockito;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+public class TestHopsFsArchiver {
+
+  //Size of the synthetic archive of the large archive test, e.g. -Dhopsworks.test.archive.mb=4096
+  private static final int ARCHIVE_MB = Integer.getInteger("hopsworks.test.archive.mb", 256);
+  private static final int MB = 1024 * 1024;
+
+  @Rule
+  public TemporaryFolder tmp = new TemporaryFolder();
+
+  private DistributedFileSystemOps dfso;
+  private ExecutorService executor;
+  private HopsFsArchiver.Limits limits;
+
+  @Before
+  public void setup() throws Exception {
+    //Local file system standing in for HopsFS
+    FileSystem fs = FileSystem.getLocal(new Configuration()).getRawFileSystem();
+    dfso = Mockito.mock(DistributedFileSystemOps.class);
+    Mockito.when(dfso.open(Matchers.any(Path.class)))
+      .thenAnswer(invocation -> fs.open((Path) invocation.getArguments()[0]));
+    Mockito.when(dfso.create(Matchers.any(Path.class)))
+      .thenAnswer(invocation -> fs.create((Path) invocation.getArguments()[0]));
+    Mockito.when(dfso.getFileStatus(Matchers.any(Path.class)))
+      .thenAnswer(invocation -> fs.getFileStatus((Path) invocation.getArguments()[0]));
+    Mockito.when(dfso.listStatus(Matchers.any(Path.class)))
+      .thenAnswer(invocation -> fs.listStatus((Path) invocation.getArguments()[0]));
+    Mockito.when(dfso.exists(Matchers.any(Path.class)))
+      .thenAnswer(invocation -> fs.exists((Path) invocation.getArguments()[0]));
+    Mockito.when(dfso.mkdirs(Matchers.any(Path.class), Matchers.any(FsPermission.class)))
+      .thenAnswer(invocation -> fs.mkdirs((Path) invocation.getArguments()[0]));
+    Mockito.when(dfso.rm(Matchers.any(Path.class), Matchers.anyBoolean()))
+      .thenAnswer(invocation -> fs.delete((Path) invocation.getArguments()[0], (Boolean) invocation.getArguments()[1]));
+    Mockito.doAnswer(invocation -> fs.rename((Path) invocation.getArguments()[0], (Path) invocation.getArguments()[1]))
+      .when(dfso).moveWithinHdfs(Matchers.any(Path.class), Matchers.any(Path.class));
+    executor = Executors.newFixedThreadPool(8);
+    limits = new HopsFsArchiver.Limits(Long.MAX_VALUE, 100000, 200);
+  }
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void testZipAndUnzip() throws Exception {
+    File data = tmp.newFolder("data");
+    Random random = new Random(1);
+    new File(data, "empty").mkdirs();
+    for (int i = 0; i < 20; i++) {
+      File dir = new File(data, "dir" + (i % 3));
+      dir.mkdirs();
+      writeRandom(new File(dir, "file" + i), random, random.nextInt(MB), 16);
+    }
+    File out = tmp.newFolder("out");
+
+    HopsFsArchiver zipper = archiver(4);
+    Path archive = zipper.zip(path(data), path(out));
+    Assert.assertEquals(new File(out, "data.zip").getAbsolutePath(), archive.toString());
+    Assert.assertEquals(1f, zipper.getProgress().getFraction(), 0);
+
+    File extracted = tmp.newFolder("extracted");
+    HopsFsArchiver unzipper = archiver(4);
+    unzipper.unzip(archive, path(extracted));
+    Assert.assertEquals(1f, unzipper.getProgress().getFraction(), 0);
+    Assert.assertEquals(20, unzipper.getProgress().getEntriesDone());
+    Assert.assertTrue(new File(extracted, "data/empty").isDirectory());
+    for (int i = 0; i < 20; i++) {
+      String file = "dir" + (i % 3) + "/file" + i;
+      Assert.assertArrayEquals(Files.readAllBytes(new File(data, file).toPath()),
+        Files.readAllBytes(new File(extracted, "data/" + file).toPath()));
+    }
+  }
+
+  @Test
+  public void testEntriesOutsideTheDestinationAreRejected() throws Exception {
+    File archive = tmp.newFile("slip.zip");
+    try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(archive))) {
+      addEntry(out, "ok.txt", new byte[10]);
+      addEntry(out, "dir/../../../evil.txt", new byte[10]);
+    }
+    File dest = new File(tmp.getRoot(), "dest/nested");
+    try {
+      archiver(4).unzip(path(archive), path(dest));
+      Assert.fail("entry outside of the destination was extracted");
+    } catch (IOException e) {
+      Assert.assertTrue(e.getMessage().contains("Illegal entry"));
+    }
+    Assert.assertFalse(new File(tmp.getRoot(), "evil.txt").exists());
+    Assert.assertFalse(dest.exists());
+
+    Path destDir = new Path("/Projects/demo/Resources");
+    Assert.assertEquals(new Path("/Projects/demo/Resources/a/b"), HopsFsArchiver.resolve(destDir, "./a//b"));
+    Assert.assertNull(HopsFsArchiver.resolve(destDir, "./"));
+    Assert.assertEquals(new Path("/Projects/demo/Resources/a/b:c.txt"), HopsFsArchiver.resolve(destDir, "a/b:c.txt"));
+    Assert.assertEquals("/Projects/demo/Resources/10:30.log",
+      HopsFsArchiver.resolve(destDir, "10:30.log").toUri().getPath());
+    for (String illegal : Arrays.asList("/etc/passwd", "..\\x", "a/../../x", "c:x", "C:\\x")) {
+      try {
+        HopsFsArchiver.resolve(destDir, illegal);
+        Assert.fail(illegal + " was accepted");
+      } catch (IOException e) {
+        //expected
+      }
+    }
+  }
+
+  @Test
+  public void testZipBombIsRejected() throws Exception {
+    File archive = tmp.newFile("bomb.zip");
+    try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(archive))) {
+      addEntry(out, "small.txt", new byte[100]);
+      addEntry(out, "zeros", new byte[32 * MB]);
+    }
+    File dest = new File(tmp.getRoot(), "bomb");
+    try {
+      archiver(1).unzip(path(archive), path(dest));
+      Assert.fail("zip bomb was extracted");
+    } catch (IOException e) {
+      Assert.assertTrue(e.getMessage().contains("compression ratio"));
+    }
+    Assert.assertFalse(dest.exists());
+
+    limits = new HopsFsArchiver.Limits(MB, 100000, 2000);
+    try {
+      archiver(1).unzip(path(archive), path(dest));
+      Assert.fail("archive larger than the size limit was extracted");
+    } catch (IOException e) {
+      Assert.assertTrue(e.getMessage().contains("more than the limit"));
+    }
+    Assert.assertFalse(dest.exists());
+  }
+
+  @Test
+  public void testFailedUnzipKeepsExistingFiles() throws Exception {
+    File archive = tmp.newFile("overwrite.zip");
+    try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(archive))) {
+      addEntry(out, "existing.txt", new byte[100]);
+      addEntry(out, "new.txt", new byte[100]);
+      addEntry(out, "zeros", new byte[32 * MB]);
+    }
+    File dest = tmp.newFolder("existing");
+    Files.write(new File(dest, "existing.txt").toPath(), "keep".getBytes());
+    try {
+      archiver(4).unzip(path(archive), path(dest));
+      Assert.fail("zip bomb was extracted");
+    } catch (IOException e) {
+      Assert.assertTrue(e.getMessage().contains("compression ratio"));
+    }
+    Assert.assertArrayEquals("keep".getBytes(), Files.readAllBytes(new File(dest, "existing.txt").toPath()));
+    Assert.assertArrayEquals(new String[]{"existing.txt"}, dest.list());
+
+    limits = new HopsFsArchiver.Limits(Long.MAX_VALUE, 100000, 100000);
+    archiver(4).unzip(path(archive), path(dest));
+    Assert.assertArrayEquals(new byte[100], Files.readAllBytes(new File(dest, "existing.txt").toPath()));
+    Assert.assertTrue(new File(dest, "new.txt").isFile());
+    Assert.assertEquals(3, dest.list().length);
+  }
+
+  @Test
+  public void testCancel() throws Exception {
+    File data = tmp.newFolder("data");
+    writeRandom(new File(data, "file"), new Random(2), 8 * MB, 256);
+    File out = tmp.newFolder("out");
+    Path archive = archiver(1).zip(path(data), path(out));
+
+    HopsFsArchiver unzipper = archiver(4);
+    unzipper.getProgress().cancel();
+    File dest = new File(tmp.getRoot(), "cancelled");
+    try {
+      unzipper.unzip(archive, path(dest));
+      Assert.fail("cancelled unzip completed");
+    } catch (CancellationException e) {
+      //expected
+    }
+    Assert.assertFalse(dest.exists());
+
+    HopsFsArchiver zipper = archiver(1);
+    zipper.getProgress().cancel();
+    try {
+      zipper.zip(path(data), path(tmp.newFolder("out2")));
+      Assert.fail("cancelled zip completed");
+    } catch (CancellationException e) {
+      //expected
+    }
+    Assert.assertFalse(new File(tmp.getRoot(), "out2/data.zip").exists());
+  }
+
+  @Test
+  public void testLargeArchive() throws Exception {
+    File data = tmp.newFolder("data");
+    Random random = new Random(3);
+    int files = Math.max(1, ARCHIVE_MB / 16);
+    for (int i = 0; i < files; i++) {
+      writeRandom(new File(data, "part-" + i), random, 16 * MB, 16);
+    }
+    File out = tmp.newFolder("out");
+    HopsFsArchiver zipper = archiver(1);
+    Path archive = zipper.zip(path(data), path(out));
+    Assert.assertEquals((long) files * 16 * MB, zipper.getProgress().getBytesDone());
+
+    for (int parallelism : new int[]{1, 4}) {
+      File dest = tmp.newFolder("extracted" + parallelism);
+      HopsFsArchiver unzipper = archiver(parallelism);
+      unzipper.unzip(archive, path(dest));
+      Assert.assertEquals(files, unzipper.getProgress().getEntriesDone());
+      Assert.assertEquals((long) files * 16 * MB, unzipper.getProgress().getBytesDone());
+    }
+  }
+
+  private HopsFsArchiver archiver(int parallelism) {
+    return new HopsFsArchiver(dfso, executor, parallelism, limits);
+  }
+
+  private Path path(File file) {
+    return new Path(file.getAbsolutePath());
+  }
+
+  /**
+   * File of random bytes drawn from an alphabet of the given size, so that it compresses like text does.
+   */
+  private void writeRandom(File file, Random random, int size, int alphabet) throws IOException {
+    byte[] content = new byte[size];
+    for (int i = 0; i < size; i++) {
+      content[i] = (byte) ('a' + random.nextInt(alphabet));
+    }
+    Files.write(file.toPath(), content);
+  }
+
+  private void addEntry(ZipOutputStream out, String name, byte[] content) throws IOException {
+    out.putNextEntry(new ZipEntry(name));
+    out.write(content);
+    out.closeEntry();
+  }
+}
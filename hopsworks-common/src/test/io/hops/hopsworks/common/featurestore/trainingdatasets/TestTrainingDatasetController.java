@@ -0,0 +1,292 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2021, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.hops.hopsworks.common.featurestore.trainingdatasets;
+
+import io.hops.hopsworks.common.dao.hdfs.inode.InodeFacade;
+import io.hops.hopsworks.common.featurestore.FeaturestoreFacade;
+import io.hops.hopsworks.common.featurestore.feature.TrainingDatasetFeatureDTO;
+import io.hops.hopsworks.common.featurestore.featuregroup.online.OnlineFeaturegroupController;
+import io.hops.hopsworks.common.featurestore.storageconnectors.FeaturestoreStorageConnectorController;
+import io.hops.hopsworks.common.featurestore.storageconnectors.FeaturestoreStorageConnectorDTO;
+import io.hops.hopsworks.common.featurestore.trainingdatasets.external.ExternalTrainingDatasetController;
+import io.hops.hopsworks.common.featurestore.trainingdatasets.hopsfs.HopsfsTrainingDatasetController;
+import io.hops.hopsworks.common.hdfs.inode.InodeController;
+import io.hops.hopsworks.persistence.entity.featurestore.Featurestore;
+import io.hops.hopsworks.persistence.entity.featurestore.featuregroup.Featuregroup;
+import io.hops.hopsworks.persistence.entity.featurestore.statistics.StatisticsConfig;
+import io.hops.hopsworks.persistence.entity.featurestore.storageconnector.FeaturestoreConnector;
+import io.hops.hopsworks.persistence.entity.featurestore.trainingdataset.TrainingDataset;
+import io.hops.hopsworks.persistence.entity.featurestore.trainingdataset.TrainingDatasetFeature;
+import io.hops.hopsworks.persistence.entity.featurestore.trainingdataset.TrainingDatasetType;
+import io.hops.hopsworks.persistence.entity.featurestore.trainingdataset.external.ExternalTrainingDataset;
+import io.hops.hopsworks.persistence.entity.featurestore.trainingdataset.hopsfs.HopsfsTrainingDataset;
+import io.hops.hopsworks.persistence.entity.featurestore.trainingdataset.split.TrainingDatasetSplit;
+import io.hops.hopsworks.persistence.entity.hdfs.inode.Inode;
+import io.hops.hopsworks.persistence.entity.project.Project;
+import io.hops.hopsworks.persistence.entity.user.Users;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Matchers;
+import org.mockito.Mockito;
+import org.mockito.internal.util.reflection.Whitebox;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+public class TestTrainingDatasetController {
+
+  private static final int TRAINING_DATASETS = 1000;
+  private static final int FEATURES_PER_TRAINING_DATASET = 20;
+  private static final int CONNECTORS = 3;
+
+  private TrainingDatasetController trainingDatasetController;
+  private TrainingDatasetFacade trainingDatasetFacade;
+  private FeaturestoreFacade featurestoreFacade;
+  private InodeFacade inodeFacade;
+  private FeaturestoreStorageConnectorController storageConnectorController;
+  private Featurestore featurestore;
+  private Project project;
+  private List<TrainingDataset> trainingDatasets;
+
+  @Before
+  public void setup() throws Exception {
+    project = new Project("demo");
+    project.setId(1);
+    featurestore = new Featurestore();
+    featurestore.setId(1);
+    featurestore.setHiveDbId(10L);
+    Featurestore sharedFeaturestore = new Featurestore();
+    sharedFeaturestore.setId(2);
+    sharedFeaturestore.setHiveDbId(20L);
+    Featuregroup featuregroup = new Featuregroup(1);
+    featuregroup.setName("fg");
+    featuregroup.setVersion(1);
+    featuregroup.setFeaturestore(featurestore);
+    Featuregroup sharedFeaturegroup = new Featuregroup(2);
+    sharedFeaturegroup.setName("shared_fg");
+    sharedFeaturegroup.setVersion(1);
+    sharedFeaturegroup.setFeaturestore(sharedFeaturestore);
+
+    // /Projects/demo/demo_Training_Datasets
+    Inode root = new Inode(0, "", 0);
+    root.setId(1L);
+    Inode projects = new Inode(1, "Projects", 1);
+    projects.setId(2L);
+    Inode projectDir = new Inode(2, "demo", 2);
+    projectDir.setId(3L);
+    Inode trainingDatasetsDir = new Inode(3, "demo_Training_Datasets", 3);
+    trainingDatasetsDir.setId(4L);
+    Map<Long, Inode> inodes = new HashMap<>();
+    for (Inode inode : new Inode[]{root, projects, projectDir, trainingDatasetsDir}) {
+      inodes.put(inode.getId(), inode);
+    }
+
+    List<FeaturestoreConnector> connectors = new ArrayList<>();
+    for (int c = 0; c < CONNECTORS; c++) {
+      FeaturestoreConnector connector = new FeaturestoreConnector();
+      connector.setId(c);
+      connectors.add(connector);
+    }
+
+    trainingDatasets = new ArrayList<>();
+    List<TrainingDatasetFeature> features = new ArrayList<>();
+    List<TrainingDatasetSplit> splits = new ArrayList<>();
+    for (int i = 0; i < TRAINING_DATASETS; i++) {
+      TrainingDataset trainingDataset = new TrainingDataset();
+      trainingDataset.setId(i);
+      trainingDataset.setName("td" + i);
+      trainingDataset.setVersion(1);
+      trainingDataset.setCreated(new Date());
+      trainingDataset.setCreator(new Users());
+      trainingDataset.setFeaturestore(featurestore);
+      StatisticsConfig statisticsConfig = new StatisticsConfig(true, false, false, false);
+      statisticsConfig.setStatisticColumns(new ArrayList<>());
+      trainingDataset.setStatisticsConfig(statisticsConfig);
+      if (i % 2 == 0) {
+        Inode inode = new Inode(trainingDatasetsDir.getId(), "td" + i + "_1", 4);
+        inode.setId(100L + i);
+        HopsfsTrainingDataset hopsfsTrainingDataset = new HopsfsTrainingDataset();
+        hopsfsTrainingDataset.setInode(inode);
+        trainingDataset.setHopsfsTrainingDataset(hopsfsTrainingDataset);
+        trainingDataset.setTrainingDatasetType(TrainingDatasetType.HOPSFS_TRAINING_DATASET);
+      } else {
+        ExternalTrainingDataset externalTrainingDataset = new ExternalTrainingDataset();
+        externalTrainingDataset.setFeaturestoreConnector(connectors.get(i % CONNECTORS));
+        trainingDataset.setExternalTrainingDataset(externalTrainingDataset);
+        trainingDataset.setTrainingDatasetType(TrainingDatasetType.EXTERNAL_TRAINING_DATASET);
+      }
+      // stored in reverse order, the last feature comes from a feature group of a shared feature store
+      for (int f = FEATURES_PER_TRAINING_DATASET - 1; f >= 0; f--) {
+        features.add(new TrainingDatasetFeature(trainingDataset, null,
+          f == FEATURES_PER_TRAINING_DATASET - 1 ? sharedFeaturegroup : featuregroup,
+          "feature" + f, "int", f, f == 0, null));
+      }
+      splits.add(new TrainingDatasetSplit(trainingDataset, "train", 0.8f));
+      splits.add(new TrainingDatasetSplit(trainingDataset, "test", 0.2f));
+      trainingDatasets.add(trainingDataset);
+    }
+
+    trainingDatasetFacade = Mockito.mock(TrainingDatasetFacade.class);
+    Mockito.when(trainingDatasetFacade.findByFeaturestore(Matchers.eq(featurestore), Matchers.anyInt(),
+      Matchers.anyInt())).thenAnswer(invocation -> {
+        int offset = (Integer) invocation.getArguments()[1];
+        int limit = (Integer) invocation.getArguments()[2];
+        return trainingDatasets.subList(offset, Math.min(offset + limit, trainingDatasets.size()));
+      });
+    Mockito.when(trainingDatasetFacade.findFeaturesByTrainingDatasets(Matchers.anyListOf(TrainingDataset.class)))
+      .thenAnswer(invocation -> {
+        Set<Integer> page = ids((List<TrainingDataset>) invocation.getArguments()[0]);
+        return features.stream().filter(f -> page.contains(f.getTrainingDataset().getId()))
+          .collect(Collectors.toList());
+      });
+    Mockito.when(trainingDatasetFacade.findSplitsByTrainingDatasets(Matchers.anyListOf(TrainingDataset.class)))
+      .thenAnswer(invocation -> {
+        Set<Integer> page = ids((List<TrainingDataset>) invocation.getArguments()[0]);
+        return splits.stream().filter(s -> page.contains(s.getTrainingDataset().getId()))
+          .collect(Collectors.toList());
+      });
+
+    featurestoreFacade = Mockito.mock(FeaturestoreFacade.class);
+    Map<Long, String> hiveDbNames = new HashMap<>();
+    hiveDbNames.put(10L, "demo_featurestore");
+    hiveDbNames.put(20L, "shared_featurestore");
+    Mockito.when(featurestoreFacade.getHiveDbNames(Matchers.anyCollectionOf(Long.class))).thenReturn(hiveDbNames);
+
+    inodeFacade = Mockito.mock(InodeFacade.class);
+    Mockito.when(inodeFacade.findParent(Matchers.any(Inode.class)))
+      .thenAnswer(invocation -> inodes.get(((Inode) invocation.getArguments()[0]).getInodePK().getParentId()));
+    InodeController inodeController = new InodeController();
+    Whitebox.setInternalState(inodeController, "inodeFacade", inodeFacade);
+
+    HopsfsTrainingDatasetController hopsfsTrainingDatasetController =
+      Mockito.mock(HopsfsTrainingDatasetController.class);
+    Mockito.when(hopsfsTrainingDatasetController.convertHopsfsTrainingDatasetToDTO(
+      Matchers.any(TrainingDatasetDTO.class), Matchers.any(TrainingDataset.class), Matchers.any(),
+      Matchers.anyString()))
+      .thenAnswer(invocation -> {
+        TrainingDatasetDTO trainingDatasetDTO = (TrainingDatasetDTO) invocation.getArguments()[0];
+        trainingDatasetDTO.setLocation((String) invocation.getArguments()[3]);
+        return trainingDatasetDTO;
+      });
+    ExternalTrainingDatasetController externalTrainingDatasetController =
+      Mockito.mock(ExternalTrainingDatasetController.class);
+    Mockito.when(externalTrainingDatasetController.convertExternalTrainingDatasetToDTO(
+      Matchers.any(TrainingDatasetDTO.class), Matchers.any(TrainingDataset.class),
+      Matchers.any(FeaturestoreStorageConnectorDTO.class)))
+      .thenAnswer(invocation -> {
+        TrainingDatasetDTO trainingDatasetDTO = (TrainingDatasetDTO) invocation.getArguments()[0];
+        trainingDatasetDTO.setStorageConnector((FeaturestoreStorageConnectorDTO) invocation.getArguments()[2]);
+        return trainingDatasetDTO;
+      });
+    storageConnectorController = Mockito.mock(FeaturestoreStorageConnectorController.class);
+    Mockito.when(storageConnectorController.convertToConnectorDTO(Matchers.any(Users.class),
+      Matchers.any(Project.class), Matchers.any(FeaturestoreConnector.class)))
+      .thenAnswer(invocation -> new FeaturestoreStorageConnectorDTO());
+
+    trainingDatasetController = new TrainingDatasetController();
+    Whitebox.setInternalState(trainingDatasetController, "trainingDatasetFacade", trainingDatasetFacade);
+    Whitebox.setInternalState(trainingDatasetController, "featurestoreFacade", featurestoreFacade);
+    Whitebox.setInternalState(trainingDatasetController, "inodeController", inodeController);
+    Whitebox.setInternalState(trainingDatasetController, "hopsfsTrainingDatasetController",
+      hopsfsTrainingDatasetController);
+    Whitebox.setInternalState(trainingDatasetController, "externalTrainingDatasetController",
+      externalTrainingDatasetController);
+    Whitebox.setInternalState(trainingDatasetController, "storageConnectorController", storageConnectorController);
+    Whitebox.setInternalState(trainingDatasetController, "onlineFeaturegroupController",
+      new OnlineFeaturegroupController());
+  }
+
+  @Test
+  public void testPageIsConvertedInBulk() throws Exception {
+    List<TrainingDatasetDTO> page = trainingDatasetController.getTrainingDatasetsForFeaturestore(new Users(),
+      project, featurestore, 100, 50);
+
+    Assert.assertEquals(50, page.size());
+    for (int i = 0; i < page.size(); i++) {
+      TrainingDatasetDTO trainingDatasetDTO = page.get(i);
+      Assert.assertEquals(100 + i, (int) trainingDatasetDTO.getId());
+      Assert.assertEquals("demo_featurestore", trainingDatasetDTO.getFeaturestoreName());
+      Assert.assertEquals(2, trainingDatasetDTO.getSplits().size());
+
+      List<TrainingDatasetFeatureDTO> features = trainingDatasetDTO.getFeatures();
+      Assert.assertEquals(FEATURES_PER_TRAINING_DATASET, features.size());
+      for (int f = 0; f < features.size(); f++) {
+        Assert.assertEquals("feature" + f, features.get(f).getName());
+      }
+      Assert.assertEquals("demo_featurestore", features.get(0).getFeaturegroup().getFeaturestoreName());
+      Assert.assertEquals("shared_featurestore",
+        features.get(FEATURES_PER_TRAINING_DATASET - 1).getFeaturegroup().getFeaturestoreName());
+
+      if (trainingDatasetDTO.getTrainingDatasetType() == TrainingDatasetType.HOPSFS_TRAINING_DATASET) {
+        Assert.assertEquals("/Projects/demo/demo_Training_Datasets/td" + (100 + i) + "_1",
+          trainingDatasetDTO.getLocation());
+      } else {
+        Assert.assertNotNull(trainingDatasetDTO.getStorageConnector());
+      }
+    }
+  }
+
+  @Test
+  public void testNumberOfLookupsDoesNotDependOnThePageSize() throws Exception {
+    trainingDatasetController.getTrainingDatasetsForFeaturestore(new Users(), project, featurestore, 0,
+      TRAINING_DATASETS);
+
+    Mockito.verify(trainingDatasetFacade, Mockito.times(1))
+      .findFeaturesByTrainingDatasets(Matchers.anyListOf(TrainingDataset.class));
+    Mockito.verify(trainingDatasetFacade, Mockito.times(1))
+      .findSplitsByTrainingDatasets(Matchers.anyListOf(TrainingDataset.class));
+    Mockito.verify(featurestoreFacade, Mockito.times(1)).getHiveDbNames(Matchers.anyCollectionOf(Long.class));
+    Mockito.verify(featurestoreFacade, Mockito.never()).getHiveDbName(Matchers.anyLong());
+    // one walk up the tree for the directory shared by all the hopsfs training datasets
+    Mockito.verify(inodeFacade, Mockito.times(4)).findParent(Matchers.any(Inode.class));
+    // one conversion per connector
+    Mockito.verify(storageConnectorController, Mockito.times(CONNECTORS)).convertToConnectorDTO(
+      Matchers.any(Users.class), Matchers.any(Project.class), Matchers.any(FeaturestoreConnector.class));
+  }
+
+  @Test
+  public void testEmptyPage() throws Exception {
+    Assert.assertEquals(Collections.emptyList(), trainingDatasetController.getTrainingDatasetsForFeaturestore(
+      new Users(), project, featurestore, TRAINING_DATASETS, 10));
+    Mockito.verify(trainingDatasetFacade, Mockito.never())
+      .findFeaturesByTrainingDatasets(Matchers.anyListOf(TrainingDataset.class));
+  }
+
+  @Test
+  public void testListing() throws Exception {
+    List<TrainingDatasetDTO> all = trainingDatasetController.getTrainingDatasetsForFeaturestore(new Users(),
+      project, featurestore, 0, TRAINING_DATASETS);
+    Assert.assertEquals(TRAINING_DATASETS, all.size());
+    for (TrainingDatasetDTO trainingDatasetDTO : all) {
+      Assert.assertEquals(FEATURES_PER_TRAINING_DATASET, trainingDatasetDTO.getFeatures().size());
+    }
+    // the features of all the training datasets are fetched with a single query
+    Mockito.verify(trainingDatasetFacade, Mockito.times(1))
+      .findFeaturesByTrainingDatasets(Matchers.anyListOf(TrainingDataset.class));
+  }
+
+  private Set<Integer> ids(List<TrainingDataset> trainingDatasets) {
+    return trainingDatasets.stream().map(TrainingDataset::getId).collect(Collectors.toSet());
+  }
+}
@@ -0,0 +1,279 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2021, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.common.jobs;
+
+import io.hops.hopsworks.common.dao.jobs.description.JobFacade;
+import io.hops.hopsworks.common.dao.jobs.scheduler.JobScheduleFacade;
+import io.hops.hopsworks.common.dao.project.team.ProjectTeamFacade;
+import io.hops.hopsworks.common.jobs.execution.ExecutionController;
+import io.hops.hopsworks.common.util.Settings;
+import io.hops.hopsworks.persistence.entity.jobs.description.Jobs;
+import io.hops.hopsworks.persistence.entity.jobs.scheduler.JobSchedule;
+import io.hops.hopsworks.persistence.entity.project.Project;
+import io.hops.hopsworks.persistence.entity.project.team.ProjectTeam;
+import io.hops.hopsworks.persistence.entity.user.Users;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Matchers;
+import org.mockito.Mockito;
+import org.mockito.internal.util.reflection.Whitebox;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TestJobScheduler {
+
+  private static final long MINUTE = 60 * 1000L;
+  private static final long HOUR = 60 * MINUTE;
+  private static final int PROJECTS = 100;
+
+  private InMemoryJobScheduleFacade jobScheduleFacade;
+  private JobFacade jobFacade;
+  private ProjectTeamFacade projectTeamFacade;
+  private ExecutionController executionController;
+  private Settings settings;
+  private final Map<Integer, Jobs> jobs = new HashMap<>();
+  private final List<ProjectTeam> members = new ArrayList<>();
+  private final AtomicInteger jobQueries = new AtomicInteger();
+  private final AtomicInteger memberQueries = new AtomicInteger();
+
+  @Before
+  public void setup() throws Exception {
+    jobScheduleFacade = new InMemoryJobScheduleFacade();
+    settings = Mockito.mock(Settings.class);
+    Mockito.when(settings.getJobSchedulerMisfireThreshold()).thenReturn(60L);
+    Mockito.when(settings.getJobSchedulerMissedFirePolicy()).thenReturn("FIRE_ONCE");
+    Mockito.when(settings.getJobSchedulerParallelism()).thenReturn(4);
+
+    jobFacade = Mockito.mock(JobFacade.class);
+    Mockito.when(jobFacade.findByIds(Matchers.anyCollectionOf(Integer.class))).thenAnswer(invocation -> {
+      jobQueries.incrementAndGet();
+      List<Jobs> found = new ArrayList<>();
+      for (Object id : (Collection<?>) invocation.getArguments()[0]) {
+        if (jobs.containsKey(id)) {
+          found.add(jobs.get(id));
+        }
+      }
+      return found;
+    });
+    projectTeamFacade = Mockito.mock(ProjectTeamFacade.class);
+    Mockito.when(projectTeamFacade.findByProjects(Matchers.anyCollectionOf(Project.class))).thenAnswer(
+      invocation -> {
+        memberQueries.incrementAndGet();
+        Collection<?> projects = (Collection<?>) invocation.getArguments()[0];
+        List<ProjectTeam> found = new ArrayList<>();
+        for (ProjectTeam member : members) {
+          if (projects.contains(member.getProject())) {
+            found.add(member);
+          }
+        }
+        return found;
+      });
+    executionController = Mockito.mock(ExecutionController.class);
+
+    for (int i = 0; i < PROJECTS; i++) {
+      Project project = new Project();
+      project.setId(i);
+      Users creator = new Users();
+      creator.setUid(i);
+      ProjectTeam member = new ProjectTeam();
+      member.setProject(project);
+      member.setUser(creator);
+      members.add(member);
+    }
+  }
+
+  private JobScheduler newScheduler() {
+    JobScheduler scheduler = new JobScheduler();
+    Whitebox.setInternalState(scheduler, "jobFacade", jobFacade);
+    Whitebox.setInternalState(scheduler, "jobScheduleFacade", jobScheduleFacade);
+    Whitebox.setInternalState(scheduler, "projectTeamFacade", projectTeamFacade);
+    Whitebox.setInternalState(scheduler, "executionController", executionController);
+    Whitebox.setInternalState(scheduler, "settings", settings);
+    return scheduler;
+  }
+
+  private Jobs addJob(int id) {
+    ProjectTeam member = members.get(id % PROJECTS);
+    Jobs job = new Jobs();
+    job.setId(id);
+    job.setProject(member.getProject());
+    job.setCreator(member.getUser());
+    jobs.put(id, job);
+    return job;
+  }
+
+  @Test
+  public void testFireTimes() {
+    Assert.assertEquals(-1, JobScheduler.lastFireAtOrBefore(5 * MINUTE, MINUTE, MINUTE));
+    Assert.assertEquals(5 * MINUTE, JobScheduler.lastFireAtOrBefore(5 * MINUTE, MINUTE, 5 * MINUTE));
+    Assert.assertEquals(6 * MINUTE, JobScheduler.lastFireAtOrBefore(5 * MINUTE, MINUTE, 6 * MINUTE + 1));
+    //an empty interval does not divide by zero
+    Assert.assertEquals(5 * MINUTE, JobScheduler.lastFireAtOrBefore(5 * MINUTE, 0, 10 * MINUTE));
+
+    Assert.assertEquals(5 * MINUTE, JobScheduler.nextFireAfter(5 * MINUTE, MINUTE, MINUTE));
+    Assert.assertEquals(6 * MINUTE, JobScheduler.nextFireAfter(5 * MINUTE, MINUTE, 5 * MINUTE));
+    Assert.assertEquals(Long.MAX_VALUE, JobScheduler.nextFireAfter(5 * MINUTE, 0, 5 * MINUTE));
+  }
+
+  @Test
+  public void testMissedFirePolicy() throws Exception {
+    addJob(1);
+    addJob(2);
+    //job 1 is 10 minutes late, job 2 is on time
+    jobScheduleFacade.save(new JobSchedule(1, 0L, HOUR, HOUR));
+    jobScheduleFacade.save(new JobSchedule(2, 10 * MINUTE, HOUR, 10 * MINUTE + HOUR));
+    Mockito.when(settings.getJobSchedulerMissedFirePolicy()).thenReturn("skip");
+
+    newScheduler().fireDue(HOUR + 10 * MINUTE);
+    Mockito.verify(executionController, Mockito.never()).start(Matchers.eq(jobs.get(1)), Matchers.anyString(),
+      Matchers.any(Users.class));
+    Mockito.verify(executionController).start(jobs.get(2), null, jobs.get(2).getCreator());
+    //both wait for their next fire time
+    Assert.assertEquals(2 * HOUR, (long) jobScheduleFacade.find(1).getNextFireTime());
+    Assert.assertEquals(10 * MINUTE + 2 * HOUR, (long) jobScheduleFacade.find(2).getNextFireTime());
+  }
+
+  @Test
+  public void testInvalidJobsAreUnscheduled() throws Exception {
+    Jobs job = addJob(1);
+    //job 2 was deleted, the creator of job 1 left the project
+    job.setCreator(members.get(2).getUser());
+    jobScheduleFacade.save(new JobSchedule(1, 0L, HOUR, 0L));
+    jobScheduleFacade.save(new JobSchedule(2, 0L, HOUR, 0L));
+
+    newScheduler().fireDue(MINUTE);
+    Mockito.verifyZeroInteractions(executionController);
+    Assert.assertNull(jobScheduleFacade.find(1));
+    Assert.assertNull(jobScheduleFacade.find(2));
+  }
+
+  @Test
+  public void testScale() throws Exception {
+    int scheduled = 10000;
+    //every job runs hourly, the first executions spread over the first 10 minutes
+    for (int i = 0; i < scheduled; i++) {
+      addJob(i);
+      long start = (i % 600) * 1000L;
+      jobScheduleFacade.save(new JobSchedule(i, start, HOUR, start));
+    }
+    //unscheduling is a removal from the index
+    JobScheduler scheduler = newScheduler();
+    for (int i = 0; i < scheduled; i += 10) {
+      Assert.assertTrue(scheduler.unscheduleJob(jobs.get(i)));
+    }
+    int remaining = scheduled - scheduled / 10;
+    Assert.assertEquals(remaining, jobScheduleFacade.size());
+
+    //two instances tick at the same time, every fire time runs once
+    JobScheduler other = newScheduler();
+    for (long now = 0; now < 10 * MINUTE; now += 1000) {
+      scheduler.fireDue(now);
+      other.fireDue(now);
+    }
+    Mockito.verify(executionController, Mockito.times(remaining)).start(Matchers.any(Jobs.class),
+      Matchers.anyString(), Matchers.any(Users.class));
+    //the jobs and the members of their projects are loaded once per tick that had due jobs, never one by one
+    Assert.assertEquals(10 * 60, jobQueries.get());
+    Assert.assertEquals(10 * 60, memberQueries.get());
+    Mockito.verify(jobFacade, Mockito.never()).find(Matchers.any());
+    Mockito.verify(projectTeamFacade, Mockito.never()).findCurrentRole(Matchers.any(Project.class),
+      Matchers.any(Users.class));
+
+    //a burst of due jobs is fired in batches
+    Mockito.reset(executionController);
+    jobQueries.set(0);
+    memberQueries.set(0);
+    scheduler.fireDue(HOUR + 10 * MINUTE);
+    Mockito.verify(executionController, Mockito.times(remaining)).start(Matchers.any(Jobs.class),
+      Matchers.anyString(), Matchers.any(Users.class));
+    int batches = (remaining + JobScheduler.BATCH_SIZE - 1) / JobScheduler.BATCH_SIZE;
+    Assert.assertEquals(batches, jobQueries.get());
+    Assert.assertEquals(batches, memberQueries.get());
+    Assert.assertTrue(jobScheduleFacade.findDue(HOUR + 10 * MINUTE, 1).isEmpty());
+  }
+
+  /**
+   * The job_schedule table, indexed by next fire time.
+   */
+  private static class InMemoryJobScheduleFacade extends JobScheduleFacade {
+    private final Map<Integer, JobSchedule> rows = new HashMap<>();
+    private final TreeSet<JobSchedule> index = new TreeSet<>((s1, s2) -> {
+      int cmp = s1.getNextFireTime().compareTo(s2.getNextFireTime());
+      return cmp != 0 ? cmp : s1.getJobId().compareTo(s2.getJobId());
+    });
+
+    @Override
+    public synchronized JobSchedule find(Integer jobId) {
+      return rows.get(jobId);
+    }
+
+    @Override
+    public synchronized void save(JobSchedule entity) {
+      remove(entity.getJobId());
+      rows.put(entity.getJobId(), entity);
+      index.add(entity);
+    }
+
+    @Override
+    public synchronized int remove(Collection<Integer> jobIds) {
+      int removed = 0;
+      for (Integer jobId : jobIds) {
+        JobSchedule row = rows.remove(jobId);
+        if (row != null) {
+          index.remove(row);
+          removed++;
+        }
+      }
+      return removed;
+    }
+
+    @Override
+    public synchronized List<JobSchedule> findDue(long now, int limit) {
+      List<JobSchedule> due = new ArrayList<>();
+      for (JobSchedule row : index) {
+        if (row.getNextFireTime() > now || due.size() == limit) {
+          break;
+        }
+        //a copy, like an entity read from the database
+        due.add(new JobSchedule(row.getJobId(), row.getStartTime(), row.getInterval(), row.getNextFireTime()));
+      }
+      return due;
+    }
+
+    @Override
+    public synchronized boolean claim(Integer jobId, long expected, long next) {
+      JobSchedule row = rows.get(jobId);
+      if (row == null || row.getNextFireTime() != expected) {
+        return false;
+      }
+      index.remove(row);
+      row.setNextFireTime(next);
+      index.add(row);
+      return true;
+    }
+
+    synchronized int size() {
+      return rows.size();
+    }
+  }
+}
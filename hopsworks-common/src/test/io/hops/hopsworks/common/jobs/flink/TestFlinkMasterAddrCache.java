@@ -0,0 +1,179 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2021, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.hops.hopsworks.common.jobs.flink;
+
+import io.hops.hopsworks.common.util.Settings;
+import io.hops.hopsworks.common.yarn.YarnClientService;
+import io.hops.hopsworks.common.yarn.YarnClientWrapper;
+import org.apache.hadoop.yarn.api.records.ApplicationId;
+import org.apache.hadoop.yarn.api.records.ApplicationReport;
+import org.apache.hadoop.yarn.client.api.YarnClient;
+import org.apache.hadoop.yarn.exceptions.YarnException;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Matchers;
+import org.mockito.Mockito;
+import org.mockito.internal.util.reflection.Whitebox;
+
+import javax.ejb.Timer;
+import javax.ejb.TimerConfig;
+import javax.ejb.TimerService;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class TestFlinkMasterAddrCache {
+
+  private static final int FLINK_CLUSTERS = 500;
+  private static final long CLUSTER_TIMESTAMP = 1600000000000L;
+
+  private FlinkMasterAddrCache flinkMasterAddrCache;
+  private YarnClient yarnClient;
+  private TimerService timerService;
+  //Running Flink clusters by application id
+  private Map<String, ApplicationReport> reports;
+
+  @Before
+  public void setup() throws Exception {
+    reports = new ConcurrentHashMap<>();
+    for (int i = 0; i < FLINK_CLUSTERS; i++) {
+      addCluster(i, "host" + (i % 20), 40000 + i);
+    }
+    yarnClient = Mockito.mock(YarnClient.class);
+    Mockito.when(yarnClient.getApplications(Matchers.anySetOf(String.class), Matchers.any(EnumSet.class)))
+      .thenAnswer(invocation -> new ArrayList<>(reports.values()));
+    YarnClientWrapper yarnClientWrapper = Mockito.mock(YarnClientWrapper.class);
+    Mockito.when(yarnClientWrapper.getYarnClient()).thenReturn(yarnClient);
+    YarnClientService ycs = Mockito.mock(YarnClientService.class);
+    Mockito.when(ycs.getYarnClientSuper()).thenReturn(yarnClientWrapper);
+    Settings settings = Mockito.mock(Settings.class);
+    Mockito.when(settings.getFlinkMasterAddrRefreshInterval()).thenReturn(5);
+    timerService = Mockito.mock(TimerService.class);
+
+    flinkMasterAddrCache = new FlinkMasterAddrCache();
+    Whitebox.setInternalState(flinkMasterAddrCache, "settings", settings);
+    Whitebox.setInternalState(flinkMasterAddrCache, "ycs", ycs);
+    Whitebox.setInternalState(flinkMasterAddrCache, "timerService", timerService);
+    flinkMasterAddrCache.init();
+  }
+
+  @Test
+  public void testLookupsDoNotCallYarn() throws Exception {
+    flinkMasterAddrCache.refresh();
+    Assert.assertEquals(FLINK_CLUSTERS, flinkMasterAddrCache.size());
+
+    for (int round = 0; round < 100; round++) {
+      for (int i = 0; i < FLINK_CLUSTERS; i++) {
+        Assert.assertEquals("host" + (i % 20) + ":" + (40000 + i), flinkMasterAddrCache.get(appId(i)));
+      }
+    }
+    Mockito.verify(yarnClient, Mockito.times(1)).getApplications(Matchers.anySetOf(String.class),
+      Matchers.any(EnumSet.class));
+    Mockito.verify(timerService, Mockito.never()).createSingleActionTimer(Matchers.anyLong(),
+      Matchers.any(TimerConfig.class));
+    Assert.assertEquals(FLINK_CLUSTERS, flinkMasterAddrCache.size());
+    Assert.assertEquals(0, flinkMasterAddrCache.getRelocations());
+  }
+
+  @Test
+  public void testRelocatedMasterIsRefreshed() {
+    flinkMasterAddrCache.refresh();
+    addCluster(7, "host99", 45000);
+    flinkMasterAddrCache.refresh();
+    Assert.assertEquals("host99:45000", flinkMasterAddrCache.get(appId(7)));
+    Assert.assertEquals(1, flinkMasterAddrCache.getRelocations());
+
+    //While the AM restarts the old master must not be used
+    addCluster(8, "N/A", -1);
+    flinkMasterAddrCache.refresh();
+    Assert.assertNull(flinkMasterAddrCache.get(appId(8)));
+  }
+
+  @Test
+  public void testStoppedClustersAreDropped() {
+    flinkMasterAddrCache.refresh();
+    reports.remove(appId(3));
+    flinkMasterAddrCache.refresh();
+    Assert.assertNull(flinkMasterAddrCache.get(appId(3)));
+    Assert.assertEquals(FLINK_CLUSTERS - 1, flinkMasterAddrCache.size());
+  }
+
+  @Test
+  public void testFailedRefreshKeepsAddresses() throws Exception {
+    flinkMasterAddrCache.refresh();
+    Mockito.when(yarnClient.getApplications(Matchers.anySetOf(String.class), Matchers.any(EnumSet.class)))
+      .thenThrow(new YarnException("ResourceManager failover"));
+    flinkMasterAddrCache.refresh();
+    Assert.assertEquals(FLINK_CLUSTERS, flinkMasterAddrCache.size());
+  }
+
+  @Test
+  public void testMissRequestsOneRefresh() {
+    addCluster(FLINK_CLUSTERS, "host0", 50000);
+    Assert.assertNull(flinkMasterAddrCache.get(appId(FLINK_CLUSTERS)));
+    Assert.assertNull(flinkMasterAddrCache.get(appId(FLINK_CLUSTERS)));
+    Mockito.verify(timerService, Mockito.times(1)).createSingleActionTimer(Matchers.anyLong(),
+      Matchers.any(TimerConfig.class));
+
+    flinkMasterAddrCache.refresh();
+    Assert.assertEquals("host0:50000", flinkMasterAddrCache.get(appId(FLINK_CLUSTERS)));
+    //Lookups of clusters that are not running right after a refresh do not trigger another one
+    Assert.assertNull(flinkMasterAddrCache.get(appId(FLINK_CLUSTERS + 1)));
+    Mockito.verify(timerService, Mockito.times(1)).createSingleActionTimer(Matchers.anyLong(),
+      Matchers.any(TimerConfig.class));
+  }
+
+  @Test
+  public void testMissesOfStoppedClustersRequestOneRefresh() {
+    flinkMasterAddrCache.refresh();
+    reports.remove(appId(3));
+    flinkMasterAddrCache.refresh();
+
+    //Long after each refresh, only the first lookup of the stopped cluster requests another one
+    for (int i = 0; i < 10; i++) {
+      Whitebox.setInternalState(flinkMasterAddrCache, "lastRefresh", 0L);
+      Assert.assertNull(flinkMasterAddrCache.get(appId(3)));
+      flinkMasterAddrCache.refresh();
+    }
+    Mockito.verify(timerService, Mockito.times(1)).createSingleActionTimer(Matchers.anyLong(),
+      Matchers.any(TimerConfig.class));
+
+    //The interval refresh forgets the lookups
+    Timer interval = Mockito.mock(Timer.class);
+    Mockito.when(interval.getInfo()).thenReturn("Flink master address refresh");
+    flinkMasterAddrCache.timeout(interval);
+    Whitebox.setInternalState(flinkMasterAddrCache, "lastRefresh", 0L);
+    Assert.assertNull(flinkMasterAddrCache.get(appId(3)));
+    Mockito.verify(timerService, Mockito.times(2)).createSingleActionTimer(Matchers.anyLong(),
+      Matchers.any(TimerConfig.class));
+  }
+
+  private void addCluster(int id, String host, int port) {
+    ApplicationReport report = Mockito.mock(ApplicationReport.class);
+    Mockito.when(report.getApplicationId()).thenReturn(ApplicationId.newInstance(CLUSTER_TIMESTAMP, id));
+    Mockito.when(report.getHost()).thenReturn(host);
+    Mockito.when(report.getRpcPort()).thenReturn(port);
+    reports.put(appId(id), report);
+  }
+
+  private String appId(int id) {
+    return ApplicationId.newInstance(CLUSTER_TIMESTAMP, id).toString();
+  }
+}
@@ -0,0 +1,77 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2021, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.hops.hopsworks.common.jobs.yarn;
+
+import io.hops.hopsworks.common.util.Settings;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.mockito.internal.util.reflection.Whitebox;
+
+import java.util.Arrays;
+import java.util.List;
+
+public class TestLocalResourceCache {
+
+  private static final Path SPARK_JAR = new Path("hdfs:///user/spark/hops-verification-assembly.jar");
+  private static final Path APP_JAR = new Path("hdfs:///Projects/demo/Resources/app.jar");
+  private static final Path CERT =
+    new Path("hdfs:///user/hdfs/kafkacerts/demo__alice/application_1_0001/k_certificate");
+
+  private LocalResourceCache localResourceCache;
+  private FileSystem fs;
+
+  @Before
+  public void setup() throws Exception {
+    Settings settings = Mockito.mock(Settings.class);
+    Mockito.when(settings.getYarnLocalizationCacheTTL()).thenReturn(300);
+    Mockito.when(settings.getYarnLocalizationCacheMaxSize()).thenReturn(100);
+    Mockito.when(settings.getYarnLocalizationStatParallelism()).thenReturn(4);
+    Mockito.when(settings.getHdfsTmpCertDir()).thenReturn("/user/hdfs/kafkacerts");
+    localResourceCache = new LocalResourceCache();
+    Whitebox.setInternalState(localResourceCache, "settings", settings);
+    localResourceCache.init();
+
+    fs = Mockito.mock(FileSystem.class);
+    Mockito.when(fs.getFileStatus(SPARK_JAR)).thenReturn(status(SPARK_JAR, 10, 100));
+    Mockito.when(fs.getFileStatus(APP_JAR)).thenReturn(status(APP_JAR, 20, 200));
+    Mockito.when(fs.getFileStatus(CERT)).thenReturn(status(CERT, 30, 300));
+  }
+
+  @Test
+  public void testOnlySharedFilesAreCached() throws Exception {
+    List<Path> paths = Arrays.asList(SPARK_JAR, APP_JAR, CERT);
+    for (int i = 0; i < 3; i++) {
+      List<LocalResourceCache.ResourceStatus> stats = localResourceCache.getStatus(fs, paths);
+      Assert.assertEquals(3, stats.size());
+      Assert.assertEquals(10, stats.get(0).getLen());
+      Assert.assertEquals(200, stats.get(1).getModificationTime());
+      Assert.assertEquals(30, stats.get(2).getLen());
+    }
+    Mockito.verify(fs, Mockito.times(1)).getFileStatus(SPARK_JAR);
+    Mockito.verify(fs, Mockito.times(3)).getFileStatus(APP_JAR);
+    Mockito.verify(fs, Mockito.times(3)).getFileStatus(CERT);
+  }
+
+  private FileStatus status(Path path, long len, long modificationTime) {
+    return new FileStatus(len, false, 3, 128 * 1024 * 1024, modificationTime, path);
+  }
+}
@@ -0,0 +1,191 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2021, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.hops.hopsworks.common.kafka;
+
+import io.hops.hopsworks.common.dao.kafka.ConsumerGroupLagDTO;
+import io.hops.hopsworks.common.dao.kafka.HopsKafkaAdminClient;
+import io.hops.hopsworks.common.dao.kafka.ProjectTopicsFacade;
+import io.hops.hopsworks.common.dao.kafka.TopicLagDTO;
+import io.hops.hopsworks.persistence.entity.kafka.ProjectTopics;
+import io.hops.hopsworks.persistence.entity.project.Project;
+import org.apache.kafka.clients.admin.ConsumerGroupListing;
+import org.apache.kafka.clients.admin.DescribeTopicsResult;
+import org.apache.kafka.clients.admin.ListConsumerGroupOffsetsResult;
+import org.apache.kafka.clients.admin.ListConsumerGroupsResult;
+import org.apache.kafka.clients.admin.TopicDescription;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.KafkaFuture;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.TopicPartitionInfo;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Matchers;
+import org.mockito.Mockito;
+import org.mockito.internal.util.reflection.Whitebox;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class TestKafkaLagCollector {
+
+  private static final int PARTITIONS = 3;
+
+  private KafkaLagCollector kafkaLagCollector;
+  private HopsKafkaAdminClient hopsKafkaAdminClient;
+  private Map<TopicPartition, Long> endOffsets;
+  private Map<String, Map<TopicPartition, OffsetAndMetadata>> groupOffsets;
+
+  @Before
+  public void setup() {
+    Project project = new Project("demo");
+    Project other = new Project("other\"project");
+    List<ProjectTopics> topics = Arrays.asList(new ProjectTopics("clicks", project, null),
+      new ProjectTopics("orders", other, null));
+    ProjectTopicsFacade projectTopicsFacade = Mockito.mock(ProjectTopicsFacade.class);
+    Mockito.when(projectTopicsFacade.findAll()).thenReturn(topics);
+
+    endOffsets = new HashMap<>();
+    for (String topic : Arrays.asList("clicks", "orders")) {
+      for (int p = 0; p < PARTITIONS; p++) {
+        endOffsets.put(new TopicPartition(topic, p), 100L * (p + 1));
+      }
+    }
+    groupOffsets = new HashMap<>();
+    Map<TopicPartition, OffsetAndMetadata> analytics = new HashMap<>();
+    analytics.put(new TopicPartition("clicks", 0), new OffsetAndMetadata(90));
+    analytics.put(new TopicPartition("clicks", 1), new OffsetAndMetadata(200));
+    analytics.put(new TopicPartition("clicks", 2), new OffsetAndMetadata(250));
+    //Topics not owned by a project are not reported
+    analytics.put(new TopicPartition("__internal", 0), new OffsetAndMetadata(1));
+    groupOffsets.put("analytics", analytics);
+    groupOffsets.put("billing", Collections.singletonMap(new TopicPartition("orders", 0), new OffsetAndMetadata(40)));
+
+    hopsKafkaAdminClient = Mockito.mock(HopsKafkaAdminClient.class);
+    Mockito.when(hopsKafkaAdminClient.describeTopics(Matchers.anyCollectionOf(String.class))).thenAnswer(
+      invocation -> {
+        Map<String, KafkaFuture<TopicDescription>> descriptions = new HashMap<>();
+        for (Object topic : (Collection<?>) invocation.getArguments()[0]) {
+          List<TopicPartitionInfo> partitions = new ArrayList<>();
+          for (int p = 0; p < PARTITIONS; p++) {
+            partitions.add(new TopicPartitionInfo(p, null, Collections.emptyList(), Collections.emptyList()));
+          }
+          descriptions.put((String) topic,
+            KafkaFuture.completedFuture(new TopicDescription((String) topic, false, partitions)));
+        }
+        DescribeTopicsResult result = Mockito.mock(DescribeTopicsResult.class);
+        Mockito.when(result.values()).thenReturn(descriptions);
+        return result;
+      });
+    Mockito.when(hopsKafkaAdminClient.endOffsets(Matchers.anyCollectionOf(TopicPartition.class),
+      Matchers.any(Duration.class))).thenAnswer(invocation -> new HashMap<>(endOffsets));
+    Mockito.when(hopsKafkaAdminClient.listConsumerGroups()).thenAnswer(invocation -> {
+      List<ConsumerGroupListing> groups = new ArrayList<>();
+      for (String group : groupOffsets.keySet()) {
+        groups.add(new ConsumerGroupListing(group, false));
+      }
+      ListConsumerGroupsResult result = Mockito.mock(ListConsumerGroupsResult.class);
+      Mockito.when(result.all()).thenReturn(KafkaFuture.completedFuture(groups));
+      return result;
+    });
+    Mockito.when(hopsKafkaAdminClient.listConsumerGroupOffsets(Matchers.anyString())).thenAnswer(invocation -> {
+      ListConsumerGroupOffsetsResult result = Mockito.mock(ListConsumerGroupOffsetsResult.class);
+      Mockito.when(result.partitionsToOffsetAndMetadata()).thenReturn(
+        KafkaFuture.completedFuture(groupOffsets.get((String) invocation.getArguments()[0])));
+      return result;
+    });
+
+    kafkaLagCollector = new KafkaLagCollector();
+    Whitebox.setInternalState(kafkaLagCollector, "projectTopicsFacade", projectTopicsFacade);
+    Whitebox.setInternalState(kafkaLagCollector, "hopsKafkaAdminClient", hopsKafkaAdminClient);
+  }
+
+  @Test
+  public void testLagOfEveryConsumerGroup() {
+    kafkaLagCollector.collect(null);
+
+    TopicLagDTO clicks = kafkaLagCollector.getLag("clicks");
+    Assert.assertEquals(600L, (long) clicks.getEndOffset());
+    Assert.assertNull(clicks.getProduceRate());
+    Assert.assertEquals(1, clicks.getConsumerGroups().size());
+    ConsumerGroupLagDTO analytics = clicks.getConsumerGroups().get(0);
+    Assert.assertEquals("analytics", analytics.getGroup());
+    //10 + 0 + 50
+    Assert.assertEquals(60L, (long) analytics.getLag());
+    Assert.assertEquals(PARTITIONS, analytics.getPartitions().size());
+    Assert.assertEquals(0, (int) analytics.getPartitions().get(0).getPartition());
+    Assert.assertEquals(10L, (long) analytics.getPartitions().get(0).getLag());
+
+    TopicLagDTO orders = kafkaLagCollector.getLag("orders");
+    Assert.assertEquals("billing", orders.getConsumerGroups().get(0).getGroup());
+    Assert.assertEquals(60L, (long) orders.getConsumerGroups().get(0).getLag());
+
+    Assert.assertNull(kafkaLagCollector.getLag("unknown").getCollectedAt());
+    //One round trip per collection, not per request
+    Mockito.verify(hopsKafkaAdminClient, Mockito.times(1)).endOffsets(Matchers.anyCollectionOf(TopicPartition.class),
+      Matchers.any(Duration.class));
+  }
+
+  @Test
+  public void testRatesBetweenCollections() {
+    Map<String, String> owners = Collections.singletonMap("clicks", "demo");
+    TopicPartition p0 = new TopicPartition("clicks", 0);
+    TopicPartition p1 = new TopicPartition("clicks", 1);
+    Map<TopicPartition, Long> ends = new HashMap<>();
+    ends.put(p0, 1000L);
+    ends.put(p1, 1000L);
+    Map<String, Map<TopicPartition, Long>> committed = new HashMap<>();
+    committed.put("analytics", new HashMap<>(ends));
+
+    KafkaLagCollector.Snapshot first = KafkaLagCollector.Snapshot.EMPTY.next(10_000, owners, ends, committed);
+    Assert.assertNull(first.toDTO("clicks").getProduceRate());
+
+    Map<TopicPartition, Long> laterEnds = new HashMap<>();
+    laterEnds.put(p0, 1600L);
+    //Recreated partition, offsets going backwards are not counted
+    laterEnds.put(p1, 10L);
+    Map<String, Map<TopicPartition, Long>> laterCommitted = new HashMap<>();
+    Map<TopicPartition, Long> analytics = new HashMap<>();
+    analytics.put(p0, 1300L);
+    analytics.put(p1, 10L);
+    laterCommitted.put("analytics", analytics);
+    KafkaLagCollector.Snapshot second = first.next(40_000, owners, laterEnds, laterCommitted);
+
+    TopicLagDTO dto = second.toDTO("clicks");
+    Assert.assertEquals(20.0, dto.getProduceRate(), 0.001);
+    Assert.assertEquals(10.0, dto.getConsumerGroups().get(0).getConsumeRate(), 0.001);
+    Assert.assertEquals(300L, (long) dto.getConsumerGroups().get(0).getLag());
+  }
+
+  @Test
+  public void testPrometheusExposition() {
+    kafkaLagCollector.collect(null);
+    String metrics = kafkaLagCollector.toPrometheus();
+    Assert.assertTrue(metrics.contains("# TYPE hopsworks_kafka_consumer_lag gauge\n"));
+    Assert.assertTrue(metrics.contains(
+      "hopsworks_kafka_consumer_lag{project=\"demo\",topic=\"clicks\",group=\"analytics\",partition=\"2\"} 50\n"));
+    Assert.assertTrue(metrics.contains("hopsworks_kafka_consumer_lag{project=\"other\\\"project\",topic=\"orders\","
+      + "group=\"billing\",partition=\"0\"} 60\n"));
+    Assert.assertFalse(metrics.contains("__internal"));
+  }
+}
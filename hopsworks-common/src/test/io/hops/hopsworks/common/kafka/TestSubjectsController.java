@@ -0,0 +1,158 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2021, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.hops.hopsworks.common.kafka;
+
+import io.hops.hopsworks.common.dao.kafka.schemas.SubjectDTO;
+import io.hops.hopsworks.common.dao.kafka.schemas.SubjectsCompatibilityFacade;
+import io.hops.hopsworks.common.dao.kafka.schemas.SubjectsFacade;
+import io.hops.hopsworks.common.util.Settings;
+import io.hops.hopsworks.exceptions.SchemaException;
+import io.hops.hopsworks.persistence.entity.kafka.schemas.SchemaCompatibility;
+import io.hops.hopsworks.persistence.entity.kafka.schemas.Schemas;
+import io.hops.hopsworks.persistence.entity.kafka.schemas.Subjects;
+import io.hops.hopsworks.persistence.entity.kafka.schemas.SubjectsCompatibility;
+import io.hops.hopsworks.persistence.entity.project.Project;
+import io.hops.hopsworks.restutils.RESTCodes;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Matchers;
+import org.mockito.Mockito;
+import org.mockito.internal.util.reflection.Whitebox;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TestSubjectsController {
+
+  private static final String SUBJECT = "events";
+  private static final int VERSIONS = 500;
+
+  private SubjectsController subjectsController;
+  private SubjectsCompatibilityFacade subjectsCompatibilityFacade;
+  private Project project;
+  private List<Subjects> subjects;
+
+  @Before
+  public void setup() throws Exception {
+    project = new Project("demo");
+    project.setId(1);
+    subjects = new ArrayList<>();
+
+    SubjectsFacade subjectsFacade = Mockito.mock(SubjectsFacade.class);
+    Mockito.when(subjectsFacade.findSubjectByNameWithSchema(Matchers.any(Project.class), Matchers.anyString()))
+      .thenAnswer(invocation -> new ArrayList<>(subjects));
+    Mockito.when(subjectsFacade.insertNewSubject(Matchers.any(Project.class), Matchers.anyString(),
+      Matchers.any(Schemas.class), Matchers.anyInt())).thenAnswer(invocation -> {
+        Schemas schemas = (Schemas) invocation.getArguments()[2];
+        subjects.add(new Subjects((String) invocation.getArguments()[1], (Integer) invocation.getArguments()[3],
+          schemas, project));
+        return schemas.getId();
+      });
+    AtomicInteger schemaIds = new AtomicInteger();
+    SchemasController schemasController = Mockito.mock(SchemasController.class);
+    Mockito.when(schemasController.addNewSchema(Matchers.any(Project.class), Matchers.anyString()))
+      .thenAnswer(invocation -> {
+        Schemas schemas = new Schemas((String) invocation.getArguments()[1], project);
+        schemas.setId(schemaIds.incrementAndGet());
+        return schemas;
+      });
+    subjectsCompatibilityFacade = Mockito.mock(SubjectsCompatibilityFacade.class);
+    setCompatibility(SchemaCompatibility.BACKWARD);
+
+    Settings settings = Mockito.mock(Settings.class);
+    Mockito.when(settings.getKafkaSchemaCacheSize()).thenReturn(10000);
+    ParsedSchemaCache parsedSchemaCache = new ParsedSchemaCache();
+    Whitebox.setInternalState(parsedSchemaCache, "settings", settings);
+    parsedSchemaCache.init();
+
+    subjectsController = new SubjectsController();
+    Whitebox.setInternalState(subjectsController, "subjectsFacade", subjectsFacade);
+    Whitebox.setInternalState(subjectsController, "subjectsCompatibilityFacade", subjectsCompatibilityFacade);
+    Whitebox.setInternalState(subjectsController, "schemasController", schemasController);
+    Whitebox.setInternalState(subjectsController, "parsedSchemaCache", parsedSchemaCache);
+  }
+
+  @Test
+  public void testRegisteredSchemaIsFound() throws Exception {
+    SubjectDTO first = subjectsController.registerNewSubject(project, SUBJECT, schema(1), false);
+    subjectsController.registerNewSubject(project, SUBJECT, schema(2), false);
+    //Same schema, formatted differently
+    SubjectDTO again = subjectsController.registerNewSubject(project, SUBJECT,
+      "  " + schema(1).replace(",", " ,\n"), false);
+    Assert.assertEquals(first.getId(), again.getId());
+    Assert.assertEquals(first.getVersion(), again.getVersion());
+    //Same schema, with the attributes of the fields in another order
+    again = subjectsController.registerNewSubject(project, SUBJECT,
+      schema(1).replace("{\"name\":\"id\",\"type\":\"long\"}", "{\"type\":\"long\",\"name\":\"id\"}"), false);
+    Assert.assertEquals(first.getVersion(), again.getVersion());
+    Assert.assertEquals(2, subjects.size());
+    Assert.assertEquals(first.getVersion(),
+      subjectsController.checkIfSchemaRegistered(project, SUBJECT, schema(1)).getVersion());
+  }
+
+  @Test
+  public void testTransitiveLevelsCheckAllVersions() throws Exception {
+    String v1 = "{\"type\":\"record\",\"name\":\"Event\",\"fields\":[{\"name\":\"a\",\"type\":\"int\"}]}";
+    String v2 = "{\"type\":\"record\",\"name\":\"Event\",\"fields\":[{\"name\":\"b\",\"type\":\"int\"," +
+      "\"default\":0}]}";
+    //Can read the data of v2 but not of v1, b is missing from it and has no default
+    String v3 = "{\"type\":\"record\",\"name\":\"Event\",\"fields\":[{\"name\":\"b\",\"type\":\"int\"}]}";
+    subjectsController.registerNewSubject(project, SUBJECT, v1, false);
+    subjectsController.registerNewSubject(project, SUBJECT, v2, false);
+
+    setCompatibility(SchemaCompatibility.BACKWARD_TRANSITIVE);
+    try {
+      subjectsController.registerNewSubject(project, SUBJECT, v3, false);
+      Assert.fail("v3 can not read v1");
+    } catch (SchemaException e) {
+      Assert.assertEquals(RESTCodes.SchemaRegistryErrorCode.INCOMPATIBLE_AVRO_SCHEMA, e.getErrorCode());
+    }
+
+    setCompatibility(SchemaCompatibility.BACKWARD);
+    Assert.assertEquals(3, (int) subjectsController.registerNewSubject(project, SUBJECT, v3, false).getVersion());
+  }
+
+  @Test
+  public void testRegisterManyVersions() throws Exception {
+    for (int v = 1; v <= VERSIONS; v++) {
+      SubjectDTO registered = subjectsController.registerNewSubject(project, SUBJECT, schema(v), false);
+      Assert.assertEquals(v, (int) registered.getVersion());
+    }
+    SubjectDTO existing = subjectsController.registerNewSubject(project, SUBJECT, schema(VERSIONS / 2), false);
+    Assert.assertEquals(VERSIONS / 2, (int) existing.getVersion());
+    Assert.assertEquals(VERSIONS, subjects.size());
+  }
+
+  private void setCompatibility(SchemaCompatibility compatibility) {
+    Mockito.when(subjectsCompatibilityFacade.getSubjectCompatibility(Matchers.any(Project.class),
+      Matchers.anyString())).thenReturn(Optional.of(new SubjectsCompatibility(SUBJECT, project, compatibility)));
+  }
+
+  /**
+   * Record with one more optional field for every version.
+   */
+  private String schema(int version) {
+    StringBuilder fields = new StringBuilder("{\"name\":\"id\",\"type\":\"long\"}");
+    for (int i = 1; i < version; i++) {
+      fields.append(",{\"name\":\"f").append(i).append("\",\"type\":[\"null\",\"string\"],\"default\":null}");
+    }
+    return "{\"type\":\"record\",\"name\":\"Event\",\"fields\":[" + fields + "]}";
+  }
+}
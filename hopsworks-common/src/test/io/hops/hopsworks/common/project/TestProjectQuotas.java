@@ -0,0 +1,192 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2021, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.hops.hopsworks.common.project;
+
+import io.hops.hopsworks.common.dao.dataset.DatasetFacade;
+import io.hops.hopsworks.common.dao.hdfs.HdfsDirectoryWithQuotaFeatureFacade;
+import io.hops.hopsworks.common.dao.jobs.quota.YarnProjectsQuotaFacade;
+import io.hops.hopsworks.persistence.entity.dataset.Dataset;
+import io.hops.hopsworks.persistence.entity.dataset.DatasetAccessPermission;
+import io.hops.hopsworks.persistence.entity.dataset.DatasetType;
+import io.hops.hopsworks.persistence.entity.hdfs.HdfsDirectoryWithQuotaFeature;
+import io.hops.hopsworks.persistence.entity.hdfs.inode.Inode;
+import io.hops.hopsworks.persistence.entity.jobs.quota.YarnProjectsQuota;
+import io.hops.hopsworks.persistence.entity.project.Project;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Matchers;
+import org.mockito.Mockito;
+import org.mockito.internal.util.reflection.Whitebox;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+public class TestProjectQuotas {
+
+  private static final int PROJECTS = 10000;
+  private static final int PAGE_SIZE = 100;
+
+  private ProjectController projectController;
+  private YarnProjectsQuotaFacade yarnProjectsQuotaFacade;
+  private HdfsDirectoryWithQuotaFeatureFacade hdfsDirectoryWithQuotaFeatureFacade;
+  private DatasetFacade datasetFacade;
+  private List<Project> projects;
+
+  @Before
+  public void setup() {
+    projects = new ArrayList<>();
+    Map<String, YarnProjectsQuota> yarnQuotas = new HashMap<>();
+    Map<Long, HdfsDirectoryWithQuotaFeature> dirQuotas = new HashMap<>();
+    List<Dataset> datasets = new ArrayList<>();
+    for (int p = 0; p < PROJECTS; p++) {
+      Project project = new Project("project" + p);
+      project.setId(p);
+      project.setKafkaMaxNumTopics(p % 10);
+      project.setInode(inode(p, "project" + p, p * 10L));
+      projects.add(project);
+      dirQuotas.put(p * 10L, dirQuota(p * 10L, p));
+      //every hundredth project is missing its YARN quota
+      if (p % 100 != 0) {
+        yarnQuotas.put(project.getName(), new YarnProjectsQuota(project.getName(), p, 2 * p));
+      }
+      //even projects have a Hive db, every third project a feature store without a quota
+      if (p % 2 == 0) {
+        datasets.add(dataset(project, DatasetType.HIVEDB, p * 10L + 1));
+        dirQuotas.put(p * 10L + 1, dirQuota(p * 10L + 1, p + 1));
+      }
+      if (p % 3 == 0) {
+        datasets.add(dataset(project, DatasetType.FEATURESTORE, p * 10L + 2));
+      }
+    }
+
+    yarnProjectsQuotaFacade = Mockito.mock(YarnProjectsQuotaFacade.class);
+    Mockito.when(yarnProjectsQuotaFacade.findByProjectNames(Matchers.anyCollection())).thenAnswer(invocation ->
+      ((Collection<String>) invocation.getArguments()[0]).stream().filter(yarnQuotas::containsKey)
+        .map(yarnQuotas::get).collect(Collectors.toList()));
+    hdfsDirectoryWithQuotaFeatureFacade = Mockito.mock(HdfsDirectoryWithQuotaFeatureFacade.class);
+    Mockito.when(hdfsDirectoryWithQuotaFeatureFacade.getByInodeIds(Matchers.anyCollection())).thenAnswer(invocation ->
+      ((Collection<Long>) invocation.getArguments()[0]).stream().filter(dirQuotas::containsKey)
+        .map(dirQuotas::get).collect(Collectors.toList()));
+    datasetFacade = Mockito.mock(DatasetFacade.class);
+    Mockito.when(datasetFacade.findByProjectsAndTypes(Matchers.anyCollection(), Matchers.anyCollection()))
+      .thenAnswer(invocation -> {
+        Collection<Project> page = (Collection<Project>) invocation.getArguments()[0];
+        Collection<DatasetType> types = (Collection<DatasetType>) invocation.getArguments()[1];
+        return datasets.stream().filter(ds -> page.contains(ds.getProject()) && types.contains(ds.getDsType()))
+          .collect(Collectors.toList());
+      });
+
+    projectController = new ProjectController();
+    Whitebox.setInternalState(projectController, "yarnProjectsQuotaFacade", yarnProjectsQuotaFacade);
+    Whitebox.setInternalState(projectController, "hdfsDirectoryWithQuotaFeatureFacade",
+      hdfsDirectoryWithQuotaFeatureFacade);
+    Whitebox.setInternalState(projectController, "datasetFacade", datasetFacade);
+  }
+
+  @Test
+  public void testQuotasOfAPage() {
+    List<Project> page = projects.subList(0, 6);
+    Map<Integer, QuotasDTO> quotas = projectController.getQuotasInternal(page);
+    Assert.assertEquals(6, quotas.size());
+
+    QuotasDTO quota = quotas.get(0);
+    Assert.assertEquals(0f, quota.getYarnQuotaInSecs(), 0f);
+    Assert.assertEquals(0L, (long) quota.getHdfsQuotaInBytes());
+    Assert.assertEquals(1L, (long) quota.getHiveHdfsQuotaInBytes());
+    Assert.assertEquals(-1L, (long) quota.getFeaturestoreHdfsQuotaInBytes());
+
+    quota = quotas.get(3);
+    Assert.assertEquals(3f, quota.getYarnQuotaInSecs(), 0f);
+    Assert.assertEquals(3L, (long) quota.getHdfsQuotaInBytes());
+    Assert.assertEquals(3000L, (long) quota.getHdfsUsageInBytes());
+    Assert.assertEquals(-1L, (long) quota.getHiveHdfsQuotaInBytes());
+    Assert.assertEquals(-1L, (long) quota.getFeaturestoreHdfsNsCount());
+    Assert.assertEquals(3, (int) quota.getKafkaMaxNumTopics());
+
+    quota = quotas.get(4);
+    Assert.assertEquals(5L, (long) quota.getHiveHdfsQuotaInBytes());
+    Assert.assertEquals(500L, (long) quota.getHiveHdfsNsQuota());
+    Assert.assertEquals(50L, (long) quota.getHiveHdfsNsCount());
+
+    Mockito.verify(yarnProjectsQuotaFacade, Mockito.times(1)).findByProjectNames(Matchers.anyCollection());
+    Mockito.verify(datasetFacade, Mockito.times(1)).findByProjectsAndTypes(Matchers.anyCollection(),
+      Matchers.anyCollection());
+    Mockito.verify(hdfsDirectoryWithQuotaFeatureFacade, Mockito.times(1)).getByInodeIds(Matchers.anyCollection());
+  }
+
+  @Test
+  public void testSingleProjectQuotas() {
+    QuotasDTO quota = projectController.getQuotasInternal(projects.get(42));
+    Assert.assertEquals(42f, quota.getYarnQuotaInSecs(), 0f);
+    Assert.assertEquals(42L, (long) quota.getHdfsQuotaInBytes());
+    Assert.assertEquals(43L, (long) quota.getHiveHdfsQuotaInBytes());
+  }
+
+  @Test
+  public void testEmptyPage() {
+    Assert.assertTrue(projectController.getQuotasInternal(new ArrayList<>()).isEmpty());
+    Mockito.verifyZeroInteractions(yarnProjectsQuotaFacade, datasetFacade, hdfsDirectoryWithQuotaFeatureFacade);
+  }
+
+  @Test
+  public void testAllProjects() {
+    int quotas = 0;
+    for (int i = 0; i < PROJECTS; i += PAGE_SIZE) {
+      quotas += projectController.getQuotasInternal(projects.subList(i, i + PAGE_SIZE)).size();
+    }
+    Assert.assertEquals(PROJECTS, quotas);
+
+    int pages = PROJECTS / PAGE_SIZE;
+    Mockito.verify(yarnProjectsQuotaFacade, Mockito.times(pages)).findByProjectNames(Matchers.anyCollection());
+    Mockito.verify(datasetFacade, Mockito.times(pages)).findByProjectsAndTypes(Matchers.anyCollection(),
+      Matchers.anyCollection());
+    Mockito.verify(hdfsDirectoryWithQuotaFeatureFacade, Mockito.times(pages))
+      .getByInodeIds(Matchers.anyCollection());
+
+    //one YARN and one project directory query per project, plus one per Hive db and feature store
+    int perProjectQueries = 2 * PROJECTS + PROJECTS / 2 + (PROJECTS + 2) / 3;
+    Assert.assertTrue(3 * pages < perProjectQueries);
+  }
+
+  private static Inode inode(long parentId, String name, long id) {
+    Inode inode = new Inode(parentId, name, parentId);
+    inode.setId(id);
+    return inode;
+  }
+
+  private static Dataset dataset(Project project, DatasetType type, long inodeId) {
+    Dataset dataset = new Dataset(inode(project.getInode().getId(), type.name(), inodeId), project,
+      DatasetAccessPermission.EDITABLE);
+    dataset.setDsType(type);
+    return dataset;
+  }
+
+  private static HdfsDirectoryWithQuotaFeature dirQuota(long inodeId, long quota) {
+    HdfsDirectoryWithQuotaFeature dirQuota = new HdfsDirectoryWithQuotaFeature(inodeId);
+    dirQuota.setSsquota(BigInteger.valueOf(quota));
+    dirQuota.setStorageSpace(BigInteger.valueOf(quota * 1000));
+    dirQuota.setNsquota(BigInteger.valueOf(quota * 100));
+    dirQuota.setNscount(BigInteger.valueOf(quota * 10));
+    return dirQuota;
+  }
+}
@@ -0,0 +1,233 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2021, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.hops.hopsworks.common.provenance.core;
+
+import io.hops.hopsworks.common.dao.project.ProjectFacade;
+import io.hops.hopsworks.common.elastic.ElasticClientController;
+import io.hops.hopsworks.common.util.Settings;
+import io.hops.hopsworks.persistence.entity.hdfs.inode.Inode;
+import io.hops.hopsworks.persistence.entity.project.Project;
+import org.elasticsearch.action.admin.indices.alias.Alias;
+import org.elasticsearch.action.admin.indices.delete.DeleteIndexRequest;
+import org.elasticsearch.action.ingest.PutPipelineRequest;
+import org.elasticsearch.client.indices.CreateIndexRequest;
+import org.elasticsearch.client.indices.GetIndexRequest;
+import org.elasticsearch.client.indices.GetIndexResponse;
+import org.elasticsearch.client.indices.rollover.RolloverRequest;
+import org.elasticsearch.client.indices.rollover.RolloverResponse;
+import org.elasticsearch.cluster.metadata.AliasMetaData;
+import org.javatuples.Pair;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Matchers;
+import org.mockito.Mockito;
+import org.mockito.internal.util.reflection.Whitebox;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+public class TestProvIndexController {
+
+  private static final int PROJECTS = 20000;
+  private static final long DAY = TimeUnit.DAYS.toMillis(1);
+
+  private ProvIndexController provIndexController;
+  private ElasticClientController client;
+  private Settings settings;
+
+  @Before
+  public void setup() throws Exception {
+    client = Mockito.mock(ElasticClientController.class);
+    settings = Mockito.mock(Settings.class);
+    Mockito.when(settings.getProvIndexRolloverAge()).thenReturn(30L);
+    Mockito.when(settings.getProvIndexRolloverSize()).thenReturn(20L);
+    Mockito.when(settings.getProvIndexRetention()).thenReturn(15L);
+    provIndexController = new ProvIndexController();
+    Whitebox.setInternalState(provIndexController, "client", client);
+    Whitebox.setInternalState(provIndexController, "settings", settings);
+  }
+
+  @Test
+  public void testIndexNames() {
+    Assert.assertEquals("123_ops-000004__file_prov", ProvIndexController.segmentName(123L, 4));
+    Assert.assertEquals(123L, (long) ProvIndexController.projectInodeId("123__file_prov"));
+    Assert.assertEquals(123L, (long) ProvIndexController.projectInodeId("123_ops-000004__file_prov"));
+    Assert.assertNull(ProvIndexController.projectInodeId("demo__file_prov"));
+    Assert.assertNull(ProvIndexController.projectInodeId("123__file_prov-000004"));
+    Assert.assertNull(ProvIndexController.projectInodeId("123-000004__file_prov"));
+  }
+
+  @Test
+  public void testOnlyOperationsAreRouted() throws Exception {
+    String pipeline = ProvIndexController.opsPipeline();
+    Assert.assertTrue(pipeline.contains("\"if\":\"ctx.entry_type == 'operation'\""));
+    Assert.assertTrue(pipeline.contains("\"index\":\"__file_prov\",\"ops\":\"_ops__file_prov\""));
+
+    Project project = new Project();
+    Inode inode = new Inode();
+    inode.setId(123L);
+    project.setInode(inode);
+    Mockito.when(client.mngIndexExists(Matchers.anyString())).thenReturn(false);
+    provIndexController.createProjectIndex(project);
+
+    InOrder order = Mockito.inOrder(client);
+    order.verify(client).mngPipelinePut(Matchers.any(PutPipelineRequest.class));
+    ArgumentCaptor<CreateIndexRequest> creates = ArgumentCaptor.forClass(CreateIndexRequest.class);
+    order.verify(client, Mockito.times(2)).mngIndexCreate(creates.capture());
+    //the operations alias exists before the state index routes operations to it
+    CreateIndexRequest ops = creates.getAllValues().get(0);
+    Assert.assertEquals("123_ops-000001__file_prov", ops.index());
+    Alias alias = ops.aliases().iterator().next();
+    Assert.assertEquals("123_ops__file_prov", alias.name());
+    Assert.assertTrue(alias.writeIndex());
+    //the file states stay in a single index that is never rolled over
+    CreateIndexRequest states = creates.getAllValues().get(1);
+    Assert.assertEquals("123__file_prov", states.index());
+    Assert.assertTrue(states.aliases().isEmpty());
+    Assert.assertEquals(ProvIndexController.OPS_PIPELINE, states.settings().get("index.default_pipeline"));
+  }
+
+  @Test
+  public void testOnlyFullyExpiredSegmentsAreDropped() {
+    long now = 40 * DAY;
+    List<ProvIndexController.Segment> segments = Arrays.asList(
+      new ProvIndexController.Segment("1_ops-000001__file_prov", 1, 1, 0, false),
+      new ProvIndexController.Segment("1_ops-000002__file_prov", 1, 2, 10 * DAY, false),
+      new ProvIndexController.Segment("1_ops-000003__file_prov", 1, 3, 20 * DAY, false),
+      new ProvIndexController.Segment("1_ops-000004__file_prov", 1, 4, 30 * DAY, true));
+    //The third segment received documents until day 30, within the retention period
+    Assert.assertEquals(Arrays.asList("1_ops-000001__file_prov", "1_ops-000002__file_prov"),
+      ProvIndexController.expiredSegments(segments, now, 15 * DAY));
+    //The write segment is kept however old it is
+    Assert.assertEquals(3, ProvIndexController.expiredSegments(segments, 1000 * DAY, 15 * DAY).size());
+  }
+
+  @Test
+  public void testLifecycleRound() throws Exception {
+    long now = System.currentTimeMillis();
+    Map<String, Long> created = new HashMap<>();
+    Map<String, List<AliasMetaData>> aliases = new HashMap<>();
+    //Project 1 has two old segments, project 2 only its write segment and project 3 only its state index
+    created.put("1_ops-000001__file_prov", now - 100 * DAY);
+    created.put("1_ops-000002__file_prov", now - 60 * DAY);
+    created.put("1_ops-000003__file_prov", now - 10 * DAY);
+    aliases.put("1_ops-000003__file_prov", Collections.singletonList(
+      AliasMetaData.builder("1_ops__file_prov").writeIndex(true).build()));
+    created.put("2_ops-000001__file_prov", now - DAY);
+    aliases.put("2_ops-000001__file_prov", Collections.singletonList(
+      AliasMetaData.builder("2_ops__file_prov").writeIndex(true).build()));
+    created.put("3__file_prov", now - 100 * DAY);
+    GetIndexResponse response = indices(created, aliases);
+    Mockito.when(client.mngIndexGet(Matchers.any(GetIndexRequest.class))).thenReturn(response);
+    RolloverResponse rolledOver = Mockito.mock(RolloverResponse.class);
+    Mockito.when(rolledOver.isRolledOver()).thenReturn(true);
+    Mockito.when(client.mngIndexRollover(Matchers.any(RolloverRequest.class))).thenReturn(rolledOver);
+
+    ProvIndexController.LifecycleResult result = provIndexController.lifecycleRound();
+
+    ArgumentCaptor<RolloverRequest> rollovers = ArgumentCaptor.forClass(RolloverRequest.class);
+    Mockito.verify(client, Mockito.times(2)).mngIndexRollover(rollovers.capture());
+    Set<String> newIndices = new HashSet<>();
+    for (RolloverRequest request : rollovers.getAllValues()) {
+      newIndices.add(request.getAlias() + " -> " + request.getNewIndexName());
+    }
+    Assert.assertEquals(new HashSet<>(Arrays.asList("1_ops__file_prov -> 1_ops-000004__file_prov",
+      "2_ops__file_prov -> 2_ops-000002__file_prov")), newIndices);
+    ArgumentCaptor<DeleteIndexRequest> deletes = ArgumentCaptor.forClass(DeleteIndexRequest.class);
+    Mockito.verify(client, Mockito.times(1)).mngIndexDelete(deletes.capture());
+    Assert.assertArrayEquals(new String[]{"1_ops-000001__file_prov"}, deletes.getValue().indices());
+    Assert.assertEquals(2, result.getRolledOver());
+    Assert.assertEquals(1, result.getDropped());
+  }
+
+  @Test
+  public void testOrphansAreResolvedInOneQuery() throws Exception {
+    List<String> indices = new ArrayList<>();
+    Set<Long> liveProjects = new HashSet<>();
+    for (long p = 0; p < PROJECTS; p++) {
+      if (p % 2 == 0) {
+        indices.add(p + "__file_prov");
+      } else {
+        indices.add(ProvIndexController.segmentName(p, 1));
+        indices.add(ProvIndexController.segmentName(p, 2));
+      }
+      if (p % 10 != 0) {
+        liveProjects.add(p);
+      }
+    }
+    Mockito.when(client.mngIndicesGetBySimplifiedRegex(Matchers.anyString()))
+      .thenReturn(indices.toArray(new String[0]));
+    ProjectFacade projectFacade = Mockito.mock(ProjectFacade.class);
+    Mockito.when(projectFacade.findProjectInodeIds(Matchers.anyCollectionOf(Long.class))).thenAnswer(invocation -> {
+      Set<Long> found = new HashSet<>((Collection<Long>) invocation.getArguments()[0]);
+      found.retainAll(liveProjects);
+      return found;
+    });
+    ProvenanceCleanerController cleanerController = new ProvenanceCleanerController();
+    Whitebox.setInternalState(cleanerController, "client", client);
+    Whitebox.setInternalState(cleanerController, "projectFacade", projectFacade);
+    Whitebox.setInternalState(cleanerController, "provIndexCtrl", provIndexController);
+
+    Pair<Integer, String> round = cleanerController.indexCleanupRound("", Integer.MAX_VALUE);
+
+    //every tenth project is gone, all of them even numbered, so they have a single index each
+    Assert.assertEquals(PROJECTS / 10, (int) round.getValue0());
+    Assert.assertEquals("", round.getValue1());
+    Mockito.verify(projectFacade, Mockito.times(1)).findProjectInodeIds(Matchers.anyCollectionOf(Long.class));
+    Mockito.verify(client, Mockito.times(PROJECTS / 10 / 100)).mngIndexDelete(Matchers.any(DeleteIndexRequest.class));
+  }
+
+  @Test
+  public void testOrphanCleanupIsPaged() throws Exception {
+    String[] indices = {"1__file_prov", "2__file_prov", "3_ops-000001__file_prov", "4__file_prov", "5__file_prov"};
+    Mockito.when(client.mngIndicesGetBySimplifiedRegex(Matchers.anyString())).thenReturn(indices);
+    ProjectFacade projectFacade = Mockito.mock(ProjectFacade.class);
+    Mockito.when(projectFacade.findProjectInodeIds(Matchers.anyCollectionOf(Long.class)))
+      .thenReturn(Collections.singleton(2L));
+    ProvenanceCleanerController cleanerController = new ProvenanceCleanerController();
+    Whitebox.setInternalState(cleanerController, "client", client);
+    Whitebox.setInternalState(cleanerController, "projectFacade", projectFacade);
+    Whitebox.setInternalState(cleanerController, "provIndexCtrl", provIndexController);
+
+    Pair<Integer, String> round = cleanerController.indexCleanupRound("", 1);
+    Assert.assertEquals(2, (int) round.getValue0());
+    Assert.assertEquals("4__file_prov", round.getValue1());
+    round = cleanerController.indexCleanupRound(round.getValue1(), 1);
+    Assert.assertEquals(2, (int) round.getValue0());
+    Assert.assertEquals("", round.getValue1());
+  }
+
+  private GetIndexResponse indices(Map<String, Long> created, Map<String, List<AliasMetaData>> aliases) {
+    GetIndexResponse response = Mockito.mock(GetIndexResponse.class);
+    Mockito.when(response.getIndices()).thenReturn(created.keySet().toArray(new String[0]));
+    Mockito.when(response.getAliases()).thenReturn(aliases);
+    Mockito.when(response.getSetting(Matchers.anyString(), Matchers.eq("index.creation_date"))).thenAnswer(
+      invocation -> String.valueOf(created.get((String) invocation.getArguments()[0])));
+    return response;
+  }
+}
@@ -0,0 +1,255 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2021, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.hops.hopsworks.common.python.library;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.hops.hopsworks.common.util.Settings;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Matchers;
+import org.mockito.Mockito;
+import org.mockito.internal.util.reflection.Whitebox;
+
+import javax.enterprise.concurrent.ManagedExecutorService;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TestPyPiReleasesClient {
+
+  private static final int PACKAGES = 32;
+  private static final int LATENCY_MS = 50;
+
+  private PyPiReleasesClient client;
+  private Settings settings;
+  private StubPyPi pypi;
+  private ExecutorService pool;
+  private List<String> packages;
+
+  @Before
+  public void setup() throws Exception {
+    pypi = new StubPyPi();
+    settings = Mockito.mock(Settings.class);
+    Mockito.when(settings.getPyPiRESTEndpoint()).thenReturn("http://localhost:" + pypi.getPort() +
+      "/pypi/{package}/json");
+    Mockito.when(settings.getPyPiMaxConnections()).thenReturn(16);
+    Mockito.when(settings.getPyPiRequestTimeout()).thenReturn(5000);
+    Mockito.when(settings.getPyPiSearchTimeout()).thenReturn(5000L);
+    Mockito.when(settings.getPyPiCacheTtl()).thenReturn(3600000L);
+
+    pool = Executors.newFixedThreadPool(16);
+    ManagedExecutorService executorService = Mockito.mock(ManagedExecutorService.class);
+    Mockito.when(executorService.submit(Matchers.any(Runnable.class)))
+      .thenAnswer(invocation -> pool.submit((Runnable) invocation.getArguments()[0]));
+
+    client = new PyPiReleasesClient();
+    Whitebox.setInternalState(client, "settings", settings);
+    Whitebox.setInternalState(client, "executorService", executorService);
+    client.init();
+
+    packages = new ArrayList<>();
+    for (int i = 0; i < PACKAGES; i++) {
+      packages.add("package" + i);
+    }
+  }
+
+  @After
+  public void tearDown() {
+    client.preDestroy();
+    pool.shutdownNow();
+    pypi.stop();
+  }
+
+  @Test
+  public void testLookupsRunInParallel() {
+    pypi.latencyMs = LATENCY_MS;
+    long start = System.nanoTime();
+    Map<String, List<LibraryVersionDTO>> versions = client.getVersions(packages);
+    long elapsed = System.nanoTime() - start;
+
+    Assert.assertEquals(PACKAGES, versions.size());
+    Assert.assertEquals(Arrays.asList("1.0", "2.0"), versionsOf(versions.get("package7")));
+    //Sequential lookups would take PACKAGES * LATENCY_MS
+    Assert.assertTrue(elapsed / 1e6 < PACKAGES * LATENCY_MS / 2);
+  }
+
+  @Test
+  public void testLookupsAreBoundedByMaxConnections() {
+    client.preDestroy();
+    Mockito.when(settings.getPyPiMaxConnections()).thenReturn(4);
+    client.init();
+    pypi.latencyMs = 20;
+
+    Map<String, List<LibraryVersionDTO>> versions = client.getVersions(packages);
+    Assert.assertEquals(PACKAGES, versions.size());
+    Assert.assertEquals(PACKAGES, pypi.requests.get());
+    Assert.assertTrue(pypi.maxConcurrent.get() <= 4);
+  }
+
+  @Test
+  public void testReleasesAreCachedAndRevalidated() {
+    client.getVersions(packages);
+    client.getVersions(packages);
+    Assert.assertEquals(PACKAGES, pypi.requests.get());
+    Assert.assertEquals(0, pypi.notModified.get());
+
+    //Expired entries are revalidated with their ETag
+    Mockito.when(settings.getPyPiCacheTtl()).thenReturn(0L);
+    Map<String, List<LibraryVersionDTO>> versions = client.getVersions(packages);
+    Assert.assertEquals(PACKAGES, versions.size());
+    Assert.assertEquals(2 * PACKAGES, pypi.requests.get());
+    Assert.assertEquals(PACKAGES, pypi.notModified.get());
+
+    //A new release changes the ETag and the versions
+    pypi.version.set(3);
+    versions = client.getVersions(Collections.singletonList("package0"));
+    Assert.assertEquals(Arrays.asList("1.0", "2.0", "3.0"), versionsOf(versions.get("package0")));
+  }
+
+  @Test
+  public void testSlowLookupsAreLeftOut() {
+    Mockito.when(settings.getPyPiSearchTimeout()).thenReturn(300L);
+    pypi.slow.add("package3");
+    long start = System.nanoTime();
+    Map<String, List<LibraryVersionDTO>> versions = client.getVersions(packages);
+    long elapsed = System.nanoTime() - start;
+
+    Assert.assertEquals(PACKAGES - 1, versions.size());
+    Assert.assertFalse(versions.containsKey("package3"));
+    Assert.assertTrue(elapsed / 1e6 < 1000);
+  }
+
+  @Test
+  public void testMissingPackagesAreLeftOut() {
+    Map<String, List<LibraryVersionDTO>> versions = client.getVersions(Arrays.asList("package1", "missing"));
+    Assert.assertEquals(Collections.singleton("package1"), versions.keySet());
+    client.getVersions(Collections.singletonList("missing"));
+    Assert.assertEquals(2, pypi.requests.get());
+  }
+
+  @Test
+  public void testConcurrentSearchesShareTheLookups() throws Exception {
+    pypi.latencyMs = 200;
+    ExecutorService searches = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<Map<String, List<LibraryVersionDTO>>>> results = new ArrayList<>();
+      for (int i = 0; i < 8; i++) {
+        results.add(searches.submit(() -> client.getVersions(packages)));
+      }
+      for (Future<Map<String, List<LibraryVersionDTO>>> result : results) {
+        Assert.assertEquals(PACKAGES, result.get(1, TimeUnit.MINUTES).size());
+      }
+    } finally {
+      searches.shutdownNow();
+    }
+    Assert.assertEquals(PACKAGES, pypi.requests.get());
+  }
+
+  private static List<String> versionsOf(List<LibraryVersionDTO> versions) {
+    List<String> result = new ArrayList<>();
+    versions.forEach(v -> result.add(v.getVersion()));
+    Collections.sort(result);
+    return result;
+  }
+
+  /**
+   * PyPi JSON API with a fixed latency per request. Every package has the releases 1.0 up to the current version,
+   * and the current version is the ETag.
+   */
+  private static class StubPyPi {
+    private final HttpServer server;
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger notModified = new AtomicInteger();
+    private final AtomicInteger concurrent = new AtomicInteger();
+    private final AtomicInteger maxConcurrent = new AtomicInteger();
+    private final AtomicInteger version = new AtomicInteger(2);
+    private final Set<String> slow = ConcurrentHashMap.newKeySet();
+    private volatile int latencyMs = 0;
+
+    private StubPyPi() throws IOException {
+      server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+      server.createContext("/pypi/", this::handle);
+      server.setExecutor(Executors.newCachedThreadPool());
+      server.start();
+    }
+
+    private int getPort() {
+      return server.getAddress().getPort();
+    }
+
+    private void stop() {
+      server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+      requests.incrementAndGet();
+      maxConcurrent.accumulateAndGet(concurrent.incrementAndGet(), Math::max);
+      try {
+        respond(exchange);
+      } finally {
+        concurrent.decrementAndGet();
+      }
+    }
+
+    private void respond(HttpExchange exchange) throws IOException {
+      String name = exchange.getRequestURI().getPath().split("/")[2];
+      try {
+        Thread.sleep(slow.contains(name) ? 3000 : latencyMs);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      String etag = "\"" + version.get() + "\"";
+      if (name.equals("missing")) {
+        exchange.sendResponseHeaders(404, -1);
+      } else if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+        notModified.incrementAndGet();
+        exchange.sendResponseHeaders(304, -1);
+      } else {
+        JSONObject releases = new JSONObject();
+        for (int v = 1; v <= version.get(); v++) {
+          releases.put(v + ".0",
+            new JSONArray().put(new JSONObject().put("upload_time", "2021-0" + v + "-01T10:00:00")));
+        }
+        byte[] body = new JSONObject().put("releases", releases).toString().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("ETag", etag);
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+          out.write(body);
+        }
+      }
+      exchange.close();
+    }
+  }
+}
@@ -0,0 +1,201 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2021, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.hops.hopsworks.common.python.search;
+
+import io.hops.hopsworks.common.python.library.LibraryVersionDTO;
+import io.hops.hopsworks.common.util.Settings;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mockito;
+import org.mockito.internal.util.reflection.Whitebox;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+public class TestCondaChannelIndex {
+
+  @Rule
+  public TemporaryFolder tmp = new TemporaryFolder();
+
+  private CondaChannelIndex condaChannelIndex;
+  private Settings settings;
+  private File channel;
+  private String channelUrl;
+
+  @Before
+  public void setup() throws Exception {
+    channel = tmp.newFolder("channel");
+    channelUrl = channel.toURI().toString();
+    writeRepodata("linux-64",
+      pkg("numpy", "1.9.0", 1400000000L),
+      pkg("numpy", "1.19.2", 1600000000000L),
+      pkg("numpy", "1.10.1", 1450000000000L),
+      pkg("numpy", "1.20.0rc1", 1605000000000L),
+      pkg("numpy-base", "1.19.2", 1600000000000L),
+      pkg("pandas", "1.1.3", 1602000000000L));
+    writeRepodata("noarch",
+      pkg("numpy", "1.20.0", 1610000000000L),
+      pkg("six", "1.15.0", 1590000000000L));
+
+    settings = Mockito.mock(Settings.class);
+    Mockito.when(settings.getCondaChannelIndexChannels()).thenReturn(Arrays.asList(channelUrl));
+    Mockito.when(settings.getCondaChannelIndexSubdirs()).thenReturn(Arrays.asList("linux-64", "noarch"));
+    Mockito.when(settings.getCondaDefaultRepo()).thenReturn(channelUrl);
+    Mockito.when(settings.getCondaChannelIndexMaxResults()).thenReturn(100);
+    condaChannelIndex = new CondaChannelIndex();
+    Whitebox.setInternalState(condaChannelIndex, "settings", settings);
+  }
+
+  @Test
+  public void testSearch() {
+    Assert.assertTrue(condaChannelIndex.refresh());
+
+    //As with conda search, the name matches exactly unless there is a wildcard
+    Map<String, List<LibraryVersionDTO>> found = condaChannelIndex.search(channelUrl, "NumPy").get();
+    Assert.assertEquals(1, found.size());
+    Assert.assertEquals(Arrays.asList("1.20.0", "1.20.0rc1", "1.19.2", "1.10.1", "1.9.0"),
+      versionsOf(found.get("numpy")));
+    Assert.assertEquals(1400000000000L, found.get("numpy").get(4).getUploadTime().getTime());
+    found = condaChannelIndex.search(channelUrl, "numpy*").get();
+    Assert.assertEquals(2, found.size());
+    Assert.assertEquals(Arrays.asList("1.19.2"), versionsOf(found.get("numpy-base")));
+    Assert.assertEquals(found.keySet(), condaChannelIndex.search(channelUrl, "*um*").get().keySet());
+    Assert.assertEquals(1, condaChannelIndex.search(channelUrl, "*base").get().size());
+    Assert.assertTrue(condaChannelIndex.search(channelUrl, "ump").get().isEmpty());
+    Assert.assertTrue(condaChannelIndex.search(channelUrl, "").get().isEmpty());
+    Assert.assertTrue(condaChannelIndex.search(channelUrl, null).get().isEmpty());
+
+    //The default channel is searched if none is given
+    Assert.assertEquals(1, condaChannelIndex.search(null, "six").get().size());
+    Assert.assertTrue(condaChannelIndex.search(channelUrl + "/", "tensorflow").get().isEmpty());
+    Assert.assertFalse(condaChannelIndex.search("conda-forge", "numpy").isPresent());
+  }
+
+  @Test
+  public void testOnlyChangedRepodataIsParsedAgain() throws Exception {
+    condaChannelIndex.refresh();
+    File linux64 = new File(channel, "linux-64/repodata.json");
+    long lastModified = linux64.lastModified();
+
+    writeRepodata("linux-64", pkg("pandas", "1.2.0", 1610000000000L));
+    Assert.assertTrue(linux64.setLastModified(lastModified));
+    condaChannelIndex.refresh();
+    Assert.assertEquals(Arrays.asList("1.1.3"), versionsOf(condaChannelIndex.search(channelUrl, "pandas").get()
+      .get("pandas")));
+
+    Assert.assertTrue(linux64.setLastModified(lastModified + 10000));
+    condaChannelIndex.refresh();
+    Assert.assertEquals(Arrays.asList("1.2.0"), versionsOf(condaChannelIndex.search(channelUrl, "pandas").get()
+      .get("pandas")));
+    //noarch did not change and is still there
+    Assert.assertEquals(1, condaChannelIndex.search(channelUrl, "six").get().size());
+  }
+
+  @Test
+  public void testFailedFetchKeepsTheIndex() throws Exception {
+    condaChannelIndex.refresh();
+    Files.delete(new File(channel, "noarch/repodata.json").toPath());
+    Assert.assertFalse(condaChannelIndex.refresh());
+    Assert.assertEquals(1, condaChannelIndex.search(channelUrl, "six").get().size());
+
+    //A channel that was never fetched is not indexed
+    Mockito.when(settings.getCondaChannelIndexChannels()).thenReturn(Arrays.asList(channelUrl,
+      new File(tmp.getRoot(), "missing").toURI().toString()));
+    Assert.assertFalse(condaChannelIndex.refresh());
+    Assert.assertFalse(condaChannelIndex.isIndexed(new File(tmp.getRoot(), "missing").toURI().toString()));
+
+    //Channels removed from the configuration are dropped
+    Mockito.when(settings.getCondaChannelIndexChannels()).thenReturn(new ArrayList<>());
+    condaChannelIndex.refresh();
+    Assert.assertFalse(condaChannelIndex.search(channelUrl, "six").isPresent());
+  }
+
+  @Test
+  public void testVersionOrder() {
+    List<String> versions = new ArrayList<>(Arrays.asList("1.0", "1.0rc1", "1.0.1", "0.9", "1.0a", "1.10", "1.2",
+      "2020.1", "1.0.post1"));
+    versions.sort(CondaChannelIndex.VERSION_ORDER);
+    Assert.assertEquals(Arrays.asList("0.9", "1.0a", "1.0rc1", "1.0", "1.0.post1", "1.0.1", "1.2", "1.10", "2020.1"),
+      versions);
+  }
+
+  @Test
+  public void testLargeChannel() throws Exception {
+    String[][] packages = new String[20000 * 10][];
+    for (int p = 0; p < 20000; p++) {
+      for (int v = 0; v < 10; v++) {
+        packages[p * 10 + v] = pkg("package-" + p, "1." + v + ".0", 1600000000000L + v);
+      }
+    }
+    writeRepodata("linux-64", packages);
+    condaChannelIndex.refresh();
+
+    int found = 0;
+    for (int i = 0; i < 100; i++) {
+      found += condaChannelIndex.search(channelUrl, "package-1" + i).get().size();
+    }
+    Assert.assertEquals(100, found);
+    Assert.assertEquals(10, condaChannelIndex.search(channelUrl, "package-19999").get().get("package-19999").size());
+
+    //Searches with a wildcard are capped
+    Map<String, List<LibraryVersionDTO>> capped = condaChannelIndex.search(channelUrl, "package-1*").get();
+    Assert.assertEquals(100, capped.size());
+    Assert.assertTrue(capped.containsKey("package-1"));
+    Assert.assertEquals(100, condaChannelIndex.search(channelUrl, "*").get().size());
+  }
+
+  private static List<String> versionsOf(List<LibraryVersionDTO> versions) {
+    List<String> result = new ArrayList<>();
+    versions.forEach(v -> result.add(v.getVersion()));
+    return result;
+  }
+
+  private static String[] pkg(String name, String version, long timestamp) {
+    return new String[]{name, version, String.valueOf(timestamp)};
+  }
+
+  private void writeRepodata(String subdir, String[]... packages) throws IOException {
+    Map<String, StringBuilder> sections = new HashMap<>();
+    sections.put("packages", new StringBuilder());
+    sections.put("packages.conda", new StringBuilder());
+    for (int i = 0; i < packages.length; i++) {
+      String[] p = packages[i];
+      StringBuilder section = sections.get(i % 2 == 0 ? "packages" : "packages.conda");
+      section.append(section.length() == 0 ? "" : ",")
+        .append("\"").append(p[0]).append("-").append(p[1]).append("-py_").append(i).append(".tar.bz2\":{")
+        .append("\"build\":\"py_").append(i).append("\",\"depends\":[\"python >=3.6\"],")
+        .append("\"name\":\"").append(p[0]).append("\",\"version\":\"").append(p[1]).append("\",")
+        .append("\"timestamp\":").append(p[2]).append("}");
+    }
+    String repodata = "{\"info\":{\"subdir\":\"" + subdir + "\"},\"packages\":{" + sections.get("packages") +
+      "},\"packages.conda\":{" + sections.get("packages.conda") + "},\"removed\":[],\"repodata_version\":1}";
+    File dir = new File(channel, subdir);
+    dir.mkdirs();
+    Files.write(new File(dir, "repodata.json").toPath(), repodata.getBytes(StandardCharsets.UTF_8));
+  }
+}
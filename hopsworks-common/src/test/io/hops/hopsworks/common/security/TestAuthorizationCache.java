@@ -0,0 +1,68 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2021, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.hops.hopsworks.common.security;
+
+import io.hops.hopsworks.common.util.Settings;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.mockito.internal.util.reflection.Whitebox;
+
+public class TestAuthorizationCache {
+
+  private AuthorizationCache authorizationCache;
+
+  @Before
+  public void setup() {
+    Settings settings = Mockito.mock(Settings.class);
+    Mockito.when(settings.getAuthorizationCacheTTL()).thenReturn(60);
+    Mockito.when(settings.getAuthorizationCacheMaxSize()).thenReturn(100);
+    authorizationCache = new AuthorizationCache();
+    Whitebox.setInternalState(authorizationCache, "settings", settings);
+    authorizationCache.init();
+  }
+
+  @Test
+  public void testInvalidateMemberByIdAndName() {
+    authorizationCache.putProjectRole("alice", 1, null,
+      new AuthorizationCache.ProjectRole(1, "demo", "alice", "Data owner"));
+    authorizationCache.putProjectRole("alice", null, "demo",
+      new AuthorizationCache.ProjectRole(1, "demo", "alice", "Data owner"));
+    authorizationCache.putProjectRole("bob", 1, null,
+      new AuthorizationCache.ProjectRole(1, "demo", "bob", "Data scientist"));
+
+    Assert.assertEquals("Data owner", authorizationCache.getProjectRole("alice", 1, null).getRole());
+    Assert.assertEquals("Data owner", authorizationCache.getProjectRole("alice", null, "demo").getRole());
+
+    authorizationCache.invalidateProjectMember(1, "alice");
+    Assert.assertNull(authorizationCache.getProjectRole("alice", 1, null));
+    Assert.assertNull(authorizationCache.getProjectRole("alice", null, "demo"));
+    Assert.assertNotNull(authorizationCache.getProjectRole("bob", 1, null));
+
+    authorizationCache.invalidateProject(1);
+    Assert.assertNull(authorizationCache.getProjectRole("bob", 1, null));
+    Assert.assertEquals(3, authorizationCache.getProjectRoleStats().hitCount());
+    Assert.assertEquals(3, authorizationCache.getProjectRoleStats().missCount());
+  }
+
+  @Test
+  public void testNotMemberIsCachedAsEmptyRole() {
+    authorizationCache.putProjectRole("alice", 1, null, new AuthorizationCache.ProjectRole(1, "demo", "alice", null));
+    Assert.assertEquals("", authorizationCache.getProjectRole("alice", 1, null).getRole());
+  }
+}
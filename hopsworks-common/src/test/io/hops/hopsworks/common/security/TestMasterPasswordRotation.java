@@ -0,0 +1,271 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2021, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.hops.hopsworks.common.security;
+
+import io.hops.hopsworks.common.dao.user.security.secrets.SecretsFacade;
+import io.hops.hopsworks.common.security.secrets.SecretsController;
+import io.hops.hopsworks.common.security.secrets.SecretsPasswordHandler;
+import io.hops.hopsworks.persistence.entity.security.MasterPasswordRotation;
+import io.hops.hopsworks.persistence.entity.security.MasterPasswordRotationItem;
+import io.hops.hopsworks.persistence.entity.user.security.secrets.Secret;
+import io.hops.hopsworks.persistence.entity.user.security.secrets.SecretId;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Matchers;
+import org.mockito.Mockito;
+import org.mockito.internal.util.reflection.Whitebox;
+
+import javax.enterprise.concurrent.ManagedExecutorService;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TestMasterPasswordRotation {
+
+  private static final int SECRETS = 50000;
+  private static final String OLD_PASSWORD = "old_master_password";
+  private static final String NEW_PASSWORD = "new_master_password";
+
+  private ExecutorService executor;
+  private SymmetricEncryptionService symmetricEncryptionService;
+  private SecretsController secretsController;
+  private SecretsFacade secretsFacade;
+  private KeyEncryptionKeyCache keyEncryptionKeyCache;
+  //The secrets table
+  private Map<SecretId, byte[]> table;
+  private Map<SecretId, byte[]> original;
+  private AtomicInteger written;
+  private AtomicInteger batchesBeforeCrash;
+  private InMemoryRotationFacade rotationFacade;
+
+  @Before
+  public void setup() throws Exception {
+    executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+    symmetricEncryptionService = new SymmetricEncryptionService();
+    symmetricEncryptionService.init();
+    keyEncryptionKeyCache = new KeyEncryptionKeyCache();
+    Whitebox.setInternalState(keyEncryptionKeyCache, "symmetricEncryptionService", symmetricEncryptionService);
+    keyEncryptionKeyCache.init();
+
+    table = new ConcurrentHashMap<>();
+    written = new AtomicInteger();
+    batchesBeforeCrash = new AtomicInteger(Integer.MAX_VALUE);
+    secretsFacade = Mockito.mock(SecretsFacade.class);
+    Mockito.when(secretsFacade.findAll()).thenAnswer(invocation -> {
+      List<Secret> secrets = new ArrayList<>();
+      table.forEach((id, value) -> secrets.add(new Secret(id, value, new Date())));
+      return secrets;
+    });
+    Mockito.doAnswer(invocation -> {
+      if (batchesBeforeCrash.getAndDecrement() <= 0) {
+        throw new IllegalStateException("Connection lost");
+      }
+      for (Secret secret : (List<Secret>) invocation.getArguments()[0]) {
+        table.put(secret.getId(), secret.getSecret());
+        written.incrementAndGet();
+      }
+      return null;
+    }).when(secretsFacade).updateAll(Matchers.anyListOf(Secret.class));
+
+    secretsController = new SecretsController();
+    Whitebox.setInternalState(secretsController, "secretsFacade", secretsFacade);
+    Whitebox.setInternalState(secretsController, "symmetricEncryptionService", symmetricEncryptionService);
+    Whitebox.setInternalState(secretsController, "keyEncryptionKeyCache", keyEncryptionKeyCache);
+    for (int i = 0; i < SECRETS; i++) {
+      table.put(new SecretId(i % 1000, "secret" + i), secretsController.encryptSecret(
+        ("value" + i).getBytes(StandardCharsets.UTF_8), OLD_PASSWORD));
+    }
+    original = new ConcurrentHashMap<>(table);
+    rotationFacade = new InMemoryRotationFacade();
+  }
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void testRotation() throws Exception {
+    MasterPasswordRotationJournal journal = create();
+    MasterPasswordChangeResult result = handler().perform(OLD_PASSWORD, NEW_PASSWORD, journal);
+
+    Assert.assertNull(result.getCause());
+    Assert.assertEquals(SECRETS, written.get());
+    assertAllEncryptedWith(NEW_PASSWORD);
+    String successLog = result.getSuccessLog().toString();
+    Assert.assertTrue(successLog, successLog.contains("Rotated " + SECRETS + " "));
+    Assert.assertTrue(successLog, successLog.contains("(0 already rotated)"));
+  }
+
+  @Test
+  public void testResumeAfterRestart() throws Exception {
+    batchesBeforeCrash.set(40);
+    MasterPasswordChangeResult result = handler().perform(OLD_PASSWORD, NEW_PASSWORD,
+      create());
+    Assert.assertNotNull(result.getCause());
+    Assert.assertEquals(40 * BatchedMasterPasswordRotation.DEFAULT_BATCH_SIZE, written.get());
+
+    //Restart, nothing is left in memory but the journal
+    batchesBeforeCrash.set(Integer.MAX_VALUE);
+    keyEncryptionKeyCache.invalidateAll();
+    MasterPasswordRotationJournal journal = load();
+    Assert.assertEquals(NEW_PASSWORD, journal.getNewPassword());
+    result = handler().perform(OLD_PASSWORD, NEW_PASSWORD, journal);
+
+    Assert.assertNull(result.getCause());
+    //Every secret is written exactly once
+    Assert.assertEquals(SECRETS, written.get());
+    assertAllEncryptedWith(NEW_PASSWORD);
+    Assert.assertTrue(load().isDone("secrets"));
+  }
+
+  @Test
+  public void testRollbackFromJournal() throws Exception {
+    batchesBeforeCrash.set(40);
+    handler().perform(OLD_PASSWORD, NEW_PASSWORD, create());
+    batchesBeforeCrash.set(Integer.MAX_VALUE);
+
+    MasterPasswordRotationJournal journal = load();
+    handler().rollback(new MasterPasswordChangeResult<>(journal, null));
+
+    Assert.assertEquals(original.size(), table.size());
+    for (Map.Entry<SecretId, byte[]> secret : original.entrySet()) {
+      Assert.assertArrayEquals(secret.getValue(), table.get(secret.getKey()));
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void testOneRotationAtATime() throws Exception {
+    create();
+    create();
+  }
+
+  @Test
+  public void testNewPasswordIsStoredEncrypted() throws Exception {
+    create();
+    Assert.assertFalse(rotationFacade.find().getNewPassword().contains(NEW_PASSWORD));
+    Assert.assertEquals(NEW_PASSWORD, load().getNewPassword());
+    //Interrupted after the new password was stored
+    Assert.assertEquals(NEW_PASSWORD, MasterPasswordRotationJournal.load(rotationFacade, symmetricEncryptionService,
+      NEW_PASSWORD).getNewPassword());
+  }
+
+  @Test
+  public void testStaleRotationIsClaimedOnce() throws Exception {
+    create();
+    long now = System.currentTimeMillis();
+    MasterPasswordRotationJournal first = load();
+    MasterPasswordRotationJournal second = load();
+    Assert.assertFalse(first.isStale(now, 60000));
+
+    now += 120000;
+    Assert.assertTrue(first.isStale(now, 60000));
+    Assert.assertTrue(first.claim(now));
+    Assert.assertFalse(second.claim(now));
+    Assert.assertFalse(load().isStale(now, 60000));
+  }
+
+  private MasterPasswordRotationJournal create() throws IOException {
+    return MasterPasswordRotationJournal.create(rotationFacade, symmetricEncryptionService, OLD_PASSWORD,
+      NEW_PASSWORD);
+  }
+
+  private MasterPasswordRotationJournal load() throws IOException {
+    return MasterPasswordRotationJournal.load(rotationFacade, symmetricEncryptionService, OLD_PASSWORD);
+  }
+
+  private SecretsPasswordHandler handler() {
+    ManagedExecutorService executorService = Mockito.mock(ManagedExecutorService.class);
+    Mockito.when(executorService.submit(Matchers.any(Callable.class)))
+      .thenAnswer(invocation -> executor.submit((Callable) invocation.getArguments()[0]));
+    SecretsPasswordHandler handler = new SecretsPasswordHandler();
+    Whitebox.setInternalState(handler, "secretsController", secretsController);
+    Whitebox.setInternalState(handler, "keyEncryptionKeyCache", keyEncryptionKeyCache);
+    Whitebox.setInternalState(handler, "secretsFacade", secretsFacade);
+    Whitebox.setInternalState(handler, "executorService", executorService);
+    return handler;
+  }
+
+  private void assertAllEncryptedWith(String password) throws Exception {
+    for (Map.Entry<SecretId, byte[]> secret : table.entrySet()) {
+      String value = new String(secretsController.decryptSecret(secret.getValue(), password), StandardCharsets.UTF_8);
+      Assert.assertEquals("value" + secret.getKey().getName().substring("secret".length()), value);
+    }
+  }
+
+  private static class InMemoryRotationFacade extends MasterPasswordRotationFacade {
+    private MasterPasswordRotation rotation;
+    private final List<MasterPasswordRotationItem> items = new CopyOnWriteArrayList<>();
+
+    @Override
+    public synchronized MasterPasswordRotation find() {
+      return rotation;
+    }
+
+    @Override
+    public synchronized void start(MasterPasswordRotation rotation) {
+      if (this.rotation != null) {
+        throw new IllegalStateException("Duplicate entry");
+      }
+      this.rotation = rotation;
+    }
+
+    @Override
+    public List<MasterPasswordRotationItem> findItems() {
+      return new ArrayList<>(items);
+    }
+
+    @Override
+    public synchronized void logItems(String handler, Map<String, byte[]> oldValues, long heartbeat) {
+      oldValues.forEach((key, value) -> items.add(new MasterPasswordRotationItem(handler, key, value)));
+      rotation.setHeartbeat(heartbeat);
+    }
+
+    @Override
+    public synchronized void markDone(String handler, long heartbeat) {
+      rotation.setDoneHandlers(rotation.getDoneHandlers() == null ? handler
+        : rotation.getDoneHandlers() + "," + handler);
+      rotation.setHeartbeat(heartbeat);
+    }
+
+    @Override
+    public synchronized boolean claim(long expected, long next) {
+      if (rotation == null || rotation.getHeartbeat() != expected) {
+        return false;
+      }
+      rotation.setHeartbeat(next);
+      return true;
+    }
+
+    @Override
+    public synchronized void remove() {
+      items.clear();
+      rotation = null;
+    }
+  }
+}
@@ -0,0 +1,213 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2021, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.hops.hopsworks.common.security;
+
+import io.hops.hopsworks.common.dao.jobhistory.YarnApplicationstateFacade;
+import io.hops.hopsworks.common.dao.project.ProjectFacade;
+import io.hops.hopsworks.common.dao.project.team.ProjectTeamFacade;
+import io.hops.hopsworks.common.dao.user.UserFacade;
+import io.hops.hopsworks.common.hdfs.HdfsUsersController;
+import io.hops.hopsworks.common.util.Settings;
+import io.hops.hopsworks.persistence.entity.jobs.history.YarnApplicationstate;
+import io.hops.hopsworks.persistence.entity.project.Project;
+import io.hops.hopsworks.persistence.entity.user.Users;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Matchers;
+import org.mockito.Mockito;
+import org.mockito.internal.util.reflection.Whitebox;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public class TestProxyAuthorizationController {
+
+  private static final int APPLICATIONS = 10;
+  private static final int CLIENTS = 32;
+  private static final int ASSETS_PER_CLIENT = 200;
+
+  private ProxyAuthorizationController proxyAuthorizationController;
+  private AuthorizationCache authorizationCache;
+  private YarnApplicationstateFacade yarnApplicationstateFacade;
+  private ProjectTeamFacade projectTeamFacade;
+  private UserFacade userFacade;
+  private Map<String, YarnApplicationstate> applications;
+
+  @Before
+  public void setup() throws Exception {
+    Settings settings = Mockito.mock(Settings.class);
+    Mockito.when(settings.getAuthorizationCacheTTL()).thenReturn(60);
+    Mockito.when(settings.getAuthorizationCacheMaxSize()).thenReturn(1000);
+    Mockito.when(settings.getProxyAuthorizationCacheTTL()).thenReturn(60);
+    authorizationCache = new AuthorizationCache();
+    Whitebox.setInternalState(authorizationCache, "settings", settings);
+    authorizationCache.init();
+
+    //Applications of project demo, application_0 is run by a project alice is not a member of
+    applications = new HashMap<>();
+    for (int i = 0; i < APPLICATIONS; i++) {
+      YarnApplicationstate appState = new YarnApplicationstate("application_1600000000000_000" + i);
+      appState.setAppuser(i == 0 ? "other__bob" : "demo__alice");
+      appState.setAppsmstate("RUNNING");
+      applications.put(appState.getApplicationid(), appState);
+    }
+    //Every lookup is a round trip to the database
+    yarnApplicationstateFacade = Mockito.mock(YarnApplicationstateFacade.class);
+    Mockito.when(yarnApplicationstateFacade.findByAppId(Matchers.anyString())).thenAnswer(invocation -> {
+      Thread.sleep(1);
+      return applications.get((String) invocation.getArguments()[0]);
+    });
+    Project demo = new Project(1, "demo");
+    Project other = new Project(2, "other");
+    ProjectFacade projectFacade = Mockito.mock(ProjectFacade.class);
+    Mockito.when(projectFacade.findByName("demo")).thenReturn(demo);
+    Mockito.when(projectFacade.findByName("other")).thenReturn(other);
+    HdfsUsersController hdfsUsersController = Mockito.mock(HdfsUsersController.class);
+    Mockito.when(hdfsUsersController.getProjectName(Matchers.anyString()))
+      .thenAnswer(invocation -> ((String) invocation.getArguments()[0]).split("__")[0]);
+    Users alice = new Users();
+    alice.setUsername("alice");
+    alice.setEmail("alice@hopsworks.ai");
+    userFacade = Mockito.mock(UserFacade.class);
+    Mockito.when(userFacade.findByEmail("alice@hopsworks.ai")).thenReturn(alice);
+    Mockito.when(userFacade.findByUsername("alice")).thenReturn(alice);
+    projectTeamFacade = Mockito.mock(ProjectTeamFacade.class);
+    Mockito.when(projectTeamFacade.isUserMemberOfProject(demo, alice)).thenReturn(true);
+
+    proxyAuthorizationController = new ProxyAuthorizationController();
+    Whitebox.setInternalState(proxyAuthorizationController, "authorizationCache", authorizationCache);
+    Whitebox.setInternalState(proxyAuthorizationController, "yarnApplicationstateFacade",
+      yarnApplicationstateFacade);
+    Whitebox.setInternalState(proxyAuthorizationController, "hdfsUsersController", hdfsUsersController);
+    Whitebox.setInternalState(proxyAuthorizationController, "projectFacade", projectFacade);
+    Whitebox.setInternalState(proxyAuthorizationController, "projectTeamFacade", projectTeamFacade);
+    Whitebox.setInternalState(proxyAuthorizationController, "userFacade", userFacade);
+  }
+
+  @Test
+  public void testFindApplicationId() {
+    Assert.assertEquals("application_1600000000000_0005", ProxyAuthorizationController.findApplicationId(
+      "/hopsworks-api/flink/application_1600000000000_0005/jobs/overview"));
+    Assert.assertNull(ProxyAuthorizationController.findApplicationId("/hopsworks-api/flink/"));
+    Assert.assertNull(ProxyAuthorizationController.findApplicationId(null));
+  }
+
+  @Test
+  public void testAssetsOfAnApplicationAreAuthorizedOnce() {
+    for (int i = 0; i < 50; i++) {
+      AuthorizationCache.ApplicationAccess access =
+        proxyAuthorizationController.authorizeByEmail("alice@hopsworks.ai", "application_1600000000000_0003");
+      Assert.assertTrue(access.isMember());
+      Assert.assertEquals("alice", access.getUsername());
+      Assert.assertFalse(ProxyAuthorizationController.isStopped(access));
+    }
+    Assert.assertFalse(proxyAuthorizationController.authorizeByEmail("alice@hopsworks.ai",
+      "application_1600000000000_0000").isMember());
+    Assert.assertFalse(proxyAuthorizationController.authorizeByEmail("alice@hopsworks.ai",
+      "application_1600000000000_0000").isMember());
+    //Api keys are authorized by username, which is a different principal
+    Assert.assertTrue(proxyAuthorizationController.authorizeByUsername("alice",
+      "application_1600000000000_0003").isMember());
+
+    Mockito.verify(yarnApplicationstateFacade, Mockito.times(3)).findByAppId(Matchers.anyString());
+    Mockito.verify(projectTeamFacade, Mockito.times(3)).isUserMemberOfProject(Matchers.any(Project.class),
+      Matchers.any(Users.class));
+  }
+
+  @Test
+  public void testUnknownApplicationIsNotCached() {
+    Assert.assertNull(proxyAuthorizationController.authorizeByEmail("alice@hopsworks.ai",
+      "application_1600000000000_0042"));
+    YarnApplicationstate appState = new YarnApplicationstate("application_1600000000000_0042");
+    appState.setAppuser("demo__alice");
+    applications.put(appState.getApplicationid(), appState);
+    Assert.assertTrue(proxyAuthorizationController.authorizeByEmail("alice@hopsworks.ai",
+      "application_1600000000000_0042").isMember());
+    Assert.assertNull(proxyAuthorizationController.authorizeByEmail("mallory@hopsworks.ai",
+      "application_1600000000000_0003"));
+  }
+
+  @Test
+  public void testDecisionsAreInvalidated() {
+    String appId = "application_1600000000000_0003";
+    proxyAuthorizationController.authorizeByEmail("alice@hopsworks.ai", appId);
+
+    //Application stopped
+    applications.get(appId).setAppsmstate("KILLED");
+    Assert.assertFalse(ProxyAuthorizationController.isStopped(
+      proxyAuthorizationController.authorizeByEmail("alice@hopsworks.ai", appId)));
+    authorizationCache.invalidateApplication(appId);
+    Assert.assertTrue(ProxyAuthorizationController.isStopped(
+      proxyAuthorizationController.authorizeByEmail("alice@hopsworks.ai", appId)));
+
+    //Member removed
+    Mockito.when(projectTeamFacade.isUserMemberOfProject(Matchers.any(Project.class), Matchers.any(Users.class)))
+      .thenReturn(false);
+    Assert.assertTrue(proxyAuthorizationController.authorizeByEmail("alice@hopsworks.ai", appId).isMember());
+    authorizationCache.invalidateProjectMember(1, "alice");
+    Assert.assertFalse(proxyAuthorizationController.authorizeByEmail("alice@hopsworks.ai", appId).isMember());
+
+    //Project removed
+    Assert.assertEquals(1, authorizationCache.getApplicationAccessCacheSize());
+    authorizationCache.invalidateProject("demo");
+    Assert.assertEquals(0, authorizationCache.getApplicationAccessCacheSize());
+  }
+
+  @Test
+  public void testLoad() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(CLIENTS);
+    try {
+      List<Future<Integer>> clients = new ArrayList<>();
+      for (int c = 0; c < CLIENTS; c++) {
+        int client = c;
+        clients.add(executor.submit(() -> {
+          int fetches = 0;
+          for (int i = 0; i < ASSETS_PER_CLIENT; i++) {
+            //Each client browses the UI of one application and fetches its assets
+            String uri = "/hopsworks-api/flink/application_1600000000000_000" + (1 + client % (APPLICATIONS - 1))
+              + "/assets/asset" + i + ".js";
+            String appId = ProxyAuthorizationController.findApplicationId(uri);
+            AuthorizationCache.ApplicationAccess access =
+              proxyAuthorizationController.authorizeByEmail("alice@hopsworks.ai", appId);
+            Assert.assertTrue(access.isMember());
+            fetches++;
+          }
+          return fetches;
+        }));
+      }
+      int fetches = 0;
+      for (Future<Integer> client : clients) {
+        fetches += client.get(5, TimeUnit.MINUTES);
+      }
+      Assert.assertEquals(CLIENTS * ASSETS_PER_CLIENT, fetches);
+
+      //Only the first fetches of an application, racing each other, look it up
+      Mockito.verify(yarnApplicationstateFacade, Mockito.atMost(CLIENTS)).findByAppId(Matchers.anyString());
+      Assert.assertTrue(authorizationCache.getApplicationAccessStats().missCount() <= CLIENTS);
+      Assert.assertTrue(authorizationCache.getApplicationAccessStats().hitCount() >= fetches - CLIENTS);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+}
@@ -0,0 +1,208 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2021, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.hops.hopsworks.common.security.secrets;
+
+import io.hops.hopsworks.common.dao.user.security.secrets.SecretsFacade;
+import io.hops.hopsworks.common.security.CertificatesMgmService;
+import io.hops.hopsworks.common.security.KeyEncryptionKeyCache;
+import io.hops.hopsworks.common.security.MasterPasswordRotationFacade;
+import io.hops.hopsworks.common.security.SymmetricEncryptionDescriptor;
+import io.hops.hopsworks.common.security.SymmetricEncryptionService;
+import io.hops.hopsworks.persistence.entity.security.MasterPasswordRotation;
+import io.hops.hopsworks.persistence.entity.user.Users;
+import io.hops.hopsworks.persistence.entity.user.security.secrets.Secret;
+import io.hops.hopsworks.persistence.entity.user.security.secrets.SecretId;
+import io.hops.hopsworks.persistence.entity.user.security.secrets.VisibilityType;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Matchers;
+import org.mockito.Mockito;
+import org.mockito.internal.util.reflection.Whitebox;
+
+import java.nio.charset.Charset;
+import java.security.GeneralSecurityException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class TestSecretsController {
+
+  private static final String MASTER_PASSWORD = "master_encryption_password";
+  private static final int SECRETS = 50;
+  private static final int READS = 200;
+
+  private SecretsController secretsController;
+  private SymmetricEncryptionService symmetricEncryptionService;
+  private KeyEncryptionKeyCache keyEncryptionKeyCache;
+  private SecretsFacade secretsFacade;
+  private MasterPasswordRotationFacade masterPasswordRotationFacade;
+  private Map<SecretId, Secret> secrets;
+  private Users user;
+
+  @Before
+  public void setup() throws Exception {
+    symmetricEncryptionService = new SymmetricEncryptionService();
+    symmetricEncryptionService.init();
+    keyEncryptionKeyCache = new KeyEncryptionKeyCache();
+    Whitebox.setInternalState(keyEncryptionKeyCache, "symmetricEncryptionService", symmetricEncryptionService);
+    keyEncryptionKeyCache.init();
+
+    secrets = new HashMap<>();
+    secretsFacade = Mockito.mock(SecretsFacade.class);
+    Mockito.when(secretsFacade.findById(Matchers.any(SecretId.class)))
+      .thenAnswer(invocation -> secrets.get((SecretId) invocation.getArguments()[0]));
+    Mockito.when(secretsFacade.updateSecretIfUnchanged(Matchers.any(SecretId.class), Matchers.any(byte[].class),
+      Matchers.any(byte[].class))).thenAnswer(invocation -> {
+        Secret secret = secrets.get((SecretId) invocation.getArguments()[0]);
+        if (secret == null || !Arrays.equals(secret.getSecret(), (byte[]) invocation.getArguments()[1])) {
+          return false;
+        }
+        secret.setSecret((byte[]) invocation.getArguments()[2]);
+        return true;
+      });
+    masterPasswordRotationFacade = Mockito.mock(MasterPasswordRotationFacade.class);
+    CertificatesMgmService certificatesMgmService = Mockito.mock(CertificatesMgmService.class);
+    Mockito.when(certificatesMgmService.getMasterEncryptionPassword()).thenReturn(MASTER_PASSWORD);
+
+    secretsController = new SecretsController();
+    Whitebox.setInternalState(secretsController, "secretsFacade", secretsFacade);
+    Whitebox.setInternalState(secretsController, "symmetricEncryptionService", symmetricEncryptionService);
+    Whitebox.setInternalState(secretsController, "keyEncryptionKeyCache", keyEncryptionKeyCache);
+    Whitebox.setInternalState(secretsController, "certificatesMgmService", certificatesMgmService);
+    Whitebox.setInternalState(secretsController, "masterPasswordRotationFacade", masterPasswordRotationFacade);
+
+    user = new Users(1);
+    user.setUsername("user");
+  }
+
+  @Test
+  public void testEnvelopeRoundTrip() throws Exception {
+    byte[] ciphered = secretsController.encryptSecret("s3cr3t");
+    Assert.assertTrue(symmetricEncryptionService.isEnvelope(ciphered));
+    store("secret", ciphered);
+
+    Assert.assertEquals("s3cr3t", secretsController.get(user, "secret").getPlaintext());
+    Mockito.verify(secretsFacade, Mockito.never()).updateSecretIfUnchanged(Matchers.any(SecretId.class),
+      Matchers.any(byte[].class), Matchers.any(byte[].class));
+    //All the envelopes of an instance share the key encryption key
+    secretsController.encryptSecret("another");
+    Assert.assertEquals(1, keyEncryptionKeyCache.getStats().missCount());
+  }
+
+  @Test
+  public void testLegacySecretIsMigratedOnRead() throws Exception {
+    Secret secret = store("secret", legacyEncrypt("s3cr3t", MASTER_PASSWORD));
+
+    Assert.assertEquals("s3cr3t", secretsController.get(user, "secret").getPlaintext());
+    Assert.assertTrue(symmetricEncryptionService.isEnvelope(secret.getSecret()));
+
+    Assert.assertEquals("s3cr3t", secretsController.get(user, "secret").getPlaintext());
+    Mockito.verify(secretsFacade, Mockito.times(1)).updateSecretIfUnchanged(Matchers.any(SecretId.class),
+      Matchers.any(byte[].class), Matchers.any(byte[].class));
+  }
+
+  @Test
+  public void testMigrationDoesNotOverwriteAConcurrentUpdate() throws Exception {
+    Secret secret = store("secret", legacyEncrypt("s3cr3t", MASTER_PASSWORD));
+    byte[] updated = secretsController.encryptSecret("updated");
+    Mockito.when(secretsFacade.findById(secret.getId())).thenAnswer(invocation -> {
+      //Updated by another request after this one read it
+      Secret read = new Secret(secret.getId(), secret.getSecret(), secret.getAddedOn());
+      read.setVisibilityType(VisibilityType.PRIVATE);
+      secret.setSecret(updated);
+      return read;
+    });
+
+    Assert.assertEquals("s3cr3t", secretsController.get(user, "secret").getPlaintext());
+    Assert.assertArrayEquals(updated, secret.getSecret());
+  }
+
+  @Test
+  public void testNoMigrationDuringMasterPasswordChange() throws Exception {
+    byte[] legacy = legacyEncrypt("s3cr3t", MASTER_PASSWORD);
+    Secret secret = store("secret", legacy);
+    Mockito.when(masterPasswordRotationFacade.find()).thenReturn(new MasterPasswordRotation("new", "hash", 0L));
+
+    Assert.assertEquals("s3cr3t", secretsController.get(user, "secret").getPlaintext());
+    Assert.assertArrayEquals(legacy, secret.getSecret());
+    Mockito.verify(secretsFacade, Mockito.never()).updateSecretIfUnchanged(Matchers.any(SecretId.class),
+      Matchers.any(byte[].class), Matchers.any(byte[].class));
+  }
+
+  @Test(expected = GeneralSecurityException.class)
+  public void testEnvelopeOfAnotherPasswordCanNotBeDecrypted() throws Exception {
+    byte[] ciphered = secretsController.encryptSecret("s3cr3t".getBytes(Charset.defaultCharset()), "old_password");
+    secretsController.decryptSecret(ciphered, MASTER_PASSWORD);
+  }
+
+  @Test
+  public void testMasterPasswordChange() throws Exception {
+    store("legacy", legacyEncrypt("first", "old_password"));
+    store("envelope", secretsController.encryptSecret("second".getBytes(Charset.defaultCharset()), "old_password"));
+    for (Secret secret : secrets.values()) {
+      byte[] plaintext = secretsController.decryptSecret(secret.getSecret(), "old_password");
+      secret.setSecret(secretsController.encryptSecret(plaintext, MASTER_PASSWORD));
+    }
+    keyEncryptionKeyCache.invalidateAll();
+    Assert.assertEquals("first", secretsController.get(user, "legacy").getPlaintext());
+    Assert.assertEquals("second", secretsController.get(user, "envelope").getPlaintext());
+  }
+
+  @Test
+  public void testReadThroughput() throws Exception {
+    List<byte[]> legacy = new ArrayList<>();
+    List<byte[]> envelopes = new ArrayList<>();
+    for (int i = 0; i < SECRETS; i++) {
+      legacy.add(legacyEncrypt("secret" + i, MASTER_PASSWORD));
+      envelopes.add(secretsController.encryptSecret("secret" + i));
+    }
+    long start = System.nanoTime();
+    for (int i = 0; i < READS; i++) {
+      secretsController.decryptSecret(legacy.get(i % SECRETS), MASTER_PASSWORD);
+    }
+    long legacyElapsed = System.nanoTime() - start;
+    start = System.nanoTime();
+    for (int i = 0; i < READS; i++) {
+      secretsController.decryptSecret(envelopes.get(i % SECRETS), MASTER_PASSWORD);
+    }
+    long envelopeElapsed = System.nanoTime() - start;
+    //The key encryption key is derived once for all the envelope reads, instead of once per legacy read
+    Assert.assertEquals(1, keyEncryptionKeyCache.getStats().missCount());
+    Assert.assertTrue(envelopeElapsed < legacyElapsed);
+  }
+
+  private byte[] legacyEncrypt(String plaintext, String password) throws GeneralSecurityException {
+    SymmetricEncryptionDescriptor descriptor = symmetricEncryptionService.encrypt(
+      new SymmetricEncryptionDescriptor.Builder()
+        .setInput(plaintext)
+        .setPassword(password)
+        .build());
+    return symmetricEncryptionService.mergePayloadWithCryptoPrimitives(descriptor.getSalt(), descriptor.getIv(),
+      descriptor.getOutput());
+  }
+
+  private Secret store(String name, byte[] ciphered) {
+    Secret secret = new Secret(new SecretId(user.getUid(), name), ciphered, new Date());
+    secret.setVisibilityType(VisibilityType.PRIVATE);
+    secrets.put(secret.getId(), secret);
+    return secret;
+  }
+}
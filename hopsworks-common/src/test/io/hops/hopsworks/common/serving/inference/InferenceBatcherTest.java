@@ -0,0 +1,178 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2021, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.hops.hopsworks.common.serving.inference;
+
+import io.hops.common.Pair;
+import io.hops.hopsworks.common.util.Settings;
+import io.hops.hopsworks.persistence.entity.serving.ModelServer;
+import io.hops.hopsworks.persistence.entity.serving.Serving;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.mockito.internal.util.reflection.Whitebox;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class InferenceBatcherTest {
+
+  private static final int CLIENTS = 32;
+  private static final int REQUESTS_PER_CLIENT = 50;
+
+  private InferenceBatcher inferenceBatcher;
+  private Settings settings;
+  private StubModelServer modelServer;
+  private Serving serving;
+
+  @Before
+  public void setup() {
+    settings = Mockito.mock(Settings.class);
+    Mockito.when(settings.getServingMaxBatchSize()).thenReturn(64);
+    modelServer = new StubModelServer();
+    inferenceBatcher = new InferenceBatcher();
+    Whitebox.setInternalState(inferenceBatcher, "settings", settings);
+    Whitebox.setInternalState(inferenceBatcher, "servingInferenceController", modelServer);
+    serving = new Serving();
+    serving.setId(1);
+    serving.setModelServer(ModelServer.TENSORFLOW_SERVING);
+  }
+
+  @Test
+  public void testEachRequestGetsItsPredictions() throws Exception {
+    Mockito.when(settings.getServingBatchWindowMs()).thenReturn(200);
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<Pair<Integer, String>>> results = new ArrayList<>();
+      for (int i = 0; i < 8; i++) {
+        String request = new JSONObject().put("instances", new JSONArray().put(i).put(i * 10)).toString();
+        results.add(executor.submit(() -> inferenceBatcher.infer(serving, null, ":predict", request)));
+      }
+      for (int i = 0; i < 8; i++) {
+        Pair<Integer, String> result = results.get(i).get(1, TimeUnit.MINUTES);
+        Assert.assertEquals(200, (int) result.getL());
+        JSONArray predictions = new JSONObject(result.getR()).getJSONArray("predictions");
+        Assert.assertEquals(2, predictions.length());
+        Assert.assertEquals(i + 1, predictions.getInt(0));
+        Assert.assertEquals(i * 10 + 1, predictions.getInt(1));
+      }
+      Assert.assertTrue(modelServer.calls.get() < 8);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testNotBatchableRequestsGoStraightThrough() throws Exception {
+    Mockito.when(settings.getServingBatchWindowMs()).thenReturn(20);
+    String request = new JSONObject().put("inputs", new JSONArray().put(1)).toString();
+    Assert.assertEquals(request, inferenceBatcher.infer(serving, null, ":predict", request).getR());
+    request = new JSONObject().put("instances", new JSONArray().put(1)).toString();
+    Assert.assertEquals(request, inferenceBatcher.infer(serving, null, ":classify", request).getR());
+    Assert.assertEquals(2, modelServer.calls.get());
+  }
+
+  @Test
+  public void testFullBatchIsSentBeforeTheWindow() throws Exception {
+    Mockito.when(settings.getServingBatchWindowMs()).thenReturn(60 * 1000);
+    Mockito.when(settings.getServingMaxBatchSize()).thenReturn(2);
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      String request = new JSONObject().put("instances", new JSONArray().put(1)).toString();
+      List<Future<Pair<Integer, String>>> results = new ArrayList<>();
+      for (int i = 0; i < 2; i++) {
+        results.add(executor.submit(() -> inferenceBatcher.infer(serving, null, ":predict", request)));
+      }
+      //the leader is woken up by the second request instead of waiting for the whole window
+      for (Future<Pair<Integer, String>> result : results) {
+        Assert.assertEquals(200, (int) result.get(30, TimeUnit.SECONDS).getL());
+      }
+      Assert.assertEquals(1, modelServer.calls.get());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testLoad() throws Exception {
+    Mockito.when(settings.getServingBatchWindowMs()).thenReturn(0);
+    load();
+    int unbatchedCalls = modelServer.calls.getAndSet(0);
+    Mockito.when(settings.getServingBatchWindowMs()).thenReturn(2);
+    load();
+    int batchedCalls = modelServer.calls.get();
+    Assert.assertEquals(CLIENTS * REQUESTS_PER_CLIENT, unbatchedCalls);
+    Assert.assertTrue("batched calls: " + batchedCalls, batchedCalls < unbatchedCalls);
+  }
+
+  private void load() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(CLIENTS);
+    try {
+      List<Future<?>> clients = new ArrayList<>();
+      for (int c = 0; c < CLIENTS; c++) {
+        clients.add(executor.submit(() -> {
+          String request = new JSONObject().put("instances", new JSONArray().put(1)).toString();
+          for (int i = 0; i < REQUESTS_PER_CLIENT; i++) {
+            Pair<Integer, String> result = inferenceBatcher.infer(serving, null, ":predict", request);
+            Assert.assertEquals(200, (int) result.getL());
+          }
+          return null;
+        }));
+      }
+      for (Future<?> client : clients) {
+        client.get(5, TimeUnit.MINUTES);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Model server that handles one request at a time with a fixed overhead per request, and predicts x + 1.
+   */
+  private static class StubModelServer implements ServingInferenceController {
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @Override
+    public synchronized Pair<Integer, String> infer(Serving serving, Integer modelVersion, String verb,
+      String inferenceRequestJson) {
+      calls.incrementAndGet();
+      JSONObject request = new JSONObject(inferenceRequestJson);
+      if (!":predict".equals(verb) || !request.has("instances")) {
+        return new Pair<>(200, inferenceRequestJson);
+      }
+      try {
+        Thread.sleep(1);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      JSONArray instances = request.getJSONArray("instances");
+      JSONArray predictions = new JSONArray();
+      for (int i = 0; i < instances.length(); i++) {
+        predictions.put(instances.getInt(i) + 1);
+      }
+      return new Pair<>(200, new JSONObject().put("predictions", predictions).toString());
+    }
+  }
+}
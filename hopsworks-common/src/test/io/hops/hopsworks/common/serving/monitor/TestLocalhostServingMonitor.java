@@ -0,0 +1,166 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2021, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.hops.hopsworks.common.serving.monitor;
+
+import io.hops.hopsworks.common.dao.serving.ServingFacade;
+import io.hops.hopsworks.common.util.OSProcessExecutor;
+import io.hops.hopsworks.common.util.ProcessDescriptor;
+import io.hops.hopsworks.common.util.ProcessResult;
+import io.hops.hopsworks.common.util.Settings;
+import io.hops.hopsworks.persistence.entity.project.Project;
+import io.hops.hopsworks.persistence.entity.serving.ModelServer;
+import io.hops.hopsworks.persistence.entity.serving.Serving;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Matchers;
+import org.mockito.Mockito;
+import org.mockito.internal.util.reflection.Whitebox;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static io.hops.hopsworks.common.serving.LocalhostServingController.CID_STOPPED;
+
+public class TestLocalhostServingMonitor {
+
+  private static final int SERVINGS = 500;
+
+  private LocalhostServingMonitor monitor;
+  private ServingFacade servingFacade;
+  private OSProcessExecutor osProcessExecutor;
+  private FakeProcesses processes;
+  private List<Serving> servings;
+  private Set<String> scriptAlive;
+
+  @Before
+  public void setup() throws Exception {
+    Settings settings = Mockito.mock(Settings.class);
+    Mockito.when(settings.getServingMonitorParallelism()).thenReturn(8);
+    Mockito.when(settings.getStagingDir()).thenReturn("/srv/hops/staging");
+
+    Project project = new Project("demo");
+    servings = new ArrayList<>();
+    processes = new FakeProcesses();
+    for (int i = 0; i < SERVINGS; i++) {
+      Serving serving = new Serving();
+      serving.setId(i);
+      serving.setName("model" + i);
+      serving.setProject(project);
+      serving.setModelServer(i % 2 == 0 ? ModelServer.TENSORFLOW_SERVING : ModelServer.FLASK);
+      serving.setCid(String.valueOf(10000 + i));
+      serving.setLocalPort(20000 + i);
+      serving.setLocalDir("dir" + i);
+      servings.add(serving);
+      processes.pids.add(serving.getCid());
+      processes.ports.add(serving.getLocalPort());
+    }
+
+    servingFacade = Mockito.mock(ServingFacade.class);
+    Mockito.when(servingFacade.getLocalhostRunning()).thenReturn(servings);
+    Mockito.when(servingFacade.acquireLock(Matchers.any(Project.class), Matchers.anyInt()))
+      .thenAnswer(invocation -> servings.get((Integer) invocation.getArguments()[1]));
+
+    scriptAlive = ConcurrentHashMap.newKeySet();
+    osProcessExecutor = Mockito.mock(OSProcessExecutor.class);
+    Mockito.when(osProcessExecutor.execute(Matchers.any(ProcessDescriptor.class))).thenAnswer(invocation -> {
+      List<String> command = ((ProcessDescriptor) invocation.getArguments()[0]).getSubcommands();
+      boolean alive = "alive".equals(command.get(2)) && scriptAlive.contains(command.get(4));
+      return new ProcessResult(alive ? 0 : 1, true);
+    });
+
+    monitor = new LocalhostServingMonitor();
+    Whitebox.setInternalState(monitor, "settings", settings);
+    Whitebox.setInternalState(monitor, "servingFacade", servingFacade);
+    Whitebox.setInternalState(monitor, "osProcessExecutor", osProcessExecutor);
+    Whitebox.setInternalState(monitor, "livenessProbe", processes);
+    Whitebox.setInternalState(monitor, "tfScript", "tfserving.sh");
+    Whitebox.setInternalState(monitor, "sklearnScript", "sklearn_serving.sh");
+  }
+
+  @Test
+  public void testAliveServingsAreNotTouched() throws Exception {
+    monitor.monitor(null);
+    Mockito.verify(servingFacade, Mockito.never()).acquireLock(Matchers.any(Project.class), Matchers.anyInt());
+    Mockito.verify(servingFacade, Mockito.never()).updateDbObject(Matchers.any(Serving.class),
+      Matchers.any(Project.class));
+    Mockito.verifyZeroInteractions(osProcessExecutor);
+  }
+
+  @Test
+  public void testOnlyDeadServingsAreStopped() throws Exception {
+    Set<Integer> dead = new HashSet<>();
+    for (int i = 0; i < SERVINGS; i += 7) {
+      processes.pids.remove(servings.get(i).getCid());
+      dead.add(i);
+    }
+    for (int i = 3; i < SERVINGS; i += 11) {
+      processes.ports.remove(servings.get(i).getLocalPort());
+      dead.add(i);
+    }
+
+    monitor.monitor(null);
+
+    for (Serving serving : servings) {
+      boolean isDead = dead.contains(serving.getId());
+      Assert.assertEquals(isDead, CID_STOPPED.equals(serving.getCid()));
+      Assert.assertEquals(isDead ? -1 : 20000 + serving.getId(), (int) serving.getLocalPort());
+    }
+    Mockito.verify(servingFacade, Mockito.times(dead.size())).updateDbObject(Matchers.any(Serving.class),
+      Matchers.any(Project.class));
+    Mockito.verify(servingFacade, Mockito.times(dead.size())).acquireLock(Matchers.any(Project.class),
+      Matchers.anyInt());
+    Mockito.verify(servingFacade, Mockito.times(dead.size())).releaseLock(Matchers.any(Project.class),
+      Matchers.anyInt());
+  }
+
+  @Test
+  public void testNotRespondingServingsAliveForTheScriptAreKept() throws Exception {
+    Serving starting = servings.get(42);
+    processes.ports.remove(starting.getLocalPort());
+    scriptAlive.add(starting.getName());
+
+    monitor.monitor(null);
+
+    Assert.assertEquals("10042", starting.getCid());
+    Mockito.verify(servingFacade).acquireLock(starting.getProject(), starting.getId());
+    Mockito.verify(servingFacade).releaseLock(starting.getProject(), starting.getId());
+    Mockito.verify(servingFacade, Mockito.never()).updateDbObject(Matchers.any(Serving.class),
+      Matchers.any(Project.class));
+  }
+
+  /**
+   * Process table and listening ports of the fake serving processes.
+   */
+  private static class FakeProcesses extends ServingLivenessProbe {
+    private final Set<String> pids = ConcurrentHashMap.newKeySet();
+    private final Set<Integer> ports = ConcurrentHashMap.newKeySet();
+
+    @Override
+    Set<String> runningPids() {
+      return new HashSet<>(pids);
+    }
+
+    @Override
+    boolean isListening(int port) {
+      return ports.contains(port);
+    }
+  }
+}
@@ -0,0 +1,157 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2021, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.hops.hopsworks.common.util;
+
+import io.hops.hopsworks.persistence.entity.util.Variables;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.mockito.internal.util.reflection.Whitebox;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TestSettingsContention {
+
+  private static final int THREADS = 64;
+  private static final int READS_PER_THREAD = 100000;
+
+  private Settings settings;
+
+  @Before
+  public void setup() {
+    List<Variables> variables = new ArrayList<>();
+    variables.add(new Variables("hopsworks_user", "glassfish"));
+    variables.add(new Variables("hops_rpc_tls", "true"));
+    variables.add(new Variables("variables_version", "1"));
+
+    TypedQuery<Variables> findAll = Mockito.mock(TypedQuery.class);
+    Mockito.when(findAll.getResultList()).thenReturn(variables);
+    EntityManager em = Mockito.mock(EntityManager.class);
+    Mockito.when(em.createNamedQuery("Variables.findAll", Variables.class)).thenReturn(findAll);
+
+    settings = new Settings();
+    Whitebox.setInternalState(settings, "em", em);
+  }
+
+  @Test
+  public void testConcurrentReadsDuringRefresh() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS + 1);
+    CountDownLatch start = new CountDownLatch(1);
+    AtomicBoolean done = new AtomicBoolean(false);
+    try {
+      List<Future<Long>> readers = new ArrayList<>(THREADS);
+      for (int i = 0; i < THREADS; i++) {
+        readers.add(executor.submit(() -> {
+          start.await();
+          long hits = 0;
+          for (int j = 0; j < READS_PER_THREAD; j++) {
+            if (settings.getHopsRpcTls() && "glassfish".equals(settings.getHopsworksUser())
+              && settings.getSparkDir() != null && settings.getStagingDir() != null) {
+              hits++;
+            }
+          }
+          return hits;
+        }));
+      }
+      Future<Integer> refresher = executor.submit(() -> {
+        start.await();
+        int refreshes = 0;
+        while (!done.get()) {
+          settings.refreshCache();
+          refreshes++;
+          Thread.sleep(1);
+        }
+        return refreshes;
+      });
+
+      start.countDown();
+      long hits = 0;
+      for (Future<Long> reader : readers) {
+        hits += reader.get(5, TimeUnit.MINUTES);
+      }
+      done.set(true);
+      int refreshes = refresher.get(1, TimeUnit.MINUTES);
+
+      // values never disappear while the cache is being refreshed
+      Assert.assertEquals((long) THREADS * READS_PER_THREAD, hits);
+      Assert.assertTrue(refreshes > 0);
+    } finally {
+      done.set(true);
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testReadersNeverSeeHalfRefreshedValues() throws Exception {
+    List<Variables> first = new ArrayList<>();
+    first.add(new Variables("dela_cluster_ip", "10.0.0.1"));
+    first.add(new Variables("dela_cluster_http_port", "1111"));
+    List<Variables> second = new ArrayList<>();
+    second.add(new Variables("dela_cluster_ip", "10.0.0.2"));
+    second.add(new Variables("dela_cluster_http_port", "2222"));
+    AtomicInteger loads = new AtomicInteger();
+    TypedQuery<Variables> findAll = Mockito.mock(TypedQuery.class);
+    Mockito.when(findAll.getResultList()).thenAnswer(i -> loads.getAndIncrement() % 2 == 0 ? first : second);
+    EntityManager em = Mockito.mock(EntityManager.class);
+    Mockito.when(em.createNamedQuery("Variables.findAll", Variables.class)).thenReturn(findAll);
+    Whitebox.setInternalState(settings, "em", em);
+
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS + 1);
+    AtomicBoolean done = new AtomicBoolean(false);
+    try {
+      List<Future<Integer>> readers = new ArrayList<>(THREADS);
+      for (int i = 0; i < THREADS; i++) {
+        readers.add(executor.submit(() -> {
+          int mixed = 0;
+          for (int j = 0; j < READS_PER_THREAD / 10; j++) {
+            // the endpoint is built from two variables, it must never combine two different loads
+            String endpoint = settings.getDELA_TRANSFER_HTTP_ENDPOINT();
+            if (!endpoint.equals("http://10.0.0.1:1111/") && !endpoint.equals("http://10.0.0.2:2222/")) {
+              mixed++;
+            }
+          }
+          return mixed;
+        }));
+      }
+      Future<?> refresher = executor.submit(() -> {
+        while (!done.get()) {
+          settings.refreshCache();
+        }
+      });
+      for (Future<Integer> reader : readers) {
+        Assert.assertEquals(0, (int) reader.get(5, TimeUnit.MINUTES));
+      }
+      done.set(true);
+      refresher.get(1, TimeUnit.MINUTES);
+      Assert.assertTrue(loads.get() > 1);
+    } finally {
+      done.set(true);
+      executor.shutdownNow();
+    }
+  }
+}
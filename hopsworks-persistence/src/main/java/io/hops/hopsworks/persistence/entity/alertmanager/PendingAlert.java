@@ -0,0 +1,142 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2021, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.persistence.entity.alertmanager;
+
+import javax.persistence.Basic;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.NamedQueries;
+import javax.persistence.NamedQuery;
+import javax.persistence.Table;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
+import javax.validation.constraints.NotNull;
+import javax.xml.bind.annotation.XmlRootElement;
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * Alert queued to be sent to Alertmanager. An alert is claimed by the instance sending it and removed once sent, an
+ * alert whose claim expired, because the instance stopped while sending it, is sent by the next instance.
+ */
+@Entity
+@Table(name = "pending_alert",
+    catalog = "hopsworks",
+    schema = "")
+@XmlRootElement
+@NamedQueries({
+  @NamedQuery(name = "PendingAlert.findClaimable",
+      query = "SELECT p FROM PendingAlert p WHERE p.claimedAt IS NULL OR p.claimedAt < :expired ORDER BY p.id")
+  ,
+    @NamedQuery(name = "PendingAlert.countClaimable",
+      query = "SELECT COUNT(p) FROM PendingAlert p WHERE p.claimedAt IS NULL OR p.claimedAt < :expired")
+  ,
+    @NamedQuery(name = "PendingAlert.claim",
+      query = "UPDATE PendingAlert p SET p.claimedAt = :claimedAt WHERE p.id = :id AND (p.claimedAt IS NULL OR "
+        + "p.claimedAt < :expired)")
+  ,
+    @NamedQuery(name = "PendingAlert.deleteByIds",
+      query = "DELETE FROM PendingAlert p WHERE p.id IN :ids")})
+public class PendingAlert implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @Basic(optional = false)
+  @Column(name = "id")
+  private Integer id;
+  //The alert as sent to Alertmanager, in json
+  @Basic(optional = false)
+  @NotNull
+  @Column(name = "content")
+  private String content;
+  @Basic(optional = false)
+  @NotNull
+  @Column(name = "queued_at")
+  @Temporal(TemporalType.TIMESTAMP)
+  private Date queuedAt;
+  @Column(name = "claimed_at")
+  @Temporal(TemporalType.TIMESTAMP)
+  private Date claimedAt;
+
+  public PendingAlert() {
+  }
+
+  public PendingAlert(String content, Date queuedAt) {
+    this.content = content;
+    this.queuedAt = queuedAt;
+  }
+
+  public Integer getId() {
+    return id;
+  }
+
+  public void setId(Integer id) {
+    this.id = id;
+  }
+
+  public String getContent() {
+    return content;
+  }
+
+  public void setContent(String content) {
+    this.content = content;
+  }
+
+  public Date getQueuedAt() {
+    return queuedAt;
+  }
+
+  public void setQueuedAt(Date queuedAt) {
+    this.queuedAt = queuedAt;
+  }
+
+  public Date getClaimedAt() {
+    return claimedAt;
+  }
+
+  public void setClaimedAt(Date claimedAt) {
+    this.claimedAt = claimedAt;
+  }
+
+  @Override
+  public int hashCode() {
+    int hash = 0;
+    hash += (id != null ? id.hashCode() : 0);
+    return hash;
+  }
+
+  @Override
+  public boolean equals(Object object) {
+    if (!(object instanceof PendingAlert)) {
+      return false;
+    }
+    PendingAlert other = (PendingAlert) object;
+    if ((this.id == null && other.id != null) || (this.id != null && !this.id.equals(other.id))) {
+      return false;
+    }
+    return true;
+  }
+
+  @Override
+  public String toString() {
+    return "io.hops.hopsworks.persistence.entity.alertmanager.PendingAlert[ id=" + id + " ]";
+  }
+
+}
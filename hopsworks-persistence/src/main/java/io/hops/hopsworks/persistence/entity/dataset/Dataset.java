@@ -86,6 +86,9 @@ import java.util.Collection;
   ,
     @NamedQuery(name = "Dataset.findByProject",
       query = "SELECT d FROM Dataset d WHERE d.project = :project")
+  ,
+    @NamedQuery(name = "Dataset.findByProjectsAndDstypes",
+      query = "SELECT d FROM Dataset d WHERE d.project IN :projects AND d.dsType IN :dstypes")
   ,
     @NamedQuery(name = "Dataset.findByProjectAndInode",
       query = "SELECT d FROM Dataset d WHERE d.project = :project AND d.inode = :inode")
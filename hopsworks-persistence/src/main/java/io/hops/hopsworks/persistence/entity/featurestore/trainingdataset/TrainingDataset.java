@@ -61,6 +61,9 @@ import java.util.Objects;
   @NamedQuery(name = "TrainingDataset.findById", query = "SELECT td FROM TrainingDataset td WHERE td.id = :id"),
   @NamedQuery(name = "TrainingDataset.findByFeaturestore", query = "SELECT td FROM TrainingDataset td " +
     "WHERE td.featurestore = :featurestore"),
+  @NamedQuery(name = "TrainingDataset.findByFeaturestoreOrderById", query = "SELECT td FROM TrainingDataset td " +
+    "LEFT JOIN FETCH td.statisticsConfig LEFT JOIN FETCH td.hopsfsTrainingDataset " +
+    "LEFT JOIN FETCH td.externalTrainingDataset WHERE td.featurestore = :featurestore ORDER BY td.id"),
   @NamedQuery(name = "TrainingDataset.countByFeaturestore", query = "SELECT count(td.id) FROM TrainingDataset td " +
         "WHERE td.featurestore = :featurestore"),
   @NamedQuery(name = "TrainingDataset.findByFeaturestoreAndId", query = "SELECT td FROM TrainingDataset td " +
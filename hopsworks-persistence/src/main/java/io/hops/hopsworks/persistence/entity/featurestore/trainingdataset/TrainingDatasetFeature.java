@@ -26,6 +26,8 @@ import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.JoinColumn;
+import javax.persistence.NamedQueries;
+import javax.persistence.NamedQuery;
 import javax.persistence.Table;
 import javax.xml.bind.annotation.XmlRootElement;
 import java.io.Serializable;
@@ -34,6 +36,10 @@ import java.util.Objects;
 @Entity
 @Table(name = "training_dataset_feature", catalog = "hopsworks")
 @XmlRootElement
+@NamedQueries({
+  @NamedQuery(name = "TrainingDatasetFeature.findByTrainingDatasets",
+    query = "SELECT f FROM TrainingDatasetFeature f LEFT JOIN FETCH f.featureGroup " +
+    "LEFT JOIN FETCH f.trainingDatasetJoin WHERE f.trainingDataset IN :trainingDatasets")})
 public class TrainingDatasetFeature implements Serializable {
   private static final long serialVersionUID = 1L;
   @Id
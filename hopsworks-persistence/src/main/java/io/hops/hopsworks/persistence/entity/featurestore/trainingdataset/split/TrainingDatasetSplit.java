@@ -45,7 +45,9 @@ import java.io.Serializable;
   @NamedQuery(name = "TrainingDatasetSplit.findById",
     query = "SELECT split FROM TrainingDatasetSplit split WHERE split.id = :id"),
   @NamedQuery(name = "TrainingDatasetSplit.findByTrainingDataset",
-    query = "SELECT split FROM TrainingDatasetSplit split WHERE split.trainingDataset = :training_dataset")})
+    query = "SELECT split FROM TrainingDatasetSplit split WHERE split.trainingDataset = :training_dataset"),
+  @NamedQuery(name = "TrainingDatasetSplit.findByTrainingDatasets",
+    query = "SELECT split FROM TrainingDatasetSplit split WHERE split.trainingDataset IN :trainingDatasets")})
 public class TrainingDatasetSplit implements Serializable {
   private static final long serialVersionUID = 1L;
   @Id
@@ -60,6 +60,9 @@ import javax.xml.bind.annotation.XmlRootElement;
   @NamedQuery(name = "HdfsDirectoryWithQuotaFeature.findByInodeId",
           query
           = "SELECT h FROM HdfsDirectoryWithQuotaFeature h WHERE h.inodeId = :inodeId"),
+  @NamedQuery(name = "HdfsDirectoryWithQuotaFeature.findByInodeIds",
+          query
+          = "SELECT h FROM HdfsDirectoryWithQuotaFeature h WHERE h.inodeId IN :inodeIds"),
   @NamedQuery(name = "HdfsDirectoryWithQuotaFeature.findByNsquota",
           query
           = "SELECT h FROM HdfsDirectoryWithQuotaFeature h WHERE h.nsquota = :nsquota"),
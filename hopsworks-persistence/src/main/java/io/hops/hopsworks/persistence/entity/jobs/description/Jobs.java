@@ -89,6 +89,9 @@ import java.util.Date;
   @NamedQuery(name = "Jobs.findById",
           query
           = "SELECT j FROM Jobs j WHERE j.id = :id"),
+  @NamedQuery(name = "Jobs.findByIds",
+          query
+          = "SELECT j FROM Jobs j WHERE j.id IN :ids"),
   @NamedQuery(name = "Jobs.findByName",
           query
           = "SELECT j FROM Jobs j WHERE j.name = :name"),
@@ -60,6 +60,9 @@ import javax.xml.bind.annotation.XmlRootElement;
   @NamedQuery(name = "YarnProjectsQuota.findByProjectname",
           query
           = "SELECT y FROM YarnProjectsQuota y WHERE y.projectname = :projectname"),
+  @NamedQuery(name = "YarnProjectsQuota.findByProjectnames",
+          query
+          = "SELECT y FROM YarnProjectsQuota y WHERE y.projectname IN :projectnames"),
   @NamedQuery(name = "YarnProjectsQuota.findByQuotaRemaining",
           query
           = "SELECT y FROM YarnProjectsQuota y WHERE y.quotaRemaining = :quotaRemaining"),
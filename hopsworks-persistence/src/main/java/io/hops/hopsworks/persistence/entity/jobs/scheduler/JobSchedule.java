@@ -0,0 +1,135 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2021, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.persistence.entity.jobs.scheduler;
+
+import javax.persistence.Basic;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.NamedQueries;
+import javax.persistence.NamedQuery;
+import javax.persistence.Table;
+import javax.validation.constraints.NotNull;
+import javax.xml.bind.annotation.XmlRootElement;
+import java.io.Serializable;
+
+/**
+ * Schedule of a job and its next fire time. The times are in milliseconds since the epoch, so that the next fire
+ * time read by an instance can be compared as is when the instance claims it.
+ */
+@Entity
+@Table(name = "job_schedule",
+    catalog = "hopsworks",
+    schema = "")
+@XmlRootElement
+@NamedQueries({
+  @NamedQuery(name = "JobSchedule.findDue",
+      query = "SELECT s FROM JobSchedule s WHERE s.nextFireTime <= :now ORDER BY s.nextFireTime")
+  ,
+    @NamedQuery(name = "JobSchedule.claim",
+      query = "UPDATE JobSchedule s SET s.nextFireTime = :next WHERE s.jobId = :jobId AND "
+        + "s.nextFireTime = :expected")
+  ,
+    @NamedQuery(name = "JobSchedule.deleteByJobIds",
+      query = "DELETE FROM JobSchedule s WHERE s.jobId IN :jobIds")})
+public class JobSchedule implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+  @Id
+  @Basic(optional = false)
+  @NotNull
+  @Column(name = "job_id")
+  private Integer jobId;
+  @Basic(optional = false)
+  @NotNull
+  @Column(name = "start_time")
+  private Long startTime;
+  @Basic(optional = false)
+  @NotNull
+  @Column(name = "interval_ms")
+  private Long interval;
+  @Basic(optional = false)
+  @NotNull
+  @Column(name = "next_fire_time")
+  private Long nextFireTime;
+
+  public JobSchedule() {
+  }
+
+  public JobSchedule(Integer jobId, Long startTime, Long interval, Long nextFireTime) {
+    this.jobId = jobId;
+    this.startTime = startTime;
+    this.interval = interval;
+    this.nextFireTime = nextFireTime;
+  }
+
+  public Integer getJobId() {
+    return jobId;
+  }
+
+  public void setJobId(Integer jobId) {
+    this.jobId = jobId;
+  }
+
+  public Long getStartTime() {
+    return startTime;
+  }
+
+  public void setStartTime(Long startTime) {
+    this.startTime = startTime;
+  }
+
+  public Long getInterval() {
+    return interval;
+  }
+
+  public void setInterval(Long interval) {
+    this.interval = interval;
+  }
+
+  public Long getNextFireTime() {
+    return nextFireTime;
+  }
+
+  public void setNextFireTime(Long nextFireTime) {
+    this.nextFireTime = nextFireTime;
+  }
+
+  @Override
+  public int hashCode() {
+    int hash = 0;
+    hash += (jobId != null ? jobId.hashCode() : 0);
+    return hash;
+  }
+
+  @Override
+  public boolean equals(Object object) {
+    if (!(object instanceof JobSchedule)) {
+      return false;
+    }
+    JobSchedule other = (JobSchedule) object;
+    if ((this.jobId == null && other.jobId != null) || (this.jobId != null && !this.jobId.equals(other.jobId))) {
+      return false;
+    }
+    return true;
+  }
+
+  @Override
+  public String toString() {
+    return "io.hops.hopsworks.persistence.entity.jobs.scheduler.JobSchedule[ jobId=" + jobId + " ]";
+  }
+
+}
@@ -47,6 +47,9 @@ import javax.xml.bind.annotation.XmlRootElement;
           query
           = "SELECT s FROM Subjects s WHERE s.subject = :subject AND " +
             "s.project = :project"),
+  @NamedQuery(name = "Subjects.findBySubjectWithSchema",
+          query = "SELECT s FROM Subjects s JOIN FETCH s.schema WHERE s.subject = :subject AND " +
+            "s.project = :project"),
   @NamedQuery(name = "Subjects.findByVersion",
           query
           = "SELECT s FROM Subjects s WHERE s.version = :version AND " +
@@ -112,6 +112,8 @@ import java.util.Map;
   @NamedQuery(name = "Project.findByInodeId",
       query = "SELECT t FROM Project t WHERE t.inode.inodePK.parentId = :parentid "
       + "AND t.inode.inodePK.name = :name"),
+  @NamedQuery(name = "Project.findInodeIds",
+      query = "SELECT t.inode.id FROM Project t WHERE t.inode.id IN :inodeIds"),
   @NamedQuery(name = "Project.findByNameCaseInsensitive",
       query = "SELECT t FROM Project t where LOWER(t.name) = LOWER(:name)")})
 public class Project implements Serializable {
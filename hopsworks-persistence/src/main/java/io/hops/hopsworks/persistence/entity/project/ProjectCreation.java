@@ -0,0 +1,215 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2021, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.persistence.entity.project;
+
+import javax.persistence.Basic;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.NamedQueries;
+import javax.persistence.NamedQuery;
+import javax.persistence.Table;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import javax.xml.bind.annotation.XmlRootElement;
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * Progress of the creation of a project, written by the instance creating it so that any instance can report it.
+ * Creations that are not updated anymore, because they ended or the instance stopped, are removed after a while.
+ */
+@Entity
+@Table(name = "project_creation",
+    catalog = "hopsworks",
+    schema = "")
+@XmlRootElement
+@NamedQueries({
+  @NamedQuery(name = "ProjectCreation.findByProjectNameAndOwner",
+      query = "SELECT p FROM ProjectCreation p WHERE p.projectName = :projectName AND p.owner = :owner ORDER BY p.id "
+        + "DESC")
+  ,
+    @NamedQuery(name = "ProjectCreation.failStale",
+      query = "UPDATE ProjectCreation p SET p.state = :failed, p.error = :error, p.updated = :now WHERE p.state = "
+        + ":running AND p.updated < :staleBefore")
+  ,
+    @NamedQuery(name = "ProjectCreation.deleteEnded",
+      query = "DELETE FROM ProjectCreation p WHERE p.state <> :running AND p.updated < :endedBefore")})
+public class ProjectCreation implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @Basic(optional = false)
+  @Column(name = "id")
+  private Integer id;
+  @Basic(optional = false)
+  @NotNull
+  @Size(min = 1, max = 88)
+  @Column(name = "project_name")
+  private String projectName;
+  //Username of the user creating the project
+  @Basic(optional = false)
+  @NotNull
+  @Size(min = 1, max = 10)
+  @Column(name = "owner")
+  private String owner;
+  @Column(name = "project_id")
+  private Integer projectId;
+  @Basic(optional = false)
+  @NotNull
+  @Size(min = 1, max = 16)
+  @Column(name = "state")
+  private String state;
+  @Basic(optional = false)
+  @NotNull
+  @Column(name = "started")
+  @Temporal(TemporalType.TIMESTAMP)
+  private Date started;
+  @Basic(optional = false)
+  @NotNull
+  @Column(name = "updated")
+  @Temporal(TemporalType.TIMESTAMP)
+  private Date updated;
+  @Column(name = "duration_ms")
+  private Long durationMs;
+  @Size(max = 1000)
+  @Column(name = "error")
+  private String error;
+  //Name, state and duration of the steps, in json
+  @Column(name = "steps")
+  private String steps;
+
+  public ProjectCreation() {
+  }
+
+  public ProjectCreation(String projectName, String owner, String state, Date started) {
+    this.projectName = projectName;
+    this.owner = owner;
+    this.state = state;
+    this.started = started;
+    this.updated = started;
+  }
+
+  public Integer getId() {
+    return id;
+  }
+
+  public void setId(Integer id) {
+    this.id = id;
+  }
+
+  public String getProjectName() {
+    return projectName;
+  }
+
+  public void setProjectName(String projectName) {
+    this.projectName = projectName;
+  }
+
+  public String getOwner() {
+    return owner;
+  }
+
+  public void setOwner(String owner) {
+    this.owner = owner;
+  }
+
+  public Integer getProjectId() {
+    return projectId;
+  }
+
+  public void setProjectId(Integer projectId) {
+    this.projectId = projectId;
+  }
+
+  public String getState() {
+    return state;
+  }
+
+  public void setState(String state) {
+    this.state = state;
+  }
+
+  public Date getStarted() {
+    return started;
+  }
+
+  public void setStarted(Date started) {
+    this.started = started;
+  }
+
+  public Date getUpdated() {
+    return updated;
+  }
+
+  public void setUpdated(Date updated) {
+    this.updated = updated;
+  }
+
+  public Long getDurationMs() {
+    return durationMs;
+  }
+
+  public void setDurationMs(Long durationMs) {
+    this.durationMs = durationMs;
+  }
+
+  public String getError() {
+    return error;
+  }
+
+  public void setError(String error) {
+    this.error = error;
+  }
+
+  public String getSteps() {
+    return steps;
+  }
+
+  public void setSteps(String steps) {
+    this.steps = steps;
+  }
+
+  @Override
+  public int hashCode() {
+    int hash = 0;
+    hash += (id != null ? id.hashCode() : 0);
+    return hash;
+  }
+
+  @Override
+  public boolean equals(Object object) {
+    if (!(object instanceof ProjectCreation)) {
+      return false;
+    }
+    ProjectCreation other = (ProjectCreation) object;
+    if ((this.id == null && other.id != null) || (this.id != null && !this.id.equals(other.id))) {
+      return false;
+    }
+    return true;
+  }
+
+  @Override
+  public String toString() {
+    return "io.hops.hopsworks.persistence.entity.project.ProjectCreation[ id=" + id + " ]";
+  }
+
+}
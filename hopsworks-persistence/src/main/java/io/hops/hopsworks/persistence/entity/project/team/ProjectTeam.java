@@ -69,6 +69,8 @@ import io.hops.hopsworks.persistence.entity.user.Users;
           query = "SELECT s FROM ProjectTeam s"),
   @NamedQuery(name = "ProjectTeam.findByProject",
           query = "SELECT s FROM ProjectTeam s WHERE s.project = :project"),
+  @NamedQuery(name = "ProjectTeam.findByProjects",
+          query = "SELECT s FROM ProjectTeam s WHERE s.project IN :projects"),
   @NamedQuery(name = "ProjectTeam.findActiveByTeamMember",
           query
           = "SELECT s FROM ProjectTeam s WHERE s.user = :user AND s.teamRole != \"Under removal\" "),
@@ -0,0 +1,150 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2021, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.persistence.entity.security;
+
+import javax.persistence.Basic;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.NamedQueries;
+import javax.persistence.NamedQuery;
+import javax.persistence.Table;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import javax.xml.bind.annotation.XmlRootElement;
+import java.io.Serializable;
+
+/**
+ * Change of the master encryption password in progress. There is at most one row, with id {@link #ID}, so that only
+ * one change can run in the cluster. The new password is stored encrypted with the old one. The heartbeat, in
+ * milliseconds since the epoch, is moved forward by the instance running the change and is claimed by the instance
+ * resuming a change whose instance stopped.
+ */
+@Entity
+@Table(name = "master_password_rotation",
+    catalog = "hopsworks",
+    schema = "")
+@XmlRootElement
+@NamedQueries({
+  @NamedQuery(name = "MasterPasswordRotation.claim",
+      query = "UPDATE MasterPasswordRotation r SET r.heartbeat = :next WHERE r.id = :id AND r.heartbeat = :expected")
+  ,
+    @NamedQuery(name = "MasterPasswordRotation.delete",
+      query = "DELETE FROM MasterPasswordRotation r WHERE r.id = :id")})
+public class MasterPasswordRotation implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+  public static final Integer ID = 1;
+  @Id
+  @Basic(optional = false)
+  @NotNull
+  @Column(name = "id")
+  private Integer id;
+  @Basic(optional = false)
+  @NotNull
+  @Size(min = 1, max = 512)
+  @Column(name = "new_password")
+  private String newPassword;
+  //sha256 of the new password, to tell whether the change finished before it was interrupted
+  @Basic(optional = false)
+  @NotNull
+  @Size(min = 1, max = 64)
+  @Column(name = "new_password_hash")
+  private String newPasswordHash;
+  //Comma separated names of the handlers that rotated all their items
+  @Size(max = 1000)
+  @Column(name = "done_handlers")
+  private String doneHandlers;
+  @Basic(optional = false)
+  @NotNull
+  @Column(name = "heartbeat")
+  private Long heartbeat;
+
+  public MasterPasswordRotation() {
+  }
+
+  public MasterPasswordRotation(String newPassword, String newPasswordHash, Long heartbeat) {
+    this.id = ID;
+    this.newPassword = newPassword;
+    this.newPasswordHash = newPasswordHash;
+    this.heartbeat = heartbeat;
+  }
+
+  public Integer getId() {
+    return id;
+  }
+
+  public void setId(Integer id) {
+    this.id = id;
+  }
+
+  public String getNewPassword() {
+    return newPassword;
+  }
+
+  public void setNewPassword(String newPassword) {
+    this.newPassword = newPassword;
+  }
+
+  public String getNewPasswordHash() {
+    return newPasswordHash;
+  }
+
+  public void setNewPasswordHash(String newPasswordHash) {
+    this.newPasswordHash = newPasswordHash;
+  }
+
+  public String getDoneHandlers() {
+    return doneHandlers;
+  }
+
+  public void setDoneHandlers(String doneHandlers) {
+    this.doneHandlers = doneHandlers;
+  }
+
+  public Long getHeartbeat() {
+    return heartbeat;
+  }
+
+  public void setHeartbeat(Long heartbeat) {
+    this.heartbeat = heartbeat;
+  }
+
+  @Override
+  public int hashCode() {
+    int hash = 0;
+    hash += (id != null ? id.hashCode() : 0);
+    return hash;
+  }
+
+  @Override
+  public boolean equals(Object object) {
+    if (!(object instanceof MasterPasswordRotation)) {
+      return false;
+    }
+    MasterPasswordRotation other = (MasterPasswordRotation) object;
+    if ((this.id == null && other.id != null) || (this.id != null && !this.id.equals(other.id))) {
+      return false;
+    }
+    return true;
+  }
+
+  @Override
+  public String toString() {
+    return "io.hops.hopsworks.persistence.entity.security.MasterPasswordRotation[ id=" + id + " ]";
+  }
+
+}
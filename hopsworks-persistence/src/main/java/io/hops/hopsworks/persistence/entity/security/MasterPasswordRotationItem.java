@@ -0,0 +1,134 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2021, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.persistence.entity.security;
+
+import javax.persistence.Basic;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.NamedQueries;
+import javax.persistence.NamedQuery;
+import javax.persistence.Table;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import javax.xml.bind.annotation.XmlRootElement;
+import java.io.Serializable;
+
+/**
+ * Old ciphertext of an item, logged before the item is encrypted with the new master encryption password.
+ */
+@Entity
+@Table(name = "master_password_rotation_item",
+    catalog = "hopsworks",
+    schema = "")
+@XmlRootElement
+@NamedQueries({
+  @NamedQuery(name = "MasterPasswordRotationItem.findAll",
+      query = "SELECT i FROM MasterPasswordRotationItem i")
+  ,
+    @NamedQuery(name = "MasterPasswordRotationItem.deleteAll",
+      query = "DELETE FROM MasterPasswordRotationItem i")})
+public class MasterPasswordRotationItem implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @Basic(optional = false)
+  @Column(name = "id")
+  private Integer id;
+  @Basic(optional = false)
+  @NotNull
+  @Size(min = 1, max = 128)
+  @Column(name = "handler")
+  private String handler;
+  @Basic(optional = false)
+  @NotNull
+  @Size(min = 1, max = 512)
+  @Column(name = "item_key")
+  private String itemKey;
+  @Basic(optional = false)
+  @NotNull
+  @Column(name = "old_value")
+  private byte[] oldValue;
+
+  public MasterPasswordRotationItem() {
+  }
+
+  public MasterPasswordRotationItem(String handler, String itemKey, byte[] oldValue) {
+    this.handler = handler;
+    this.itemKey = itemKey;
+    this.oldValue = oldValue;
+  }
+
+  public Integer getId() {
+    return id;
+  }
+
+  public void setId(Integer id) {
+    this.id = id;
+  }
+
+  public String getHandler() {
+    return handler;
+  }
+
+  public void setHandler(String handler) {
+    this.handler = handler;
+  }
+
+  public String getItemKey() {
+    return itemKey;
+  }
+
+  public void setItemKey(String itemKey) {
+    this.itemKey = itemKey;
+  }
+
+  public byte[] getOldValue() {
+    return oldValue;
+  }
+
+  public void setOldValue(byte[] oldValue) {
+    this.oldValue = oldValue;
+  }
+
+  @Override
+  public int hashCode() {
+    int hash = 0;
+    hash += (id != null ? id.hashCode() : 0);
+    return hash;
+  }
+
+  @Override
+  public boolean equals(Object object) {
+    if (!(object instanceof MasterPasswordRotationItem)) {
+      return false;
+    }
+    MasterPasswordRotationItem other = (MasterPasswordRotationItem) object;
+    if ((this.id == null && other.id != null) || (this.id != null && !this.id.equals(other.id))) {
+      return false;
+    }
+    return true;
+  }
+
+  @Override
+  public String toString() {
+    return "io.hops.hopsworks.persistence.entity.security.MasterPasswordRotationItem[ id=" + id + " ]";
+  }
+
+}
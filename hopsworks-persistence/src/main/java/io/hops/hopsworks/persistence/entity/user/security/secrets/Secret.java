@@ -37,7 +37,10 @@ import java.util.Date;
     @NamedQuery(name = "Secret.findAll",
                 query = "SELECT s FROM Secret s"),
     @NamedQuery(name = "Secret.findByName",
-        query = "SELECT s FROM Secret s WHERE s.id.name = :name")
+        query = "SELECT s FROM Secret s WHERE s.id.name = :name"),
+    @NamedQuery(name = "Secret.updateSecretIfUnchanged",
+        query = "UPDATE Secret s SET s.secret = :secret WHERE s.id.uid = :uid AND s.id.name = :name AND "
+          + "s.secret = :expected")
   })
 public class Secret implements Serializable {
   private static final long serialVersionUID = 1L;
@@ -0,0 +1,153 @@
+/*
+ * This file is part of Hopsworks
+ * Copyright (C) 2021, Logical Clocks AB. All rights reserved
+ *
+ * Hopsworks is free software: you can redistribute it and/or modify it under the terms of
+ * the GNU Affero General Public License as published by the Free Software Foundation,
+ * either version 3 of the License, or (at your option) any later version.
+ *
+ * Hopsworks is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ * PURPOSE.  See the GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License along with this program.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+package io.hops.hopsworks.persistence.profiler;
+
+import org.eclipse.persistence.internal.sessions.AbstractSession;
+import org.eclipse.persistence.queries.DatabaseQuery;
+import org.eclipse.persistence.sessions.Record;
+import org.eclipse.persistence.sessions.SessionProfiler;
+import org.eclipse.persistence.sessions.SessionProfilerAdapter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the executions and the time spent in every query of the persistence unit. Queries are identified by their
+ * name, relationship and find queries by the kind of query and the entity they read. The time of a query includes
+ * the queries it triggers, e.g. to load eager relationships.
+ * <p>
+ * The reads of every entity served from the shared cache, and the ones that missed it, are counted as well, so that
+ * the queries saved by making an entity cacheable can be compared to its queries when it is not.
+ */
+public class QueryProfiler extends SessionProfilerAdapter {
+
+  private final ConcurrentHashMap<String, QueryStatistics> statistics = new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<String, CacheStatistics> cacheStatistics = new ConcurrentHashMap<>();
+
+  @Override
+  public int getProfileWeight() {
+    return SessionProfiler.ALL;
+  }
+
+  @Override
+  public Object profileExecutionOfQuery(DatabaseQuery query, Record row, AbstractSession session) {
+    long start = System.nanoTime();
+    try {
+      return super.profileExecutionOfQuery(query, row, session);
+    } finally {
+      statistics.computeIfAbsent(name(query), QueryStatistics::new).record(System.nanoTime() - start);
+    }
+  }
+
+  @Override
+  public void occurred(String operationName, DatabaseQuery query, AbstractSession session) {
+    boolean hit = SessionProfiler.CacheHits.equals(operationName);
+    if ((hit || SessionProfiler.CacheMisses.equals(operationName)) && query != null
+      && query.getReferenceClass() != null) {
+      cacheStatistics.computeIfAbsent(query.getReferenceClass().getSimpleName(), CacheStatistics::new).record(hit);
+    }
+  }
+
+  private String name(DatabaseQuery query) {
+    String name = query.getName();
+    if (name == null || name.isEmpty()) {
+      name = query.getClass().getSimpleName();
+    }
+    Class<?> referenceClass = query.getReferenceClass();
+    if (referenceClass == null || name.startsWith(referenceClass.getSimpleName() + ".")) {
+      return name;
+    }
+    return referenceClass.getSimpleName() + " " + name;
+  }
+
+  public List<QueryStatistics> getStatistics() {
+    return new ArrayList<>(statistics.values());
+  }
+
+  public List<CacheStatistics> getCacheStatistics() {
+    return new ArrayList<>(cacheStatistics.values());
+  }
+
+  public void reset() {
+    statistics.clear();
+    cacheStatistics.clear();
+  }
+
+  public static class QueryStatistics {
+    private final String query;
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalTime = new LongAdder();
+    private final AtomicLong maxTime = new AtomicLong();
+
+    private QueryStatistics(String query) {
+      this.query = query;
+    }
+
+    private void record(long nanos) {
+      count.increment();
+      totalTime.add(nanos);
+      maxTime.accumulateAndGet(nanos, Math::max);
+    }
+
+    public String getQuery() {
+      return query;
+    }
+
+    public long getCount() {
+      return count.sum();
+    }
+
+    /**
+     * @return total time spent in the query, in nanoseconds
+     */
+    public long getTotalTime() {
+      return totalTime.sum();
+    }
+
+    public long getMaxTime() {
+      return maxTime.get();
+    }
+  }
+
+  public static class CacheStatistics {
+    private final String entity;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    private CacheStatistics(String entity) {
+      this.entity = entity;
+    }
+
+    private void record(boolean hit) {
+      (hit ? hits : misses).increment();
+    }
+
+    public String getEntity() {
+      return entity;
+    }
+
+    public long getHits() {
+      return hits.sum();
+    }
+
+    public long getMisses() {
+      return misses.sum();
+    }
+  }
+}
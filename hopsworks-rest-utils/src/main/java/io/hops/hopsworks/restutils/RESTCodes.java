@@ -312,7 +312,10 @@ public class RESTCodes {
     DATASET_ACCESS_PERMISSION_DENIED(50, "Permission denied.", Response.Status.FORBIDDEN),
     PATH_ENCODING_NOT_SUPPORTED(51, "Unsupported encoding.", Response.Status.BAD_REQUEST),
     ATTACH_XATTR_ERROR(52, "Failed to attach Xattr.", Response.Status.INTERNAL_SERVER_ERROR),
-    TARGET_PROJECT_NOT_FOUND(53, "Target project not found.", Response.Status.INTERNAL_SERVER_ERROR);
+    TARGET_PROJECT_NOT_FOUND(53, "Target project not found.", Response.Status.INTERNAL_SERVER_ERROR),
+    COMPRESSION_IN_PROGRESS(54, "A (un)compress operation is already running on this path",
+        Response.Status.CONFLICT),
+    COMPRESSION_NOT_RUNNING(55, "No (un)compress operation is running on this path", Response.Status.NOT_FOUND);
 
 
     private Integer code;
@@ -1200,7 +1203,8 @@ public class RESTCodes {
     MISSING_VERB(5, "Verb is missing", Response.Status.BAD_REQUEST),
     ERROR_READING_RESPONSE(6, "Error while reading the response", Response.Status.INTERNAL_SERVER_ERROR),
     SERVING_INSTANCE_INTERNAL(7, "Serving instance internal error", Response.Status.INTERNAL_SERVER_ERROR),
-    SERVING_INSTANCE_BAD_REQUEST(8, "Serving instance bad request error", Response.Status.BAD_REQUEST);
+    SERVING_INSTANCE_BAD_REQUEST(8, "Serving instance bad request error", Response.Status.BAD_REQUEST),
+    TOO_MANY_REQUESTS(9, "Too many inference requests, try again later", Response.Status.SERVICE_UNAVAILABLE);
 
     private int code;
     private String message;